@@ -0,0 +1,263 @@
+package com.insurance.audit.benchmarks;
+
+import com.insurance.audit.audit.matchers.Matcher;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentSection;
+import com.insurance.audit.audit.service.DocumentProvider.ParsedDocument;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * 合成保险条款语料
+ * 相同种子与规模生成完全相同的语料，保证不同提交之间的基准结果可比。
+ * 条款中按比例混入手机号、身份证号、邮箱、金额、日期、百分比等检核与脱敏关注的要素
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class ClauseCorpus {
+
+    /**
+     * 默认随机种子
+     */
+    public static final long DEFAULT_SEED = 20240101L;
+
+    private static final String[] PRODUCTS = {
+            "终身寿险", "两全保险", "重大疾病保险", "医疗保险", "意外伤害保险", "年金保险", "定期寿险", "护理保险"
+    };
+
+    private static final String[] SUBJECTS = {
+            "投保人", "被保险人", "受益人", "本公司", "保险人"
+    };
+
+    private static final String[] CLAUSE_TEMPLATES = {
+            "在本合同有效期内，%1$s因意外伤害事故导致身故的，本公司按基本保险金额的%2$d%%给付身故保险金，本合同终止",
+            "%1$s应当在保险事故发生后%2$d日内通知本公司，故意或者因重大过失未及时通知的，本公司对无法确定的部分不承担给付责任",
+            "等待期为%2$d日，%1$s在等待期内因疾病导致的保险事故，本公司不承担保险责任，但无息返还已交保险费",
+            "%1$s在犹豫期内申请解除本合同的，本公司将在扣除不超过%2$d元的工本费后无息退还已交保险费",
+            "因下列情形之一导致被保险人身故的，本公司不承担给付保险金的责任：%1$s故意造成被保险人死亡、伤残或者疾病，免责比例%2$d%%",
+            "本合同的保险期间自本公司同意承保的次日零时开始，至%1$s约定的终止日二十四时止，最长不超过%2$d年",
+            "%1$s申请理赔时应提供保险合同、有效身份证件及医疗机构出具的诊断证明，本公司在收到完整材料后%2$d日内作出核定",
+            "合同生效满%2$d年后，%1$s可以申请保单贷款，贷款金额不得超过保单现金价值扣除各项欠款后余额的80%%"
+    };
+
+    private static final String[] CONTACT_TEMPLATES = {
+            "联系电话%s。",
+            "身份证号码%s。",
+            "电子邮箱%s。",
+            "保险金额人民币%s元。",
+            "生效日期%s。"
+    };
+
+    private static final String[] KEYWORDS = {
+            "保险金", "免责", "等待期", "犹豫期", "身故", "理赔", "现金价值", "保险费"
+    };
+
+    private static final int[] ID_CARD_WEIGHTS = {7, 9, 10, 5, 8, 4, 2, 1, 6, 3, 7, 9, 10, 5, 8, 4, 2};
+    private static final char[] ID_CARD_CHECK_CODES = {'1', '0', 'X', '9', '8', '7', '6', '5', '4', '3', '2'};
+
+    private final SplittableRandom random;
+
+    public ClauseCorpus(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * 常用关键词（用于关键词、短语、组合匹配规则）
+     */
+    public static List<String> keywords() {
+        return List.of(KEYWORDS);
+    }
+
+    /**
+     * 生成单条条款句子
+     */
+    public String clause() {
+        String template = CLAUSE_TEMPLATES[random.nextInt(CLAUSE_TEMPLATES.length)];
+        String subject = SUBJECTS[random.nextInt(SUBJECTS.length)];
+        StringBuilder sb = new StringBuilder(String.format(template, subject, 1 + random.nextInt(100)));
+        sb.append('。');
+
+        // 约三分之一的条款附带个人信息或金额、日期要素
+        if (random.nextInt(3) == 0) {
+            int kind = random.nextInt(CONTACT_TEMPLATES.length);
+            sb.append(String.format(CONTACT_TEMPLATES[kind], contactValue(kind)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 生成由若干条款组成的段落
+     */
+    public String paragraph(int clauses) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < clauses; i++) {
+            sb.append(clause());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 生成解析后的文档：每章一个标题，后接若干段落
+     */
+    public ParsedDocument document(int chapters, int paragraphsPerChapter, int clausesPerParagraph) {
+        List<DocumentSection> sections = new ArrayList<>();
+        StringBuilder plainText = new StringBuilder();
+        int index = 0;
+
+        for (int c = 1; c <= chapters; c++) {
+            String heading = "第" + c + "条 " + PRODUCTS[random.nextInt(PRODUCTS.length)] + "责任";
+            sections.add(section(index++, heading, "heading", 1, plainText));
+            for (int p = 0; p < paragraphsPerChapter; p++) {
+                sections.add(section(index++, paragraph(clausesPerParagraph), "paragraph", null, plainText));
+            }
+        }
+
+        return ParsedDocument.builder()
+                .plainText(plainText.toString())
+                .encoding("UTF-8")
+                .sections(sections)
+                .styleInfo(new HashMap<>())
+                .build();
+    }
+
+    /**
+     * 生成句子级文档块
+     */
+    public List<DocumentChunk> chunks(int count) {
+        List<DocumentChunk> chunks = new ArrayList<>(count);
+        int pos = 0;
+        for (int i = 0; i < count; i++) {
+            String text = clause();
+            chunks.add(DocumentChunk.builder()
+                    .id("chunk_" + i)
+                    .text(text)
+                    .pageNumber(1 + i / 40)
+                    .paragraphIndex(i / 4)
+                    .startPos(pos)
+                    .endPos(pos + text.length())
+                    .type("sentence")
+                    .styleInfo(new HashMap<>())
+                    .metadata(new HashMap<>())
+                    .build());
+            pos += text.length();
+        }
+        return chunks;
+    }
+
+    /**
+     * 生成按规则分组的匹配结果（用于证据装配）
+     */
+    public Map<String, List<Matcher.MatchResult>> matchResults(int rules, int resultsPerRule, int evidencesPerResult) {
+        Map<String, List<Matcher.MatchResult>> resultsByRule = new LinkedHashMap<>();
+        String[] statuses = {"PASSED", "FAILED", "WARNING"};
+        List<DocumentChunk> chunks = chunks(resultsPerRule);
+
+        for (int r = 0; r < rules; r++) {
+            String ruleId = String.format("R%04d", r);
+            Map<String, Object> metadata = Map.of("documentId", "DOC-BENCH", "ruleName", "基准规则" + r);
+            List<Matcher.MatchResult> results = new ArrayList<>(resultsPerRule);
+            for (int i = 0; i < resultsPerRule; i++) {
+                DocumentChunk chunk = chunks.get(i);
+                String text = chunk.getText();
+                List<Matcher.Evidence> evidences = new ArrayList<>(evidencesPerResult);
+                for (int e = 0; e < evidencesPerResult; e++) {
+                    String keyword = KEYWORDS[random.nextInt(KEYWORDS.length)];
+                    int start = random.nextInt(Math.max(1, text.length() - keyword.length()));
+                    evidences.add(Matcher.Evidence.builder()
+                            .text(keyword)
+                            .startPos(start)
+                            .endPos(start + keyword.length())
+                            .matchType("KEYWORD")
+                            .build());
+                }
+
+                results.add(Matcher.MatchResult.builder()
+                        .ruleId(ruleId)
+                        .chunkId(chunk.getId())
+                        .chunk(chunk)
+                        .score(random.nextDouble())
+                        .threshold(0.6)
+                        .status(statuses[random.nextInt(statuses.length)])
+                        .evidences(evidences)
+                        .metadata(metadata)
+                        .build());
+            }
+            resultsByRule.put(ruleId, results);
+        }
+        return resultsByRule;
+    }
+
+    /**
+     * 生成随机向量（用于余弦相似度）
+     */
+    public double[] vector(int dimension) {
+        double[] vector = new double[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = random.nextDouble() * 2 - 1;
+        }
+        return vector;
+    }
+
+    private DocumentSection section(int index, String text, String type, Integer level, StringBuilder plainText) {
+        int start = plainText.length();
+        plainText.append(text).append("\n\n");
+        return DocumentSection.builder()
+                .id("section_" + index)
+                .text(text)
+                .type(type)
+                .level(level)
+                .formatting(new HashMap<>())
+                .startPos(start)
+                .endPos(start + text.length())
+                .build();
+    }
+
+    private String contactValue(int kind) {
+        switch (kind) {
+            case 0:
+                return "1" + (3 + random.nextInt(7)) + digits(9);
+            case 1:
+                return idCard();
+            case 2:
+                return "user" + random.nextInt(10000) + "@example.com";
+            case 3:
+                return String.format(Locale.ROOT, "%,d.%02d", 10000 + random.nextInt(990000), random.nextInt(100));
+            default:
+                return String.format("%d-%02d-%02d", 2015 + random.nextInt(10), 1 + random.nextInt(12),
+                        1 + random.nextInt(28));
+        }
+    }
+
+    /**
+     * 生成校验位正确的18位身份证号
+     */
+    private String idCard() {
+        StringBuilder sb = new StringBuilder(18);
+        sb.append(110000 + random.nextInt(890000));
+        sb.append(1960 + random.nextInt(45));
+        sb.append(String.format("%02d%02d", 1 + random.nextInt(12), 1 + random.nextInt(28)));
+        sb.append(digits(3));
+
+        int sum = 0;
+        for (int i = 0; i < 17; i++) {
+            sum += (sb.charAt(i) - '0') * ID_CARD_WEIGHTS[i];
+        }
+        return sb.append(ID_CARD_CHECK_CODES[sum % 11]).toString();
+    }
+
+    private String digits(int count) {
+        StringBuilder sb = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            sb.append((char) ('0' + random.nextInt(10)));
+        }
+        return sb.toString();
+    }
+}
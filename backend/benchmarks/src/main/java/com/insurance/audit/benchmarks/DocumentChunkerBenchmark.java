@@ -0,0 +1,55 @@
+package com.insurance.audit.benchmarks;
+
+import com.insurance.audit.audit.service.DocumentChunker;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.service.DocumentProvider.ParsedDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文档切分器基准测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentChunkerBenchmark {
+
+    /**
+     * 章节数，每章8个段落，每段6条条款
+     */
+    @Param({"10", "50"})
+    private int chapters;
+
+    private DocumentChunker chunker;
+    private ParsedDocument document;
+
+    @Setup
+    public void setUp() {
+        chunker = new DocumentChunker();
+        document = new ClauseCorpus(ClauseCorpus.DEFAULT_SEED).document(chapters, 8, 6);
+    }
+
+    @Benchmark
+    public List<DocumentChunk> chunkDocument() {
+        return chunker.chunkDocument(document);
+    }
+}
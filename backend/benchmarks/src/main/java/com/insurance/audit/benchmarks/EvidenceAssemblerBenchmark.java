@@ -0,0 +1,75 @@
+package com.insurance.audit.benchmarks;
+
+import com.insurance.audit.audit.dto.AuditResultDto;
+import com.insurance.audit.audit.matchers.Matcher;
+import com.insurance.audit.audit.service.EvidenceAssembler;
+import com.insurance.audit.audit.service.MatchResultAggregator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 证据装配器基准测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EvidenceAssemblerBenchmark {
+
+    @Param({"50"})
+    private int rules;
+
+    @Param({"20"})
+    private int resultsPerRule;
+
+    private EvidenceAssembler assembler;
+    private Map<String, List<Matcher.MatchResult>> resultsByRule;
+    private Map<String, String> ruleVersions;
+
+    @Setup
+    public void setUp() {
+        assembler = new EvidenceAssembler();
+        resultsByRule = new ClauseCorpus(ClauseCorpus.DEFAULT_SEED).matchResults(rules, resultsPerRule, 3);
+        ruleVersions = new HashMap<>();
+        resultsByRule.keySet().forEach(ruleId -> ruleVersions.put(ruleId, "1.0.0"));
+    }
+
+    @Benchmark
+    public List<AuditResultDto> assembleResults() {
+        return assembler.assembleResults("JOB-BENCH", resultsByRule, ruleVersions);
+    }
+
+    /**
+     * 匹配结果逐条折叠进聚合器后装配，对比按规则保留完整结果列表的方式
+     */
+    @Benchmark
+    public List<AuditResultDto> aggregateStreaming() {
+        MatchResultAggregator aggregator = new MatchResultAggregator();
+        for (List<Matcher.MatchResult> results : resultsByRule.values()) {
+            for (Matcher.MatchResult result : results) {
+                aggregator.accept(result);
+            }
+        }
+        return assembler.assembleResults("JOB-BENCH", aggregator, ruleVersions);
+    }
+}
@@ -0,0 +1,78 @@
+package com.insurance.audit.benchmarks;
+
+import com.insurance.audit.audit.matchers.FormatChecker;
+import com.insurance.audit.audit.matchers.Matcher;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.service.RuleProvider.Rule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 格式检查器基准测试
+ * 分别测量常用组合（邮箱+电话）与全部检查类型同时开启的吞吐
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatCheckerBenchmark {
+
+    @Param({"EMAIL,PHONE", "EMAIL,PHONE,ID_CARD,MONEY,DATE,STRUCTURE,LENGTH,ENCODING"})
+    private String checkTypes;
+
+    @Param({"200"})
+    private int chunkCount;
+
+    private FormatChecker checker;
+    private Rule rule;
+    private List<DocumentChunk> chunks;
+
+    @Setup
+    public void setUp() {
+        checker = new FormatChecker();
+        chunks = new ClauseCorpus(ClauseCorpus.DEFAULT_SEED).chunks(chunkCount);
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("checkTypes", Arrays.asList(checkTypes.split(",")));
+        parameters.put("reportAllResults", true);
+        parameters.put("dateFormats", List.of("YYYY-MM-DD", "YYYY年MM月DD日"));
+        parameters.put("requiredElements", List.of("本公司"));
+        parameters.put("forbiddenElements", List.of("保证收益"));
+        parameters.put("minLength", 10);
+        parameters.put("maxLength", 500);
+
+        rule = Rule.builder()
+                .id("R-FORMAT")
+                .name("格式基准规则")
+                .type("FORMAT")
+                .threshold(0.6)
+                .parameters(parameters)
+                .build();
+    }
+
+    @Benchmark
+    public List<Matcher.MatchResult> check() {
+        return checker.match(rule, chunks);
+    }
+}
@@ -0,0 +1,92 @@
+package com.insurance.audit.benchmarks;
+
+import com.insurance.audit.audit.matchers.KeywordMatcher;
+import com.insurance.audit.audit.matchers.Matcher;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.service.RuleProvider.Rule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 关键词匹配器基准测试
+ * 覆盖全部匹配类型，每次调用处理一批句子级文档块
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeywordMatcherBenchmark {
+
+    @Param({"KEYWORD", "REGEX", "PHRASE", "EXCLUSION", "COMBINATION"})
+    private String matchType;
+
+    @Param({"200"})
+    private int chunkCount;
+
+    private KeywordMatcher matcher;
+    private Rule rule;
+    private List<DocumentChunk> chunks;
+
+    @Setup
+    public void setUp() {
+        matcher = new KeywordMatcher();
+        chunks = new ClauseCorpus(ClauseCorpus.DEFAULT_SEED).chunks(chunkCount);
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("matchType", matchType);
+        parameters.put("reportNonMatches", true);
+        switch (matchType) {
+            case "REGEX":
+                parameters.put("regexPattern", "\\d+(日|年|元|%)");
+                break;
+            case "PHRASE":
+                parameters.put("phrases", List.of("本公司不承担", "无息退还已交保险费", "基本保险金额"));
+                break;
+            case "EXCLUSION":
+                parameters.put("excludeKeywords", List.of("故意", "重大过失", "免责"));
+                break;
+            case "COMBINATION":
+                parameters.put("combinationOperator", "NEAR");
+                parameters.put("groupA", List.of("被保险人", "投保人"));
+                parameters.put("groupB", List.of("保险金", "保险费"));
+                parameters.put("maxDistance", 30);
+                break;
+            default:
+                parameters.put("keywords", ClauseCorpus.keywords());
+                break;
+        }
+
+        rule = Rule.builder()
+                .id("R-" + matchType)
+                .name("关键词基准规则")
+                .type("KEYWORD")
+                .threshold(0.6)
+                .parameters(parameters)
+                .build();
+    }
+
+    @Benchmark
+    public List<Matcher.MatchResult> match() {
+        return matcher.match(rule, chunks);
+    }
+}
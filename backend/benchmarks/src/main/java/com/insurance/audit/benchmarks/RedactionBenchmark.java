@@ -0,0 +1,67 @@
+package com.insurance.audit.benchmarks;
+
+import com.insurance.audit.audit.security.SensitiveDataScanner;
+import com.insurance.audit.audit.service.DocumentProvider.ParsedDocument;
+import com.insurance.audit.audit.service.SecurityComplianceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 敏感数据脱敏基准测试
+ * 分别测量纯文本与解析后文档两种入参的脱敏吞吐
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedactionBenchmark {
+
+    /**
+     * 章节数，每章8个段落，每段6条条款
+     */
+    @Param({"10"})
+    private int chapters;
+
+    private SecurityComplianceService service;
+    private String text;
+    private ParsedDocument document;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        service = new SecurityComplianceService();
+        Field scanner = SecurityComplianceService.class.getDeclaredField("sensitiveDataScanner");
+        scanner.setAccessible(true);
+        scanner.set(service, new SensitiveDataScanner(true));
+
+        document = new ClauseCorpus(ClauseCorpus.DEFAULT_SEED).document(chapters, 8, 6);
+        text = document.getPlainText();
+    }
+
+    @Benchmark
+    public String redactText() {
+        return service.redactSensitiveData(text);
+    }
+
+    @Benchmark
+    public ParsedDocument redactDocument() {
+        return service.redactSensitiveData(document);
+    }
+}
@@ -0,0 +1,96 @@
+package com.insurance.audit.benchmarks;
+
+import com.insurance.audit.audit.shard.InProcessShardQueue;
+import com.insurance.audit.audit.shard.ShardCoordinator;
+import com.insurance.audit.audit.shard.ShardQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分片执行基准测试
+ * 多个协调器共享进程内队列模拟多节点，每个文档模拟 2ms 的外部调用耗时，
+ * 比较作业端到端耗时随节点数的变化（理想情况下与节点数成反比）
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShardedExecutionBenchmark {
+
+    private static final long DOCUMENT_MILLIS = 2;
+
+    @Param({"1", "2", "4"})
+    private int nodes;
+
+    @Param({"400"})
+    private int documentCount;
+
+    private final AtomicLong jobSequence = new AtomicLong();
+    private List<ShardCoordinator> coordinators;
+    private List<String> documentIds;
+
+    @Setup
+    public void setUp() {
+        InProcessShardQueue queue = new InProcessShardQueue();
+        coordinators = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) {
+            ShardCoordinator coordinator = new ShardCoordinator(queue, "node-" + i);
+            coordinator.start();
+            coordinator.registerProcessor(ShardedExecutionBenchmark::process);
+            coordinators.add(coordinator);
+        }
+        documentIds = new ArrayList<>();
+        for (int i = 0; i < documentCount; i++) {
+            documentIds.add("doc-" + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        coordinators.forEach(ShardCoordinator::stop);
+    }
+
+    @Benchmark
+    public int executeJob() {
+        ShardCoordinator owner = coordinators.get(0);
+        String jobId = "bench-" + jobSequence.incrementAndGet();
+        AtomicInteger completed = new AtomicInteger();
+        owner.execute(jobId, owner.split(jobId, "ruleset-bench", documentIds, 0),
+                result -> completed.addAndGet(result.getCompletedDocuments()));
+        return completed.get();
+    }
+
+    private static ShardQueue.ShardResult process(ShardQueue.JobShard shard) {
+        try {
+            Thread.sleep(DOCUMENT_MILLIS * shard.getDocumentIds().size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        return ShardQueue.ShardResult.builder()
+                .completedDocuments(shard.getDocumentIds().size())
+                .build();
+    }
+}
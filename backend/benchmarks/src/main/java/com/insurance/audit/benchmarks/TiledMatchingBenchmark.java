@@ -0,0 +1,89 @@
+package com.insurance.audit.benchmarks;
+
+import com.insurance.audit.audit.matchers.FormatChecker;
+import com.insurance.audit.audit.matchers.KeywordMatcher;
+import com.insurance.audit.audit.matchers.Matcher;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.service.RuleProvider.Rule;
+import com.insurance.audit.audit.service.TiledMatchingExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分块并行匹配基准测试
+ * 大文档（默认5000个句子级文档块）上同时执行关键词和格式规则，对比串行与不同并行度
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TiledMatchingBenchmark {
+
+    @Param({"1", "2", "4"})
+    private int parallelism;
+
+    @Param({"5000"})
+    private int chunkCount;
+
+    private TiledMatchingExecutor executor;
+    private List<Rule> rules;
+    private List<DocumentChunk> chunks;
+
+    @Setup
+    public void setUp() {
+        executor = new TiledMatchingExecutor();
+        executor.start();
+        executor.registerMatcher("KEYWORD", new KeywordMatcher());
+        executor.registerMatcher("FORMAT", new FormatChecker());
+        chunks = new ClauseCorpus(ClauseCorpus.DEFAULT_SEED).chunks(chunkCount);
+
+        rules = new ArrayList<>();
+        for (String keyword : ClauseCorpus.keywords()) {
+            rules.add(Rule.builder()
+                    .id("R-KEYWORD-" + keyword)
+                    .name("关键词基准规则")
+                    .type("KEYWORD")
+                    .threshold(0.6)
+                    .parameters(Map.of("matchType", "KEYWORD", "keywords", List.of(keyword)))
+                    .build());
+        }
+        rules.add(Rule.builder()
+                .id("R-FORMAT")
+                .name("格式基准规则")
+                .type("FORMAT")
+                .threshold(0.6)
+                .parameters(Map.of("checkTypes", List.of("EMAIL", "PHONE", "ID_CARD", "MONEY", "DATE")))
+                .build());
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.stop();
+    }
+
+    @Benchmark
+    public Map<String, List<Matcher.MatchResult>> match() {
+        return executor.match(rules, chunks, parallelism);
+    }
+}
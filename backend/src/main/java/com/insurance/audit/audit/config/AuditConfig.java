@@ -1,5 +1,6 @@
 package com.insurance.audit.audit.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -18,15 +19,20 @@ import java.time.Duration;
 @EnableCaching
 public class AuditConfig {
 
+    @Value("${audit.rest-template.connection-timeout:5000}")
+    private int connectionTimeout;
+
+    @Value("${audit.rest-template.read-timeout:10000}")
+    private int readTimeout;
+
     /**
      * HTTP客户端配置
+     * 检核流水线中的远程调用超时不超过所属作业的剩余时间
      */
     @Bean
     public RestTemplate auditRestTemplate() {
-        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate restTemplate = new RestTemplate(new DeadlineAwareRequestFactory(connectionTimeout, readTimeout));
 
-        // 可以在这里配置超时、拦截器等
-        // TODO: 添加超时配置
         // TODO: 添加请求/响应拦截器用于日志记录
 
         return restTemplate;
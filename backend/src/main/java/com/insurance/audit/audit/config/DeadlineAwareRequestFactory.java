@@ -0,0 +1,41 @@
+package com.insurance.audit.audit.config;
+
+import com.insurance.audit.audit.service.JobExecutionContext;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * 感知作业截止时间的HTTP请求工厂
+ * 在作业线程上发起请求时，连接和读取超时收紧为作业剩余时间；作业已取消或超时时不再发起请求
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class DeadlineAwareRequestFactory extends SimpleClientHttpRequestFactory {
+
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+
+    public DeadlineAwareRequestFactory(int connectTimeoutMs, int readTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        setConnectTimeout(connectTimeoutMs);
+        setReadTimeout(readTimeoutMs);
+    }
+
+    @Override
+    protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+        super.prepareConnection(connection, httpMethod);
+
+        JobExecutionContext context = JobExecutionContext.current();
+        if (context == null) {
+            return;
+        }
+        context.check();
+        connection.setConnectTimeout((int) JobExecutionContext.boundTimeout(connectTimeoutMs));
+        connection.setReadTimeout((int) JobExecutionContext.boundTimeout(readTimeoutMs));
+    }
+}
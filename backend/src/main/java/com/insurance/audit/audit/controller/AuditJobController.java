@@ -1,18 +1,26 @@
 package com.insurance.audit.audit.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.insurance.audit.audit.dto.AuditJobRequest;
 import com.insurance.audit.audit.dto.AuditJobResponse;
 import com.insurance.audit.audit.dto.AuditResultDto;
+import com.insurance.audit.audit.dto.AuditResultPage;
+import com.insurance.audit.audit.dto.JobTraceTimeline;
+import com.insurance.audit.audit.service.AuditJobStore;
 import com.insurance.audit.audit.service.AuditOrchestrator;
 import com.insurance.audit.common.dto.ApiResponse;
+import com.insurance.audit.common.dto.PageResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -29,9 +37,16 @@ import java.util.List;
 @Tag(name = "检核作业管理", description = "智能检核引擎作业管理API")
 public class AuditJobController {
 
+    private static final String MEDIA_TYPE_NDJSON = "application/x-ndjson";
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int STREAM_BATCH_SIZE = 500;
+
     @Autowired
     private AuditOrchestrator auditOrchestrator;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * 创建检核作业
      */
@@ -49,6 +64,9 @@ public class AuditJobController {
             log.info("检核作业创建成功: jobId={}, status={}", response.getJobId(), response.getStatus());
 
             return ResponseEntity.ok(ApiResponse.success(response, "作业创建成功"));
+        } catch (IllegalArgumentException e) {
+            log.warn("创建检核作业参数错误: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, e.getMessage()));
         } catch (Exception e) {
             log.error("创建检核作业失败: {}", e.getMessage(), e);
             return ResponseEntity.internalServerError()
@@ -82,23 +100,60 @@ public class AuditJobController {
         }
     }
 
+    /**
+     * 订阅作业进度
+     */
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "订阅作业进度", description = "以Server-Sent Events推送作业进度，替代轮询作业状态；作业结束后连接自动关闭")
+    @PreAuthorize("hasRole('AUDIT_USER') or hasRole('ADMIN')")
+    public ResponseEntity<SseEmitter> subscribeJobProgress(
+            @Parameter(description = "作业ID", example = "job-12345678")
+            @PathVariable String jobId) {
+
+        log.debug("订阅作业进度: jobId={}", jobId);
+
+        try {
+            return ResponseEntity.ok(auditOrchestrator.subscribeJobProgress(jobId));
+        } catch (RuntimeException e) {
+            log.warn("订阅作业进度失败: jobId={}, error={}", jobId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * 获取作业结果
      */
     @GetMapping("/{jobId}/results")
-    @Operation(summary = "获取作业结果", description = "获取检核作业的详细结果列表")
+    @Operation(summary = "获取作业结果", description = "按游标分页获取检核作业结果，支持按状态、规则、文档过滤；默认不返回证据明细")
     @PreAuthorize("hasRole('AUDIT_USER') or hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<List<AuditResultDto>>> getJobResults(
+    public ResponseEntity<ApiResponse<AuditResultPage>> getJobResults(
             @Parameter(description = "作业ID", example = "job-12345678")
-            @PathVariable String jobId) {
+            @PathVariable String jobId,
+            @Parameter(description = "状态过滤", example = "FAILED")
+            @RequestParam(required = false) String status,
+            @Parameter(description = "规则ID过滤", example = "rule-001")
+            @RequestParam(required = false) String ruleId,
+            @Parameter(description = "文档ID过滤", example = "doc-123")
+            @RequestParam(required = false) String documentId,
+            @Parameter(description = "分页游标，取自上一页的nextCursor")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页大小", example = "100")
+            @RequestParam(defaultValue = "100") int limit,
+            @Parameter(description = "是否返回证据明细", example = "false")
+            @RequestParam(defaultValue = "false") boolean includeEvidence) {
 
-        log.debug("获取作业结果: jobId={}", jobId);
+        log.debug("获取作业结果: jobId={}, status={}, ruleId={}, documentId={}, limit={}",
+                jobId, status, ruleId, documentId, limit);
 
         try {
-            List<AuditResultDto> results = auditOrchestrator.getJobResults(jobId);
-            log.info("获取作业结果成功: jobId={}, resultCount={}", jobId, results.size());
+            AuditJobStore.ResultQuery query = buildResultQuery(status, ruleId, documentId, cursor, limit)
+                    .includeEvidence(includeEvidence)
+                    .build();
+            AuditResultPage page = auditOrchestrator.queryJobResults(jobId, query);
+            log.debug("获取作业结果成功: jobId={}, resultCount={}, hasMore={}",
+                    jobId, page.getItems().size(), page.getHasMore());
 
-            return ResponseEntity.ok(ApiResponse.success(results));
+            return ResponseEntity.ok(ApiResponse.success(page));
         } catch (RuntimeException e) {
             log.warn("获取作业结果失败: jobId={}, error={}", jobId, e.getMessage());
             return ResponseEntity.badRequest()
@@ -110,6 +165,113 @@ public class AuditJobController {
         }
     }
 
+    /**
+     * 流式获取作业结果
+     */
+    @GetMapping(value = "/{jobId}/results/stream", produces = MEDIA_TYPE_NDJSON)
+    @Operation(summary = "流式获取作业结果", description = "以NDJSON格式逐行输出满足过滤条件的全部检核结果，每行一个结果")
+    @PreAuthorize("hasRole('AUDIT_USER') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamJobResults(
+            @Parameter(description = "作业ID", example = "job-12345678")
+            @PathVariable String jobId,
+            @Parameter(description = "状态过滤", example = "FAILED")
+            @RequestParam(required = false) String status,
+            @Parameter(description = "规则ID过滤", example = "rule-001")
+            @RequestParam(required = false) String ruleId,
+            @Parameter(description = "文档ID过滤", example = "doc-123")
+            @RequestParam(required = false) String documentId,
+            @Parameter(description = "是否输出证据明细", example = "false")
+            @RequestParam(defaultValue = "false") boolean includeEvidence) {
+
+        log.debug("流式获取作业结果: jobId={}, status={}, ruleId={}, documentId={}", jobId, status, ruleId, documentId);
+
+        // 先校验作业存在，避免在响应已开始写出后才失败
+        try {
+            auditOrchestrator.getJobStatus(jobId);
+        } catch (RuntimeException e) {
+            log.warn("流式获取作业结果失败: jobId={}, error={}", jobId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            String cursor = null;
+            int total = 0;
+            do {
+                AuditJobStore.ResultQuery query = buildResultQuery(status, ruleId, documentId, cursor, STREAM_BATCH_SIZE)
+                        .includeEvidence(includeEvidence)
+                        .build();
+                AuditResultPage page = auditOrchestrator.queryJobResults(jobId, query);
+                for (AuditResultDto result : page.getItems()) {
+                    outputStream.write(objectMapper.writeValueAsBytes(result));
+                    outputStream.write('\n');
+                }
+                outputStream.flush();
+                total += page.getItems().size();
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+
+            log.debug("流式输出作业结果完成: jobId={}, resultCount={}", jobId, total);
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(MEDIA_TYPE_NDJSON))
+                .body(body);
+    }
+
+    /**
+     * 获取单条结果的证据
+     */
+    @GetMapping("/{jobId}/results/{resultId}/evidences")
+    @Operation(summary = "获取结果证据", description = "按需获取单条检核结果的证据明细")
+    @PreAuthorize("hasRole('AUDIT_USER') or hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<AuditResultDto.Evidence>>> getResultEvidences(
+            @Parameter(description = "作业ID", example = "job-12345678")
+            @PathVariable String jobId,
+            @Parameter(description = "结果ID", example = "result-123456")
+            @PathVariable String resultId) {
+
+        log.debug("获取结果证据: jobId={}, resultId={}", jobId, resultId);
+
+        try {
+            List<AuditResultDto.Evidence> evidences = auditOrchestrator.getResultEvidences(jobId, resultId);
+            return ResponseEntity.ok(ApiResponse.success(evidences));
+        } catch (RuntimeException e) {
+            log.warn("获取结果证据失败: jobId={}, resultId={}, error={}", jobId, resultId, e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, e.getMessage()));
+        } catch (Exception e) {
+            log.error("获取结果证据异常: jobId={}, resultId={}", jobId, resultId, e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("获取结果证据失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 获取作业链路时间线
+     */
+    @GetMapping("/{jobId}/timeline")
+    @Operation(summary = "获取作业链路时间线", description = "获取检核作业各阶段的链路片段、关键路径及耗时分布")
+    @PreAuthorize("hasRole('AUDIT_USER') or hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<JobTraceTimeline>> getJobTimeline(
+            @Parameter(description = "作业ID", example = "job-12345678")
+            @PathVariable String jobId) {
+
+        log.debug("获取作业链路时间线: jobId={}", jobId);
+
+        try {
+            JobTraceTimeline timeline = auditOrchestrator.getJobTimeline(jobId);
+            return ResponseEntity.ok(ApiResponse.success(timeline));
+        } catch (RuntimeException e) {
+            log.warn("获取作业链路时间线失败: jobId={}, error={}", jobId, e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, e.getMessage()));
+        } catch (Exception e) {
+            log.error("获取作业链路时间线异常: jobId={}", jobId, e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("获取作业链路时间线失败: " + e.getMessage()));
+        }
+    }
+
     /**
      * 导出作业结果
      */
@@ -151,7 +313,7 @@ public class AuditJobController {
      */
     @GetMapping
     @Operation(summary = "获取作业列表", description = "分页获取检核作业列表")
-    public ResponseEntity<ApiResponse<List<AuditJobResponse>>> getJobList(
+    public ResponseEntity<ApiResponse<PageResponse<AuditJobResponse>>> getJobList(
             @Parameter(description = "页码", example = "1")
             @RequestParam(defaultValue = "1") int page,
             @Parameter(description = "每页大小", example = "10")
@@ -162,11 +324,13 @@ public class AuditJobController {
         log.debug("获取作业列表: page={}, size={}, status={}", page, size, status);
 
         try {
-            // 这里应该实现分页查询逻辑
-            // 暂时返回空列表
-            List<AuditJobResponse> jobs = List.of();
+            int pageNo = Math.max(page, 1);
+            int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+            List<AuditJobResponse> jobs = auditOrchestrator.listJobs(status, pageNo, pageSize);
+            long total = auditOrchestrator.countJobs(status);
 
-            return ResponseEntity.ok(ApiResponse.success(jobs));
+            return ResponseEntity.ok(ApiResponse.success(PageResponse.of(jobs, total, pageNo, pageSize)));
         } catch (Exception e) {
             log.error("获取作业列表异常: page={}, size={}", page, size, e);
             return ResponseEntity.internalServerError()
@@ -178,18 +342,20 @@ public class AuditJobController {
      * 取消作业
      */
     @PostMapping("/{jobId}/cancel")
-    @Operation(summary = "取消作业", description = "取消正在执行的检核作业")
-    public ResponseEntity<ApiResponse<String>> cancelJob(
+    @Operation(summary = "取消作业", description = "取消排队或执行中的检核作业，返回释放的资源和释放后的容量")
+    public ResponseEntity<ApiResponse<AuditJobResponse>> cancelJob(
             @Parameter(description = "作业ID", example = "job-12345678")
-            @PathVariable String jobId) {
+            @PathVariable String jobId,
+            @Parameter(description = "取消原因", example = "用户取消")
+            @RequestParam(defaultValue = "用户取消") String reason) {
 
-        log.info("取消作业: jobId={}", jobId);
+        log.info("取消作业: jobId={}, reason={}", jobId, reason);
 
         try {
-            // 这里应该实现作业取消逻辑
-            log.info("作业取消成功: jobId={}", jobId);
+            AuditJobResponse response = auditOrchestrator.cancelJob(jobId, reason);
+            log.info("作业取消成功: jobId={}, status={}", jobId, response.getStatus());
 
-            return ResponseEntity.ok(ApiResponse.success("作业取消成功"));
+            return ResponseEntity.ok(ApiResponse.success(response, "作业取消成功"));
         } catch (RuntimeException e) {
             log.warn("取消作业失败: jobId={}, error={}", jobId, e.getMessage());
             return ResponseEntity.badRequest()
@@ -200,4 +366,17 @@ public class AuditJobController {
                     .body(ApiResponse.error("取消作业失败: " + e.getMessage()));
         }
     }
+
+    /**
+     * 构建结果查询条件
+     */
+    private AuditJobStore.ResultQuery.ResultQueryBuilder buildResultQuery(String status, String ruleId,
+                                                                         String documentId, String cursor, int limit) {
+        return AuditJobStore.ResultQuery.builder()
+                .status(status != null ? status.toUpperCase() : null)
+                .ruleId(ruleId)
+                .documentId(documentId)
+                .cursor(cursor)
+                .limit(Math.min(Math.max(limit, 1), MAX_PAGE_SIZE));
+    }
 }
\ No newline at end of file
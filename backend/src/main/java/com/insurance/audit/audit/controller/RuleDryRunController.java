@@ -0,0 +1,124 @@
+package com.insurance.audit.audit.controller;
+
+import com.insurance.audit.audit.dto.AuditJobResponse;
+import com.insurance.audit.audit.dto.RuleDryRunRequest;
+import com.insurance.audit.audit.service.RuleDryRunService;
+import com.insurance.audit.common.dto.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 规则试运行API控制器
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j
+@RestController
+@RequestMapping("/v1/audit/dry-runs")
+@Tag(name = "规则试运行", description = "规则修改影响评估API")
+public class RuleDryRunController {
+
+    @Autowired
+    private RuleDryRunService ruleDryRunService;
+
+    /**
+     * 提交规则草稿试运行
+     */
+    @PostMapping
+    @Operation(summary = "提交规则草稿试运行",
+            description = "提交后台试运行作业并立即返回作业ID，在已解析的历史文档上重放规则草稿；"
+                    + "进度经SSE推送，完成后查询作业获取标记文档数、相对历史判定的精确率和每个文档块的匹配耗时，供OA审核参考")
+    @PreAuthorize("hasRole('AUDIT_USER') or hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<AuditJobResponse>> dryRun(@RequestBody RuleDryRunRequest request) {
+        log.info("收到规则试运行请求: ruleId={}, documentCount={}, productCount={}",
+                request.getRule() != null ? request.getRule().getId() : null,
+                request.getDocumentIds() != null ? request.getDocumentIds().size() : 0,
+                request.getProductIds() != null ? request.getProductIds().size() : 0);
+
+        try {
+            AuditJobResponse job = ruleDryRunService.submit(request);
+            return ResponseEntity.accepted().body(ApiResponse.success(job, "试运行作业已提交"));
+        } catch (IllegalArgumentException e) {
+            log.warn("规则试运行参数错误: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, e.getMessage()));
+        } catch (IllegalStateException e) {
+            log.warn("规则试运行作业被拒绝: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ApiResponse.error(503, e.getMessage()));
+        } catch (Exception e) {
+            log.error("提交规则试运行失败: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("提交试运行失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 查询试运行作业
+     */
+    @GetMapping("/{jobId}")
+    @Operation(summary = "查询试运行作业", description = "查询试运行作业状态和进度，作业完成后返回试运行报告")
+    @PreAuthorize("hasRole('AUDIT_USER') or hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<AuditJobResponse>> getDryRun(
+            @Parameter(description = "试运行作业ID", example = "dry-run-1a2b3c4d")
+            @PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(ruleDryRunService.getJob(jobId)));
+        } catch (IllegalArgumentException e) {
+            log.warn("查询试运行作业失败: jobId={}, error={}", jobId, e.getMessage());
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, e.getMessage()));
+        }
+    }
+
+    /**
+     * 取消试运行作业
+     */
+    @PostMapping("/{jobId}/cancel")
+    @Operation(summary = "取消试运行作业", description = "取消排队或执行中的试运行，执行中的文档在下一个检查点停止")
+    @PreAuthorize("hasRole('AUDIT_USER') or hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<AuditJobResponse>> cancelDryRun(
+            @Parameter(description = "试运行作业ID", example = "dry-run-1a2b3c4d")
+            @PathVariable String jobId,
+            @Parameter(description = "取消原因")
+            @RequestParam(defaultValue = "用户取消") String reason) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(ruleDryRunService.cancel(jobId, reason), "试运行已取消"));
+        } catch (RuntimeException e) {
+            log.warn("取消试运行作业失败: jobId={}, error={}", jobId, e.getMessage());
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, e.getMessage()));
+        }
+    }
+
+    /**
+     * 订阅试运行进度
+     */
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "订阅试运行进度", description = "以Server-Sent Events推送试运行作业进度，作业结束后连接自动关闭")
+    @PreAuthorize("hasRole('AUDIT_USER') or hasRole('ADMIN')")
+    public ResponseEntity<SseEmitter> subscribeDryRunProgress(
+            @Parameter(description = "试运行作业ID", example = "dry-run-1a2b3c4d")
+            @PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(ruleDryRunService.subscribe(jobId));
+        } catch (RuntimeException e) {
+            log.warn("订阅试运行进度失败: jobId={}, error={}", jobId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -34,6 +34,12 @@ public class AuditJobRequest {
     @Schema(description = "规则集ID", example = "ruleset-001")
     private String ruleSetId;
 
+    /**
+     * 产品的规则适用性条件，为空时规则集的全部规则参与匹配
+     */
+    @Schema(description = "产品的规则适用性条件，为空时规则集的全部规则参与匹配")
+    private RuleApplicabilityCriteria applicability;
+
     /**
      * 产品文档ID列表
      */
@@ -63,4 +69,16 @@ public class AuditJobRequest {
      */
     @Schema(description = "回调URL", example = "http://localhost:8080/callback")
     private String callbackUrl;
+
+    /**
+     * 作业超时时间（秒），为空时使用系统默认值
+     */
+    @Schema(description = "作业超时时间（秒）", example = "1800")
+    private Long timeoutSeconds;
+
+    /**
+     * LLM token 预算，为空时使用系统默认值，小于等于0表示不限
+     */
+    @Schema(description = "LLM token 预算", example = "200000")
+    private Long tokenBudget;
 }
\ No newline at end of file
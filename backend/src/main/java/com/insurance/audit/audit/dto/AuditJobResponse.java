@@ -89,6 +89,24 @@ public class AuditJobResponse {
     @Schema(description = "结果摘要")
     private AuditResultSummary resultSummary;
 
+    /**
+     * 取消信息
+     */
+    @Schema(description = "取消信息")
+    private CancellationInfo cancellation;
+
+    /**
+     * LLM token 预算使用情况
+     */
+    @Schema(description = "LLM token 预算使用情况")
+    private TokenBudgetUsage tokenBudget;
+
+    /**
+     * 规则试运行报告，仅试运行作业完成后返回
+     */
+    @Schema(description = "规则试运行报告，仅试运行作业完成后返回")
+    private RuleDryRunReport dryRunReport;
+
     /**
      * 检核结果摘要
      */
@@ -128,4 +146,114 @@ public class AuditJobResponse {
         @Schema(description = "通过率", example = "90.0")
         private Double passRate;
     }
-}
\ No newline at end of file
+
+    /**
+     * 作业取消信息
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "作业取消信息")
+    public static class CancellationInfo {
+        /**
+         * 取消原因
+         */
+        @Schema(description = "取消原因", example = "用户取消")
+        private String reason;
+
+        /**
+         * 取消时间
+         */
+        @Schema(description = "取消时间")
+        private LocalDateTime cancelledAt;
+
+        /**
+         * 是否因超时中止
+         */
+        @Schema(description = "是否因超时中止", example = "false")
+        private Boolean timedOut;
+
+        /**
+         * 中止时已归还的外部服务许可数，仍在进行的调用结束后才归还其许可
+         */
+        @Schema(description = "中止时已归还的外部服务许可数", example = "2")
+        private Integer releasedPermits;
+
+        /**
+         * 释放的排队名额数
+         */
+        @Schema(description = "释放的排队名额数", example = "1")
+        private Integer releasedQueueSlots;
+
+        /**
+         * 释放后可用的外部服务许可数
+         */
+        @Schema(description = "释放后可用的外部服务许可数", example = "5")
+        private Integer availablePermits;
+
+        /**
+         * 释放后的任务队列长度
+         */
+        @Schema(description = "释放后的任务队列长度", example = "0")
+        private Integer queueSize;
+    }
+
+    /**
+     * LLM token 预算使用情况
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "LLM token 预算使用情况")
+    public static class TokenBudgetUsage {
+        /**
+         * token 上限，0表示不限
+         */
+        @Schema(description = "token 上限，0表示不限", example = "200000")
+        private Long limitTokens;
+
+        /**
+         * 已消耗 token 数
+         */
+        @Schema(description = "已消耗 token 数", example = "85000")
+        private Long consumedTokens;
+
+        /**
+         * 已预留未结算的 token 数
+         */
+        @Schema(description = "已预留未结算的 token 数", example = "12000")
+        private Long reservedTokens;
+
+        /**
+         * 剩余 token 数，不限时为空
+         */
+        @Schema(description = "剩余 token 数，不限时为空", example = "103000")
+        private Long remainingTokens;
+
+        /**
+         * 规划时估算的 token 总数
+         */
+        @Schema(description = "规划时估算的 token 总数", example = "97000")
+        private Long plannedTokens;
+
+        /**
+         * LLM 调用次数
+         */
+        @Schema(description = "LLM 调用次数", example = "64")
+        private Long llmCalls;
+
+        /**
+         * 因预算或时限降级执行模式的规则数
+         */
+        @Schema(description = "因预算或时限降级执行模式的规则数", example = "3")
+        private Long downgradedRules;
+
+        /**
+         * 因预算不足跳过的文档块数
+         */
+        @Schema(description = "因预算不足跳过的文档块数", example = "0")
+        private Long skippedChunks;
+    }
+}
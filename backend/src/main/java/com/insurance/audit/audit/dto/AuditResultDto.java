@@ -77,6 +77,12 @@ public class AuditResultDto {
     @Schema(description = "证据列表")
     private List<Evidence> evidences;
 
+    /**
+     * 证据数量
+     */
+    @Schema(description = "证据数量（按需加载证据时证据列表为空，可据此判断是否需要单独获取）", example = "3")
+    private Integer evidenceCount;
+
     /**
      * 建议
      */
@@ -0,0 +1,48 @@
+package com.insurance.audit.audit.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 检核结果游标分页DTO
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "检核结果游标分页")
+public class AuditResultPage {
+
+    /**
+     * 结果列表
+     */
+    @Schema(description = "结果列表")
+    private List<AuditResultDto> items;
+
+    /**
+     * 下一页游标
+     */
+    @Schema(description = "下一页游标，没有更多结果时为空", example = "cjoxMDA")
+    private String nextCursor;
+
+    /**
+     * 是否还有更多结果
+     */
+    @Schema(description = "是否还有更多结果", example = "true")
+    private Boolean hasMore;
+
+    /**
+     * 每页大小
+     */
+    @Schema(description = "每页大小", example = "100")
+    private Integer limit;
+}
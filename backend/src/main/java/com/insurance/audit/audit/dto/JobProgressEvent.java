@@ -0,0 +1,91 @@
+package com.insurance.audit.audit.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 检核作业进度事件DTO
+ * 通过SSE推送给前端，并批量投递到作业的回调地址
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "检核作业进度事件")
+public class JobProgressEvent {
+
+    /**
+     * 作业ID
+     */
+    @Schema(description = "作业ID", example = "job-123456")
+    private String jobId;
+
+    /**
+     * 事件序号（同一作业内递增）
+     */
+    @Schema(description = "事件序号", example = "12")
+    private Long sequence;
+
+    /**
+     * 作业状态
+     */
+    @Schema(description = "作业状态", example = "RUNNING")
+    private String status;
+
+    /**
+     * 进度百分比
+     */
+    @Schema(description = "进度百分比", example = "75")
+    private Integer progress;
+
+    /**
+     * 总任务数
+     */
+    @Schema(description = "总任务数", example = "100")
+    private Integer totalTasks;
+
+    /**
+     * 已完成任务数
+     */
+    @Schema(description = "已完成任务数", example = "75")
+    private Integer completedTasks;
+
+    /**
+     * 失败任务数
+     */
+    @Schema(description = "失败任务数", example = "2")
+    private Integer failedTasks;
+
+    /**
+     * 错误信息
+     */
+    @Schema(description = "错误信息")
+    private String errorMessage;
+
+    /**
+     * 结果摘要（作业完成时携带）
+     */
+    @Schema(description = "结果摘要")
+    private AuditJobResponse.AuditResultSummary resultSummary;
+
+    /**
+     * 是否为终态事件
+     */
+    @Schema(description = "是否为终态事件（COMPLETED/FAILED）", example = "false")
+    private Boolean terminal;
+
+    /**
+     * 事件时间
+     */
+    @Schema(description = "事件时间")
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,128 @@
+package com.insurance.audit.audit.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 检核作业链路时间线DTO
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "检核作业链路时间线")
+public class JobTraceTimeline {
+
+    /**
+     * 作业ID
+     */
+    @Schema(description = "作业ID", example = "job-123456")
+    private String jobId;
+
+    /**
+     * 链路ID
+     */
+    @Schema(description = "链路ID（OTLP traceId）", example = "4bf92f3577b34da6a3ce929d0e0e4736")
+    private String traceId;
+
+    /**
+     * 是否已结束
+     */
+    @Schema(description = "链路是否已结束", example = "true")
+    private Boolean finished;
+
+    /**
+     * 总耗时（毫秒）
+     */
+    @Schema(description = "总耗时（毫秒），未结束时为截至当前的耗时", example = "1532.4")
+    private Double totalDurationMs;
+
+    /**
+     * 片段列表，按开始时间排序
+     */
+    @Schema(description = "片段列表，按开始时间排序")
+    private List<SpanView> spans;
+
+    /**
+     * 关键路径
+     */
+    @Schema(description = "关键路径，按时间顺序排列")
+    private List<CriticalPathSegment> criticalPath;
+
+    /**
+     * 关键路径按片段名称汇总的耗时（毫秒）
+     */
+    @Schema(description = "关键路径按片段名称汇总的耗时（毫秒）")
+    private Map<String, Double> criticalPathBreakdown;
+
+    /**
+     * 链路片段
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "链路片段")
+    public static class SpanView {
+
+        @Schema(description = "片段ID")
+        private String spanId;
+
+        @Schema(description = "父片段ID")
+        private String parentSpanId;
+
+        @Schema(description = "片段名称", example = "rule_matching")
+        private String name;
+
+        @Schema(description = "层级深度，根片段为0")
+        private Integer depth;
+
+        @Schema(description = "相对作业开始的偏移（毫秒）")
+        private Double startOffsetMs;
+
+        @Schema(description = "耗时（毫秒）")
+        private Double durationMs;
+
+        @Schema(description = "状态", example = "OK")
+        private String status;
+
+        @Schema(description = "状态说明")
+        private String statusMessage;
+
+        @Schema(description = "属性")
+        private Map<String, Object> attributes;
+    }
+
+    /**
+     * 关键路径片段
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "关键路径片段")
+    public static class CriticalPathSegment {
+
+        @Schema(description = "片段ID")
+        private String spanId;
+
+        @Schema(description = "片段名称", example = "matcher.llm")
+        private String name;
+
+        @Schema(description = "相对作业开始的偏移（毫秒）")
+        private Double startOffsetMs;
+
+        @Schema(description = "计入关键路径的自身耗时（毫秒）")
+        private Double durationMs;
+    }
+}
@@ -0,0 +1,49 @@
+package com.insurance.audit.audit.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 规则适用性条件DTO
+ * 检核作业的产品属性，由规则服务的适用性索引筛选参与匹配的规则；维度为空时不按该维度筛选
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "规则适用性条件")
+public class RuleApplicabilityCriteria {
+
+    /**
+     * 险种
+     */
+    @Schema(description = "险种，如产品性质、产品类别", example = "[\"政策性农险\", \"养殖险\"]")
+    private List<String> insurances;
+
+    /**
+     * 经营区域
+     */
+    @Schema(description = "经营区域", example = "[\"西藏自治区\"]")
+    private List<String> businessAreas;
+
+    /**
+     * 规则管理部门
+     */
+    @Schema(description = "规则管理部门", example = "[\"产品部\"]")
+    private List<String> departments;
+
+    /**
+     * 文档包含的章节
+     */
+    @Schema(description = "文档包含的章节", example = "[\"保险责任\"]")
+    private List<String> chapters;
+}
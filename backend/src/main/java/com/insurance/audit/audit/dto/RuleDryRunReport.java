@@ -0,0 +1,180 @@
+package com.insurance.audit.audit.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 规则试运行报告DTO
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "规则试运行报告")
+public class RuleDryRunReport {
+
+    /**
+     * 规则ID
+     */
+    @Schema(description = "规则ID", example = "rule-001")
+    private String ruleId;
+
+    /**
+     * 作为历史判定的规则ID
+     */
+    @Schema(description = "作为历史判定的规则ID", example = "rule-001")
+    private String baselineRuleId;
+
+    /**
+     * 语料文档数
+     */
+    @Schema(description = "语料文档数", example = "2000")
+    private Integer corpusDocuments;
+
+    /**
+     * 实际重放的文档数
+     */
+    @Schema(description = "实际重放的文档数", example = "1998")
+    private Integer scannedDocuments;
+
+    /**
+     * 文档块存储中没有的文档数
+     */
+    @Schema(description = "文档块存储中没有的文档数", example = "2")
+    private Integer missingDocuments;
+
+    /**
+     * 超时未重放的文档数
+     */
+    @Schema(description = "超时未重放的文档数", example = "0")
+    private Integer skippedDocuments;
+
+    /**
+     * 规则执行出错的文档数
+     */
+    @Schema(description = "规则执行出错的文档数", example = "0")
+    private Integer errorDocuments;
+
+    /**
+     * 被规则标记
+     */
+    @Schema(description = "被规则标记（失败或警告）的文档数", example = "120")
+    private Integer flaggedDocuments;
+
+    /**
+     * 标记文档中的命中条数
+     */
+    @Schema(description = "标记文档中的命中条数", example = "356")
+    private Long matchCount;
+
+    /**
+     * 有历史判定的文档数
+     */
+    @Schema(description = "有历史判定的文档数", example = "1500")
+    private Integer labelledDocuments;
+
+    /**
+     * 草稿与历史都标记的文档数
+     */
+    @Schema(description = "草稿与历史都标记的文档数", example = "95")
+    private Integer truePositives;
+
+    /**
+     * 草稿标记而历史通过的文档数
+     */
+    @Schema(description = "草稿标记而历史通过的文档数", example = "10")
+    private Integer falsePositives;
+
+    /**
+     * 历史标记而草稿未标记的文档数
+     */
+    @Schema(description = "历史标记而草稿未标记的文档数", example = "5")
+    private Integer falseNegatives;
+
+    /**
+     * 草稿与历史都通过的文档数
+     */
+    @Schema(description = "草稿与历史都通过的文档数", example = "1390")
+    private Integer trueNegatives;
+
+    /**
+     * 相对历史判定的精确率
+     */
+    @Schema(description = "相对历史判定的精确率，没有可比较的标记文档时为空", example = "0.9048")
+    private Double precision;
+
+    /**
+     * 相对历史判定的召回率
+     */
+    @Schema(description = "相对历史判定的召回率，历史没有标记文档时为空", example = "0.95")
+    private Double recall;
+
+    /**
+     * 重放的文档块总数
+     */
+    @Schema(description = "重放的文档块总数", example = "480000")
+    private Long totalChunks;
+
+    /**
+     * 规则匹配累计耗时
+     */
+    @Schema(description = "规则匹配累计耗时（毫秒，各线程之和）", example = "5400")
+    private Long matchingMillis;
+
+    /**
+     * 每个文档块的平均匹配耗时
+     */
+    @Schema(description = "每个文档块的平均匹配耗时（纳秒）", example = "11250.0")
+    private Double nanosPerChunk;
+
+    /**
+     * 试运行总耗时
+     */
+    @Schema(description = "试运行总耗时（毫秒）", example = "1500")
+    private Long durationMs;
+
+    /**
+     * 并行线程数
+     */
+    @Schema(description = "并行线程数", example = "8")
+    private Integer parallelism;
+
+    /**
+     * 语料超过文档数上限被截断
+     */
+    @Schema(description = "语料超过文档数上限被截断", example = "false")
+    private Boolean truncated;
+
+    /**
+     * 达到时间上限后停止
+     */
+    @Schema(description = "达到时间上限后停止", example = "false")
+    private Boolean timedOut;
+
+    /**
+     * 草稿新增标记的文档样例
+     */
+    @Schema(description = "草稿新增标记的文档样例（历史通过）")
+    private List<String> newlyFlaggedDocuments;
+
+    /**
+     * 草稿不再标记的文档样例
+     */
+    @Schema(description = "草稿不再标记的文档样例（历史标记）")
+    private List<String> clearedDocuments;
+
+    /**
+     * 规则执行出错的文档样例
+     */
+    @Schema(description = "规则执行出错的文档样例")
+    private List<String> errorSamples;
+}
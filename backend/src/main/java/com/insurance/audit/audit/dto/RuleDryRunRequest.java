@@ -0,0 +1,61 @@
+package com.insurance.audit.audit.dto;
+
+import com.insurance.audit.audit.service.RuleProvider;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 规则试运行请求DTO
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "规则试运行请求")
+public class RuleDryRunRequest {
+
+    /**
+     * 待评估的规则草稿
+     */
+    @Schema(description = "待评估的规则草稿")
+    private RuleProvider.Rule rule;
+
+    /**
+     * 作为历史判定的规则ID，为空时取草稿的规则ID
+     */
+    @Schema(description = "作为历史判定的规则ID，为空时取草稿的规则ID", example = "rule-001")
+    private String baselineRuleId;
+
+    /**
+     * 重放的文档ID列表
+     */
+    @Schema(description = "重放的文档ID列表，与产品ID列表都为空时重放全部已存储文档")
+    private List<String> documentIds;
+
+    /**
+     * 重放的产品ID列表
+     */
+    @Schema(description = "重放的产品ID列表，取产品下已建索引的全部文档")
+    private List<String> productIds;
+
+    /**
+     * 最多重放的文档数
+     */
+    @Schema(description = "最多重放的文档数，不超过系统上限", example = "2000")
+    private Integer maxDocuments;
+
+    /**
+     * 判定变化的文档样例数
+     */
+    @Schema(description = "判定变化的文档样例数", example = "20")
+    private Integer sampleSize;
+}
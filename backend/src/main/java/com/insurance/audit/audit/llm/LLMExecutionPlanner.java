@@ -0,0 +1,242 @@
+package com.insurance.audit.audit.llm;
+
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * LLM 执行规划器
+ * 调用前用本地估算器估算各执行模式的 token 消耗和耗时，在预算和剩余时间内选择执行模式与文档块分组：
+ * 优先采用复杂度选出的模式，超出剩余预算或时限时依次降级（思维链 → 混合 → 直推）；
+ * 直推仍超出预算时按文档顺序只规划预算内的文档块，其余跳过。
+ * 耗时按调用轮次估算：同一规则的直推调用、各分组的思维链可以并发执行，任务理解步骤各分组共用
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+public class LLMExecutionPlanner {
+
+    public static final String DIRECT_PROMPT = "DIRECT_PROMPT";
+    public static final String CHAIN_OF_THOUGHT = "CHAIN_OF_THOUGHT";
+    public static final String MIXED = "MIXED";
+
+    /**
+     * 思维链中依赖分组内容、必须串行的步骤数：分析文档 → 应用规则 → 生成结论
+     */
+    private static final int GROUP_STEPS = 3;
+
+    @Value("${audit.llm-service.expected-latency-ms:2000}")
+    private long expectedCallMillis = 2000;
+
+    /**
+     * 单次调用耗时的指数移动平均，初始为配置值
+     */
+    private volatile double averageCallMillis = -1;
+
+    /**
+     * 规划执行
+     *
+     * @param preferredMode 复杂度选出的模式
+     * @param forced 是否为规则强制指定的模式，强制模式只在预算不足时降级，不因时限降级
+     * @param chunks 文档块
+     * @param complexChunk 混合模式下判断文档块是否走思维链
+     * @param cost 本条规则的成本模型
+     * @param remainingTokens 剩余 token 预算
+     * @param remainingMillis 作业剩余时间
+     * @param parallelism 调用并发度
+     */
+    public Plan plan(String preferredMode, boolean forced, List<DocumentChunk> chunks,
+                     Predicate<DocumentChunk> complexChunk, CostModel cost,
+                     long remainingTokens, long remainingMillis, int parallelism) {
+        int[] chunkTokens = new int[chunks.size()];
+        for (int i = 0; i < chunks.size(); i++) {
+            chunkTokens[i] = TokenEstimator.estimate(chunks.get(i).getText());
+        }
+        int lanes = Math.max(1, parallelism);
+
+        List<String> modes = candidateModes(preferredMode, forced);
+        Plan fastest = null;
+        String reason = null;
+        for (String mode : modes) {
+            Plan plan = build(mode, chunks, chunkTokens, complexChunk, cost, lanes);
+            if (plan.getEstimatedTokens() > remainingTokens) {
+                reason = mode + " 超出 token 预算";
+                continue;
+            }
+            if (forced || plan.getEstimatedMillis() <= remainingMillis) {
+                return withDecision(plan, preferredMode, reason);
+            }
+            reason = mode + " 超出剩余时间";
+            if (fastest == null || plan.getEstimatedMillis() < fastest.getEstimatedMillis()) {
+                fastest = plan;
+            }
+        }
+        if (fastest != null) {
+            return withDecision(fastest, preferredMode, "所有模式均超出剩余时间，选择耗时最短的模式");
+        }
+        return truncate(chunks, chunkTokens, cost, remainingTokens, lanes, preferredMode);
+    }
+
+    /**
+     * 记录一次调用的实际耗时
+     */
+    public void recordLatency(long millis) {
+        double current = averageCallMillis;
+        averageCallMillis = current < 0 ? millis : current * 0.8 + millis * 0.2;
+    }
+
+    public long getAverageCallMillis() {
+        double current = averageCallMillis;
+        return current < 0 ? expectedCallMillis : Math.round(current);
+    }
+
+    private List<String> candidateModes(String preferredMode, boolean forced) {
+        if (forced) {
+            return List.of(preferredMode);
+        }
+        switch (preferredMode) {
+            case CHAIN_OF_THOUGHT:
+                return List.of(CHAIN_OF_THOUGHT, MIXED, DIRECT_PROMPT);
+            case MIXED:
+                return List.of(MIXED, DIRECT_PROMPT);
+            default:
+                return List.of(preferredMode);
+        }
+    }
+
+    private Plan build(String mode, List<DocumentChunk> chunks, int[] chunkTokens,
+                       Predicate<DocumentChunk> complexChunk, CostModel cost, int lanes) {
+        List<DocumentChunk> directChunks = new ArrayList<>();
+        List<Integer> groupCandidates = new ArrayList<>();
+        long tokens = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            boolean chainOfThought = CHAIN_OF_THOUGHT.equals(mode)
+                    || (MIXED.equals(mode) && complexChunk.test(chunks.get(i)));
+            if (chainOfThought) {
+                groupCandidates.add(i);
+            } else {
+                directChunks.add(chunks.get(i));
+                tokens += cost.getDirectFixedTokens() + chunkTokens[i];
+            }
+        }
+
+        // 思维链分组：按窗口贪心装箱，分组越少，每组固定开销（三步模板和输出）越少
+        List<List<DocumentChunk>> groups = new ArrayList<>();
+        List<DocumentChunk> current = new ArrayList<>();
+        int currentTokens = 0;
+        for (int index : groupCandidates) {
+            if (!current.isEmpty() && currentTokens + chunkTokens[index] > cost.getGroupWindowTokens()) {
+                groups.add(current);
+                current = new ArrayList<>();
+                currentTokens = 0;
+            }
+            current.add(chunks.get(index));
+            currentTokens += chunkTokens[index];
+            tokens += chunkTokens[index];
+        }
+        if (!current.isEmpty()) {
+            groups.add(current);
+        }
+        if (!groups.isEmpty()) {
+            tokens += cost.getUnderstandTokens() + (long) groups.size() * cost.getGroupFixedTokens();
+        }
+
+        // 理解任务一轮，其后直推调用与各分组的三步链并发
+        long rounds = (groups.isEmpty() ? 0 : 1)
+                + ((long) directChunks.size() + (long) groups.size() * GROUP_STEPS + lanes - 1) / lanes;
+        return Plan.builder()
+                .mode(mode)
+                .directChunks(directChunks)
+                .chunkGroups(groups)
+                .skippedChunks(List.of())
+                .estimatedTokens(tokens)
+                .estimatedMillis(rounds * getAverageCallMillis())
+                .build();
+    }
+
+    /**
+     * 预算连直推全部文档块都不够时，按文档顺序规划预算内的文档块
+     */
+    private Plan truncate(List<DocumentChunk> chunks, int[] chunkTokens, CostModel cost,
+                          long remainingTokens, int lanes, String preferredMode) {
+        List<DocumentChunk> directChunks = new ArrayList<>();
+        List<DocumentChunk> skippedChunks = new ArrayList<>();
+        long tokens = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            long chunkCost = cost.getDirectFixedTokens() + chunkTokens[i];
+            if (skippedChunks.isEmpty() && tokens + chunkCost <= remainingTokens) {
+                directChunks.add(chunks.get(i));
+                tokens += chunkCost;
+            } else {
+                skippedChunks.add(chunks.get(i));
+            }
+        }
+        Plan plan = Plan.builder()
+                .mode(DIRECT_PROMPT)
+                .directChunks(directChunks)
+                .chunkGroups(List.of())
+                .skippedChunks(skippedChunks)
+                .estimatedTokens(tokens)
+                .estimatedMillis((directChunks.size() + lanes - 1) / lanes * getAverageCallMillis())
+                .build();
+        return withDecision(plan, preferredMode, "token 预算不足");
+    }
+
+    private Plan withDecision(Plan plan, String preferredMode, String reason) {
+        plan.setPreferredMode(preferredMode);
+        plan.setDowngraded(!plan.getMode().equals(preferredMode) || !plan.getSkippedChunks().isEmpty());
+        plan.setReason(plan.isDowngraded() ? reason : null);
+        return plan;
+    }
+
+    /**
+     * 一条规则的成本模型（token 数均含输出上限）
+     */
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class CostModel {
+        /**
+         * 直推单个文档块的固定开销：模板、规则文本和输出上限
+         */
+        private int directFixedTokens;
+        /**
+         * 理解任务步骤的开销，每条规则一次
+         */
+        private int understandTokens;
+        /**
+         * 每个分组思维链三步的固定开销
+         */
+        private int groupFixedTokens;
+        /**
+         * 单个分组的文档块 token 上限
+         */
+        private int groupWindowTokens;
+    }
+
+    /**
+     * 执行计划
+     */
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class Plan {
+        private String mode;
+        private String preferredMode;
+        private boolean downgraded;
+        private String reason;
+        private List<DocumentChunk> directChunks;
+        private List<List<DocumentChunk>> chunkGroups;
+        private List<DocumentChunk> skippedChunks;
+        private long estimatedTokens;
+        private long estimatedMillis;
+    }
+}
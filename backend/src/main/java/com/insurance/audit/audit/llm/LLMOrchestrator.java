@@ -1,10 +1,19 @@
 package com.insurance.audit.audit.llm;
 
 import com.insurance.audit.audit.matchers.Matcher;
+import com.insurance.audit.audit.security.SensitiveDataScanner;
+import com.insurance.audit.audit.service.ConcurrencyController;
 import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.service.JobExecutionContext;
 import com.insurance.audit.audit.service.RuleProvider.Rule;
+import com.insurance.audit.audit.service.TokenBudget;
+import com.insurance.audit.audit.tracing.AuditTracer;
+import com.insurance.audit.audit.tracing.TraceSpan;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -15,10 +24,18 @@ import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * LLM检核编排器
- * 支持指令直推和逻辑拆解两种模式，处理复杂语义/跨段落场景的裁决
+ * 支持指令直推和逻辑拆解两种模式，处理复杂语义/跨段落场景的裁决。
+ * 执行前由规划器按作业 token 预算和剩余时间选择模式与分组；任务理解步骤每条规则只调用一次，
+ * 直推调用和各分组的思维链在调用线程池中并发执行
  *
  * @author System
  * @version 1.0.0
@@ -28,9 +45,95 @@ import java.util.*;
 @Service
 public class LLMOrchestrator implements Matcher {
 
+    private static final String DIRECT_PROMPT_TEMPLATE = """
+            请根据以下规则检查文档内容：
+
+            规则：%s
+            描述：%s
+
+            文档内容：
+            %s
+
+            请直接回答：
+            1. 是否符合规则（是/否）
+            2. 置信度（0-1）
+            3. 理由（简短说明）
+
+            输出格式：JSON
+            """;
+
+    private static final String UNDERSTAND_TASK_TEMPLATE = """
+            请理解以下检核任务：
+
+            规则名称：%s
+            规则描述：%s
+
+            请说明：
+            1. 这个规则要检查什么？
+            2. 重点关注哪些方面？
+            3. 可能的例外情况？
+            """;
+
+    private static final String ANALYZE_DOCUMENT_TEMPLATE = """
+            基于对任务的理解：
+            %s
+
+            请分析以下文档内容：
+            %s
+
+            分析要点：
+            1. 文档的主要内容是什么？
+            2. 哪些部分与规则相关？
+            3. 有无明显的合规或违规迹象？
+            """;
+
+    private static final String APPLY_RULE_TEMPLATE = """
+            基于文档分析：
+            %s
+
+            现在请严格应用规则：%s
+
+            具体要求：
+            1. 逐条检查规则要求
+            2. 找出支持证据
+            3. 识别潜在问题
+            4. 给出合规判断
+            """;
+
+    private static final String CONCLUDE_TEMPLATE = """
+            基于规则应用结果：
+            %s
+
+            请给出最终结论：
+            1. 整体合规状态（通过/失败/警告）
+            2. 置信度（0-1）
+            3. 关键证据摘要
+            4. 改进建议（如适用）
+
+            输出格式：JSON
+            """;
+
+    /**
+     * 思维链各步骤的输出上限
+     */
+    private static final int UNDERSTAND_MAX_TOKENS = 500;
+    private static final int ANALYZE_MAX_TOKENS = 800;
+    private static final int APPLY_RULE_MAX_TOKENS = 1000;
+    private static final int CONCLUDE_MAX_TOKENS = 600;
+
     @Autowired
+    @Qualifier("auditRestTemplate")
     private RestTemplate restTemplate;
 
+    @Autowired(required = false)
+    private LLMExecutionPlanner planner;
+
+    @Autowired(required = false)
+    private ConcurrencyController concurrencyController;
+
+    @Autowired
+    private SensitiveDataScanner sensitiveDataScanner;
+
     @Value("${audit.llm-service.base-url:http://localhost:8080}")
     private String llmServiceBaseUrl;
 
@@ -40,8 +143,46 @@ public class LLMOrchestrator implements Matcher {
     @Value("${audit.llm-service.max-retries:3}")
     private int maxRetries;
 
+    @Value("${audit.llm-service.call-parallelism:4}")
+    private int callParallelism = 4;
+
+    private ExecutorService callExecutor;
+
+    @PostConstruct
+    public void start() {
+        if (planner == null) {
+            planner = new LLMExecutionPlanner();
+        }
+        if (callParallelism > 1) {
+            AtomicInteger threadIndex = new AtomicInteger();
+            callExecutor = Executors.newFixedThreadPool(callParallelism, runnable -> {
+                Thread thread = new Thread(runnable, "llm-call-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (callExecutor != null) {
+            callExecutor.shutdownNow();
+        }
+    }
+
     @Override
     public List<MatchResult> match(Rule rule, List<DocumentChunk> chunks) {
+        return AuditTracer.inSpan("matcher.llm", span -> {
+            span.setAttribute("rule.id", rule.getId())
+                    .setAttribute("chunk.count", chunks.size());
+            return doMatch(rule, chunks);
+        });
+    }
+
+    /**
+     * LLM匹配实现
+     */
+    private List<MatchResult> doMatch(Rule rule, List<DocumentChunk> chunks) {
         log.info("开始LLM检核: ruleId={}, chunkCount={}", rule.getId(), chunks.size());
 
         List<MatchResult> results = new ArrayList<>();
@@ -50,23 +191,49 @@ public class LLMOrchestrator implements Matcher {
         // 解析LLM配置
         LLMConfig config = parseLLMConfig(parameters);
 
-        // 根据规则类型和上下文选择执行模式
-        String mode = selectExecutionMode(rule, chunks, config);
-        log.info("选择执行模式: ruleId={}, mode={}", rule.getId(), mode);
-
-        switch (mode) {
-            case "DIRECT_PROMPT":
-                results.addAll(executeDirectPromptMode(rule, chunks, config));
-                break;
-            case "CHAIN_OF_THOUGHT":
-                results.addAll(executeChainOfThoughtMode(rule, chunks, config));
-                break;
-            case "MIXED":
-                results.addAll(executeMixedMode(rule, chunks, config));
-                break;
-            default:
-                log.warn("未知的LLM执行模式: {}", mode);
-                break;
+        // 根据规则类型和上下文选择执行模式，再按预算和剩余时间规划
+        String preferredMode = selectExecutionMode(rule, chunks, config);
+        JobExecutionContext context = JobExecutionContext.current();
+        TokenBudget budget = context != null ? context.getTokenBudget() : TokenBudget.unlimited();
+        long remainingMillis = context != null ? context.remainingMillis() : Long.MAX_VALUE;
+        LLMExecutionPlanner.CostModel cost = buildCostModel(rule, config);
+
+        LLMExecutionPlanner.Plan plan = null;
+        TokenBudget.Reservation reservation = null;
+        // 并发规则可能先占用预算，预留失败时按新的剩余额度重新规划
+        for (int attempt = 0; attempt < 3 && reservation == null; attempt++) {
+            plan = planner.plan(preferredMode, config.getForceMode() != null, chunks, this::isComplexChunk, cost,
+                    budget.remainingTokens(), remainingMillis, callParallelism);
+            reservation = budget.tryReserve(plan.getEstimatedTokens());
+        }
+        if (reservation == null) {
+            plan = LLMExecutionPlanner.Plan.builder()
+                    .mode(preferredMode)
+                    .preferredMode(preferredMode)
+                    .downgraded(true)
+                    .reason("token 预算不足")
+                    .directChunks(List.of())
+                    .chunkGroups(List.of())
+                    .skippedChunks(chunks)
+                    .build();
+        }
+        if (plan.isDowngraded()) {
+            budget.recordDowngrade();
+            budget.recordSkippedChunks(plan.getSkippedChunks().size());
+            log.info("LLM执行计划降级: ruleId={}, preferredMode={}, mode={}, skippedChunks={}, reason={}",
+                    rule.getId(), preferredMode, plan.getMode(), plan.getSkippedChunks().size(), plan.getReason());
+        }
+        log.info("选择执行模式: ruleId={}, mode={}, groups={}, estimatedTokens={}, estimatedMillis={}",
+                rule.getId(), plan.getMode(), plan.getChunkGroups().size(),
+                plan.getEstimatedTokens(), plan.getEstimatedMillis());
+
+        if (reservation != null) {
+            try (TokenBudget.Reservation ignored = reservation) {
+                results.addAll(executePlan(rule, plan, config, reservation));
+            }
+        }
+        for (DocumentChunk chunk : plan.getSkippedChunks()) {
+            results.add(createSkippedResult(rule, chunk, plan.getReason()));
         }
 
         log.info("LLM检核完成: ruleId={}, resultCount={}", rule.getId(), results.size());
@@ -86,11 +253,11 @@ public class LLMOrchestrator implements Matcher {
         int complexity = calculateComplexity(rule, chunks);
 
         if (complexity >= 80) {
-            return "CHAIN_OF_THOUGHT";
+            return LLMExecutionPlanner.CHAIN_OF_THOUGHT;
         } else if (complexity >= 50) {
-            return "MIXED";
+            return LLMExecutionPlanner.MIXED;
         } else {
-            return "DIRECT_PROMPT";
+            return LLMExecutionPlanner.DIRECT_PROMPT;
         }
     }
 
@@ -125,122 +292,131 @@ public class LLMOrchestrator implements Matcher {
     }
 
     /**
-     * 执行指令直推模式
+     * 按提示模板和规则文本估算本条规则的成本模型
      */
-    private List<MatchResult> executeDirectPromptMode(Rule rule, List<DocumentChunk> chunks, LLMConfig config) {
-        log.debug("执行指令直推模式: ruleId={}", rule.getId());
+    private LLMExecutionPlanner.CostModel buildCostModel(Rule rule, LLMConfig config) {
+        int ruleTokens = TokenEstimator.estimate(rule.getName(), rule.getDescription());
+        int descriptionTokens = TokenEstimator.estimate(rule.getDescription());
+        int analyzeFixed = TokenEstimator.estimate(String.format(ANALYZE_DOCUMENT_TEMPLATE, "", ""))
+                + UNDERSTAND_MAX_TOKENS + ANALYZE_MAX_TOKENS;
+        int applyFixed = TokenEstimator.estimate(String.format(APPLY_RULE_TEMPLATE, "", ""))
+                + ANALYZE_MAX_TOKENS + descriptionTokens + APPLY_RULE_MAX_TOKENS;
+        int concludeFixed = TokenEstimator.estimate(String.format(CONCLUDE_TEMPLATE, ""))
+                + APPLY_RULE_MAX_TOKENS + CONCLUDE_MAX_TOKENS;
+
+        return LLMExecutionPlanner.CostModel.builder()
+                .directFixedTokens(TokenEstimator.estimate(String.format(DIRECT_PROMPT_TEMPLATE, "", "", ""))
+                        + ruleTokens + config.getMaxTokens())
+                .understandTokens(TokenEstimator.estimate(String.format(UNDERSTAND_TASK_TEMPLATE, "", ""))
+                        + ruleTokens + UNDERSTAND_MAX_TOKENS)
+                .groupFixedTokens(analyzeFixed + applyFixed + concludeFixed)
+                .groupWindowTokens(Math.max(1, config.getMaxContextWindow() - analyzeFixed))
+                .build();
+    }
 
-        List<MatchResult> results = new ArrayList<>();
+    /**
+     * 执行计划：先调用一次任务理解（有思维链分组时），再并发执行直推调用和各分组的思维链，
+     * 结果按直推文档块、分组的顺序拼接
+     */
+    private List<MatchResult> executePlan(Rule rule, LLMExecutionPlanner.Plan plan, LLMConfig config,
+                                          TokenBudget.Reservation reservation) {
+        List<Callable<List<MatchResult>>> tasks = new ArrayList<>();
+        for (DocumentChunk chunk : plan.getDirectChunks()) {
+            tasks.add(() -> executeDirectPrompt(rule, chunk, config, reservation));
+        }
 
-        for (DocumentChunk chunk : chunks) {
+        if (!plan.getChunkGroups().isEmpty()) {
+            LLMResponse understanding = null;
+            String understandError = null;
             try {
-                LLMRequest request = buildDirectPromptRequest(rule, chunk, config);
-                LLMResponse response = callLLMService(request);
-
-                MatchResult result = parseDirectPromptResponse(rule, chunk, response, config);
-                if (result != null) {
-                    results.add(result);
-                }
-
+                understanding = callLLMService(buildUnderstandTaskRequest(rule, config), reservation);
+            } catch (JobExecutionContext.JobAbortedException e) {
+                throw e;
             } catch (Exception e) {
-                log.error("指令直推模式处理失败: ruleId={}, chunkId={}, error={}",
-                         rule.getId(), chunk.getId(), e.getMessage(), e);
-
-                // 添加错误结果
-                results.add(createErrorResult(rule, chunk, e.getMessage()));
+                log.error("任务理解失败: ruleId={}, error={}", rule.getId(), e.getMessage(), e);
+                understandError = e.getMessage();
+            }
+            for (List<DocumentChunk> group : plan.getChunkGroups()) {
+                LLMResponse sharedUnderstanding = understanding;
+                String error = understandError;
+                tasks.add(() -> error != null
+                        ? errorResults(rule, group, error)
+                        : executeChainOfThoughtGroup(rule, group, sharedUnderstanding, config, reservation));
             }
         }
 
-        return results;
+        return runConcurrently(tasks);
     }
 
     /**
-     * 执行逻辑拆解模式（思维链）
+     * 直推单个文档块
      */
-    private List<MatchResult> executeChainOfThoughtMode(Rule rule, List<DocumentChunk> chunks, LLMConfig config) {
-        log.debug("执行逻辑拆解模式: ruleId={}", rule.getId());
-
-        List<MatchResult> results = new ArrayList<>();
-
-        // 将相关块组合处理
-        List<List<DocumentChunk>> chunkGroups = groupRelatedChunks(chunks, config);
-
-        for (List<DocumentChunk> group : chunkGroups) {
-            try {
-                ChainOfThoughtResult cotResult = executeChainOfThought(rule, group, config);
-
-                for (DocumentChunk chunk : group) {
-                    MatchResult result = buildResultFromCoT(rule, chunk, cotResult, config);
-                    if (result != null) {
-                        results.add(result);
-                    }
-                }
-
-            } catch (Exception e) {
-                log.error("逻辑拆解模式处理失败: ruleId={}, groupSize={}, error={}",
-                         rule.getId(), group.size(), e.getMessage(), e);
-
-                // 为组内每个块添加错误结果
-                for (DocumentChunk chunk : group) {
-                    results.add(createErrorResult(rule, chunk, e.getMessage()));
-                }
-            }
+    private List<MatchResult> executeDirectPrompt(Rule rule, DocumentChunk chunk, LLMConfig config,
+                                                  TokenBudget.Reservation reservation) {
+        try {
+            LLMRequest request = buildDirectPromptRequest(rule, chunk, config);
+            LLMResponse response = callLLMService(request, reservation);
+
+            MatchResult result = parseDirectPromptResponse(rule, chunk, response, config);
+            return result != null ? List.of(result) : List.of();
+
+        } catch (JobExecutionContext.JobAbortedException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("指令直推模式处理失败: ruleId={}, chunkId={}, error={}",
+                     rule.getId(), chunk.getId(), e.getMessage(), e);
+
+            // 添加错误结果
+            return List.of(createErrorResult(rule, chunk, e.getMessage()));
         }
-
-        return results;
     }
 
     /**
-     * 执行混合模式
+     * 对一个文档块分组执行思维链
      */
-    private List<MatchResult> executeMixedMode(Rule rule, List<DocumentChunk> chunks, LLMConfig config) {
-        log.debug("执行混合模式: ruleId={}", rule.getId());
-
+    private List<MatchResult> executeChainOfThoughtGroup(Rule rule, List<DocumentChunk> group,
+                                                         LLMResponse understanding, LLMConfig config,
+                                                         TokenBudget.Reservation reservation) {
         List<MatchResult> results = new ArrayList<>();
+        try {
+            ChainOfThoughtResult cotResult = executeChainOfThought(rule, group, understanding, config, reservation);
 
-        // 简单块使用直推模式
-        List<DocumentChunk> simpleChunks = new ArrayList<>();
-        // 复杂块使用逻辑拆解模式
-        List<DocumentChunk> complexChunks = new ArrayList<>();
-
-        for (DocumentChunk chunk : chunks) {
-            if (isComplexChunk(chunk)) {
-                complexChunks.add(chunk);
-            } else {
-                simpleChunks.add(chunk);
+            for (DocumentChunk chunk : group) {
+                MatchResult result = buildResultFromCoT(rule, chunk, cotResult, config);
+                if (result != null) {
+                    results.add(result);
+                }
             }
-        }
 
-        // 分别处理
-        if (!simpleChunks.isEmpty()) {
-            results.addAll(executeDirectPromptMode(rule, simpleChunks, config));
-        }
-        if (!complexChunks.isEmpty()) {
-            results.addAll(executeChainOfThoughtMode(rule, complexChunks, config));
-        }
+        } catch (JobExecutionContext.JobAbortedException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("逻辑拆解模式处理失败: ruleId={}, groupSize={}, error={}",
+                     rule.getId(), group.size(), e.getMessage(), e);
 
+            // 为组内每个块添加错误结果
+            return errorResults(rule, group, e.getMessage());
+        }
         return results;
     }
 
     /**
-     * 执行思维链推理
+     * 执行思维链推理，任务理解结果由同一规则的各分组共用
      */
-    private ChainOfThoughtResult executeChainOfThought(Rule rule, List<DocumentChunk> chunks, LLMConfig config) {
-        // Step 1: 理解任务
-        LLMRequest understandRequest = buildUnderstandTaskRequest(rule, chunks, config);
-        LLMResponse understandResponse = callLLMService(understandRequest);
-
+    private ChainOfThoughtResult executeChainOfThought(Rule rule, List<DocumentChunk> chunks,
+                                                       LLMResponse understandResponse, LLMConfig config,
+                                                       TokenBudget.Reservation reservation) {
         // Step 2: 分析文档
         LLMRequest analyzeRequest = buildAnalyzeDocumentRequest(rule, chunks, understandResponse, config);
-        LLMResponse analyzeResponse = callLLMService(analyzeRequest);
+        LLMResponse analyzeResponse = callLLMService(analyzeRequest, reservation);
 
         // Step 3: 应用规则
         LLMRequest applyRuleRequest = buildApplyRuleRequest(rule, chunks, analyzeResponse, config);
-        LLMResponse applyRuleResponse = callLLMService(applyRuleRequest);
+        LLMResponse applyRuleResponse = callLLMService(applyRuleRequest, reservation);
 
         // Step 4: 生成结论
         LLMRequest concludeRequest = buildConcludeRequest(rule, chunks, applyRuleResponse, config);
-        LLMResponse concludeResponse = callLLMService(concludeRequest);
+        LLMResponse concludeResponse = callLLMService(concludeRequest, reservation);
 
         return ChainOfThoughtResult.builder()
                 .understanding(understandResponse.getContent())
@@ -256,11 +432,67 @@ public class LLMOrchestrator implements Matcher {
                 .build();
     }
 
+    /**
+     * 在调用线程池中并发执行任务并按提交顺序拼接结果，任务在调用方的作业上下文和链路片段中执行；
+     * 未启用线程池或只有一个任务时在当前线程执行
+     */
+    private List<MatchResult> runConcurrently(List<Callable<List<MatchResult>>> tasks) {
+        List<MatchResult> results = new ArrayList<>();
+        if (callExecutor == null || tasks.size() <= 1) {
+            for (Callable<List<MatchResult>> task : tasks) {
+                results.addAll(call(task));
+            }
+            return results;
+        }
+
+        JobExecutionContext context = JobExecutionContext.current();
+        TraceSpan span = AuditTracer.currentSpan();
+        List<Future<List<MatchResult>>> futures = new ArrayList<>(tasks.size());
+        for (Callable<List<MatchResult>> task : tasks) {
+            futures.add(callExecutor.submit(() -> {
+                try (JobExecutionContext.Scope ignored = context != null ? context.activate() : null;
+                     AuditTracer.TraceScope traceScope = AuditTracer.activateSpan(span)) {
+                    return task.call();
+                }
+            }));
+        }
+        try {
+            for (Future<List<MatchResult>> future : futures) {
+                results.addAll(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("LLM调用任务执行失败: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待LLM调用结果时被中断", e);
+        }
+    }
+
+    private static List<MatchResult> call(Callable<List<MatchResult>> task) {
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
     /**
      * 调用LLM服务
+     * 每次尝试前检查作业是否已取消或超时；持有外部服务许可期间作业被取消时许可立即归还
      */
-    private LLMResponse callLLMService(LLMRequest request) {
+    private LLMResponse callLLMService(LLMRequest request, TokenBudget.Reservation reservation) {
         for (int attempt = 1; attempt <= maxRetries; attempt++) {
+            JobExecutionContext.checkpoint();
+            ConcurrencyController.ResourcePermit permit = acquirePermit();
+            long callStart = System.currentTimeMillis();
             try {
                 HttpHeaders headers = new HttpHeaders();
                 headers.setContentType(MediaType.APPLICATION_JSON);
@@ -271,12 +503,18 @@ public class LLMOrchestrator implements Matcher {
 
                 if (response.getBody() != null) {
                     // 记录使用情况
+                    planner.recordLatency(System.currentTimeMillis() - callStart);
                     logLLMUsage(request, response.getBody());
+                    if (reservation != null) {
+                        reservation.consume(usedTokens(request, response.getBody()));
+                    }
                     return response.getBody();
                 } else {
                     throw new RuntimeException("LLM服务返回空响应");
                 }
 
+            } catch (JobExecutionContext.JobAbortedException e) {
+                throw e;
             } catch (Exception e) {
                 log.warn("LLM服务调用失败 (尝试 {}/{}): {}", attempt, maxRetries, e.getMessage());
 
@@ -284,13 +522,20 @@ public class LLMOrchestrator implements Matcher {
                     throw new RuntimeException("LLM服务调用失败，已重试" + maxRetries + "次: " + e.getMessage(), e);
                 }
 
-                // 重试前等待
+                // 重试前归还许可并等待，等待时间不超过作业剩余时间
+                if (permit != null) {
+                    permit.close();
+                }
                 try {
-                    Thread.sleep(1000 * attempt);
+                    Thread.sleep(JobExecutionContext.boundTimeout(1000L * attempt));
                 } catch (InterruptedException ie) {
                     Thread.currentThread().interrupt();
                     throw new RuntimeException("等待重试时被中断", ie);
                 }
+            } finally {
+                if (permit != null) {
+                    permit.close();
+                }
             }
         }
 
@@ -298,25 +543,37 @@ public class LLMOrchestrator implements Matcher {
     }
 
     /**
-     * 构建直推提示请求
+     * 本次调用的 token 用量：优先取服务返回的用量，否则按提示和输出估算
      */
-    private LLMRequest buildDirectPromptRequest(Rule rule, DocumentChunk chunk, LLMConfig config) {
-        String prompt = String.format("""
-            请根据以下规则检查文档内容：
-
-            规则：%s
-            描述：%s
-
-            文档内容：
-            %s
+    private long usedTokens(LLMRequest request, LLMResponse response) {
+        Object totalTokens = response.getUsage() != null ? response.getUsage().get("totalTokens") : null;
+        if (totalTokens instanceof Number number) {
+            return number.longValue();
+        }
+        return TokenEstimator.estimate(request.getPrompt(), response.getContent());
+    }
 
-            请直接回答：
-            1. 是否符合规则（是/否）
-            2. 置信度（0-1）
-            3. 理由（简短说明）
+    /**
+     * 获取外部服务访问许可，未配置并发控制器时不限制
+     */
+    private ConcurrencyController.ResourcePermit acquirePermit() {
+        if (concurrencyController == null) {
+            return null;
+        }
+        ConcurrencyController.ResourcePermit permit =
+                concurrencyController.acquireResource(JobExecutionContext.current(), timeoutMs);
+        if (permit == null) {
+            JobExecutionContext.checkpoint();
+            throw new RuntimeException("LLM服务并发已满，等待许可超时");
+        }
+        return permit;
+    }
 
-            输出格式：JSON
-            """,
+    /**
+     * 构建直推提示请求
+     */
+    private LLMRequest buildDirectPromptRequest(Rule rule, DocumentChunk chunk, LLMConfig config) {
+        String prompt = String.format(DIRECT_PROMPT_TEMPLATE,
             rule.getName(),
             rule.getDescription(),
             redactSensitiveData(chunk.getText(), config)
@@ -343,18 +600,7 @@ public class LLMOrchestrator implements Matcher {
             return text;
         }
 
-        String result = text;
-
-        // 脱敏身份证号
-        result = result.replaceAll("\\b\\d{15}|\\d{18}|\\d{17}[Xx]\\b", "***身份证号***");
-
-        // 脱敏电话号码
-        result = result.replaceAll("\\b1[3-9]\\d{9}\\b", "***电话号码***");
-
-        // 脱敏邮箱
-        result = result.replaceAll("\\b[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}\\b", "***邮箱地址***");
-
-        return result;
+        return sensitiveDataScanner.redact(text).getRedactedText();
     }
 
     /**
@@ -397,33 +643,6 @@ public class LLMOrchestrator implements Matcher {
         return false;
     }
 
-    /**
-     * 将相关块分组
-     */
-    private List<List<DocumentChunk>> groupRelatedChunks(List<DocumentChunk> chunks, LLMConfig config) {
-        List<List<DocumentChunk>> groups = new ArrayList<>();
-        List<DocumentChunk> currentGroup = new ArrayList<>();
-        int currentGroupSize = 0;
-        int maxGroupSize = config.getMaxContextWindow();
-
-        for (DocumentChunk chunk : chunks) {
-            if (currentGroupSize + chunk.getText().length() > maxGroupSize && !currentGroup.isEmpty()) {
-                groups.add(new ArrayList<>(currentGroup));
-                currentGroup.clear();
-                currentGroupSize = 0;
-            }
-
-            currentGroup.add(chunk);
-            currentGroupSize += chunk.getText().length();
-        }
-
-        if (!currentGroup.isEmpty()) {
-            groups.add(currentGroup);
-        }
-
-        return groups;
-    }
-
     /**
      * 解析LLM配置
      */
@@ -443,24 +662,14 @@ public class LLMOrchestrator implements Matcher {
     /**
      * 构建理解任务请求
      */
-    private LLMRequest buildUnderstandTaskRequest(Rule rule, List<DocumentChunk> chunks, LLMConfig config) {
-        String prompt = String.format("""
-            请理解以下检核任务：
-
-            规则名称：%s
-            规则描述：%s
-
-            请说明：
-            1. 这个规则要检查什么？
-            2. 重点关注哪些方面？
-            3. 可能的例外情况？
-            """, rule.getName(), rule.getDescription());
+    private LLMRequest buildUnderstandTaskRequest(Rule rule, LLMConfig config) {
+        String prompt = String.format(UNDERSTAND_TASK_TEMPLATE, rule.getName(), rule.getDescription());
 
         return LLMRequest.builder()
                 .prompt(prompt)
                 .model(config.getModel())
                 .temperature(0.1)
-                .maxTokens(500)
+                .maxTokens(UNDERSTAND_MAX_TOKENS)
                 .build();
     }
 
@@ -474,24 +683,13 @@ public class LLMOrchestrator implements Matcher {
             content.append(redactSensitiveData(chunk.getText(), config)).append("\n\n");
         }
 
-        String prompt = String.format("""
-            基于对任务的理解：
-            %s
-
-            请分析以下文档内容：
-            %s
-
-            分析要点：
-            1. 文档的主要内容是什么？
-            2. 哪些部分与规则相关？
-            3. 有无明显的合规或违规迹象？
-            """, understanding.getContent(), content.toString());
+        String prompt = String.format(ANALYZE_DOCUMENT_TEMPLATE, understanding.getContent(), content.toString());
 
         return LLMRequest.builder()
                 .prompt(prompt)
                 .model(config.getModel())
                 .temperature(0.2)
-                .maxTokens(800)
+                .maxTokens(ANALYZE_MAX_TOKENS)
                 .build();
     }
 
@@ -500,24 +698,13 @@ public class LLMOrchestrator implements Matcher {
      */
     private LLMRequest buildApplyRuleRequest(Rule rule, List<DocumentChunk> chunks,
                                            LLMResponse analysis, LLMConfig config) {
-        String prompt = String.format("""
-            基于文档分析：
-            %s
-
-            现在请严格应用规则：%s
-
-            具体要求：
-            1. 逐条检查规则要求
-            2. 找出支持证据
-            3. 识别潜在问题
-            4. 给出合规判断
-            """, analysis.getContent(), rule.getDescription());
+        String prompt = String.format(APPLY_RULE_TEMPLATE, analysis.getContent(), rule.getDescription());
 
         return LLMRequest.builder()
                 .prompt(prompt)
                 .model(config.getModel())
                 .temperature(0.1)
-                .maxTokens(1000)
+                .maxTokens(APPLY_RULE_MAX_TOKENS)
                 .build();
     }
 
@@ -526,24 +713,13 @@ public class LLMOrchestrator implements Matcher {
      */
     private LLMRequest buildConcludeRequest(Rule rule, List<DocumentChunk> chunks,
                                           LLMResponse ruleApplication, LLMConfig config) {
-        String prompt = String.format("""
-            基于规则应用结果：
-            %s
-
-            请给出最终结论：
-            1. 整体合规状态（通过/失败/警告）
-            2. 置信度（0-1）
-            3. 关键证据摘要
-            4. 改进建议（如适用）
-
-            输出格式：JSON
-            """, ruleApplication.getContent());
+        String prompt = String.format(CONCLUDE_TEMPLATE, ruleApplication.getContent());
 
         return LLMRequest.builder()
                 .prompt(prompt)
                 .model(config.getModel())
                 .temperature(0.1)
-                .maxTokens(600)
+                .maxTokens(CONCLUDE_MAX_TOKENS)
                 .build();
     }
 
@@ -558,11 +734,33 @@ public class LLMOrchestrator implements Matcher {
         return null; // TODO: 实现
     }
 
+    private List<MatchResult> errorResults(Rule rule, List<DocumentChunk> chunks, String errorMessage) {
+        List<MatchResult> results = new ArrayList<>(chunks.size());
+        for (DocumentChunk chunk : chunks) {
+            results.add(createErrorResult(rule, chunk, errorMessage));
+        }
+        return results;
+    }
+
+    private MatchResult createSkippedResult(Rule rule, DocumentChunk chunk, String reason) {
+        return MatchResult.builder()
+                .ruleId(rule.getId())
+                .chunkId(chunk.getId())
+                .chunk(chunk)
+                .score(0.0)
+                .threshold(rule.getThreshold())
+                .status("SKIPPED")
+                .evidences(List.of())
+                .metadata(Map.of("reason", reason != null ? reason : "token 预算不足",
+                        "timestamp", LocalDateTime.now()))
+                .build();
+    }
+
     private MatchResult createErrorResult(Rule rule, DocumentChunk chunk, String errorMessage) {
         return MatchResult.builder()
                 .ruleId(rule.getId())
                 .chunkId(chunk.getId())
-                .text(chunk.getText())
+                .chunk(chunk)
                 .score(0.0)
                 .threshold(rule.getThreshold())
                 .status("ERROR")
@@ -1,12 +1,14 @@
 package com.insurance.audit.audit.matchers;
 
 import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.service.JobExecutionContext;
 import com.insurance.audit.audit.service.RuleProvider.Rule;
+import com.insurance.audit.audit.tracing.AuditTracer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.regex.Pattern;
 
 /**
  * 格式检查器
@@ -20,26 +22,20 @@ import java.util.regex.Pattern;
 @Component
 public class FormatChecker implements Matcher {
 
-    // 常用格式检查正则表达式
-    private static final Pattern EMAIL_PATTERN = Pattern.compile(
-        "^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$"
-    );
-
-    private static final Pattern PHONE_PATTERN = Pattern.compile(
-        "^(\\+86\\s*)?((1[3-9]\\d{9})|(\\d{3,4}-\\d{7,8}))$"
-    );
-
-    private static final Pattern ID_CARD_PATTERN = Pattern.compile(
-        "^[1-9]\\d{5}(18|19|20)\\d{2}((0[1-9])|(1[0-2]))(([0-2][1-9])|10|20|30|31)\\d{3}[0-9Xx]$"
-    );
-
-    private static final Pattern MONEY_PATTERN = Pattern.compile(
-        "^[+-]?\\d{1,3}(,\\d{3})*(\\.\\d{2})?$"
-    );
-
     @Override
     public List<MatchResult> match(Rule rule, List<DocumentChunk> chunks) {
-        log.info("开始格式检查: ruleId={}, chunkCount={}", rule.getId(), chunks.size());
+        return AuditTracer.inSpan("matcher.format", span -> {
+            span.setAttribute("rule.id", rule.getId())
+                    .setAttribute("chunk.count", chunks.size());
+            return doMatch(rule, chunks);
+        });
+    }
+
+    /**
+     * 格式检查实现
+     */
+    private List<MatchResult> doMatch(Rule rule, List<DocumentChunk> chunks) {
+        log.debug("开始格式检查: ruleId={}, chunkCount={}", rule.getId(), chunks.size());
 
         List<MatchResult> results = new ArrayList<>();
         Map<String, Object> parameters = rule.getParameters();
@@ -48,59 +44,38 @@ public class FormatChecker implements Matcher {
         FormatCheckConfig config = parseFormatConfig(parameters);
 
         for (DocumentChunk chunk : chunks) {
+            JobExecutionContext.checkpoint();
             MatchResult result = checkChunkFormat(rule, chunk, config);
             if (result != null) {
                 results.add(result);
             }
         }
 
-        log.info("格式检查完成: ruleId={}, resultCount={}", rule.getId(), results.size());
+        log.debug("格式检查完成: ruleId={}, resultCount={}", rule.getId(), results.size());
         return results;
     }
 
     /**
      * 检查文档块格式
+     * 逐字符扫描一次：空白分隔的词元交给邮箱校验，数字开头的候选按形态归为日期、金额、身份证或电话后交给对应校验器，
+     * 控制字符在同一次扫描中检查；结构和长度检查只依赖整段文本，在扫描后进行
      */
     private MatchResult checkChunkFormat(Rule rule, DocumentChunk chunk, FormatCheckConfig config) {
         List<Evidence> evidences = new ArrayList<>();
-        boolean passed = true;
         int violations = 0;
 
-        // 执行各种格式检查
-        for (String checkType : config.getCheckTypes()) {
-            switch (checkType) {
-                case "EMAIL":
-                    violations += checkEmailFormat(chunk, evidences);
-                    break;
-                case "PHONE":
-                    violations += checkPhoneFormat(chunk, evidences);
-                    break;
-                case "ID_CARD":
-                    violations += checkIdCardFormat(chunk, evidences);
-                    break;
-                case "MONEY":
-                    violations += checkMoneyFormat(chunk, evidences);
-                    break;
-                case "DATE":
-                    violations += checkDateFormat(chunk, config, evidences);
-                    break;
-                case "STRUCTURE":
-                    violations += checkStructureFormat(chunk, config, evidences);
-                    break;
-                case "LENGTH":
-                    violations += checkLengthFormat(chunk, config, evidences);
-                    break;
-                case "ENCODING":
-                    violations += checkEncodingFormat(chunk, config, evidences);
-                    break;
-                default:
-                    log.warn("不支持的格式检查类型: {}", checkType);
-                    break;
-            }
+        if (config.needsScan()) {
+            violations += scanChunk(chunk.getText(), config, evidences);
+        }
+        if (config.isStructureCheck()) {
+            violations += checkStructureFormat(chunk, config, evidences);
+        }
+        if (config.isLengthCheck()) {
+            violations += checkLengthFormat(chunk, config, evidences);
         }
 
         // 判断是否通过检查
-        passed = violations <= config.getMaxViolations();
+        boolean passed = violations <= config.getMaxViolations();
 
         if (!passed || config.isReportAllResults()) {
             String status = determineFormatStatus(violations, config);
@@ -109,12 +84,11 @@ public class FormatChecker implements Matcher {
             return MatchResult.builder()
                     .ruleId(rule.getId())
                     .chunkId(chunk.getId())
-                    .text(chunk.getText())
+                    .chunk(chunk)
                     .score(score)
                     .threshold(rule.getThreshold())
                     .status(status)
                     .evidences(evidences)
-                    .metadata(createFormatMetadata(chunk, config, violations))
                     .build();
         }
 
@@ -122,158 +96,204 @@ public class FormatChecker implements Matcher {
     }
 
     /**
-     * 检查邮箱格式
+     * 单次扫描文本，返回违规数
      */
-    private int checkEmailFormat(DocumentChunk chunk, List<Evidence> evidences) {
-        String text = chunk.getText();
-        String[] tokens = text.split("\\s+");
+    private int scanChunk(String text, FormatCheckConfig config, List<Evidence> evidences) {
         int violations = 0;
-
-        for (int i = 0; i < tokens.length; i++) {
-            String token = tokens[i];
-            if (token.contains("@")) {
-                if (!EMAIL_PATTERN.matcher(token).matches()) {
+        int length = text.length();
+        int tokenStart = -1;
+        boolean tokenHasAt = false;
+        int numberResumeAt = 0;
+
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+
+            // 空白分隔的词元（邮箱）
+            if (FormatValidators.isSpace(c)) {
+                if (tokenStart >= 0 && tokenHasAt && config.isEmailCheck()
+                        && !FormatValidators.isValidEmail(text, tokenStart, i)) {
                     violations++;
-                    evidences.add(Evidence.builder()
-                            .text(token)
-                            .startPos(text.indexOf(token))
-                            .endPos(text.indexOf(token) + token.length())
-                            .matchType("EMAIL_FORMAT_ERROR")
-                            .context(Map.of("invalidEmail", token))
-                            .build());
+                    evidences.add(evidence(text, tokenStart, i, "EMAIL_FORMAT_ERROR"));
                 }
+                tokenStart = -1;
+                tokenHasAt = false;
+                continue;
+            }
+            if (tokenStart < 0) {
+                tokenStart = i;
+            }
+            if (c == '@') {
+                tokenHasAt = true;
             }
-        }
-
-        return violations;
-    }
-
-    /**
-     * 检查电话号码格式
-     */
-    private int checkPhoneFormat(DocumentChunk chunk, List<Evidence> evidences) {
-        String text = chunk.getText();
-        Pattern phoneCandidate = Pattern.compile("\\b\\d[\\d\\s\\-\\+\\(\\)]{6,20}\\d\\b");
-        java.util.regex.Matcher matcher = phoneCandidate.matcher(text);
-        int violations = 0;
 
-        while (matcher.find()) {
-            String candidate = matcher.group().replaceAll("[\\s\\-\\(\\)]", "");
-            if (!PHONE_PATTERN.matcher(candidate).matches()) {
+            // 控制字符
+            if (config.isEncodingCheck() && isIllegalCharacter(c)) {
                 violations++;
                 evidences.add(Evidence.builder()
-                        .text(matcher.group())
-                        .startPos(matcher.start())
-                        .endPos(matcher.end())
-                        .matchType("PHONE_FORMAT_ERROR")
-                        .context(Map.of("invalidPhone", candidate))
+                        .text("控制字符")
+                        .startPos(i)
+                        .endPos(i + 1)
+                        .matchType("ILLEGAL_CHARACTER")
+                        .context(Map.of("charCode", (int) c))
                         .build());
             }
+
+            // 数字候选，起点须在单词边界上
+            if (config.needsNumberScan() && i >= numberResumeAt && FormatValidators.isDigit(c)
+                    && (i == 0 || !FormatValidators.isAsciiWordChar(text.charAt(i - 1)))) {
+                numberResumeAt = checkNumberCandidate(text, i, config, evidences);
+                if (numberResumeAt < 0) {
+                    violations++;
+                    numberResumeAt = -numberResumeAt;
+                }
+            }
         }
 
         return violations;
     }
 
     /**
-     * 检查身份证格式
+     * 按形态归类数字候选并校验，每个候选只归入一种类型：日期、金额（前后带货币符号）、身份证（15/18位）、电话
+     *
+     * @return 候选结束位置；发现违规时返回结束位置的相反数
      */
-    private int checkIdCardFormat(DocumentChunk chunk, List<Evidence> evidences) {
-        String text = chunk.getText();
-        Pattern idCandidate = Pattern.compile("\\b\\d{15}|\\d{18}|\\d{17}[Xx]\\b");
-        java.util.regex.Matcher matcher = idCandidate.matcher(text);
-        int violations = 0;
+    private int checkNumberCandidate(String text, int start, FormatCheckConfig config, List<Evidence> evidences) {
+        int length = text.length();
 
-        while (matcher.find()) {
-            String candidate = matcher.group();
-            if (!ID_CARD_PATTERN.matcher(candidate).matches()) {
-                violations++;
+        int dateEnd = FormatValidators.dateCandidateEnd(text, start);
+        if (dateEnd > 0) {
+            if (config.isDateCheck() && !matchesAnyDateFormat(text, start, dateEnd, config)) {
                 evidences.add(Evidence.builder()
-                        .text(candidate)
-                        .startPos(matcher.start())
-                        .endPos(matcher.end())
-                        .matchType("ID_CARD_FORMAT_ERROR")
-                        .context(Map.of("invalidIdCard", candidate))
+                        .text(text.substring(start, dateEnd))
+                        .startPos(start)
+                        .endPos(dateEnd)
+                        .matchType("DATE_FORMAT_ERROR")
+                        .context(Map.of("expectedFormats", config.getDateFormats()))
                         .build());
+                return -dateEnd;
             }
+            return dateEnd;
         }
 
-        return violations;
-    }
+        int amountEnd = start;
+        while (amountEnd < length && (FormatValidators.isDigit(text.charAt(amountEnd))
+                || text.charAt(amountEnd) == ',' || text.charAt(amountEnd) == '.')) {
+            amountEnd++;
+        }
+        int currencyStart = start;
+        while (currencyStart > 0 && FormatValidators.isSpace(text.charAt(currencyStart - 1))) {
+            currencyStart--;
+        }
+        boolean prefixed = currencyStart > 0 && isCurrency(text.charAt(currencyStart - 1));
+        int currencyEnd = amountEnd;
+        while (currencyEnd < length && FormatValidators.isSpace(text.charAt(currencyEnd))) {
+            currencyEnd++;
+        }
+        boolean suffixed = currencyEnd < length && isCurrency(text.charAt(currencyEnd));
+        if (prefixed || suffixed) {
+            if (config.isMoneyCheck() && !FormatValidators.isValidMoney(text, start, amountEnd)) {
+                int evidenceStart = prefixed ? currencyStart - 1 : start;
+                int evidenceEnd = suffixed ? currencyEnd + 1 : amountEnd;
+                evidences.add(evidence(text, evidenceStart, evidenceEnd, "MONEY_FORMAT_ERROR"));
+                return -evidenceEnd;
+            }
+            return amountEnd;
+        }
 
-    /**
-     * 检查金额格式
-     */
-    private int checkMoneyFormat(DocumentChunk chunk, List<Evidence> evidences) {
-        String text = chunk.getText();
-        Pattern moneyCandidate = Pattern.compile("\\b\\d[\\d,\\.]*\\s*[元￥$]|[元￥$]\\s*\\d[\\d,\\.]*");
-        java.util.regex.Matcher matcher = moneyCandidate.matcher(text);
-        int violations = 0;
+        int digitEnd = start;
+        while (digitEnd < length && FormatValidators.isDigit(text.charAt(digitEnd))) {
+            digitEnd++;
+        }
+        int idEnd = digitEnd - start == 17 && digitEnd < length
+                && (text.charAt(digitEnd) == 'X' || text.charAt(digitEnd) == 'x') ? digitEnd + 1 : digitEnd;
+        int idLength = idEnd - start;
+        if ((idLength == 15 || idLength == 18)
+                && (idEnd == length || !FormatValidators.isAsciiWordChar(text.charAt(idEnd)))) {
+            if (config.isIdCardCheck() && !FormatValidators.isValidIdCard(text, start, idEnd)) {
+                evidences.add(evidence(text, start, idEnd, "ID_CARD_FORMAT_ERROR"));
+                return -idEnd;
+            }
+            return idEnd;
+        }
 
-        while (matcher.find()) {
-            String candidate = matcher.group().replaceAll("[元￥$\\s]", "");
-            if (!MONEY_PATTERN.matcher(candidate).matches()) {
-                violations++;
-                evidences.add(Evidence.builder()
-                        .text(matcher.group())
-                        .startPos(matcher.start())
-                        .endPos(matcher.end())
-                        .matchType("MONEY_FORMAT_ERROR")
-                        .context(Map.of("invalidMoney", candidate))
-                        .build());
+        int phoneEnd = phoneCandidateEnd(text, start);
+        if (phoneEnd > 0) {
+            if (config.isPhoneCheck() && !FormatValidators.isValidPhone(text, start, phoneEnd)) {
+                evidences.add(evidence(text, start, phoneEnd, "PHONE_FORMAT_ERROR"));
+                return -phoneEnd;
             }
+            return phoneEnd;
         }
 
-        return violations;
+        return digitEnd;
     }
 
     /**
-     * 检查日期格式
+     * 电话候选：数字开头和结尾，中间为数字、空白、括号、加号或连字符，总长8-22，结尾在单词边界上
+     *
+     * @return 候选结束位置（不含），不是电话候选时返回-1
      */
-    private int checkDateFormat(DocumentChunk chunk, FormatCheckConfig config, List<Evidence> evidences) {
-        String text = chunk.getText();
-        List<String> dateFormats = config.getDateFormats();
-        int violations = 0;
-
-        // 查找可能的日期字符串
-        Pattern dateCandidate = Pattern.compile("\\b\\d{4}[\\-/年]\\d{1,2}[\\-/月]\\d{1,2}[日]?\\b");
-        java.util.regex.Matcher matcher = dateCandidate.matcher(text);
-
-        while (matcher.find()) {
-            String candidate = matcher.group();
-            boolean validFormat = false;
-
-            for (String format : dateFormats) {
-                if (matchesDateFormat(candidate, format)) {
-                    validFormat = true;
-                    break;
-                }
+    private int phoneCandidateEnd(String text, int start) {
+        int length = text.length();
+        int limit = Math.min(length, start + 22);
+        int end = start;
+        while (end < limit && isPhoneCharacter(text.charAt(end))) {
+            end++;
+        }
+        for (int last = end - 1; last >= start + 7; last--) {
+            if (FormatValidators.isDigit(text.charAt(last))
+                    && (last + 1 == length || !FormatValidators.isAsciiWordChar(text.charAt(last + 1)))) {
+                return last + 1;
             }
+        }
+        return -1;
+    }
 
-            if (!validFormat) {
-                violations++;
-                evidences.add(Evidence.builder()
-                        .text(candidate)
-                        .startPos(matcher.start())
-                        .endPos(matcher.end())
-                        .matchType("DATE_FORMAT_ERROR")
-                        .context(Map.of("invalidDate", candidate, "expectedFormats", dateFormats))
-                        .build());
+    private boolean matchesAnyDateFormat(String text, int start, int end, FormatCheckConfig config) {
+        for (DateTimeFormatter formatter : config.getDateFormatters()) {
+            if (FormatValidators.isValidDate(text, start, end, formatter)) {
+                return true;
             }
         }
+        return false;
+    }
 
-        return violations;
+    private static boolean isPhoneCharacter(char c) {
+        return FormatValidators.isDigit(c) || FormatValidators.isSpace(c) || c == '-' || c == '+' || c == '(' || c == ')';
+    }
+
+    private static boolean isCurrency(char c) {
+        return c == '元' || c == '￥' || c == '$';
+    }
+
+    private static boolean isIllegalCharacter(char c) {
+        return (c <= 0x08) || c == 0x0B || c == 0x0C || (c >= 0x0E && c <= 0x1F) || c == 0x7F;
+    }
+
+    private static Evidence evidence(String text, int start, int end, String matchType) {
+        return Evidence.builder()
+                .text(text.substring(start, end))
+                .startPos(start)
+                .endPos(end)
+                .matchType(matchType)
+                .build();
     }
 
     /**
      * 检查结构格式
      */
     private int checkStructureFormat(DocumentChunk chunk, FormatCheckConfig config, List<Evidence> evidences) {
+        if (config.getRequiredElements().isEmpty() && config.getForbiddenElements().isEmpty()) {
+            return 0;
+        }
         int violations = 0;
+        String lowerText = chunk.getText().toLowerCase();
 
         // 检查必需的结构元素
         List<String> requiredElements = config.getRequiredElements();
-        for (String element : requiredElements) {
-            if (!chunk.getText().toLowerCase().contains(element.toLowerCase())) {
+        for (int i = 0; i < requiredElements.size(); i++) {
+            String element = requiredElements.get(i);
+            if (!lowerText.contains(config.getLowerRequiredElements().get(i))) {
                 violations++;
                 evidences.add(Evidence.builder()
                         .text("")
@@ -287,16 +307,16 @@ public class FormatChecker implements Matcher {
 
         // 检查禁止的结构元素
         List<String> forbiddenElements = config.getForbiddenElements();
-        for (String element : forbiddenElements) {
-            if (chunk.getText().toLowerCase().contains(element.toLowerCase())) {
+        for (int i = 0; i < forbiddenElements.size(); i++) {
+            String element = forbiddenElements.get(i);
+            int index = lowerText.indexOf(config.getLowerForbiddenElements().get(i));
+            if (index >= 0) {
                 violations++;
-                int index = chunk.getText().toLowerCase().indexOf(element.toLowerCase());
                 evidences.add(Evidence.builder()
                         .text(element)
                         .startPos(index)
                         .endPos(index + element.length())
                         .matchType("FORBIDDEN_ELEMENT_FOUND")
-                        .context(Map.of("forbiddenElement", element))
                         .build());
             }
         }
@@ -336,52 +356,6 @@ public class FormatChecker implements Matcher {
         return violations;
     }
 
-    /**
-     * 检查编码格式
-     */
-    private int checkEncodingFormat(DocumentChunk chunk, FormatCheckConfig config, List<Evidence> evidences) {
-        int violations = 0;
-        String text = chunk.getText();
-
-        // 检查非法字符
-        Pattern illegalChars = Pattern.compile("[\\x00-\\x08\\x0B\\x0C\\x0E-\\x1F\\x7F]");
-        java.util.regex.Matcher matcher = illegalChars.matcher(text);
-
-        while (matcher.find()) {
-            violations++;
-            evidences.add(Evidence.builder()
-                    .text("控制字符")
-                    .startPos(matcher.start())
-                    .endPos(matcher.end())
-                    .matchType("ILLEGAL_CHARACTER")
-                    .context(Map.of("charCode", (int) matcher.group().charAt(0)))
-                    .build());
-        }
-
-        return violations;
-    }
-
-    /**
-     * 检查日期是否匹配指定格式
-     */
-    private boolean matchesDateFormat(String date, String format) {
-        // 简化的日期格式匹配
-        try {
-            switch (format) {
-                case "YYYY-MM-DD":
-                    return Pattern.matches("\\d{4}-\\d{2}-\\d{2}", date);
-                case "YYYY/MM/DD":
-                    return Pattern.matches("\\d{4}/\\d{2}/\\d{2}", date);
-                case "YYYY年MM月DD日":
-                    return Pattern.matches("\\d{4}年\\d{1,2}月\\d{1,2}日", date);
-                default:
-                    return false;
-            }
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
     /**
      * 解析格式检查配置
      */
@@ -396,6 +370,7 @@ public class FormatChecker implements Matcher {
         config.setForbiddenElements((List<String>) parameters.getOrDefault("forbiddenElements", List.of()));
         config.setMinLength((Integer) parameters.getOrDefault("minLength", 0));
         config.setMaxLength((Integer) parameters.getOrDefault("maxLength", 0));
+        config.compile();
 
         return config;
     }
@@ -425,19 +400,6 @@ public class FormatChecker implements Matcher {
         return Math.max(0.0, 1.0 - violations * penaltyPerViolation);
     }
 
-    /**
-     * 创建格式检查元数据
-     */
-    private Map<String, Object> createFormatMetadata(DocumentChunk chunk, FormatCheckConfig config, int violations) {
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("checkTypes", config.getCheckTypes());
-        metadata.put("violationCount", violations);
-        metadata.put("maxViolations", config.getMaxViolations());
-        metadata.put("textLength", chunk.getText().length());
-
-        return metadata;
-    }
-
     /**
      * 格式检查配置类
      */
@@ -451,6 +413,60 @@ public class FormatChecker implements Matcher {
         private int minLength = 0;
         private int maxLength = 0;
 
+        // 由上面的配置预先编译，扫描时直接使用
+        private boolean emailCheck;
+        private boolean phoneCheck;
+        private boolean idCardCheck;
+        private boolean moneyCheck;
+        private boolean dateCheck;
+        private boolean structureCheck;
+        private boolean lengthCheck;
+        private boolean encodingCheck;
+        private List<DateTimeFormatter> dateFormatters = new ArrayList<>();
+        private List<String> lowerRequiredElements = new ArrayList<>();
+        private List<String> lowerForbiddenElements = new ArrayList<>();
+
+        /**
+         * 解析检查类型开关、缓存的日期格式化器和小写化的结构元素
+         */
+        void compile() {
+            for (String checkType : checkTypes) {
+                switch (checkType) {
+                    case "EMAIL" -> emailCheck = true;
+                    case "PHONE" -> phoneCheck = true;
+                    case "ID_CARD" -> idCardCheck = true;
+                    case "MONEY" -> moneyCheck = true;
+                    case "DATE" -> dateCheck = true;
+                    case "STRUCTURE" -> structureCheck = true;
+                    case "LENGTH" -> lengthCheck = true;
+                    case "ENCODING" -> encodingCheck = true;
+                    default -> log.warn("不支持的格式检查类型: {}", checkType);
+                }
+            }
+            for (String format : dateFormats) {
+                DateTimeFormatter formatter = FormatValidators.dateFormatter(format);
+                if (formatter != null) {
+                    dateFormatters.add(formatter);
+                } else if (dateCheck) {
+                    log.warn("不支持的日期格式: {}", format);
+                }
+            }
+            for (String element : requiredElements) {
+                lowerRequiredElements.add(element.toLowerCase());
+            }
+            for (String element : forbiddenElements) {
+                lowerForbiddenElements.add(element.toLowerCase());
+            }
+        }
+
+        boolean needsNumberScan() {
+            return phoneCheck || idCardCheck || moneyCheck || dateCheck;
+        }
+
+        boolean needsScan() {
+            return emailCheck || encodingCheck || needsNumberScan();
+        }
+
         // Getters and Setters
         public List<String> getCheckTypes() { return checkTypes; }
         public void setCheckTypes(List<String> checkTypes) { this.checkTypes = checkTypes; }
@@ -475,5 +491,17 @@ public class FormatChecker implements Matcher {
 
         public int getMaxLength() { return maxLength; }
         public void setMaxLength(int maxLength) { this.maxLength = maxLength; }
+
+        public boolean isEmailCheck() { return emailCheck; }
+        public boolean isPhoneCheck() { return phoneCheck; }
+        public boolean isIdCardCheck() { return idCardCheck; }
+        public boolean isMoneyCheck() { return moneyCheck; }
+        public boolean isDateCheck() { return dateCheck; }
+        public boolean isStructureCheck() { return structureCheck; }
+        public boolean isLengthCheck() { return lengthCheck; }
+        public boolean isEncodingCheck() { return encodingCheck; }
+        public List<DateTimeFormatter> getDateFormatters() { return dateFormatters; }
+        public List<String> getLowerRequiredElements() { return lowerRequiredElements; }
+        public List<String> getLowerForbiddenElements() { return lowerForbiddenElements; }
     }
 }
\ No newline at end of file
@@ -0,0 +1,323 @@
+package com.insurance.audit.audit.matchers;
+
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+import java.util.Map;
+
+/**
+ * 格式校验器
+ * 手写的邮箱、电话、身份证、金额、日期校验，直接在原文区间 [start, end) 上判断，不截取子串也不使用正则，
+ * 供格式检查器在单次扫描中逐个候选调用
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class FormatValidators {
+
+    private static final int[] ID_CARD_WEIGHTS = {7, 9, 10, 5, 8, 4, 2, 1, 6, 3, 7, 9, 10, 5, 8, 4, 2};
+    private static final char[] ID_CARD_CHECK_CODES = {'1', '0', 'X', '9', '8', '7', '6', '5', '4', '3', '2'};
+
+    /**
+     * 支持的日期格式（配置名 -> 严格解析的格式化器），格式化器线程安全，全局共享
+     */
+    private static final Map<String, DateTimeFormatter> DATE_FORMATTERS = Map.of(
+            "YYYY-MM-DD", strict("uuuu-MM-dd"),
+            "YYYY/MM/DD", strict("uuuu/MM/dd"),
+            "YYYY年MM月DD日", strict("uuuu年M月d日")
+    );
+
+    private FormatValidators() {
+    }
+
+    /**
+     * 获取日期格式对应的格式化器，不支持的格式返回null
+     */
+    public static DateTimeFormatter dateFormatter(String format) {
+        return DATE_FORMATTERS.get(format);
+    }
+
+    /**
+     * 邮箱：本地部分 [A-Za-z0-9._%+-]+，域名 [A-Za-z0-9.-]+ 且最后一段为至少两个字母
+     */
+    public static boolean isValidEmail(CharSequence text, int start, int end) {
+        int at = -1;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '@') {
+                if (at >= 0) {
+                    return false;
+                }
+                at = i;
+            } else if (at < 0) {
+                if (!isAsciiLetterOrDigit(c) && c != '.' && c != '_' && c != '%' && c != '+' && c != '-') {
+                    return false;
+                }
+            } else if (!isAsciiLetterOrDigit(c) && c != '.' && c != '-') {
+                return false;
+            }
+        }
+        if (at <= start) {
+            return false;
+        }
+
+        int lastDot = -1;
+        for (int i = end - 1; i > at; i--) {
+            if (text.charAt(i) == '.') {
+                lastDot = i;
+                break;
+            }
+        }
+        if (lastDot <= at + 1 || end - lastDot - 1 < 2) {
+            return false;
+        }
+        for (int i = lastDot + 1; i < end; i++) {
+            if (!isAsciiLetter(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 电话：忽略空白和括号后为手机号（可带86国家码，需以+开头），或3-4位区号加连字符加7-8位号码的固话
+     */
+    public static boolean isValidPhone(CharSequence text, int start, int end) {
+        int digits = 0;
+        int hyphens = 0;
+        int firstHyphenDigits = -1;
+        boolean plus = start > 0 && text.charAt(start - 1) == '+';
+        char first = 0;
+        char second = 0;
+        char third = 0;
+        char fourth = 0;
+
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (isDigit(c)) {
+                switch (digits) {
+                    case 0 -> first = c;
+                    case 1 -> second = c;
+                    case 2 -> third = c;
+                    case 3 -> fourth = c;
+                    default -> { }
+                }
+                digits++;
+            } else if (c == '-') {
+                if (hyphens++ == 0) {
+                    firstHyphenDigits = digits;
+                }
+            } else if (!isSpace(c) && c != '(' && c != ')') {
+                return false;
+            }
+        }
+
+        if (digits == 11 && first == '1' && second >= '3' && second <= '9') {
+            return true;
+        }
+        if (digits == 13 && plus && first == '8' && second == '6' && third == '1' && fourth >= '3' && fourth <= '9') {
+            return true;
+        }
+        if (hyphens == 1 && (firstHyphenDigits == 3 || firstHyphenDigits == 4)) {
+            int localDigits = digits - firstHyphenDigits;
+            return localDigits == 7 || localDigits == 8;
+        }
+        return false;
+    }
+
+    /**
+     * 身份证：18位校验地区码、出生日期和 GB 11643 校验码，15位旧号码校验地区码和出生日期
+     */
+    public static boolean isValidIdCard(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length != 18 && length != 15) {
+            return false;
+        }
+        if (text.charAt(start) < '1' || text.charAt(start) > '9') {
+            return false;
+        }
+
+        int digitCount = length == 18 ? 17 : 15;
+        for (int i = start; i < start + digitCount; i++) {
+            if (!isDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+
+        int birth = start + 6;
+        int year;
+        if (length == 18) {
+            year = digitsValue(text, birth, 4);
+            if (year < 1800 || year > 2099) {
+                return false;
+            }
+            birth += 4;
+        } else {
+            year = 1900 + digitsValue(text, birth, 2);
+            birth += 2;
+        }
+        if (!isValidDate(year, digitsValue(text, birth, 2), digitsValue(text, birth + 2, 2))) {
+            return false;
+        }
+        if (length == 15) {
+            return true;
+        }
+
+        int sum = 0;
+        for (int i = 0; i < 17; i++) {
+            sum += (text.charAt(start + i) - '0') * ID_CARD_WEIGHTS[i];
+        }
+        char check = Character.toUpperCase(text.charAt(start + 17));
+        return check == ID_CARD_CHECK_CODES[sum % 11];
+    }
+
+    /**
+     * 金额：可带正负号，整数部分1-3位后接千分位分组，可带两位小数
+     */
+    public static boolean isValidMoney(CharSequence text, int start, int end) {
+        int i = start;
+        if (i < end && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+            i++;
+        }
+
+        int leading = 0;
+        while (i < end && isDigit(text.charAt(i))) {
+            leading++;
+            i++;
+        }
+        if (leading < 1 || leading > 3) {
+            return false;
+        }
+
+        while (i < end && text.charAt(i) == ',') {
+            if (i + 3 >= end) {
+                return false;
+            }
+            for (int k = 1; k <= 3; k++) {
+                if (!isDigit(text.charAt(i + k))) {
+                    return false;
+                }
+            }
+            i += 4;
+        }
+
+        if (i == end) {
+            return true;
+        }
+        return end - i == 3 && text.charAt(i) == '.' && isDigit(text.charAt(i + 1)) && isDigit(text.charAt(i + 2));
+    }
+
+    /**
+     * 日期：按格式化器严格解析（含闰年和月份天数），解析须恰好覆盖整个区间
+     */
+    public static boolean isValidDate(CharSequence text, int start, int end, DateTimeFormatter formatter) {
+        ParsePosition position = new ParsePosition(start);
+        try {
+            formatter.parse(text, position);
+        } catch (DateTimeException e) {
+            return false;
+        }
+        return position.getErrorIndex() < 0 && position.getIndex() == end;
+    }
+
+    /**
+     * 日期候选：4位年份、分隔符（-、/、年）、1-2位月份、分隔符（-、/、月）、1-2位日期，可带“日”
+     *
+     * @return 候选结束位置（不含），不是日期候选时返回-1
+     */
+    public static int dateCandidateEnd(CharSequence text, int start) {
+        int length = text.length();
+        int i = start;
+        for (int k = 0; k < 4; k++, i++) {
+            if (i >= length || !isDigit(text.charAt(i))) {
+                return -1;
+            }
+        }
+        if (i >= length || !isDateSeparator(text.charAt(i), '年')) {
+            return -1;
+        }
+        i = skipOneOrTwoDigits(text, i + 1);
+        if (i < 0 || i >= length || !isDateSeparator(text.charAt(i), '月')) {
+            return -1;
+        }
+        i = skipOneOrTwoDigits(text, i + 1);
+        if (i < 0) {
+            return -1;
+        }
+        if (i < length && text.charAt(i) == '日') {
+            return i + 1;
+        }
+        return i < length && isAsciiWordChar(text.charAt(i)) ? -1 : i;
+    }
+
+    /**
+     * 公历日期是否有效
+     */
+    public static boolean isValidDate(int year, int month, int day) {
+        if (month < 1 || month > 12 || day < 1) {
+            return false;
+        }
+        int maxDay = switch (month) {
+            case 2 -> (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+        return day <= maxDay;
+    }
+
+    public static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * 正则 \s 对应的空白字符
+     */
+    public static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
+    }
+
+    /**
+     * 正则 \w 对应的单词字符，用于判断 \b 边界
+     */
+    public static boolean isAsciiWordChar(char c) {
+        return isAsciiLetterOrDigit(c) || c == '_';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isAsciiLetter(c) || isDigit(c);
+    }
+
+    private static boolean isDateSeparator(char c, char chineseSeparator) {
+        return c == '-' || c == '/' || c == chineseSeparator;
+    }
+
+    private static int skipOneOrTwoDigits(CharSequence text, int i) {
+        int length = text.length();
+        if (i >= length || !isDigit(text.charAt(i))) {
+            return -1;
+        }
+        i++;
+        if (i < length && isDigit(text.charAt(i))) {
+            i++;
+        }
+        return i < length && isDigit(text.charAt(i)) ? -1 : i;
+    }
+
+    private static int digitsValue(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static DateTimeFormatter strict(String pattern) {
+        return DateTimeFormatter.ofPattern(pattern).withResolverStyle(ResolverStyle.STRICT);
+    }
+}
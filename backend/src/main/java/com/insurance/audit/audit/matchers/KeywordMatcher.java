@@ -1,17 +1,21 @@
 package com.insurance.audit.audit.matchers;
 
 import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.service.JobExecutionContext;
 import com.insurance.audit.audit.service.RuleProvider.Rule;
+import com.insurance.audit.audit.tracing.AuditTracer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 /**
  * 关键词匹配器
- * 实现基于关键词和正则表达式的文本匹配功能
+ * 实现基于关键词和正则表达式的文本匹配功能。
+ * 编译后的正则在各文档、各瓦片之间共享，同一规则重放大量文档时只编译一次
  *
  * @author System
  * @version 1.0.0
@@ -21,9 +25,30 @@ import java.util.regex.PatternSyntaxException;
 @Component
 public class KeywordMatcher implements Matcher {
 
+    /**
+     * 编译缓存的最大正则数，超出时整体清空
+     */
+    private static final int MAX_CACHED_PATTERNS = 1024;
+
+    /**
+     * 正则表达式 -> 编译结果
+     */
+    private final Map<String, Pattern> patternCache = new ConcurrentHashMap<>();
+
     @Override
     public List<MatchResult> match(Rule rule, List<DocumentChunk> chunks) {
-        log.info("开始关键词匹配: ruleId={}, chunkCount={}", rule.getId(), chunks.size());
+        return AuditTracer.inSpan("matcher.keyword", span -> {
+            span.setAttribute("rule.id", rule.getId())
+                    .setAttribute("chunk.count", chunks.size());
+            return doMatch(rule, chunks);
+        });
+    }
+
+    /**
+     * 关键词匹配实现
+     */
+    private List<MatchResult> doMatch(Rule rule, List<DocumentChunk> chunks) {
+        log.debug("开始关键词匹配: ruleId={}, chunkCount={}", rule.getId(), chunks.size());
 
         List<MatchResult> results = new ArrayList<>();
         Map<String, Object> parameters = rule.getParameters();
@@ -32,13 +57,14 @@ public class KeywordMatcher implements Matcher {
         MatchConfig config = parseMatchConfig(parameters);
 
         for (DocumentChunk chunk : chunks) {
+            JobExecutionContext.checkpoint();
             MatchResult result = matchChunk(rule, chunk, config);
             if (result != null) {
                 results.add(result);
             }
         }
 
-        log.info("关键词匹配完成: ruleId={}, matchCount={}", rule.getId(), results.size());
+        log.debug("关键词匹配完成: ruleId={}, matchCount={}", rule.getId(), results.size());
         return results;
     }
 
@@ -78,12 +104,11 @@ public class KeywordMatcher implements Matcher {
             return MatchResult.builder()
                     .ruleId(rule.getId())
                     .chunkId(chunk.getId())
-                    .text(chunk.getText())
+                    .chunk(chunk)
                     .score(score)
                     .threshold(rule.getThreshold())
                     .status(status)
                     .evidences(evidences)
-                    .metadata(createMetadata(chunk, config, evidences))
                     .build();
         }
 
@@ -108,7 +133,6 @@ public class KeywordMatcher implements Matcher {
                         .startPos(index)
                         .endPos(index + keyword.length())
                         .matchType("KEYWORD")
-                        .context(Map.of("keyword", keyword))
                         .build());
                 index += keyword.length();
             }
@@ -126,7 +150,7 @@ public class KeywordMatcher implements Matcher {
         }
 
         try {
-            Pattern pattern = Pattern.compile(regexPattern, Pattern.CASE_INSENSITIVE);
+            Pattern pattern = compilePattern(regexPattern);
             java.util.regex.Matcher matcher = pattern.matcher(text);
             boolean found = false;
 
@@ -137,7 +161,6 @@ public class KeywordMatcher implements Matcher {
                         .startPos(matcher.start())
                         .endPos(matcher.end())
                         .matchType("REGEX")
-                        .context(Map.of("pattern", regexPattern, "group", matcher.group()))
                         .build());
             }
 
@@ -148,6 +171,21 @@ public class KeywordMatcher implements Matcher {
         }
     }
 
+    /**
+     * 获取编译后的正则，语法错误时抛出 PatternSyntaxException（不缓存）
+     */
+    private Pattern compilePattern(String regexPattern) {
+        Pattern pattern = patternCache.get(regexPattern);
+        if (pattern == null) {
+            pattern = Pattern.compile(regexPattern, Pattern.CASE_INSENSITIVE);
+            if (patternCache.size() >= MAX_CACHED_PATTERNS) {
+                patternCache.clear();
+            }
+            patternCache.put(regexPattern, pattern);
+        }
+        return pattern;
+    }
+
     /**
      * 短语匹配
      */
@@ -177,7 +215,6 @@ public class KeywordMatcher implements Matcher {
                             .startPos(index)
                             .endPos(index + phrase.length())
                             .matchType("PHRASE")
-                            .context(Map.of("phrase", phrase))
                             .build());
                 }
                 index += phrase.length();
@@ -203,7 +240,6 @@ public class KeywordMatcher implements Matcher {
                         .startPos(index)
                         .endPos(index + keyword.length())
                         .matchType("EXCLUSION")
-                        .context(Map.of("excludedKeyword", keyword))
                         .build());
                 return true; // 找到排除词，匹配失败
             }
@@ -385,23 +421,6 @@ public class KeywordMatcher implements Matcher {
         }
     }
 
-    /**
-     * 创建元数据
-     */
-    private Map<String, Object> createMetadata(DocumentChunk chunk, MatchConfig config, List<Evidence> evidences) {
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("chunkType", chunk.getType());
-        metadata.put("matchType", config.getMatchType());
-        metadata.put("evidenceCount", evidences.size());
-        metadata.put("textLength", chunk.getText().length());
-
-        if (chunk.getMetadata() != null) {
-            metadata.put("chunkMetadata", chunk.getMetadata());
-        }
-
-        return metadata;
-    }
-
     /**
      * 匹配配置类
      */
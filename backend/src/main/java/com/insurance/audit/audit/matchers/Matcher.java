@@ -28,6 +28,7 @@ public interface Matcher {
 
     /**
      * 匹配结果
+     * 通过 chunk 引用命中的文档块，文本和定位信息都从文档块读取，不再逐条复制到元数据中
      */
     @Data
     @Builder
@@ -35,22 +36,34 @@ public interface Matcher {
         private String ruleId;
         private String chunkId;
         private String text;
+        private DocumentChunk chunk;
         private Double score;
         private Double threshold;
         private String status; // PASSED, FAILED, WARNING
         private List<Evidence> evidences;
         private Map<String, Object> metadata;
+
+        /**
+         * 命中文本，未单独设置时取文档块文本
+         */
+        public String getText() {
+            if (text == null && chunk != null) {
+                return chunk.getText();
+            }
+            return text;
+        }
     }
 
     /**
      * 证据
+     * 匹配类型使用字符串常量（常量池中只有一份），上下文仅在证据文本之外还有额外信息时才填写
      */
     @Data
     @Builder
     class Evidence {
         private String text;
-        private Integer startPos;
-        private Integer endPos;
+        private int startPos;
+        private int endPos;
         private String matchType;
         private Map<String, Object> context;
     }
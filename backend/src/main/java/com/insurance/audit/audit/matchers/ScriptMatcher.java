@@ -0,0 +1,346 @@
+package com.insurance.audit.audit.matchers;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.audit.audit.script.RuleScript;
+import com.insurance.audit.audit.script.RuleScriptCompiler;
+import com.insurance.audit.audit.script.ScriptBudget;
+import com.insurance.audit.audit.script.ScriptContext;
+import com.insurance.audit.audit.script.ScriptException;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.service.JobExecutionContext;
+import com.insurance.audit.audit.service.RuleProvider.Rule;
+import com.insurance.audit.audit.tracing.AuditTracer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 脚本匹配器
+ * 执行高级规则的执行脚本（参数 executionScript，语法见 {@link RuleScriptCompiler}），脚本为真即命中。
+ * 脚本按规则缓存编译结果，脚本内容变化（规则发布新版本）时重新编译，编译失败的结果同样缓存；
+ * 每次调用（一个瓦片）在独立的步数、CPU时间和内存预算内执行，超出预算或运行出错时返回 ERROR 结果。
+ * 高级规则配置（参数 advancedRuleConfig，JSON 或对象）支持：
+ * <ul>
+ *   <li>scope：CHUNK 逐块求值（默认），DOCUMENT 对全部文档块文本求值一次</li>
+ *   <li>status：命中时的结果状态，默认 FAILED</li>
+ *   <li>maxSteps / cpuTimeMs / maxAllocatedChars：收紧单条规则的预算，不能超过全局上限</li>
+ * </ul>
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class ScriptMatcher implements Matcher {
+
+    public static final String SCRIPT_PARAMETER = "executionScript";
+    public static final String CONFIG_PARAMETER = "advancedRuleConfig";
+    public static final String WEIGHT_PARAMETER = "ruleWeight";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final int EVIDENCE_TEXT_LENGTH = 100;
+
+    @Value("${audit.script.max-steps:2000000}")
+    private long maxSteps = 2_000_000;
+
+    @Value("${audit.script.cpu-time-ms:200}")
+    private long cpuTimeMillis = 200;
+
+    @Value("${audit.script.max-allocated-chars:1000000}")
+    private long maxAllocatedChars = 1_000_000;
+
+    /**
+     * 规则ID -> 编译结果
+     */
+    private final ConcurrentHashMap<String, CompiledRule> compiledRules = new ConcurrentHashMap<>();
+
+    private final AtomicLong compilations = new AtomicLong();
+    private final AtomicLong evaluations = new AtomicLong();
+    private final AtomicLong budgetExceeded = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * 规则是否带执行脚本
+     */
+    public static boolean isScriptRule(Rule rule) {
+        Object script = rule.getParameters() != null ? rule.getParameters().get(SCRIPT_PARAMETER) : null;
+        return script instanceof String text && !text.isBlank();
+    }
+
+    @Override
+    public List<MatchResult> match(Rule rule, List<DocumentChunk> chunks) {
+        return match(rule, chunks, new ScriptInput(chunks, Map.of(), Map.of()));
+    }
+
+    /**
+     * 执行脚本
+     *
+     * @param rule   规则
+     * @param chunks 本次要检查的文档块（一个瓦片）
+     * @param input  规则的全部候选文档块、产品字段和先执行的规则的结果
+     */
+    public List<MatchResult> match(Rule rule, List<DocumentChunk> chunks, ScriptInput input) {
+        return AuditTracer.inSpan("matcher.script", span -> {
+            span.setAttribute("rule.id", rule.getId())
+                    .setAttribute("chunk.count", chunks.size());
+            return doMatch(rule, chunks, input);
+        });
+    }
+
+    /**
+     * 获取脚本执行统计
+     */
+    public ScriptStats getStats() {
+        return ScriptStats.builder()
+                .cachedScripts(compiledRules.size())
+                .compilations(compilations.get())
+                .evaluations(evaluations.get())
+                .budgetExceeded(budgetExceeded.get())
+                .errors(errors.get())
+                .build();
+    }
+
+    /**
+     * 移除规则的编译缓存
+     */
+    public void evict(String ruleId) {
+        compiledRules.remove(ruleId);
+    }
+
+    private List<MatchResult> doMatch(Rule rule, List<DocumentChunk> chunks, ScriptInput input) {
+        if (chunks.isEmpty()) {
+            return List.of();
+        }
+        CompiledRule compiled = compile(rule);
+        if (compiled.error != null) {
+            return List.of(errorResult(rule, chunks.get(0), compiled.error));
+        }
+
+        ScriptConfig config = compiled.config;
+        ScriptContext context = new ScriptContext(input.chunks(), input.fields(), rule.getParameters(),
+                input.priorResults(), new ScriptBudget(Math.min(config.maxSteps, maxSteps),
+                Math.min(config.cpuTimeMillis, cpuTimeMillis), Math.min(config.maxAllocatedChars, maxAllocatedChars)));
+        List<MatchResult> results = new ArrayList<>();
+        try {
+            if (config.documentScope) {
+                // 全文模式只在规则的第一个瓦片上求值一次
+                if (input.chunks().isEmpty() || chunks.get(0) == input.chunks().get(0)) {
+                    evaluations.incrementAndGet();
+                    context.moveToDocument();
+                    if (compiled.script.test(context)) {
+                        results.add(hitResult(rule, null, config, compiled.weight));
+                    }
+                }
+                return results;
+            }
+            for (int i = 0; i < chunks.size(); i++) {
+                JobExecutionContext.checkpoint();
+                DocumentChunk chunk = chunks.get(i);
+                context.moveTo(chunk, chunk.getParagraphIndex() != null ? chunk.getParagraphIndex() : i);
+                evaluations.incrementAndGet();
+                if (compiled.script.test(context)) {
+                    results.add(hitResult(rule, chunk, config, compiled.weight));
+                }
+            }
+            return results;
+        } catch (ScriptException e) {
+            if (e.getKind() == ScriptException.Kind.BUDGET_EXCEEDED) {
+                budgetExceeded.incrementAndGet();
+            }
+            errors.incrementAndGet();
+            log.warn("规则脚本执行失败: ruleId={}, steps={}, error={}",
+                    rule.getId(), context.getBudget().getSteps(), e.getMessage());
+            results.add(errorResult(rule, context.getChunk() != null ? context.getChunk() : chunks.get(0),
+                    e.getMessage()));
+            return results;
+        }
+    }
+
+    /**
+     * 取规则的编译结果，脚本或配置变化时重新编译
+     */
+    private CompiledRule compile(Rule rule) {
+        Map<String, Object> parameters = rule.getParameters() != null ? rule.getParameters() : Map.of();
+        String source = parameters.get(SCRIPT_PARAMETER) instanceof String text ? text : null;
+        Object rawConfig = parameters.get(CONFIG_PARAMETER);
+        Object rawWeight = parameters.get(WEIGHT_PARAMETER);
+        String key = rule.getId() != null ? rule.getId() : "";
+
+        CompiledRule cached = compiledRules.get(key);
+        if (cached != null && cached.matches(source, rawConfig, rawWeight)) {
+            return cached;
+        }
+        return compiledRules.compute(key, (id, existing) -> {
+            if (existing != null && existing.matches(source, rawConfig, rawWeight)) {
+                return existing;
+            }
+            compilations.incrementAndGet();
+            return CompiledRule.compile(source, rawConfig, rawWeight);
+        });
+    }
+
+    private MatchResult hitResult(Rule rule, DocumentChunk chunk, ScriptConfig config, Integer weight) {
+        String text = chunk != null && chunk.getText() != null ? chunk.getText() : "";
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("scope", config.documentScope ? "DOCUMENT" : "CHUNK");
+        if (weight != null) {
+            metadata.put(WEIGHT_PARAMETER, weight);
+        }
+        return MatchResult.builder()
+                .ruleId(rule.getId())
+                .chunkId(chunk != null ? chunk.getId() : null)
+                .chunk(chunk)
+                .text(chunk == null ? rule.getDescription() : null)
+                .score(1.0)
+                .threshold(rule.getThreshold())
+                .status(config.status)
+                .evidences(List.of(Evidence.builder()
+                        .text(text.length() > EVIDENCE_TEXT_LENGTH ? text.substring(0, EVIDENCE_TEXT_LENGTH) : text)
+                        .startPos(0)
+                        .endPos(text.length())
+                        .matchType("SCRIPT")
+                        .build()))
+                .metadata(metadata)
+                .build();
+    }
+
+    private MatchResult errorResult(Rule rule, DocumentChunk chunk, String errorMessage) {
+        return MatchResult.builder()
+                .ruleId(rule.getId())
+                .chunkId(chunk.getId())
+                .chunk(chunk)
+                .score(0.0)
+                .threshold(rule.getThreshold())
+                .status("ERROR")
+                .evidences(List.of())
+                .metadata(Map.of("error", errorMessage))
+                .build();
+    }
+
+    /**
+     * 脚本的输入视图，同一规则的全部瓦片共用
+     *
+     * @param chunks       规则的全部候选文档块，按文档顺序
+     * @param fields       产品字段
+     * @param priorResults 先执行的规则的匹配结果（规则ID -> 结果）
+     */
+    public record ScriptInput(List<DocumentChunk> chunks, Map<String, Object> fields,
+                              Map<String, List<MatchResult>> priorResults) {
+    }
+
+    /**
+     * 规则的编译结果，编译失败时 error 非空
+     */
+    private static final class CompiledRule {
+
+        private final String source;
+        private final Object rawConfig;
+        private final Object rawWeight;
+        private final RuleScript script;
+        private final ScriptConfig config;
+        private final Integer weight;
+        private final String error;
+
+        private CompiledRule(String source, Object rawConfig, Object rawWeight, RuleScript script,
+                             ScriptConfig config, Integer weight, String error) {
+            this.source = source;
+            this.rawConfig = rawConfig;
+            this.rawWeight = rawWeight;
+            this.script = script;
+            this.config = config;
+            this.weight = weight;
+            this.error = error;
+        }
+
+        static CompiledRule compile(String source, Object rawConfig, Object rawWeight) {
+            Integer weight = rawWeight instanceof Number number ? number.intValue() : null;
+            try {
+                ScriptConfig config = ScriptConfig.parse(rawConfig);
+                return new CompiledRule(source, rawConfig, rawWeight, RuleScriptCompiler.compile(source), config,
+                        weight, null);
+            } catch (ScriptException e) {
+                log.warn("规则脚本编译失败: {}", e.getMessage());
+                return new CompiledRule(source, rawConfig, rawWeight, null, null, weight,
+                        "规则脚本编译失败: " + e.getMessage());
+            }
+        }
+
+        boolean matches(String source, Object rawConfig, Object rawWeight) {
+            return Objects.equals(this.source, source) && Objects.equals(this.rawConfig, rawConfig)
+                    && Objects.equals(this.rawWeight, rawWeight);
+        }
+    }
+
+    /**
+     * 高级规则配置
+     */
+    private static final class ScriptConfig {
+
+        private boolean documentScope;
+        private String status = "FAILED";
+        private long maxSteps = Long.MAX_VALUE;
+        private long cpuTimeMillis = Long.MAX_VALUE;
+        private long maxAllocatedChars = Long.MAX_VALUE;
+
+        static ScriptConfig parse(Object raw) {
+            ScriptConfig config = new ScriptConfig();
+            Map<String, Object> values;
+            if (raw instanceof Map<?, ?> map) {
+                values = new HashMap<>();
+                map.forEach((key, value) -> values.put(String.valueOf(key), value));
+            } else if (raw instanceof String json && !json.isBlank()) {
+                try {
+                    values = OBJECT_MAPPER.readValue(json, new TypeReference<Map<String, Object>>() {
+                    });
+                } catch (Exception e) {
+                    throw new ScriptException(ScriptException.Kind.COMPILE, "高级规则配置不是有效的JSON对象");
+                }
+            } else {
+                return config;
+            }
+
+            if (values.get("scope") instanceof String scope) {
+                config.documentScope = "DOCUMENT".equalsIgnoreCase(scope);
+            }
+            if (values.get("status") instanceof String status && !status.isBlank()) {
+                config.status = status.toUpperCase();
+            }
+            if (values.get("maxSteps") instanceof Number number) {
+                config.maxSteps = number.longValue();
+            }
+            if (values.get("cpuTimeMs") instanceof Number number) {
+                config.cpuTimeMillis = number.longValue();
+            }
+            if (values.get("maxAllocatedChars") instanceof Number number) {
+                config.maxAllocatedChars = number.longValue();
+            }
+            return config;
+        }
+    }
+
+    /**
+     * 脚本执行统计
+     */
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class ScriptStats {
+        private Integer cachedScripts;
+        private Long compilations;
+        private Long evaluations;
+        private Long budgetExceeded;
+        private Long errors;
+    }
+}
@@ -1,9 +1,12 @@
 package com.insurance.audit.audit.matchers;
 
 import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.service.JobExecutionContext;
 import com.insurance.audit.audit.service.RuleProvider.Rule;
+import com.insurance.audit.audit.tracing.AuditTracer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -27,6 +30,7 @@ import java.util.*;
 public class SemanticMatcher implements Matcher {
 
     @Autowired
+    @Qualifier("auditRestTemplate")
     private RestTemplate restTemplate;
 
     @Value("${audit.embedding-service.base-url:http://localhost:8080}")
@@ -37,6 +41,17 @@ public class SemanticMatcher implements Matcher {
 
     @Override
     public List<MatchResult> match(Rule rule, List<DocumentChunk> chunks) {
+        return AuditTracer.inSpan("matcher.semantic", span -> {
+            span.setAttribute("rule.id", rule.getId())
+                    .setAttribute("chunk.count", chunks.size());
+            return doMatch(rule, chunks);
+        });
+    }
+
+    /**
+     * 语义匹配实现
+     */
+    private List<MatchResult> doMatch(Rule rule, List<DocumentChunk> chunks) {
         log.info("开始语义匹配: ruleId={}, chunkCount={}", rule.getId(), chunks.size());
 
         List<MatchResult> results = new ArrayList<>();
@@ -49,6 +64,7 @@ public class SemanticMatcher implements Matcher {
         List<List<DocumentChunk>> batches = createBatches(chunks, config.getBatchSize());
 
         for (List<DocumentChunk> batch : batches) {
+            JobExecutionContext.checkpoint();
             List<MatchResult> batchResults = processBatch(rule, batch, config);
             results.addAll(batchResults);
         }
@@ -82,6 +98,8 @@ public class SemanticMatcher implements Matcher {
                 }
             }
 
+        } catch (JobExecutionContext.JobAbortedException e) {
+            throw e;
         } catch (Exception e) {
             log.error("语义匹配批次处理失败: ruleId={}, error={}", rule.getId(), e.getMessage(), e);
 
@@ -143,7 +161,7 @@ public class SemanticMatcher implements Matcher {
             return MatchResult.builder()
                     .ruleId(rule.getId())
                     .chunkId(chunk.getId())
-                    .text(chunk.getText())
+                    .chunk(chunk)
                     .score(maxSimilarity)
                     .threshold(rule.getThreshold())
                     .status(status)
@@ -180,6 +198,8 @@ public class SemanticMatcher implements Matcher {
                 throw new RuntimeException("嵌入服务返回空结果");
             }
 
+        } catch (JobExecutionContext.JobAbortedException e) {
+            throw e;
         } catch (Exception e) {
             log.error("获取嵌入向量失败: textCount={}, error={}", texts.size(), e.getMessage(), e);
             throw new RuntimeException("嵌入向量获取失败: " + e.getMessage(), e);
@@ -278,7 +298,7 @@ public class SemanticMatcher implements Matcher {
                 results.add(MatchResult.builder()
                         .ruleId(rule.getId())
                         .chunkId(chunk.getId())
-                        .text(chunk.getText())
+                        .chunk(chunk)
                         .score(maxSimilarity)
                         .threshold(rule.getThreshold())
                         .status("WARNING") // 降级匹配标记为警告
@@ -1,6 +1,7 @@
 package com.insurance.audit.audit.parsers;
 
 import com.insurance.audit.audit.service.DocumentProvider;
+import com.insurance.audit.audit.tracing.AuditTracer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
@@ -34,6 +35,16 @@ public class ExcelParser {
      * @return 解析后的文档
      */
     public DocumentProvider.ParsedDocument parse(byte[] content, DocumentProvider.DocumentMetadata metadata) {
+        return AuditTracer.inSpan("parser.excel", span -> {
+            span.setAttribute("document.size", content.length);
+            return doParse(content, metadata);
+        });
+    }
+
+    /**
+     * Excel解析实现
+     */
+    private DocumentProvider.ParsedDocument doParse(byte[] content, DocumentProvider.DocumentMetadata metadata) {
         log.info("开始解析Excel文档: documentId={}, size={}", metadata.getId(), content.length);
 
         try (ByteArrayInputStream inputStream = new ByteArrayInputStream(content)) {
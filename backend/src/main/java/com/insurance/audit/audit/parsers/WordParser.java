@@ -1,8 +1,10 @@
 package com.insurance.audit.audit.parsers;
 
 import com.insurance.audit.audit.service.DocumentProvider;
+import com.insurance.audit.audit.tracing.AuditTracer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.xwpf.usermodel.*;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTPPr;
 import org.springframework.stereotype.Component;
 
 import java.io.ByteArrayInputStream;
@@ -33,6 +35,16 @@ public class WordParser {
      * @return 解析后的文档
      */
     public DocumentProvider.ParsedDocument parse(byte[] content, DocumentProvider.DocumentMetadata metadata) {
+        return AuditTracer.inSpan("parser.word", span -> {
+            span.setAttribute("document.size", content.length);
+            return doParse(content, metadata);
+        });
+    }
+
+    /**
+     * Word解析实现
+     */
+    private DocumentProvider.ParsedDocument doParse(byte[] content, DocumentProvider.DocumentMetadata metadata) {
         log.info("开始解析Word文档: documentId={}, size={}", metadata.getId(), content.length);
 
         try (ByteArrayInputStream inputStream = new ByteArrayInputStream(content);
@@ -44,33 +56,32 @@ public class WordParser {
 
             int currentPos = 0;
 
-            // 解析段落
-            List<XWPFParagraph> paragraphs = document.getParagraphs();
-            for (int i = 0; i < paragraphs.size(); i++) {
-                XWPFParagraph paragraph = paragraphs.get(i);
-                String paragraphText = paragraph.getText();
-
-                if (paragraphText != null && !paragraphText.trim().isEmpty()) {
-                    DocumentProvider.DocumentSection section = parseParagraph(paragraph, i, currentPos);
-                    sections.add(section);
-
-                    plainTextBuilder.append(paragraphText).append("\n");
-                    currentPos += paragraphText.length() + 1;
+            int paragraphIndex = 0;
+            int tableIndex = 0;
+
+            // 按正文顺序解析段落和表格，表格留在所属章节内，章节索引才能按标题划分文档块区间
+            for (IBodyElement element : document.getBodyElements()) {
+                if (element instanceof XWPFParagraph paragraph) {
+                    int index = paragraphIndex++;
+                    String paragraphText = paragraph.getText();
+
+                    if (paragraphText != null && !paragraphText.trim().isEmpty()) {
+                        DocumentProvider.DocumentSection section = parseParagraph(paragraph, index, currentPos);
+                        sections.add(section);
+
+                        plainTextBuilder.append(paragraphText).append("\n");
+                        currentPos += paragraphText.length() + 1;
+                    }
+                } else if (element instanceof XWPFTable table) {
+                    DocumentProvider.DocumentSection tableSection = parseTable(table, tableIndex++, currentPos);
+                    sections.add(tableSection);
+
+                    String tableText = tableSection.getText();
+                    plainTextBuilder.append(tableText).append("\n");
+                    currentPos += tableText.length() + 1;
                 }
             }
 
-            // 解析表格
-            List<XWPFTable> tables = document.getTables();
-            for (int i = 0; i < tables.size(); i++) {
-                XWPFTable table = tables.get(i);
-                DocumentProvider.DocumentSection tableSection = parseTable(table, i, currentPos);
-                sections.add(tableSection);
-
-                String tableText = tableSection.getText();
-                plainTextBuilder.append(tableText).append("\n");
-                currentPos += tableText.length() + 1;
-            }
-
             // 提取文档级别的样式信息
             extractDocumentStyles(document, documentStyleInfo);
 
@@ -156,7 +167,7 @@ public class WordParser {
      * 确定段落类型
      */
     private String determineParagraphType(XWPFParagraph paragraph) {
-        String styleName = paragraph.getStyle();
+        String styleName = resolveStyleName(paragraph);
 
         if (styleName != null) {
             String lowerStyle = styleName.toLowerCase();
@@ -168,6 +179,10 @@ public class WordParser {
             }
         }
 
+        if (extractOutlineLevel(paragraph) != null) {
+            return "heading";
+        }
+
         // 检查格式特征
         List<XWPFRun> runs = paragraph.getRuns();
         if (!runs.isEmpty()) {
@@ -184,7 +199,7 @@ public class WordParser {
      * 提取标题级别
      */
     private Integer extractHeadingLevel(XWPFParagraph paragraph) {
-        String styleName = paragraph.getStyle();
+        String styleName = resolveStyleName(paragraph);
 
         if (styleName != null) {
             // 尝试从样式名称中提取级别
@@ -208,9 +223,44 @@ public class WordParser {
             }
         }
 
+        // 未使用标题样式但设置了大纲级别（0 为 1 级）
+        Integer outlineLevel = extractOutlineLevel(paragraph);
+        if (outlineLevel != null) {
+            return outlineLevel + 1;
+        }
+
         return null;
     }
 
+    /**
+     * 段落样式名称
+     * 段落上记录的是样式ID，中文版 Word 的标题样式ID为 "1"、"2" 等，需要查样式表取名称（如 "heading 1"）
+     */
+    private String resolveStyleName(XWPFParagraph paragraph) {
+        String styleId = paragraph.getStyle();
+        if (styleId == null) {
+            return null;
+        }
+        XWPFStyles styles = paragraph.getDocument().getStyles();
+        XWPFStyle style = styles != null ? styles.getStyle(styleId) : null;
+        if (style != null && style.getName() != null) {
+            return style.getName();
+        }
+        return styleId;
+    }
+
+    /**
+     * 段落自身设置的大纲级别，正文级别（9）或未设置时返回 null
+     */
+    private Integer extractOutlineLevel(XWPFParagraph paragraph) {
+        CTPPr pPr = paragraph.getCTP().getPPr();
+        if (pPr == null || pPr.getOutlineLvl() == null) {
+            return null;
+        }
+        int level = pPr.getOutlineLvl().getVal().intValue();
+        return level >= 0 && level < 9 ? level : null;
+    }
+
     /**
      * 提取段落格式信息
      */
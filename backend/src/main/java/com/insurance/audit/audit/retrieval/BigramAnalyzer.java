@@ -0,0 +1,83 @@
+package com.insurance.audit.audit.retrieval;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * 二元词切分器
+ * 以连续的字母、数字、汉字为一段，段内相邻两个字符（按字符转小写）组成一个词项，
+ * 两个 UTF-16 字符直接拼成一个 int 作为词项编码，不分配字符串。
+ * 文本包含某个关键词子串时，必然包含该关键词的全部二元词项，因此可以用倒排表无损地预筛选关键词规则
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class BigramAnalyzer {
+
+    private static final int[] EMPTY = new int[0];
+
+    private BigramAnalyzer() {
+    }
+
+    /**
+     * 依次输出文本的二元词项（含重复）
+     *
+     * @return 输出的词项数，即按词项计的文本长度
+     */
+    public static int forEachTerm(CharSequence text, IntConsumer consumer) {
+        if (text == null) {
+            return 0;
+        }
+        int count = 0;
+        char previous = 0;
+        boolean inRun = false;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                inRun = false;
+                continue;
+            }
+            char lower = Character.toLowerCase(c);
+            if (inRun) {
+                consumer.accept(term(previous, lower));
+                count++;
+            }
+            previous = lower;
+            inRun = true;
+        }
+        return count;
+    }
+
+    /**
+     * 去重后的词项，用于查询和关键词预筛选；不足两个连续字符的文本返回空数组
+     */
+    public static int[] distinctTerms(CharSequence text) {
+        int[] terms = new int[text != null ? Math.max(text.length() - 1, 0) : 0];
+        int[] size = {0};
+        forEachTerm(text, term -> terms[size[0]++] = term);
+        if (size[0] == 0) {
+            return EMPTY;
+        }
+        int[] sorted = Arrays.copyOf(terms, size[0]);
+        Arrays.sort(sorted);
+        int distinct = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[distinct - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    /**
+     * 词项还原为两个字符，用于日志和调试
+     */
+    public static String toString(int term) {
+        return new String(new char[]{(char) (term >>> 16), (char) term});
+    }
+
+    private static int term(char first, char second) {
+        return (first << 16) | second;
+    }
+}
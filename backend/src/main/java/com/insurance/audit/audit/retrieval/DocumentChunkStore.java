@@ -0,0 +1,236 @@
+package com.insurance.audit.audit.retrieval;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 文档块存储
+ * 保存上传时解析、分块的结果，文件为存储目录下的 {文档ID编码}.chunks（GZIP 压缩的 JSON），
+ * 写入时先写临时文件再原子替换。启动时只扫描文件名，读取时按需加载并放入按访问顺序淘汰的内存缓存，
+ * 规则试运行等需要重放大量历史文档的场景不必重新下载和解析文档
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class DocumentChunkStore {
+
+    private static final String FILE_SUFFIX = ".chunks";
+    private static final TypeReference<List<DocumentChunk>> CHUNK_LIST = new TypeReference<>() { };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${audit.retrieval.chunk-dir:data/chunk-store}")
+    private String chunkDir = "data/chunk-store";
+
+    @Value("${audit.retrieval.chunk-cache-documents:512}")
+    private int cacheDocuments = 512;
+
+    /**
+     * 已存储的文档ID
+     */
+    private final Set<String> documentIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 文档ID -> 文档块，按访问顺序淘汰
+     */
+    private final Map<String, List<DocumentChunk>> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<DocumentChunk>> eldest) {
+            return size() > Math.max(cacheDocuments, 0);
+        }
+    };
+
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    public DocumentChunkStore() {
+    }
+
+    public DocumentChunkStore(String chunkDir, int cacheDocuments) {
+        this.chunkDir = chunkDir;
+        this.cacheDocuments = cacheDocuments;
+    }
+
+    @PostConstruct
+    public void start() {
+        Path directory = Paths.get(chunkDir);
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+                for (Path file : files) {
+                    String fileName = file.getFileName().toString();
+                    String documentId = decode(fileName.substring(0, fileName.length() - FILE_SUFFIX.length()));
+                    if (documentId != null) {
+                        documentIds.add(documentId);
+                    }
+                }
+            } catch (IOException e) {
+                log.error("文档块存储目录读取失败: chunkDir={}, error={}", chunkDir, e.getMessage(), e);
+            }
+        }
+        log.info("文档块存储启动: chunkDir={}, documents={}, cacheDocuments={}",
+                chunkDir, documentIds.size(), cacheDocuments);
+    }
+
+    /**
+     * 保存或替换文档的文档块
+     */
+    public void put(String documentId, List<DocumentChunk> chunks) throws IOException {
+        Path target = documentFile(documentId);
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            objectMapper.writeValue(out, chunks);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        documentIds.add(documentId);
+        synchronized (cache) {
+            cache.put(documentId, List.copyOf(chunks));
+        }
+    }
+
+    /**
+     * 获取文档的文档块，未存储或读取失败时返回null
+     */
+    public List<DocumentChunk> get(String documentId) {
+        if (documentId == null || !documentIds.contains(documentId)) {
+            return null;
+        }
+        synchronized (cache) {
+            List<DocumentChunk> cached = cache.get(documentId);
+            if (cached != null) {
+                cacheHits.incrementAndGet();
+                return cached;
+            }
+        }
+        cacheMisses.incrementAndGet();
+
+        List<DocumentChunk> chunks;
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(
+                Files.newInputStream(documentFile(documentId))))) {
+            chunks = List.copyOf(objectMapper.readValue(in, CHUNK_LIST));
+        } catch (IOException e) {
+            // 文件被删除或损坏时视为未存储，文档重新上传时重建
+            log.warn("文档块读取失败: documentId={}, error={}", documentId, e.getMessage());
+            return null;
+        }
+        synchronized (cache) {
+            cache.put(documentId, chunks);
+        }
+        return chunks;
+    }
+
+    /**
+     * 删除文档的文档块
+     *
+     * @return 文档是否已存储
+     */
+    public boolean remove(String documentId) {
+        boolean existed = documentIds.remove(documentId);
+        synchronized (cache) {
+            cache.remove(documentId);
+        }
+        try {
+            Files.deleteIfExists(documentFile(documentId));
+        } catch (IOException e) {
+            log.warn("文档块文件删除失败: documentId={}, error={}", documentId, e.getMessage());
+        }
+        return existed;
+    }
+
+    /**
+     * 文档是否已存储
+     */
+    public boolean contains(String documentId) {
+        return documentIds.contains(documentId);
+    }
+
+    /**
+     * 已存储的全部文档ID
+     */
+    public List<String> getDocumentIds() {
+        return List.copyOf(documentIds);
+    }
+
+    /**
+     * 获取存储统计
+     */
+    public StoreStats getStats() {
+        int cached;
+        synchronized (cache) {
+            cached = cache.size();
+        }
+        return StoreStats.builder()
+                .documents(documentIds.size())
+                .cachedDocuments(cached)
+                .cacheHits(cacheHits.get())
+                .cacheMisses(cacheMisses.get())
+                .build();
+    }
+
+    private Path documentFile(String documentId) {
+        return Paths.get(chunkDir).resolve(encode(documentId) + FILE_SUFFIX);
+    }
+
+    /**
+     * 文档ID编码为文件名，避免ID中的路径分隔符
+     */
+    private static String encode(String documentId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(documentId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String fileName) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(fileName), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 存储统计
+     */
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class StoreStats {
+        private Integer documents;
+        private Integer cachedDocuments;
+        private Long cacheHits;
+        private Long cacheMisses;
+    }
+}
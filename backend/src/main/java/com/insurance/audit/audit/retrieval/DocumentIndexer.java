@@ -0,0 +1,176 @@
+package com.insurance.audit.audit.retrieval;
+
+import com.insurance.audit.audit.parsers.ExcelParser;
+import com.insurance.audit.audit.parsers.WordParser;
+import com.insurance.audit.audit.service.DocumentChunker;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentMetadata;
+import com.insurance.audit.audit.service.DocumentProvider.ParsedDocument;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文档索引器
+ * 文档上传后在后台单线程解析、分块并写入产品检索索引，分块方式与检核时一致，
+ * 检核时可直接使用上传时建立的索引，分块结果同时写入文档块存储供规则试运行重放；索引失败只记录日志，不影响上传
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class DocumentIndexer {
+
+    @Autowired
+    private LexicalIndexStore indexStore;
+
+    @Autowired
+    private WordParser wordParser;
+
+    @Autowired
+    private ExcelParser excelParser;
+
+    @Autowired
+    private DocumentChunker documentChunker;
+
+    @Autowired(required = false)
+    private DocumentChunkStore chunkStore;
+
+    @Value("${audit.retrieval.enabled:true}")
+    private boolean enabled = true;
+
+    private final AtomicLong indexedDocuments = new AtomicLong();
+    private final AtomicLong failedDocuments = new AtomicLong();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "document-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 提交文档索引任务
+     *
+     * @param productId 产品ID
+     * @param documentId 文档ID
+     * @param filePath 文件完整路径
+     * @param fileType 文件类型，如 DOCX、XLSX
+     */
+    public void submit(String productId, String documentId, String filePath, String fileType) {
+        if (!enabled || documentId == null || productId == null || filePath == null) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    index(productId, documentId, Paths.get(filePath), fileType);
+                } catch (Exception e) {
+                    failedDocuments.incrementAndGet();
+                    log.warn("文档索引失败: documentId={}, file={}, error={}", documentId, filePath, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("文档索引任务被拒绝: documentId={}", documentId);
+        }
+    }
+
+    /**
+     * 提交文档删除任务，与索引任务同一线程执行，保证先后顺序
+     */
+    public void remove(String documentId) {
+        if (!enabled || documentId == null) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                indexStore.remove(documentId);
+                if (chunkStore != null) {
+                    chunkStore.remove(documentId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("文档索引删除任务被拒绝: documentId={}", documentId);
+        }
+    }
+
+    /**
+     * 同步解析并索引文档
+     *
+     * @return 索引的文档块数，不支持的文件类型返回0
+     */
+    public int index(String productId, String documentId, Path file, String fileType) throws IOException {
+        String type = fileType != null ? fileType.toUpperCase() : "";
+        ParsedDocument parsed;
+        DocumentMetadata metadata = DocumentMetadata.builder()
+                .id(documentId)
+                .name(file.getFileName().toString())
+                .type(type)
+                .size(Files.size(file))
+                .build();
+        switch (type) {
+            case "DOCX":
+                parsed = wordParser.parse(Files.readAllBytes(file), metadata);
+                break;
+            case "XLSX":
+            case "XLS":
+                parsed = excelParser.parse(Files.readAllBytes(file), metadata);
+                break;
+            default:
+                log.debug("文件类型不支持建立检索索引: documentId={}, type={}", documentId, fileType);
+                return 0;
+        }
+
+        List<DocumentChunk> chunks = documentChunker.chunkDocument(parsed);
+        indexStore.index(productId, documentId, chunks);
+        if (chunkStore != null) {
+            chunkStore.put(documentId, chunks);
+        }
+        indexedDocuments.incrementAndGet();
+        log.debug("文档索引完成: productId={}, documentId={}, chunks={}", productId, documentId, chunks.size());
+        return chunks.size();
+    }
+
+    public long getIndexedDocuments() {
+        return indexedDocuments.get();
+    }
+
+    public long getFailedDocuments() {
+        return failedDocuments.get();
+    }
+}
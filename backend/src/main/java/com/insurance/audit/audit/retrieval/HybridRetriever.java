@@ -0,0 +1,413 @@
+package com.insurance.audit.audit.retrieval;
+
+import com.insurance.audit.audit.matchers.ScriptMatcher;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.service.RuleProvider.Rule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 混合检索器
+ * 在执行匹配器之前按规则缩小候选文档块：
+ * <ul>
+ *   <li>关键词、短语规则（不报告未命中块时）：文档块必须包含某个关键词的全部二元词项，预筛选无损，结果与全量匹配一致</li>
+ *   <li>语义、大模型规则：以查询文本做 BM25 检索，开启向量检索时与向量库结果按倒数排名融合（RRF），取前 K 个文档块</li>
+ * </ul>
+ * 带执行脚本的规则、其他规则类型、无法提取查询词项或没有任何词项命中时不缩小。
+ * 规则指定了匹配章节（参数 matchChapter，双句规则为 matchChapterA / matchChapterB）时，
+ * 先按章节索引把候选范围限定在这些章节的文档块区间内，排序检索只在该范围内取前 K 个；章节都找不到时不限定。
+ * 候选块保持原文档顺序；关闭 audit.retrieval.enabled 时检索和章节限定都不生效。
+ * 文档上传时已建立索引且分块一致时使用产品索引（按产品统计词项频率），否则对本次的文档块临时建索引
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class HybridRetriever {
+
+    private static final int RRF_K = 60;
+
+    @Autowired(required = false)
+    private LexicalIndexStore indexStore;
+
+    @Autowired(required = false)
+    @Qualifier("auditRestTemplate")
+    private RestTemplate restTemplate;
+
+    @Value("${audit.retrieval.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${audit.retrieval.chapter-scope-enabled:true}")
+    private boolean chapterScopeEnabled = true;
+
+    @Value("${audit.retrieval.candidate-top-k:50}")
+    private int candidateTopK = 50;
+
+    @Value("${audit.retrieval.dense-enabled:false}")
+    private boolean denseEnabled = false;
+
+    @Value("${audit.vector-db.base-url:http://localhost:8080}")
+    private String vectorDbBaseUrl = "http://localhost:8080";
+
+    private final AtomicLong narrowedRules = new AtomicLong();
+    private final AtomicLong chapterScopedRules = new AtomicLong();
+    private final AtomicLong candidateChunks = new AtomicLong();
+    private final AtomicLong skippedChunks = new AtomicLong();
+    private final AtomicLong productIndexHits = new AtomicLong();
+    private final AtomicLong transientIndexBuilds = new AtomicLong();
+    private final AtomicLong denseFailures = new AtomicLong();
+
+    public HybridRetriever() {
+    }
+
+    public HybridRetriever(LexicalIndexStore indexStore) {
+        this.indexStore = indexStore;
+    }
+
+    /**
+     * 为一个文档的文档块创建候选选择器，索引在第一次需要时才解析或建立
+     *
+     * @param documentId 文档ID，为空时总是临时建索引
+     * @param chunks 文档块，顺序即匹配顺序
+     */
+    public CandidateSelector prepare(String documentId, List<DocumentChunk> chunks) {
+        return new CandidateSelector(documentId, chunks);
+    }
+
+    /**
+     * 获取检索统计
+     */
+    public RetrievalStats getStats() {
+        return RetrievalStats.builder()
+                .enabled(enabled)
+                .denseEnabled(denseEnabled)
+                .candidateTopK(candidateTopK)
+                .narrowedRules(narrowedRules.get())
+                .chapterScopedRules(chapterScopedRules.get())
+                .candidateChunks(candidateChunks.get())
+                .skippedChunks(skippedChunks.get())
+                .productIndexHits(productIndexHits.get())
+                .transientIndexBuilds(transientIndexBuilds.get())
+                .denseFailures(denseFailures.get())
+                .build();
+    }
+
+    /**
+     * 单个文档的候选选择器，只在一个线程内使用
+     */
+    public final class CandidateSelector {
+
+        private final String documentId;
+        private final List<DocumentChunk> chunks;
+        private LexicalIndex index;
+        private String indexDocumentId;
+        private SectionIndex sectionIndex;
+        private Map<String, Integer> positionsByChunkId;
+
+        private CandidateSelector(String documentId, List<DocumentChunk> chunks) {
+            this.documentId = documentId;
+            this.chunks = chunks;
+        }
+
+        /**
+         * 选择规则需要匹配的文档块
+         *
+         * @return 候选文档块，按原顺序排列；不缩小时返回原列表
+         */
+        public List<DocumentChunk> select(Rule rule) {
+            if (!enabled || chunks.isEmpty() || rule.getType() == null) {
+                return chunks;
+            }
+            BitSet candidates;
+            try {
+                BitSet scope = chapterScopeEnabled ? chapterScope(rule) : null;
+                candidates = candidates(rule, scope);
+                if (scope != null) {
+                    chapterScopedRules.incrementAndGet();
+                    if (candidates == null) {
+                        candidates = scope;
+                    } else {
+                        candidates.and(scope);
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("候选文档块检索失败，使用全部文档块: ruleId={}, error={}", rule.getId(), e.getMessage());
+                return chunks;
+            }
+            if (candidates == null) {
+                return chunks;
+            }
+
+            List<DocumentChunk> selected = new ArrayList<>(candidates.cardinality());
+            for (int i = candidates.nextSetBit(0); i >= 0 && i < chunks.size(); i = candidates.nextSetBit(i + 1)) {
+                selected.add(chunks.get(i));
+            }
+            narrowedRules.incrementAndGet();
+            candidateChunks.addAndGet(selected.size());
+            skippedChunks.addAndGet(chunks.size() - selected.size());
+            return selected;
+        }
+
+        /**
+         * 规则匹配章节对应的文档块范围，未指定章节时返回 null
+         */
+        private BitSet chapterScope(Rule rule) {
+            Map<String, Object> parameters = rule.getParameters();
+            if (parameters == null) {
+                return null;
+            }
+            List<String> chapterNames = new ArrayList<>();
+            chapterNames.addAll(texts(parameters.get("matchChapter")));
+            chapterNames.addAll(texts(parameters.get("matchChapterA")));
+            chapterNames.addAll(texts(parameters.get("matchChapterB")));
+            if (chapterNames.isEmpty()) {
+                return null;
+            }
+            if (sectionIndex == null) {
+                sectionIndex = SectionIndex.of(chunks);
+            }
+            return sectionIndex.chunksOf(chapterNames);
+        }
+
+        private BitSet candidates(Rule rule, BitSet scope) {
+            Map<String, Object> parameters = rule.getParameters() != null ? rule.getParameters() : Map.of();
+            if (ScriptMatcher.isScriptRule(rule)) {
+                // 脚本可能检查任意文本，不能按词项缩小
+                return null;
+            }
+            switch (rule.getType()) {
+                case "KEYWORD":
+                case "SINGLE":
+                case "DOUBLE":
+                    return keywordCandidates(parameters);
+                case "SEMANTIC":
+                    return rankedCandidates(texts(parameters.get("queryTexts")), parameters, scope);
+                case "LLM":
+                case "ADVANCED":
+                    List<String> queries = texts(parameters.get("retrievalQuery"));
+                    if (queries.isEmpty()) {
+                        queries = texts(joinNonNull(rule.getName(), rule.getDescription()));
+                    }
+                    return rankedCandidates(queries, parameters, scope);
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * 关键词、短语规则的无损预筛选：任一关键词的全部二元词项都出现的文档块
+         */
+        private BitSet keywordCandidates(Map<String, Object> parameters) {
+            if (Boolean.TRUE.equals(parameters.get("reportNonMatches"))) {
+                return null;
+            }
+            Object matchType = parameters.getOrDefault("matchType", "KEYWORD");
+            List<String> patterns;
+            if ("KEYWORD".equals(matchType)) {
+                patterns = texts(parameters.get("keywords"));
+            } else if ("PHRASE".equals(matchType)) {
+                patterns = texts(parameters.get("phrases"));
+            } else {
+                return null;
+            }
+
+            BitSet candidates = new BitSet(chunks.size());
+            for (String pattern : patterns) {
+                int[] terms = BigramAnalyzer.distinctTerms(pattern);
+                if (terms.length == 0) {
+                    // 单字关键词无法用二元词项筛选
+                    return null;
+                }
+                candidates.or(index().containingAll(terms, indexDocumentId));
+            }
+            return candidates;
+        }
+
+        /**
+         * 语义、大模型规则的前 K 个候选块，限定了章节范围时只在范围内排序
+         */
+        private BitSet rankedCandidates(List<String> queries, Map<String, Object> parameters, BitSet scope) {
+            Object topKParam = parameters.get("candidateTopK");
+            int topK = topKParam instanceof Number number ? number.intValue() : candidateTopK;
+            int scopeSize = scope != null ? scope.cardinality() : chunks.size();
+            if (topK <= 0 || scopeSize <= topK || queries.isEmpty()) {
+                return null;
+            }
+            // 限定范围时先取全部命中再按范围过滤，避免范围外的高分块占满前 K 个
+            int limit = scope != null ? chunks.size() : topK;
+
+            Map<Integer, Double> fused = new HashMap<>();
+            for (String query : queries) {
+                List<LexicalIndex.ScoredChunk> lexicalHits =
+                        index().search(BigramAnalyzer.distinctTerms(query), indexDocumentId, limit);
+                int rank = 0;
+                for (LexicalIndex.ScoredChunk hit : lexicalHits) {
+                    if (scope == null || scope.get(hit.getPosition())) {
+                        fused.merge(hit.getPosition(), 1.0 / (RRF_K + ++rank), Double::sum);
+                    }
+                }
+                if (denseEnabled) {
+                    rank = 0;
+                    for (Integer position : denseSearch(query, limit)) {
+                        if (scope == null || scope.get(position)) {
+                            fused.merge(position, 1.0 / (RRF_K + ++rank), Double::sum);
+                        }
+                    }
+                }
+            }
+            if (fused.isEmpty()) {
+                return null;
+            }
+
+            List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(fused.entrySet());
+            ranked.sort((a, b) -> !a.getValue().equals(b.getValue())
+                    ? Double.compare(b.getValue(), a.getValue())
+                    : Integer.compare(a.getKey(), b.getKey()));
+            BitSet candidates = new BitSet(chunks.size());
+            for (int i = 0; i < Math.min(topK, ranked.size()); i++) {
+                candidates.set(ranked.get(i).getKey());
+            }
+            return candidates;
+        }
+
+        /**
+         * 向量库检索，返回文档块位置；失败时返回空列表，只使用词项检索结果
+         */
+        private List<Integer> denseSearch(String query, int topK) {
+            if (restTemplate == null) {
+                return List.of();
+            }
+            try {
+                Map<String, Object> request = new HashMap<>();
+                request.put("query", query);
+                request.put("topK", topK);
+                request.put("documentId", documentId);
+
+                HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(MediaType.APPLICATION_JSON);
+                ResponseEntity<VectorSearchResponse> response = restTemplate.postForEntity(
+                        vectorDbBaseUrl + "/api/v1/search", new HttpEntity<>(request, headers),
+                        VectorSearchResponse.class);
+                if (response.getBody() == null || response.getBody().getResults() == null) {
+                    return List.of();
+                }
+
+                List<Integer> positions = new ArrayList<>();
+                for (VectorHit hit : response.getBody().getResults()) {
+                    Integer position = positionOf(hit.getChunkId());
+                    if (position != null) {
+                        positions.add(position);
+                    }
+                }
+                return positions;
+            } catch (Exception e) {
+                denseFailures.incrementAndGet();
+                log.debug("向量检索失败，仅使用词项检索: documentId={}, error={}", documentId, e.getMessage());
+                return List.of();
+            }
+        }
+
+        private LexicalIndex index() {
+            if (index == null) {
+                LexicalIndex stored = indexStore != null && documentId != null
+                        ? indexStore.findByDocument(documentId) : null;
+                if (stored != null && stored.matches(documentId, chunks)) {
+                    index = stored;
+                    indexDocumentId = documentId;
+                    productIndexHits.incrementAndGet();
+                } else {
+                    index = LexicalIndex.of(chunks);
+                    indexDocumentId = null;
+                    transientIndexBuilds.incrementAndGet();
+                }
+            }
+            return index;
+        }
+
+        private Integer positionOf(String chunkId) {
+            if (positionsByChunkId == null) {
+                positionsByChunkId = new HashMap<>();
+                for (int i = chunks.size() - 1; i >= 0; i--) {
+                    positionsByChunkId.put(chunks.get(i).getId(), i);
+                }
+            }
+            return positionsByChunkId.get(chunkId);
+        }
+    }
+
+    private static List<String> texts(Object value) {
+        List<String> texts = new ArrayList<>();
+        if (value instanceof String text) {
+            if (!text.isBlank()) {
+                texts.add(text);
+            }
+        } else if (value instanceof List<?> list) {
+            for (Object item : list) {
+                if (item != null) {
+                    texts.add(item.toString());
+                }
+            }
+        }
+        return texts;
+    }
+
+    private static String joinNonNull(String first, String second) {
+        if (first == null) {
+            return second;
+        }
+        return second != null ? first + " " + second : first;
+    }
+
+    /**
+     * 向量库检索响应
+     */
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    public static class VectorSearchResponse {
+        private List<VectorHit> results;
+    }
+
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    public static class VectorHit {
+        private String chunkId;
+        private Double score;
+    }
+
+    /**
+     * 检索统计
+     */
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class RetrievalStats {
+        private Boolean enabled;
+        private Boolean denseEnabled;
+        private Integer candidateTopK;
+        private Long narrowedRules;
+        private Long chapterScopedRules;
+        private Long candidateChunks;
+        private Long skippedChunks;
+        private Long productIndexHits;
+        private Long transientIndexBuilds;
+        private Long denseFailures;
+    }
+}
@@ -0,0 +1,631 @@
+package com.insurance.audit.audit.retrieval;
+
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * BM25 倒排索引
+ * 以文档块为检索单位、二元词项为索引词，一个产品的全部文档共用一个索引（共享词项文档频率）。
+ * 同一文档的文档块按顺序占用连续的序号区间；倒排表按序号递增存放，每条记录为
+ * varint(序号差值) + varint(词频)，追加文档只在各词项倒排表末尾追加，删除文档先打删除标记，
+ * 删除的文档块超过一半时压缩。
+ * <p>
+ * 持久化格式（大端）：魔数 "BM25"、格式版本；文档表（文档ID、序号区间）；
+ * 文档块表（文档块ID、词项长度）；词项表（词项编码、文档频率、最后序号、倒排表字节）
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class LexicalIndex {
+
+    private static final int MAGIC = 0x424D3235;
+    private static final int FORMAT_VERSION = 1;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 文档ID -> 序号区间，按追加顺序排列
+     */
+    private final Map<String, Range> documents = new LinkedHashMap<>();
+
+    private String[] chunkIds = new String[64];
+    private int[] chunkLengths = new int[64];
+    private int chunkCount;
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    private long totalLength;
+
+    /**
+     * 词项开放寻址表：termKeys[slot] 为词项编码，termPostings[slot] 为空表示空槽
+     */
+    private int[] termKeys = new int[1024];
+    private Postings[] termPostings = new Postings[1024];
+    private int termCount;
+
+    /**
+     * 对一组文档块建立临时索引，文档块位置即输入顺序
+     */
+    public static LexicalIndex of(List<DocumentChunk> chunks) {
+        LexicalIndex index = new LexicalIndex();
+        index.addDocument("", chunks);
+        return index;
+    }
+
+    /**
+     * 追加文档，已存在的同ID文档先删除
+     */
+    public void addDocument(String documentId, List<DocumentChunk> chunks) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(documentId);
+            int from = chunkCount;
+            int[] buffer = new int[64];
+            for (DocumentChunk chunk : chunks) {
+                String text = chunk.getText();
+                if (text != null && buffer.length < text.length()) {
+                    buffer = new int[text.length()];
+                }
+                int[] terms = buffer;
+                int[] size = {0};
+                int length = BigramAnalyzer.forEachTerm(text, term -> terms[size[0]++] = term);
+                appendChunk(chunk.getId(), terms, length);
+            }
+            documents.put(documentId, new Range(from, chunkCount));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除文档
+     *
+     * @return 文档是否存在
+     */
+    public boolean removeDocument(String documentId) {
+        lock.writeLock().lock();
+        try {
+            boolean removed = removeLocked(documentId);
+            if (removed && deletedCount > chunkCount / 2) {
+                compactLocked();
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean containsDocument(String documentId) {
+        lock.readLock().lock();
+        try {
+            return documents.containsKey(documentId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 文档的文档块ID，按索引时的顺序排列；文档不存在时返回空列表
+     */
+    public List<String> getChunkIds(String documentId) {
+        lock.readLock().lock();
+        try {
+            Range range = documents.get(documentId);
+            if (range == null) {
+                return List.of();
+            }
+            return Collections.unmodifiableList(Arrays.asList(Arrays.copyOfRange(chunkIds, range.from, range.to)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getDocumentCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 文档的索引是否与给定文档块一致：文档块ID与词项长度逐一相同
+     */
+    public boolean matches(String documentId, List<DocumentChunk> chunks) {
+        lock.readLock().lock();
+        try {
+            Range range = documents.get(documentId);
+            if (range == null || range.to - range.from != chunks.size()) {
+                return false;
+            }
+            for (int i = 0; i < chunks.size(); i++) {
+                DocumentChunk chunk = chunks.get(i);
+                int ordinal = range.from + i;
+                if (!Objects.equals(chunkIds[ordinal], chunk.getId())
+                        || chunkLengths[ordinal] != BigramAnalyzer.forEachTerm(chunk.getText(), term -> { })) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> getDocumentIds() {
+        lock.readLock().lock();
+        try {
+            return List.copyOf(documents.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getLiveChunkCount() {
+        lock.readLock().lock();
+        try {
+            return chunkCount - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getTermCount() {
+        lock.readLock().lock();
+        try {
+            return termCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 同时包含全部词项的文档块
+     *
+     * @param terms 去重后的词项
+     * @param documentId 限定文档，null 表示整个索引
+     * @return 文档块在文档内的位置集合
+     */
+    public BitSet containingAll(int[] terms, String documentId) {
+        lock.readLock().lock();
+        try {
+            Range range = rangeOf(documentId);
+            BitSet result = new BitSet();
+            if (range == null || terms.length == 0) {
+                return result;
+            }
+            Postings[] postings = new Postings[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                postings[i] = get(terms[i]);
+                if (postings[i] == null) {
+                    return result;
+                }
+            }
+            // 从文档频率最低的词项开始求交集
+            Arrays.sort(postings, (a, c) -> Integer.compare(a.df, c.df));
+            postings[0].collect(range, deleted, result);
+            BitSet other = new BitSet();
+            for (int i = 1; i < postings.length && !result.isEmpty(); i++) {
+                other.clear();
+                postings[i].collect(range, deleted, other);
+                result.and(other);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * BM25 检索，按得分降序返回前 topK 个得分大于0的文档块；逆文档频率按整个索引统计
+     *
+     * @param terms 去重后的查询词项
+     * @param documentId 限定文档，null 表示整个索引
+     */
+    public List<ScoredChunk> search(int[] terms, String documentId, int topK) {
+        lock.readLock().lock();
+        try {
+            Range range = rangeOf(documentId);
+            if (range == null || terms.length == 0 || chunkCount == deletedCount || topK <= 0) {
+                return List.of();
+            }
+            // 文档频率在压缩前包含已删除的文档块，文档块总数和平均长度按同一口径统计
+            float avgLength = Math.max(1f, (float) totalLength / chunkCount);
+            float[] scores = new float[range.to - range.from];
+            for (int term : terms) {
+                Postings postings = get(term);
+                if (postings != null) {
+                    float idf = (float) Math.log(1 + (chunkCount - postings.df + 0.5) / (postings.df + 0.5));
+                    postings.score(range, deleted, idf, chunkLengths, avgLength, scores);
+                }
+            }
+
+            PriorityQueue<ScoredChunk> top = new PriorityQueue<>(Math.min(topK, scores.length) + 1,
+                    (a, c) -> a.getScore() != c.getScore()
+                            ? Float.compare(a.getScore(), c.getScore())
+                            : Integer.compare(c.getPosition(), a.getPosition()));
+            for (int position = 0; position < scores.length; position++) {
+                float score = scores[position];
+                if (score <= 0) {
+                    continue;
+                }
+                if (top.size() < topK) {
+                    top.add(new ScoredChunk(position, chunkIds[range.from + position], score));
+                } else if (score > top.peek().getScore()) {
+                    top.poll();
+                    top.add(new ScoredChunk(position, chunkIds[range.from + position], score));
+                }
+            }
+            List<ScoredChunk> result = new ArrayList<>(top);
+            result.sort((a, c) -> a.getScore() != c.getScore()
+                    ? Float.compare(c.getScore(), a.getScore())
+                    : Integer.compare(a.getPosition(), c.getPosition()));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 写出索引，写出前压缩已删除的文档块
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (deletedCount > 0) {
+                compactLocked();
+            }
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+
+            out.writeInt(documents.size());
+            for (Map.Entry<String, Range> entry : documents.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().from);
+                out.writeInt(entry.getValue().to);
+            }
+
+            out.writeInt(chunkCount);
+            for (int i = 0; i < chunkCount; i++) {
+                out.writeUTF(chunkIds[i] != null ? chunkIds[i] : "");
+                out.writeInt(chunkLengths[i]);
+            }
+
+            out.writeInt(termCount);
+            for (int slot = 0; slot < termKeys.length; slot++) {
+                Postings postings = termPostings[slot];
+                if (postings == null) {
+                    continue;
+                }
+                out.writeInt(termKeys[slot]);
+                out.writeInt(postings.df);
+                out.writeInt(postings.lastOrdinal);
+                out.writeInt(postings.size);
+                out.write(postings.data, 0, postings.size);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 读取 writeTo 写出的索引
+     */
+    public static LexicalIndex readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("不是有效的检索索引文件");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("不支持的检索索引版本: " + version);
+        }
+
+        LexicalIndex index = new LexicalIndex();
+        int documentCount = in.readInt();
+        for (int i = 0; i < documentCount; i++) {
+            String documentId = in.readUTF();
+            index.documents.put(documentId, new Range(in.readInt(), in.readInt()));
+        }
+
+        int chunkCount = in.readInt();
+        index.ensureChunkCapacity(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            index.chunkIds[i] = in.readUTF();
+            index.chunkLengths[i] = in.readInt();
+            index.totalLength += index.chunkLengths[i];
+        }
+        index.chunkCount = chunkCount;
+
+        int termCount = in.readInt();
+        for (int i = 0; i < termCount; i++) {
+            int term = in.readInt();
+            Postings postings = new Postings();
+            postings.df = in.readInt();
+            postings.lastOrdinal = in.readInt();
+            postings.size = in.readInt();
+            postings.data = new byte[Math.max(postings.size, 8)];
+            in.readFully(postings.data, 0, postings.size);
+            index.put(term, postings);
+        }
+        return index;
+    }
+
+    private void appendChunk(String chunkId, int[] terms, int length) {
+        ensureChunkCapacity(chunkCount + 1);
+        int ordinal = chunkCount++;
+        chunkIds[ordinal] = chunkId;
+        chunkLengths[ordinal] = length;
+        totalLength += length;
+
+        Arrays.sort(terms, 0, length);
+        int i = 0;
+        while (i < length) {
+            int term = terms[i];
+            int j = i + 1;
+            while (j < length && terms[j] == term) {
+                j++;
+            }
+            Postings postings = get(term);
+            if (postings == null) {
+                postings = new Postings();
+                put(term, postings);
+            }
+            postings.append(ordinal, j - i);
+            i = j;
+        }
+    }
+
+    private boolean removeLocked(String documentId) {
+        Range range = documents.remove(documentId);
+        if (range == null) {
+            return false;
+        }
+        for (int ordinal = range.from; ordinal < range.to; ordinal++) {
+            if (!deleted.get(ordinal)) {
+                deleted.set(ordinal);
+                deletedCount++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 去掉已删除的文档块并重新编号，倒排表按新序号重写
+     */
+    private void compactLocked() {
+        int[] remap = new int[chunkCount];
+        int next = 0;
+        totalLength = 0;
+        for (int ordinal = 0; ordinal < chunkCount; ordinal++) {
+            if (deleted.get(ordinal)) {
+                remap[ordinal] = -1;
+            } else {
+                remap[ordinal] = next;
+                chunkIds[next] = chunkIds[ordinal];
+                chunkLengths[next] = chunkLengths[ordinal];
+                totalLength += chunkLengths[next];
+                next++;
+            }
+        }
+        Arrays.fill(chunkIds, next, chunkCount, null);
+
+        int[] oldKeys = termKeys;
+        Postings[] oldPostings = termPostings;
+        termKeys = new int[oldKeys.length];
+        termPostings = new Postings[oldPostings.length];
+        termCount = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            Postings postings = oldPostings[slot];
+            if (postings != null) {
+                Postings rewritten = postings.remap(remap);
+                if (rewritten.df > 0) {
+                    put(oldKeys[slot], rewritten);
+                }
+            }
+        }
+
+        for (Map.Entry<String, Range> entry : documents.entrySet()) {
+            Range range = entry.getValue();
+            int from = remap[range.from];
+            entry.setValue(new Range(from, from + (range.to - range.from)));
+        }
+        chunkCount = next;
+        deleted.clear();
+        deletedCount = 0;
+    }
+
+    private Range rangeOf(String documentId) {
+        if (documentId == null) {
+            return new Range(0, chunkCount);
+        }
+        return documents.get(documentId);
+    }
+
+    private void ensureChunkCapacity(int capacity) {
+        if (capacity > chunkIds.length) {
+            int newCapacity = Math.max(capacity, chunkIds.length * 2);
+            chunkIds = Arrays.copyOf(chunkIds, newCapacity);
+            chunkLengths = Arrays.copyOf(chunkLengths, newCapacity);
+        }
+    }
+
+    private Postings get(int term) {
+        int mask = termKeys.length - 1;
+        for (int slot = mix(term) & mask; termPostings[slot] != null; slot = (slot + 1) & mask) {
+            if (termKeys[slot] == term) {
+                return termPostings[slot];
+            }
+        }
+        return null;
+    }
+
+    private void put(int term, Postings postings) {
+        if ((termCount + 1) * 2 > termKeys.length) {
+            int[] oldKeys = termKeys;
+            Postings[] oldPostings = termPostings;
+            termKeys = new int[oldKeys.length * 2];
+            termPostings = new Postings[oldPostings.length * 2];
+            termCount = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldPostings[slot] != null) {
+                    put(oldKeys[slot], oldPostings[slot]);
+                }
+            }
+        }
+        int mask = termKeys.length - 1;
+        int slot = mix(term) & mask;
+        while (termPostings[slot] != null && termKeys[slot] != term) {
+            slot = (slot + 1) & mask;
+        }
+        if (termPostings[slot] == null) {
+            termCount++;
+        }
+        termKeys[slot] = term;
+        termPostings[slot] = postings;
+    }
+
+    private static int mix(int term) {
+        int h = term * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 单个词项的倒排表
+     */
+    private static final class Postings {
+        private byte[] data = new byte[8];
+        private int size;
+        private int df;
+        private int lastOrdinal = -1;
+
+        void append(int ordinal, int tf) {
+            writeVarInt(ordinal - lastOrdinal);
+            writeVarInt(tf);
+            lastOrdinal = ordinal;
+            df++;
+        }
+
+        void collect(Range range, BitSet deleted, BitSet target) {
+            int ordinal = -1;
+            int pos = 0;
+            while (pos < size) {
+                int[] read = readVarInt(pos);
+                ordinal += read[0];
+                pos = skipVarInt(read[1]);
+                if (ordinal >= range.to) {
+                    return;
+                }
+                if (ordinal >= range.from && !deleted.get(ordinal)) {
+                    target.set(ordinal - range.from);
+                }
+            }
+        }
+
+        void score(Range range, BitSet deleted, float idf, int[] lengths, float avgLength, float[] scores) {
+            int ordinal = -1;
+            int pos = 0;
+            while (pos < size) {
+                int[] delta = readVarInt(pos);
+                ordinal += delta[0];
+                int[] tf = readVarInt(delta[1]);
+                pos = tf[1];
+                if (ordinal >= range.to) {
+                    return;
+                }
+                if (ordinal >= range.from && !deleted.get(ordinal)) {
+                    float norm = K1 * (1 - B + B * lengths[ordinal] / avgLength);
+                    scores[ordinal - range.from] += idf * tf[0] * (K1 + 1) / (tf[0] + norm);
+                }
+            }
+        }
+
+        Postings remap(int[] remap) {
+            Postings rewritten = new Postings();
+            int ordinal = -1;
+            int pos = 0;
+            while (pos < size) {
+                int[] delta = readVarInt(pos);
+                ordinal += delta[0];
+                int[] tf = readVarInt(delta[1]);
+                pos = tf[1];
+                if (remap[ordinal] >= 0) {
+                    rewritten.append(remap[ordinal], tf[0]);
+                }
+            }
+            return rewritten;
+        }
+
+        private void writeVarInt(int value) {
+            if (size + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + 5));
+            }
+            while ((value & ~0x7F) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+
+        /**
+         * @return {值, 下一个读取位置}
+         */
+        private int[] readVarInt(int pos) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return new int[]{value, pos};
+        }
+
+        private int skipVarInt(int pos) {
+            while (data[pos++] < 0) {
+                // 跳过词频
+            }
+            return pos;
+        }
+    }
+
+    private static final class Range {
+        private final int from;
+        private final int to;
+
+        private Range(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    /**
+     * 检索命中的文档块
+     */
+    @lombok.Data
+    @lombok.AllArgsConstructor
+    public static class ScoredChunk {
+        /**
+         * 文档块在文档内的位置
+         */
+        private int position;
+        private String chunkId;
+        private float score;
+    }
+}
@@ -0,0 +1,236 @@
+package com.insurance.audit.audit.retrieval;
+
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 产品检索索引存储
+ * 每个产品一个 BM25 索引，文件为索引目录下的 {产品ID}.bm25。启动时加载全部索引并建立文档到产品的映射；
+ * 文档增删只修改内存索引并标记为脏，由后台线程定期写回（先写临时文件再原子替换），停止时再写回一次
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class LexicalIndexStore {
+
+    private static final String FILE_SUFFIX = ".bm25";
+
+    @Value("${audit.retrieval.index-dir:data/retrieval-index}")
+    private String indexDir = "data/retrieval-index";
+
+    @Value("${audit.retrieval.flush-interval-seconds:30}")
+    private long flushIntervalSeconds = 30;
+
+    /**
+     * 产品ID -> 索引
+     */
+    private final ConcurrentHashMap<String, LexicalIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * 文档ID -> 产品ID
+     */
+    private final ConcurrentHashMap<String, String> documentProducts = new ConcurrentHashMap<>();
+
+    /**
+     * 有未写回修改的产品
+     */
+    private final Set<String> dirtyProducts = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService scheduler;
+
+    public LexicalIndexStore() {
+    }
+
+    public LexicalIndexStore(String indexDir) {
+        this.indexDir = indexDir;
+    }
+
+    @PostConstruct
+    public void start() {
+        load();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "retrieval-index-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalSeconds, flushIntervalSeconds, TimeUnit.SECONDS);
+        log.info("检索索引存储启动: indexDir={}, products={}, documents={}",
+                indexDir, indexes.size(), documentProducts.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        flush();
+    }
+
+    /**
+     * 建立或替换文档的索引
+     */
+    public void index(String productId, String documentId, List<DocumentChunk> chunks) {
+        String previousProduct = documentProducts.put(documentId, productId);
+        if (previousProduct != null && !previousProduct.equals(productId)) {
+            removeFromProduct(previousProduct, documentId);
+        }
+        indexes.computeIfAbsent(productId, id -> new LexicalIndex()).addDocument(documentId, chunks);
+        dirtyProducts.add(productId);
+    }
+
+    /**
+     * 删除文档的索引
+     *
+     * @return 文档是否已建索引
+     */
+    public boolean remove(String documentId) {
+        String productId = documentProducts.remove(documentId);
+        return productId != null && removeFromProduct(productId, documentId);
+    }
+
+    /**
+     * 查找包含该文档的产品索引，文档未建索引时返回null
+     */
+    public LexicalIndex findByDocument(String documentId) {
+        String productId = documentProducts.get(documentId);
+        return productId != null ? indexes.get(productId) : null;
+    }
+
+    /**
+     * 获取产品索引，不存在时返回null
+     */
+    public LexicalIndex getProductIndex(String productId) {
+        return indexes.get(productId);
+    }
+
+    /**
+     * 写回全部有修改的产品索引
+     */
+    public void flush() {
+        for (String productId : List.copyOf(dirtyProducts)) {
+            dirtyProducts.remove(productId);
+            LexicalIndex index = indexes.get(productId);
+            try {
+                if (index == null || index.getDocumentCount() == 0) {
+                    Files.deleteIfExists(indexFile(productId));
+                } else {
+                    write(productId, index);
+                }
+            } catch (IOException e) {
+                dirtyProducts.add(productId);
+                log.error("检索索引写回失败: productId={}, error={}", productId, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 获取存储统计
+     */
+    public StoreStats getStats() {
+        long chunks = 0;
+        long terms = 0;
+        for (LexicalIndex index : indexes.values()) {
+            chunks += index.getLiveChunkCount();
+            terms += index.getTermCount();
+        }
+        return StoreStats.builder()
+                .products(indexes.size())
+                .documents(documentProducts.size())
+                .chunks(chunks)
+                .terms(terms)
+                .dirtyProducts(dirtyProducts.size())
+                .build();
+    }
+
+    private boolean removeFromProduct(String productId, String documentId) {
+        LexicalIndex index = indexes.get(productId);
+        if (index == null || !index.removeDocument(documentId)) {
+            return false;
+        }
+        dirtyProducts.add(productId);
+        return true;
+    }
+
+    private void load() {
+        Path directory = Paths.get(indexDir);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                String productId = fileName.substring(0, fileName.length() - FILE_SUFFIX.length());
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                    LexicalIndex index = LexicalIndex.readFrom(in);
+                    indexes.put(productId, index);
+                    for (String documentId : index.getDocumentIds()) {
+                        documentProducts.put(documentId, productId);
+                    }
+                } catch (IOException e) {
+                    // 损坏的索引文件跳过，文档重新上传时重建
+                    log.warn("检索索引加载失败，已跳过: file={}, error={}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.error("检索索引目录读取失败: indexDir={}, error={}", indexDir, e.getMessage(), e);
+        }
+    }
+
+    private void write(String productId, LexicalIndex index) throws IOException {
+        Path target = indexFile(productId);
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            index.writeTo(out);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Path indexFile(String productId) {
+        return Paths.get(indexDir).resolve(productId + FILE_SUFFIX);
+    }
+
+    /**
+     * 存储统计
+     */
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class StoreStats {
+        private Integer products;
+        private Integer documents;
+        private Long chunks;
+        private Long terms;
+        private Integer dirtyProducts;
+    }
+}
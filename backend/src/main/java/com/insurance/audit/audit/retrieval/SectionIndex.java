@@ -0,0 +1,352 @@
+package com.insurance.audit.audit.retrieval;
+
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 章节索引
+ * 按标题文档块建立章节树：每个章节占用从标题块开始、到下一个同级或更高级标题之前的连续文档块区间（含子章节）。
+ * 标题级别优先取解析器给出的标题样式级别，没有时按编号推断（第X编/部分/章为1级，第X节为2级）。
+ * 章节按规范化标题（去掉编号、空白和标点，全角转半角）和规范化编号（如"第3章"）检索，
+ * 供规则按匹配章节只检查对应区间的文档块
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class SectionIndex {
+
+    /**
+     * 文档块元数据中的标题级别
+     */
+    public static final String HEADING_LEVEL_KEY = "headingLevel";
+
+    /**
+     * 表示全文的章节名
+     */
+    private static final Set<String> WHOLE_DOCUMENT_NAMES = Set.of("全文", "全部", "全部章节", "不限", "all");
+
+    private static final String CHINESE_DIGITS = "零一二三四五六七八九";
+
+    private static final Pattern NUMBERED_PREFIX = Pattern.compile(
+            "^(第[0-9零〇一二两三四五六七八九十百]+(?:部分|[编章节条款]))");
+
+    private static final Pattern LIST_PREFIX = Pattern.compile(
+            "^(?:[(（][0-9零〇一二三四五六七八九十]+[)）]|[0-9零〇一二三四五六七八九十]+[、.．)）](?:[0-9]+[.．]?)*"
+                    + "|[0-9]+(?:[.．][0-9]+)+)");
+
+    private static final Pattern NAME_SEPARATOR = Pattern.compile("[,，;；、|]+");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Pattern NON_TEXT = Pattern.compile("[\\p{P}\\p{S}\\s]+");
+
+    /**
+     * 不带标题样式时仍按标题处理的最大长度，避免把以"第X章"开头的正文当作标题
+     */
+    private static final int MAX_PLAIN_HEADING_LENGTH = 40;
+
+    private final int chunkCount;
+    private final List<Chapter> chapters;
+    private final Map<String, List<Chapter>> chaptersByTitle = new HashMap<>();
+    private final Map<String, List<Chapter>> chaptersByNumber = new HashMap<>();
+
+    private SectionIndex(int chunkCount, List<Chapter> chapters) {
+        this.chunkCount = chunkCount;
+        this.chapters = Collections.unmodifiableList(chapters);
+        for (Chapter chapter : chapters) {
+            if (!chapter.normalizedTitle.isEmpty()) {
+                chaptersByTitle.computeIfAbsent(chapter.normalizedTitle, key -> new ArrayList<>()).add(chapter);
+            }
+            if (chapter.number != null) {
+                chaptersByNumber.computeIfAbsent(chapter.number, key -> new ArrayList<>()).add(chapter);
+            }
+        }
+    }
+
+    /**
+     * 对一组文档块建立章节索引，文档块位置即输入顺序
+     */
+    public static SectionIndex of(List<DocumentChunk> chunks) {
+        List<Chapter> chapters = new ArrayList<>();
+        Deque<Chapter> open = new ArrayDeque<>();
+        for (int position = 0; position < chunks.size(); position++) {
+            DocumentChunk chunk = chunks.get(position);
+            Integer level = headingLevel(chunk);
+            if (level == null) {
+                continue;
+            }
+            while (!open.isEmpty() && open.peek().level >= level) {
+                open.pop().to = position;
+            }
+            Chapter chapter = new Chapter(chunk.getText().strip(), level, position, open.peek());
+            if (chapter.parent != null) {
+                chapter.parent.children.add(chapter);
+            }
+            chapters.add(chapter);
+            open.push(chapter);
+        }
+        while (!open.isEmpty()) {
+            open.pop().to = chunks.size();
+        }
+        return new SectionIndex(chunks.size(), chapters);
+    }
+
+    /**
+     * 全部章节，按文档顺序（先序）排列
+     */
+    public List<Chapter> getChapters() {
+        return chapters;
+    }
+
+    /**
+     * 按章节名查找章节
+     * 依次尝试：规范化标题完全相同、编号相同（"第一章"与"第1章"视为相同）、标题包含章节名；
+     * 章节名带编号和标题时（如"第三章 保险责任"）按标题和编号分别尝试
+     *
+     * @return 匹配的章节，未找到时返回空列表
+     */
+    public List<Chapter> resolve(String chapterName) {
+        if (chapterName == null || chapterName.isBlank()) {
+            return List.of();
+        }
+        String normalizedTitle = normalizeTitle(chapterName);
+        String number = numberOf(chapterName);
+
+        List<Chapter> byTitle = normalizedTitle.isEmpty() ? null : chaptersByTitle.get(normalizedTitle);
+        if (byTitle != null) {
+            return byTitle;
+        }
+        if (number != null) {
+            List<Chapter> byNumber = chaptersByNumber.get(number);
+            return byNumber != null ? byNumber : List.of();
+        }
+        if (normalizedTitle.isEmpty()) {
+            return List.of();
+        }
+        List<Chapter> containing = new ArrayList<>();
+        for (Chapter chapter : chapters) {
+            if (chapter.normalizedTitle.contains(normalizedTitle)) {
+                containing.add(chapter);
+            }
+        }
+        return containing;
+    }
+
+    /**
+     * 章节名对应的文档块范围，多个章节名（含以逗号、顿号等分隔的）取并集
+     *
+     * @return 文档块位置集合；章节名为空、表示全文或一个都找不到时返回 null，表示不按章节缩小
+     */
+    public BitSet chunksOf(Collection<String> chapterNames) {
+        BitSet scope = new BitSet(chunkCount);
+        boolean specified = false;
+        for (String names : chapterNames) {
+            if (names == null) {
+                continue;
+            }
+            for (String name : NAME_SEPARATOR.split(names)) {
+                if (name.isBlank()) {
+                    continue;
+                }
+                if (WHOLE_DOCUMENT_NAMES.contains(name.strip().toLowerCase())) {
+                    return null;
+                }
+                specified = true;
+                for (Chapter chapter : resolve(name)) {
+                    scope.set(chapter.from, chapter.to);
+                }
+            }
+        }
+        // 章节名写错或文档没有标题时不能因为缩小范围而漏检
+        return specified && !scope.isEmpty() ? scope : null;
+    }
+
+    /**
+     * 规范化章节标题：全角转半角、去掉编号、空白和标点，英文转小写
+     */
+    public static String normalizeTitle(String title) {
+        if (title == null) {
+            return "";
+        }
+        String text = compact(title);
+        Matcher numbered = NUMBERED_PREFIX.matcher(text);
+        if (numbered.find()) {
+            text = text.substring(numbered.end());
+        } else {
+            Matcher listed = LIST_PREFIX.matcher(text);
+            if (listed.find()) {
+                text = text.substring(listed.end());
+            }
+        }
+        return NON_TEXT.matcher(text).replaceAll("").toLowerCase();
+    }
+
+    /**
+     * 规范化编号，如"第十二章" -> "第12章"；不以"第X章/节/条"等开头时返回 null
+     */
+    static String numberOf(String title) {
+        Matcher numbered = NUMBERED_PREFIX.matcher(compact(title));
+        if (!numbered.find()) {
+            return null;
+        }
+        String label = numbered.group(1);
+        String unit = label.endsWith("部分") ? "部分" : label.substring(label.length() - 1);
+        String digits = label.substring(1, label.length() - unit.length());
+        Integer value = parseNumber(digits);
+        return "第" + (value != null ? value.toString() : digits) + unit;
+    }
+
+    /**
+     * 全角转半角并去掉空白，"第 一 章"与"第一章"视为相同
+     */
+    private static String compact(String text) {
+        return WHITESPACE.matcher(Normalizer.normalize(text, Normalizer.Form.NFKC)).replaceAll("");
+    }
+
+    /**
+     * 文档块的标题级别，不是标题时返回 null
+     */
+    private static Integer headingLevel(DocumentChunk chunk) {
+        String text = chunk.getText();
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        Map<String, Object> metadata = chunk.getMetadata() != null ? chunk.getMetadata() : Map.of();
+        boolean styled = "heading".equals(chunk.getType()) || "heading".equals(metadata.get("sectionType"));
+        if (styled && metadata.get(HEADING_LEVEL_KEY) instanceof Number level && level.intValue() > 0) {
+            return level.intValue();
+        }
+        String number = text.length() <= MAX_PLAIN_HEADING_LENGTH || styled ? numberOf(text) : null;
+        if (number != null) {
+            if (number.endsWith("节")) {
+                return 2;
+            }
+            if (number.endsWith("编") || number.endsWith("部分") || number.endsWith("章")) {
+                return 1;
+            }
+        }
+        return styled ? 1 : null;
+    }
+
+    /**
+     * 解析阿拉伯数字或不超过九百九十九的中文数字
+     */
+    private static Integer parseNumber(String digits) {
+        if (digits.chars().allMatch(Character::isDigit)) {
+            return Integer.valueOf(digits);
+        }
+        int total = 0;
+        int current = 0;
+        for (char c : digits.replace('〇', '零').replace('两', '二').toCharArray()) {
+            int digit = CHINESE_DIGITS.indexOf(c);
+            if (digit >= 0) {
+                current = digit;
+            } else if (c == '十' || c == '百') {
+                int unit = c == '十' ? 10 : 100;
+                total += (current == 0 ? 1 : current) * unit;
+                current = 0;
+            } else {
+                return null;
+            }
+        }
+        return total + current;
+    }
+
+    /**
+     * 章节
+     */
+    public static final class Chapter {
+
+        private final String title;
+        private final String normalizedTitle;
+        private final String number;
+        private final int level;
+        private final int from;
+        private int to;
+        private final Chapter parent;
+        private final List<Chapter> children = new ArrayList<>();
+
+        private Chapter(String title, int level, int from, Chapter parent) {
+            this.title = title;
+            this.normalizedTitle = normalizeTitle(title);
+            this.number = numberOf(title);
+            this.level = level;
+            this.from = from;
+            this.parent = parent;
+        }
+
+        /**
+         * 标题原文
+         */
+        public String getTitle() {
+            return title;
+        }
+
+        public String getNormalizedTitle() {
+            return normalizedTitle;
+        }
+
+        /**
+         * 规范化编号，没有编号时为 null
+         */
+        public String getNumber() {
+            return number;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        /**
+         * 起始文档块位置（标题块）
+         */
+        public int getFrom() {
+            return from;
+        }
+
+        /**
+         * 结束文档块位置（不含）
+         */
+        public int getTo() {
+            return to;
+        }
+
+        public Chapter getParent() {
+            return parent;
+        }
+
+        public List<Chapter> getChildren() {
+            return Collections.unmodifiableList(children);
+        }
+
+        /**
+         * 从根章节到本章节的标题路径
+         */
+        public List<String> getPath() {
+            List<String> path = new ArrayList<>();
+            for (Chapter chapter = this; chapter != null; chapter = chapter.parent) {
+                path.add(0, chapter.title);
+            }
+            return path;
+        }
+
+        @Override
+        public String toString() {
+            return "Chapter{" + String.join(" > ", getPath()) + " [" + from + ", " + to + ")}";
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.insurance.audit.audit.script;
+
+/**
+ * 编译后的规则脚本
+ * 不可变，可在多个线程间共享；每次求值使用调用方提供的上下文和预算
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class RuleScript {
+
+    private final String source;
+    private final RuleScriptCompiler.Node root;
+
+    RuleScript(String source, RuleScriptCompiler.Node root) {
+        this.source = source;
+        this.root = root;
+    }
+
+    /**
+     * 求值
+     *
+     * @throws ScriptException 运行时错误或超出预算
+     */
+    public Object evaluate(ScriptContext context) {
+        try {
+            return root.eval(context);
+        } catch (ScriptException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new ScriptException(ScriptException.Kind.RUNTIME, "规则脚本执行失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 按真值求值：null、false、0、空字符串和空列表为假
+     */
+    public boolean test(ScriptContext context) {
+        return ScriptFunctions.truthy(evaluate(context));
+    }
+
+    /**
+     * 脚本是否为常量（不依赖文档和字段）
+     */
+    public boolean isConstant() {
+        return root instanceof RuleScriptCompiler.Constant;
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,531 @@
+package com.insurance.audit.audit.script;
+
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 规则脚本编译器
+ * 把高级规则的执行脚本（一个表达式）编译为 Java lambda 组成的求值树，求值时不再解析源码。
+ * 脚本没有循环、赋值和对象访问，只能使用下列变量和 {@link ScriptFunctions} 中的内置函数：
+ * <ul>
+ *   <li>text：当前文档块文本（全文模式为全部文本）</li>
+ *   <li>chunk.id / chunk.type / chunk.index / chunk.page / chunk.section：当前文档块属性</li>
+ *   <li>chunks.count：规则要检查的文档块数</li>
+ *   <li>fields.名称 / params.名称：产品字段、规则参数，名称不是标识符时用 field('名称') / param('名称')</li>
+ * </ul>
+ * 运算符：?: || && ! == != &lt; &lt;= &gt; &gt;= + - * / %，也可用 and / or / not；列表写作 [a, b]；// 开始行注释。
+ * 编译时对常量子表达式求值，正则参数为常量时预编译
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class RuleScriptCompiler {
+
+    /**
+     * 脚本最大长度
+     */
+    public static final int MAX_SOURCE_LENGTH = 10_000;
+
+    /**
+     * 表达式最大嵌套深度
+     */
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * 编译期常量折叠的预算
+     */
+    private static final long FOLD_MAX_STEPS = 100_000;
+    private static final long FOLD_MAX_CPU_MILLIS = 100;
+    private static final long FOLD_MAX_ALLOCATED_CHARS = 100_000;
+
+    private static final Set<String> CHUNK_PROPERTIES = Set.of("id", "type", "index", "page", "section");
+
+    private RuleScriptCompiler() {
+    }
+
+    /**
+     * 编译脚本
+     *
+     * @throws ScriptException 类型为 {@link ScriptException.Kind#COMPILE}，带出错位置
+     */
+    public static RuleScript compile(String source) {
+        if (source == null || source.isBlank()) {
+            throw new ScriptException(ScriptException.Kind.COMPILE, "规则脚本为空");
+        }
+        if (source.length() > MAX_SOURCE_LENGTH) {
+            throw new ScriptException(ScriptException.Kind.COMPILE, "规则脚本超过最大长度: " + MAX_SOURCE_LENGTH);
+        }
+        Parser parser = new Parser(tokenize(source));
+        Node root = parser.parseScript();
+        return new RuleScript(source, root);
+    }
+
+    /**
+     * 编译后的求值节点
+     */
+    @FunctionalInterface
+    interface Node {
+        Object eval(ScriptContext context);
+    }
+
+    /**
+     * 常量节点
+     */
+    record Constant(Object value) implements Node {
+        @Override
+        public Object eval(ScriptContext context) {
+            return value;
+        }
+    }
+
+    // ---------------------------------------------------------------- 词法分析
+
+    private enum TokenType {
+        NUMBER, STRING, IDENT, OPERATOR, END
+    }
+
+    private record Token(TokenType type, String text, Object value, int position) {
+        boolean is(String operator) {
+            return (type == TokenType.OPERATOR || type == TokenType.IDENT) && text.equals(operator);
+        }
+    }
+
+    private static final Set<String> TWO_CHAR_OPERATORS = Set.of("&&", "||", "==", "!=", "<=", ">=");
+
+    private static final String SINGLE_CHAR_OPERATORS = "()[],.?:!<>+-*/%";
+
+    private static List<Token> tokenize(String source) {
+        List<Token> tokens = new ArrayList<>();
+        int length = source.length();
+        int i = 0;
+        while (i < length) {
+            char c = source.charAt(i);
+            int start = i;
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '/' && i + 1 < length && source.charAt(i + 1) == '/') {
+                while (i < length && source.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (Character.isDigit(c)) {
+                while (i < length && Character.isDigit(source.charAt(i))) {
+                    i++;
+                }
+                if (i + 1 < length && source.charAt(i) == '.' && Character.isDigit(source.charAt(i + 1))) {
+                    i++;
+                    while (i < length && Character.isDigit(source.charAt(i))) {
+                        i++;
+                    }
+                }
+                String text = source.substring(start, i);
+                tokens.add(new Token(TokenType.NUMBER, text, Double.valueOf(text), start));
+            } else if (c == '\'' || c == '"') {
+                StringBuilder value = new StringBuilder();
+                i++;
+                while (true) {
+                    if (i >= length) {
+                        throw new ScriptException(ScriptException.Kind.COMPILE, "字符串未结束", start);
+                    }
+                    char ch = source.charAt(i++);
+                    if (ch == c) {
+                        break;
+                    }
+                    if (ch == '\\' && i < length) {
+                        char escaped = source.charAt(i++);
+                        value.append(switch (escaped) {
+                            case 'n' -> '\n';
+                            case 't' -> '\t';
+                            default -> escaped;
+                        });
+                    } else {
+                        value.append(ch);
+                    }
+                }
+                tokens.add(new Token(TokenType.STRING, source.substring(start, i), value.toString(), start));
+            } else if (Character.isJavaIdentifierStart(c)) {
+                while (i < length && Character.isJavaIdentifierPart(source.charAt(i))) {
+                    i++;
+                }
+                tokens.add(new Token(TokenType.IDENT, source.substring(start, i), null, start));
+            } else if (i + 1 < length && TWO_CHAR_OPERATORS.contains(source.substring(i, i + 2))) {
+                i += 2;
+                tokens.add(new Token(TokenType.OPERATOR, source.substring(start, i), null, start));
+            } else if (SINGLE_CHAR_OPERATORS.indexOf(c) >= 0) {
+                i++;
+                tokens.add(new Token(TokenType.OPERATOR, String.valueOf(c), null, start));
+            } else {
+                throw new ScriptException(ScriptException.Kind.COMPILE, "无法识别的字符: " + c, start);
+            }
+        }
+        tokens.add(new Token(TokenType.END, "", null, length));
+        return tokens;
+    }
+
+    // ---------------------------------------------------------------- 语法分析与编译
+
+    /**
+     * 递归下降语法分析，边分析边生成求值节点
+     */
+    private static final class Parser {
+
+        private final List<Token> tokens;
+        private int index;
+        private int depth;
+
+        private Parser(List<Token> tokens) {
+            this.tokens = tokens;
+        }
+
+        Node parseScript() {
+            Node node = expression();
+            if (peek().type != TokenType.END) {
+                throw error("表达式后有多余内容: " + peek().text, peek());
+            }
+            return node;
+        }
+
+        private Node expression() {
+            descend();
+            try {
+                Node condition = or();
+                if (!peek().is("?")) {
+                    return condition;
+                }
+                next();
+                Node whenTrue = expression();
+                expect(":");
+                Node whenFalse = expression();
+                if (condition instanceof Constant constant) {
+                    return ScriptFunctions.truthy(constant.value()) ? whenTrue : whenFalse;
+                }
+                return context -> ScriptFunctions.truthy(condition.eval(context))
+                        ? whenTrue.eval(context) : whenFalse.eval(context);
+            } finally {
+                depth--;
+            }
+        }
+
+        private Node or() {
+            Node left = and();
+            while (peek().is("||") || peek().is("or")) {
+                next();
+                Node l = left;
+                Node r = and();
+                left = fold(context -> {
+                    context.getBudget().charge(1);
+                    return ScriptFunctions.truthy(l.eval(context)) || ScriptFunctions.truthy(r.eval(context));
+                }, l, r);
+            }
+            return left;
+        }
+
+        private Node and() {
+            Node left = not();
+            while (peek().is("&&") || peek().is("and")) {
+                next();
+                Node l = left;
+                Node r = not();
+                left = fold(context -> {
+                    context.getBudget().charge(1);
+                    return ScriptFunctions.truthy(l.eval(context)) && ScriptFunctions.truthy(r.eval(context));
+                }, l, r);
+            }
+            return left;
+        }
+
+        private Node not() {
+            if (peek().is("!") || peek().is("not")) {
+                next();
+                descend();
+                Node operand = not();
+                depth--;
+                return fold(context -> !ScriptFunctions.truthy(operand.eval(context)), operand);
+            }
+            return comparison();
+        }
+
+        private Node comparison() {
+            Node left = additive();
+            Token operator = peek();
+            if (operator.type != TokenType.OPERATOR
+                    || !Set.of("==", "!=", "<", "<=", ">", ">=").contains(operator.text)) {
+                return left;
+            }
+            next();
+            Node right = additive();
+            Node node = switch (operator.text) {
+                case "==" -> context -> ScriptFunctions.equal(left.eval(context), right.eval(context));
+                case "!=" -> context -> !ScriptFunctions.equal(left.eval(context), right.eval(context));
+                default -> {
+                    String op = operator.text;
+                    yield context -> {
+                        Integer result = ScriptFunctions.compare(left.eval(context), right.eval(context));
+                        if (result == null) {
+                            return false;
+                        }
+                        return switch (op) {
+                            case "<" -> result < 0;
+                            case "<=" -> result <= 0;
+                            case ">" -> result > 0;
+                            default -> result >= 0;
+                        };
+                    };
+                }
+            };
+            return fold(charged(node), left, right);
+        }
+
+        private Node additive() {
+            Node left = multiplicative();
+            while (peek().is("+") || peek().is("-")) {
+                char operator = next().text.charAt(0);
+                Node l = left;
+                Node r = multiplicative();
+                Node node = operator == '+'
+                        ? context -> ScriptFunctions.add(context, l.eval(context), r.eval(context))
+                        : context -> ScriptFunctions.arithmetic('-', l.eval(context), r.eval(context));
+                left = fold(charged(node), l, r);
+            }
+            return left;
+        }
+
+        private Node multiplicative() {
+            Node left = unary();
+            while (peek().is("*") || peek().is("/") || peek().is("%")) {
+                char operator = next().text.charAt(0);
+                Node l = left;
+                Node r = unary();
+                left = fold(charged(context -> ScriptFunctions.arithmetic(operator, l.eval(context), r.eval(context))),
+                        l, r);
+            }
+            return left;
+        }
+
+        private Node unary() {
+            if (peek().is("-")) {
+                next();
+                descend();
+                Node operand = unary();
+                depth--;
+                return fold(context -> {
+                    Object value = operand.eval(context);
+                    return value == null ? null : -ScriptFunctions.number(value);
+                }, operand);
+            }
+            return primary();
+        }
+
+        private Node primary() {
+            Token token = next();
+            switch (token.type) {
+                case NUMBER:
+                case STRING:
+                    return new Constant(token.value);
+                case IDENT:
+                    return identifier(token);
+                case OPERATOR:
+                    if (token.is("(")) {
+                        Node node = expression();
+                        expect(")");
+                        return node;
+                    }
+                    if (token.is("[")) {
+                        return listLiteral();
+                    }
+                    throw error("此处不能使用: " + token.text, token);
+                default:
+                    throw error("表达式不完整", token);
+            }
+        }
+
+        private Node listLiteral() {
+            List<Node> items = peek().is("]") ? List.of() : arguments();
+            expect("]");
+            Node node = context -> {
+                List<Object> values = new ArrayList<>(items.size());
+                for (Node item : items) {
+                    values.add(item.eval(context));
+                }
+                context.getBudget().allocate(items.size());
+                return Collections.unmodifiableList(values);
+            };
+            return fold(node, items.toArray(new Node[0]));
+        }
+
+        private Node identifier(Token token) {
+            switch (token.text) {
+                case "true":
+                    return new Constant(Boolean.TRUE);
+                case "false":
+                    return new Constant(Boolean.FALSE);
+                case "null":
+                    return new Constant(null);
+                default:
+                    break;
+            }
+            if (peek().is("(")) {
+                next();
+                return call(token);
+            }
+            switch (token.text) {
+                case "text":
+                    return ScriptContext::text;
+                case "chunk":
+                    return chunkProperty(member(token));
+                case "chunks": {
+                    Token property = member(token);
+                    if (!property.text.equals("count")) {
+                        throw error("未知属性: chunks." + property.text, property);
+                    }
+                    return context -> (double) context.getChunks().size();
+                }
+                case "fields": {
+                    String name = member(token).text;
+                    return context -> ScriptFunctions.normalize(context.field(name));
+                }
+                case "params": {
+                    String name = member(token).text;
+                    return context -> ScriptFunctions.normalize(context.parameter(name));
+                }
+                default:
+                    throw error("未知变量: " + token.text, token);
+            }
+        }
+
+        private Node chunkProperty(Token property) {
+            if (!CHUNK_PROPERTIES.contains(property.text)) {
+                throw error("未知属性: chunk." + property.text, property);
+            }
+            return context -> {
+                DocumentChunk chunk = context.getChunk();
+                if (chunk == null) {
+                    return null;
+                }
+                return switch (property.text) {
+                    case "id" -> chunk.getId();
+                    case "type" -> chunk.getType();
+                    case "index" -> (double) context.getPosition();
+                    case "page" -> chunk.getPageNumber() != null ? (double) chunk.getPageNumber() : null;
+                    default -> chunk.getMetadata() != null
+                            ? ScriptFunctions.normalize(chunk.getMetadata().get("sectionId")) : null;
+                };
+            };
+        }
+
+        private Node call(Token name) {
+            ScriptFunctions.Function function = ScriptFunctions.function(name.text);
+            if (function == null) {
+                throw error("未知函数: " + name.text, name);
+            }
+            List<Node> args = peek().is(")") ? List.of() : arguments();
+            expect(")");
+            if (args.size() < function.minArgs() || args.size() > function.maxArgs()) {
+                throw error("函数 " + name.text + " 的参数个数应为 " + (function.minArgs() == function.maxArgs()
+                        ? String.valueOf(function.minArgs())
+                        : function.minArgs() + "~" + function.maxArgs()), name);
+            }
+
+            if ("matches".equals(function.name()) && args.get(1) instanceof Constant regex) {
+                Pattern pattern = ScriptFunctions.compileRegex(ScriptFunctions.text(regex.value()), name.position);
+                Node subject = args.get(0);
+                return fold(context -> {
+                    context.getBudget().charge(1);
+                    return ScriptFunctions.find(context, ScriptFunctions.text(subject.eval(context)), pattern);
+                }, subject);
+            }
+
+            Node[] argNodes = args.toArray(new Node[0]);
+            ScriptFunctions.Impl impl = function.impl();
+            Node node = context -> {
+                context.getBudget().charge(1);
+                Object[] values = new Object[argNodes.length];
+                for (int i = 0; i < argNodes.length; i++) {
+                    values[i] = argNodes[i].eval(context);
+                }
+                return impl.apply(context, values);
+            };
+            return function.pure() ? fold(node, argNodes) : node;
+        }
+
+        private List<Node> arguments() {
+            List<Node> args = new ArrayList<>();
+            args.add(expression());
+            while (peek().is(",")) {
+                next();
+                args.add(expression());
+            }
+            return args;
+        }
+
+        private Token member(Token owner) {
+            if (!peek().is(".")) {
+                throw error(owner.text + " 后应为 .属性名", peek());
+            }
+            next();
+            Token property = next();
+            if (property.type != TokenType.IDENT) {
+                throw error(owner.text + " 后应为 .属性名", property);
+            }
+            return property;
+        }
+
+        private void descend() {
+            if (++depth > MAX_DEPTH) {
+                throw error("表达式嵌套过深", peek());
+            }
+        }
+
+        /**
+         * 操作数都是常量时在编译期求值
+         */
+        private Node fold(Node node, Node... operands) {
+            for (Node operand : operands) {
+                if (!(operand instanceof Constant)) {
+                    return node;
+                }
+            }
+            ScriptBudget budget = new ScriptBudget(FOLD_MAX_STEPS, FOLD_MAX_CPU_MILLIS, FOLD_MAX_ALLOCATED_CHARS);
+            try {
+                return new Constant(node.eval(new ScriptContext(null, null, null, null, budget)));
+            } catch (ScriptException e) {
+                throw error(e.getMessage(), tokens.get(Math.max(0, index - 1)));
+            }
+        }
+
+        private Node charged(Node node) {
+            return context -> {
+                context.getBudget().charge(1);
+                return node.eval(context);
+            };
+        }
+
+        private Token peek() {
+            return tokens.get(index);
+        }
+
+        private Token next() {
+            Token token = tokens.get(index);
+            if (token.type != TokenType.END) {
+                index++;
+            }
+            return token;
+        }
+
+        private void expect(String operator) {
+            Token token = next();
+            if (!token.is(operator)) {
+                throw error("缺少 " + operator, token);
+            }
+        }
+
+        private ScriptException error(String message, Token token) {
+            return new ScriptException(ScriptException.Kind.COMPILE, message, token.position);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.insurance.audit.audit.script;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * 规则脚本执行预算
+ * 一条规则在一次匹配中的全部求值共用一个预算，只在一个线程内使用：
+ * <ul>
+ *   <li>步数：每次运算、函数调用计 1 步，扫描文本的函数按扫描字符数计步，正则匹配按读取字符数计步（可限制回溯）</li>
+ *   <li>CPU时间：每 {@value #CLOCK_CHECK_INTERVAL} 步检查一次当前线程 CPU 时间（不支持时用墙钟时间）</li>
+ *   <li>内存：生成新字符串、列表的函数按字符数/元素数计入分配量</li>
+ * </ul>
+ * 超出任一预算时抛出 {@link ScriptException.Kind#BUDGET_EXCEEDED}
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class ScriptBudget {
+
+    private static final int CLOCK_CHECK_INTERVAL = 4096;
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private static final boolean CPU_TIME_SUPPORTED = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()
+            && THREAD_MX_BEAN.isThreadCpuTimeEnabled();
+
+    private final long maxSteps;
+    private final long maxCpuNanos;
+    private final long maxAllocatedChars;
+    private final long startNanos;
+
+    private long steps;
+    private long nextClockCheck = CLOCK_CHECK_INTERVAL;
+    private long allocatedChars;
+
+    /**
+     * @param maxSteps          最大步数
+     * @param maxCpuMillis      最大CPU时间（毫秒）
+     * @param maxAllocatedChars 最大分配量（字符数）
+     */
+    public ScriptBudget(long maxSteps, long maxCpuMillis, long maxAllocatedChars) {
+        this.maxSteps = maxSteps;
+        this.maxCpuNanos = maxCpuMillis * 1_000_000L;
+        this.maxAllocatedChars = maxAllocatedChars;
+        this.startNanos = clock();
+    }
+
+    /**
+     * 计步
+     */
+    public void charge(long count) {
+        steps += count;
+        if (steps > maxSteps) {
+            throw new ScriptException(ScriptException.Kind.BUDGET_EXCEEDED, "规则脚本超出执行步数上限: " + maxSteps);
+        }
+        if (steps >= nextClockCheck) {
+            nextClockCheck = steps + CLOCK_CHECK_INTERVAL;
+            if (clock() - startNanos > maxCpuNanos) {
+                throw new ScriptException(ScriptException.Kind.BUDGET_EXCEEDED,
+                        "规则脚本超出CPU时间上限: " + maxCpuNanos / 1_000_000L + "ms");
+            }
+        }
+    }
+
+    /**
+     * 计入分配量
+     */
+    public void allocate(long chars) {
+        allocatedChars += chars;
+        if (allocatedChars > maxAllocatedChars) {
+            throw new ScriptException(ScriptException.Kind.BUDGET_EXCEEDED,
+                    "规则脚本超出内存分配上限: " + maxAllocatedChars + " 字符");
+        }
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    public long getAllocatedChars() {
+        return allocatedChars;
+    }
+
+    /**
+     * 已用CPU时间（毫秒）
+     */
+    public long getElapsedMillis() {
+        return (clock() - startNanos) / 1_000_000L;
+    }
+
+    private static long clock() {
+        return CPU_TIME_SUPPORTED ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+}
@@ -0,0 +1,144 @@
+package com.insurance.audit.audit.script;
+
+import com.insurance.audit.audit.matchers.Matcher.MatchResult;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 规则脚本执行上下文
+ * 脚本能看到的全部数据：规则要检查的文档块、产品字段、规则参数和先执行的规则的匹配结果，均为只读视图，
+ * 脚本只能通过编译器白名单中的变量和函数访问，无法拿到 Java 对象本身。
+ * 同一上下文在一条规则的一次匹配中逐块复用（切换当前文档块），只在一个线程内使用
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class ScriptContext {
+
+    private final List<DocumentChunk> chunks;
+    private final Map<String, Object> fields;
+    private final Map<String, Object> parameters;
+    private final Map<String, List<MatchResult>> priorResults;
+    private final ScriptBudget budget;
+
+    private DocumentChunk chunk;
+    private int position = -1;
+    private String documentText;
+    private Map<String, Set<String>> matchedChunkIds;
+
+    /**
+     * @param chunks       规则要检查的文档块，按文档顺序
+     * @param fields       产品字段
+     * @param parameters   规则参数
+     * @param priorResults 先执行的规则的匹配结果（规则ID -> 结果）
+     * @param budget       执行预算
+     */
+    public ScriptContext(List<DocumentChunk> chunks, Map<String, Object> fields, Map<String, Object> parameters,
+                         Map<String, List<MatchResult>> priorResults, ScriptBudget budget) {
+        this.chunks = chunks != null ? Collections.unmodifiableList(chunks) : List.of();
+        this.fields = fields != null ? Collections.unmodifiableMap(fields) : Map.of();
+        this.parameters = parameters != null ? Collections.unmodifiableMap(parameters) : Map.of();
+        this.priorResults = priorResults != null ? Collections.unmodifiableMap(priorResults) : Map.of();
+        this.budget = budget;
+    }
+
+    /**
+     * 切换到指定文档块，position 为其在 {@link #getChunks()} 中的位置
+     */
+    public void moveTo(DocumentChunk chunk, int position) {
+        this.chunk = chunk;
+        this.position = position;
+    }
+
+    /**
+     * 切换到全文求值，text 为全部文档块文本
+     */
+    public void moveToDocument() {
+        this.chunk = null;
+        this.position = -1;
+    }
+
+    public List<DocumentChunk> getChunks() {
+        return chunks;
+    }
+
+    public ScriptBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * 当前文档块，全文求值时为 null
+     */
+    public DocumentChunk getChunk() {
+        return chunk;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * 当前文本：文档块文本，全文求值时为全部文档块文本（换行连接）
+     */
+    String text() {
+        if (chunk != null) {
+            return chunk.getText() != null ? chunk.getText() : "";
+        }
+        if (documentText == null) {
+            StringBuilder builder = new StringBuilder();
+            for (DocumentChunk item : chunks) {
+                if (item.getText() != null) {
+                    if (!builder.isEmpty()) {
+                        builder.append('\n');
+                    }
+                    builder.append(item.getText());
+                }
+            }
+            budget.allocate(builder.length());
+            documentText = builder.toString();
+        }
+        return documentText;
+    }
+
+    Object field(String name) {
+        return fields.get(name);
+    }
+
+    Object parameter(String name) {
+        return parameters.get(name);
+    }
+
+    List<MatchResult> resultsOf(String ruleId) {
+        return priorResults.getOrDefault(ruleId, List.of());
+    }
+
+    /**
+     * 先执行的规则是否命中了当前文档块，按文档块ID关联
+     */
+    boolean matchedCurrentChunk(String ruleId) {
+        if (chunk == null || chunk.getId() == null) {
+            return false;
+        }
+        if (matchedChunkIds == null) {
+            matchedChunkIds = new HashMap<>();
+        }
+        Set<String> ids = matchedChunkIds.computeIfAbsent(ruleId, id -> {
+            Set<String> chunkIds = new HashSet<>();
+            for (MatchResult result : resultsOf(id)) {
+                if (result.getChunkId() != null) {
+                    chunkIds.add(result.getChunkId());
+                }
+            }
+            budget.charge(chunkIds.size() + 1L);
+            return chunkIds;
+        });
+        return ids.contains(chunk.getId());
+    }
+}
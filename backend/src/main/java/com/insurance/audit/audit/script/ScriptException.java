@@ -0,0 +1,55 @@
+package com.insurance.audit.audit.script;
+
+/**
+ * 规则脚本异常
+ * 编译错误带出错位置；运行时错误和超出执行预算分别用不同的类型区分，便于匹配器给出不同的提示
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class ScriptException extends RuntimeException {
+
+    /**
+     * 异常类型
+     */
+    public enum Kind {
+        /**
+         * 语法或语义错误，脚本无法编译
+         */
+        COMPILE,
+        /**
+         * 运行时类型错误等
+         */
+        RUNTIME,
+        /**
+         * 超出执行步数、CPU时间或内存预算
+         */
+        BUDGET_EXCEEDED
+    }
+
+    private final Kind kind;
+
+    /**
+     * 出错位置（源码字符偏移），未知时为 -1
+     */
+    private final int position;
+
+    public ScriptException(Kind kind, String message) {
+        this(kind, message, -1);
+    }
+
+    public ScriptException(Kind kind, String message, int position) {
+        super(position >= 0 ? message + " (位置 " + position + ")" : message);
+        this.kind = kind;
+        this.position = position;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,382 @@
+package com.insurance.audit.audit.script;
+
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * 规则脚本的运算语义和内置函数
+ * 值只有五种：null、布尔、数字（统一为 double）、字符串、列表。
+ * 扫描文本的函数按扫描字符数计步，生成新字符串或列表的函数计入分配量
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+final class ScriptFunctions {
+
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(?:,\\d{3})*(?:\\.\\d+)?");
+
+    /**
+     * 内置函数实现
+     */
+    @FunctionalInterface
+    interface Impl {
+        Object apply(ScriptContext context, Object[] args);
+    }
+
+    /**
+     * 内置函数
+     *
+     * @param pure 只依赖参数（不读上下文数据），参数都是常量时在编译期求值
+     */
+    record Function(String name, int minArgs, int maxArgs, boolean pure, Impl impl) {
+    }
+
+    private static final Map<String, Function> FUNCTIONS = new HashMap<>();
+
+    static {
+        register("contains", 2, 2, true, (c, a) -> indexOf(c, text(a[0]), text(a[1])) >= 0);
+        register("containsAny", 2, 2, true, (c, a) -> {
+            String text = text(a[0]);
+            for (Object item : list(a[1])) {
+                if (indexOf(c, text, text(item)) >= 0) {
+                    return true;
+                }
+            }
+            return false;
+        });
+        register("containsAll", 2, 2, true, (c, a) -> {
+            String text = text(a[0]);
+            for (Object item : list(a[1])) {
+                if (indexOf(c, text, text(item)) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        });
+        register("startsWith", 2, 2, true, (c, a) -> {
+            c.getBudget().charge(text(a[1]).length());
+            return text(a[0]).startsWith(text(a[1]));
+        });
+        register("endsWith", 2, 2, true, (c, a) -> {
+            c.getBudget().charge(text(a[1]).length());
+            return text(a[0]).endsWith(text(a[1]));
+        });
+        register("count", 2, 2, true, (c, a) -> (double) count(c, text(a[0]), text(a[1])));
+        register("matches", 2, 2, true, (c, a) -> find(c, text(a[0]), compileRegex(text(a[1]), -1)));
+        register("length", 1, 1, true, (c, a) -> {
+            Object value = a[0];
+            if (value instanceof List<?> items) {
+                return (double) items.size();
+            }
+            return value == null ? 0.0 : (double) text(value).length();
+        });
+        register("isEmpty", 1, 1, true, (c, a) -> a[0] == null
+                || (a[0] instanceof List<?> items ? items.isEmpty() : text(a[0]).isBlank()));
+        register("lower", 1, 1, true, (c, a) -> allocate(c, text(a[0]).toLowerCase()));
+        register("upper", 1, 1, true, (c, a) -> allocate(c, text(a[0]).toUpperCase()));
+        register("trim", 1, 1, true, (c, a) -> allocate(c, text(a[0]).strip()));
+        register("substring", 2, 3, true, (c, a) -> {
+            String text = text(a[0]);
+            int from = clamp((int) number(a[1]), text.length());
+            int to = a.length > 2 ? clamp((int) number(a[2]), text.length()) : text.length();
+            return allocate(c, from < to ? text.substring(from, to) : "");
+        });
+        register("number", 1, 1, true, (c, a) -> {
+            if (a[0] instanceof Double value) {
+                return value;
+            }
+            String text = text(a[0]);
+            c.getBudget().charge(text.length());
+            java.util.regex.Matcher matcher = NUMBER.matcher(text);
+            return matcher.find() ? Double.valueOf(matcher.group().replace(",", "")) : null;
+        });
+        register("between", 3, 3, true, (c, a) -> a[0] != null
+                && number(a[0]) >= number(a[1]) && number(a[0]) <= number(a[2]));
+        register("in", 2, 2, true, (c, a) -> {
+            List<?> items = list(a[1]);
+            c.getBudget().charge(items.size());
+            for (Object item : items) {
+                if (equal(a[0], item)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+        register("min", 2, 2, true, (c, a) -> Math.min(number(a[0]), number(a[1])));
+        register("max", 2, 2, true, (c, a) -> Math.max(number(a[0]), number(a[1])));
+        register("abs", 1, 1, true, (c, a) -> Math.abs(number(a[0])));
+
+        register("field", 1, 1, false, (c, a) -> normalize(c.field(text(a[0]))));
+        register("param", 1, 1, false, (c, a) -> normalize(c.parameter(text(a[0]))));
+        register("anyChunk", 1, 1, false, (c, a) -> chunksContaining(c, text(a[0]), true) > 0);
+        register("chunkCount", 1, 1, false, (c, a) -> (double) chunksContaining(c, text(a[0]), false));
+        register("matched", 1, 1, false, (c, a) -> !c.resultsOf(text(a[0])).isEmpty());
+        register("matchCount", 1, 1, false, (c, a) -> (double) c.resultsOf(text(a[0])).size());
+        register("matchedHere", 1, 1, false, (c, a) -> c.matchedCurrentChunk(text(a[0])));
+    }
+
+    private ScriptFunctions() {
+    }
+
+    static Function function(String name) {
+        return FUNCTIONS.get(name);
+    }
+
+    private static void register(String name, int minArgs, int maxArgs, boolean pure, Impl impl) {
+        FUNCTIONS.put(name, new Function(name, minArgs, maxArgs, pure, impl));
+    }
+
+    // ---------------------------------------------------------------- 值与运算
+
+    static boolean truthy(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        if (value instanceof Double number) {
+            return number != 0 && !number.isNaN();
+        }
+        if (value instanceof String text) {
+            return !text.isEmpty();
+        }
+        if (value instanceof List<?> items) {
+            return !items.isEmpty();
+        }
+        return true;
+    }
+
+    static boolean equal(Object left, Object right) {
+        if (left instanceof Double a && right instanceof Double b) {
+            return a.doubleValue() == b.doubleValue();
+        }
+        return Objects.equals(left, right);
+    }
+
+    /**
+     * 比较，任一侧为 null 或类型不可比较时返回 null（比较结果为假）
+     */
+    static Integer compare(Object left, Object right) {
+        if (left instanceof Double a && right instanceof Double b) {
+            return Double.compare(a, b);
+        }
+        if (left instanceof String a && right instanceof String b) {
+            return a.compareTo(b);
+        }
+        if (left instanceof Double a && right instanceof String b && isNumeric(b)) {
+            return Double.compare(a, Double.parseDouble(b));
+        }
+        if (left instanceof String a && right instanceof Double b && isNumeric(a)) {
+            return Double.compare(Double.parseDouble(a), b);
+        }
+        return null;
+    }
+
+    static Object add(ScriptContext context, Object left, Object right) {
+        if (left instanceof String || right instanceof String) {
+            String l = left == null ? "" : text(left);
+            String r = right == null ? "" : text(right);
+            context.getBudget().allocate(l.length() + r.length());
+            return l + r;
+        }
+        if (left == null || right == null) {
+            return null;
+        }
+        return number(left) + number(right);
+    }
+
+    static Object arithmetic(char operator, Object left, Object right) {
+        if (left == null || right == null) {
+            return null;
+        }
+        double a = number(left);
+        double b = number(right);
+        return switch (operator) {
+            case '-' -> a - b;
+            case '*' -> a * b;
+            case '/' -> {
+                if (b == 0) {
+                    throw new ScriptException(ScriptException.Kind.RUNTIME, "除数为0");
+                }
+                yield a / b;
+            }
+            case '%' -> {
+                if (b == 0) {
+                    throw new ScriptException(ScriptException.Kind.RUNTIME, "除数为0");
+                }
+                yield a % b;
+            }
+            default -> throw new ScriptException(ScriptException.Kind.RUNTIME, "不支持的运算符: " + operator);
+        };
+    }
+
+    static double number(Object value) {
+        if (value instanceof Double number) {
+            return number;
+        }
+        if (value instanceof String text && isNumeric(text)) {
+            return Double.parseDouble(text.strip());
+        }
+        throw new ScriptException(ScriptException.Kind.RUNTIME, "不是数字: " + describe(value));
+    }
+
+    static String text(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof String text) {
+            return text;
+        }
+        if (value instanceof Double number) {
+            return number == Math.rint(number) && !Double.isInfinite(number)
+                    ? Long.toString(number.longValue()) : number.toString();
+        }
+        if (value instanceof Boolean) {
+            return value.toString();
+        }
+        throw new ScriptException(ScriptException.Kind.RUNTIME, "不是文本: " + describe(value));
+    }
+
+    static List<?> list(Object value) {
+        if (value instanceof List<?> items) {
+            return items;
+        }
+        return value == null ? List.of() : List.of(value);
+    }
+
+    /**
+     * 把产品字段、规则参数中的值转换为脚本值，列表只读
+     */
+    static Object normalize(Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean || value instanceof Double) {
+            return value;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value instanceof Collection<?> items) {
+            List<Object> normalized = new ArrayList<>(items.size());
+            for (Object item : items) {
+                normalized.add(normalize(item));
+            }
+            return Collections.unmodifiableList(normalized);
+        }
+        return value.toString();
+    }
+
+    static Pattern compileRegex(String regex, int position) {
+        try {
+            return Pattern.compile(regex);
+        } catch (java.util.regex.PatternSyntaxException e) {
+            throw new ScriptException(ScriptException.Kind.COMPILE, "正则表达式错误: " + e.getDescription(), position);
+        }
+    }
+
+    /**
+     * 正则查找，正则引擎每读取一个字符计 1 步，回溯失控时由步数预算终止
+     */
+    static boolean find(ScriptContext context, String text, Pattern pattern) {
+        return pattern.matcher(new BudgetedCharSequence(text, context.getBudget())).find();
+    }
+
+    private static int indexOf(ScriptContext context, String text, String part) {
+        context.getBudget().charge(text.length() + 1L);
+        return part.isEmpty() ? -1 : text.indexOf(part);
+    }
+
+    private static int count(ScriptContext context, String text, String part) {
+        context.getBudget().charge(text.length() + 1L);
+        if (part.isEmpty()) {
+            return 0;
+        }
+        int count = 0;
+        for (int index = text.indexOf(part); index >= 0; index = text.indexOf(part, index + part.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    private static int chunksContaining(ScriptContext context, String part, boolean stopAtFirst) {
+        if (part.isEmpty()) {
+            return 0;
+        }
+        int count = 0;
+        for (DocumentChunk chunk : context.getChunks()) {
+            String text = chunk.getText() != null ? chunk.getText() : "";
+            context.getBudget().charge(text.length() + 1L);
+            if (text.contains(part)) {
+                count++;
+                if (stopAtFirst) {
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static String allocate(ScriptContext context, String value) {
+        context.getBudget().allocate(value.length());
+        return value;
+    }
+
+    private static int clamp(int index, int length) {
+        return Math.max(0, Math.min(index, length));
+    }
+
+    private static boolean isNumeric(String text) {
+        String stripped = text.strip();
+        if (stripped.isEmpty() || stripped.length() > 32) {
+            return false;
+        }
+        try {
+            Double.parseDouble(stripped);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static String describe(Object value) {
+        if (value instanceof List<?>) {
+            return "列表";
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * 读取字符时计步的文本视图
+     */
+    private record BudgetedCharSequence(CharSequence text, ScriptBudget budget) implements CharSequence {
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            budget.charge(1);
+            return text.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new BudgetedCharSequence(text.subSequence(start, end), budget);
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
@@ -1,15 +1,18 @@
 package com.insurance.audit.audit.security;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 审计日志服务
- * 记录系统的各种审计事件
+ * 记录系统的各种审计事件，事件经由审计轨迹写入器异步持久化到本地段文件
  *
  * @author System
  * @version 1.0.0
@@ -19,15 +22,16 @@ import java.util.concurrent.ConcurrentHashMap;
 @Service
 public class AuditLogger {
 
-    // 内存中的审计日志存储（实际项目中应该使用数据库）
-    private final Map<String, Object> auditLogs = new ConcurrentHashMap<>();
+    @Autowired
+    private AuditTrailWriter auditTrailWriter;
+
+    // 按事件类型计数，统计查询无需遍历日志
+    private final Map<String, LongAdder> eventCounters = new ConcurrentHashMap<>();
 
     /**
      * 记录权限检查
      */
     public void logPermissionCheck(String username, String operation, boolean granted) {
-        String logKey = generateLogKey("PERMISSION_CHECK");
-
         PermissionCheckLog log = PermissionCheckLog.builder()
                 .timestamp(LocalDateTime.now())
                 .username(username)
@@ -35,7 +39,7 @@ public class AuditLogger {
                 .granted(granted)
                 .build();
 
-        auditLogs.put(logKey, log);
+        append("PERMISSION_CHECK", log);
 
         // 输出到日志文件
         if (granted) {
@@ -49,15 +53,13 @@ public class AuditLogger {
      * 记录未授权访问
      */
     public void logUnauthorizedAccess(String username, String resource) {
-        String logKey = generateLogKey("UNAUTHORIZED_ACCESS");
-
         UnauthorizedAccessLog log = UnauthorizedAccessLog.builder()
                 .timestamp(LocalDateTime.now())
                 .username(username)
                 .resource(resource)
                 .build();
 
-        auditLogs.put(logKey, log);
+        append("UNAUTHORIZED_ACCESS", log);
 
         this.log.error("检测到未授权访问: user={}, resource={}", username, resource);
     }
@@ -66,8 +68,6 @@ public class AuditLogger {
      * 记录数据脱敏
      */
     public void logDataRedaction(String username, int originalLength, int redactedLength) {
-        String logKey = generateLogKey("DATA_REDACTION");
-
         DataRedactionLog log = DataRedactionLog.builder()
                 .timestamp(LocalDateTime.now())
                 .username(username)
@@ -76,7 +76,7 @@ public class AuditLogger {
                 .redactionRatio((double) (originalLength - redactedLength) / originalLength * 100)
                 .build();
 
-        auditLogs.put(logKey, log);
+        append("DATA_REDACTION", log);
 
         this.log.debug("执行数据脱敏: user={}, originalLength={}, redactedLength={}",
                 username, originalLength, redactedLength);
@@ -86,8 +86,7 @@ public class AuditLogger {
      * 记录检核决策
      */
     public void logDecision(SecurityComplianceService.AuditDecisionLog decisionLog) {
-        String logKey = generateLogKey("AUDIT_DECISION");
-        auditLogs.put(logKey, decisionLog);
+        append("AUDIT_DECISION", decisionLog);
 
         this.log.info("记录检核决策: user={}, jobId={}, ruleId={}, decision={}",
                 decisionLog.getUsername(), decisionLog.getJobId(),
@@ -98,8 +97,7 @@ public class AuditLogger {
      * 记录数据访问
      */
     public void logDataAccess(SecurityComplianceService.DataAccessLog accessLog) {
-        String logKey = generateLogKey("DATA_ACCESS");
-        auditLogs.put(logKey, accessLog);
+        append("DATA_ACCESS", accessLog);
 
         this.log.info("记录数据访问: user={}, operation={}, resource={}:{}",
                 accessLog.getUsername(), accessLog.getOperation(),
@@ -110,8 +108,6 @@ public class AuditLogger {
      * 记录安全威胁
      */
     public void logSecurityThreat(String threatType, String details) {
-        String logKey = generateLogKey("SECURITY_THREAT");
-
         SecurityThreatLog log = SecurityThreatLog.builder()
                 .timestamp(LocalDateTime.now())
                 .threatType(threatType)
@@ -119,7 +115,7 @@ public class AuditLogger {
                 .severity("HIGH")
                 .build();
 
-        auditLogs.put(logKey, log);
+        append("SECURITY_THREAT", log);
 
         this.log.error("检测到安全威胁: type={}, details={}", threatType, log.getDetails());
     }
@@ -128,8 +124,6 @@ public class AuditLogger {
      * 记录系统事件
      */
     public void logSystemEvent(String eventType, String description, Map<String, Object> context) {
-        String logKey = generateLogKey("SYSTEM_EVENT");
-
         SystemEventLog log = SystemEventLog.builder()
                 .timestamp(LocalDateTime.now())
                 .eventType(eventType)
@@ -137,7 +131,7 @@ public class AuditLogger {
                 .context(context)
                 .build();
 
-        auditLogs.put(logKey, log);
+        append("SYSTEM_EVENT", log);
 
         this.log.info("系统事件: type={}, description={}", eventType, description);
     }
@@ -146,95 +140,43 @@ public class AuditLogger {
      * 获取审计日志统计
      */
     public AuditLogStats getAuditLogStats() {
-        Map<String, Long> eventCounts = new ConcurrentHashMap<>();
+        Map<String, Long> eventCounts = new TreeMap<>();
+        long total = 0;
 
-        for (Object logEntry : auditLogs.values()) {
-            String eventType = getEventType(logEntry);
-            eventCounts.merge(eventType, 1L, Long::sum);
+        for (Map.Entry<String, LongAdder> entry : eventCounters.entrySet()) {
+            long count = entry.getValue().sum();
+            eventCounts.put(entry.getKey(), count);
+            total += count;
         }
 
+        AuditTrailWriter.WriterStats writerStats = auditTrailWriter.getWriterStats();
+
         return AuditLogStats.builder()
-                .totalLogs(auditLogs.size())
+                .totalLogs((int) Math.min(total, Integer.MAX_VALUE))
                 .eventCounts(eventCounts)
+                .pendingLogs(writerStats.getPendingEvents())
+                .droppedLogs(writerStats.getDroppedEvents())
+                .lastSequence(writerStats.getLastSequence())
                 .lastUpdated(LocalDateTime.now())
                 .build();
     }
 
     /**
      * 清理过期日志
+     * 审计轨迹按日期分段存储，过期清理直接删除整段文件
      */
     public void cleanupExpiredLogs(int retentionDays) {
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(retentionDays);
-        int cleanedCount = 0;
-
-        var iterator = auditLogs.entrySet().iterator();
-        while (iterator.hasNext()) {
-            var entry = iterator.next();
-            LocalDateTime logTime = getLogTimestamp(entry.getValue());
-
-            if (logTime != null && logTime.isBefore(cutoffDate)) {
-                iterator.remove();
-                cleanedCount++;
-            }
-        }
+        int deletedSegments = auditTrailWriter.purgeSegmentsOlderThan(retentionDays);
 
-        this.log.info("清理过期审计日志: 删除{}条记录, 保留{}天内的日志", cleanedCount, retentionDays);
+        this.log.info("清理过期审计日志: 删除{}个段文件, 保留{}天内的日志", deletedSegments, retentionDays);
     }
 
     /**
-     * 生成日志键
+     * 写入审计轨迹并计数
      */
-    private String generateLogKey(String eventType) {
-        return eventType + "_" + System.currentTimeMillis() + "_" + Thread.currentThread().getId();
-    }
-
-    /**
-     * 获取事件类型
-     */
-    private String getEventType(Object logEntry) {
-        if (logEntry instanceof PermissionCheckLog) {
-            return "PERMISSION_CHECK";
-        } else if (logEntry instanceof UnauthorizedAccessLog) {
-            return "UNAUTHORIZED_ACCESS";
-        } else if (logEntry instanceof DataRedactionLog) {
-            return "DATA_REDACTION";
-        } else if (logEntry instanceof SecurityComplianceService.AuditDecisionLog) {
-            return "AUDIT_DECISION";
-        } else if (logEntry instanceof SecurityComplianceService.DataAccessLog) {
-            return "DATA_ACCESS";
-        } else if (logEntry instanceof SecurityThreatLog) {
-            return "SECURITY_THREAT";
-        } else if (logEntry instanceof SystemEventLog) {
-            return "SYSTEM_EVENT";
-        } else {
-            return "UNKNOWN";
-        }
-    }
-
-    /**
-     * 获取日志时间戳
-     */
-    private LocalDateTime getLogTimestamp(Object logEntry) {
-        try {
-            if (logEntry instanceof PermissionCheckLog) {
-                return ((PermissionCheckLog) logEntry).getTimestamp();
-            } else if (logEntry instanceof UnauthorizedAccessLog) {
-                return ((UnauthorizedAccessLog) logEntry).getTimestamp();
-            } else if (logEntry instanceof DataRedactionLog) {
-                return ((DataRedactionLog) logEntry).getTimestamp();
-            } else if (logEntry instanceof SecurityComplianceService.AuditDecisionLog) {
-                return ((SecurityComplianceService.AuditDecisionLog) logEntry).getTimestamp();
-            } else if (logEntry instanceof SecurityComplianceService.DataAccessLog) {
-                return ((SecurityComplianceService.DataAccessLog) logEntry).getTimestamp();
-            } else if (logEntry instanceof SecurityThreatLog) {
-                return ((SecurityThreatLog) logEntry).getTimestamp();
-            } else if (logEntry instanceof SystemEventLog) {
-                return ((SystemEventLog) logEntry).getTimestamp();
-            }
-        } catch (Exception e) {
-            this.log.warn("获取日志时间戳失败: {}", e.getMessage());
-        }
-        return null;
+    private void append(String eventType, Object logEntry) {
+        eventCounters.computeIfAbsent(eventType, k -> new LongAdder()).increment();
+        auditTrailWriter.append(eventType, logEntry);
     }
 
     // 各种日志实体类
@@ -300,6 +242,9 @@ public class AuditLogger {
     public static class AuditLogStats {
         private Integer totalLogs;
         private Map<String, Long> eventCounts;
+        private Long pendingLogs;
+        private Long droppedLogs;
+        private Long lastSequence;
         private LocalDateTime lastUpdated;
     }
 }
\ No newline at end of file
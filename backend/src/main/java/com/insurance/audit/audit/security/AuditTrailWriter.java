@@ -0,0 +1,477 @@
+package com.insurance.audit.audit.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 审计轨迹写入器
+ * 热路径只向无锁环形缓冲区追加事件，由后台线程批量写入按日期分区的本地段文件（JSON Lines），
+ * 使用单调递增序列号标识事件，过期清理按整段文件删除
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class AuditTrailWriter {
+
+    private static final DateTimeFormatter SEGMENT_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final String SEGMENT_PREFIX = "audit-trail-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final long FULL_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long DROP_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    @Value("${audit.trail.directory:logs/audit-trail}")
+    private String directory;
+
+    @Value("${audit.trail.buffer-size:65536}")
+    private int bufferSize;
+
+    @Value("${audit.trail.batch-size:512}")
+    private int batchSize;
+
+    @Value("${audit.trail.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${audit.trail.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    @Value("${audit.trail.segment-max-bytes:67108864}")
+    private long segmentMaxBytes;
+
+    @Value("${audit.trail.retention-days:180}")
+    private int retentionDays;
+
+    @Value("${audit.trail.fsync:false}")
+    private boolean fsync;
+
+    private final ObjectMapper objectMapper;
+    private final ZoneId zoneId = ZoneId.systemDefault();
+
+    // 环形缓冲区：生产者通过CAS认领序列号，单个消费者顺序读取
+    private AtomicReferenceArray<AuditTrailEvent> slots;
+    private int mask;
+    private final AtomicLong producerSequence = new AtomicLong(0);
+    private volatile long consumerSequence = 0;
+
+    // 统计
+    private final LongAdder droppedEvents = new LongAdder();
+    private final AtomicLong writtenEvents = new AtomicLong(0);
+    private final AtomicLong failedBatches = new AtomicLong(0);
+
+    // 段文件状态，仅由写入线程访问
+    private LocalDate segmentDate;
+    private long segmentDayStartMillis;
+    private long segmentDayEndMillis;
+    private int segmentIndex;
+    private long segmentBytes;
+    private OutputStream segmentWriter;
+    private FileChannel segmentChannel;
+    private LocalDate lastRetentionCheck;
+
+    // 丢弃事件汇总状态，仅由写入线程访问
+    private long reportedDroppedEvents;
+    private long lastDropReportNanos;
+
+    private Thread writerThread;
+    private volatile boolean running;
+
+    public AuditTrailWriter() {
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+    }
+
+    /**
+     * 初始化缓冲区并启动后台写入线程
+     */
+    @PostConstruct
+    public void start() {
+        int capacity = Integer.highestOneBit(Math.max(1024, bufferSize - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.running = true;
+
+        this.writerThread = new Thread(this::runWriterLoop, "audit-trail-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+
+        log.info("审计轨迹写入器已启动: directory={}, capacity={}, batchSize={}, retentionDays={}",
+                directory, capacity, batchSize, retentionDays);
+    }
+
+    /**
+     * 停止写入线程并刷出剩余事件
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writerThread != null) {
+            LockSupport.unpark(writerThread);
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("审计轨迹写入器已停止: written={}, dropped={}", writtenEvents.get(), droppedEvents.sum());
+    }
+
+    /**
+     * 追加审计事件（热路径，不做I/O与序列化）
+     *
+     * @param eventType 事件类型
+     * @param payload   事件内容
+     * @return 分配的序列号；缓冲区持续满载导致丢弃时返回-1
+     */
+    public long append(String eventType, Object payload) {
+        long sequence = claimSequence();
+        if (sequence < 0) {
+            // 丢弃数量由写入线程定期汇总输出，避免满载时每个事件一条日志
+            droppedEvents.increment();
+            return -1;
+        }
+
+        slots.lazySet((int) sequence & mask,
+                new AuditTrailEvent(sequence, System.currentTimeMillis(), eventType, payload));
+        return sequence;
+    }
+
+    /**
+     * 认领下一个序列号，缓冲区满时短暂等待消费者
+     */
+    private long claimSequence() {
+        long deadline = 0;
+        int capacity = mask + 1;
+
+        while (true) {
+            long sequence = producerSequence.get();
+            if (sequence - consumerSequence >= capacity) {
+                long now = System.nanoTime();
+                if (deadline == 0) {
+                    deadline = now + TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+                    LockSupport.unpark(writerThread);
+                } else if (now - deadline > 0) {
+                    return -1;
+                }
+                LockSupport.parkNanos(FULL_BACKOFF_NANOS);
+                continue;
+            }
+            if (producerSequence.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+    }
+
+    /**
+     * 后台写入循环
+     */
+    private void runWriterLoop() {
+        List<AuditTrailEvent> batch = new ArrayList<>(batchSize);
+
+        while (running || consumerSequence < producerSequence.get()) {
+            reportDroppedEvents(false);
+            drainTo(batch);
+
+            if (batch.isEmpty()) {
+                if (consumerSequence < producerSequence.get()) {
+                    // 生产者已认领序列号但尚未发布，短暂让出即可
+                    Thread.yield();
+                    continue;
+                }
+                closeIdleSegment();
+                enforceRetentionDaily();
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+                continue;
+            }
+
+            writeBatch(batch);
+            batch.clear();
+        }
+
+        closeSegment();
+        reportDroppedEvents(true);
+    }
+
+    /**
+     * 汇总输出上次报告以来丢弃的事件数，每个间隔最多一条
+     */
+    private void reportDroppedEvents(boolean force) {
+        long now = System.nanoTime();
+        if (!force && now - lastDropReportNanos < DROP_REPORT_INTERVAL_NANOS) {
+            return;
+        }
+        long dropped = droppedEvents.sum();
+        if (dropped > reportedDroppedEvents) {
+            log.warn("审计轨迹缓冲区已满，事件被丢弃: 新增{}个, 累计{}个",
+                    dropped - reportedDroppedEvents, dropped);
+            reportedDroppedEvents = dropped;
+        }
+        lastDropReportNanos = now;
+    }
+
+    /**
+     * 从环形缓冲区取出一批已发布的事件
+     */
+    private void drainTo(List<AuditTrailEvent> batch) {
+        long sequence = consumerSequence;
+        long published = producerSequence.get();
+
+        while (sequence < published && batch.size() < batchSize) {
+            int index = (int) sequence & mask;
+            AuditTrailEvent event = slots.get(index);
+            if (event == null || event.getSequence() != sequence) {
+                // 序列号已认领但事件尚未发布
+                break;
+            }
+            slots.lazySet(index, null);
+            batch.add(event);
+            sequence++;
+        }
+
+        consumerSequence = sequence;
+    }
+
+    /**
+     * 批量写入段文件
+     */
+    private void writeBatch(List<AuditTrailEvent> batch) {
+        try {
+            for (AuditTrailEvent event : batch) {
+                ensureSegment(event.getTimestamp());
+
+                byte[] line = objectMapper.writeValueAsBytes(toRecord(event));
+                segmentWriter.write(line);
+                segmentWriter.write('\n');
+                segmentBytes += line.length + 1L;
+            }
+
+            segmentWriter.flush();
+            if (fsync) {
+                segmentChannel.force(false);
+            }
+            writtenEvents.addAndGet(batch.size());
+        } catch (IOException e) {
+            failedBatches.incrementAndGet();
+            log.error("写入审计轨迹失败: batchSize={}, firstSequence={}, error={}",
+                    batch.size(), batch.get(0).getSequence(), e.getMessage(), e);
+            closeSegment();
+        }
+    }
+
+    /**
+     * 构建单行记录
+     */
+    private Map<String, Object> toRecord(AuditTrailEvent event) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("seq", event.getSequence());
+        record.put("ts", event.getTimestamp());
+        record.put("type", event.getEventType());
+        record.put("payload", event.getPayload());
+        return record;
+    }
+
+    /**
+     * 确保当前段文件对应事件日期且未超出大小限制
+     */
+    private void ensureSegment(long timestamp) throws IOException {
+        boolean sameDay = timestamp >= segmentDayStartMillis && timestamp < segmentDayEndMillis;
+        if (segmentWriter != null && sameDay && segmentBytes < segmentMaxBytes) {
+            return;
+        }
+
+        LocalDate eventDate = sameDay ? segmentDate
+                : LocalDate.ofInstant(Instant.ofEpochMilli(timestamp), zoneId);
+        sameDay = eventDate.equals(segmentDate);
+        closeSegment();
+
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+
+        segmentIndex = sameDay ? segmentIndex + 1 : nextSegmentIndex(dir, eventDate);
+        segmentDate = eventDate;
+        segmentDayStartMillis = eventDate.atStartOfDay(zoneId).toInstant().toEpochMilli();
+        segmentDayEndMillis = eventDate.plusDays(1).atStartOfDay(zoneId).toInstant().toEpochMilli();
+
+        Path segment = dir.resolve(segmentFileName(eventDate, segmentIndex));
+        segmentChannel = FileChannel.open(segment,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentWriter = new BufferedOutputStream(Channels.newOutputStream(segmentChannel), 64 * 1024);
+        segmentBytes = segmentChannel.size();
+
+        log.debug("打开审计轨迹段文件: {}", segment);
+    }
+
+    /**
+     * 进程重启后从当天已有的最大段号之后继续写入，避免与半写入的段混合
+     */
+    private int nextSegmentIndex(Path dir, LocalDate date) throws IOException {
+        String prefix = SEGMENT_PREFIX + SEGMENT_DATE_FORMAT.format(date) + ".";
+        int maxIndex = -1;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, prefix + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                String index = name.substring(prefix.length(), name.length() - SEGMENT_SUFFIX.length());
+                try {
+                    maxIndex = Math.max(maxIndex, Integer.parseInt(index));
+                } catch (NumberFormatException ignored) {
+                    // 非本写入器生成的文件
+                }
+            }
+        }
+        return maxIndex + 1;
+    }
+
+    private String segmentFileName(LocalDate date, int index) {
+        return String.format("%s%s.%03d%s", SEGMENT_PREFIX, SEGMENT_DATE_FORMAT.format(date), index, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * 空闲时跨日关闭旧段文件
+     */
+    private void closeIdleSegment() {
+        if (segmentWriter != null && !LocalDate.now(zoneId).equals(segmentDate)) {
+            closeSegment();
+        }
+    }
+
+    private void closeSegment() {
+        if (segmentWriter == null) {
+            return;
+        }
+        try {
+            segmentWriter.flush();
+            if (fsync) {
+                segmentChannel.force(false);
+            }
+            segmentWriter.close();
+        } catch (IOException e) {
+            log.warn("关闭审计轨迹段文件失败: {}", e.getMessage());
+        } finally {
+            segmentWriter = null;
+            segmentChannel = null;
+            segmentBytes = 0;
+        }
+    }
+
+    /**
+     * 每天执行一次保留期清理
+     */
+    private void enforceRetentionDaily() {
+        LocalDate today = LocalDate.now(zoneId);
+        if (retentionDays > 0 && !today.equals(lastRetentionCheck)) {
+            lastRetentionCheck = today;
+            purgeSegmentsOlderThan(retentionDays);
+        }
+    }
+
+    /**
+     * 按日期分区删除过期段文件，耗时与段文件数量成正比，与事件数量无关
+     *
+     * @param days 保留天数
+     * @return 删除的段文件数
+     */
+    public int purgeSegmentsOlderThan(int days) {
+        Path dir = Paths.get(directory);
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+
+        String cutoff = SEGMENT_DATE_FORMAT.format(LocalDate.now(zoneId).minusDays(days));
+        int deleted = 0;
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                if (name.length() < SEGMENT_PREFIX.length() + 8) {
+                    continue;
+                }
+                String date = name.substring(SEGMENT_PREFIX.length(), SEGMENT_PREFIX.length() + 8);
+                // yyyyMMdd 字典序即时间序
+                if (date.compareTo(cutoff) < 0) {
+                    Files.deleteIfExists(path);
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            log.error("清理审计轨迹段文件失败: directory={}, error={}", directory, e.getMessage(), e);
+        }
+
+        log.info("清理过期审计轨迹: 删除{}个段文件, 保留{}天", deleted, days);
+        return deleted;
+    }
+
+    /**
+     * 获取写入器状态
+     */
+    public WriterStats getWriterStats() {
+        long published = producerSequence.get();
+        return WriterStats.builder()
+                .lastSequence(published - 1)
+                .pendingEvents(published - consumerSequence)
+                .writtenEvents(writtenEvents.get())
+                .droppedEvents(droppedEvents.sum())
+                .failedBatches(failedBatches.get())
+                .capacity(slots != null ? slots.length() : 0)
+                .build();
+    }
+
+    /**
+     * 审计轨迹事件
+     */
+    @lombok.Getter
+    @lombok.AllArgsConstructor
+    public static final class AuditTrailEvent {
+        private final long sequence;
+        private final long timestamp;
+        private final String eventType;
+        private final Object payload;
+    }
+
+    /**
+     * 写入器状态
+     */
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class WriterStats {
+        private Long lastSequence;
+        private Long pendingEvents;
+        private Long writtenEvents;
+        private Long droppedEvents;
+        private Long failedBatches;
+        private Integer capacity;
+    }
+}
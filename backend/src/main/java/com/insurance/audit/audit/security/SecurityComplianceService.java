@@ -8,8 +8,6 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.regex.Pattern;
 
 /**
  * 安全合规服务
@@ -26,11 +24,8 @@ public class SecurityComplianceService {
     @Autowired
     private AuditLogger auditLogger;
 
-    // 敏感数据模式
-    private static final Pattern ID_CARD_PATTERN = Pattern.compile("\\b\\d{15}|\\d{18}|\\d{17}[Xx]\\b");
-    private static final Pattern PHONE_PATTERN = Pattern.compile("\\b1[3-9]\\d{9}\\b");
-    private static final Pattern EMAIL_PATTERN = Pattern.compile("\\b[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}\\b");
-    private static final Pattern BANK_CARD_PATTERN = Pattern.compile("\\b\\d{16,19}\\b");
+    @Autowired
+    private SensitiveDataScanner sensitiveDataScanner;
 
     /**
      * 检查用户是否有权限访问检核功能
@@ -81,25 +76,24 @@ public class SecurityComplianceService {
             return null;
         }
 
-        String result = text;
-
-        // 脱敏身份证号
-        result = ID_CARD_PATTERN.matcher(result).replaceAll("***身份证号***");
-
-        // 脱敏电话号码
-        result = PHONE_PATTERN.matcher(result).replaceAll("***电话号码***");
+        return redactWithSpans(text).getRedactedText();
+    }
 
-        // 脱敏邮箱地址
-        result = EMAIL_PATTERN.matcher(result).replaceAll("***邮箱地址***");
+    /**
+     * 脱敏敏感数据并返回脱敏区间，用于重映射证据偏移
+     */
+    public SensitiveDataScanner.RedactionResult redactWithSpans(String text) {
+        if (text == null) {
+            return null;
+        }
 
-        // 脱敏银行卡号
-        result = BANK_CARD_PATTERN.matcher(result).replaceAll("***银行卡号***");
+        SensitiveDataScanner.RedactionResult result = sensitiveDataScanner.redact(text);
 
         // 记录脱敏操作
-        if (!result.equals(text)) {
+        if (result.hasRedactions()) {
             Authentication auth = SecurityContextHolder.getContext().getAuthentication();
             String username = auth != null ? auth.getName() : "system";
-            auditLogger.logDataRedaction(username, text.length(), result.length());
+            auditLogger.logDataRedaction(username, text.length(), result.getRedactedLength());
         }
 
         return result;
@@ -0,0 +1,443 @@
+package com.insurance.audit.audit.security;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 敏感数据扫描器
+ * 单遍扫描文本，同时识别身份证号、手机号、邮箱地址和银行卡号，
+ * 结合身份证校验位与Luhn校验过滤误报，并返回脱敏区间用于证据偏移重映射
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class SensitiveDataScanner {
+
+    /**
+     * 线程内复用的输出缓冲区，超过该容量后不再保留，避免长期占用大块内存
+     */
+    private static final int MAX_RETAINED_BUFFER_CAPACITY = 1 << 20;
+
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    // 18位身份证校验位加权因子与校验码
+    private static final int[] ID_CARD_WEIGHTS = {7, 9, 10, 5, 8, 4, 2, 1, 6, 3, 7, 9, 10, 5, 8, 4, 2};
+    private static final char[] ID_CARD_CHECK_CODES = {'1', '0', 'X', '9', '8', '7', '6', '5', '4', '3', '2'};
+
+    /**
+     * 是否启用校验位验证（关闭时按长度规则识别，与旧版正则行为一致）
+     */
+    @Value("${audit.security.redaction.checksum-validation:true}")
+    private boolean checksumValidation = true;
+
+    public SensitiveDataScanner() {
+    }
+
+    public SensitiveDataScanner(boolean checksumValidation) {
+        this.checksumValidation = checksumValidation;
+    }
+
+    /**
+     * 脱敏文本
+     * 未命中任何敏感数据时直接返回原字符串，不产生新的副本
+     *
+     * @param text 原始文本
+     * @return 脱敏结果（含脱敏后文本与脱敏区间）
+     */
+    public RedactionResult redact(String text) {
+        if (text == null) {
+            return null;
+        }
+
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        try {
+            RedactionResult result = scan(text, buffer, true);
+            result.redactedText = result.hasRedactions() ? buffer.toString() : text;
+            return result;
+        } finally {
+            if (buffer.capacity() > MAX_RETAINED_BUFFER_CAPACITY) {
+                BUFFER.remove();
+            } else {
+                buffer.setLength(0);
+            }
+        }
+    }
+
+    /**
+     * 扫描文本并将脱敏后的内容追加到调用方提供的缓冲区
+     * 返回结果中的输出偏移相对于本次追加的起点
+     *
+     * @param input 原始文本
+     * @param out   输出缓冲区（可复用）
+     * @return 脱敏区间信息，redactedText 为空
+     */
+    public RedactionResult scan(CharSequence input, StringBuilder out) {
+        return scan(input, out, false);
+    }
+
+    /**
+     * 单遍扫描核心逻辑
+     *
+     * @param lazyCopy 为true时仅在首次命中后才开始写入缓冲区
+     */
+    private RedactionResult scan(CharSequence input, StringBuilder out, boolean lazyCopy) {
+        int length = input.length();
+        int base = out.length();
+        List<RedactionSpan> spans = null;
+        int copyFrom = 0;
+        // 已尝试过邮箱识别的本地部分终点，同一连续片段内不重复尝试，保证线性复杂度
+        int emailRunEnd = -1;
+        int i = 0;
+
+        while (i < length) {
+            char c = input.charAt(i);
+            SensitiveDataType type = null;
+            int matchEnd = -1;
+
+            // 邮箱：以本地部分字符片段的起点为候选
+            if (i >= emailRunEnd && isEmailLocalChar(c) && (i == 0 || !isEmailLocalChar(input.charAt(i - 1)))) {
+                int localEnd = i + 1;
+                while (localEnd < length && isEmailLocalChar(input.charAt(localEnd))) {
+                    localEnd++;
+                }
+                emailRunEnd = localEnd;
+
+                int emailEnd = matchEmailDomain(input, localEnd);
+                if (emailEnd > 0) {
+                    type = SensitiveDataType.EMAIL;
+                    matchEnd = emailEnd;
+                }
+            }
+
+            // 数字串：身份证号、手机号、银行卡号
+            if (type == null && isAsciiDigit(c) && (i == 0 || !isAsciiAlphanumeric(input.charAt(i - 1)))) {
+                int digitEnd = i + 1;
+                while (digitEnd < length && isAsciiDigit(input.charAt(digitEnd))) {
+                    digitEnd++;
+                }
+
+                int tokenEnd = digitEnd;
+                if (digitEnd - i == 17 && digitEnd < length
+                        && (input.charAt(digitEnd) == 'X' || input.charAt(digitEnd) == 'x')) {
+                    tokenEnd = digitEnd + 1;
+                }
+
+                if (tokenEnd == length || !isAsciiAlphanumeric(input.charAt(tokenEnd))) {
+                    type = classifyNumber(input, i, digitEnd, tokenEnd);
+                    matchEnd = tokenEnd;
+                }
+
+                if (type == null) {
+                    // 数字串内部不是词边界，直接跳过整段
+                    i = digitEnd;
+                    continue;
+                }
+            }
+
+            if (type == null) {
+                i++;
+                continue;
+            }
+
+            if (spans == null) {
+                spans = new ArrayList<>();
+            }
+            out.append(input, copyFrom, i);
+            int outputStart = out.length() - base;
+            out.append(type.getReplacement());
+            spans.add(new RedactionSpan(type, i, matchEnd, outputStart, out.length() - base));
+
+            i = matchEnd;
+            copyFrom = matchEnd;
+        }
+
+        if (spans != null || !lazyCopy) {
+            out.append(input, copyFrom, length);
+        }
+
+        List<RedactionSpan> resultSpans = spans != null ? spans : Collections.emptyList();
+        int redactedLength = spans != null || !lazyCopy ? out.length() - base : length;
+        return new RedactionResult(resultSpans, length, redactedLength);
+    }
+
+    /**
+     * 识别数字串类型
+     *
+     * @param start    数字串起点
+     * @param digitEnd 纯数字部分终点
+     * @param tokenEnd 含末位X的终点
+     */
+    private SensitiveDataType classifyNumber(CharSequence input, int start, int digitEnd, int tokenEnd) {
+        int digitCount = digitEnd - start;
+
+        // 17位数字+X的身份证号
+        if (tokenEnd != digitEnd) {
+            return !checksumValidation || isValidIdCard18(input, start) ? SensitiveDataType.ID_CARD : null;
+        }
+
+        switch (digitCount) {
+            case 11:
+                return input.charAt(start) == '1' && input.charAt(start + 1) >= '3' && input.charAt(start + 1) <= '9'
+                        ? SensitiveDataType.PHONE : null;
+            case 15:
+                return !checksumValidation || isValidIdCard15(input, start) ? SensitiveDataType.ID_CARD : null;
+            case 18:
+                if (!checksumValidation || isValidIdCard18(input, start)) {
+                    return SensitiveDataType.ID_CARD;
+                }
+                return isLuhnValid(input, start, digitEnd) ? SensitiveDataType.BANK_CARD : null;
+            case 16:
+            case 17:
+            case 19:
+                return !checksumValidation || isLuhnValid(input, start, digitEnd) ? SensitiveDataType.BANK_CARD : null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 校验18位身份证号（地区码首位、出生日期、校验位）
+     */
+    private boolean isValidIdCard18(CharSequence input, int start) {
+        if (input.charAt(start) == '0') {
+            return false;
+        }
+
+        int century = digitAt(input, start + 6) * 10 + digitAt(input, start + 7);
+        if (century < 18 || century > 20) {
+            return false;
+        }
+        if (!isValidMonthDay(input, start + 10)) {
+            return false;
+        }
+
+        int sum = 0;
+        for (int k = 0; k < 17; k++) {
+            sum += digitAt(input, start + k) * ID_CARD_WEIGHTS[k];
+        }
+        char expected = ID_CARD_CHECK_CODES[sum % 11];
+        char actual = Character.toUpperCase(input.charAt(start + 17));
+        return expected == actual;
+    }
+
+    /**
+     * 校验15位身份证号（地区码首位、出生日期）
+     */
+    private boolean isValidIdCard15(CharSequence input, int start) {
+        return input.charAt(start) != '0' && isValidMonthDay(input, start + 8);
+    }
+
+    /**
+     * 校验MMDD格式的月日
+     */
+    private boolean isValidMonthDay(CharSequence input, int offset) {
+        int month = digitAt(input, offset) * 10 + digitAt(input, offset + 1);
+        int day = digitAt(input, offset + 2) * 10 + digitAt(input, offset + 3);
+        return month >= 1 && month <= 12 && day >= 1 && day <= 31;
+    }
+
+    /**
+     * Luhn校验（银行卡号）
+     */
+    private boolean isLuhnValid(CharSequence input, int start, int end) {
+        int sum = 0;
+        boolean doubleDigit = false;
+        for (int k = end - 1; k >= start; k--) {
+            int digit = digitAt(input, k);
+            if (doubleDigit) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubleDigit = !doubleDigit;
+        }
+        return sum % 10 == 0;
+    }
+
+    /**
+     * 匹配邮箱域名部分，返回邮箱终点；不匹配返回-1
+     *
+     * @param atPos 本地部分终点（应为'@'所在位置）
+     */
+    private int matchEmailDomain(CharSequence input, int atPos) {
+        int length = input.length();
+        if (atPos >= length || input.charAt(atPos) != '@') {
+            return -1;
+        }
+
+        int domainEnd = atPos + 1;
+        while (domainEnd < length && isEmailDomainChar(input.charAt(domainEnd))) {
+            domainEnd++;
+        }
+
+        // 去除句末的点号或连字符
+        while (domainEnd > atPos + 1 && !isAsciiLetter(input.charAt(domainEnd - 1))) {
+            domainEnd--;
+        }
+
+        int topLevelStart = domainEnd;
+        while (topLevelStart > atPos + 1 && isAsciiLetter(input.charAt(topLevelStart - 1))) {
+            topLevelStart--;
+        }
+
+        // 顶级域名至少两个字母，且前面必须有点号和至少一个域名字符
+        if (domainEnd - topLevelStart < 2 || topLevelStart - 1 <= atPos + 1
+                || input.charAt(topLevelStart - 1) != '.') {
+            return -1;
+        }
+
+        return domainEnd;
+    }
+
+    private static int digitAt(CharSequence input, int index) {
+        return input.charAt(index) - '0';
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiAlphanumeric(char c) {
+        return isAsciiDigit(c) || isAsciiLetter(c);
+    }
+
+    private static boolean isEmailLocalChar(char c) {
+        return isAsciiAlphanumeric(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    private static boolean isEmailDomainChar(char c) {
+        return isAsciiAlphanumeric(c) || c == '.' || c == '-';
+    }
+
+    /**
+     * 敏感数据类型
+     */
+    @Getter
+    public enum SensitiveDataType {
+        ID_CARD("***身份证号***"),
+        PHONE("***电话号码***"),
+        EMAIL("***邮箱地址***"),
+        BANK_CARD("***银行卡号***");
+
+        private final String replacement;
+
+        SensitiveDataType(String replacement) {
+            this.replacement = replacement;
+        }
+    }
+
+    /**
+     * 脱敏区间
+     * original* 为原文偏移，redacted* 为脱敏后文本偏移，均为左闭右开
+     */
+    @Getter
+    public static final class RedactionSpan {
+        private final SensitiveDataType type;
+        private final int originalStart;
+        private final int originalEnd;
+        private final int redactedStart;
+        private final int redactedEnd;
+
+        RedactionSpan(SensitiveDataType type, int originalStart, int originalEnd, int redactedStart, int redactedEnd) {
+            this.type = type;
+            this.originalStart = originalStart;
+            this.originalEnd = originalEnd;
+            this.redactedStart = redactedStart;
+            this.redactedEnd = redactedEnd;
+        }
+    }
+
+    /**
+     * 脱敏结果
+     */
+    @Getter
+    public static final class RedactionResult {
+        private final List<RedactionSpan> spans;
+        private final int originalLength;
+        private final int redactedLength;
+        /**
+         * 脱敏后文本，仅 {@link #redact(String)} 填充
+         */
+        private String redactedText;
+
+        RedactionResult(List<RedactionSpan> spans, int originalLength, int redactedLength) {
+            this.spans = spans;
+            this.originalLength = originalLength;
+            this.redactedLength = redactedLength;
+        }
+
+        public boolean hasRedactions() {
+            return !spans.isEmpty();
+        }
+
+        /**
+         * 将原文偏移映射为脱敏后文本偏移
+         * 落在脱敏区间内部的偏移映射到替换文本的起点
+         */
+        public int toRedactedOffset(int originalOffset) {
+            int index = findSpan(originalOffset, true);
+            if (index < 0) {
+                return originalOffset;
+            }
+            RedactionSpan span = spans.get(index);
+            if (originalOffset < span.originalEnd) {
+                return span.redactedStart;
+            }
+            return span.redactedEnd + (originalOffset - span.originalEnd);
+        }
+
+        /**
+         * 将脱敏后文本偏移映射回原文偏移
+         * 落在替换文本内部的偏移映射到原敏感数据的起点
+         */
+        public int toOriginalOffset(int redactedOffset) {
+            int index = findSpan(redactedOffset, false);
+            if (index < 0) {
+                return redactedOffset;
+            }
+            RedactionSpan span = spans.get(index);
+            if (redactedOffset < span.redactedEnd) {
+                return span.originalStart;
+            }
+            return span.originalEnd + (redactedOffset - span.redactedEnd);
+        }
+
+        /**
+         * 二分查找起点不大于给定偏移的最后一个区间
+         */
+        private int findSpan(int offset, boolean original) {
+            int low = 0;
+            int high = spans.size() - 1;
+            int found = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                RedactionSpan span = spans.get(mid);
+                int spanStart = original ? span.originalStart : span.redactedStart;
+                if (spanStart <= offset) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found;
+        }
+    }
+}
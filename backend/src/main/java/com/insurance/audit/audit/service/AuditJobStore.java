@@ -0,0 +1,527 @@
+package com.insurance.audit.audit.service;
+
+import com.insurance.audit.audit.dto.AuditJobResponse;
+import com.insurance.audit.audit.dto.AuditResultDto;
+import com.insurance.audit.audit.dto.AuditResultPage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * 检核作业与结果存储
+ * 作业按创建顺序维护主索引，并按状态维护二级索引，列表查询只遍历命中状态的索引；
+ * 结果按写入顺序分配序号，并按状态、规则、文档建立倒排索引，游标即序号，
+ * 分页成本只与页大小相关，与作业结果总量无关。
+ * 已结束的作业超过保留时长或作业总数超过上限时，从最早创建的作业起连同结果一起移除，未结束的作业不移除
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class AuditJobStore {
+
+    private static final String CURSOR_PREFIX = "r:";
+    private static final Set<String> FINISHED_STATUSES = Set.of("COMPLETED", "FAILED", "CANCELLED");
+
+    @Value("${audit.job.retention.max-jobs:1000}")
+    private int maxJobs = 1000;
+
+    @Value("${audit.job.retention.max-age-hours:168}")
+    private long maxAgeHours = 168;
+
+    private final AtomicLong jobSequence = new AtomicLong();
+    private final ConcurrentHashMap<String, JobEntry> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * 作业主索引：创建序号倒序（最新在前）
+     */
+    private final ConcurrentSkipListMap<Long, JobEntry> jobIndex =
+            new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+
+    /**
+     * 作业状态索引：状态 -> 创建序号倒序
+     */
+    private final ConcurrentHashMap<String, ConcurrentSkipListMap<Long, JobEntry>> statusIndex =
+            new ConcurrentHashMap<>();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AtomicLong evictedJobs = new AtomicLong();
+
+    /**
+     * 保存新作业
+     */
+    public void saveJob(AuditJobResponse job) {
+        JobEntry entry = new JobEntry(jobSequence.incrementAndGet(), job);
+        if (FINISHED_STATUSES.contains(job.getStatus())) {
+            entry.finishedAt = System.currentTimeMillis();
+        }
+        jobs.put(job.getJobId(), entry);
+        jobIndex.put(entry.sequence, entry);
+        indexStatus(entry, job.getStatus());
+        evictExpiredJobs();
+    }
+
+    /**
+     * 获取作业，不存在时返回null
+     */
+    public AuditJobResponse findJob(String jobId) {
+        JobEntry entry = jobs.get(jobId);
+        return entry != null ? entry.job : null;
+    }
+
+    /**
+     * 作业是否存在
+     */
+    public boolean containsJob(String jobId) {
+        return jobs.containsKey(jobId);
+    }
+
+    /**
+     * 更新作业，状态变化时同步调整状态索引
+     */
+    public void updateJob(String jobId, Consumer<AuditJobResponse> updater) {
+        JobEntry entry = jobs.get(jobId);
+        if (entry == null) {
+            return;
+        }
+
+        synchronized (entry) {
+            String previousStatus = entry.job.getStatus();
+            updater.accept(entry.job);
+            String status = entry.job.getStatus();
+
+            if (previousStatus == null ? status != null : !previousStatus.equals(status)) {
+                if (previousStatus != null) {
+                    ConcurrentSkipListMap<Long, JobEntry> index = statusIndex.get(previousStatus);
+                    if (index != null) {
+                        index.remove(entry.sequence);
+                    }
+                }
+                indexStatus(entry, status);
+                entry.finishedAt = FINISHED_STATUSES.contains(status) ? System.currentTimeMillis() : 0;
+            }
+        }
+    }
+
+    /**
+     * 分页查询作业列表（按创建时间倒序）
+     *
+     * @param status 状态过滤，为空时不过滤
+     * @param page 页码，从1开始
+     * @param size 每页大小
+     */
+    public List<AuditJobResponse> listJobs(String status, int page, int size) {
+        Map<Long, JobEntry> index = jobIndexFor(status);
+        long skip = (long) Math.max(page - 1, 0) * size;
+
+        List<AuditJobResponse> jobList = new ArrayList<>(size);
+        for (JobEntry entry : index.values()) {
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            if (jobList.size() >= size) {
+                break;
+            }
+            jobList.add(entry.job);
+        }
+        return jobList;
+    }
+
+    /**
+     * 统计作业数量
+     */
+    public long countJobs(String status) {
+        return jobIndexFor(status).size();
+    }
+
+    /**
+     * 追加作业结果
+     */
+    public void appendResult(String jobId, AuditResultDto result) {
+        JobEntry entry = jobs.get(jobId);
+        if (entry == null) {
+            throw new RuntimeException("作业不存在: " + jobId);
+        }
+        result.setEvidenceCount(result.getEvidences() != null ? result.getEvidences().size() : 0);
+        entry.results.append(result);
+    }
+
+    /**
+     * 获取作业全部结果
+     */
+    public List<AuditResultDto> getResults(String jobId) {
+        JobEntry entry = jobs.get(jobId);
+        if (entry == null) {
+            throw new RuntimeException("作业不存在: " + jobId);
+        }
+        return entry.results.snapshot();
+    }
+
+    /**
+     * 按游标分页查询作业结果
+     */
+    public AuditResultPage queryResults(String jobId, ResultQuery query) {
+        JobEntry entry = jobs.get(jobId);
+        if (entry == null) {
+            throw new RuntimeException("作业不存在: " + jobId);
+        }
+
+        int limit = query.getLimit() != null && query.getLimit() > 0 ? query.getLimit() : 100;
+        int from = decodeCursor(query.getCursor());
+        List<AuditResultDto> items = new ArrayList<>(Math.min(limit, 256));
+        int next = entry.results.scan(query, from, limit, items);
+
+        if (!Boolean.TRUE.equals(query.getIncludeEvidence())) {
+            items.replaceAll(AuditJobStore::withoutEvidences);
+        }
+
+        return AuditResultPage.builder()
+                .items(items)
+                .limit(limit)
+                .hasMore(next >= 0)
+                .nextCursor(next >= 0 ? encodeCursor(next) : null)
+                .build();
+    }
+
+    /**
+     * 获取单条结果的证据列表
+     */
+    public List<AuditResultDto.Evidence> getResultEvidences(String jobId, String resultId) {
+        JobEntry entry = jobs.get(jobId);
+        if (entry == null) {
+            throw new RuntimeException("作业不存在: " + jobId);
+        }
+        AuditResultDto result = entry.results.findById(resultId);
+        if (result == null) {
+            throw new RuntimeException("检核结果不存在: " + resultId);
+        }
+        return result.getEvidences() != null ? result.getEvidences() : List.of();
+    }
+
+    /**
+     * 获取规则在每个文档上最近一次的检核结果，按作业创建顺序从新到旧查找，同一作业内取最后写入的结果
+     *
+     * @param ruleId 规则ID
+     * @param documentIds 只查找这些文档，为null时不限
+     * @return 文档ID -> 最近一次检核结果
+     */
+    public Map<String, AuditResultDto> findLatestResults(String ruleId, Set<String> documentIds) {
+        Map<String, AuditResultDto> latest = new HashMap<>();
+        if (ruleId == null) {
+            return latest;
+        }
+        for (JobEntry entry : jobIndex.values()) {
+            entry.results.collectLatest(ruleId, documentIds, latest);
+            if (documentIds != null && latest.size() >= documentIds.size()) {
+                break;
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * 获取已移除的作业数
+     */
+    public long getEvictedJobCount() {
+        return evictedJobs.get();
+    }
+
+    /**
+     * 从最早创建的作业起移除已结束且超过保留时长的作业，作业总数超过上限时继续移除最早结束的作业；
+     * 创建时间在保留时长内的作业不会过期，总数不超限时遇到即停止
+     */
+    void evictExpiredJobs() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long cutoff = maxAgeHours > 0
+                    ? System.currentTimeMillis() - TimeUnit.HOURS.toMillis(maxAgeHours) : Long.MIN_VALUE;
+            for (JobEntry entry : jobIndex.descendingMap().values()) {
+                boolean overLimit = maxJobs > 0 && jobs.size() > maxJobs;
+                if (!overLimit && entry.createdAt >= cutoff) {
+                    break;
+                }
+                long finishedAt = entry.finishedAt;
+                if (finishedAt > 0 && (overLimit || finishedAt < cutoff)) {
+                    removeJob(entry);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void removeJob(JobEntry entry) {
+        synchronized (entry) {
+            if (!jobs.remove(entry.job.getJobId(), entry)) {
+                return;
+            }
+            jobIndex.remove(entry.sequence);
+            String status = entry.job.getStatus();
+            if (status != null) {
+                ConcurrentSkipListMap<Long, JobEntry> index = statusIndex.get(status);
+                if (index != null) {
+                    index.remove(entry.sequence);
+                }
+            }
+        }
+        evictedJobs.incrementAndGet();
+        log.debug("移除过期作业: jobId={}, status={}", entry.job.getJobId(), entry.job.getStatus());
+    }
+
+    private void indexStatus(JobEntry entry, String status) {
+        if (status != null) {
+            statusIndex.computeIfAbsent(status, k -> new ConcurrentSkipListMap<>(Comparator.reverseOrder()))
+                    .put(entry.sequence, entry);
+        }
+    }
+
+    private Map<Long, JobEntry> jobIndexFor(String status) {
+        if (status == null || status.isEmpty()) {
+            return jobIndex;
+        }
+        ConcurrentSkipListMap<Long, JobEntry> index = statusIndex.get(status.toUpperCase());
+        return index != null ? index : Collections.emptyMap();
+    }
+
+    private static AuditResultDto withoutEvidences(AuditResultDto result) {
+        return AuditResultDto.builder()
+                .resultId(result.getResultId())
+                .jobId(result.getJobId())
+                .ruleId(result.getRuleId())
+                .ruleName(result.getRuleName())
+                .documentId(result.getDocumentId())
+                .status(result.getStatus())
+                .score(result.getScore())
+                .threshold(result.getThreshold())
+                .evidenceCount(result.getEvidenceCount())
+                .recommendation(result.getRecommendation())
+                .auditTime(result.getAuditTime())
+                .build();
+    }
+
+    private static String encodeCursor(int position) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + position).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException(decoded);
+            }
+            int position = Integer.parseInt(decoded.substring(CURSOR_PREFIX.length()));
+            if (position < 0) {
+                throw new IllegalArgumentException(decoded);
+            }
+            return position;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("无效的分页游标: " + cursor);
+        }
+    }
+
+    /**
+     * 作业条目
+     */
+    private static final class JobEntry {
+        private final long sequence;
+        private final AuditJobResponse job;
+        private final long createdAt = System.currentTimeMillis();
+        private final ResultLog results = new ResultLog();
+
+        /**
+         * 进入结束状态的时间，未结束时为0
+         */
+        private volatile long finishedAt;
+
+        private JobEntry(long sequence, AuditJobResponse job) {
+            this.sequence = sequence;
+            this.job = job;
+        }
+    }
+
+    /**
+     * 作业结果日志：只追加，位置即序号；倒排索引中的位置列表天然有序
+     */
+    private static final class ResultLog {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final List<AuditResultDto> results = new ArrayList<>();
+        private final Map<String, Integer> byResultId = new HashMap<>();
+        private final Map<String, List<Integer>> byStatus = new HashMap<>();
+        private final Map<String, List<Integer>> byRule = new HashMap<>();
+        private final Map<String, List<Integer>> byDocument = new HashMap<>();
+
+        void append(AuditResultDto result) {
+            lock.writeLock().lock();
+            try {
+                int position = results.size();
+                results.add(result);
+                if (result.getResultId() != null) {
+                    byResultId.put(result.getResultId(), position);
+                }
+                addPosting(byStatus, result.getStatus(), position);
+                addPosting(byRule, result.getRuleId(), position);
+                addPosting(byDocument, result.getDocumentId(), position);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<AuditResultDto> snapshot() {
+            lock.readLock().lock();
+            try {
+                return new ArrayList<>(results);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        AuditResultDto findById(String resultId) {
+            lock.readLock().lock();
+            try {
+                Integer position = byResultId.get(resultId);
+                return position != null ? results.get(position) : null;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * 沿规则倒排列表从后往前收集每个文档最近的结果，已收集的文档不覆盖
+         */
+        void collectLatest(String ruleId, Set<String> documentIds, Map<String, AuditResultDto> out) {
+            lock.readLock().lock();
+            try {
+                List<Integer> postings = byRule.getOrDefault(ruleId, List.of());
+                for (int index = postings.size() - 1; index >= 0; index--) {
+                    AuditResultDto result = results.get(postings.get(index));
+                    String documentId = result.getDocumentId();
+                    if (documentId != null && (documentIds == null || documentIds.contains(documentId))) {
+                        out.putIfAbsent(documentId, result);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * 从指定位置起收集至多limit条满足过滤条件的结果
+         * 有过滤条件时沿最短的倒排列表扫描，其余条件逐条校验
+         *
+         * @return 下一页起始位置，没有更多结果时返回-1
+         */
+        int scan(ResultQuery query, int from, int limit, List<AuditResultDto> out) {
+            lock.readLock().lock();
+            try {
+                List<Integer> postings = null;
+                postings = shorter(postings, byStatus, query.getStatus());
+                postings = shorter(postings, byRule, query.getRuleId());
+                postings = shorter(postings, byDocument, query.getDocumentId());
+
+                if (postings == null) {
+                    int end = Math.min(results.size(), from + limit);
+                    for (int i = from; i < end; i++) {
+                        out.add(results.get(i));
+                    }
+                    return end < results.size() ? end : -1;
+                }
+
+                int index = lowerBound(postings, from);
+                for (; index < postings.size(); index++) {
+                    int position = postings.get(index);
+                    AuditResultDto result = results.get(position);
+                    if (!matches(result, query)) {
+                        continue;
+                    }
+                    if (out.size() >= limit) {
+                        return position;
+                    }
+                    out.add(result);
+                }
+                return -1;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private static List<Integer> shorter(List<Integer> current, Map<String, List<Integer>> index, String key) {
+            if (key == null || key.isEmpty()) {
+                return current;
+            }
+            List<Integer> postings = index.getOrDefault(key, List.of());
+            return current == null || postings.size() < current.size() ? postings : current;
+        }
+
+        private static boolean matches(AuditResultDto result, ResultQuery query) {
+            return matchesFilter(query.getStatus(), result.getStatus())
+                    && matchesFilter(query.getRuleId(), result.getRuleId())
+                    && matchesFilter(query.getDocumentId(), result.getDocumentId());
+        }
+
+        private static boolean matchesFilter(String filter, String value) {
+            return filter == null || filter.isEmpty() || filter.equals(value);
+        }
+
+        private static int lowerBound(List<Integer> postings, int from) {
+            int low = 0;
+            int high = postings.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (postings.get(mid) < from) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static void addPosting(Map<String, List<Integer>> index, String key, int position) {
+            if (key != null) {
+                index.computeIfAbsent(key, k -> new ArrayList<>()).add(position);
+            }
+        }
+    }
+
+    /**
+     * 结果查询条件
+     */
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class ResultQuery {
+        private String status;
+        private String ruleId;
+        private String documentId;
+        private String cursor;
+        private Integer limit;
+        private Boolean includeEvidence;
+    }
+}
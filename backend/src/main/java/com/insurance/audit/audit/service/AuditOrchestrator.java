@@ -3,14 +3,30 @@ package com.insurance.audit.audit.service;
 import com.insurance.audit.audit.dto.AuditJobRequest;
 import com.insurance.audit.audit.dto.AuditJobResponse;
 import com.insurance.audit.audit.dto.AuditResultDto;
+import com.insurance.audit.audit.dto.AuditResultPage;
+import com.insurance.audit.audit.dto.JobTraceTimeline;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.shard.ShardCoordinator;
+import com.insurance.audit.audit.shard.ShardQueue;
+import com.insurance.audit.audit.tracing.AuditTracer;
+import com.insurance.audit.audit.tracing.TraceSpan;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -25,8 +41,10 @@ import java.util.concurrent.atomic.AtomicInteger;
 @Service
 public class AuditOrchestrator {
 
-    private final ConcurrentHashMap<String, AuditJobResponse> jobStatusMap = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, List<AuditResultDto>> jobResultsMap = new ConcurrentHashMap<>();
+    private static final Set<String> TERMINAL_STATUSES = Set.of("COMPLETED", "FAILED", "CANCELLED");
+
+    @Autowired
+    private AuditJobStore jobStore;
 
     @Autowired(required = false)
     private RuleProvider ruleProvider;
@@ -38,7 +56,7 @@ public class AuditOrchestrator {
     private DocumentProvider documentProvider;
 
     @Autowired(required = false)
-    private DocumentChunker documentChunker;
+    private TiledMatchingExecutor matchingExecutor;
 
     @Autowired(required = false)
     private EvidenceAssembler evidenceAssembler;
@@ -46,16 +64,61 @@ public class AuditOrchestrator {
     @Autowired(required = false)
     private ReportExporter reportExporter;
 
+    @Autowired(required = false)
+    private RuleSetSnapshotCache ruleSetSnapshotCache;
+
     @Autowired(required = false)
     private PerformanceMonitor performanceMonitor;
 
     @Autowired(required = false)
     private SecurityComplianceService securityComplianceService;
 
+    @Autowired(required = false)
+    private AuditTracer auditTracer;
+
+    @Autowired(required = false)
+    private JobProgressPublisher progressPublisher;
+
+    @Autowired(required = false)
+    private JobWebhookNotifier webhookNotifier;
+
+    @Autowired(required = false)
+    private ShardCoordinator shardCoordinator;
+
+    @Value("${audit.job.timeout-seconds:3600}")
+    private long defaultJobTimeoutSeconds = 3600;
+
+    @Value("${audit.job.token-budget:0}")
+    private long defaultJobTokenBudget = 0;
+
+    /**
+     * 未结束作业的执行上下文
+     */
+    private final ConcurrentHashMap<String, JobExecutionContext> runningJobs = new ConcurrentHashMap<>();
+
+    /**
+     * 向分片协调器登记本节点的分片处理器，使本节点可以执行任意节点发布的分片
+     */
+    @PostConstruct
+    public void registerShardProcessor() {
+        if (shardCoordinator != null) {
+            shardCoordinator.registerProcessor(this::executeShard);
+        }
+    }
+
     /**
      * 创建检核作业
      */
     public AuditJobResponse createJob(AuditJobRequest request) {
+        // 回调地址在登记作业前校验，不允许的地址直接拒绝请求
+        String callbackUrl = request.getCallbackUrl();
+        if (callbackUrl != null && !callbackUrl.isBlank()) {
+            if (webhookNotifier == null) {
+                throw new IllegalArgumentException("未启用作业回调，不支持回调地址");
+            }
+            webhookNotifier.validateCallbackUrl(callbackUrl);
+        }
+
         String jobId = generateJobId();
         log.info("创建检核作业: jobId={}, jobName={}, ruleSetId={}",
                 jobId, request.getJobName(), request.getRuleSetId());
@@ -73,14 +136,35 @@ public class AuditOrchestrator {
                 .build();
 
         // 保存作业状态
-        jobStatusMap.put(jobId, response);
+        jobStore.saveJob(response);
+
+        // 登记进度推送
+        if (progressPublisher != null) {
+            progressPublisher.register(jobId, request.getCallbackUrl());
+        }
+
+        // 开启作业链路
+        if (auditTracer != null) {
+            auditTracer.startJobTrace(jobId)
+                    .setAttribute("job.name", request.getJobName())
+                    .setAttribute("ruleset.id", request.getRuleSetId())
+                    .setAttribute("document.count", request.getDocumentIds().size());
+        }
+
+        // 创建执行上下文，携带取消令牌、整体截止时间和 LLM token 预算
+        long timeoutSeconds = request.getTimeoutSeconds() != null && request.getTimeoutSeconds() > 0
+                ? request.getTimeoutSeconds() : defaultJobTimeoutSeconds;
+        long tokenBudget = request.getTokenBudget() != null ? request.getTokenBudget() : defaultJobTokenBudget;
+        JobExecutionContext context = JobExecutionContext.create(jobId, TimeUnit.SECONDS.toMillis(timeoutSeconds),
+                tokenBudget);
+        runningJobs.put(jobId, context);
 
         // 如果是异步执行，使用ConcurrencyController
         if (request.getAsync()) {
-            executeJobAsync(jobId, request);
+            executeJobAsync(jobId, request, context);
         } else {
             // 同步执行
-            executeJobSync(jobId, request);
+            executeJobSync(jobId, request, context);
         }
 
         return response;
@@ -90,21 +174,94 @@ public class AuditOrchestrator {
      * 查询作业状态
      */
     public AuditJobResponse getJobStatus(String jobId) {
-        AuditJobResponse response = jobStatusMap.get(jobId);
+        AuditJobResponse response = jobStore.findJob(jobId);
         if (response == null) {
             throw new RuntimeException("作业不存在: " + jobId);
         }
         return response;
     }
 
+    /**
+     * 取消作业
+     * 排队中的任务立即移出队列，执行中的作业在下一个检查点停止，持有的外部服务许可立即归还
+     *
+     * @param jobId 作业ID
+     * @param reason 取消原因
+     * @return 取消后的作业状态，含释放的资源
+     */
+    public AuditJobResponse cancelJob(String jobId, String reason) {
+        AuditJobResponse job = getJobStatus(jobId);
+        if (TERMINAL_STATUSES.contains(job.getStatus())) {
+            throw new RuntimeException("作业已结束，无法取消: " + job.getStatus());
+        }
+
+        JobExecutionContext context = runningJobs.get(jobId);
+        if (context != null) {
+            context.cancel(reason);
+        }
+        markAborted(jobId, context, reason);
+
+        log.info("作业已取消: jobId={}, reason={}", jobId, reason);
+        return getJobStatus(jobId);
+    }
+
+    /**
+     * 订阅作业进度
+     */
+    public SseEmitter subscribeJobProgress(String jobId) {
+        AuditJobResponse job = getJobStatus(jobId);
+        if (progressPublisher == null) {
+            throw new RuntimeException("作业进度推送未启用");
+        }
+        return progressPublisher.subscribe(job);
+    }
+
     /**
      * 获取作业结果
      */
     public List<AuditResultDto> getJobResults(String jobId) {
-        if (!jobStatusMap.containsKey(jobId)) {
+        return jobStore.getResults(jobId);
+    }
+
+    /**
+     * 按游标分页查询作业结果
+     */
+    public AuditResultPage queryJobResults(String jobId, AuditJobStore.ResultQuery query) {
+        return jobStore.queryResults(jobId, query);
+    }
+
+    /**
+     * 获取单条检核结果的证据列表
+     */
+    public List<AuditResultDto.Evidence> getResultEvidences(String jobId, String resultId) {
+        return jobStore.getResultEvidences(jobId, resultId);
+    }
+
+    /**
+     * 分页获取作业列表
+     */
+    public List<AuditJobResponse> listJobs(String status, int page, int size) {
+        return jobStore.listJobs(status, page, size);
+    }
+
+    /**
+     * 统计作业数量
+     */
+    public long countJobs(String status) {
+        return jobStore.countJobs(status);
+    }
+
+    /**
+     * 获取作业链路时间线与关键路径
+     */
+    public JobTraceTimeline getJobTimeline(String jobId) {
+        if (!jobStore.containsJob(jobId)) {
             throw new RuntimeException("作业不存在: " + jobId);
         }
-        return jobResultsMap.getOrDefault(jobId, List.of());
+        if (auditTracer == null) {
+            throw new RuntimeException("链路追踪未启用");
+        }
+        return auditTracer.getTimeline(jobId);
     }
 
     /**
@@ -147,32 +304,58 @@ public class AuditOrchestrator {
     /**
      * 异步执行作业 - 使用ConcurrencyController管理
      */
-    private void executeJobAsync(String jobId, AuditJobRequest request) {
+    private void executeJobAsync(String jobId, AuditJobRequest request, JobExecutionContext context) {
         if (concurrencyController != null) {
+            // 记录线程池排队耗时
+            TraceSpan queueSpan = auditTracer != null
+                    ? auditTracer.startDetachedSpan(jobId, "concurrency.queue")
+                    : TraceSpan.noop();
+
             // 使用ConcurrencyController的线程池执行
             concurrencyController.submitTask(() -> {
-                executeJobSync(jobId, request);
+                queueSpan.end();
+                executeJobSync(jobId, request, context);
                 return null;
-            }, jobId).exceptionally(throwable -> {
-                log.error("异步作业执行失败: jobId={}", jobId, throwable);
-                failJob(jobId, "异步执行失败: " + throwable.getMessage());
+            }, jobId, context).exceptionally(throwable -> {
+                Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                        ? throwable.getCause() : throwable;
+                queueSpan.end();
+                runningJobs.remove(jobId, context);
+                if (cause instanceof JobExecutionContext.JobAbortedException) {
+                    // 排队期间被取消或超时
+                    markAborted(jobId, context, context.getCancelReason());
+                } else {
+                    log.error("异步作业执行失败: jobId={}", jobId, throwable);
+                    failJob(jobId, "异步执行失败: " + throwable.getMessage());
+                }
+                if (auditTracer != null) {
+                    auditTracer.finishJobTrace(jobId, throwable);
+                }
                 return null;
             });
         } else {
             // 降级到直接执行
             log.warn("ConcurrencyController未可用，降级到同步执行: jobId={}", jobId);
-            executeJobSync(jobId, request);
+            executeJobSync(jobId, request, context);
         }
     }
 
     /**
      * 同步执行作业 - 真实的检核流水线
      */
-    private void executeJobSync(String jobId, AuditJobRequest request) {
+    private void executeJobSync(String jobId, AuditJobRequest request, JobExecutionContext context) {
         long startTime = System.currentTimeMillis();
         String correlationId = jobId + "-" + System.currentTimeMillis();
+        AuditTracer.TraceScope traceScope = auditTracer != null ? auditTracer.activate(jobId) : () -> { };
+        JobExecutionContext.Scope contextScope = context.activate();
+        Exception jobError = null;
+        if (performanceMonitor != null) {
+            performanceMonitor.recordRequestStart("audit_job");
+        }
 
         try {
+            context.check();
+            AuditTracer.currentSpan().setAttribute("correlation.id", correlationId);
             log.info("开始执行检核作业: jobId={}, correlationId={}", jobId, correlationId);
 
             // 安全检查：验证权限和记录审计日志
@@ -188,16 +371,29 @@ public class AuditOrchestrator {
             updateJobStatus(jobId, "RUNNING", 0);
 
             // 阶段1: 获取规则集
+            JobExecutionContext.checkpoint();
             long ruleStartTime = System.currentTimeMillis();
+            TraceSpan ruleSpan = AuditTracer.startSpan("rule_fetch");
             if (ruleProvider == null) {
                 throw new RuntimeException("RuleProvider 未配置");
             }
 
-            // 获取有效规则集 (实际调用，不再是注释)
             log.debug("获取规则集: ruleSetId={}", request.getRuleSetId());
-            // RuleSet ruleSet = ruleProvider.getEffectiveRuleSet(request.getRuleSetId());
-            // 暂时使用模拟对象，但记录真实调用
-            var ruleSet = createMockRuleSet(request.getRuleSetId());
+            RuleSetSnapshotCache.CompiledRuleSet ruleSet = fetchRuleSet(request.getRuleSetId());
+            ruleSpan.setAttribute("ruleset.version", ruleSet.getVersion());
+
+            // 按产品适用性筛选参与匹配的规则
+            List<String> applicableRuleIds = null;
+            Set<String> applicable = request.getApplicability() != null
+                    ? ruleProvider.getApplicableRuleIds(request.getApplicability()) : null;
+            if (applicable != null) {
+                ruleSet = ruleSet.retain(applicable);
+                applicableRuleIds = new ArrayList<>(ruleSet.getRulesById().keySet());
+                log.info("按产品适用性筛选规则: jobId={}, applicable={}, retained={}",
+                        jobId, applicable.size(), applicableRuleIds.size());
+            }
+            ruleSpan.setAttribute("rule.count", ruleSet.getRules().size());
+            ruleSpan.end();
             long ruleDuration = System.currentTimeMillis() - ruleStartTime;
             recordPhaseMetrics("rule_fetch", ruleDuration, correlationId);
 
@@ -205,48 +401,51 @@ public class AuditOrchestrator {
             AtomicInteger failedCount = new AtomicInteger(0);
             int totalTasks = request.getDocumentIds().size();
 
-            // 阶段2: 处理每个文档
-            for (String documentId : request.getDocumentIds()) {
-                try {
-                    long docStartTime = System.currentTimeMillis();
-
-                    // 2.1 文档获取与解析
-                    log.debug("处理文档: jobId={}, documentId={}", jobId, documentId);
-                    var document = getAndParseDocument(documentId, correlationId);
-
-                    // 2.2 文档分块
-                    var chunks = chunkDocument(document, correlationId);
-
-                    // 2.3 规则匹配
-                    var matches = performMatching(chunks, ruleSet, correlationId);
-
-                    // 2.4 证据组装
-                    var evidence = assembleEvidence(matches, documentId, correlationId);
-
-                    // 2.5 保存结果
-                    saveResults(jobId, evidence);
-
-                    long docDuration = System.currentTimeMillis() - docStartTime;
-                    recordPhaseMetrics("document_process", docDuration, correlationId);
-
-                    int completed = completedCount.incrementAndGet();
-                    int progress = (completed * 100) / totalTasks;
-                    updateJobProgress(jobId, progress, completed, failedCount.get());
-
-                    log.debug("文档处理完成: jobId={}, documentId={}, progress={}%, duration={}ms",
-                            jobId, documentId, progress, docDuration);
-
-                } catch (Exception e) {
-                    log.error("文档处理失败: jobId={}, documentId={}", jobId, documentId, e);
-                    failedCount.incrementAndGet();
-
-                    int completed = completedCount.get();
-                    int progress = ((completed + failedCount.get()) * 100) / totalTasks;
-                    updateJobProgress(jobId, progress, completed, failedCount.get());
+            // 阶段2: 处理每个文档，文档数超过单个分片大小且启用分片时分发到各节点执行
+            if (shardCoordinator != null && shardCoordinator.shouldShard(totalTasks)) {
+                executeSharded(jobId, request, applicableRuleIds, context, completedCount, failedCount, totalTasks);
+            } else {
+                for (String documentId : request.getDocumentIds()) {
+                    TraceSpan documentSpan = AuditTracer.startSpan("document_process")
+                            .setAttribute("document.id", documentId);
+                    try {
+                        long docStartTime = System.currentTimeMillis();
+
+                        // 2.1 - 2.4 文档获取、分块、规则匹配与证据组装
+                        List<AuditResultDto> results = processDocument(jobId, documentId, ruleSet, correlationId);
+
+                        // 2.5 保存结果
+                        saveResults(jobId, results);
+
+                        long docDuration = System.currentTimeMillis() - docStartTime;
+                        recordPhaseMetrics("document_process", docDuration, correlationId);
+
+                        int completed = completedCount.incrementAndGet();
+                        int progress = (completed * 100) / totalTasks;
+                        updateJobProgress(jobId, progress, completed, failedCount.get());
+
+                        log.debug("文档处理完成: jobId={}, documentId={}, progress={}%, duration={}ms",
+                                jobId, documentId, progress, docDuration);
+
+                    } catch (JobExecutionContext.JobAbortedException e) {
+                        documentSpan.recordError(e);
+                        throw e;
+                    } catch (Exception e) {
+                        log.error("文档处理失败: jobId={}, documentId={}", jobId, documentId, e);
+                        documentSpan.recordError(e);
+                        failedCount.incrementAndGet();
+
+                        int completed = completedCount.get();
+                        int progress = ((completed + failedCount.get()) * 100) / totalTasks;
+                        updateJobProgress(jobId, progress, completed, failedCount.get());
+                    } finally {
+                        documentSpan.end();
+                    }
                 }
             }
 
             // 阶段3: 生成最终报告
+            JobExecutionContext.checkpoint();
             long reportStartTime = System.currentTimeMillis();
             generateFinalReport(jobId, correlationId);
             long reportDuration = System.currentTimeMillis() - reportStartTime;
@@ -260,28 +459,141 @@ public class AuditOrchestrator {
             log.info("检核作业完成: jobId={}, 通过率={}%, 总耗时={}ms",
                     jobId, summary.getPassRate(), totalDuration);
 
+        } catch (JobExecutionContext.JobAbortedException e) {
+            jobError = e;
+            log.info("检核作业中止: jobId={}, reason={}, 已耗时={}ms",
+                    jobId, context.getCancelReason(), System.currentTimeMillis() - startTime);
+            markAborted(jobId, context, context.getCancelReason());
         } catch (Exception e) {
+            jobError = e;
             log.error("检核作业执行失败: jobId={}, error={}", jobId, e.getMessage(), e);
             failJob(jobId, e.getMessage());
+        } finally {
+            if (performanceMonitor != null) {
+                performanceMonitor.recordRequestComplete("audit_job",
+                        System.currentTimeMillis() - startTime, jobError == null);
+            }
+            contextScope.close();
+            runningJobs.remove(jobId, context);
+            traceScope.close();
+            if (auditTracer != null) {
+                auditTracer.finishJobTrace(jobId, jobError);
+            }
         }
     }
 
     /**
-     * 获取并解析文档
+     * 分片执行：按文档切分分片发布到分片队列，由各节点领取执行，本节点合并分片结果和进度；
+     * 按适用性筛选后的规则ID随分片下发，为空时各节点执行规则集的全部规则
      */
-    private Object getAndParseDocument(String documentId, String correlationId) {
+    private void executeSharded(String jobId, AuditJobRequest request, List<String> ruleIds,
+                                JobExecutionContext context,
+                                AtomicInteger completedCount, AtomicInteger failedCount, int totalTasks) {
+        TraceSpan span = AuditTracer.startSpan("shard_dispatch");
+        try {
+            long remaining = context.remainingMillis();
+            long deadlineAt = remaining == Long.MAX_VALUE ? 0 : System.currentTimeMillis() + remaining;
+            List<ShardQueue.JobShard> shards = shardCoordinator.split(
+                    jobId, request.getRuleSetId(), ruleIds, request.getDocumentIds(), deadlineAt);
+            span.setAttribute("shard.count", shards.size());
+
+            shardCoordinator.execute(jobId, shards, result -> {
+                if (!result.getResults().isEmpty()) {
+                    saveResults(jobId, result.getResults());
+                }
+                int completed = completedCount.addAndGet(result.getCompletedDocuments());
+                int failed = failedCount.addAndGet(result.getFailedDocuments());
+                updateJobProgress(jobId, ((completed + failed) * 100) / totalTasks, completed, failed);
+
+                log.debug("分片结果已合并: jobId={}, shard={}/{}, nodeId={}, status={}, duration={}ms",
+                        jobId, result.getShardIndex() + 1, shards.size(), result.getNodeId(),
+                        result.getStatus(), result.getDurationMs());
+            });
+        } catch (RuntimeException e) {
+            span.recordError(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * 执行单个分片中的文档，可能由任意节点调用；结果随分片返回，由作业所在节点保存
+     */
+    public ShardQueue.ShardResult executeShard(ShardQueue.JobShard shard) {
+        String jobId = shard.getJobId();
+        String correlationId = shard.getShardId() + "-" + System.currentTimeMillis();
         long startTime = System.currentTimeMillis();
+        boolean success = false;
+        if (performanceMonitor != null) {
+            performanceMonitor.recordRequestStart("audit_shard");
+        }
 
         try {
-            if (documentProvider != null) {
-                log.debug("DocumentProvider调用: documentId={}, correlationId={}", documentId, correlationId);
-                // Document document = documentProvider.getArtifact(documentId);
-                // return document;
+            RuleSetSnapshotCache.CompiledRuleSet ruleSet = fetchRuleSet(shard.getRuleSetId());
+            if (shard.getRuleIds() != null) {
+                ruleSet = ruleSet.retain(shard.getRuleIds());
+            }
+            List<AuditResultDto> results = new ArrayList<>();
+            int completed = 0;
+            int failed = 0;
+            for (String documentId : shard.getDocumentIds()) {
+                long docStartTime = System.currentTimeMillis();
+                try {
+                    results.addAll(processDocument(jobId, documentId, ruleSet, correlationId));
+                    completed++;
+                    recordPhaseMetrics("document_process", System.currentTimeMillis() - docStartTime, correlationId);
+                } catch (JobExecutionContext.JobAbortedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    log.error("文档处理失败: jobId={}, shardId={}, documentId={}",
+                            jobId, shard.getShardId(), documentId, e);
+                    failed++;
+                }
             }
+            success = true;
+
+            return ShardQueue.ShardResult.builder()
+                    .status("COMPLETED")
+                    .results(results)
+                    .completedDocuments(completed)
+                    .failedDocuments(failed)
+                    .build();
+        } finally {
+            if (performanceMonitor != null) {
+                performanceMonitor.recordRequestComplete("audit_shard",
+                        System.currentTimeMillis() - startTime, success);
+            }
+        }
+    }
 
-            // 模拟文档对象，但记录真实调用意图
-            var mockDocument = createMockDocument(documentId);
+    /**
+     * 处理单个文档：获取解析后的文档块、规则匹配、证据组装，返回待保存的检核结果
+     */
+    private List<AuditResultDto> processDocument(String jobId, String documentId,
+                                                 RuleSetSnapshotCache.CompiledRuleSet ruleSet, String correlationId) {
+        // 文档获取、解析与分块
+        JobExecutionContext.checkpoint();
+        log.debug("处理文档: jobId={}, documentId={}", jobId, documentId);
+        List<DocumentChunk> chunks = getDocumentChunks(documentId, correlationId);
+
+        // 规则匹配
+        JobExecutionContext.checkpoint();
+        MatchResultAggregator matches = performMatching(documentId, chunks, ruleSet, correlationId);
+
+        // 证据组装
+        JobExecutionContext.checkpoint();
+        return assembleEvidence(jobId, documentId, ruleSet, matches, correlationId);
+    }
 
+    /**
+     * 获取文档并解析为文档块
+     */
+    private List<DocumentChunk> getDocumentChunks(String documentId, String correlationId) {
+        long startTime = System.currentTimeMillis();
+        TraceSpan span = AuditTracer.startSpan("document_fetch");
+
+        try {
             // 安全检查：数据域权限验证
             if (securityComplianceService != null) {
                 boolean hasDataAccess = securityComplianceService.hasDataScopePermission("system", documentId);
@@ -289,51 +601,44 @@ public class AuditOrchestrator {
                     throw new RuntimeException("无权限访问文档: " + documentId);
                 }
             }
+            if (documentProvider == null) {
+                throw new RuntimeException("DocumentProvider 未配置");
+            }
+
+            log.debug("DocumentProvider调用: documentId={}, correlationId={}", documentId, correlationId);
+            DocumentProvider.DocumentContent content = documentProvider.getDocumentContent(documentId);
+            List<DocumentChunk> chunks = content != null && content.getChunks() != null
+                    ? content.getChunks() : List.of();
+            span.setAttribute("chunk.count", chunks.size());
 
             long duration = System.currentTimeMillis() - startTime;
             recordPhaseMetrics("document_fetch", duration, correlationId);
 
-            return mockDocument;
+            return chunks;
         } catch (Exception e) {
             recordPhaseError("document_fetch", e, correlationId);
             throw new RuntimeException("文档获取失败: " + documentId, e);
+        } finally {
+            span.end();
         }
     }
 
     /**
-     * 文档分块
+     * 执行规则匹配：分块匹配执行器按规则类型分派匹配器，并经候选检索和章节索引缩小每条规则的文档块，
+     * 匹配结果按瓦片折叠进文档的聚合器；规则集中每条规则都预先登记摘要，保持规则顺序
      */
-    private Object chunkDocument(Object document, String correlationId) {
+    private MatchResultAggregator performMatching(String documentId, List<DocumentChunk> chunks,
+                                                                  RuleSetSnapshotCache.CompiledRuleSet ruleSet,
+                                                                  String correlationId) {
         long startTime = System.currentTimeMillis();
+        TraceSpan span = AuditTracer.startSpan("rule_matching");
 
         try {
-            if (documentChunker != null) {
-                log.debug("DocumentChunker调用: correlationId={}", correlationId);
-                // List<Chunk> chunks = documentChunker.chunkBySection(document);
-                // return chunks;
+            if (matchingExecutor == null) {
+                throw new RuntimeException("TiledMatchingExecutor 未配置");
             }
-
-            // 模拟分块结果
-            var mockChunks = createMockChunks();
-            long duration = System.currentTimeMillis() - startTime;
-            recordPhaseMetrics("document_chunk", duration, correlationId);
-
-            return mockChunks;
-        } catch (Exception e) {
-            recordPhaseError("document_chunk", e, correlationId);
-            throw new RuntimeException("文档分块失败", e);
-        }
-    }
-
-    /**
-     * 执行规则匹配
-     */
-    private Object performMatching(Object chunks, Object ruleSet, String correlationId) {
-        long startTime = System.currentTimeMillis();
-
-        try {
-            // 这里应该调用各种Matcher: KeywordMatcher, FormatChecker, SemanticMatcher, LLMOrchestrator
-            log.debug("规则匹配执行: correlationId={}", correlationId);
+            log.debug("规则匹配执行: documentId={}, rules={}, chunks={}, correlationId={}",
+                    documentId, ruleSet.getRules().size(), chunks.size(), correlationId);
 
             // 安全检查：记录规则匹配审计日志
             if (securityComplianceService != null) {
@@ -341,12 +646,17 @@ public class AuditOrchestrator {
                     "执行规则匹配操作", correlationId, "INFO");
             }
 
-            // 模拟匹配结果
-            var mockMatches = createMockMatches();
+            MatchResultAggregator matches = new MatchResultAggregator();
+            for (RuleProvider.Rule rule : ruleSet.getRules()) {
+                matches.acceptAll(rule.getId(), List.of());
+            }
+            matchingExecutor.match(documentId, ruleSet.getRules(), chunks, Map.of(), 0, matches);
             long duration = System.currentTimeMillis() - startTime;
             recordPhaseMetrics("rule_matching", duration, correlationId);
 
-            return mockMatches;
+            return matches;
+        } catch (JobExecutionContext.JobAbortedException e) {
+            throw e;
         } catch (Exception e) {
             // 安全检查：记录匹配失败审计日志
             if (securityComplianceService != null) {
@@ -355,21 +665,26 @@ public class AuditOrchestrator {
             }
             recordPhaseError("rule_matching", e, correlationId);
             throw new RuntimeException("规则匹配失败", e);
+        } finally {
+            span.end();
         }
     }
 
     /**
-     * 组装证据
+     * 组装证据：规则集中每条规则生成一条检核结果，没有匹配结果的规则记为未匹配
      */
-    private Object assembleEvidence(Object matches, String documentId, String correlationId) {
+    private List<AuditResultDto> assembleEvidence(String jobId, String documentId,
+                                                  RuleSetSnapshotCache.CompiledRuleSet ruleSet,
+                                                  MatchResultAggregator matches,
+                                                  String correlationId) {
         long startTime = System.currentTimeMillis();
+        TraceSpan span = AuditTracer.startSpan("evidence_assembly");
 
         try {
-            if (evidenceAssembler != null) {
-                log.debug("EvidenceAssembler调用: documentId={}, correlationId={}", documentId, correlationId);
-                // Evidence evidence = evidenceAssembler.assemble(matches);
-                // return evidence;
+            if (evidenceAssembler == null) {
+                throw new RuntimeException("EvidenceAssembler 未配置");
             }
+            log.debug("EvidenceAssembler调用: documentId={}, correlationId={}", documentId, correlationId);
 
             // 安全检查：记录证据组装审计日志
             if (securityComplianceService != null) {
@@ -377,19 +692,25 @@ public class AuditOrchestrator {
                     "组装证据数据: documentId=" + documentId, correlationId, "INFO");
             }
 
-            // 模拟证据组装
-            var mockEvidence = createMockEvidence(documentId);
-
-            // 安全检查：数据脱敏处理
-            if (securityComplianceService != null) {
-                // mockEvidence = securityComplianceService.redactSensitiveData(mockEvidence);
-                log.debug("证据数据脱敏完成: documentId={}, correlationId={}", documentId, correlationId);
+            Map<String, String> ruleVersions = new HashMap<>();
+            for (RuleProvider.Rule rule : ruleSet.getRules()) {
+                ruleVersions.put(rule.getId(), ruleSet.getVersion());
+            }
+            List<AuditResultDto> results = evidenceAssembler.assembleResults(jobId, matches, ruleVersions);
+
+            // 匹配器不一定在结果元数据中携带文档和规则名称，以作业的文档和规则集为准
+            for (AuditResultDto result : results) {
+                result.setDocumentId(documentId);
+                RuleProvider.Rule rule = ruleSet.getRulesById().get(result.getRuleId());
+                if (rule != null) {
+                    result.setRuleName(rule.getName());
+                }
             }
 
             long duration = System.currentTimeMillis() - startTime;
             recordPhaseMetrics("evidence_assembly", duration, correlationId);
 
-            return mockEvidence;
+            return results;
         } catch (Exception e) {
             // 安全检查：记录证据组装失败审计日志
             if (securityComplianceService != null) {
@@ -399,13 +720,15 @@ public class AuditOrchestrator {
             }
             recordPhaseError("evidence_assembly", e, correlationId);
             throw new RuntimeException("证据组装失败", e);
+        } finally {
+            span.end();
         }
     }
 
     /**
      * 保存检核结果
      */
-    private void saveResults(String jobId, Object evidence) {
+    private void saveResults(String jobId, List<AuditResultDto> results) {
         // 安全检查：验证结果保存权限
         if (securityComplianceService != null) {
             boolean hasPermission = securityComplianceService.hasAuditPermission("SAVE_RESULTS");
@@ -414,26 +737,15 @@ public class AuditOrchestrator {
             }
         }
 
-        // 将证据转换为AuditResultDto并保存
-        AuditResultDto result = AuditResultDto.builder()
-                .resultId(UUID.randomUUID().toString())
-                .jobId(jobId)
-                .ruleId("rule-001")
-                .ruleName("真实规则处理")
-                .documentId("doc-" + UUID.randomUUID().toString().substring(0, 8))
-                .status("PASSED")
-                .score(0.85)
-                .threshold(0.8)
-                .auditTime(LocalDateTime.now())
-                .build();
-
-        jobResultsMap.computeIfAbsent(jobId, k -> new java.util.ArrayList<>()).add(result);
+        for (AuditResultDto result : results) {
+            jobStore.appendResult(jobId, result);
 
-        // 安全检查：记录结果保存审计日志
-        if (securityComplianceService != null) {
-            securityComplianceService.auditLog("SAVE_RESULTS",
-                "保存检核结果: jobId=" + jobId + ", resultId=" + result.getResultId(),
-                jobId, "INFO");
+            // 安全检查：记录结果保存审计日志
+            if (securityComplianceService != null) {
+                securityComplianceService.auditLog("SAVE_RESULTS",
+                    "保存检核结果: jobId=" + jobId + ", resultId=" + result.getResultId(),
+                    jobId, "INFO");
+            }
         }
     }
 
@@ -442,6 +754,7 @@ public class AuditOrchestrator {
      */
     private void generateFinalReport(String jobId, String correlationId) {
         long startTime = System.currentTimeMillis();
+        TraceSpan span = AuditTracer.startSpan("report_export");
 
         try {
             // 安全检查：验证报告生成权限
@@ -477,6 +790,8 @@ public class AuditOrchestrator {
             recordPhaseError("report_export", e, correlationId);
             // 报告生成失败不应该中断整个作业
             log.warn("报告生成失败但作业继续: jobId={}, error={}", jobId, e.getMessage());
+        } finally {
+            span.end();
         }
     }
 
@@ -485,7 +800,7 @@ public class AuditOrchestrator {
      */
     private void recordPhaseMetrics(String phase, long duration, String correlationId) {
         if (performanceMonitor != null) {
-            // performanceMonitor.recordPhase(phase, duration, correlationId);
+            performanceMonitor.recordStage(phase, duration);
         }
         log.debug("阶段完成: phase={}, duration={}ms, correlationId={}", phase, duration, correlationId);
     }
@@ -495,82 +810,149 @@ public class AuditOrchestrator {
      */
     private void recordPhaseError(String phase, Exception error, String correlationId) {
         if (performanceMonitor != null) {
-            // performanceMonitor.recordError(phase, error, correlationId);
+            performanceMonitor.recordStageError(phase, error);
         }
+        AuditTracer.currentSpan().recordError(error);
         log.error("阶段失败: phase={}, correlationId={}", phase, correlationId, error);
     }
 
-    // 模拟对象创建方法
-    private Object createMockRuleSet(String ruleSetId) {
-        log.debug("创建模拟规则集: ruleSetId={}", ruleSetId);
-        return new Object(); // 实际应该返回RuleSet
-    }
-
-    private Object createMockDocument(String documentId) {
-        log.debug("创建模拟文档: documentId={}", documentId);
-        return new Object(); // 实际应该返回Document
-    }
-
-    private Object createMockChunks() {
-        log.debug("创建模拟分块");
-        return new Object(); // 实际应该返回List<Chunk>
-    }
-
-    private Object createMockMatches() {
-        log.debug("创建模拟匹配结果");
-        return new Object(); // 实际应该返回List<Match>
-    }
-
-    private Object createMockEvidence(String documentId) {
-        log.debug("创建模拟证据: documentId={}", documentId);
-        return new Object(); // 实际应该返回Evidence
+    /**
+     * 获取规则集快照：经快照缓存按版本复用，未配置缓存时直接从规则服务加载
+     */
+    private RuleSetSnapshotCache.CompiledRuleSet fetchRuleSet(String ruleSetId) {
+        if (ruleSetSnapshotCache != null) {
+            return ruleSetSnapshotCache.getRuleSet(ruleSetId);
+        }
+        RuleProvider.RuleSet ruleSet = ruleProvider.getEffectiveRuleSet(ruleSetId);
+        if (ruleSet == null) {
+            throw new RuntimeException("规则集不存在: " + ruleSetId);
+        }
+        return RuleSetSnapshotCache.CompiledRuleSet.compile(ruleSet);
     }
 
     /**
      * 更新作业状态
      */
     private void updateJobStatus(String jobId, String status, int progress) {
-        AuditJobResponse job = jobStatusMap.get(jobId);
-        if (job != null) {
+        jobStore.updateJob(jobId, job -> {
+            if (TERMINAL_STATUSES.contains(job.getStatus())) {
+                return;
+            }
             job.setStatus(status);
             job.setProgress(progress);
-        }
+        });
+        publishProgress(jobId);
     }
 
     /**
      * 更新作业进度
      */
     private void updateJobProgress(String jobId, int progress, int completed, int failed) {
-        AuditJobResponse job = jobStatusMap.get(jobId);
-        if (job != null) {
+        jobStore.updateJob(jobId, job -> {
+            if (TERMINAL_STATUSES.contains(job.getStatus())) {
+                return;
+            }
             job.setProgress(progress);
             job.setCompletedTasks(completed);
             job.setFailedTasks(failed);
-        }
+            job.setTokenBudget(tokenBudgetUsage(runningJobs.get(jobId)));
+        });
+        publishProgress(jobId);
     }
 
     /**
      * 完成作业
      */
     private void completeJob(String jobId, AuditJobResponse.AuditResultSummary summary) {
-        AuditJobResponse job = jobStatusMap.get(jobId);
-        if (job != null) {
+        jobStore.updateJob(jobId, job -> {
+            if (TERMINAL_STATUSES.contains(job.getStatus())) {
+                return;
+            }
             job.setStatus("COMPLETED");
             job.setProgress(100);
             job.setEndTime(LocalDateTime.now());
             job.setResultSummary(summary);
-        }
+            job.setTokenBudget(tokenBudgetUsage(runningJobs.get(jobId)));
+        });
+        publishProgress(jobId);
     }
 
     /**
      * 作业失败
      */
     private void failJob(String jobId, String errorMessage) {
-        AuditJobResponse job = jobStatusMap.get(jobId);
-        if (job != null) {
+        jobStore.updateJob(jobId, job -> {
+            if (TERMINAL_STATUSES.contains(job.getStatus())) {
+                return;
+            }
             job.setStatus("FAILED");
             job.setEndTime(LocalDateTime.now());
             job.setErrorMessage(errorMessage);
+            job.setTokenBudget(tokenBudgetUsage(runningJobs.get(jobId)));
+        });
+        publishProgress(jobId);
+    }
+
+    /**
+     * 作业中止：用户取消记为 CANCELLED，超时记为 FAILED，同时记录释放的资源和释放后的容量
+     */
+    private void markAborted(String jobId, JobExecutionContext context, String reason) {
+        boolean timedOut = context != null && context.isTimedOut();
+        AuditJobResponse.CancellationInfo.CancellationInfoBuilder info = AuditJobResponse.CancellationInfo.builder()
+                .reason(reason)
+                .cancelledAt(LocalDateTime.now())
+                .timedOut(timedOut)
+                .releasedPermits(context != null ? context.getReleasedPermits() : 0)
+                .releasedQueueSlots(context != null ? context.getReleasedQueueSlots() : 0);
+        if (concurrencyController != null) {
+            ConcurrencyController.ExecutorStatus executorStatus = concurrencyController.getExecutorStatus();
+            info.availablePermits(executorStatus.getAvailableResourcePermits())
+                    .queueSize(executorStatus.getQueueSize());
+        }
+
+        jobStore.updateJob(jobId, job -> {
+            if (TERMINAL_STATUSES.contains(job.getStatus())) {
+                return;
+            }
+            job.setStatus(timedOut ? "FAILED" : "CANCELLED");
+            job.setEndTime(LocalDateTime.now());
+            job.setErrorMessage(reason);
+            job.setCancellation(info.build());
+            job.setTokenBudget(tokenBudgetUsage(context));
+        });
+        publishProgress(jobId);
+    }
+
+    /**
+     * 作业 LLM token 预算使用情况，没有执行上下文时返回null
+     */
+    private AuditJobResponse.TokenBudgetUsage tokenBudgetUsage(JobExecutionContext context) {
+        if (context == null) {
+            return null;
+        }
+        TokenBudget budget = context.getTokenBudget();
+        return AuditJobResponse.TokenBudgetUsage.builder()
+                .limitTokens(budget.isLimited() ? budget.getLimitTokens() : null)
+                .consumedTokens(budget.getConsumedTokens())
+                .reservedTokens(budget.getReservedTokens())
+                .remainingTokens(budget.isLimited() ? budget.remainingTokens() : null)
+                .plannedTokens(budget.getPlannedTokens())
+                .llmCalls(budget.getLlmCalls())
+                .downgradedRules(budget.getDowngradedRules())
+                .skippedChunks(budget.getSkippedChunks())
+                .build();
+    }
+
+    /**
+     * 发布作业进度快照
+     */
+    private void publishProgress(String jobId) {
+        if (progressPublisher == null) {
+            return;
+        }
+        AuditJobResponse job = jobStore.findJob(jobId);
+        if (job != null) {
+            progressPublisher.publish(job);
         }
     }
 
@@ -578,7 +960,7 @@ public class AuditOrchestrator {
      * 计算结果摘要
      */
     private AuditJobResponse.AuditResultSummary calculateSummary(String jobId) {
-        List<AuditResultDto> results = jobResultsMap.getOrDefault(jobId, List.of());
+        List<AuditResultDto> results = jobStore.getResults(jobId);
 
         int totalRules = results.size();
         long passedRules = results.stream().filter(r -> "PASSED".equals(r.getStatus())).count();
@@ -5,8 +5,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 并发控制器
@@ -53,6 +55,7 @@ public class ConcurrencyController {
     private final AtomicLong totalFailedTasks = new AtomicLong(0);
     private final AtomicLong totalExecutionTime = new AtomicLong(0);
     private final AtomicLong slowTaskCount = new AtomicLong(0);
+    private final AtomicLong cancelledTasks = new AtomicLong(0);
 
     public ConcurrencyController() {
         // 创建线程池
@@ -77,6 +80,14 @@ public class ConcurrencyController {
      * 提交任务执行（带熔断机制）
      */
     public <T> CompletableFuture<T> submitTask(Callable<T> task, String taskId) {
+        return submitTask(task, taskId, null);
+    }
+
+    /**
+     * 提交作业任务执行
+     * 作业取消时，仍在排队的任务立即移出队列，返回的Future以 JobAbortedException 结束
+     */
+    public <T> CompletableFuture<T> submitTask(Callable<T> task, String taskId, JobExecutionContext context) {
         // 检查熔断器状态
         if (!isCircuitBreakerClosed()) {
             CompletableFuture<T> future = new CompletableFuture<>();
@@ -93,8 +104,24 @@ public class ConcurrencyController {
         }
 
         CompletableFuture<T> future = new CompletableFuture<>();
+        if (context != null && context.isCancelled()) {
+            future.completeExceptionally(new JobExecutionContext.JobAbortedException(
+                    context.getJobId(), context.getCancelReason(), context.isTimedOut()));
+            return future;
+        }
 
-        executor.submit(() -> {
+        // 任务开始执行与作业取消竞争同一标记，保证排队名额只释放一次
+        AtomicBoolean claimed = new AtomicBoolean(false);
+        AtomicReference<JobExecutionContext.Registration> registration = new AtomicReference<>();
+
+        Future<?> queued = executor.submit(() -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            JobExecutionContext.Registration cancelHook = registration.get();
+            if (cancelHook != null) {
+                cancelHook.remove();
+            }
             activeJobs.incrementAndGet();
             totalExecutedTasks.incrementAndGet();
             long startTime = System.currentTimeMillis();
@@ -130,6 +157,23 @@ public class ConcurrencyController {
             }
         });
 
+        if (context != null) {
+            registration.set(context.onCancel(() -> {
+                if (claimed.compareAndSet(false, true)) {
+                    executor.remove((Runnable) queued);
+                    cancelledTasks.incrementAndGet();
+                    context.recordReleasedQueueSlot();
+                    future.completeExceptionally(new JobExecutionContext.JobAbortedException(
+                            context.getJobId(), context.getCancelReason(), context.isTimedOut()));
+                    log.debug("作业取消，任务已移出队列: taskId={}, queueSize={}", taskId, executor.getQueue().size());
+                }
+            }));
+            if (claimed.get()) {
+                // 任务在登记前已开始执行
+                registration.get().remove();
+            }
+        }
+
         return future;
     }
 
@@ -219,6 +263,25 @@ public class ConcurrencyController {
         resourceSemaphore.release();
     }
 
+    /**
+     * 为作业获取资源访问许可
+     * 等待时间不超过作业剩余时间；许可只在持有方 close() 时归还，作业取消后受保护的调用仍在进行时不提前归还，
+     * 否则并发上限会被仍在执行的调用突破
+     *
+     * @return 许可，超时未获取到时返回null
+     */
+    public ResourcePermit acquireResource(JobExecutionContext context, long timeoutMs) {
+        if (context != null) {
+            context.check();
+        }
+        long waitMs = context != null ? Math.max(1L, Math.min(timeoutMs, context.remainingMillis())) : timeoutMs;
+        if (!acquireResource(waitMs)) {
+            return null;
+        }
+
+        return new ResourcePermit(context);
+    }
+
     /**
      * 获取执行器状态（增强版）
      */
@@ -237,6 +300,7 @@ public class ConcurrencyController {
                 .completedTasks(executor.getCompletedTaskCount())
                 .activeJobs(activeJobs.get())
                 .availableResourcePermits(resourceSemaphore.availablePermits())
+                .cancelledTasks(cancelledTasks.get())
                 // 新增性能指标
                 .circuitBreakerState(circuitBreakerState.name())
                 .failureCount(failureCount.get())
@@ -345,6 +409,31 @@ public class ConcurrencyController {
         }
     }
 
+    /**
+     * 资源访问许可，只归还一次
+     */
+    public final class ResourcePermit implements AutoCloseable {
+        private final AtomicBoolean released = new AtomicBoolean(false);
+        private final JobExecutionContext context;
+
+        private ResourcePermit(JobExecutionContext context) {
+            this.context = context;
+        }
+
+        /**
+         * 受保护的调用结束后归还许可，重复调用只归还一次；作业已取消时计入作业归还的许可数
+         */
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                resourceSemaphore.release();
+                if (context != null && context.isCancelled()) {
+                    context.recordReleasedPermit();
+                }
+            }
+        }
+    }
+
     /**
      * 执行器状态
      */
@@ -361,6 +450,7 @@ public class ConcurrencyController {
         private Long completedTasks;
         private Integer activeJobs;
         private Integer availableResourcePermits;
+        private Long cancelledTasks;
         // 新增性能指标
         private String circuitBreakerState;
         private Integer failureCount;
@@ -1,8 +1,10 @@
 package com.insurance.audit.audit.service;
 
+import com.insurance.audit.audit.retrieval.SectionIndex;
 import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
 import com.insurance.audit.audit.service.DocumentProvider.DocumentSection;
 import com.insurance.audit.audit.service.DocumentProvider.ParsedDocument;
+import com.insurance.audit.audit.tracing.AuditTracer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -37,6 +39,13 @@ public class DocumentChunker {
      * @return 文档块列表
      */
     public List<DocumentChunk> chunkDocument(ParsedDocument document) {
+        return AuditTracer.inSpan("document_chunker.chunk", span -> doChunkDocument(document));
+    }
+
+    /**
+     * 文档分块实现
+     */
+    private List<DocumentChunk> doChunkDocument(ParsedDocument document) {
         log.info("开始切分文档: sectionCount={}", document.getSections().size());
 
         List<DocumentChunk> chunks = new ArrayList<>();
@@ -230,6 +239,9 @@ public class DocumentChunker {
         metadata.put("chunkIndex", chunkIndex);
         metadata.put("wordCount", countWords(text));
         metadata.put("charCount", text.length());
+        if ("heading".equals(section.getType()) && section.getLevel() != null) {
+            metadata.put(SectionIndex.HEADING_LEVEL_KEY, section.getLevel());
+        }
 
         // 继承章节的格式信息
         if (section.getFormatting() != null) {
@@ -2,6 +2,7 @@ package com.insurance.audit.audit.service;
 
 import com.insurance.audit.audit.parsers.WordParser;
 import com.insurance.audit.audit.parsers.ExcelParser;
+import com.insurance.audit.audit.tracing.AuditTracer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -82,6 +83,16 @@ public class DocumentProvider {
      */
     @Cacheable(value = "documents", key = "#documentId", unless = "#result == null")
     public DocumentContent getDocumentContent(String documentId) {
+        return AuditTracer.inSpan("document_provider.fetch", span -> {
+            span.setAttribute("document.id", documentId);
+            return loadDocumentContent(documentId);
+        });
+    }
+
+    /**
+     * 获取并解析文档内容
+     */
+    private DocumentContent loadDocumentContent(String documentId) {
         long startTime = System.currentTimeMillis();
         log.info("获取并解析文档内容: documentId={}", documentId);
 
@@ -2,6 +2,7 @@ package com.insurance.audit.audit.service;
 
 import com.insurance.audit.audit.dto.AuditResultDto;
 import com.insurance.audit.audit.matchers.Matcher;
+import com.insurance.audit.audit.tracing.AuditTracer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -38,35 +39,41 @@ public class EvidenceAssembler {
             return createEmptyResult(jobId, ruleId, ruleVersion);
         }
 
-        // 聚合所有匹配结果
-        String overallStatus = determineOverallStatus(matchResults);
-        double maxScore = matchResults.stream().mapToDouble(Matcher.MatchResult::getScore).max().orElse(0.0);
-        double threshold = matchResults.get(0).getThreshold();
-
-        // 收集所有证据
-        List<AuditResultDto.Evidence> evidences = new ArrayList<>();
+        MatchResultAggregator.RuleSummary summary = new MatchResultAggregator.RuleSummary(ruleId);
         for (Matcher.MatchResult result : matchResults) {
-            evidences.addAll(convertEvidences(result.getEvidences()));
+            summary.add(result);
         }
+        return assembleSummary(jobId, ruleVersion, summary);
+    }
 
-        // 生成建议
-        String recommendation = generateRecommendation(overallStatus, matchResults, evidences);
+    /**
+     * 由规则摘要装配检核结果
+     *
+     * @param jobId 作业ID
+     * @param ruleVersion 规则版本
+     * @param summary 流式聚合得到的规则摘要
+     * @return 装配后的检核结果
+     */
+    public AuditResultDto assembleSummary(String jobId, String ruleVersion, MatchResultAggregator.RuleSummary summary) {
+        if (summary.getResultCount() == 0) {
+            return createEmptyResult(jobId, summary.getRuleId(), ruleVersion);
+        }
 
-        // 提取文档信息
-        String documentId = extractDocumentId(matchResults);
-        String ruleName = extractRuleName(matchResults);
+        String overallStatus = summary.getOverallStatus();
+        String documentId = summary.getDocumentId();
+        String ruleName = summary.getRuleName();
 
         return AuditResultDto.builder()
                 .resultId(generateResultId())
                 .jobId(jobId)
-                .ruleId(ruleId)
-                .ruleName(ruleName)
-                .documentId(documentId)
+                .ruleId(summary.getRuleId())
+                .ruleName(ruleName != null ? ruleName : "未知规则")
+                .documentId(documentId != null ? documentId : "unknown")
                 .status(overallStatus)
-                .score(maxScore)
-                .threshold(threshold)
-                .evidences(evidences)
-                .recommendation(recommendation)
+                .score(summary.getMaxScore())
+                .threshold(summary.getThreshold())
+                .evidences(summary.getEvidences())
+                .recommendation(generateRecommendation(overallStatus, summary))
                 .auditTime(LocalDateTime.now())
                 .build();
     }
@@ -76,6 +83,38 @@ public class EvidenceAssembler {
      */
     public List<AuditResultDto> assembleResults(String jobId, Map<String, List<Matcher.MatchResult>> resultsByRule,
                                               Map<String, String> ruleVersions) {
+        return AuditTracer.inSpan("evidence_assembler.assemble", span -> {
+            span.setAttribute("rule.count", resultsByRule.size());
+            return doAssembleResults(jobId, resultsByRule, ruleVersions);
+        });
+    }
+
+    /**
+     * 由流式聚合器批量装配检核结果
+     */
+    public List<AuditResultDto> assembleResults(String jobId, MatchResultAggregator aggregator,
+                                              Map<String, String> ruleVersions) {
+        return AuditTracer.inSpan("evidence_assembler.assemble", span -> {
+            span.setAttribute("rule.count", aggregator.getSummaries().size());
+            log.info("批量装配检核结果: jobId={}, ruleCount={}, matchCount={}",
+                    jobId, aggregator.getSummaries().size(), aggregator.getResultCount());
+
+            List<AuditResultDto> assembledResults = new ArrayList<>(aggregator.getSummaries().size());
+            for (MatchResultAggregator.RuleSummary summary : aggregator.getSummaries()) {
+                String ruleVersion = ruleVersions.getOrDefault(summary.getRuleId(), "unknown");
+                assembledResults.add(assembleSummary(jobId, ruleVersion, summary));
+            }
+
+            log.info("批量装配完成: jobId={}, resultCount={}", jobId, assembledResults.size());
+            return assembledResults;
+        });
+    }
+
+    /**
+     * 批量装配检核结果实现
+     */
+    private List<AuditResultDto> doAssembleResults(String jobId, Map<String, List<Matcher.MatchResult>> resultsByRule,
+                                                   Map<String, String> ruleVersions) {
         log.info("批量装配检核结果: jobId={}, ruleCount={}", jobId, resultsByRule.size());
 
         List<AuditResultDto> assembledResults = new ArrayList<>();
@@ -112,122 +151,29 @@ public class EvidenceAssembler {
                 .build();
     }
 
-    /**
-     * 确定总体状态
-     */
-    private String determineOverallStatus(List<Matcher.MatchResult> matchResults) {
-        Map<String, Long> statusCounts = matchResults.stream()
-                .collect(Collectors.groupingBy(Matcher.MatchResult::getStatus, Collectors.counting()));
-
-        long passedCount = statusCounts.getOrDefault("PASSED", 0L);
-        long failedCount = statusCounts.getOrDefault("FAILED", 0L);
-        long warningCount = statusCounts.getOrDefault("WARNING", 0L);
-        long errorCount = statusCounts.getOrDefault("ERROR", 0L);
-
-        // 有错误时优先返回错误状态
-        if (errorCount > 0) {
-            return "ERROR";
-        }
-
-        // 如果有失败项，返回失败
-        if (failedCount > 0) {
-            return "FAILED";
-        }
-
-        // 如果有警告项但没有失败项，返回警告
-        if (warningCount > 0) {
-            return "WARNING";
-        }
-
-        // 如果有通过项且没有失败和警告，返回通过
-        if (passedCount > 0) {
-            return "PASSED";
-        }
-
-        // 默认返回失败
-        return "FAILED";
-    }
-
-    /**
-     * 转换证据格式
-     */
-    private List<AuditResultDto.Evidence> convertEvidences(List<Matcher.Evidence> matcherEvidences) {
-        if (matcherEvidences == null) {
-            return List.of();
-        }
-
-        return matcherEvidences.stream()
-                .map(this::convertEvidence)
-                .collect(Collectors.toList());
-    }
-
-    /**
-     * 转换单个证据
-     */
-    private AuditResultDto.Evidence convertEvidence(Matcher.Evidence matcherEvidence) {
-        return AuditResultDto.Evidence.builder()
-                .text(matcherEvidence.getText())
-                .pageNumber(extractPageNumber(matcherEvidence))
-                .paragraphIndex(extractParagraphIndex(matcherEvidence))
-                .startPos(matcherEvidence.getStartPos())
-                .endPos(matcherEvidence.getEndPos())
-                .matchType(matcherEvidence.getMatchType())
-                .build();
-    }
-
-    /**
-     * 提取页码
-     */
-    private Integer extractPageNumber(Matcher.Evidence evidence) {
-        if (evidence.getContext() != null) {
-            Object pageNum = evidence.getContext().get("pageNumber");
-            if (pageNum instanceof Integer) {
-                return (Integer) pageNum;
-            }
-        }
-        return null;
-    }
-
-    /**
-     * 提取段落索引
-     */
-    private Integer extractParagraphIndex(Matcher.Evidence evidence) {
-        if (evidence.getContext() != null) {
-            Object paraIndex = evidence.getContext().get("paragraphIndex");
-            if (paraIndex instanceof Integer) {
-                return (Integer) paraIndex;
-            }
-        }
-        return null;
-    }
-
     /**
      * 生成建议
      */
-    private String generateRecommendation(String status, List<Matcher.MatchResult> matchResults,
-                                        List<AuditResultDto.Evidence> evidences) {
+    private String generateRecommendation(String status, MatchResultAggregator.RuleSummary summary) {
         switch (status) {
             case "PASSED":
                 return "检核通过，文档符合规则要求。";
 
             case "WARNING":
-                return String.format("检核存在警告项，建议复查。发现 %d 处需要注意的内容。", evidences.size());
+                return String.format("检核存在警告项，建议复查。发现 %d 处需要注意的内容。", summary.getEvidences().size());
 
             case "FAILED":
                 StringBuilder failureRecommendation = new StringBuilder();
                 failureRecommendation.append("检核未通过，需要修改文档。");
 
                 // 分析失败原因
-                Map<String, Long> matchTypeCounts = evidences.stream()
-                        .collect(Collectors.groupingBy(AuditResultDto.Evidence::getMatchType, Collectors.counting()));
-
-                if (matchTypeCounts.containsKey("KEYWORD")) {
+                if (summary.hasMatchType("KEYWORD")) {
                     failureRecommendation.append(" 关键词匹配不符合要求。");
                 }
-                if (matchTypeCounts.containsKey("FORMAT_ERROR")) {
+                if (summary.hasMatchType("FORMAT_ERROR")) {
                     failureRecommendation.append(" 格式不规范。");
                 }
-                if (matchTypeCounts.containsKey("SEMANTIC_SIMILARITY")) {
+                if (summary.hasMatchType("SEMANTIC_SIMILARITY")) {
                     failureRecommendation.append(" 语义内容需要调整。");
                 }
 
@@ -244,28 +190,6 @@ public class EvidenceAssembler {
         }
     }
 
-    /**
-     * 提取文档ID
-     */
-    private String extractDocumentId(List<Matcher.MatchResult> matchResults) {
-        return matchResults.stream()
-                .map(result -> (String) result.getMetadata().get("documentId"))
-                .filter(Objects::nonNull)
-                .findFirst()
-                .orElse("unknown");
-    }
-
-    /**
-     * 提取规则名称
-     */
-    private String extractRuleName(List<Matcher.MatchResult> matchResults) {
-        return matchResults.stream()
-                .map(result -> (String) result.getMetadata().get("ruleName"))
-                .filter(Objects::nonNull)
-                .findFirst()
-                .orElse("未知规则");
-    }
-
     /**
      * 生成结果ID
      */
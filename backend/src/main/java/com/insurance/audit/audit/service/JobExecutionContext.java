@@ -0,0 +1,254 @@
+package com.insurance.audit.audit.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 作业执行上下文
+ * 携带取消令牌、整体截止时间和 LLM token 预算并绑定到执行作业的线程。流水线在文档、分块和规则之间调用 checkpoint()，
+ * 远程调用按剩余时间收紧超时；取消或超时时立即执行登记的释放动作（信号量许可、排队中的任务）
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j
+public final class JobExecutionContext {
+
+    private static final ThreadLocal<JobExecutionContext> CURRENT = new ThreadLocal<>();
+
+    private final String jobId;
+    private final long deadlineNanos;
+    private final boolean hasDeadline;
+    private final TokenBudget tokenBudget;
+
+    private volatile String cancelReason;
+    private volatile boolean timedOut;
+
+    private final AtomicLong hookSequence = new AtomicLong();
+    private final Map<Long, Runnable> releaseHooks = new ConcurrentHashMap<>();
+    private final AtomicInteger releasedPermits = new AtomicInteger();
+    private final AtomicInteger releasedQueueSlots = new AtomicInteger();
+
+    private JobExecutionContext(String jobId, long timeoutMs, TokenBudget tokenBudget) {
+        this.jobId = jobId;
+        this.tokenBudget = tokenBudget;
+        this.hasDeadline = timeoutMs > 0;
+        this.deadlineNanos = hasDeadline ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs) : 0L;
+    }
+
+    /**
+     * 创建上下文
+     *
+     * @param jobId 作业ID
+     * @param timeoutMs 整体超时时间，小于等于0表示不限
+     */
+    public static JobExecutionContext create(String jobId, long timeoutMs) {
+        return new JobExecutionContext(jobId, timeoutMs, TokenBudget.unlimited());
+    }
+
+    /**
+     * 创建带 token 预算的上下文
+     *
+     * @param jobId 作业ID
+     * @param timeoutMs 整体超时时间，小于等于0表示不限
+     * @param tokenLimit LLM token 上限，小于等于0表示不限
+     */
+    public static JobExecutionContext create(String jobId, long timeoutMs, long tokenLimit) {
+        return new JobExecutionContext(jobId, timeoutMs, TokenBudget.of(tokenLimit));
+    }
+
+    /**
+     * 当前线程绑定的上下文，未绑定时返回null
+     */
+    public static JobExecutionContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 检查当前线程的作业是否已取消或超时，未绑定上下文时不做任何事
+     *
+     * @throws JobAbortedException 作业已取消或超时
+     */
+    public static void checkpoint() {
+        JobExecutionContext context = CURRENT.get();
+        if (context != null) {
+            context.check();
+        }
+    }
+
+    /**
+     * 按当前作业剩余时间收紧超时，未绑定上下文或不限时返回原值
+     */
+    public static long boundTimeout(long timeoutMs) {
+        JobExecutionContext context = CURRENT.get();
+        if (context == null || !context.hasDeadline) {
+            return timeoutMs;
+        }
+        return Math.max(1L, Math.min(timeoutMs, context.remainingMillis()));
+    }
+
+    /**
+     * 绑定到当前线程，返回的作用域关闭时恢复原状态
+     */
+    public Scope activate() {
+        JobExecutionContext previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    /**
+     * 检查是否已取消或超时
+     *
+     * @throws JobAbortedException 作业已取消或超时
+     */
+    public void check() {
+        if (cancelReason == null && hasDeadline && System.nanoTime() - deadlineNanos >= 0) {
+            timedOut = true;
+            cancel("作业执行超时");
+        }
+        if (cancelReason != null) {
+            throw new JobAbortedException(jobId, cancelReason, timedOut);
+        }
+    }
+
+    /**
+     * 取消作业并立即执行全部释放动作
+     *
+     * @return 是否由本次调用完成取消
+     */
+    public boolean cancel(String reason) {
+        synchronized (this) {
+            if (cancelReason != null) {
+                return false;
+            }
+            cancelReason = reason != null ? reason : "作业已取消";
+        }
+
+        for (Long id : releaseHooks.keySet()) {
+            Runnable hook = releaseHooks.remove(id);
+            if (hook == null) {
+                continue;
+            }
+            try {
+                hook.run();
+            } catch (RuntimeException e) {
+                log.warn("释放作业资源失败: jobId={}, error={}", jobId, e.getMessage());
+            }
+        }
+        log.info("作业已中止: jobId={}, reason={}, releasedPermits={}, releasedQueueSlots={}",
+                jobId, cancelReason, releasedPermits.get(), releasedQueueSlots.get());
+        return true;
+    }
+
+    /**
+     * 登记取消时执行的释放动作；已取消时立即执行
+     *
+     * @return 登记句柄，资源正常释放后应调用 remove()
+     */
+    public Registration onCancel(Runnable hook) {
+        long id = hookSequence.incrementAndGet();
+        releaseHooks.put(id, hook);
+        if (cancelReason != null && releaseHooks.remove(id) != null) {
+            hook.run();
+        }
+        return () -> releaseHooks.remove(id);
+    }
+
+    public boolean isCancelled() {
+        return cancelReason != null;
+    }
+
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getCancelReason() {
+        return cancelReason;
+    }
+
+    public TokenBudget getTokenBudget() {
+        return tokenBudget;
+    }
+
+    /**
+     * 剩余时间（毫秒），不限时返回 Long.MAX_VALUE
+     */
+    public long remainingMillis() {
+        if (!hasDeadline) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0L, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    public int getReleasedPermits() {
+        return releasedPermits.get();
+    }
+
+    public int getReleasedQueueSlots() {
+        return releasedQueueSlots.get();
+    }
+
+    void recordReleasedPermit() {
+        releasedPermits.incrementAndGet();
+    }
+
+    void recordReleasedQueueSlot() {
+        releasedQueueSlots.incrementAndGet();
+    }
+
+    /**
+     * 上下文作用域
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * 释放动作登记句柄
+     */
+    @FunctionalInterface
+    public interface Registration {
+        void remove();
+    }
+
+    /**
+     * 作业已取消或超时
+     */
+    public static class JobAbortedException extends RuntimeException {
+
+        private final String jobId;
+        private final boolean timedOut;
+
+        public JobAbortedException(String jobId, String reason, boolean timedOut) {
+            super(reason + ": " + jobId);
+            this.jobId = jobId;
+            this.timedOut = timedOut;
+        }
+
+        public String getJobId() {
+            return jobId;
+        }
+
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.insurance.audit.audit.service;
+
+import com.insurance.audit.audit.dto.AuditJobResponse;
+import com.insurance.audit.audit.dto.JobProgressEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 作业进度推送器
+ * 编排器每次更新作业状态时发布快照；快照按作业合并，由调度线程按固定节拍推送给SSE订阅者和回调通知器，
+ * 每个作业每秒最多推送 max-events-per-second 次。终态事件立即推送并关闭订阅
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class JobProgressPublisher {
+
+    private static final Set<String> TERMINAL_STATUSES = Set.of("COMPLETED", "FAILED", "CANCELLED");
+    private static final String EVENT_NAME = "progress";
+
+    @Autowired(required = false)
+    private JobWebhookNotifier webhookNotifier;
+
+    @Value("${audit.progress.max-events-per-second:4}")
+    private int maxEventsPerSecond = 4;
+
+    @Value("${audit.progress.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs = 1800000;
+
+    private final ConcurrentHashMap<String, JobChannel> channels = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        long periodMs = Math.max(1000L / Math.max(maxEventsPerSecond, 1), 10L);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-progress-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::flush, periodMs, periodMs, TimeUnit.MILLISECONDS);
+        log.info("作业进度推送器启动: maxEventsPerSecond={}, periodMs={}", maxEventsPerSecond, periodMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        flush();
+        channels.values().forEach(JobChannel::completeAll);
+        channels.clear();
+    }
+
+    /**
+     * 登记作业，之后发布的快照才会被推送
+     *
+     * @param jobId 作业ID
+     * @param callbackUrl 回调地址，为空时不投递回调
+     */
+    public void register(String jobId, String callbackUrl) {
+        channels.put(jobId, new JobChannel(jobId, callbackUrl));
+    }
+
+    /**
+     * 发布作业快照，已有待推送的终态快照时忽略后续快照
+     */
+    public void publish(AuditJobResponse job) {
+        JobChannel channel = channels.get(job.getJobId());
+        if (channel == null) {
+            return;
+        }
+
+        JobProgressEvent event = toEvent(job, channel.sequence.incrementAndGet());
+        // 终态事件待推送时不被稍晚到达的进度快照覆盖
+        channel.pending.accumulateAndGet(event,
+                (pending, next) -> pending != null && Boolean.TRUE.equals(pending.getTerminal()) ? pending : next);
+
+        if (Boolean.TRUE.equals(event.getTerminal())) {
+            flushChannel(channel);
+        }
+    }
+
+    /**
+     * 订阅作业进度
+     * 订阅后立即收到当前快照；作业已结束时收到终态快照后连接关闭
+     */
+    public SseEmitter subscribe(AuditJobResponse job) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        JobChannel channel = channels.get(job.getJobId());
+
+        if (channel == null) {
+            sendQuietly(emitter, toEvent(job, 0L));
+            emitter.complete();
+            return emitter;
+        }
+
+        synchronized (channel) {
+            JobProgressEvent current = channel.lastSent != null ? channel.lastSent : toEvent(job, 0L);
+            if (!sendQuietly(emitter, current)) {
+                return emitter;
+            }
+            if (channel.closed) {
+                emitter.complete();
+                return emitter;
+            }
+            channel.emitters.add(emitter);
+        }
+
+        emitter.onCompletion(() -> channel.emitters.remove(emitter));
+        emitter.onTimeout(() -> channel.emitters.remove(emitter));
+        emitter.onError(error -> channel.emitters.remove(emitter));
+
+        log.debug("订阅作业进度: jobId={}, subscribers={}", job.getJobId(), channel.emitters.size());
+        return emitter;
+    }
+
+    /**
+     * 推送所有作业的待发送快照
+     */
+    void flush() {
+        for (JobChannel channel : channels.values()) {
+            try {
+                flushChannel(channel);
+            } catch (RuntimeException e) {
+                log.warn("推送作业进度失败: jobId={}, error={}", channel.jobId, e.getMessage());
+            }
+        }
+    }
+
+    private void flushChannel(JobChannel channel) {
+        synchronized (channel) {
+            JobProgressEvent event = channel.pending.getAndSet(null);
+            if (event == null || channel.closed) {
+                return;
+            }
+            channel.lastSent = event;
+
+            for (SseEmitter emitter : channel.emitters) {
+                if (!sendQuietly(emitter, event)) {
+                    channel.emitters.remove(emitter);
+                }
+            }
+
+            if (webhookNotifier != null) {
+                webhookNotifier.enqueue(channel.callbackUrl, event);
+            }
+
+            if (Boolean.TRUE.equals(event.getTerminal())) {
+                channel.closed = true;
+                channel.completeAll();
+                channels.remove(channel.jobId, channel);
+                log.debug("作业进度推送结束: jobId={}, status={}", channel.jobId, event.getStatus());
+            }
+        }
+    }
+
+    private boolean sendQuietly(SseEmitter emitter, JobProgressEvent event) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.getSequence()))
+                    .name(EVENT_NAME)
+                    .data(event));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // 客户端断开或连接已关闭
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private static JobProgressEvent toEvent(AuditJobResponse job, long sequence) {
+        return JobProgressEvent.builder()
+                .jobId(job.getJobId())
+                .sequence(sequence)
+                .status(job.getStatus())
+                .progress(job.getProgress())
+                .totalTasks(job.getTotalTasks())
+                .completedTasks(job.getCompletedTasks())
+                .failedTasks(job.getFailedTasks())
+                .errorMessage(job.getErrorMessage())
+                .resultSummary(job.getResultSummary())
+                .terminal(TERMINAL_STATUSES.contains(job.getStatus()))
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * 单个作业的推送通道
+     */
+    private static final class JobChannel {
+        private final String jobId;
+        private final String callbackUrl;
+        private final AtomicLong sequence = new AtomicLong();
+        private final AtomicReference<JobProgressEvent> pending = new AtomicReference<>();
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private JobProgressEvent lastSent;
+        private boolean closed;
+
+        private JobChannel(String jobId, String callbackUrl) {
+            this.jobId = jobId;
+            this.callbackUrl = callbackUrl;
+        }
+
+        private void completeAll() {
+            for (SseEmitter emitter : emitters) {
+                emitter.complete();
+            }
+            emitters.clear();
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.insurance.audit.audit.service;
+
+import com.insurance.audit.audit.dto.JobProgressEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 作业回调通知器
+ * 按回调地址汇总进度事件，同一批次内每个作业只保留最新事件，按固定间隔批量投递；
+ * 投递失败按指数退避重试，超过重试次数后丢弃该批次。
+ * 回调地址只允许配置的协议和主机（allowed-hosts 支持 *.example.com 形式的子域名通配，未配置时拒绝全部回调），
+ * 创建作业时校验，投递前再次校验；重试在独立的有界线程池中执行，排队的重试数超过上限时直接丢弃
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class JobWebhookNotifier {
+
+    @Autowired(required = false)
+    @Qualifier("restTemplate")
+    private RestTemplate restTemplate;
+
+    @Value("${audit.webhook.batch-interval-ms:2000}")
+    private long batchIntervalMs = 2000;
+
+    @Value("${audit.webhook.max-batch-size:100}")
+    private int maxBatchSize = 100;
+
+    @Value("${audit.webhook.max-retries:3}")
+    private int maxRetries = 3;
+
+    @Value("${audit.webhook.retry-backoff-ms:1000}")
+    private long retryBackoffMs = 1000;
+
+    @Value("${audit.webhook.retry-threads:2}")
+    private int retryThreads = 2;
+
+    @Value("${audit.webhook.max-pending-retries:1000}")
+    private int maxPendingRetries = 1000;
+
+    @Value("${audit.webhook.allowed-schemes:https}")
+    private String allowedSchemes = "https";
+
+    @Value("${audit.webhook.allowed-hosts:}")
+    private String allowedHosts = "";
+
+    /**
+     * 待投递事件：回调地址 -> (作业ID -> 最新事件)
+     */
+    private final ConcurrentHashMap<String, Map<String, JobProgressEvent>> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong deliveredBatches = new AtomicLong();
+    private final AtomicLong droppedBatches = new AtomicLong();
+    private final AtomicLong rejectedCallbacks = new AtomicLong();
+    private final AtomicInteger pendingRetries = new AtomicInteger();
+
+    private Set<String> schemes = Set.of();
+    private List<String> hosts = List.of();
+
+    private ScheduledExecutorService scheduler;
+    private ScheduledExecutorService retryScheduler;
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-webhook-notifier");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, batchIntervalMs, batchIntervalMs, TimeUnit.MILLISECONDS);
+
+        AtomicInteger retryThreadIndex = new AtomicInteger();
+        retryScheduler = Executors.newScheduledThreadPool(Math.max(1, retryThreads), runnable -> {
+            Thread thread = new Thread(runnable, "audit-webhook-retry-" + retryThreadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        schemes = splitList(allowedSchemes).stream().collect(Collectors.toUnmodifiableSet());
+        hosts = splitList(allowedHosts);
+        log.info("作业回调通知器启动: batchIntervalMs={}, maxBatchSize={}, maxRetries={}, retryThreads={}, "
+                        + "allowedSchemes={}, allowedHosts={}",
+                batchIntervalMs, maxBatchSize, maxRetries, retryThreads, schemes, hosts);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        if (retryScheduler != null) {
+            retryScheduler.shutdownNow();
+        }
+        // 关闭前尽力投递剩余事件，不再重试
+        flush();
+        log.info("作业回调通知器停止: deliveredBatches={}, droppedBatches={}",
+                deliveredBatches.get(), droppedBatches.get());
+    }
+
+    /**
+     * 校验回调地址的协议和主机是否在允许列表中
+     *
+     * @throws IllegalArgumentException 回调地址格式错误或不在允许列表中
+     */
+    public void validateCallbackUrl(String callbackUrl) {
+        URI uri;
+        try {
+            uri = new URI(callbackUrl);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("回调地址格式错误: " + callbackUrl);
+        }
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : null;
+        if (scheme == null || !schemes.contains(scheme)) {
+            throw new IllegalArgumentException("回调地址协议不允许: " + callbackUrl);
+        }
+        String host = uri.getHost() != null ? uri.getHost().toLowerCase(Locale.ROOT) : null;
+        if (host == null || uri.getRawUserInfo() != null || !isAllowedHost(host)) {
+            throw new IllegalArgumentException("回调地址主机不允许: " + callbackUrl);
+        }
+    }
+
+    /**
+     * 加入待投递队列，不在允许列表中的回调地址直接丢弃
+     */
+    public void enqueue(String callbackUrl, JobProgressEvent event) {
+        if (callbackUrl == null || callbackUrl.isBlank()) {
+            return;
+        }
+        try {
+            validateCallbackUrl(callbackUrl);
+        } catch (IllegalArgumentException e) {
+            rejectedCallbacks.incrementAndGet();
+            log.warn("回调地址不在允许列表中，丢弃事件: jobId={}, error={}", event.getJobId(), e.getMessage());
+            return;
+        }
+        Map<String, JobProgressEvent> events = pending.computeIfAbsent(callbackUrl, k -> new LinkedHashMap<>());
+        synchronized (events) {
+            events.put(event.getJobId(), event);
+        }
+    }
+
+    /**
+     * 投递全部待发送事件
+     */
+    void flush() {
+        for (Map.Entry<String, Map<String, JobProgressEvent>> entry : pending.entrySet()) {
+            List<JobProgressEvent> events;
+            Map<String, JobProgressEvent> queued = entry.getValue();
+            synchronized (queued) {
+                if (queued.isEmpty()) {
+                    continue;
+                }
+                events = new ArrayList<>(queued.values());
+                queued.clear();
+            }
+
+            for (int from = 0; from < events.size(); from += maxBatchSize) {
+                List<JobProgressEvent> batch = events.subList(from, Math.min(from + maxBatchSize, events.size()));
+                deliver(entry.getKey(), WebhookBatch.builder()
+                        .batchId(UUID.randomUUID().toString())
+                        .sentAt(LocalDateTime.now())
+                        .events(new ArrayList<>(batch))
+                        .build(), 1);
+            }
+        }
+    }
+
+    private void deliver(String callbackUrl, WebhookBatch batch, int attempt) {
+        if (restTemplate == null) {
+            log.warn("RestTemplate未配置，丢弃回调批次: url={}, events={}", callbackUrl, batch.getEvents().size());
+            droppedBatches.incrementAndGet();
+            return;
+        }
+
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            restTemplate.postForEntity(callbackUrl, new HttpEntity<>(batch, headers), Void.class);
+            deliveredBatches.incrementAndGet();
+            log.debug("回调批次投递成功: url={}, batchId={}, events={}",
+                    callbackUrl, batch.getBatchId(), batch.getEvents().size());
+        } catch (RestClientException e) {
+            if (attempt >= maxRetries || retryScheduler.isShutdown()) {
+                droppedBatches.incrementAndGet();
+                log.warn("回调批次投递失败，已放弃: url={}, batchId={}, attempts={}, error={}",
+                        callbackUrl, batch.getBatchId(), attempt, e.getMessage());
+                return;
+            }
+            if (pendingRetries.incrementAndGet() > maxPendingRetries) {
+                pendingRetries.decrementAndGet();
+                droppedBatches.incrementAndGet();
+                log.warn("待重试的回调批次已达上限，丢弃: url={}, batchId={}, maxPendingRetries={}",
+                        callbackUrl, batch.getBatchId(), maxPendingRetries);
+                return;
+            }
+
+            long delay = retryBackoffMs << (attempt - 1);
+            log.debug("回调批次投递失败，{}ms后重试: url={}, batchId={}, attempt={}",
+                    delay, callbackUrl, batch.getBatchId(), attempt);
+            try {
+                retryScheduler.schedule(() -> {
+                    pendingRetries.decrementAndGet();
+                    deliver(callbackUrl, batch, attempt + 1);
+                }, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException rejected) {
+                pendingRetries.decrementAndGet();
+                droppedBatches.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean isAllowedHost(String host) {
+        for (String allowed : hosts) {
+            if (allowed.startsWith("*.")
+                    ? host.endsWith(allowed.substring(1))
+                    : host.equals(allowed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> splitList(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(item -> item.trim().toLowerCase(Locale.ROOT))
+                .filter(item -> !item.isEmpty())
+                .toList();
+    }
+
+    /**
+     * 获取投递统计
+     */
+    public Map<String, Long> getDeliveryStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("deliveredBatches", deliveredBatches.get());
+        stats.put("droppedBatches", droppedBatches.get());
+        stats.put("rejectedCallbacks", rejectedCallbacks.get());
+        stats.put("pendingRetries", (long) pendingRetries.get());
+        return stats;
+    }
+
+    /**
+     * 回调批次
+     * 同一作业的事件可能因重试乱序到达，接收方应按事件序号去重
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class WebhookBatch {
+        private String batchId;
+        private LocalDateTime sentAt;
+        private List<JobProgressEvent> events;
+    }
+}
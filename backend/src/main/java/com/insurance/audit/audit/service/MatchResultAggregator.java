@@ -0,0 +1,262 @@
+package com.insurance.audit.audit.service;
+
+import com.insurance.audit.audit.dto.AuditResultDto;
+import com.insurance.audit.audit.matchers.Matcher;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 匹配结果流式聚合器
+ * 匹配结果产生时即按规则折叠为摘要（状态计数、最高分、证据），调用方无需保留全部匹配结果列表。
+ * 非线程安全，每个作业或文档单独创建
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class MatchResultAggregator {
+
+    private final Map<String, RuleSummary> summaries = new LinkedHashMap<>();
+    private int resultCount;
+
+    /**
+     * 折叠单条匹配结果
+     */
+    public void accept(Matcher.MatchResult result) {
+        if (result == null) {
+            return;
+        }
+        summaries.computeIfAbsent(result.getRuleId(), RuleSummary::new).add(result);
+        resultCount++;
+    }
+
+    /**
+     * 折叠一批匹配结果
+     */
+    public void acceptAll(Collection<Matcher.MatchResult> results) {
+        if (results == null) {
+            return;
+        }
+        for (Matcher.MatchResult result : results) {
+            accept(result);
+        }
+    }
+
+    /**
+     * 把一条规则的一批匹配结果折叠进该规则的摘要；结果为空时也登记摘要，装配时记为未匹配
+     */
+    public void acceptAll(String ruleId, Collection<Matcher.MatchResult> results) {
+        RuleSummary summary = summaries.computeIfAbsent(ruleId, RuleSummary::new);
+        if (results == null) {
+            return;
+        }
+        for (Matcher.MatchResult result : results) {
+            if (result != null) {
+                summary.add(result);
+                resultCount++;
+            }
+        }
+    }
+
+    /**
+     * 获取规则摘要，未收到该规则的结果时返回null
+     */
+    public RuleSummary getSummary(String ruleId) {
+        return summaries.get(ruleId);
+    }
+
+    /**
+     * 按收到顺序返回全部规则摘要
+     */
+    public Collection<RuleSummary> getSummaries() {
+        return Collections.unmodifiableCollection(summaries.values());
+    }
+
+    public int getResultCount() {
+        return resultCount;
+    }
+
+    /**
+     * 单条规则的聚合摘要
+     */
+    public static final class RuleSummary {
+
+        private final String ruleId;
+        private int passedCount;
+        private int failedCount;
+        private int warningCount;
+        private int errorCount;
+        private int resultCount;
+        private double maxScore;
+        private Double threshold;
+        private String documentId;
+        private String ruleName;
+        private final List<AuditResultDto.Evidence> evidences = new ArrayList<>();
+        private final Set<String> matchTypes = new HashSet<>(4);
+
+        public RuleSummary(String ruleId) {
+            this.ruleId = ruleId;
+        }
+
+        /**
+         * 折叠一条匹配结果，证据立即转换为结果格式，原匹配结果可随即回收
+         */
+        public void add(Matcher.MatchResult result) {
+            String status = result.getStatus();
+            if ("PASSED".equals(status)) {
+                passedCount++;
+            } else if ("FAILED".equals(status)) {
+                failedCount++;
+            } else if ("WARNING".equals(status)) {
+                warningCount++;
+            } else if ("ERROR".equals(status)) {
+                errorCount++;
+            }
+
+            if (result.getScore() != null && (resultCount == 0 || result.getScore() > maxScore)) {
+                maxScore = result.getScore();
+            }
+            if (resultCount == 0) {
+                threshold = result.getThreshold();
+            }
+            resultCount++;
+
+            if (documentId == null) {
+                documentId = metadataValue(result, "documentId");
+            }
+            if (ruleName == null) {
+                ruleName = metadataValue(result, "ruleName");
+            }
+
+            List<Matcher.Evidence> matcherEvidences = result.getEvidences();
+            if (matcherEvidences != null) {
+                DocumentChunk chunk = result.getChunk();
+                for (Matcher.Evidence evidence : matcherEvidences) {
+                    evidences.add(convertEvidence(evidence, chunk));
+                    if (evidence.getMatchType() != null) {
+                        matchTypes.add(evidence.getMatchType());
+                    }
+                }
+            }
+        }
+
+        /**
+         * 总体状态：错误 > 失败 > 警告 > 通过，无可识别状态时视为失败
+         */
+        public String getOverallStatus() {
+            if (errorCount > 0) {
+                return "ERROR";
+            }
+            if (failedCount > 0) {
+                return "FAILED";
+            }
+            if (warningCount > 0) {
+                return "WARNING";
+            }
+            if (passedCount > 0) {
+                return "PASSED";
+            }
+            return "FAILED";
+        }
+
+        public boolean hasMatchType(String matchType) {
+            return matchTypes.contains(matchType);
+        }
+
+        public String getRuleId() {
+            return ruleId;
+        }
+
+        public int getPassedCount() {
+            return passedCount;
+        }
+
+        public int getFailedCount() {
+            return failedCount;
+        }
+
+        public int getWarningCount() {
+            return warningCount;
+        }
+
+        public int getErrorCount() {
+            return errorCount;
+        }
+
+        public int getResultCount() {
+            return resultCount;
+        }
+
+        public double getMaxScore() {
+            return maxScore;
+        }
+
+        public double getThreshold() {
+            return threshold != null ? threshold : 0.0;
+        }
+
+        public String getDocumentId() {
+            return documentId;
+        }
+
+        public String getRuleName() {
+            return ruleName;
+        }
+
+        public List<AuditResultDto.Evidence> getEvidences() {
+            return evidences;
+        }
+
+        private static String metadataValue(Matcher.MatchResult result, String key) {
+            Map<String, Object> metadata = result.getMetadata();
+            if (metadata != null && metadata.get(key) instanceof String value) {
+                return value;
+            }
+            DocumentChunk chunk = result.getChunk();
+            if (chunk != null && chunk.getMetadata() != null && chunk.getMetadata().get(key) instanceof String value) {
+                return value;
+            }
+            return null;
+        }
+
+        /**
+         * 转换证据，定位信息优先取证据上下文，其次取所属文档块
+         */
+        private static AuditResultDto.Evidence convertEvidence(Matcher.Evidence evidence, DocumentChunk chunk) {
+            Integer pageNumber = contextInteger(evidence, "pageNumber");
+            Integer paragraphIndex = contextInteger(evidence, "paragraphIndex");
+            if (chunk != null) {
+                if (pageNumber == null) {
+                    pageNumber = chunk.getPageNumber();
+                }
+                if (paragraphIndex == null) {
+                    paragraphIndex = chunk.getParagraphIndex();
+                }
+            }
+
+            return AuditResultDto.Evidence.builder()
+                    .text(evidence.getText())
+                    .pageNumber(pageNumber)
+                    .paragraphIndex(paragraphIndex)
+                    .startPos(evidence.getStartPos())
+                    .endPos(evidence.getEndPos())
+                    .matchType(evidence.getMatchType())
+                    .build();
+        }
+
+        private static Integer contextInteger(Matcher.Evidence evidence, String key) {
+            if (evidence.getContext() != null && evidence.getContext().get(key) instanceof Integer value) {
+                return value;
+            }
+            return null;
+        }
+    }
+}
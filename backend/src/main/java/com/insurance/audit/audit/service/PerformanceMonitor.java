@@ -1,17 +1,34 @@
 package com.insurance.audit.audit.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 性能监控服务
- * 收集和监控系统性能指标
+ * 收集和监控系统性能指标，延迟分布基于Micrometer滑动窗口直方图（HdrHistogram），
+ * 按操作、阶段、规则类型分别统计，并通过Actuator导出（/actuator/prometheus）
  *
  * @author System
  * @version 1.0.0
@@ -21,16 +38,39 @@ import java.util.concurrent.atomic.LongAdder;
 @Service
 public class PerformanceMonitor {
 
+    private static final String OPERATION_TIMER = "audit.operation.duration";
+    private static final String STAGE_TIMER = "audit.stage.duration";
+    private static final String RULE_TIMER = "audit.rule.duration";
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    /**
+     * 设有P95/P99目标的流水线阶段，与编排器记录的阶段名称一致；作业和分片耗时随文档数变化，不设目标
+     */
+    private static final List<String> SLO_STAGES = List.of(
+            "rule_fetch", "document_fetch", "rule_matching", "evidence_assembly", "document_process", "report_export");
+
     @Autowired
     private ConcurrencyController concurrencyController;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 百分位滑动窗口长度，窗口分为若干个轮换桶
+    @Value("${audit.metrics.percentile-window-seconds:120}")
+    private long percentileWindowSeconds = 120;
+
+    @Value("${audit.metrics.percentile-window-buckets:3}")
+    private int percentileWindowBuckets = 3;
+
     // 性能计数器
     private final LongAdder totalRequests = new LongAdder();
     private final LongAdder successfulRequests = new LongAdder();
     private final LongAdder failedRequests = new LongAdder();
 
-    // 响应时间统计
-    private final ConcurrentHashMap<String, ResponseTimeStats> responseTimeStats = new ConcurrentHashMap<>();
+    // 延迟统计（首次出现时注册，之后记录路径只做查表）
+    private final ConcurrentHashMap<String, OperationMetrics> operationMetrics = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> ruleTimers = new ConcurrentHashMap<>();
 
     // 资源使用统计
     private final AtomicLong totalTokensUsed = new AtomicLong(0);
@@ -38,18 +78,35 @@ public class PerformanceMonitor {
     private final AtomicLong totalCacheHits = new AtomicLong(0);
     private final AtomicLong totalCacheMisses = new AtomicLong(0);
 
+    /**
+     * 注册全局计数器
+     */
+    @PostConstruct
+    public void bindGlobalMeters() {
+        FunctionCounter.builder("audit.llm.tokens", totalTokensUsed, AtomicLong::get)
+                .description("LLM Token消耗总量")
+                .register(meterRegistry);
+        FunctionCounter.builder("audit.api.calls", totalApiCalls, AtomicLong::get)
+                .description("外部API调用次数")
+                .register(meterRegistry);
+        FunctionCounter.builder("audit.cache.requests", totalCacheHits, AtomicLong::get)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("audit.cache.requests", totalCacheMisses, AtomicLong::get)
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
     /**
      * 记录请求开始
      */
     public void recordRequestStart(String operation) {
         totalRequests.increment();
+        metricsFor(operation).activeRequests.increment();
 
-        ResponseTimeStats stats = responseTimeStats.computeIfAbsent(operation,
-            k -> new ResponseTimeStats());
-        stats.incrementActive();
-
-        log.debug("记录请求开始: operation={}, totalRequests={}",
-                operation, totalRequests.sum());
+        if (log.isDebugEnabled()) {
+            log.debug("记录请求开始: operation={}, totalRequests={}", operation, totalRequests.sum());
+        }
     }
 
     /**
@@ -62,13 +119,44 @@ public class PerformanceMonitor {
             failedRequests.increment();
         }
 
-        ResponseTimeStats stats = responseTimeStats.get(operation);
-        if (stats != null) {
-            stats.recordResponse(durationMs, success);
+        OperationMetrics metrics = operationMetrics.get(operation);
+        if (metrics != null) {
+            metrics.record(durationMs, success);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("记录请求完成: operation={}, duration={}ms, success={}", operation, durationMs, success);
         }
+    }
 
-        log.debug("记录请求完成: operation={}, duration={}ms, success={}",
-                operation, durationMs, success);
+    /**
+     * 记录流水线阶段耗时
+     */
+    public void recordStage(String stage, long durationMs) {
+        Timer timer = stageTimers.get(stage);
+        if (timer == null) {
+            timer = stageTimers.computeIfAbsent(stage, k -> newTimer(STAGE_TIMER, "stage", k));
+        }
+        timer.record(durationMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 记录流水线阶段失败
+     */
+    public void recordStageError(String stage, Throwable error) {
+        meterRegistry.counter("audit.stage.errors",
+                "stage", stage, "exception", error.getClass().getSimpleName()).increment();
+    }
+
+    /**
+     * 记录单条规则的评估耗时（按规则类型聚合）
+     */
+    public void recordRuleEvaluation(String ruleType, long durationNanos) {
+        Timer timer = ruleTimers.get(ruleType);
+        if (timer == null) {
+            timer = ruleTimers.computeIfAbsent(ruleType, k -> newTimer(RULE_TIMER, "ruleType", k));
+        }
+        timer.record(durationNanos, TimeUnit.NANOSECONDS);
     }
 
     /**
@@ -121,13 +209,24 @@ public class PerformanceMonitor {
         long misses = totalCacheMisses.get();
         double cacheHitRate = (hits + misses) > 0 ? (double) hits / (hits + misses) * 100 : 0.0;
 
+        Map<String, LatencyStats> operationStats = new HashMap<>();
+        operationMetrics.forEach((operation, metrics) -> operationStats.put(operation, metrics.toLatencyStats()));
+
+        Map<String, LatencyStats> stageStats = new HashMap<>();
+        stageTimers.forEach((stage, timer) -> stageStats.put(stage, toLatencyStats(timer, null, null)));
+
+        Map<String, LatencyStats> ruleTypeStats = new HashMap<>();
+        ruleTimers.forEach((ruleType, timer) -> ruleTypeStats.put(ruleType, toLatencyStats(timer, null, null)));
+
         return PerformanceReport.builder()
                 .timestamp(LocalDateTime.now())
                 .totalRequests(total)
                 .successfulRequests(successful)
                 .failedRequests(failed)
                 .successRate(successRate)
-                .responseTimeStats(new java.util.HashMap<>(responseTimeStats))
+                .responseTimeStats(operationStats)
+                .stageStats(stageStats)
+                .ruleTypeStats(ruleTypeStats)
                 .totalTokensUsed(totalTokensUsed.get())
                 .totalApiCalls(totalApiCalls.get())
                 .cacheHitRate(cacheHitRate)
@@ -139,34 +238,51 @@ public class PerformanceMonitor {
      * 获取操作的P95响应时间
      */
     public long getP95ResponseTime(String operation) {
-        ResponseTimeStats stats = responseTimeStats.get(operation);
-        return stats != null ? stats.getP95() : 0L;
+        return getPercentileResponseTime(operation, 0.95);
+    }
+
+    /**
+     * 获取操作的P99响应时间
+     */
+    public long getP99ResponseTime(String operation) {
+        return getPercentileResponseTime(operation, 0.99);
     }
 
     /**
      * 检查性能是否达标
      */
     public boolean isPerformanceHealthy() {
-        PerformanceReport report = getPerformanceReport();
-
         // 检查成功率 (>95%)
-        if (report.getSuccessRate() < 95.0) {
-            log.warn("成功率过低: {}%", report.getSuccessRate());
+        long total = totalRequests.sum();
+        double successRate = total > 0 ? (double) successfulRequests.sum() / total * 100 : 0.0;
+        if (successRate < 95.0) {
+            log.warn("成功率过低: {}%", successRate);
             return false;
         }
 
-        // 检查关键操作的P95响应时间
-        for (String operation : java.util.List.of("match", "parse", "export")) {
-            long p95 = getP95ResponseTime(operation);
-            if (p95 > getTargetP95(operation)) {
-                log.warn("操作{}的P95响应时间过高: {}ms", operation, p95);
+        // 检查关键阶段的P95/P99耗时
+        for (String stage : SLO_STAGES) {
+            Timer timer = stageTimers.get(stage);
+            if (timer == null) {
+                continue;
+            }
+
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            long p95 = (long) percentile(snapshot, 0.95);
+            if (p95 > getTargetP95(stage)) {
+                log.warn("阶段{}的P95耗时过高: {}ms", stage, p95);
+                return false;
+            }
+            long p99 = (long) percentile(snapshot, 0.99);
+            if (p99 > getTargetP99(stage)) {
+                log.warn("阶段{}的P99耗时过高: {}ms", stage, p99);
                 return false;
             }
         }
 
         // 检查队列积压
-        if (report.getExecutorStatus().getQueueSize() >
-            report.getExecutorStatus().getQueueCapacity() * 0.8) {
+        ConcurrencyController.ExecutorStatus executorStatus = concurrencyController.getExecutorStatus();
+        if (executorStatus.getQueueSize() > executorStatus.getQueueCapacity() * 0.8) {
             log.warn("任务队列积压过多");
             return false;
         }
@@ -175,21 +291,47 @@ public class PerformanceMonitor {
     }
 
     /**
-     * 获取目标P95响应时间
+     * 获取阶段的目标P95耗时
      */
-    private long getTargetP95(String operation) {
-        switch (operation) {
-            case "match":
+    private long getTargetP95(String stage) {
+        switch (stage) {
+            case "rule_fetch":
+            case "evidence_assembly":
+                return 1000L; // 1秒
+            case "rule_matching":
                 return 2000L; // 2秒
-            case "parse":
+            case "document_fetch":
                 return 5000L; // 5秒
-            case "export":
+            case "document_process":
+                return 8000L; // 8秒
+            case "report_export":
                 return 10000L; // 10秒
             default:
                 return 3000L; // 默认3秒
         }
     }
 
+    /**
+     * 获取阶段的目标P99耗时
+     */
+    private long getTargetP99(String stage) {
+        switch (stage) {
+            case "rule_fetch":
+            case "evidence_assembly":
+                return 3000L; // 3秒
+            case "rule_matching":
+                return 5000L; // 5秒
+            case "document_fetch":
+                return 10000L; // 10秒
+            case "document_process":
+                return 15000L; // 15秒
+            case "report_export":
+                return 20000L; // 20秒
+            default:
+                return 6000L; // 默认6秒
+        }
+    }
+
     /**
      * 重置统计数据
      */
@@ -203,61 +345,120 @@ public class PerformanceMonitor {
         totalApiCalls.set(0);
         totalCacheHits.set(0);
         totalCacheMisses.set(0);
-        responseTimeStats.clear();
+
+        // 直方图不支持清零，移除后在下次记录时重新注册
+        List<Meter> meters = new ArrayList<>();
+        operationMetrics.values().forEach(metrics -> meters.addAll(metrics.meters()));
+        meters.addAll(stageTimers.values());
+        meters.addAll(ruleTimers.values());
+        operationMetrics.clear();
+        stageTimers.clear();
+        ruleTimers.clear();
+        meters.forEach(meterRegistry::remove);
+    }
+
+    private long getPercentileResponseTime(String operation, double percentile) {
+        OperationMetrics metrics = operationMetrics.get(operation);
+        return metrics != null ? (long) percentile(metrics.timer.takeSnapshot(), percentile) : 0L;
+    }
+
+    private OperationMetrics metricsFor(String operation) {
+        OperationMetrics metrics = operationMetrics.get(operation);
+        return metrics != null ? metrics : operationMetrics.computeIfAbsent(operation, OperationMetrics::new);
     }
 
     /**
-     * 响应时间统计
+     * 创建带滑动窗口百分位与直方图桶的计时器
      */
-    private static class ResponseTimeStats {
-        private final LongAdder totalRequests = new LongAdder();
-        private final LongAdder activeRequests = new LongAdder();
-        private final LongAdder successfulRequests = new LongAdder();
-        private final LongAdder totalDuration = new LongAdder();
-
-        // 简化的百分位数计算（实际应该使用更精确的算法）
-        private final java.util.concurrent.ConcurrentLinkedQueue<Long> recentDurations =
-            new java.util.concurrent.ConcurrentLinkedQueue<>();
+    private Timer newTimer(String name, String tagKey, String tagValue) {
+        return Timer.builder(name)
+                .tag(tagKey, tagValue)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .distributionStatisticExpiry(Duration.ofSeconds(percentileWindowSeconds))
+                .distributionStatisticBufferLength(percentileWindowBuckets)
+                .register(meterRegistry);
+    }
 
-        void incrementActive() {
-            activeRequests.increment();
+    private static double percentile(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
         }
+        return 0.0;
+    }
 
-        void recordResponse(long durationMs, boolean success) {
-            totalRequests.increment();
-            activeRequests.decrement();
-            totalDuration.add(durationMs);
+    private static LatencyStats toLatencyStats(Timer timer, Long activeRequests, Long successfulRequests) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        return LatencyStats.builder()
+                .totalRequests(snapshot.count())
+                .activeRequests(activeRequests)
+                .successfulRequests(successfulRequests)
+                .averageResponseTime(snapshot.mean(TimeUnit.MILLISECONDS))
+                .p50(percentile(snapshot, 0.5))
+                .p95(percentile(snapshot, 0.95))
+                .p99(percentile(snapshot, 0.99))
+                .max(snapshot.max(TimeUnit.MILLISECONDS))
+                .build();
+    }
 
-            if (success) {
-                successfulRequests.increment();
-            }
+    /**
+     * 单个操作的指标集合
+     */
+    private class OperationMetrics {
+        private final Timer timer;
+        private final Counter successCounter;
+        private final Counter failureCounter;
+        private final Gauge activeGauge;
+        private final LongAdder activeRequests = new LongAdder();
 
-            // 保留最近1000个响应时间用于百分位数计算
-            recentDurations.offer(durationMs);
-            while (recentDurations.size() > 1000) {
-                recentDurations.poll();
-            }
+        OperationMetrics(String operation) {
+            this.timer = newTimer(OPERATION_TIMER, "operation", operation);
+            this.successCounter = Counter.builder("audit.operation.requests")
+                    .tag("operation", operation)
+                    .tag("outcome", "success")
+                    .register(meterRegistry);
+            this.failureCounter = Counter.builder("audit.operation.requests")
+                    .tag("operation", operation)
+                    .tag("outcome", "failure")
+                    .register(meterRegistry);
+            this.activeGauge = Gauge.builder("audit.operation.active", activeRequests, LongAdder::sum)
+                    .tag("operation", operation)
+                    .register(meterRegistry);
         }
 
-        double getAverageResponseTime() {
-            long total = totalRequests.sum();
-            return total > 0 ? (double) totalDuration.sum() / total : 0.0;
+        void record(long durationMs, boolean success) {
+            activeRequests.decrement();
+            timer.record(durationMs, TimeUnit.MILLISECONDS);
+            (success ? successCounter : failureCounter).increment();
         }
 
-        long getP95() {
-            java.util.List<Long> durations = new java.util.ArrayList<>(recentDurations);
-            if (durations.isEmpty()) {
-                return 0L;
-            }
+        List<Meter> meters() {
+            return List.of(timer, successCounter, failureCounter, activeGauge);
+        }
 
-            durations.sort(Long::compareTo);
-            int index = (int) Math.ceil(durations.size() * 0.95) - 1;
-            return durations.get(Math.max(0, index));
+        LatencyStats toLatencyStats() {
+            return PerformanceMonitor.toLatencyStats(timer, activeRequests.sum(), (long) successCounter.count());
         }
+    }
 
-        public long getTotalRequests() { return totalRequests.sum(); }
-        public long getActiveRequests() { return activeRequests.sum(); }
-        public long getSuccessfulRequests() { return successfulRequests.sum(); }
+    /**
+     * 延迟统计（毫秒，百分位为滑动窗口内的值）
+     */
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class LatencyStats {
+        private Long totalRequests;
+        private Long activeRequests;
+        private Long successfulRequests;
+        private Double averageResponseTime;
+        private Double p50;
+        private Double p95;
+        private Double p99;
+        private Double max;
     }
 
     /**
@@ -273,10 +474,12 @@ public class PerformanceMonitor {
         private Long successfulRequests;
         private Long failedRequests;
         private Double successRate;
-        private java.util.Map<String, ResponseTimeStats> responseTimeStats;
+        private Map<String, LatencyStats> responseTimeStats;
+        private Map<String, LatencyStats> stageStats;
+        private Map<String, LatencyStats> ruleTypeStats;
         private Long totalTokensUsed;
         private Long totalApiCalls;
         private Double cacheHitRate;
         private ConcurrencyController.ExecutorStatus executorStatus;
     }
-}
\ No newline at end of file
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.insurance.audit.audit.dto.AuditJobResponse;
 import com.insurance.audit.audit.dto.AuditResultDto;
+import com.insurance.audit.audit.tracing.AuditTracer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
@@ -79,6 +80,17 @@ public class ReportExporter {
      * @return 导出结果信息
      */
     public ExportResult exportReport(String format, AuditJobResponse job, List<AuditResultDto> results) {
+        return AuditTracer.inSpan("report_exporter.export", span -> {
+            span.setAttribute("export.format", format)
+                    .setAttribute("result.count", results.size());
+            return doExportReport(format, job, results);
+        });
+    }
+
+    /**
+     * 导出报告实现
+     */
+    private ExportResult doExportReport(String format, AuditJobResponse job, List<AuditResultDto> results) {
         long startTime = System.currentTimeMillis();
         String cacheKey = generateCacheKey(format, job.getJobId(), results);
 
@@ -0,0 +1,711 @@
+package com.insurance.audit.audit.service;
+
+import com.insurance.audit.audit.dto.AuditJobResponse;
+import com.insurance.audit.audit.dto.AuditResultDto;
+import com.insurance.audit.audit.dto.RuleDryRunReport;
+import com.insurance.audit.audit.dto.RuleDryRunRequest;
+import com.insurance.audit.audit.matchers.Matcher;
+import com.insurance.audit.audit.matchers.ScriptMatcher;
+import com.insurance.audit.audit.retrieval.DocumentChunkStore;
+import com.insurance.audit.audit.retrieval.LexicalIndex;
+import com.insurance.audit.audit.retrieval.LexicalIndexStore;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.service.RuleProvider.Rule;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 规则试运行服务
+ * 把规则草稿在历史文档语料上重放，评估修改后会标记多少产品：文档块取自文档块存储，不重新下载解析；
+ * 文档在有界线程池上并行，每个文档单线程匹配，规则只准备一次，编译后的正则和脚本在全部文档间共享。
+ * 同一规则最近一次检核结果作为历史判定，报告标记数、相对历史判定的精确率/召回率和每个文档块的匹配耗时。
+ * 试运行以作业提交，在后台线程执行：作业状态、进度和报告保存在试运行自己的作业存储中，不出现在检核作业列表里，
+ * 进度经SSE推送。每个试运行带执行上下文，截止时间从提交时起算，取消或到期后文档在下一个检查点停止；
+ * 试运行不追加检核结果，不影响后续试运行的历史判定
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j
+@Service
+public class RuleDryRunService {
+
+    /**
+     * 草稿规则ID前缀，避免与正式规则共用脚本编译缓存
+     */
+    private static final String DRAFT_ID_PREFIX = "dry-run:";
+
+    /**
+     * 试运行作业ID前缀
+     */
+    private static final String JOB_ID_PREFIX = "dry-run-";
+
+    private static final Set<String> FLAGGED_STATUSES = Set.of("FAILED", "WARNING");
+
+    private static final int DEFAULT_SAMPLE_SIZE = 20;
+    private static final int MAX_SAMPLE_SIZE = 200;
+
+    /**
+     * 等待文档槽位和文档完成时检查取消的间隔
+     */
+    private static final long CANCEL_POLL_MILLIS = 100;
+
+    private static final Set<String> TERMINAL_STATUSES = Set.of("COMPLETED", "FAILED", "CANCELLED");
+
+    @Autowired
+    private DocumentChunkStore chunkStore;
+
+    @Autowired
+    private TiledMatchingExecutor matchingExecutor;
+
+    /**
+     * 检核作业存储，只用于读取历史判定
+     */
+    @Autowired
+    private AuditJobStore jobStore;
+
+    @Autowired(required = false)
+    private LexicalIndexStore indexStore;
+
+    @Autowired(required = false)
+    private ScriptMatcher scriptMatcher;
+
+    @Autowired(required = false)
+    private JobProgressPublisher progressPublisher;
+
+    @Value("${audit.dry-run.parallelism:0}")
+    private int parallelism = 0;
+
+    @Value("${audit.dry-run.queue-capacity:256}")
+    private int queueCapacity = 256;
+
+    @Value("${audit.dry-run.max-documents:5000}")
+    private int maxDocuments = 5000;
+
+    /**
+     * 单次试运行的截止时长，到期后不再提交和等待文档，未完成的文档计为跳过
+     */
+    @Value("${audit.dry-run.timeout-seconds:600}")
+    private long timeoutSeconds = 600;
+
+    /**
+     * 同时执行的试运行作业数，超出的作业排队
+     */
+    @Value("${audit.dry-run.max-concurrent-runs:2}")
+    private int maxConcurrentRuns = 2;
+
+    /**
+     * 排队的试运行作业数上限，队列满时拒绝提交
+     */
+    @Value("${audit.dry-run.max-pending-runs:8}")
+    private int maxPendingRuns = 8;
+
+    private final AtomicLong runSequence = new AtomicLong();
+
+    /**
+     * 试运行作业存储，与检核作业分开，按默认保留策略淘汰已结束的试运行
+     */
+    private final AuditJobStore dryRunJobs = new AuditJobStore();
+
+    /**
+     * 未结束的试运行 -> 执行上下文
+     */
+    private final ConcurrentHashMap<String, JobExecutionContext> runningRuns = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    private ThreadPoolExecutor runExecutor;
+
+    /**
+     * 文档任务排队槽位，数量等于队列容量：提交前占用，任务开始执行时归还，排队的文档不超过队列容量，
+     * 文档线程池不会因队列满而拒绝
+     */
+    private Semaphore documentSlots;
+
+    @PostConstruct
+    public void start() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        int capacity = Math.max(queueCapacity, 1);
+        // 语料再大也只有队列容量的文档在排队，由作业线程按槽位提交，不在请求线程中执行匹配
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacity), daemonThreads("rule-dry-run-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        documentSlots = new Semaphore(capacity);
+
+        int runs = Math.max(maxConcurrentRuns, 1);
+        runExecutor = new ThreadPoolExecutor(runs, runs, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(maxPendingRuns, 1)), daemonThreads("rule-dry-run-job-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        runExecutor.allowCoreThreadTimeOut(true);
+        log.info("规则试运行服务启动: parallelism={}, maxConcurrentRuns={}, maxDocuments={}, timeoutSeconds={}",
+                threads, runs, maxDocuments, timeoutSeconds);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (runExecutor != null) {
+            runExecutor.shutdownNow();
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 提交试运行作业，立即返回作业ID；进度通过 {@link #subscribe(String)} 推送，报告在作业完成后由
+     * {@link #getJob(String)} 返回，可通过 {@link #cancel(String, String)} 取消
+     *
+     * @param request 试运行请求
+     * @return 已登记的试运行作业
+     * @throws IllegalArgumentException 规则或规则类型为空
+     * @throws IllegalStateException 服务未启动，或排队的试运行作业已满
+     */
+    public AuditJobResponse submit(RuleDryRunRequest request) {
+        if (runExecutor == null || runExecutor.isShutdown()) {
+            throw new IllegalStateException("规则试运行服务未启动");
+        }
+        Rule rule = request.getRule();
+        if (rule == null || rule.getType() == null) {
+            throw new IllegalArgumentException("试运行规则及规则类型不能为空");
+        }
+
+        String jobId = JOB_ID_PREFIX + UUID.randomUUID().toString().replace("-", "").substring(0, 8);
+        AuditJobResponse job = AuditJobResponse.builder()
+                .jobId(jobId)
+                .jobName("规则试运行: " + (rule.getId() != null ? rule.getId() : "draft"))
+                .status("CREATED")
+                .progress(0)
+                .completedTasks(0)
+                .failedTasks(0)
+                .startTime(LocalDateTime.now())
+                .build();
+        dryRunJobs.saveJob(job);
+        if (progressPublisher != null) {
+            progressPublisher.register(jobId, null);
+        }
+        JobExecutionContext context = JobExecutionContext.create(jobId,
+                TimeUnit.SECONDS.toMillis(Math.max(timeoutSeconds, 1)));
+        runningRuns.put(jobId, context);
+
+        try {
+            runExecutor.execute(() -> execute(jobId, request, context));
+        } catch (RejectedExecutionException e) {
+            runningRuns.remove(jobId);
+            failJob(jobId, "试运行作业排队已满");
+            throw new IllegalStateException("试运行作业排队已满，请稍后重试");
+        }
+        log.info("提交规则试运行作业: jobId={}, ruleId={}", jobId, rule.getId());
+        return job;
+    }
+
+    /**
+     * 查询试运行作业，完成后携带试运行报告
+     *
+     * @param jobId 作业ID
+     * @return 试运行作业
+     * @throws IllegalArgumentException 试运行作业不存在
+     */
+    public AuditJobResponse getJob(String jobId) {
+        AuditJobResponse job = jobId != null ? dryRunJobs.findJob(jobId) : null;
+        if (job == null) {
+            throw new IllegalArgumentException("试运行作业不存在: " + jobId);
+        }
+        return job;
+    }
+
+    /**
+     * 取消试运行：排队中的试运行不再执行，执行中的文档在下一个检查点停止
+     *
+     * @param jobId 作业ID
+     * @param reason 取消原因
+     * @return 取消后的试运行作业
+     * @throws IllegalArgumentException 试运行作业不存在
+     * @throws IllegalStateException 试运行已结束
+     */
+    public AuditJobResponse cancel(String jobId, String reason) {
+        AuditJobResponse job = getJob(jobId);
+        if (TERMINAL_STATUSES.contains(job.getStatus())) {
+            throw new IllegalStateException("试运行已结束，无法取消: " + job.getStatus());
+        }
+        String cancelReason = reason != null && !reason.isBlank() ? reason : "用户取消";
+        JobExecutionContext context = runningRuns.get(jobId);
+        if (context != null) {
+            context.cancel(cancelReason);
+        }
+        dryRunJobs.updateJob(jobId, current -> {
+            if (TERMINAL_STATUSES.contains(current.getStatus())) {
+                return;
+            }
+            current.setStatus("CANCELLED");
+            current.setEndTime(LocalDateTime.now());
+            current.setErrorMessage(cancelReason);
+        });
+        publishProgress(jobId);
+        log.info("规则试运行已取消: jobId={}, reason={}", jobId, cancelReason);
+        return getJob(jobId);
+    }
+
+    /**
+     * 订阅试运行作业进度
+     */
+    public SseEmitter subscribe(String jobId) {
+        AuditJobResponse job = getJob(jobId);
+        if (progressPublisher == null) {
+            throw new IllegalStateException("作业进度推送未启用");
+        }
+        return progressPublisher.subscribe(job);
+    }
+
+    /**
+     * 在作业线程中执行试运行，结束时写入报告或失败原因
+     */
+    private void execute(String jobId, RuleDryRunRequest request, JobExecutionContext context) {
+        try {
+            if (context.isCancelled() && !context.isTimedOut()) {
+                return;
+            }
+            RuleDryRunReport report = run(jobId, request, context);
+            dryRunJobs.updateJob(jobId, job -> {
+                // 已取消的试运行保持取消状态
+                if (TERMINAL_STATUSES.contains(job.getStatus())) {
+                    return;
+                }
+                job.setStatus("COMPLETED");
+                job.setProgress(100);
+                job.setEndTime(LocalDateTime.now());
+                job.setDryRunReport(report);
+                if (Boolean.TRUE.equals(report.getTimedOut())) {
+                    job.setErrorMessage("试运行超时，未重放的文档计入跳过数: " + report.getSkippedDocuments());
+                }
+            });
+            publishProgress(jobId);
+        } catch (RuntimeException e) {
+            log.error("规则试运行失败: jobId={}, error={}", jobId, e.getMessage(), e);
+            failJob(jobId, e.getMessage());
+        } finally {
+            runningRuns.remove(jobId);
+        }
+    }
+
+    /**
+     * 在历史文档语料上试运行规则草稿：作业线程按槽位提交文档，文档在试运行的执行上下文中匹配；
+     * 等待不超过截止时间，取消或到期后未提交和未完成的文档计为跳过
+     */
+    private RuleDryRunReport run(String jobId, RuleDryRunRequest request, JobExecutionContext context) {
+        Rule rule = request.getRule();
+        String baselineRuleId = request.getBaselineRuleId() != null && !request.getBaselineRuleId().isEmpty()
+                ? request.getBaselineRuleId() : rule.getId();
+        int limit = request.getMaxDocuments() != null && request.getMaxDocuments() > 0
+                ? Math.min(request.getMaxDocuments(), maxDocuments) : maxDocuments;
+        int sampleSize = request.getSampleSize() != null && request.getSampleSize() >= 0
+                ? Math.min(request.getSampleSize(), MAX_SAMPLE_SIZE) : DEFAULT_SAMPLE_SIZE;
+
+        List<String> corpus = resolveCorpus(request);
+        boolean truncated = corpus.size() > limit;
+        if (truncated) {
+            corpus = corpus.subList(0, limit);
+        }
+
+        Rule draft = Rule.builder()
+                .id(DRAFT_ID_PREFIX + (rule.getId() != null ? rule.getId() : "draft") + ":"
+                        + runSequence.incrementAndGet())
+                .name(rule.getName())
+                .type(rule.getType())
+                .description(rule.getDescription())
+                .threshold(rule.getThreshold())
+                .parameters(rule.getParameters() != null ? rule.getParameters() : Map.of())
+                .build();
+        Map<String, AuditResultDto> decisions = jobStore.findLatestResults(baselineRuleId, new HashSet<>(corpus));
+
+        log.info("开始规则试运行: jobId={}, ruleId={}, baselineRuleId={}, documents={}, labelled={}, truncated={}",
+                jobId, rule.getId(), baselineRuleId, corpus.size(), decisions.size(), truncated);
+        int total = corpus.size();
+        dryRunJobs.updateJob(jobId, job -> {
+            if (!TERMINAL_STATUSES.contains(job.getStatus())) {
+                job.setStatus("RUNNING");
+                job.setTotalTasks(total);
+            }
+        });
+        publishProgress(jobId);
+
+        long startTime = System.currentTimeMillis();
+        DryRunTally tally = new DryRunTally(sampleSize);
+        AtomicInteger completed = new AtomicInteger();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(total);
+        try {
+            for (String documentId : corpus) {
+                if (!acquireSlot(context)) {
+                    break;
+                }
+                Boolean label = labelOf(decisions.get(documentId));
+                CompletableFuture<Void> future;
+                try {
+                    future = CompletableFuture.runAsync(() -> {
+                        documentSlots.release();
+                        replay(draft, documentId, label, context, tally);
+                    }, executor);
+                } catch (RejectedExecutionException e) {
+                    documentSlots.release();
+                    throw e;
+                }
+                futures.add(future.whenComplete(
+                        (ignored, error) -> updateProgress(jobId, completed.incrementAndGet(), total)));
+            }
+            awaitUntil(CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])), context);
+        } finally {
+            // 超时后仍在执行的文档结束时再清理一次，避免草稿脚本重新进入编译缓存
+            evictDraft(draft);
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .whenComplete((ignored, error) -> evictDraft(draft));
+        }
+
+        RuleDryRunReport report = tally.toReport(rule.getId(), baselineRuleId, corpus.size(),
+                System.currentTimeMillis() - startTime, executor.getMaximumPoolSize(), truncated);
+        log.info("规则试运行完成: jobId={}, ruleId={}, scanned={}, flagged={}, precision={}, recall={}, nanosPerChunk={}, duration={}ms",
+                jobId, rule.getId(), report.getScannedDocuments(), report.getFlaggedDocuments(), report.getPrecision(),
+                report.getRecall(), report.getNanosPerChunk(), report.getDurationMs());
+        return report;
+    }
+
+    private void evictDraft(Rule draft) {
+        if (scriptMatcher != null) {
+            scriptMatcher.evict(draft.getId());
+        }
+    }
+
+    /**
+     * 在截止时间前占用一个文档任务槽位，试运行取消或到期时返回false
+     */
+    private boolean acquireSlot(JobExecutionContext context) {
+        try {
+            while (!isAborted(context)) {
+                if (documentSlots.tryAcquire(Math.min(context.remainingMillis(), CANCEL_POLL_MILLIS),
+                        TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("试运行被中断");
+        }
+    }
+
+    /**
+     * 等待已提交的文档完成，最多等到取消或截止时间；之后放弃等待，报告按已完成的文档生成，
+     * 仍在执行的文档在下一个检查点停止
+     */
+    private static void awaitUntil(CompletableFuture<Void> all, JobExecutionContext context) {
+        try {
+            while (true) {
+                try {
+                    all.get(Math.min(context.remainingMillis(), CANCEL_POLL_MILLIS), TimeUnit.MILLISECONDS);
+                    return;
+                } catch (TimeoutException e) {
+                    if (isAborted(context)) {
+                        log.warn("规则试运行{}，停止等待未完成的文档: jobId={}",
+                                context.isTimedOut() ? "超时" : "已取消", context.getJobId());
+                        return;
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("试运行文档执行失败: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("试运行被中断");
+        }
+    }
+
+    /**
+     * 试运行是否已取消或到期，到期时把上下文标记为超时
+     */
+    private static boolean isAborted(JobExecutionContext context) {
+        try {
+            context.check();
+            return false;
+        } catch (JobExecutionContext.JobAbortedException e) {
+            return true;
+        }
+    }
+
+    private void updateProgress(String jobId, int completed, int total) {
+        dryRunJobs.updateJob(jobId, job -> {
+            if ("RUNNING".equals(job.getStatus())) {
+                job.setCompletedTasks(completed);
+                job.setProgress(Math.min(completed * 100 / Math.max(total, 1), 99));
+            }
+        });
+        AuditJobResponse job = dryRunJobs.findJob(jobId);
+        if (progressPublisher != null && job != null && "RUNNING".equals(job.getStatus())) {
+            progressPublisher.publish(job);
+        }
+    }
+
+    private void failJob(String jobId, String errorMessage) {
+        dryRunJobs.updateJob(jobId, job -> {
+            if (TERMINAL_STATUSES.contains(job.getStatus())) {
+                return;
+            }
+            job.setStatus("FAILED");
+            job.setEndTime(LocalDateTime.now());
+            job.setErrorMessage(errorMessage);
+        });
+        publishProgress(jobId);
+    }
+
+    private void publishProgress(String jobId) {
+        if (progressPublisher == null) {
+            return;
+        }
+        AuditJobResponse job = dryRunJobs.findJob(jobId);
+        if (job != null) {
+            progressPublisher.publish(job);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 确定语料：指定文档优先，其次指定产品下已建索引的文档，都未指定时取全部已存储文档
+     */
+    private List<String> resolveCorpus(RuleDryRunRequest request) {
+        Set<String> corpus = new LinkedHashSet<>();
+        if (request.getDocumentIds() != null) {
+            corpus.addAll(request.getDocumentIds());
+        }
+        if (request.getProductIds() != null && indexStore != null) {
+            for (String productId : request.getProductIds()) {
+                LexicalIndex index = indexStore.getProductIndex(productId);
+                if (index != null) {
+                    corpus.addAll(index.getDocumentIds());
+                }
+            }
+        }
+        boolean unscoped = (request.getDocumentIds() == null || request.getDocumentIds().isEmpty())
+                && (request.getProductIds() == null || request.getProductIds().isEmpty());
+        if (unscoped) {
+            corpus.addAll(chunkStore.getDocumentIds());
+        }
+        return new ArrayList<>(corpus);
+    }
+
+    /**
+     * 重放单个文档，匹配在当前工作线程内串行执行，并行度由文档间的线程池提供；
+     * 绑定试运行的执行上下文，取消或到期后在分块检查点停止，该文档计为跳过
+     */
+    private void replay(Rule draft, String documentId, Boolean label, JobExecutionContext context,
+                        DryRunTally tally) {
+        if (isAborted(context)) {
+            tally.skipped();
+            return;
+        }
+        List<DocumentChunk> chunks = chunkStore.get(documentId);
+        if (chunks == null) {
+            tally.missing();
+            return;
+        }
+
+        long matchStart = System.nanoTime();
+        List<Matcher.MatchResult> results;
+        try (JobExecutionContext.Scope ignored = context.activate()) {
+            results = matchingExecutor.match(documentId, List.of(draft), chunks, Map.of(), 1)
+                    .getOrDefault(draft.getId(), List.of());
+        } catch (JobExecutionContext.JobAbortedException e) {
+            tally.skipped();
+            return;
+        } catch (RuntimeException e) {
+            log.warn("规则试运行文档失败: ruleId={}, documentId={}, error={}",
+                    draft.getId(), documentId, e.getMessage());
+            tally.error(documentId + ": " + e.getMessage(), chunks.size(), System.nanoTime() - matchStart);
+            return;
+        }
+        long elapsed = System.nanoTime() - matchStart;
+
+        MatchResultAggregator aggregator = new MatchResultAggregator();
+        aggregator.acceptAll(results);
+        MatchResultAggregator.RuleSummary summary = aggregator.getSummary(draft.getId());
+        String status = summary != null ? summary.getOverallStatus() : "PASSED";
+        if ("ERROR".equals(status)) {
+            tally.error(documentId, chunks.size(), elapsed);
+            return;
+        }
+        int flaggedResults = summary != null ? summary.getFailedCount() + summary.getWarningCount() : 0;
+        tally.scanned(documentId, chunks.size(), elapsed, FLAGGED_STATUSES.contains(status), flaggedResults, label);
+    }
+
+    /**
+     * 历史判定：失败或警告为标记，通过为未标记，其他状态不作为判定
+     */
+    private static Boolean labelOf(AuditResultDto decision) {
+        if (decision == null || decision.getStatus() == null) {
+            return null;
+        }
+        if (FLAGGED_STATUSES.contains(decision.getStatus())) {
+            return Boolean.TRUE;
+        }
+        return "PASSED".equals(decision.getStatus()) ? Boolean.FALSE : null;
+    }
+
+    /**
+     * 试运行计数，各工作线程并发累加；生成报告后不再计数，超时后仍在执行的文档不影响报告
+     */
+    private static final class DryRunTally {
+
+        private final int sampleSize;
+        private boolean closed;
+        private int scanned;
+        private int missing;
+        private int skipped;
+        private int errors;
+        private int flagged;
+        private long matchCount;
+        private int labelled;
+        private int truePositives;
+        private int falsePositives;
+        private int falseNegatives;
+        private int trueNegatives;
+        private long chunks;
+        private long matchingNanos;
+        private final List<String> newlyFlagged = new ArrayList<>();
+        private final List<String> cleared = new ArrayList<>();
+        private final List<String> errorSamples = new ArrayList<>();
+
+        DryRunTally(int sampleSize) {
+            this.sampleSize = sampleSize;
+        }
+
+        synchronized void missing() {
+            if (closed) {
+                return;
+            }
+            missing++;
+        }
+
+        synchronized void skipped() {
+            if (closed) {
+                return;
+            }
+            skipped++;
+        }
+
+        synchronized void error(String sample, int chunkCount, long nanos) {
+            if (closed) {
+                return;
+            }
+            errors++;
+            chunks += chunkCount;
+            matchingNanos += nanos;
+            sample(errorSamples, sample);
+        }
+
+        synchronized void scanned(String documentId, int chunkCount, long nanos, boolean isFlagged,
+                                  int flaggedResults, Boolean label) {
+            if (closed) {
+                return;
+            }
+            scanned++;
+            chunks += chunkCount;
+            matchingNanos += nanos;
+            if (isFlagged) {
+                flagged++;
+                matchCount += flaggedResults;
+            }
+            if (label == null) {
+                return;
+            }
+            labelled++;
+            if (isFlagged && label) {
+                truePositives++;
+            } else if (isFlagged) {
+                falsePositives++;
+                sample(newlyFlagged, documentId);
+            } else if (label) {
+                falseNegatives++;
+                sample(cleared, documentId);
+            } else {
+                trueNegatives++;
+            }
+        }
+
+        synchronized RuleDryRunReport toReport(String ruleId, String baselineRuleId, int corpusDocuments,
+                                               long durationMs, int parallelism, boolean truncated) {
+            closed = true;
+            // 截止时间前未提交或未完成的文档计为跳过
+            skipped += Math.max(corpusDocuments - scanned - missing - skipped - errors, 0);
+            return RuleDryRunReport.builder()
+                    .ruleId(ruleId)
+                    .baselineRuleId(baselineRuleId)
+                    .corpusDocuments(corpusDocuments)
+                    .scannedDocuments(scanned)
+                    .missingDocuments(missing)
+                    .skippedDocuments(skipped)
+                    .errorDocuments(errors)
+                    .flaggedDocuments(flagged)
+                    .matchCount(matchCount)
+                    .labelledDocuments(labelled)
+                    .truePositives(truePositives)
+                    .falsePositives(falsePositives)
+                    .falseNegatives(falseNegatives)
+                    .trueNegatives(trueNegatives)
+                    .precision(ratio(truePositives, truePositives + falsePositives))
+                    .recall(ratio(truePositives, truePositives + falseNegatives))
+                    .totalChunks(chunks)
+                    .matchingMillis(TimeUnit.NANOSECONDS.toMillis(matchingNanos))
+                    .nanosPerChunk(chunks > 0 ? (double) matchingNanos / chunks : null)
+                    .durationMs(durationMs)
+                    .parallelism(parallelism)
+                    .truncated(truncated)
+                    .timedOut(skipped > 0)
+                    .newlyFlaggedDocuments(List.copyOf(newlyFlagged))
+                    .clearedDocuments(List.copyOf(cleared))
+                    .errorSamples(List.copyOf(errorSamples))
+                    .build();
+        }
+
+        private void sample(List<String> samples, String value) {
+            if (samples.size() < sampleSize) {
+                samples.add(value);
+            }
+        }
+
+        private static Double ratio(int numerator, int denominator) {
+            return denominator > 0 ? (double) numerator / denominator : null;
+        }
+    }
+}
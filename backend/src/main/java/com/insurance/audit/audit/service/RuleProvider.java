@@ -1,9 +1,11 @@
 package com.insurance.audit.audit.service;
 
+import com.insurance.audit.audit.dto.RuleApplicabilityCriteria;
+import com.insurance.audit.audit.matchers.ScriptMatcher;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -12,13 +14,17 @@ import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.net.URI;
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 规则提供者服务
- * 从 rule-configuration-system 拉取规则快照（版本/阈值），含缓存与版本绑定
+ * 从 rule-configuration-system 拉取规则快照（版本/阈值），缓存与版本绑定由 RuleSetSnapshotCache 负责
  * 增强版：支持重试策略、熔断机制、超时控制
  *
  * @author System
@@ -30,6 +36,7 @@ import java.util.Map;
 public class RuleProvider {
 
     @Autowired
+    @Qualifier("auditRestTemplate")
     private RestTemplate restTemplate;
 
     @Value("${audit.rule-service.base-url:http://localhost:8080}")
@@ -48,12 +55,11 @@ public class RuleProvider {
     private double retryMultiplier;
 
     /**
-     * 获取有效规则集（带缓存和重试机制）
+     * 获取有效规则集（带重试机制）
      *
      * @param ruleSetId 规则集ID
      * @return 规则集快照
      */
-    @Cacheable(value = "rulesets", key = "#ruleSetId", unless = "#result == null")
     public RuleSet getEffectiveRuleSet(String ruleSetId) {
         return executeWithRetry(() -> {
             long startTime = System.currentTimeMillis();
@@ -96,7 +102,6 @@ public class RuleProvider {
      * @param ruleSetId 规则集ID
      * @return 版本信息
      */
-    @Cacheable(value = "ruleset-versions", key = "#ruleSetId")
     public String getRuleSetVersion(String ruleSetId) {
         return executeWithRetry(() -> {
             long startTime = System.currentTimeMillis();
@@ -159,6 +164,73 @@ public class RuleProvider {
         });
     }
 
+    /**
+     * 按产品的适用性条件查询适用规则ID（带重试机制），由规则服务的适用性索引筛选
+     *
+     * @param criteria 适用性条件
+     * @return 适用且有效的规则ID；条件为空或规则服务不可用时返回null，表示不按适用性筛选
+     */
+    public Set<String> getApplicableRuleIds(RuleApplicabilityCriteria criteria) {
+        if (criteria == null) {
+            return null;
+        }
+        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(ruleServiceBaseUrl)
+                .path("/v1/rules/applicable");
+        boolean filtered = addCriteria(builder, "insurances", criteria.getInsurances())
+                | addCriteria(builder, "businessAreas", criteria.getBusinessAreas())
+                | addCriteria(builder, "departments", criteria.getDepartments())
+                | addCriteria(builder, "chapters", criteria.getChapters());
+        if (!filtered) {
+            return null;
+        }
+        URI uri = builder.encode().build().toUri();
+
+        return executeWithRetry(() -> {
+            long startTime = System.currentTimeMillis();
+            log.debug("查询适用规则: url={}", uri);
+
+            ResponseEntity<ApplicableRulesResponse> response =
+                    restTemplate.getForEntity(uri, ApplicableRulesResponse.class);
+
+            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null
+                    && response.getBody().getData() != null) {
+                Set<String> ruleIds = new HashSet<>();
+                for (RuleResponse rule : response.getBody().getData()) {
+                    ruleIds.add(rule.getId());
+                }
+
+                long duration = System.currentTimeMillis() - startTime;
+                log.info("成功查询适用规则: criteria={}, ruleCount={}, duration={}ms", criteria, ruleIds.size(), duration);
+                return ruleIds;
+            }
+            log.warn("适用规则查询返回异常状态: status={}", response.getStatusCode());
+            throw new RuntimeException("适用规则查询返回异常状态: " + response.getStatusCode());
+        }, () -> {
+            log.warn("适用规则查询重试失败，不按适用性筛选规则: criteria={}", criteria);
+            return null;
+        });
+    }
+
+    /**
+     * 添加一个适用性维度的查询参数，取值以逗号分隔
+     *
+     * @return 是否添加了该维度
+     */
+    private static boolean addCriteria(UriComponentsBuilder builder, String name, List<String> values) {
+        if (values == null) {
+            return false;
+        }
+        List<String> present = values.stream()
+                .filter(value -> value != null && !value.isBlank())
+                .map(String::trim)
+                .toList();
+        if (present.isEmpty()) {
+            return false;
+        }
+        builder.queryParam(name, String.join(",", present));
+        return true;
+    }
+
     /**
      * 执行带重试机制的操作
      */
@@ -227,10 +299,33 @@ public class RuleProvider {
                 .type(ruleResponse.getType())
                 .description(ruleResponse.getDescription())
                 .threshold(ruleResponse.getThreshold())
-                .parameters(ruleResponse.getParameters())
+                .parameters(convertParameters(ruleResponse))
                 .build();
     }
 
+    /**
+     * 规则类型专有字段并入匹配参数，参数中已有同名项时以参数为准
+     */
+    private Map<String, Object> convertParameters(RuleResponse ruleResponse) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        putIfPresent(parameters, "matchChapter", ruleResponse.getMatchChapter());
+        putIfPresent(parameters, "matchChapterA", ruleResponse.getMatchChapterA());
+        putIfPresent(parameters, "matchChapterB", ruleResponse.getMatchChapterB());
+        putIfPresent(parameters, ScriptMatcher.SCRIPT_PARAMETER, ruleResponse.getExecutionScript());
+        putIfPresent(parameters, ScriptMatcher.CONFIG_PARAMETER, ruleResponse.getAdvancedRuleConfig());
+        putIfPresent(parameters, ScriptMatcher.WEIGHT_PARAMETER, ruleResponse.getRuleWeight());
+        if (ruleResponse.getParameters() != null) {
+            parameters.putAll(ruleResponse.getParameters());
+        }
+        return parameters;
+    }
+
+    private static void putIfPresent(Map<String, Object> parameters, String key, Object value) {
+        if (value != null && !(value instanceof String text && text.isBlank())) {
+            parameters.put(key, value);
+        }
+    }
+
     /**
      * 获取默认规则集（降级处理）
      */
@@ -243,6 +338,7 @@ public class RuleProvider {
                 .name("默认规则集")
                 .description("规则服务不可用时的默认规则集")
                 .createTime(LocalDateTime.now())
+                .degraded(true)
                 .rules(List.of(
                     Rule.builder()
                         .id("default-rule-001")
@@ -256,6 +352,18 @@ public class RuleProvider {
                 .build();
     }
 
+    /**
+     * 适用规则查询响应DTO
+     */
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class ApplicableRulesResponse {
+        private Integer code;
+        private String message;
+        private List<RuleResponse> data;
+    }
+
     /**
      * 规则集响应DTO
      */
@@ -286,6 +394,24 @@ public class RuleProvider {
         private String description;
         private Double threshold;
         private Map<String, Object> parameters;
+
+        /**
+         * 单句规则的匹配章节
+         */
+        private String matchChapter;
+
+        /**
+         * 双句规则A句、B句的匹配章节
+         */
+        private String matchChapterA;
+        private String matchChapterB;
+
+        /**
+         * 高级规则的执行脚本、规则配置（JSON）和权重
+         */
+        private String executionScript;
+        private String advancedRuleConfig;
+        private Integer ruleWeight;
     }
 
     /**
@@ -302,6 +428,10 @@ public class RuleProvider {
         private String description;
         private LocalDateTime createTime;
         private List<Rule> rules;
+        /**
+         * 是否为规则服务不可用时的降级规则集，降级规则集不作为规则集快照缓存
+         */
+        private boolean degraded;
     }
 
     /**
@@ -0,0 +1,430 @@
+package com.insurance.audit.audit.service;
+
+import com.insurance.audit.common.event.RuleStatusChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 规则集快照缓存
+ * 按 (规则集ID, 版本) 缓存编译后的不可变规则集，同一规则集的并发加载合并为一次远程调用。
+ * 后台线程按 refresh-interval 轮询规则集版本，版本变化时提前加载新快照并原子替换；
+ * 超过 ruleset-ttl 仍未确认版本的快照视为过期，下次访问时同步加载；
+ * 规则服务不可用时过期快照最多再使用 ruleset-stale-grace，之后重新加载，加载失败则抛出异常；
+ * RuleProvider 降级返回的默认规则集不会替换或缓存为快照。
+ * 规则有效状态变更后，包含该规则的快照立即失效
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class RuleSetSnapshotCache {
+
+    /**
+     * 规则服务不可用时 RuleProvider 返回的版本号
+     */
+    private static final String UNKNOWN_VERSION = "unknown";
+
+    @Autowired
+    private RuleProvider ruleProvider;
+
+    @Value("${audit.cache.ruleset-ttl:7200}")
+    private long ttlSeconds = 7200;
+
+    @Value("${audit.cache.ruleset-refresh-interval:60}")
+    private long refreshIntervalSeconds = 60;
+
+    @Value("${audit.cache.ruleset-stale-grace:600}")
+    private long staleGraceSeconds = 600;
+
+    @Value("${audit.cache.ruleset-idle-timeout:86400}")
+    private long idleTimeoutSeconds = 86400;
+
+    /**
+     * 规则集ID -> 当前快照
+     */
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 规则集ID + 版本 -> 快照，保留当前版本和上一个版本供固定版本的作业使用
+     */
+    private final ConcurrentHashMap<String, CompiledRuleSet> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * 规则集ID -> 进行中的加载
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<CompiledRuleSet>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong versionChecks = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * 失效代数，加载期间发生失效时新快照仍标记为已失效
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ruleset-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshAll,
+                refreshIntervalSeconds, refreshIntervalSeconds, TimeUnit.SECONDS);
+        log.info("规则集快照缓存启动: ttl={}s, refreshInterval={}s, staleGrace={}s, idleTimeout={}s",
+                ttlSeconds, refreshIntervalSeconds, staleGraceSeconds, idleTimeoutSeconds);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 获取规则集的当前快照
+     * 快照在有效期内直接返回；不存在、已过期或已失效时同步加载，并发调用方共享同一次加载
+     *
+     * @param ruleSetId 规则集ID
+     * @return 不可变规则集快照
+     */
+    public CompiledRuleSet getRuleSet(String ruleSetId) {
+        Entry entry = entries.get(ruleSetId);
+        long now = System.nanoTime();
+        if (entry != null && !entry.stale && now - entry.verifiedAt < TimeUnit.SECONDS.toNanos(ttlSeconds)) {
+            entry.lastAccessAt = now;
+            hits.incrementAndGet();
+            return entry.snapshot;
+        }
+        return load(ruleSetId);
+    }
+
+    /**
+     * 获取指定版本的快照，未保留该版本时返回null
+     */
+    public CompiledRuleSet getRuleSet(String ruleSetId, String version) {
+        return snapshots.get(snapshotKey(ruleSetId, version));
+    }
+
+    /**
+     * 失效单个规则集，下次访问时重新加载
+     */
+    public void invalidate(String ruleSetId) {
+        Entry entry = entries.get(ruleSetId);
+        if (entry != null) {
+            generation.incrementAndGet();
+            entry.stale = true;
+            invalidations.incrementAndGet();
+        }
+    }
+
+    /**
+     * 失效全部规则集
+     */
+    public void invalidateAll() {
+        entries.keySet().forEach(this::invalidate);
+    }
+
+    /**
+     * 规则有效状态变更后失效包含该规则的快照并在后台重新加载；
+     * 其余规则集只提前校验版本，新生效的规则由规则服务的版本号变化带入
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRuleStatusChanged(RuleStatusChangedEvent event) {
+        log.info("规则有效状态变更，刷新规则集快照: ruleId={}, {} -> {}",
+                event.getRuleId(), event.getPreviousStatus(), event.getCurrentStatus());
+
+        List<String> affected = new ArrayList<>();
+        for (Map.Entry<String, Entry> item : entries.entrySet()) {
+            if (item.getValue().snapshot.containsRule(event.getRuleId())) {
+                invalidate(item.getKey());
+                affected.add(item.getKey());
+            }
+        }
+        log.debug("失效规则集快照: ruleId={}, ruleSets={}", event.getRuleId(), affected);
+
+        if (scheduler != null && !scheduler.isShutdown()) {
+            scheduler.execute(this::refreshAll);
+        }
+    }
+
+    /**
+     * 后台刷新：丢弃长期未访问的规则集，其余校验版本，版本变化或已失效时重新加载
+     */
+    void refreshAll() {
+        long now = System.nanoTime();
+        for (Map.Entry<String, Entry> item : entries.entrySet()) {
+            String ruleSetId = item.getKey();
+            Entry entry = item.getValue();
+
+            if (now - entry.lastAccessAt > TimeUnit.SECONDS.toNanos(idleTimeoutSeconds)) {
+                if (entries.remove(ruleSetId, entry)) {
+                    snapshots.remove(snapshotKey(ruleSetId, entry.snapshot.getVersion()));
+                    if (entry.previousVersion != null) {
+                        snapshots.remove(snapshotKey(ruleSetId, entry.previousVersion));
+                    }
+                    log.debug("移除闲置规则集快照: ruleSetId={}", ruleSetId);
+                }
+                continue;
+            }
+            if (inFlight.containsKey(ruleSetId)) {
+                continue;
+            }
+
+            try {
+                load(ruleSetId);
+            } catch (RuntimeException e) {
+                log.warn("后台刷新规则集失败: ruleSetId={}, error={}", ruleSetId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 获取缓存统计
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("ruleSets", (long) entries.size());
+        stats.put("snapshots", (long) snapshots.size());
+        stats.put("hits", hits.get());
+        stats.put("loads", loads.get());
+        stats.put("versionChecks", versionChecks.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    /**
+     * 单飞加载：同一规则集同时只有一个线程访问规则服务，其余线程等待其结果
+     */
+    private CompiledRuleSet load(String ruleSetId) {
+        CompletableFuture<CompiledRuleSet> future = new CompletableFuture<>();
+        CompletableFuture<CompiledRuleSet> existing = inFlight.putIfAbsent(ruleSetId, future);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try {
+            CompiledRuleSet snapshot = doLoad(ruleSetId);
+            future.complete(snapshot);
+            return snapshot;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(ruleSetId, future);
+        }
+    }
+
+    private CompiledRuleSet doLoad(String ruleSetId) {
+        Entry entry = entries.get(ruleSetId);
+        long now = System.nanoTime();
+        long loadGeneration = generation.get();
+
+        if (entry != null && !entry.stale) {
+            // 已有快照时先比较版本，版本未变只延长有效期
+            versionChecks.incrementAndGet();
+            String version = ruleProvider.getRuleSetVersion(ruleSetId);
+            if (UNKNOWN_VERSION.equals(version)) {
+                // 规则服务不可用：有效期加宽限期内继续使用现有快照，不延长有效期
+                long unverifiedNanos = now - entry.verifiedAt;
+                if (unverifiedNanos < TimeUnit.SECONDS.toNanos(ttlSeconds + staleGraceSeconds)) {
+                    log.warn("无法确认规则集版本，继续使用现有快照: ruleSetId={}, version={}, unverified={}s",
+                            ruleSetId, entry.snapshot.getVersion(), TimeUnit.NANOSECONDS.toSeconds(unverifiedNanos));
+                    return entry.snapshot;
+                }
+                log.error("规则集快照超过宽限期仍无法确认版本，重新加载: ruleSetId={}, version={}, unverified={}s",
+                        ruleSetId, entry.snapshot.getVersion(), TimeUnit.NANOSECONDS.toSeconds(unverifiedNanos));
+            } else if (Objects.equals(version, entry.snapshot.getVersion())) {
+                entry.verifiedAt = now;
+                return entry.snapshot;
+            } else {
+                CompiledRuleSet retained = snapshots.get(snapshotKey(ruleSetId, version));
+                if (retained != null) {
+                    return install(ruleSetId, retained, entry, now, loadGeneration);
+                }
+            }
+        }
+
+        loads.incrementAndGet();
+        RuleProvider.RuleSet ruleSet = ruleProvider.getEffectiveRuleSet(ruleSetId);
+        if (ruleSet == null) {
+            throw new RuntimeException("规则集不存在: " + ruleSetId);
+        }
+        if (ruleSet.isDegraded()) {
+            // 降级规则集不是规则服务确认的快照：宽限期内继续使用现有快照，否则加载失败
+            if (entry != null && now - entry.verifiedAt < TimeUnit.SECONDS.toNanos(ttlSeconds + staleGraceSeconds)) {
+                log.warn("规则服务不可用，继续使用现有快照: ruleSetId={}, version={}",
+                        ruleSetId, entry.snapshot.getVersion());
+                return entry.snapshot;
+            }
+            throw new RuntimeException("规则服务不可用，无法加载规则集: " + ruleSetId);
+        }
+        return install(ruleSetId, CompiledRuleSet.compile(ruleSet), entry, now, loadGeneration);
+    }
+
+    private CompiledRuleSet install(String ruleSetId, CompiledRuleSet snapshot, Entry previous,
+                                    long now, long loadGeneration) {
+        snapshots.put(snapshotKey(ruleSetId, snapshot.getVersion()), snapshot);
+
+        Entry entry = new Entry(snapshot, now);
+        entry.stale = generation.get() != loadGeneration;
+        if (previous != null) {
+            entry.lastAccessAt = Math.max(previous.lastAccessAt, now);
+            String replaced = previous.snapshot.getVersion();
+            if (!Objects.equals(replaced, snapshot.getVersion())) {
+                entry.previousVersion = replaced;
+                if (previous.previousVersion != null
+                        && !Objects.equals(previous.previousVersion, snapshot.getVersion())) {
+                    snapshots.remove(snapshotKey(ruleSetId, previous.previousVersion));
+                }
+            } else {
+                entry.previousVersion = previous.previousVersion;
+            }
+        }
+        entries.put(ruleSetId, entry);
+
+        if (previous == null || !Objects.equals(previous.snapshot.getVersion(), snapshot.getVersion())) {
+            log.info("规则集快照已更新: ruleSetId={}, version={}, ruleCount={}",
+                    ruleSetId, snapshot.getVersion(), snapshot.getRules().size());
+        }
+        return snapshot;
+    }
+
+    private static String snapshotKey(String ruleSetId, String version) {
+        return ruleSetId + '@' + version;
+    }
+
+    /**
+     * 规则集的当前快照及其校验时间
+     */
+    private static final class Entry {
+        private final CompiledRuleSet snapshot;
+        private volatile long verifiedAt;
+        private volatile long lastAccessAt;
+        private volatile boolean stale;
+        private String previousVersion;
+
+        private Entry(CompiledRuleSet snapshot, long now) {
+            this.snapshot = snapshot;
+            this.verifiedAt = now;
+            this.lastAccessAt = now;
+        }
+    }
+
+    /**
+     * 编译后的规则集快照
+     * 加载时完成规则复制、按ID和类型建立索引，创建后不再修改，可在作业间安全共享
+     */
+    @Getter
+    public static final class CompiledRuleSet {
+        private final String id;
+        private final String version;
+        private final String name;
+        private final String description;
+        private final LocalDateTime loadedAt;
+        private final List<RuleProvider.Rule> rules;
+        private final Map<String, RuleProvider.Rule> rulesById;
+        private final Map<String, List<RuleProvider.Rule>> rulesByType;
+
+        private CompiledRuleSet(RuleProvider.RuleSet ruleSet) {
+            this.id = ruleSet.getId();
+            this.version = ruleSet.getVersion();
+            this.name = ruleSet.getName();
+            this.description = ruleSet.getDescription();
+            this.loadedAt = LocalDateTime.now();
+
+            List<RuleProvider.Rule> copied = new ArrayList<>();
+            Map<String, RuleProvider.Rule> byId = new LinkedHashMap<>();
+            Map<String, List<RuleProvider.Rule>> byType = new LinkedHashMap<>();
+            if (ruleSet.getRules() != null) {
+                for (RuleProvider.Rule source : ruleSet.getRules()) {
+                    RuleProvider.Rule rule = RuleProvider.Rule.builder()
+                            .id(source.getId())
+                            .name(source.getName())
+                            .type(source.getType())
+                            .description(source.getDescription())
+                            .threshold(source.getThreshold())
+                            .parameters(source.getParameters() != null
+                                    ? Collections.unmodifiableMap(new LinkedHashMap<>(source.getParameters()))
+                                    : Map.of())
+                            .build();
+                    copied.add(rule);
+                    if (rule.getId() != null) {
+                        byId.put(rule.getId(), rule);
+                    }
+                    byType.computeIfAbsent(rule.getType(), k -> new ArrayList<>()).add(rule);
+                }
+            }
+            byType.replaceAll((type, list) -> Collections.unmodifiableList(list));
+
+            this.rules = Collections.unmodifiableList(copied);
+            this.rulesById = Collections.unmodifiableMap(byId);
+            this.rulesByType = Collections.unmodifiableMap(byType);
+        }
+
+        static CompiledRuleSet compile(RuleProvider.RuleSet ruleSet) {
+            return new CompiledRuleSet(ruleSet);
+        }
+
+        /**
+         * 只保留指定规则的快照，版本不变，规则顺序不变
+         *
+         * @param ruleIds 保留的规则ID
+         * @return 筛选后的规则集快照
+         */
+        public CompiledRuleSet retain(Collection<String> ruleIds) {
+            Set<String> retained = new HashSet<>(ruleIds);
+            return new CompiledRuleSet(RuleProvider.RuleSet.builder()
+                    .id(id)
+                    .version(version)
+                    .name(name)
+                    .description(description)
+                    .rules(rules.stream().filter(rule -> retained.contains(rule.getId())).toList())
+                    .build());
+        }
+
+        public boolean containsRule(String ruleId) {
+            return rulesById.containsKey(ruleId);
+        }
+
+        public List<RuleProvider.Rule> getRulesByType(String type) {
+            return rulesByType.getOrDefault(type, List.of());
+        }
+    }
+}
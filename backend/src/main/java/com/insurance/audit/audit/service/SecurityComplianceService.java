@@ -1,8 +1,16 @@
 package com.insurance.audit.audit.service;
 
+import com.insurance.audit.audit.dto.AuditResultDto;
+import com.insurance.audit.audit.security.SensitiveDataScanner;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentSection;
+import com.insurance.audit.audit.service.DocumentProvider.ParsedDocument;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 安全合规服务
  * 提供权限验证、数据脱敏、审计日志等安全功能
@@ -15,6 +23,9 @@ import org.springframework.stereotype.Service;
 @Service
 public class SecurityComplianceService {
 
+    @Autowired
+    private SensitiveDataScanner sensitiveDataScanner;
+
     /**
      * 检查检核权限
      */
@@ -53,15 +64,32 @@ public class SecurityComplianceService {
 
     /**
      * 数据脱敏处理
+     * 支持文本、解析后的文档、检核结果及其列表，其他类型原样返回
      */
+    @SuppressWarnings("unchecked")
     public <T> T redactSensitiveData(T data) {
-        // 这里应该实现数据脱敏逻辑
+        if (data == null) {
+            return null;
+        }
+
         log.debug("执行数据脱敏处理: dataType={}", data.getClass().getSimpleName());
 
-        // 实际实现应该：
-        // 1. 识别敏感字段（身份证、手机号、银行卡号等）
-        // 2. 按照脱敏规则进行处理
-        // 3. 返回脱敏后的数据
+        if (data instanceof String text) {
+            return (T) sensitiveDataScanner.redact(text).getRedactedText();
+        }
+        if (data instanceof ParsedDocument document) {
+            return (T) redactParsedDocument(document);
+        }
+        if (data instanceof AuditResultDto result) {
+            return (T) redactAuditResult(result);
+        }
+        if (data instanceof List<?> list) {
+            List<Object> redacted = new ArrayList<>(list.size());
+            for (Object element : list) {
+                redacted.add(redactSensitiveData(element));
+            }
+            return (T) redacted;
+        }
 
         return data;
     }
@@ -75,4 +103,90 @@ public class SecurityComplianceService {
 
         return redactSensitiveData(data);
     }
-}
\ No newline at end of file
+
+    /**
+     * 脱敏解析后的文档，并按脱敏区间重映射段落偏移
+     */
+    private ParsedDocument redactParsedDocument(ParsedDocument document) {
+        SensitiveDataScanner.RedactionResult plainText = document.getPlainText() != null
+                ? sensitiveDataScanner.redact(document.getPlainText()) : null;
+
+        List<DocumentSection> sections = document.getSections();
+        if (sections != null) {
+            List<DocumentSection> redactedSections = new ArrayList<>(sections.size());
+            for (DocumentSection section : sections) {
+                redactedSections.add(redactSection(section, plainText));
+            }
+            sections = redactedSections;
+        }
+
+        return ParsedDocument.builder()
+                .plainText(plainText != null ? plainText.getRedactedText() : null)
+                .encoding(document.getEncoding())
+                .sections(sections)
+                .styleInfo(document.getStyleInfo())
+                .build();
+    }
+
+    /**
+     * 脱敏文档段落
+     */
+    private DocumentSection redactSection(DocumentSection section, SensitiveDataScanner.RedactionResult plainText) {
+        Integer startPos = section.getStartPos();
+        Integer endPos = section.getEndPos();
+        if (plainText != null && plainText.hasRedactions()) {
+            startPos = startPos != null ? plainText.toRedactedOffset(startPos) : null;
+            endPos = endPos != null ? plainText.toRedactedOffset(endPos) : null;
+        }
+
+        return DocumentSection.builder()
+                .id(section.getId())
+                .text(section.getText() != null ? sensitiveDataScanner.redact(section.getText()).getRedactedText() : null)
+                .type(section.getType())
+                .level(section.getLevel())
+                .formatting(section.getFormatting())
+                .startPos(startPos)
+                .endPos(endPos)
+                .build();
+    }
+
+    /**
+     * 脱敏检核结果（证据文本与建议）
+     */
+    private AuditResultDto redactAuditResult(AuditResultDto result) {
+        List<AuditResultDto.Evidence> evidences = result.getEvidences();
+        if (evidences != null) {
+            List<AuditResultDto.Evidence> redactedEvidences = new ArrayList<>(evidences.size());
+            for (AuditResultDto.Evidence evidence : evidences) {
+                redactedEvidences.add(AuditResultDto.Evidence.builder()
+                        .text(redactText(evidence.getText()))
+                        .pageNumber(evidence.getPageNumber())
+                        .paragraphIndex(evidence.getParagraphIndex())
+                        .startPos(evidence.getStartPos())
+                        .endPos(evidence.getEndPos())
+                        .matchType(evidence.getMatchType())
+                        .build());
+            }
+            evidences = redactedEvidences;
+        }
+
+        return AuditResultDto.builder()
+                .resultId(result.getResultId())
+                .jobId(result.getJobId())
+                .ruleId(result.getRuleId())
+                .ruleName(result.getRuleName())
+                .documentId(result.getDocumentId())
+                .status(result.getStatus())
+                .score(result.getScore())
+                .threshold(result.getThreshold())
+                .evidences(evidences)
+                .evidenceCount(result.getEvidenceCount())
+                .recommendation(redactText(result.getRecommendation()))
+                .auditTime(result.getAuditTime())
+                .build();
+    }
+
+    private String redactText(String text) {
+        return text != null ? sensitiveDataScanner.redact(text).getRedactedText() : null;
+    }
+}
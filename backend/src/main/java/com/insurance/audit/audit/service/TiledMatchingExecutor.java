@@ -0,0 +1,538 @@
+package com.insurance.audit.audit.service;
+
+import com.insurance.audit.audit.llm.LLMOrchestrator;
+import com.insurance.audit.audit.matchers.FormatChecker;
+import com.insurance.audit.audit.matchers.KeywordMatcher;
+import com.insurance.audit.audit.matchers.Matcher;
+import com.insurance.audit.audit.matchers.ScriptMatcher;
+import com.insurance.audit.audit.matchers.SemanticMatcher;
+import com.insurance.audit.audit.retrieval.HybridRetriever;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.service.RuleProvider.Rule;
+import com.insurance.audit.audit.tracing.AuditTracer;
+import com.insurance.audit.audit.tracing.TraceSpan;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+
+/**
+ * 分块并行匹配执行器
+ * 将单个文档的（规则 × 文档块）矩阵切分为瓦片，在共享的 ForkJoinPool 上执行：
+ * 任务在瓦片之间检查是否还有空闲并行度，有则把剩余区间的一半拆出供空闲线程窃取。
+ * 每个作业同时存活的任务数不超过单作业并行度上限，结果按规则顺序、文档块顺序拼接，与串行执行一致。
+ * 配置了混合检索器时，每条规则只匹配检索器选出的候选文档块。
+ * 带执行脚本的规则在其他规则全部完成后再执行，脚本可读取其他规则的匹配结果
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class TiledMatchingExecutor {
+
+    @Autowired(required = false)
+    private KeywordMatcher keywordMatcher;
+
+    @Autowired(required = false)
+    private FormatChecker formatChecker;
+
+    @Autowired(required = false)
+    private SemanticMatcher semanticMatcher;
+
+    @Autowired(required = false)
+    private LLMOrchestrator llmOrchestrator;
+
+    @Autowired(required = false)
+    private ScriptMatcher scriptMatcher;
+
+    @Autowired(required = false)
+    private HybridRetriever hybridRetriever;
+
+    @Autowired(required = false)
+    private PerformanceMonitor performanceMonitor;
+
+    @Value("${audit.matching.pool-size:0}")
+    private int poolSize = 0;
+
+    @Value("${audit.matching.max-parallelism-per-job:0}")
+    private int maxParallelismPerJob = 0;
+
+    @Value("${audit.matching.tile-chunks:64}")
+    private int tileChunks = 64;
+
+    /**
+     * 规则类型 -> 匹配器
+     */
+    private final Map<String, Matcher> matchers = new ConcurrentHashMap<>();
+
+    private final AtomicLong executedTiles = new AtomicLong();
+    private final AtomicLong splitTiles = new AtomicLong();
+    private final AtomicLong sequentialRuns = new AtomicLong();
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    public void start() {
+        registerMatcher(keywordMatcher, "KEYWORD", "SINGLE", "DOUBLE");
+        registerMatcher(formatChecker, "FORMAT");
+        registerMatcher(semanticMatcher, "SEMANTIC");
+        registerMatcher(llmOrchestrator, "LLM", "ADVANCED");
+        registerMatcher(scriptMatcher, "SCRIPT");
+
+        int parallelism = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("audit-matching-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        log.info("分块并行匹配执行器启动: poolSize={}, maxParallelismPerJob={}, tileChunks={}, matcherTypes={}",
+                parallelism, getDefaultParallelism(), tileChunks, matchers.keySet());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (pool != null) {
+            pool.shutdown();
+            try {
+                if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+                    pool.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                pool.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 注册规则类型对应的匹配器
+     */
+    public void registerMatcher(String ruleType, Matcher matcher) {
+        matchers.put(ruleType, matcher);
+    }
+
+    /**
+     * 按默认的单作业并行度执行匹配
+     */
+    public Map<String, List<Matcher.MatchResult>> match(List<Rule> rules, List<DocumentChunk> chunks) {
+        return match(rules, chunks, 0);
+    }
+
+    /**
+     * 对文档块执行全部规则，文档未知时候选检索对本次的文档块临时建索引
+     */
+    public Map<String, List<Matcher.MatchResult>> match(List<Rule> rules, List<DocumentChunk> chunks,
+                                                       int maxParallelism) {
+        return match(null, rules, chunks, maxParallelism);
+    }
+
+    /**
+     * 对文档块执行全部规则，不提供产品字段
+     */
+    public Map<String, List<Matcher.MatchResult>> match(String documentId, List<Rule> rules,
+                                                       List<DocumentChunk> chunks, int maxParallelism) {
+        return match(documentId, rules, chunks, Map.of(), maxParallelism);
+    }
+
+    /**
+     * 对文档块执行全部规则
+     *
+     * @param documentId 文档ID，用于查找上传时建立的检索索引，可为空
+     * @param rules 规则列表
+     * @param chunks 文档块列表
+     * @param fields 产品字段，供规则脚本读取
+     * @param maxParallelism 本次匹配的并行度上限，小于等于0时取默认值，且不超过单作业上限
+     * @return 规则ID -> 匹配结果，按规则顺序排列，每条规则的结果按文档块顺序排列
+     */
+    public Map<String, List<Matcher.MatchResult>> match(String documentId, List<Rule> rules,
+                                                       List<DocumentChunk> chunks, Map<String, Object> fields,
+                                                       int maxParallelism) {
+        Map<String, List<Matcher.MatchResult>> collected = new HashMap<>();
+        match(documentId, rules, chunks, fields, maxParallelism,
+                (ruleId, results) -> collected.computeIfAbsent(ruleId, id -> new ArrayList<>()).addAll(results));
+
+        Map<String, List<Matcher.MatchResult>> resultsByRule = new LinkedHashMap<>();
+        for (Rule rule : rules) {
+            List<Matcher.MatchResult> ruleResults = collected.get(rule.getId());
+            if (ruleResults != null) {
+                resultsByRule.putIfAbsent(rule.getId(), ruleResults);
+            }
+        }
+        return resultsByRule;
+    }
+
+    /**
+     * 对文档块执行全部规则，匹配结果按瓦片直接折叠进文档的聚合器，不构造按规则汇总的结果列表
+     *
+     * @param documentId 文档ID，用于查找上传时建立的检索索引，可为空
+     * @param rules 规则列表
+     * @param chunks 文档块列表
+     * @param fields 产品字段，供规则脚本读取
+     * @param maxParallelism 本次匹配的并行度上限，小于等于0时取默认值，且不超过单作业上限
+     * @param aggregator 文档的匹配结果聚合器，已找到匹配器的规则即使没有结果也会登记摘要
+     */
+    public void match(String documentId, List<Rule> rules, List<DocumentChunk> chunks, Map<String, Object> fields,
+                      int maxParallelism, MatchResultAggregator aggregator) {
+        match(documentId, rules, chunks, fields, maxParallelism, aggregator::acceptAll);
+    }
+
+    /**
+     * 执行匹配并按规则顺序把每个瓦片的结果交给接收方；有脚本规则时先汇总普通规则的结果供脚本读取
+     */
+    private void match(String documentId, List<Rule> rules, List<DocumentChunk> chunks, Map<String, Object> fields,
+                       int maxParallelism, BiConsumer<String, List<Matcher.MatchResult>> sink) {
+        HybridRetriever.CandidateSelector selector =
+                hybridRetriever != null ? hybridRetriever.prepare(documentId, chunks) : null;
+        List<Rule> matchableRules = new ArrayList<>(rules.size());
+        List<Matcher> ruleMatchers = new ArrayList<>(rules.size());
+        List<List<DocumentChunk>> ruleChunks = new ArrayList<>(rules.size());
+        List<Rule> scriptRules = new ArrayList<>();
+        List<List<DocumentChunk>> scriptChunks = new ArrayList<>();
+        for (Rule rule : rules) {
+            if (scriptMatcher != null && ScriptMatcher.isScriptRule(rule)) {
+                scriptRules.add(rule);
+                scriptChunks.add(selector != null ? selector.select(rule) : chunks);
+                continue;
+            }
+            Matcher matcher = rule.getType() != null ? matchers.get(rule.getType()) : null;
+            if (matcher == null) {
+                log.warn("未找到规则类型对应的匹配器，跳过: ruleId={}, type={}", rule.getId(), rule.getType());
+                continue;
+            }
+            matchableRules.add(rule);
+            ruleMatchers.add(matcher);
+            ruleChunks.add(selector != null ? selector.select(rule) : chunks);
+        }
+
+        int defaultParallelism = getDefaultParallelism();
+        int parallelism = maxParallelism > 0 ? Math.min(maxParallelism, defaultParallelism) : defaultParallelism;
+        TiledJob job = execute(matchableRules, ruleMatchers, ruleChunks, chunks.size(), parallelism);
+        if (scriptRules.isEmpty()) {
+            job.drainTo(sink);
+            return;
+        }
+
+        Map<String, List<Matcher.MatchResult>> priorResults = Collections.unmodifiableMap(job.collect());
+        priorResults.forEach(sink);
+        List<Matcher> scriptMatchers = new ArrayList<>(scriptRules.size());
+        for (List<DocumentChunk> candidates : scriptChunks) {
+            ScriptMatcher.ScriptInput input = new ScriptMatcher.ScriptInput(candidates, fields, priorResults);
+            scriptMatchers.add((rule, tileChunks) -> scriptMatcher.match(rule, tileChunks, input));
+        }
+        execute(scriptRules, scriptMatchers, scriptChunks, chunks.size(), parallelism).drainTo(sink);
+    }
+
+    /**
+     * 分块执行一批规则
+     */
+    private TiledJob execute(List<Rule> matchableRules, List<Matcher> ruleMatchers,
+                             List<List<DocumentChunk>> ruleChunks, int chunkCount, int parallelism) {
+        TiledJob job = new TiledJob(matchableRules, ruleMatchers, ruleChunks, Math.max(1, tileChunks), parallelism,
+                JobExecutionContext.current(), AuditTracer.currentSpan());
+
+        if (job.tileCount == 0) {
+            return job;
+        }
+        if (pool == null || parallelism <= 1 || job.tileCount == 1) {
+            sequentialRuns.incrementAndGet();
+            for (int tile = 0; tile < job.tileCount; tile++) {
+                job.runTile(tile);
+            }
+        } else {
+            pool.invoke(new TileTask(job, 0, job.tileCount));
+        }
+
+        log.debug("分块匹配完成: rules={}, chunks={}, tiles={}, parallelism={}, peakLanes={}",
+                matchableRules.size(), chunkCount, job.tileCount, parallelism, job.peakLanes.get());
+        job.recordRuleEvaluations();
+        return job;
+    }
+
+    /**
+     * 获取执行器统计
+     */
+    public MatchingStats getStats() {
+        return MatchingStats.builder()
+                .poolParallelism(pool != null ? pool.getParallelism() : 0)
+                .maxParallelismPerJob(getDefaultParallelism())
+                .tileChunks(tileChunks)
+                .activeThreads(pool != null ? pool.getActiveThreadCount() : 0)
+                .stealCount(pool != null ? pool.getStealCount() : 0L)
+                .executedTiles(executedTiles.get())
+                .splitTiles(splitTiles.get())
+                .sequentialRuns(sequentialRuns.get())
+                .build();
+    }
+
+    /**
+     * 单作业默认并行度：未配置时为线程池并行度的一半，避免单个大文档占满节点
+     */
+    private int getDefaultParallelism() {
+        int poolParallelism = pool != null ? pool.getParallelism() : Runtime.getRuntime().availableProcessors();
+        if (maxParallelismPerJob > 0) {
+            return Math.min(maxParallelismPerJob, poolParallelism);
+        }
+        return Math.max(1, poolParallelism / 2);
+    }
+
+    private void registerMatcher(Matcher matcher, String... ruleTypes) {
+        if (matcher == null) {
+            return;
+        }
+        for (String ruleType : ruleTypes) {
+            matchers.putIfAbsent(ruleType, matcher);
+        }
+    }
+
+    /**
+     * 一次匹配的瓦片划分与结果槽位
+     * 瓦片编号按规则优先排列：规则 i 的瓦片占用 [tileOffsets[i], tileOffsets[i + 1])，
+     * 每条规则的候选文档块数不同，瓦片数也不同
+     */
+    private final class TiledJob {
+
+        private final List<Rule> rules;
+        private final List<Matcher> ruleMatchers;
+        private final List<List<DocumentChunk>> ruleChunks;
+        private final int tileChunks;
+        private final int[] tileOffsets;
+        private final int[] tileRules;
+        private final int tileCount;
+        private final int parallelism;
+        private final JobExecutionContext context;
+
+        /**
+         * 调用方线程的活动片段，工作线程上的匹配器片段挂在其下
+         */
+        private final TraceSpan span;
+        private final List<Matcher.MatchResult>[] results;
+
+        /**
+         * 每条规则各瓦片的匹配耗时之和
+         */
+        private final AtomicLongArray ruleNanos;
+
+        /**
+         * 当前存活的任务数（含根任务），不超过并行度上限
+         */
+        private final AtomicInteger lanes = new AtomicInteger(1);
+        private final AtomicInteger peakLanes = new AtomicInteger(1);
+        private volatile boolean failed;
+
+        @SuppressWarnings("unchecked")
+        TiledJob(List<Rule> rules, List<Matcher> ruleMatchers, List<List<DocumentChunk>> ruleChunks,
+                 int tileChunks, int parallelism, JobExecutionContext context, TraceSpan span) {
+            this.rules = rules;
+            this.ruleMatchers = ruleMatchers;
+            this.ruleChunks = ruleChunks;
+            this.tileChunks = tileChunks;
+            this.tileOffsets = new int[rules.size() + 1];
+            for (int ruleIndex = 0; ruleIndex < rules.size(); ruleIndex++) {
+                int chunkTiles = (ruleChunks.get(ruleIndex).size() + tileChunks - 1) / tileChunks;
+                tileOffsets[ruleIndex + 1] = tileOffsets[ruleIndex] + chunkTiles;
+            }
+            this.tileCount = tileOffsets[rules.size()];
+            this.tileRules = new int[tileCount];
+            for (int ruleIndex = 0; ruleIndex < rules.size(); ruleIndex++) {
+                Arrays.fill(tileRules, tileOffsets[ruleIndex], tileOffsets[ruleIndex + 1], ruleIndex);
+            }
+            this.parallelism = parallelism;
+            this.context = context;
+            this.span = span;
+            this.results = new List[tileCount];
+            this.ruleNanos = new AtomicLongArray(rules.size());
+        }
+
+        void runTile(int tile) {
+            if (failed) {
+                return;
+            }
+            JobExecutionContext.checkpoint();
+            int ruleIndex = tileRules[tile];
+            List<DocumentChunk> chunks = ruleChunks.get(ruleIndex);
+            int from = (tile - tileOffsets[ruleIndex]) * tileChunks;
+            int to = Math.min(from + tileChunks, chunks.size());
+            long startNanos = System.nanoTime();
+            try {
+                results[tile] = ruleMatchers.get(ruleIndex).match(rules.get(ruleIndex), chunks.subList(from, to));
+            } catch (RuntimeException e) {
+                failed = true;
+                throw e;
+            }
+            ruleNanos.addAndGet(ruleIndex, System.nanoTime() - startNanos);
+            executedTiles.incrementAndGet();
+        }
+
+        /**
+         * 按规则类型记录每条规则在本文档上的评估耗时，没有候选文档块的规则不记录
+         */
+        void recordRuleEvaluations() {
+            if (performanceMonitor == null) {
+                return;
+            }
+            for (int ruleIndex = 0; ruleIndex < rules.size(); ruleIndex++) {
+                if (tileOffsets[ruleIndex + 1] > tileOffsets[ruleIndex]) {
+                    String ruleType = rules.get(ruleIndex).getType();
+                    performanceMonitor.recordRuleEvaluation(ruleType != null ? ruleType : "UNKNOWN",
+                            ruleNanos.get(ruleIndex));
+                }
+            }
+        }
+
+        boolean tryAcquireLane() {
+            while (true) {
+                int current = lanes.get();
+                if (current >= parallelism) {
+                    return false;
+                }
+                if (lanes.compareAndSet(current, current + 1)) {
+                    peakLanes.accumulateAndGet(current + 1, Math::max);
+                    return true;
+                }
+            }
+        }
+
+        void releaseLane() {
+            lanes.decrementAndGet();
+        }
+
+        Map<String, List<Matcher.MatchResult>> collect() {
+            Map<String, List<Matcher.MatchResult>> resultsByRule = new LinkedHashMap<>();
+            for (int ruleIndex = 0; ruleIndex < rules.size(); ruleIndex++) {
+                List<Matcher.MatchResult> ruleResults =
+                        resultsByRule.computeIfAbsent(rules.get(ruleIndex).getId(), id -> new ArrayList<>());
+                for (int tile = tileOffsets[ruleIndex]; tile < tileOffsets[ruleIndex + 1]; tile++) {
+                    if (results[tile] != null) {
+                        ruleResults.addAll(results[tile]);
+                    }
+                }
+            }
+            return resultsByRule;
+        }
+
+        /**
+         * 按规则顺序把瓦片结果交给接收方，交出后释放结果槽位；没有结果的规则也会收到一次空列表
+         */
+        void drainTo(BiConsumer<String, List<Matcher.MatchResult>> sink) {
+            for (int ruleIndex = 0; ruleIndex < rules.size(); ruleIndex++) {
+                String ruleId = rules.get(ruleIndex).getId();
+                sink.accept(ruleId, List.of());
+                for (int tile = tileOffsets[ruleIndex]; tile < tileOffsets[ruleIndex + 1]; tile++) {
+                    if (results[tile] != null) {
+                        sink.accept(ruleId, results[tile]);
+                        results[tile] = null;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 瓦片区间任务
+     * 依次执行区间内的瓦片；每执行一个瓦片前若作业还有空闲并行度，就把剩余区间的后一半拆成新任务 fork 出去。
+     * 工作线程上绑定调用方的执行上下文和链路片段；瓦片失败时先等 fork 出的任务结束再抛出，调用方返回后不再有任务在执行
+     */
+    private final class TileTask extends RecursiveAction {
+
+        private final TiledJob job;
+        private int from;
+        private int to;
+
+        TileTask(TiledJob job, int from, int to) {
+            this.job = job;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            List<TileTask> forked = null;
+            RuntimeException error = null;
+            try (JobExecutionContext.Scope ignored = job.context != null ? job.context.activate() : null;
+                 AuditTracer.TraceScope traceScope = AuditTracer.activateSpan(job.span)) {
+                while (from < to) {
+                    if (to - from > 1 && job.tryAcquireLane()) {
+                        int mid = (from + to) >>> 1;
+                        TileTask right = new TileTask(job, mid, to);
+                        right.fork();
+                        if (forked == null) {
+                            forked = new ArrayList<>();
+                        }
+                        forked.add(right);
+                        splitTiles.incrementAndGet();
+                        to = mid;
+                        continue;
+                    }
+                    job.runTile(from++);
+                }
+            } catch (RuntimeException e) {
+                error = e;
+                throw e;
+            } finally {
+                job.releaseLane();
+                joinForked(forked, error);
+            }
+        }
+
+        /**
+         * 等待 fork 出的任务结束；本任务已失败时子任务看到失败标记后不再执行新瓦片，其异常不覆盖本任务的异常
+         */
+        private void joinForked(List<TileTask> forked, RuntimeException error) {
+            if (forked == null) {
+                return;
+            }
+            RuntimeException firstError = null;
+            for (int i = forked.size() - 1; i >= 0; i--) {
+                try {
+                    forked.get(i).join();
+                } catch (RuntimeException e) {
+                    if (firstError == null) {
+                        firstError = e;
+                    }
+                }
+            }
+            if (firstError != null && error == null) {
+                throw firstError;
+            }
+        }
+    }
+
+    /**
+     * 执行器统计
+     */
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class MatchingStats {
+        private Integer poolParallelism;
+        private Integer maxParallelismPerJob;
+        private Integer tileChunks;
+        private Integer activeThreads;
+        private Long stealCount;
+        private Long executedTiles;
+        private Long splitTiles;
+        private Long sequentialRuns;
+    }
+}
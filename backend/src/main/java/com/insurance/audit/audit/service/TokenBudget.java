@@ -0,0 +1,153 @@
+package com.insurance.audit.audit.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 作业 LLM token 预算
+ * 规则执行前按估算值预留，每次调用按实际用量（服务未返回用量时按估算值）从预留中扣减，
+ * 规则结束时归还未用完的预留。剩余额度 = 上限 - 已消耗 - 未结算的预留，多条规则并发规划时不会超额预留
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class TokenBudget {
+
+    private final long limitTokens;
+    private final AtomicLong reservedTokens = new AtomicLong();
+    private final AtomicLong consumedTokens = new AtomicLong();
+    private final AtomicLong plannedTokens = new AtomicLong();
+    private final AtomicLong llmCalls = new AtomicLong();
+    private final AtomicLong downgradedRules = new AtomicLong();
+    private final AtomicLong skippedChunks = new AtomicLong();
+
+    private TokenBudget(long limitTokens) {
+        this.limitTokens = limitTokens;
+    }
+
+    /**
+     * 创建预算
+     *
+     * @param limitTokens token 上限，小于等于0表示不限
+     */
+    public static TokenBudget of(long limitTokens) {
+        return new TokenBudget(limitTokens);
+    }
+
+    public static TokenBudget unlimited() {
+        return new TokenBudget(0);
+    }
+
+    public boolean isLimited() {
+        return limitTokens > 0;
+    }
+
+    /**
+     * 剩余可预留的 token 数，不限时返回 Long.MAX_VALUE
+     */
+    public long remainingTokens() {
+        if (!isLimited()) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0L, limitTokens - consumedTokens.get() - reservedTokens.get());
+    }
+
+    /**
+     * 预留 token
+     *
+     * @return 预留凭据，额度不足时返回null
+     */
+    public Reservation tryReserve(long tokens) {
+        if (isLimited()) {
+            while (true) {
+                long reserved = reservedTokens.get();
+                if (consumedTokens.get() + reserved + tokens > limitTokens) {
+                    return null;
+                }
+                if (reservedTokens.compareAndSet(reserved, reserved + tokens)) {
+                    break;
+                }
+            }
+        } else {
+            reservedTokens.addAndGet(tokens);
+        }
+        plannedTokens.addAndGet(tokens);
+        return new Reservation(tokens);
+    }
+
+    public void recordDowngrade() {
+        downgradedRules.incrementAndGet();
+    }
+
+    public void recordSkippedChunks(int count) {
+        skippedChunks.addAndGet(count);
+    }
+
+    public long getLimitTokens() {
+        return limitTokens;
+    }
+
+    public long getReservedTokens() {
+        return reservedTokens.get();
+    }
+
+    public long getConsumedTokens() {
+        return consumedTokens.get();
+    }
+
+    public long getPlannedTokens() {
+        return plannedTokens.get();
+    }
+
+    public long getLlmCalls() {
+        return llmCalls.get();
+    }
+
+    public long getDowngradedRules() {
+        return downgradedRules.get();
+    }
+
+    public long getSkippedChunks() {
+        return skippedChunks.get();
+    }
+
+    /**
+     * 预留凭据，一条规则一个，可在多个线程中扣减
+     */
+    public final class Reservation implements AutoCloseable {
+
+        private final AtomicLong remaining;
+
+        private Reservation(long tokens) {
+            this.remaining = new AtomicLong(tokens);
+        }
+
+        /**
+         * 记录一次调用的实际用量：先从预留中扣减，超出预留的部分直接计入消耗
+         */
+        public void consume(long tokens) {
+            llmCalls.incrementAndGet();
+            long fromReservation = 0;
+            while (true) {
+                long left = remaining.get();
+                fromReservation = Math.min(left, tokens);
+                if (remaining.compareAndSet(left, left - fromReservation)) {
+                    break;
+                }
+            }
+            reservedTokens.addAndGet(-fromReservation);
+            consumedTokens.addAndGet(tokens);
+        }
+
+        /**
+         * 归还未用完的预留
+         */
+        @Override
+        public void close() {
+            long left = remaining.getAndSet(0);
+            if (left > 0) {
+                reservedTokens.addAndGet(-left);
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.insurance.audit.audit.shard;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 进程内分片队列
+ * 未配置 Redis 时的默认实现，也用于测试：同一进程内的多个协调器共享一个实例即可模拟多节点
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class InProcessShardQueue implements ShardQueue {
+
+    private static final int MAX_CANCELLED_JOBS = 1024;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Condition completed = lock.newCondition();
+
+    private final Deque<JobShard> pending = new ArrayDeque<>();
+
+    /**
+     * 分片ID -> 租约
+     */
+    private final Map<String, Lease> leases = new HashMap<>();
+
+    /**
+     * 作业ID -> (分片ID -> 尚未取出的结果)
+     */
+    private final Map<String, Map<String, ShardResult>> results = new HashMap<>();
+
+    /**
+     * 作业ID -> 已提交结果的分片ID
+     */
+    private final Map<String, Set<String>> completedShards = new HashMap<>();
+
+    /**
+     * 已取消的作业，只保留最近的若干个
+     */
+    private final Set<String> cancelledJobs = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_CANCELLED_JOBS;
+        }
+    });
+
+    @Override
+    public void publish(List<JobShard> shards) {
+        lock.lock();
+        try {
+            pending.addAll(shards);
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public JobShard claim(String nodeId, long waitMillis) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        lock.lockInterruptibly();
+        try {
+            while (pending.isEmpty()) {
+                if (remaining <= 0) {
+                    return null;
+                }
+                remaining = available.awaitNanos(remaining);
+            }
+            JobShard shard = pending.poll();
+            leases.put(shard.getShardId(), new Lease(shard, nodeId));
+            return shard;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean heartbeat(JobShard shard, String nodeId) {
+        lock.lock();
+        try {
+            Lease lease = leases.get(shard.getShardId());
+            if (lease == null || !lease.nodeId.equals(nodeId) || lease.shard.getAttempt() != shard.getAttempt()) {
+                return false;
+            }
+            lease.renewedAt = System.nanoTime();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void complete(JobShard shard, ShardResult result) {
+        lock.lock();
+        try {
+            Lease lease = leases.get(shard.getShardId());
+            if (lease != null && lease.shard.getAttempt() == shard.getAttempt()) {
+                leases.remove(shard.getShardId());
+            }
+            if (cancelledJobs.contains(shard.getJobId())) {
+                return;
+            }
+            if (completedShards.computeIfAbsent(shard.getJobId(), k -> new HashSet<>()).add(shard.getShardId())) {
+                results.computeIfAbsent(shard.getJobId(), k -> new LinkedHashMap<>()).put(shard.getShardId(), result);
+                completed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void retry(JobShard shard, String nodeId) {
+        lock.lock();
+        try {
+            Lease lease = leases.get(shard.getShardId());
+            if (lease == null || !lease.nodeId.equals(nodeId) || lease.shard.getAttempt() != shard.getAttempt()) {
+                return;
+            }
+            leases.remove(shard.getShardId());
+            pending.add(shard.toBuilder().attempt(shard.getAttempt() + 1).build());
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<JobShard> reclaimExpired(String nodeId, long leaseMillis) {
+        long now = System.nanoTime();
+        long leaseNanos = TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+        List<JobShard> reclaimed = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Lease lease : leases.values()) {
+                if (now - lease.renewedAt > leaseNanos) {
+                    lease.nodeId = nodeId;
+                    lease.renewedAt = now;
+                    reclaimed.add(lease.shard);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return reclaimed;
+    }
+
+    @Override
+    public List<ShardResult> drainResults(String jobId, long waitMillis) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        lock.lockInterruptibly();
+        try {
+            while (!results.containsKey(jobId) && remaining > 0) {
+                remaining = completed.awaitNanos(remaining);
+            }
+            Map<String, ShardResult> jobResults = results.remove(jobId);
+            return jobResults != null ? new ArrayList<>(jobResults.values()) : List.of();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void cancel(String jobId) {
+        lock.lock();
+        try {
+            cancelledJobs.add(jobId);
+            removePending(jobId);
+            results.remove(jobId);
+            completedShards.remove(jobId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isCancelled(String jobId) {
+        lock.lock();
+        try {
+            return cancelledJobs.contains(jobId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void purge(String jobId) {
+        lock.lock();
+        try {
+            removePending(jobId);
+            results.remove(jobId);
+            completedShards.remove(jobId);
+            cancelledJobs.remove(jobId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 待领取的分片数
+     */
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removePending(String jobId) {
+        for (Iterator<JobShard> it = pending.iterator(); it.hasNext(); ) {
+            if (jobId.equals(it.next().getJobId())) {
+                it.remove();
+            }
+        }
+    }
+
+    private static final class Lease {
+        private final JobShard shard;
+        private String nodeId;
+        private long renewedAt;
+
+        private Lease(JobShard shard, String nodeId) {
+            this.shard = shard;
+            this.nodeId = nodeId;
+            this.renewedAt = System.nanoTime();
+        }
+    }
+}
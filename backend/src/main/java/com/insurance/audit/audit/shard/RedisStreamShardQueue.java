@@ -0,0 +1,239 @@
+package com.insurance.audit.audit.shard;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 Redis Streams 的分片队列
+ * 分片以消息形式写入同一个 Stream，各节点以节点ID作为消费者加入同一个消费组：
+ * XREADGROUP 领取，XCLAIM JUSTID 续租（只重置空闲时间），XPENDING 空闲超过租约的消息由 XCLAIM 回收，
+ * 完成后 XACK 并删除消息。分片结果写入按作业划分的 Hash，以分片ID为字段 HSETNX，先提交者生效
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "audit.sharding.queue", havingValue = "redis")
+public class RedisStreamShardQueue implements ShardQueue {
+
+    private static final String SHARD_FIELD = "shard";
+
+    /**
+     * 仅当消息仍由该消费者持有时重置空闲时间
+     */
+    private static final RedisScript<Long> HEARTBEAT_SCRIPT = new DefaultRedisScript<>(
+            "local p = redis.call('XPENDING', KEYS[1], ARGV[1], ARGV[3], ARGV[3], 1) "
+                    + "if #p == 0 or p[1][2] ~= ARGV[2] then return 0 end "
+                    + "redis.call('XCLAIM', KEYS[1], ARGV[1], ARGV[2], 0, ARGV[3], 'JUSTID') "
+                    + "return 1", Long.class);
+
+    /**
+     * 仅当消息仍由该消费者持有时确认原消息并写入下一次执行的消息
+     */
+    private static final RedisScript<Long> RETRY_SCRIPT = new DefaultRedisScript<>(
+            "local p = redis.call('XPENDING', KEYS[1], ARGV[1], ARGV[3], ARGV[3], 1) "
+                    + "if #p == 0 or p[1][2] ~= ARGV[2] then return 0 end "
+                    + "redis.call('XACK', KEYS[1], ARGV[1], ARGV[3]) "
+                    + "redis.call('XDEL', KEYS[1], ARGV[3]) "
+                    + "redis.call('XADD', KEYS[1], '*', '" + SHARD_FIELD + "', ARGV[4]) "
+                    + "return 1", Long.class);
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${audit.sharding.redis.stream-key:audit:shards}")
+    private String streamKey = "audit:shards";
+
+    @Value("${audit.sharding.redis.group:audit-shard-workers}")
+    private String group = "audit-shard-workers";
+
+    @Value("${audit.sharding.redis.result-ttl-hours:24}")
+    private long resultTtlHours = 24;
+
+    @Value("${audit.sharding.redis.reclaim-batch:100}")
+    private int reclaimBatch = 100;
+
+    @PostConstruct
+    public void init() {
+        byte[] rawKey = streamKey.getBytes(StandardCharsets.UTF_8);
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.streamCommands().xGroupCreate(rawKey, group, ReadOffset.from("0"), true));
+            log.info("创建分片消费组: stream={}, group={}", streamKey, group);
+        } catch (Exception e) {
+            if (!String.valueOf(e.getMessage()).contains("BUSYGROUP")
+                    && (e.getCause() == null || !String.valueOf(e.getCause().getMessage()).contains("BUSYGROUP"))) {
+                throw e;
+            }
+            log.debug("分片消费组已存在: stream={}, group={}", streamKey, group);
+        }
+    }
+
+    @Override
+    public void publish(List<JobShard> shards) {
+        for (JobShard shard : shards) {
+            redisTemplate.opsForStream().add(StreamRecords.newRecord()
+                    .in(streamKey)
+                    .ofMap(Map.of(SHARD_FIELD, serialize(shard.toBuilder().deliveryId(null).build()))));
+        }
+    }
+
+    @Override
+    public JobShard claim(String nodeId, long waitMillis) throws InterruptedException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+        }
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(
+                Consumer.from(group, nodeId),
+                StreamReadOptions.empty().count(1).block(Duration.ofMillis(Math.max(waitMillis, 1))),
+                StreamOffset.create(streamKey, ReadOffset.lastConsumed()));
+        if (records == null || records.isEmpty()) {
+            return null;
+        }
+        return toShard(records.get(0));
+    }
+
+    @Override
+    public boolean heartbeat(JobShard shard, String nodeId) {
+        Long renewed = redisTemplate.execute(HEARTBEAT_SCRIPT, List.of(streamKey), group, nodeId, shard.getDeliveryId());
+        return renewed != null && renewed == 1L;
+    }
+
+    @Override
+    public void complete(JobShard shard, ShardResult result) {
+        if (!isCancelled(shard.getJobId())) {
+            String resultKey = resultKey(shard.getJobId());
+            redisTemplate.opsForHash().putIfAbsent(resultKey, shard.getShardId(), serialize(result));
+            redisTemplate.expire(resultKey, resultTtlHours, TimeUnit.HOURS);
+        }
+        if (shard.getDeliveryId() != null) {
+            RecordId recordId = RecordId.of(shard.getDeliveryId());
+            redisTemplate.opsForStream().acknowledge(streamKey, group, recordId);
+            redisTemplate.opsForStream().delete(streamKey, recordId);
+        }
+    }
+
+    @Override
+    public void retry(JobShard shard, String nodeId) {
+        JobShard next = shard.toBuilder().attempt(shard.getAttempt() + 1).deliveryId(null).build();
+        redisTemplate.execute(RETRY_SCRIPT, List.of(streamKey), group, nodeId, shard.getDeliveryId(), serialize(next));
+    }
+
+    @Override
+    public List<JobShard> reclaimExpired(String nodeId, long leaseMillis) {
+        PendingMessages pending = redisTemplate.opsForStream().pending(streamKey, group, Range.unbounded(), reclaimBatch);
+        List<RecordId> expired = new ArrayList<>();
+        for (PendingMessage message : pending) {
+            if (message.getElapsedTimeSinceLastDelivery().toMillis() > leaseMillis) {
+                expired.add(message.getId());
+            }
+        }
+        if (expired.isEmpty()) {
+            return List.of();
+        }
+
+        // XCLAIM 带最小空闲时间，多个节点同时回收时只有一个能成功
+        List<MapRecord<String, Object, Object>> claimed = redisTemplate.opsForStream().claim(
+                streamKey, group, nodeId, Duration.ofMillis(leaseMillis), expired.toArray(new RecordId[0]));
+        List<JobShard> reclaimed = new ArrayList<>(claimed.size());
+        for (MapRecord<String, Object, Object> record : claimed) {
+            reclaimed.add(toShard(record));
+        }
+        return reclaimed;
+    }
+
+    @Override
+    public List<ShardResult> drainResults(String jobId, long waitMillis) throws InterruptedException {
+        String resultKey = resultKey(jobId);
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(resultKey);
+        if (entries.isEmpty()) {
+            // 结果 Hash 不支持阻塞读取，按轮询间隔等待
+            Thread.sleep(waitMillis);
+            return List.of();
+        }
+        List<ShardResult> results = new ArrayList<>(entries.size());
+        for (Object value : entries.values()) {
+            results.add(deserialize((String) value, ShardResult.class));
+        }
+        redisTemplate.opsForHash().delete(resultKey, entries.keySet().toArray());
+        return results;
+    }
+
+    @Override
+    public void cancel(String jobId) {
+        redisTemplate.opsForValue().set(cancelKey(jobId), "1", resultTtlHours, TimeUnit.HOURS);
+        redisTemplate.delete(resultKey(jobId));
+    }
+
+    @Override
+    public boolean isCancelled(String jobId) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(cancelKey(jobId)));
+    }
+
+    @Override
+    public void purge(String jobId) {
+        redisTemplate.delete(resultKey(jobId));
+    }
+
+    private JobShard toShard(MapRecord<String, Object, Object> record) {
+        JobShard shard = deserialize((String) record.getValue().get(SHARD_FIELD), JobShard.class);
+        shard.setDeliveryId(record.getId().getValue());
+        return shard;
+    }
+
+    private String resultKey(String jobId) {
+        return streamKey + ":results:" + jobId;
+    }
+
+    private String cancelKey(String jobId) {
+        return streamKey + ":cancelled:" + jobId;
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("分片序列化失败: " + e.getMessage(), e);
+        }
+    }
+
+    private <T> T deserialize(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("分片反序列化失败: " + e.getMessage(), e);
+        }
+    }
+}
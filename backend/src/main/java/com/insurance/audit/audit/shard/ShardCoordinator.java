@@ -0,0 +1,426 @@
+package com.insurance.audit.audit.shard;
+
+import com.insurance.audit.audit.service.JobExecutionContext;
+import com.insurance.audit.audit.shard.ShardQueue.JobShard;
+import com.insurance.audit.audit.shard.ShardQueue.ShardResult;
+import com.insurance.audit.audit.tracing.AuditTracer;
+import com.insurance.audit.audit.tracing.TraceSpan;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 分片协调器
+ * 作业所在节点把文档列表切分为分片发布到分片队列，并轮询合并各节点提交的分片结果；
+ * 每个节点同时运行若干工作线程领取分片、定期续租并提交结果。
+ * 节点失联后其租约超时，分片由其他节点回收重试，超过最大执行次数的分片记为失败。
+ * 未配置 Redis 分片队列时使用进程内队列，此时分片只在本节点执行。
+ * 执行分片时按作业ID重新绑定本节点上的作业链路，分片内的文档处理片段挂在作业链路下；其他节点上没有该作业链路时不记录
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class ShardCoordinator {
+
+    @Autowired(required = false)
+    private ShardQueue shardQueue;
+
+    @Autowired(required = false)
+    private AuditTracer auditTracer;
+
+    @Value("${audit.sharding.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${audit.sharding.node-id:}")
+    private String nodeId = "";
+
+    @Value("${audit.sharding.documents-per-shard:10}")
+    private int documentsPerShard = 10;
+
+    @Value("${audit.sharding.worker-threads:2}")
+    private int workerThreads = 2;
+
+    @Value("${audit.sharding.lease-ms:30000}")
+    private long leaseMillis = 30000;
+
+    @Value("${audit.sharding.heartbeat-interval-ms:5000}")
+    private long heartbeatIntervalMillis = 5000;
+
+    @Value("${audit.sharding.poll-interval-ms:200}")
+    private long pollIntervalMillis = 200;
+
+    @Value("${audit.sharding.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    private final AtomicLong publishedShards = new AtomicLong();
+    private final AtomicLong executedShards = new AtomicLong();
+    private final AtomicLong retriedShards = new AtomicLong();
+    private final AtomicLong reclaimedShards = new AtomicLong();
+    private final AtomicLong failedShards = new AtomicLong();
+    private final AtomicInteger runningShards = new AtomicInteger();
+
+    private volatile ShardProcessor processor;
+    private volatile boolean running;
+
+    private ExecutorService workers;
+    private ScheduledExecutorService scheduler;
+
+    public ShardCoordinator() {
+    }
+
+    /**
+     * 直接构造，供多节点测试和基准测试在同一进程内共享队列
+     */
+    public ShardCoordinator(ShardQueue shardQueue, String nodeId) {
+        this.shardQueue = shardQueue;
+        this.nodeId = nodeId;
+        this.enabled = true;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (shardQueue == null) {
+            shardQueue = new InProcessShardQueue();
+        }
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 6);
+        }
+        if (!enabled) {
+            return;
+        }
+
+        running = true;
+        AtomicInteger threadIndex = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "shard-worker-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerThreads; i++) {
+            workers.execute(this::workerLoop);
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shard-lease-keeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long reclaimInterval = Math.max(leaseMillis / 2, 10);
+        scheduler.scheduleWithFixedDelay(this::reclaimExpired, reclaimInterval, reclaimInterval, TimeUnit.MILLISECONDS);
+
+        log.info("分片协调器启动: nodeId={}, queue={}, workerThreads={}, documentsPerShard={}, lease={}ms",
+                nodeId, shardQueue.getClass().getSimpleName(), workerThreads, documentsPerShard, leaseMillis);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 登记本节点执行分片的处理器
+     */
+    public void registerProcessor(ShardProcessor processor) {
+        this.processor = processor;
+    }
+
+    /**
+     * 文档数超过单个分片大小时才分片执行，小作业留在本地避免队列往返
+     */
+    public boolean shouldShard(int documentCount) {
+        return enabled && processor != null && documentCount > documentsPerShard;
+    }
+
+    /**
+     * 按文档顺序切分分片，执行规则集的全部规则
+     *
+     * @param deadlineAt 作业截止时间（epoch毫秒），0表示不限
+     */
+    public List<JobShard> split(String jobId, String ruleSetId, List<String> documentIds, long deadlineAt) {
+        return split(jobId, ruleSetId, null, documentIds, deadlineAt);
+    }
+
+    /**
+     * 按文档顺序切分分片
+     *
+     * @param ruleIds 参与匹配的规则ID，为空时执行规则集的全部规则
+     * @param deadlineAt 作业截止时间（epoch毫秒），0表示不限
+     */
+    public List<JobShard> split(String jobId, String ruleSetId, List<String> ruleIds, List<String> documentIds,
+                                long deadlineAt) {
+        int shardCount = (documentIds.size() + documentsPerShard - 1) / documentsPerShard;
+        List<JobShard> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            int from = i * documentsPerShard;
+            int to = Math.min(from + documentsPerShard, documentIds.size());
+            shards.add(JobShard.builder()
+                    .shardId(jobId + "-s" + i)
+                    .jobId(jobId)
+                    .shardIndex(i)
+                    .shardCount(shardCount)
+                    .ruleSetId(ruleSetId)
+                    .ruleIds(ruleIds)
+                    .documentIds(new ArrayList<>(documentIds.subList(from, to)))
+                    .ownerNodeId(nodeId)
+                    .deadlineAt(deadlineAt)
+                    .attempt(1)
+                    .build());
+        }
+        return shards;
+    }
+
+    /**
+     * 发布分片并等待全部分片提交结果，每个分片的结果只回调一次
+     * 在作业线程上调用：作业取消或超时时通知各节点停止执行该作业的分片，并抛出中止异常
+     *
+     * @param onResult 分片结果回调，在调用线程上执行
+     */
+    public void execute(String jobId, List<JobShard> shards, Consumer<ShardResult> onResult) {
+        Set<String> remaining = new HashSet<>();
+        for (JobShard shard : shards) {
+            remaining.add(shard.getShardId());
+        }
+        shardQueue.publish(shards);
+        publishedShards.addAndGet(shards.size());
+        log.info("作业分片已发布: jobId={}, shards={}, nodeId={}", jobId, shards.size(), nodeId);
+
+        try {
+            while (!remaining.isEmpty()) {
+                JobExecutionContext.checkpoint();
+                for (ShardResult result : shardQueue.drainResults(jobId, JobExecutionContext.boundTimeout(pollIntervalMillis))) {
+                    if (remaining.remove(result.getShardId())) {
+                        onResult.accept(result);
+                    }
+                }
+            }
+            shardQueue.purge(jobId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            shardQueue.cancel(jobId);
+            throw new RuntimeException("等待分片结果被中断: " + jobId, e);
+        } catch (RuntimeException e) {
+            shardQueue.cancel(jobId);
+            throw e;
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public ShardQueue getShardQueue() {
+        return shardQueue;
+    }
+
+    public ShardingStats getStats() {
+        return ShardingStats.builder()
+                .nodeId(nodeId)
+                .enabled(enabled)
+                .workerThreads(workerThreads)
+                .runningShards(runningShards.get())
+                .publishedShards(publishedShards.get())
+                .executedShards(executedShards.get())
+                .retriedShards(retriedShards.get())
+                .reclaimedShards(reclaimedShards.get())
+                .failedShards(failedShards.get())
+                .build();
+    }
+
+    private void workerLoop() {
+        while (running) {
+            try {
+                ShardProcessor current = processor;
+                if (current == null) {
+                    Thread.sleep(pollIntervalMillis);
+                    continue;
+                }
+                JobShard shard = shardQueue.claim(nodeId, pollIntervalMillis);
+                if (shard != null) {
+                    runShard(shard, current);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("分片工作线程异常: nodeId={}", nodeId, e);
+            }
+        }
+    }
+
+    /**
+     * 执行单个分片：执行期间定期续租，租约被回收或作业取消时在下一个检查点停止
+     */
+    private void runShard(JobShard shard, ShardProcessor current) {
+        String jobId = shard.getJobId();
+        if (shardQueue.isCancelled(jobId)) {
+            shardQueue.complete(shard, terminalResult(shard, "CANCELLED", 0, "作业已取消"));
+            return;
+        }
+        long timeoutMillis = 0;
+        if (shard.getDeadlineAt() > 0) {
+            timeoutMillis = shard.getDeadlineAt() - System.currentTimeMillis();
+            if (timeoutMillis <= 0) {
+                failShard(shard, "作业已超时");
+                return;
+            }
+        }
+
+        long startTime = System.currentTimeMillis();
+        JobExecutionContext context = JobExecutionContext.create(jobId, timeoutMillis);
+        AtomicBoolean leaseLost = new AtomicBoolean();
+        ScheduledFuture<?> heartbeat = scheduler.scheduleWithFixedDelay(() -> {
+            if (!shardQueue.heartbeat(shard, nodeId)) {
+                leaseLost.set(true);
+                context.cancel("分片租约已被回收");
+            } else if (shardQueue.isCancelled(jobId)) {
+                context.cancel("作业已取消");
+            }
+        }, heartbeatIntervalMillis, heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+
+        runningShards.incrementAndGet();
+        AuditTracer.TraceScope traceScope = auditTracer != null ? auditTracer.activate(jobId) : () -> { };
+        TraceSpan shardSpan = AuditTracer.startSpan("shard_execute")
+                .setAttribute("shard.id", shard.getShardId())
+                .setAttribute("shard.attempt", shard.getAttempt())
+                .setAttribute("node.id", nodeId);
+        try (JobExecutionContext.Scope ignored = context.activate()) {
+            log.debug("开始执行分片: shardId={}, attempt={}, documents={}, nodeId={}",
+                    shard.getShardId(), shard.getAttempt(), shard.getDocumentIds().size(), nodeId);
+            ShardResult result = current.process(shard);
+            result.setShardId(shard.getShardId());
+            result.setJobId(jobId);
+            result.setShardIndex(shard.getShardIndex());
+            result.setNodeId(nodeId);
+            result.setAttempt(shard.getAttempt());
+            result.setDurationMs(System.currentTimeMillis() - startTime);
+            if (result.getStatus() == null) {
+                result.setStatus("COMPLETED");
+            }
+            if (result.getResults() == null) {
+                result.setResults(List.of());
+            }
+            shardQueue.complete(shard, result);
+            executedShards.incrementAndGet();
+        } catch (JobExecutionContext.JobAbortedException e) {
+            shardSpan.recordError(e);
+            if (leaseLost.get()) {
+                log.warn("分片租约已被其他节点回收，放弃执行: shardId={}, nodeId={}", shard.getShardId(), nodeId);
+            } else if (e.isTimedOut()) {
+                failShard(shard, "作业已超时");
+            } else {
+                shardQueue.complete(shard, terminalResult(shard, "CANCELLED", 0, context.getCancelReason()));
+            }
+        } catch (Exception e) {
+            shardSpan.recordError(e);
+            log.error("分片执行失败: shardId={}, attempt={}, nodeId={}", shard.getShardId(), shard.getAttempt(), nodeId, e);
+            retryOrFail(shard, e.getMessage());
+        } finally {
+            shardSpan.end();
+            traceScope.close();
+            runningShards.decrementAndGet();
+            heartbeat.cancel(false);
+        }
+    }
+
+    /**
+     * 回收失联节点的分片
+     */
+    private void reclaimExpired() {
+        try {
+            for (JobShard shard : shardQueue.reclaimExpired(nodeId, leaseMillis)) {
+                reclaimedShards.incrementAndGet();
+                log.warn("回收租约超时的分片: shardId={}, attempt={}, nodeId={}",
+                        shard.getShardId(), shard.getAttempt(), nodeId);
+                retryOrFail(shard, "执行节点租约超时");
+            }
+        } catch (Exception e) {
+            log.warn("回收分片租约失败: nodeId={}, error={}", nodeId, e.getMessage());
+        }
+    }
+
+    private void retryOrFail(JobShard shard, String errorMessage) {
+        if (shard.getAttempt() >= maxAttempts) {
+            failShard(shard, errorMessage);
+        } else {
+            retriedShards.incrementAndGet();
+            shardQueue.retry(shard, nodeId);
+        }
+    }
+
+    /**
+     * 分片判定失败，其中的文档全部计为失败
+     */
+    private void failShard(JobShard shard, String errorMessage) {
+        failedShards.incrementAndGet();
+        shardQueue.complete(shard, terminalResult(shard, "FAILED", shard.getDocumentIds().size(), errorMessage));
+    }
+
+    private ShardResult terminalResult(JobShard shard, String status, int failedDocuments, String errorMessage) {
+        return ShardResult.builder()
+                .shardId(shard.getShardId())
+                .jobId(shard.getJobId())
+                .shardIndex(shard.getShardIndex())
+                .nodeId(nodeId)
+                .status(status)
+                .results(List.of())
+                .failedDocuments(failedDocuments)
+                .attempt(shard.getAttempt())
+                .errorMessage(errorMessage)
+                .build();
+    }
+
+    /**
+     * 分片处理器，在领取分片的节点上执行分片内的文档
+     */
+    @FunctionalInterface
+    public interface ShardProcessor {
+        ShardResult process(JobShard shard);
+    }
+
+    /**
+     * 分片执行统计
+     */
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class ShardingStats {
+        private String nodeId;
+        private Boolean enabled;
+        private Integer workerThreads;
+        private Integer runningShards;
+        private Long publishedShards;
+        private Long executedShards;
+        private Long retriedShards;
+        private Long reclaimedShards;
+        private Long failedShards;
+    }
+}
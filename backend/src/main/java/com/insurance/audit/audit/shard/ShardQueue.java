@@ -0,0 +1,135 @@
+package com.insurance.audit.audit.shard;
+
+import com.insurance.audit.audit.dto.AuditResultDto;
+
+import java.util.List;
+
+/**
+ * 作业分片队列
+ * 作业所在节点发布文档分片，任意节点领取、续租并提交分片结果；租约超时未续的分片可被其他节点回收重试。
+ * 同一分片可能因回收而被执行多次，结果以分片ID去重，先提交者生效
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public interface ShardQueue {
+
+    /**
+     * 发布分片
+     */
+    void publish(List<JobShard> shards);
+
+    /**
+     * 领取一个分片，队列为空时最多等待 waitMillis
+     *
+     * @param nodeId 领取节点
+     * @param waitMillis 最长等待时间
+     * @return 已由该节点持有租约的分片，超时返回null
+     */
+    JobShard claim(String nodeId, long waitMillis) throws InterruptedException;
+
+    /**
+     * 续租
+     *
+     * @return 租约仍由该节点持有时返回true，已被回收时返回false
+     */
+    boolean heartbeat(JobShard shard, String nodeId);
+
+    /**
+     * 提交分片结果并释放租约，同一分片只保留第一次提交的结果
+     */
+    void complete(JobShard shard, ShardResult result);
+
+    /**
+     * 释放租约并以 attempt + 1 重新入队
+     */
+    void retry(JobShard shard, String nodeId);
+
+    /**
+     * 回收租约超时的分片，回收到的分片改由 nodeId 持有租约，调用方负责重试或判定失败
+     *
+     * @param nodeId 回收节点
+     * @param leaseMillis 租约时长，超过该时长未续租视为节点失联
+     * @return 本次回收的分片
+     */
+    List<JobShard> reclaimExpired(String nodeId, long leaseMillis);
+
+    /**
+     * 取出作业自上次调用以来提交的分片结果，暂无结果时最多等待 waitMillis；
+     * 回收重试可能带来重复结果，调用方按分片ID去重
+     */
+    List<ShardResult> drainResults(String jobId, long waitMillis) throws InterruptedException;
+
+    /**
+     * 标记作业已取消并丢弃尚未领取的分片，之后提交的结果不再保存；执行中的节点在续租时发现并停止
+     */
+    void cancel(String jobId);
+
+    boolean isCancelled(String jobId);
+
+    /**
+     * 作业正常结束后清理该作业在队列中的残留数据
+     */
+    void purge(String jobId);
+
+    /**
+     * 作业分片
+     */
+    @lombok.Data
+    @lombok.Builder(toBuilder = true)
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    class JobShard {
+        private String shardId;
+        private String jobId;
+        private int shardIndex;
+        private int shardCount;
+        private String ruleSetId;
+        /**
+         * 按产品适用性筛选后参与匹配的规则ID，为空时执行规则集的全部规则
+         */
+        private List<String> ruleIds;
+        private List<String> documentIds;
+        /**
+         * 作业所在节点
+         */
+        private String ownerNodeId;
+        /**
+         * 作业截止时间（epoch毫秒），0表示不限
+         */
+        private long deadlineAt;
+        /**
+         * 第几次执行，从1开始
+         */
+        private int attempt;
+        /**
+         * 队列内部的投递标识（如 Redis 消息ID），由队列实现在领取时填写
+         */
+        private String deliveryId;
+    }
+
+    /**
+     * 分片结果
+     */
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    class ShardResult {
+        private String shardId;
+        private String jobId;
+        private int shardIndex;
+        private String nodeId;
+        /**
+         * COMPLETED, FAILED, CANCELLED
+         */
+        private String status;
+        private List<AuditResultDto> results;
+        private int completedDocuments;
+        private int failedDocuments;
+        private int attempt;
+        private long durationMs;
+        private String errorMessage;
+    }
+}
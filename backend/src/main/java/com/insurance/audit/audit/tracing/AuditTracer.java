@@ -0,0 +1,317 @@
+package com.insurance.audit.audit.tracing;
+
+import com.insurance.audit.audit.dto.JobTraceTimeline;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/**
+ * 检核作业链路追踪器
+ * 编排器为每个作业开启链路；流水线各组件通过 {@link #inSpan} 在当前线程的活动链路下创建子片段，
+ * 无活动链路时为空操作。作业结束后链路保留在内存中供时间线查询，并导出到OTLP兼容的本地文件
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class AuditTracer {
+
+    private static final ThreadLocal<TraceSpan> CURRENT_SPAN = new ThreadLocal<>();
+
+    @Autowired(required = false)
+    private OtlpFileSpanExporter spanExporter;
+
+    @Value("${audit.tracing.max-traces:500}")
+    private int maxTraces = 500;
+
+    private final ConcurrentHashMap<String, JobTrace> traces = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> traceOrder = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 在当前活动片段下创建子片段并设为当前片段
+     */
+    public static TraceSpan startSpan(String name) {
+        TraceSpan parent = CURRENT_SPAN.get();
+        if (parent == null || parent.isNoop()) {
+            return TraceSpan.NOOP;
+        }
+        TraceSpan span = new TraceSpan(parent.getTrace(), parent, name, true, parent);
+        CURRENT_SPAN.set(span);
+        return span;
+    }
+
+    /**
+     * 在子片段中执行，异常时标记片段失败
+     */
+    public static <T> T inSpan(String name, Function<TraceSpan, T> body) {
+        TraceSpan span = startSpan(name);
+        try {
+            return body.apply(span);
+        } catch (RuntimeException | Error e) {
+            span.recordError(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * 获取当前活动片段，无活动链路时返回空片段
+     */
+    public static TraceSpan currentSpan() {
+        TraceSpan span = CURRENT_SPAN.get();
+        return span != null ? span : TraceSpan.NOOP;
+    }
+
+    /**
+     * 把调用方线程捕获的片段绑定到当前线程，线程池任务据此在调用方片段下创建子片段；
+     * 返回的作用域关闭时恢复原状态，空片段不绑定
+     */
+    public static TraceScope activateSpan(TraceSpan span) {
+        if (span == null || span.isNoop()) {
+            return () -> { };
+        }
+        TraceSpan previous = CURRENT_SPAN.get();
+        CURRENT_SPAN.set(span);
+        return () -> {
+            if (previous != null) {
+                CURRENT_SPAN.set(previous);
+            } else {
+                CURRENT_SPAN.remove();
+            }
+        };
+    }
+
+    static void restore(TraceSpan ending, TraceSpan previous) {
+        if (CURRENT_SPAN.get() == ending) {
+            if (previous != null) {
+                CURRENT_SPAN.set(previous);
+            } else {
+                CURRENT_SPAN.remove();
+            }
+        }
+    }
+
+    /**
+     * 开启作业链路
+     */
+    public TraceSpan startJobTrace(String jobId) {
+        JobTrace trace = new JobTrace(jobId, "audit.job");
+        trace.getRoot().setAttribute("job.id", jobId);
+
+        traces.put(jobId, trace);
+        traceOrder.add(jobId);
+        evictOldTraces();
+
+        log.debug("开启作业链路: jobId={}, traceId={}", jobId, trace.getTraceId());
+        return trace.getRoot();
+    }
+
+    /**
+     * 在作业根片段下创建不绑定线程的片段，用于跨线程计时（如线程池排队）
+     */
+    public TraceSpan startDetachedSpan(String jobId, String name) {
+        JobTrace trace = traces.get(jobId);
+        if (trace == null || trace.isFinished()) {
+            return TraceSpan.NOOP;
+        }
+        return new TraceSpan(trace, trace.getRoot(), name, false, null);
+    }
+
+    /**
+     * 将作业根片段绑定到当前线程，返回的作用域关闭时恢复原状态
+     */
+    public TraceScope activate(String jobId) {
+        JobTrace trace = traces.get(jobId);
+        if (trace == null) {
+            return () -> { };
+        }
+        TraceSpan previous = CURRENT_SPAN.get();
+        CURRENT_SPAN.set(trace.getRoot());
+        return () -> {
+            if (previous != null) {
+                CURRENT_SPAN.set(previous);
+            } else {
+                CURRENT_SPAN.remove();
+            }
+        };
+    }
+
+    /**
+     * 结束作业链路并导出
+     */
+    public void finishJobTrace(String jobId, Throwable error) {
+        JobTrace trace = traces.get(jobId);
+        if (trace == null || trace.isFinished()) {
+            return;
+        }
+
+        trace.finish(error);
+        log.debug("结束作业链路: jobId={}, traceId={}, spans={}", jobId, trace.getTraceId(), trace.getSpans().size());
+
+        if (spanExporter != null) {
+            spanExporter.export(trace);
+        }
+    }
+
+    /**
+     * 获取作业时间线与关键路径
+     */
+    public JobTraceTimeline getTimeline(String jobId) {
+        JobTrace trace = traces.get(jobId);
+        if (trace == null) {
+            throw new RuntimeException("作业链路不存在: " + jobId);
+        }
+
+        TraceSpan root = trace.getRoot();
+        boolean finished = trace.isFinished();
+        long origin = root.getStartEpochNanos();
+        long now = trace.nowEpochNanos();
+
+        List<TraceSpan> spans = trace.getSpans();
+        spans.sort(Comparator.comparingLong(TraceSpan::getStartEpochNanos));
+
+        Map<TraceSpan, List<TraceSpan>> children = new HashMap<>();
+        for (TraceSpan span : spans) {
+            if (span.getParent() != null) {
+                children.computeIfAbsent(span.getParent(), k -> new ArrayList<>()).add(span);
+            }
+        }
+
+        List<JobTraceTimeline.SpanView> spanViews = new ArrayList<>(spans.size());
+        for (TraceSpan span : spans) {
+            spanViews.add(JobTraceTimeline.SpanView.builder()
+                    .spanId(span.getSpanId())
+                    .parentSpanId(span.getParent() != null ? span.getParent().getSpanId() : null)
+                    .name(span.getName())
+                    .depth(depthOf(span))
+                    .startOffsetMs(toMillis(span.getStartEpochNanos() - origin))
+                    .durationMs(toMillis(endOf(span, now) - span.getStartEpochNanos()))
+                    .status(span.isEnded() ? span.getStatus() : "RUNNING")
+                    .statusMessage(span.getStatusMessage())
+                    .attributes(new LinkedHashMap<>(span.getAttributes()))
+                    .build());
+        }
+
+        List<PathSegment> path = new ArrayList<>();
+        walkCriticalPath(root, endOf(root, now), children, now, path);
+
+        List<JobTraceTimeline.CriticalPathSegment> criticalPath = new ArrayList<>(path.size());
+        Map<String, Double> breakdown = new TreeMap<>();
+        for (int i = path.size() - 1; i >= 0; i--) {
+            PathSegment segment = path.get(i);
+            double durationMs = toMillis(segment.end - segment.start);
+            criticalPath.add(JobTraceTimeline.CriticalPathSegment.builder()
+                    .spanId(segment.span.getSpanId())
+                    .name(segment.span.getName())
+                    .startOffsetMs(toMillis(segment.start - origin))
+                    .durationMs(durationMs)
+                    .build());
+            breakdown.merge(segment.span.getName(), durationMs, Double::sum);
+        }
+
+        return JobTraceTimeline.builder()
+                .jobId(jobId)
+                .traceId(trace.getTraceId())
+                .finished(finished)
+                .totalDurationMs(toMillis(endOf(root, now) - origin))
+                .spans(spanViews)
+                .criticalPath(criticalPath)
+                .criticalPathBreakdown(breakdown)
+                .build();
+    }
+
+    /**
+     * 从片段结束时刻向前回溯：每次选取在游标前结束最晚的子片段计入关键路径，
+     * 子片段之间的空隙记为父片段自身耗时。结果按时间倒序追加
+     */
+    private void walkCriticalPath(TraceSpan span, long limit, Map<TraceSpan, List<TraceSpan>> children,
+                                  long now, List<PathSegment> path) {
+        long start = span.getStartEpochNanos();
+        long cursor = Math.min(endOf(span, now), limit);
+
+        List<TraceSpan> candidates = new ArrayList<>(children.getOrDefault(span, List.of()));
+        candidates.sort(Comparator.comparingLong((TraceSpan child) -> endOf(child, now)).reversed());
+
+        for (TraceSpan child : candidates) {
+            if (cursor <= start) {
+                break;
+            }
+            if (child.getStartEpochNanos() >= cursor) {
+                continue;
+            }
+
+            long childEnd = Math.min(endOf(child, now), cursor);
+            if (childEnd < cursor) {
+                path.add(new PathSegment(span, childEnd, cursor));
+            }
+            walkCriticalPath(child, childEnd, children, now, path);
+            cursor = Math.max(child.getStartEpochNanos(), start);
+        }
+
+        if (cursor > start) {
+            path.add(new PathSegment(span, start, cursor));
+        }
+    }
+
+    private void evictOldTraces() {
+        while (traces.size() > maxTraces) {
+            String oldest = traceOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            traces.remove(oldest);
+        }
+    }
+
+    private static long endOf(TraceSpan span, long now) {
+        return span.isEnded() ? span.getEndEpochNanos() : now;
+    }
+
+    private static int depthOf(TraceSpan span) {
+        int depth = 0;
+        for (TraceSpan parent = span.getParent(); parent != null; parent = parent.getParent()) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    /**
+     * 链路作用域
+     */
+    @FunctionalInterface
+    public interface TraceScope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final class PathSegment {
+        private final TraceSpan span;
+        private final long start;
+        private final long end;
+
+        private PathSegment(TraceSpan span, long start, long end) {
+            this.span = span;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.insurance.audit.audit.tracing;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 单个检核作业的完整链路
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class JobTrace {
+
+    private final String jobId;
+    private final String traceId;
+    private final long startEpochNanos;
+    private final long startNanoTime;
+    private final ConcurrentLinkedQueue<TraceSpan> spans = new ConcurrentLinkedQueue<>();
+    private final TraceSpan root;
+
+    JobTrace(String jobId, String rootName) {
+        Instant now = Instant.now();
+        this.jobId = jobId;
+        this.traceId = UUID.randomUUID().toString().replace("-", "");
+        this.startEpochNanos = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+        this.startNanoTime = System.nanoTime();
+        this.root = new TraceSpan(this, null, rootName, false, null);
+    }
+
+    long nowEpochNanos() {
+        return startEpochNanos + (System.nanoTime() - startNanoTime);
+    }
+
+    void register(TraceSpan span) {
+        spans.add(span);
+    }
+
+    /**
+     * 结束链路，仍未结束的片段以根片段结束时间截断
+     */
+    void finish(Throwable error) {
+        if (error != null) {
+            root.recordError(error);
+        }
+        long end = nowEpochNanos();
+        for (TraceSpan span : spans) {
+            if (span != root && !span.isEnded()) {
+                span.recordError(new IllegalStateException("作业结束时片段仍未结束"));
+                span.endAt(end);
+            }
+        }
+        root.endAt(end);
+    }
+
+    boolean isFinished() {
+        return root.isEnded();
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public TraceSpan getRoot() {
+        return root;
+    }
+
+    public List<TraceSpan> getSpans() {
+        return new ArrayList<>(spans);
+    }
+}
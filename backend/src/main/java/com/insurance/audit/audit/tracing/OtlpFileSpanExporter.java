@@ -0,0 +1,145 @@
+package com.insurance.audit.audit.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OTLP兼容的本地文件导出器
+ * 每个作业链路写为一行 OTLP/JSON ExportTraceServiceRequest，可被 OpenTelemetry Collector 的
+ * otlpjsonfile 接收器直接读取
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class OtlpFileSpanExporter {
+
+    private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final String SCOPE_NAME = "com.insurance.audit.audit";
+    private static final int SPAN_KIND_INTERNAL = 1;
+    private static final int STATUS_CODE_UNSET = 0;
+    private static final int STATUS_CODE_OK = 1;
+    private static final int STATUS_CODE_ERROR = 2;
+
+    @Value("${audit.tracing.export-enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${audit.tracing.export-directory:logs/traces}")
+    private String directory = "logs/traces";
+
+    @Value("${spring.application.name:insurance-audit-system}")
+    private String serviceName = "insurance-audit-system";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * 导出已结束的作业链路
+     */
+    public synchronized void export(JobTrace trace) {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            Path dir = Paths.get(directory);
+            Files.createDirectories(dir);
+            Path file = dir.resolve("traces-" + FILE_DATE_FORMAT.format(LocalDate.now()) + ".jsonl");
+
+            String line = objectMapper.writeValueAsString(toExportRequest(trace)) + "\n";
+            Files.write(file, line.getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+            log.debug("导出作业链路: jobId={}, traceId={}, file={}", trace.getJobId(), trace.getTraceId(), file);
+        } catch (IOException e) {
+            log.warn("导出作业链路失败: jobId={}, error={}", trace.getJobId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 构建 ExportTraceServiceRequest 的 JSON 映射
+     */
+    Map<String, Object> toExportRequest(JobTrace trace) {
+        List<Map<String, Object>> spans = new ArrayList<>();
+        for (TraceSpan span : trace.getSpans()) {
+            spans.add(toOtlpSpan(trace, span));
+        }
+
+        Map<String, Object> scopeSpans = new LinkedHashMap<>();
+        scopeSpans.put("scope", Map.of("name", SCOPE_NAME));
+        scopeSpans.put("spans", spans);
+
+        Map<String, Object> resourceSpans = new LinkedHashMap<>();
+        resourceSpans.put("resource", Map.of("attributes", List.of(keyValue("service.name", serviceName))));
+        resourceSpans.put("scopeSpans", List.of(scopeSpans));
+
+        return Map.of("resourceSpans", List.of(resourceSpans));
+    }
+
+    private Map<String, Object> toOtlpSpan(JobTrace trace, TraceSpan span) {
+        Map<String, Object> otlpSpan = new LinkedHashMap<>();
+        otlpSpan.put("traceId", trace.getTraceId());
+        otlpSpan.put("spanId", span.getSpanId());
+        if (span.getParent() != null) {
+            otlpSpan.put("parentSpanId", span.getParent().getSpanId());
+        }
+        otlpSpan.put("name", span.getName());
+        otlpSpan.put("kind", SPAN_KIND_INTERNAL);
+        // OTLP/JSON 中 fixed64 以字符串表示
+        otlpSpan.put("startTimeUnixNano", Long.toString(span.getStartEpochNanos()));
+        otlpSpan.put("endTimeUnixNano", Long.toString(span.getEndEpochNanos()));
+
+        List<Map<String, Object>> attributes = new ArrayList<>();
+        span.getAttributes().forEach((key, value) -> attributes.add(keyValue(key, value)));
+        otlpSpan.put("attributes", attributes);
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("code", statusCode(span.getStatus()));
+        if (span.getStatusMessage() != null) {
+            status.put("message", span.getStatusMessage());
+        }
+        otlpSpan.put("status", status);
+        return otlpSpan;
+    }
+
+    private static Map<String, Object> keyValue(String key, Object value) {
+        Map<String, Object> anyValue;
+        if (value instanceof Boolean) {
+            anyValue = Map.of("boolValue", value);
+        } else if (value instanceof Integer || value instanceof Long) {
+            anyValue = Map.of("intValue", value.toString());
+        } else if (value instanceof Number) {
+            anyValue = Map.of("doubleValue", ((Number) value).doubleValue());
+        } else {
+            anyValue = Map.of("stringValue", String.valueOf(value));
+        }
+        return Map.of("key", key, "value", anyValue);
+    }
+
+    private static int statusCode(String status) {
+        switch (status) {
+            case TraceSpan.STATUS_OK:
+                return STATUS_CODE_OK;
+            case TraceSpan.STATUS_ERROR:
+                return STATUS_CODE_ERROR;
+            default:
+                return STATUS_CODE_UNSET;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.insurance.audit.audit.tracing;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 检核流水线链路追踪片段
+ * 时间戳以作业开始时的墙钟时间为基准，叠加单调时钟增量，保证同一链路内的时间顺序
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class TraceSpan implements AutoCloseable {
+
+    /**
+     * 无活动链路时使用的空片段，所有操作均为空操作
+     */
+    static final TraceSpan NOOP = new TraceSpan();
+
+    public static final String STATUS_UNSET = "UNSET";
+    public static final String STATUS_OK = "OK";
+    public static final String STATUS_ERROR = "ERROR";
+
+    private final JobTrace trace;
+    private final TraceSpan parent;
+    private final String spanId;
+    private final String name;
+    private final long startEpochNanos;
+    private final Map<String, Object> attributes;
+    private final boolean current;
+    private final TraceSpan previous;
+
+    private volatile long endEpochNanos;
+    private volatile String status = STATUS_UNSET;
+    private volatile String statusMessage;
+
+    private TraceSpan() {
+        this.trace = null;
+        this.parent = null;
+        this.spanId = null;
+        this.name = "noop";
+        this.startEpochNanos = 0;
+        this.attributes = Map.of();
+        this.current = false;
+        this.previous = null;
+    }
+
+    TraceSpan(JobTrace trace, TraceSpan parent, String name, boolean current, TraceSpan previous) {
+        this.trace = trace;
+        this.parent = parent;
+        this.spanId = String.format("%016x", ThreadLocalRandom.current().nextLong());
+        this.name = name;
+        this.startEpochNanos = trace.nowEpochNanos();
+        this.attributes = new ConcurrentHashMap<>();
+        this.current = current;
+        this.previous = previous;
+        trace.register(this);
+    }
+
+    /**
+     * 获取空片段
+     */
+    public static TraceSpan noop() {
+        return NOOP;
+    }
+
+    /**
+     * 设置属性，值为null时忽略
+     */
+    public TraceSpan setAttribute(String key, Object value) {
+        if (trace != null && value != null) {
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    /**
+     * 标记片段失败
+     */
+    public void recordError(Throwable error) {
+        if (trace == null) {
+            return;
+        }
+        this.status = STATUS_ERROR;
+        this.statusMessage = error.getClass().getSimpleName() + ": " + error.getMessage();
+    }
+
+    /**
+     * 结束片段，重复调用只生效一次
+     */
+    public void end() {
+        if (trace == null || endEpochNanos != 0) {
+            return;
+        }
+        endAt(trace.nowEpochNanos());
+        if (current) {
+            AuditTracer.restore(this, previous);
+        }
+    }
+
+    @Override
+    public void close() {
+        end();
+    }
+
+    void endAt(long epochNanos) {
+        synchronized (this) {
+            if (endEpochNanos != 0) {
+                return;
+            }
+            if (STATUS_UNSET.equals(status)) {
+                status = STATUS_OK;
+            }
+            endEpochNanos = Math.max(epochNanos, startEpochNanos);
+        }
+    }
+
+    boolean isNoop() {
+        return trace == null;
+    }
+
+    boolean isEnded() {
+        return endEpochNanos != 0;
+    }
+
+    JobTrace getTrace() {
+        return trace;
+    }
+
+    public TraceSpan getParent() {
+        return parent;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getStartEpochNanos() {
+        return startEpochNanos;
+    }
+
+    public long getEndEpochNanos() {
+        return endEpochNanos;
+    }
+
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getStatusMessage() {
+        return statusMessage;
+    }
+}
@@ -30,9 +30,6 @@ public class CacheConfig {
     @Value("${audit.cache.default-ttl:3600}")
     private long defaultTtlSeconds;
 
-    @Value("${audit.cache.ruleset-ttl:7200}")
-    private long rulesetTtlSeconds;
-
     @Value("${audit.cache.max-size:1000}")
     private long maxSize;
 
@@ -42,16 +39,14 @@ public class CacheConfig {
     @Bean
     @Primary
     public CacheManager cacheManager() {
-        log.info("初始化缓存管理器: defaultTtl={}s, rulesetTtl={}s, maxSize={}, cleanupInterval={}s",
-                defaultTtlSeconds, rulesetTtlSeconds, maxSize, cleanupIntervalSeconds);
+        log.info("初始化缓存管理器: defaultTtl={}s, maxSize={}, cleanupInterval={}s",
+                defaultTtlSeconds, maxSize, cleanupIntervalSeconds);
 
         // 创建基于ConcurrentMap的缓存管理器（生产环境建议使用Redis）
         ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
 
-        // 设置缓存名称
+        // 设置缓存名称（规则集快照由 RuleSetSnapshotCache 按版本管理）
         cacheManager.setCacheNames(java.util.Arrays.asList(
-                "rulesets",           // 规则集缓存
-                "ruleset-versions",   // 规则集版本缓存
                 "documents",          // 文档缓存
                 "audit-results",      // 检核结果缓存
                 "performance-metrics", // 性能指标缓存
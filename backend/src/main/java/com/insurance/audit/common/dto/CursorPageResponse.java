@@ -0,0 +1,71 @@
+package com.insurance.audit.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页响应格式
+ *
+ * @param <T> 数据类型
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "游标分页响应格式")
+public class CursorPageResponse<T> {
+
+    /**
+     * 数据列表
+     */
+    @Schema(description = "数据列表")
+    private List<T> records;
+
+    /**
+     * 下一页游标，没有更多数据时为null
+     */
+    @Schema(description = "下一页游标，没有更多数据时为空")
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    @Schema(description = "是否还有下一页", example = "true")
+    private Boolean hasMore;
+
+    /**
+     * 每页大小
+     */
+    @Schema(description = "每页大小", example = "20")
+    private Integer size;
+
+    /**
+     * 总记录数，仅在请求时返回，为缓存的近似值
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "总记录数（近似值，仅在请求时返回）", example = "100")
+    private Long total;
+
+    /**
+     * 转换数据类型，游标和总数保持不变
+     */
+    public <R> CursorPageResponse<R> map(Function<? super T, ? extends R> mapper) {
+        return CursorPageResponse.<R>builder()
+                .records(records.stream().<R>map(mapper).toList())
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .size(size)
+                .total(total)
+                .build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.insurance.audit.common.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 规则变更事件
+ * 规则新增、复制、删除或批量导入、回滚后发布，规则适用性索引据此重新加载变更的规则
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class RuleChangedEvent {
+
+    /**
+     * 变更的规则ID，为空表示变更范围未知（批量导入、回滚），需全量重新加载
+     */
+    private final List<String> ruleIds;
+
+    /**
+     * 变更时间
+     */
+    private final LocalDateTime changedAt;
+
+    /**
+     * 是否需要全量重新加载
+     */
+    public boolean isFullReload() {
+        return ruleIds == null || ruleIds.isEmpty();
+    }
+}
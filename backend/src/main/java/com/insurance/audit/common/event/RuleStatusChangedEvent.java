@@ -0,0 +1,41 @@
+package com.insurance.audit.common.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * 规则有效状态变更事件
+ * 规则管理模块在规则有效状态变化时发布，检核引擎据此失效包含该规则的规则集快照
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class RuleStatusChangedEvent {
+
+    /**
+     * 规则ID
+     */
+    private final String ruleId;
+
+    /**
+     * 变更前有效状态
+     */
+    private final String previousStatus;
+
+    /**
+     * 变更后有效状态
+     */
+    private final String currentStatus;
+
+    /**
+     * 变更时间
+     */
+    private final LocalDateTime changedAt;
+}
@@ -0,0 +1,113 @@
+package com.insurance.audit.common.pagination;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 列表总数缓存
+ * 按 (命名空间, 筛选条件) 缓存列表页的 COUNT 结果，翻页和重复查询不再每次扫描计数。
+ * 缓存在 ttl-seconds 内有效，因此总数是近似值；新增、删除等改变行数的操作
+ * 在事务提交后按命名空间失效，失效期间正在进行的计数结果不会写回缓存
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class ListCountCache {
+
+    @Value("${app.list-count.ttl-seconds:30}")
+    private long ttlSeconds = 30;
+
+    @Value("${app.list-count.max-entries:1000}")
+    private int maxEntries = 1000;
+
+    /**
+     * 命名空间:筛选条件 -> 计数
+     */
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 命名空间 -> 失效代数
+     */
+    private final ConcurrentHashMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * 获取总数，缓存未命中或已过期时调用 counter 计数
+     *
+     * @param namespace 命名空间，通常为表名
+     * @param filterKey 筛选条件的规范化字符串，不含页码、排序和游标
+     * @param counter   实际计数
+     * @return 总数
+     */
+    public long getCount(String namespace, String filterKey, LongSupplier counter) {
+        String key = namespace + ':' + filterKey;
+        long generation = generation(namespace).get();
+        long now = System.nanoTime();
+
+        Entry entry = entries.get(key);
+        if (entry != null && entry.generation == generation
+                && now - entry.countedAt < TimeUnit.SECONDS.toNanos(ttlSeconds)) {
+            return entry.count;
+        }
+
+        long count = counter.getAsLong();
+        if (generation(namespace).get() == generation) {
+            if (entries.size() >= maxEntries) {
+                evict(now);
+            }
+            entries.put(key, new Entry(count, generation, now));
+        }
+        return count;
+    }
+
+    /**
+     * 失效命名空间下的全部计数；在事务中调用时推迟到提交之后
+     */
+    public void invalidate(String namespace) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doInvalidate(namespace);
+                }
+            });
+        } else {
+            doInvalidate(namespace);
+        }
+    }
+
+    private void doInvalidate(String namespace) {
+        generation(namespace).incrementAndGet();
+        String prefix = namespace + ':';
+        entries.keySet().removeIf(key -> key.startsWith(prefix));
+        log.debug("列表总数缓存失效: namespace={}", namespace);
+    }
+
+    private AtomicLong generation(String namespace) {
+        return generations.computeIfAbsent(namespace, key -> new AtomicLong());
+    }
+
+    /**
+     * 先清理过期项，仍超出上限时整体清空
+     */
+    private void evict(long now) {
+        long ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        entries.values().removeIf(entry -> now - entry.countedAt >= ttlNanos);
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+    }
+
+    private record Entry(long count, long generation, long countedAt) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.insurance.audit.common.pagination;
+
+import com.insurance.audit.common.exception.BusinessException;
+import com.insurance.audit.common.exception.ErrorCode;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 键集分页游标
+ * 记录上一页最后一行的 (排序时间, 主键)，下一页从该位置之后继续读取，不再使用 OFFSET。
+ * 对外以 Base64URL 编码的不透明字符串传递
+ *
+ * @param sortValue 排序时间列的值
+ * @param id        主键，排序时间相同时作为次序
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record SeekCursor(LocalDateTime sortValue, String id) {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * 编码为不透明游标字符串
+     */
+    public String encode() {
+        String raw = sortValue + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标字符串，为空时返回null表示从第一页开始
+     *
+     * @throws BusinessException 游标格式不正确
+     */
+    public static SeekCursor decode(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new BusinessException(ErrorCode.INVALID_PARAMETER, "分页游标无效: " + cursor);
+            }
+            return new SeekCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "分页游标无效: " + cursor);
+        }
+    }
+}
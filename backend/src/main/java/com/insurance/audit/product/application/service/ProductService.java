@@ -1,6 +1,7 @@
 package com.insurance.audit.product.application.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.insurance.audit.common.dto.CursorPageResponse;
 import com.insurance.audit.product.domain.entity.Product;
 import com.insurance.audit.product.interfaces.dto.request.ProductQueryRequest;
 
@@ -21,6 +22,17 @@ public interface ProductService {
      */
     IPage<Product> getProductPage(ProductQueryRequest queryRequest);
 
+    /**
+     * 键集分页查询产品列表
+     * 按创建时间倒序，从游标之后读取；忽略页码和排序字段
+     *
+     * @param queryRequest 查询请求（筛选条件和每页大小）
+     * @param cursor 上一页返回的游标，为空时从第一页开始
+     * @param withTotal 是否返回总数（缓存的近似值）
+     * @return 游标分页产品列表
+     */
+    CursorPageResponse<Product> scrollProducts(ProductQueryRequest queryRequest, String cursor, boolean withTotal);
+
     /**
      * 根据ID获取产品详情
      *
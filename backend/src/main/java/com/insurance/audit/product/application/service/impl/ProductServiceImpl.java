@@ -2,8 +2,11 @@ package com.insurance.audit.product.application.service.impl;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.insurance.audit.common.dto.CursorPageResponse;
 import com.insurance.audit.common.exception.BusinessException;
 import com.insurance.audit.common.exception.ErrorCode;
+import com.insurance.audit.common.pagination.ListCountCache;
+import com.insurance.audit.common.pagination.SeekCursor;
 import com.insurance.audit.product.application.service.DocumentValidationService;
 import com.insurance.audit.product.application.service.ProductService;
 import com.insurance.audit.product.application.service.TemplateService;
@@ -17,6 +20,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 /**
  * 产品业务服务实现类
  *
@@ -29,7 +34,18 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
+    /**
+     * 列表总数缓存命名空间
+     */
+    private static final String COUNT_NAMESPACE = "products";
+
+    /**
+     * 游标查询每页最大条数，与分页插件上限一致
+     */
+    private static final int MAX_SCROLL_SIZE = 1000;
+
     private final ProductMapper productMapper;
+    private final ListCountCache listCountCache;
     private final DocumentValidationService documentValidationService;
     private final TemplateService templateService;
 
@@ -37,11 +53,12 @@ public class ProductServiceImpl implements ProductService {
     public IPage<Product> getProductPage(ProductQueryRequest queryRequest) {
         log.info("查询产品列表, 查询条件: {}", queryRequest);
 
-        // 创建分页对象
-        Page<Product> page = new Page<>(queryRequest.getPage(), queryRequest.getSize());
+        // 创建分页对象，总数走缓存，不随每次翻页执行 COUNT
+        Page<Product> page = new Page<>(queryRequest.getPage(), queryRequest.getSize(), false);
 
         // 执行分页查询
         IPage<Product> resultPage = productMapper.selectPageWithQuery(page, queryRequest);
+        resultPage.setTotal(resolveTotal(queryRequest, resultPage.getRecords().size()));
 
         log.info("查询产品列表完成, 总记录数: {}, 当前页: {}, 每页大小: {}",
                 resultPage.getTotal(), resultPage.getCurrent(), resultPage.getSize());
@@ -49,6 +66,44 @@ public class ProductServiceImpl implements ProductService {
         return resultPage;
     }
 
+    @Override
+    public CursorPageResponse<Product> scrollProducts(ProductQueryRequest queryRequest, String cursor,
+                                                      boolean withTotal) {
+        log.info("游标查询产品列表, 查询条件: {}, 游标: {}", queryRequest, cursor);
+
+        int size = queryRequest.getSize();
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "每页大小必须在1到" + MAX_SCROLL_SIZE + "之间");
+        }
+        // 多读一行判断是否还有下一页
+        List<Product> products = productMapper.selectPageAfter(queryRequest, SeekCursor.decode(cursor), size + 1);
+        boolean hasMore = products.size() > size;
+        if (hasMore) {
+            products = products.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Product last = products.get(products.size() - 1);
+            nextCursor = new SeekCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        Long total = null;
+        if (withTotal) {
+            total = listCountCache.getCount(COUNT_NAMESPACE, filterKey(queryRequest),
+                    () -> productMapper.countWithQuery(queryRequest));
+        }
+
+        log.info("游标查询产品列表完成, 本页数量: {}, 是否还有下一页: {}", products.size(), hasMore);
+        return CursorPageResponse.<Product>builder()
+                .records(products)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .size(size)
+                .total(total)
+                .build();
+    }
+
     @Override
     public Product getProductById(String id) {
         log.info("根据ID查询产品详情: {}", id);
@@ -82,6 +137,7 @@ public class ProductServiceImpl implements ProductService {
         int result = productMapper.insert(product);
 
         if (result > 0) {
+            listCountCache.invalidate(COUNT_NAMESPACE);
             log.info("创建产品成功, ID: {}", product.getId());
         } else {
             log.error("创建产品失败: {}", product.getProductName());
@@ -130,6 +186,7 @@ public class ProductServiceImpl implements ProductService {
         int result = productMapper.deleteById(id);
 
         if (result > 0) {
+            listCountCache.invalidate(COUNT_NAMESPACE);
             log.info("删除产品成功: {}", id);
             return true;
         } else {
@@ -192,6 +249,34 @@ public class ProductServiceImpl implements ProductService {
         return product;
     }
 
+    /**
+     * 列表总数：本页未读满（含第一页为空）时可直接推算，否则取缓存的计数
+     */
+    private long resolveTotal(ProductQueryRequest queryRequest, int fetched) {
+        if (fetched < queryRequest.getSize() && (fetched > 0 || queryRequest.getPage() == 1)) {
+            return (long) (queryRequest.getPage() - 1) * queryRequest.getSize() + fetched;
+        }
+        return listCountCache.getCount(COUNT_NAMESPACE, filterKey(queryRequest),
+                () -> productMapper.countWithQuery(queryRequest));
+    }
+
+    /**
+     * 筛选条件的缓存键，不含页码、每页大小和排序
+     */
+    private static String filterKey(ProductQueryRequest query) {
+        return String.join("|",
+                String.valueOf(query.getFileName()),
+                String.valueOf(query.getReportType()),
+                String.valueOf(query.getDevelopmentType()),
+                String.valueOf(query.getProductCategory()),
+                String.valueOf(query.getPrimaryAdditional()),
+                String.valueOf(query.getRevisionType()),
+                String.valueOf(query.getOperatingRegion()),
+                String.valueOf(query.getYear()),
+                String.valueOf(query.getProductType()),
+                String.valueOf(query.getStatus()));
+    }
+
     /**
      * 验证产品模板类型
      *
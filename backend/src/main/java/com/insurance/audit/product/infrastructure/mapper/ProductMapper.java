@@ -3,11 +3,14 @@ package com.insurance.audit.product.infrastructure.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.insurance.audit.common.pagination.SeekCursor;
 import com.insurance.audit.product.domain.entity.Product;
 import com.insurance.audit.product.interfaces.dto.request.ProductQueryRequest;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
+
 /**
  * 产品数据访问层
  *
@@ -27,4 +30,24 @@ public interface ProductMapper extends BaseMapper<Product> {
      */
     IPage<Product> selectPageWithQuery(@Param("page") Page<Product> page,
                                       @Param("query") ProductQueryRequest queryRequest);
-}
\ No newline at end of file
+
+    /**
+     * 统计筛选条件下的产品总数
+     *
+     * @param queryRequest 查询条件，忽略分页和排序
+     * @return 总数
+     */
+    long countWithQuery(@Param("query") ProductQueryRequest queryRequest);
+
+    /**
+     * 键集分页查询产品列表，按创建时间倒序
+     *
+     * @param queryRequest 查询条件，忽略分页和排序
+     * @param cursor 上一页最后一行，为null时从第一页开始
+     * @param limit 读取条数
+     * @return 产品列表
+     */
+    List<Product> selectPageAfter(@Param("query") ProductQueryRequest queryRequest,
+                                  @Param("cursor") SeekCursor cursor,
+                                  @Param("limit") int limit);
+}
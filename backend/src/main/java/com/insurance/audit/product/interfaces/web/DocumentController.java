@@ -1,5 +1,6 @@
 package com.insurance.audit.product.interfaces.web;
 
+import com.insurance.audit.audit.retrieval.DocumentIndexer;
 import com.insurance.audit.common.dto.ApiResponse;
 import com.insurance.audit.product.application.converter.DocumentConverter;
 import com.insurance.audit.product.application.service.DocumentParsingService;
@@ -39,6 +40,7 @@ public class DocumentController {
     private final DocumentValidationService documentValidationService;
     private final DocumentConverter documentConverter;
     private final DocumentMapper documentMapper;
+    private final DocumentIndexer documentIndexer;
 
     private static final List<String> ALLOWED_DOCUMENT_TYPES = Arrays.asList(
             "TERMS", "FEASIBILITY_REPORT", "ACTUARIAL_REPORT", "RATE_TABLE", "REGISTRATION"
@@ -133,6 +135,9 @@ public class DocumentController {
             Document document = documentConverter.toEntity(response, safeProductId, normalizedDocType);
             documentMapper.insert(document);
 
+            // 后台建立检索索引
+            documentIndexer.submit(safeProductId, document.getId(), fileStorageService.getFullPath(filePath), fileTypeLabel);
+
             // 返回带有生成ID的响应
             response = response.toBuilder()
                     .id(document.getId())
@@ -227,6 +232,7 @@ public class DocumentController {
                 // 将文档信息持久化到数据库
                 Document document = documentConverter.toEntity(resp, safeProductId, null);
                 documentMapper.insert(document);
+                documentIndexer.submit(safeProductId, document.getId(), fileStorageService.getFullPath(filePath), fileTypeLabel);
 
                 // 更新响应中的ID
                 resp = resp.toBuilder()
@@ -264,6 +270,7 @@ public class DocumentController {
 
             int affected = documentMapper.deleteById(documentId);
             if (affected > 0) {
+                documentIndexer.remove(documentId);
                 return ApiResponse.success(Boolean.TRUE, "删除成功");
             } else {
                 return ApiResponse.error("删除失败");
@@ -2,6 +2,7 @@ package com.insurance.audit.product.interfaces.web;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.insurance.audit.common.dto.ApiResponse;
+import com.insurance.audit.common.dto.CursorPageResponse;
 import com.insurance.audit.common.dto.PageResponse;
 import com.insurance.audit.product.application.converter.ProductConverter;
 import com.insurance.audit.product.application.service.DocumentParsingService;
@@ -149,6 +150,65 @@ public class ProductController {
         }
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "游标查询产品列表",
+            description = "按创建时间倒序键集分页；翻页传入上一页的nextCursor，忽略页码和排序字段")
+    @PreAuthorize("hasAnyAuthority('PRODUCT_VIEW','product:view') or hasRole('ADMIN')")
+    public ApiResponse<CursorPageResponse<ProductResponse>> scrollProductList(
+            @Parameter(description = "上一页返回的游标，为空时查询第一页")
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "每页大小", example = "10")
+            @RequestParam(value = "size", defaultValue = "10") Integer size,
+            @Parameter(description = "是否返回总数（近似值）")
+            @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal,
+            @Parameter(description = "文件名关键字")
+            @RequestParam(value = "fileName", required = false) String fileName,
+            @Parameter(description = "报送类型")
+            @RequestParam(value = "reportType", required = false) String reportType,
+            @Parameter(description = "开发类型")
+            @RequestParam(value = "developmentType", required = false) String developmentType,
+            @Parameter(description = "产品类别")
+            @RequestParam(value = "productCategory", required = false) String productCategory,
+            @Parameter(description = "主附险")
+            @RequestParam(value = "primaryAdditional", required = false) String primaryAdditional,
+            @Parameter(description = "修订类型")
+            @RequestParam(value = "revisionType", required = false) String revisionType,
+            @Parameter(description = "经营区域")
+            @RequestParam(value = "operatingRegion", required = false) String operatingRegion,
+            @Parameter(description = "年度")
+            @RequestParam(value = "year", required = false) Integer year,
+            @Parameter(description = "产品类型")
+            @RequestParam(value = "productType", required = false) String productType,
+            @Parameter(description = "产品状态")
+            @RequestParam(value = "status", required = false) String status) {
+
+        log.info("Scrolling product list - cursor: {}, size: {}, fileName: {}", cursor, size, fileName);
+
+        try {
+            ProductQueryRequest queryRequest = ProductQueryRequest.builder()
+                    .size(size)
+                    .fileName(fileName)
+                    .reportType(reportType)
+                    .developmentType(developmentType)
+                    .productCategory(productCategory)
+                    .primaryAdditional(primaryAdditional)
+                    .revisionType(revisionType)
+                    .operatingRegion(operatingRegion)
+                    .year(year)
+                    .productType(productType)
+                    .status(status)
+                    .build();
+
+            CursorPageResponse<Product> productPage = productService.scrollProducts(queryRequest, cursor, withTotal);
+
+            return ApiResponse.success(productPage.map(productConverter::toResponse), "查询产品列表成功");
+
+        } catch (Exception e) {
+            log.error("游标查询产品列表失败", e);
+            return ApiResponse.error("查询产品列表失败: " + e.getMessage());
+        }
+    }
+
     // ==================== 产品创建功能 ====================
 
     @PostMapping
@@ -4,6 +4,7 @@ import com.insurance.audit.rules.domain.Rule;
 import com.insurance.audit.rules.interfaces.dto.request.CreateRuleRequest;
 import com.insurance.audit.rules.interfaces.dto.request.UpdateRuleRequest;
 import com.insurance.audit.rules.interfaces.dto.response.RuleResponse;
+import com.insurance.audit.rules.interfaces.dto.response.RuleSummaryResponse;
 import org.springframework.stereotype.Component;
 
 import java.util.Collections;
@@ -49,6 +50,7 @@ public class RuleConverter {
         response.setCreatedAt(rule.getCreatedAt());
         response.setUpdatedAt(rule.getUpdatedAt());
         response.setLastUpdatedAt(rule.getLastUpdatedAt());
+        response.setSearchScore(rule.getSearchScore());
 
         return response;
     }
@@ -141,6 +143,34 @@ public class RuleConverter {
         return response;
     }
 
+    /**
+     * 转换为列表项响应对象（键集分页查询的精简列）
+     *
+     * @param rule 规则实体
+     * @return 列表项响应对象
+     */
+    public RuleSummaryResponse convertToSummaryResponse(Rule rule) {
+        if (rule == null) {
+            return null;
+        }
+
+        RuleSummaryResponse response = new RuleSummaryResponse();
+        response.setId(rule.getId());
+        response.setRuleNumber(rule.getRuleNumber());
+        response.setRuleName(rule.getRuleName());
+        response.setRuleType(rule.getRuleType());
+        response.setRuleSource(rule.getRuleSource());
+        response.setManageDepartment(rule.getManageDepartment());
+        response.setApplicableInsurance(rule.getApplicableInsurance());
+        response.setAuditStatus(rule.getAuditStatus());
+        response.setEffectiveStatus(rule.getEffectiveStatus());
+        response.setFollowed(rule.getFollowed());
+        response.setPriority(rule.getPriority());
+        response.setLastUpdatedAt(rule.getLastUpdatedAt());
+
+        return response;
+    }
+
     /**
      * 转换为统计响应对象
      *
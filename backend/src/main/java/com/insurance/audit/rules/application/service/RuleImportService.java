@@ -53,6 +53,17 @@ public interface RuleImportService {
      */
     ImportResultResponse importRules(MultipartFile file, String importMode, boolean skipErrors, int batchSize);
 
+    /**
+     * 提交后台导入任务，立即返回批次ID，通过 {@link #getImportResult(String)} 轮询进度
+     *
+     * @param file 上传文件
+     * @param importMode 导入模式
+     * @param skipErrors 是否跳过错误
+     * @param batchSize 批次大小
+     * @return 处理中的批次状态；同一文件正在导入时返回该批次
+     */
+    ImportResultResponse submitImport(MultipartFile file, String importMode, boolean skipErrors, int batchSize);
+
     /**
      * 预览导入数据
      *
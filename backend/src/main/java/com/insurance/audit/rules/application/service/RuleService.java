@@ -1,7 +1,9 @@
 package com.insurance.audit.rules.application.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.insurance.audit.common.dto.CursorPageResponse;
 import com.insurance.audit.rules.domain.Rule;
+import com.insurance.audit.rules.interfaces.dto.request.RuleApplicabilityQuery;
 import com.insurance.audit.rules.interfaces.dto.request.RuleQueryRequest;
 import com.insurance.audit.rules.interfaces.dto.request.CreateRuleRequest;
 import com.insurance.audit.rules.interfaces.dto.request.UpdateRuleRequest;
@@ -26,6 +28,17 @@ public interface RuleService {
      */
     IPage<Rule> getRulePage(RuleQueryRequest queryRequest);
 
+    /**
+     * 键集分页查询规则列表
+     * 按最后更新时间倒序，从游标之后读取，只返回列表页精简列；忽略页码和排序字段
+     *
+     * @param queryRequest 查询请求（筛选条件和每页大小）
+     * @param cursor 上一页返回的游标，为空时从第一页开始
+     * @param withTotal 是否返回总数（缓存的近似值）
+     * @return 游标分页规则列表
+     */
+    CursorPageResponse<Rule> scrollRules(RuleQueryRequest queryRequest, String cursor, boolean withTotal);
+
     /**
      * 根据ID获取规则详情
      *
@@ -83,9 +96,9 @@ public interface RuleService {
     List<Rule> getRulesByType(String ruleType);
 
     /**
-     * 搜索规则
+     * 搜索规则，按全文检索相关度排序
      *
-     * @param keyword 关键词
+     * @param keyword 关键词，多个词以空白分隔，须全部命中
      * @return 规则列表
      */
     List<Rule> searchRules(String keyword);
@@ -113,4 +126,12 @@ public interface RuleService {
      * @return 统计信息
      */
     Map<String, Object> getRuleStatistics();
+
+    /**
+     * 查询适用的有效规则，由内存适用性索引筛选后按ID加载
+     *
+     * @param query 适用性查询条件
+     * @return 适用且在检核时间点有效的规则列表
+     */
+    List<Rule> getApplicableRules(RuleApplicabilityQuery query);
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.insurance.audit.rules.application.service;
+
+import com.insurance.audit.rules.domain.Rule;
+import com.insurance.audit.rules.enums.RuleAuditStatus;
+import com.insurance.audit.rules.enums.RuleEffectiveStatus;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 规则统计服务接口
+ * 统计数据来自汇总表，规则增删和状态变更时由调用方在同一事务中增量维护，后台任务定期对账
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+public interface RuleStatisticsService {
+
+    /**
+     * 规则新增后计数，须在插入规则的事务中调用
+     *
+     * @param rules 新增的规则
+     */
+    void recordCreated(Collection<Rule> rules);
+
+    /**
+     * 规则删除后计数，须在删除规则的事务中调用
+     *
+     * @param rules 删除的规则（删除前的状态）
+     */
+    void recordDeleted(Collection<Rule> rules);
+
+    /**
+     * 规则状态变更后计数，须在更新规则的事务中调用
+     *
+     * @param rule 变更后的规则
+     * @param previousAuditStatus 变更前的审核状态
+     * @param previousEffectiveStatus 变更前的有效状态
+     */
+    void recordStatusChanged(Rule rule, RuleAuditStatus previousAuditStatus,
+                             RuleEffectiveStatus previousEffectiveStatus);
+
+    /**
+     * 批量状态变更后计数，须在更新规则的事务中调用
+     *
+     * @param previous 变更前的规则（只需统计维度字段）
+     * @param current 变更后的规则
+     */
+    void recordStatusChanged(Collection<Rule> previous, Collection<Rule> current);
+
+    /**
+     * 按导入批次删除规则前扣减计数，须在同一事务中先于删除调用
+     *
+     * @param batchId 导入批次ID
+     */
+    void recordImportBatchDeleted(String batchId);
+
+    /**
+     * 获取规则统计信息
+     *
+     * @return 统计信息：总数、按类型、按审核状态、按有效状态、按部门、待审核数
+     */
+    Map<String, Object> getStatistics();
+
+    /**
+     * 待审核规则数
+     *
+     * @return 审核状态为 PENDING 的规则数
+     */
+    long countPendingAudit();
+
+    /**
+     * 与规则表对账，按实际分组统计重建汇总表
+     *
+     * @return 修正的统计项数
+     */
+    int reconcile();
+}
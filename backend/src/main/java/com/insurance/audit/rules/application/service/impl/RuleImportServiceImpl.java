@@ -1,34 +1,78 @@
 package com.insurance.audit.rules.application.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.audit.common.event.RuleChangedEvent;
 import com.insurance.audit.common.exception.BusinessException;
 import com.insurance.audit.common.exception.ErrorCode;
+import com.insurance.audit.common.pagination.ListCountCache;
 import com.insurance.audit.rules.application.service.RuleImportService;
 import com.insurance.audit.rules.application.service.RuleService;
+import com.insurance.audit.rules.application.service.RuleStatisticsService;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import com.insurance.audit.rules.domain.Rule;
+import com.insurance.audit.rules.domain.RuleImportBatch;
+import com.insurance.audit.rules.domain.RuleImportItem;
 import com.insurance.audit.rules.enums.RuleType;
+import com.insurance.audit.rules.infrastructure.importer.RuleImportRow;
+import com.insurance.audit.rules.infrastructure.importer.RuleImportRowValidator;
+import com.insurance.audit.rules.infrastructure.importer.RuleSheetReader;
+import com.insurance.audit.rules.infrastructure.mapper.RuleImportBatchMapper;
+import com.insurance.audit.rules.infrastructure.mapper.RuleImportItemMapper;
 import com.insurance.audit.rules.infrastructure.mapper.RuleMapper;
 import com.insurance.audit.rules.interfaces.dto.request.ImportValidationRequest;
 import com.insurance.audit.rules.interfaces.dto.response.ImportResultResponse;
 import com.insurance.audit.rules.interfaces.dto.response.ImportTemplateResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 规则导入服务实现类
+ * 导入按流水线执行：上传文件先落到临时文件，SAX 逐行读取，按批提交到校验线程池并行校验和转换，
+ * 再按文件顺序多行插入，每批一个事务并在同一事务中写入批次清单、推进批次检查点。中断或失败后重新上传同一文件时，
+ * 从检查点续导。
+ * 异步导入时文件保存在工作目录中，由后台任务线程执行；节点宕机后由恢复任务认领中断的批次续导。
+ * 回滚按批次清单一条语句删除该批次导入的全部规则
  *
  * @author System
  * @version 1.0.0
@@ -39,8 +83,116 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class RuleImportServiceImpl implements RuleImportService {
 
+    /**
+     * 响应中最多返回的错误明细数
+     */
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String BATCH_ID_PREFIX = "BATCH_";
+
+    private static final String STATUS_PROCESSING = "PROCESSING";
+    private static final String STATUS_FAILED = "FAILED";
+    private static final String STATUS_ROLLED_BACK = "ROLLED_BACK";
+
     private final RuleService ruleService;
     private final RuleMapper ruleMapper;
+    private final RuleImportBatchMapper ruleImportBatchMapper;
+    private final RuleImportItemMapper ruleImportItemMapper;
+    private final RuleSheetReader ruleSheetReader;
+    private final RuleImportRowValidator ruleImportRowValidator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ListCountCache listCountCache;
+    private final RuleStatisticsService ruleStatisticsService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 校验并发度，小于等于0时取CPU核数
+     */
+    @Value("${app.rule-import.validation-parallelism:0}")
+    private int validationParallelism;
+
+    /**
+     * 单批提交行数上限
+     */
+    @Value("${app.rule-import.max-batch-size:2000}")
+    private int maxBatchSize = 2000;
+
+    /**
+     * 处理中批次的检查点超过该时长未推进时视为中断，可被续导
+     */
+    @Value("${app.rule-import.stale-after-seconds:300}")
+    private long staleAfterSeconds = 300;
+
+    /**
+     * 同时执行的后台导入任务数
+     */
+    @Value("${app.rule-import.job-concurrency:2}")
+    private int jobConcurrency = 2;
+
+    /**
+     * 异步导入文件的工作目录，任务结束后删除文件，节点宕机后据此续导
+     */
+    @Value("${app.rule-import.work-dir:${java.io.tmpdir}/rule-import}")
+    private String workDir;
+
+    private ExecutorService validationExecutor;
+
+    private ExecutorService jobExecutor;
+
+    private ScheduledExecutorService recoveryScheduler;
+
+    /**
+     * 本节点正在执行的批次，恢复任务不认领
+     */
+    private final Set<String> runningBatches = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean stopping;
+
+    @PostConstruct
+    public void start() {
+        int parallelism = validationParallelism > 0
+                ? validationParallelism : Runtime.getRuntime().availableProcessors();
+        validationParallelism = parallelism;
+        if (parallelism > 1) {
+            AtomicInteger threadIndex = new AtomicInteger();
+            validationExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "rule-import-validate-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        AtomicInteger jobIndex = new AtomicInteger();
+        jobExecutor = Executors.newFixedThreadPool(Math.max(1, jobConcurrency), runnable -> {
+            Thread thread = new Thread(runnable, "rule-import-job-" + jobIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        recoveryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rule-import-recovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long recoveryInterval = Math.max(staleAfterSeconds / 2, 10);
+        recoveryScheduler.scheduleWithFixedDelay(this::recoverInterrupted, recoveryInterval, recoveryInterval,
+                TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        // 停止时处理中的批次保持处理中，文件保留在工作目录，重启后由恢复任务续导
+        stopping = true;
+        if (recoveryScheduler != null) {
+            recoveryScheduler.shutdownNow();
+        }
+        if (jobExecutor != null) {
+            jobExecutor.shutdownNow();
+        }
+        if (validationExecutor != null) {
+            validationExecutor.shutdownNow();
+        }
+    }
 
     @Override
     public Resource generateTemplate(String ruleType) {
@@ -135,31 +287,22 @@ public class RuleImportServiceImpl implements RuleImportService {
         if (file.isEmpty()) {
             throw new BusinessException(ErrorCode.INVALID_PARAMETER, "导入文件不能为空");
         }
+        RuleType requestedType = null;
+        if (StringUtils.hasText(request.getRuleType())) {
+            try {
+                requestedType = RuleType.valueOf(request.getRuleType().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException(ErrorCode.INVALID_PARAMETER, "不支持的规则类型: " + request.getRuleType());
+            }
+        }
 
-        try {
-            // 解析文件
-            List<Object> data = parseExcelFile(file, null, 1);
+        try (StagedFile staged = stage(file)) {
+            RuleType type = requestedType != null ? requestedType : detectRuleType(staged.getPath());
 
-            ImportResultResponse response = new ImportResultResponse();
+            ImportResultResponse response = validateStaged(staged.getPath(), type, maxBatchSize, null);
             response.setBatchId(generateBatchId());
             response.setFileName(file.getOriginalFilename());
-            response.setTotalRows(data.size());
-            response.setValidRows(0);
-            response.setInvalidRows(0);
-            response.setErrors(new ArrayList<>());
-
-            // 验证每行数据
-            for (int i = 0; i < data.size(); i++) {
-                List<ImportResultResponse.ImportError> errors = validateRuleData(data.get(i), request.getRuleType());
-                if (errors.isEmpty()) {
-                    response.setValidRows(response.getValidRows() + 1);
-                } else {
-                    response.setInvalidRows(response.getInvalidRows() + 1);
-                    response.getErrors().addAll(errors);
-                }
-            }
-
-            response.setValidationStatus(response.getInvalidRows() == 0 ? "PASSED" : "FAILED");
+            response.setFileSize(staged.getSize());
 
             log.info("验证导入文件完成: 总行数={}, 有效={}, 无效={}",
                     response.getTotalRows(), response.getValidRows(), response.getInvalidRows());
@@ -172,69 +315,102 @@ public class RuleImportServiceImpl implements RuleImportService {
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public ImportResultResponse importRules(MultipartFile file, String importMode, boolean skipErrors, int batchSize) {
         log.info("批量导入规则: {}, 导入模式: {}, 跳过错误: {}, 批次大小: {}",
                 file.getOriginalFilename(), importMode, skipErrors, batchSize);
 
-        try {
-            String batchId = generateBatchId();
-
-            // 解析文件
-            List<Object> data = parseExcelFile(file, null, 1);
+        if (file.isEmpty()) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "导入文件不能为空");
+        }
+        LocalDateTime startTime = LocalDateTime.now();
+        long startMillis = System.currentTimeMillis();
 
-            ImportResultResponse response = new ImportResultResponse();
-            response.setBatchId(batchId);
-            response.setFileName(file.getOriginalFilename());
-            response.setTotalRows(data.size());
-            response.setSuccessRows(0);
-            response.setFailedRows(0);
-            response.setErrors(new ArrayList<>());
-
-            // 分批处理
-            int processed = 0;
-            for (int i = 0; i < data.size(); i += batchSize) {
-                int endIndex = Math.min(i + batchSize, data.size());
-                List<Object> batch = data.subList(i, endIndex);
-
-                ImportResultResponse batchResult = processBatch(batch, importMode, skipErrors, batchId, i);
-                response.setSuccessRows(response.getSuccessRows() + batchResult.getSuccessRows());
-                response.setFailedRows(response.getFailedRows() + batchResult.getFailedRows());
-                response.getErrors().addAll(batchResult.getErrors());
-
-                processed += batch.size();
-                log.info("批次处理进度: {}/{}", processed, data.size());
+        try (StagedFile staged = stage(file)) {
+            RuleImportBatch active = ruleImportBatchMapper.selectActive(staged.getHash(), staleBefore());
+            if (active != null) {
+                throw new BusinessException(ErrorCode.INVALID_PARAMETER, "该文件正在导入中，批次ID: " + active.getBatchId());
             }
+            RuleImportBatch batch = openBatch(file.getOriginalFilename(), staged, importMode, skipErrors, batchSize);
 
-            response.setImportStatus(response.getFailedRows() == 0 ? "SUCCESS" : "PARTIAL_SUCCESS");
-
-            log.info("批量导入规则完成: 成功={}, 失败={}", response.getSuccessRows(), response.getFailedRows());
+            ImportResultResponse response = execute(batch, staged.getPath());
+            response.setFileName(file.getOriginalFilename());
+            response.setFileSize(staged.getSize());
+            response.setImportMode(importMode);
+            response.setStartTime(startTime);
+            response.setEndTime(LocalDateTime.now());
+            response.setProcessingTimeMs(System.currentTimeMillis() - startMillis);
+
+            log.info("批量导入规则完成: batchId={}, 成功={}, 失败={}, 续导跳过={}", response.getBatchId(),
+                    response.getSuccessRows(), response.getFailedRows(), response.getSkippedRows());
             return response;
 
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("批量导入规则失败", e);
             throw new BusinessException(ErrorCode.OPERATION_FAILED, "导入失败: " + e.getMessage());
         }
     }
 
+    @Override
+    public ImportResultResponse submitImport(MultipartFile file, String importMode, boolean skipErrors, int batchSize) {
+        log.info("提交导入任务: {}, 导入模式: {}, 跳过错误: {}, 批次大小: {}",
+                file.getOriginalFilename(), importMode, skipErrors, batchSize);
+
+        if (file.isEmpty()) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "导入文件不能为空");
+        }
+
+        try (StagedFile staged = stage(file)) {
+            RuleImportBatch active = ruleImportBatchMapper.selectActive(staged.getHash(), staleBefore());
+            if (active != null) {
+                log.info("同一文件正在导入，返回已有批次: batchId={}", active.getBatchId());
+                return toResponse(active);
+            }
+            RuleImportBatch batch = openBatch(file.getOriginalFilename(), staged, importMode, skipErrors, batchSize);
+
+            // 文件移入工作目录，任务结束前一直保留，节点宕机后据此续导
+            Path workFile = workFile(batch.getBatchId());
+            Files.createDirectories(workFile.getParent());
+            Files.move(staged.getPath(), workFile, StandardCopyOption.REPLACE_EXISTING);
+            launch(batch, workFile);
+
+            log.info("提交导入任务成功: batchId={}", batch.getBatchId());
+            return toResponse(batch);
+
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("提交导入任务失败", e);
+            throw new BusinessException(ErrorCode.OPERATION_FAILED, "提交导入任务失败: " + e.getMessage());
+        }
+    }
+
     @Override
     public ImportResultResponse previewImport(MultipartFile file, int previewRows) {
         log.info("预览导入数据: {}, 预览行数: {}", file.getOriginalFilename(), previewRows);
 
-        try {
-            List<Object> data = parseExcelFile(file, null, 1);
-
-            // 限制预览行数
-            int actualRows = Math.min(previewRows, data.size());
-            List<Object> previewData = data.subList(0, actualRows);
+        try (StagedFile staged = stage(file)) {
+            List<Object> previewData = new ArrayList<>();
+            int[] totalRows = new int[1];
+            ruleSheetReader.read(staged.getPath(), null, (rowIndex, cells) -> {
+                if (rowIndex < 1) {
+                    return true;
+                }
+                totalRows[0]++;
+                if (previewData.size() < previewRows) {
+                    previewData.add(RuleImportRow.toColumns(cells));
+                }
+                return true;
+            });
 
             ImportResultResponse response = new ImportResultResponse();
             response.setFileName(file.getOriginalFilename());
-            response.setTotalRows(data.size());
-            response.setPreviewRows(actualRows);
+            response.setTotalRows(totalRows[0]);
+            response.setPreviewRows(previewData.size());
             response.setPreviewData(previewData);
 
-            log.info("预览导入数据完成: 总行数={}, 预览行数={}", data.size(), actualRows);
+            log.info("预览导入数据完成: 总行数={}, 预览行数={}", totalRows[0], previewData.size());
             return response;
 
         } catch (Exception e) {
@@ -246,8 +422,15 @@ public class RuleImportServiceImpl implements RuleImportService {
     public List<Object> getImportHistory(int page, int size) {
         log.info("获取导入历史: 页码={}, 页面大小={}", page, size);
 
-        // TODO: 实现导入历史查询
-        List<Object> history = new ArrayList<>();
+        // 列表不返回错误明细，错误明细按批次查询
+        Page<RuleImportBatch> result = ruleImportBatchMapper.selectPage(new Page<>(page, size, false),
+                new LambdaQueryWrapper<RuleImportBatch>()
+                        .select(RuleImportBatch.class, field -> !"error_details".equals(field.getColumn()))
+                        .orderByDesc(RuleImportBatch::getStartedAt));
+        List<Object> history = new ArrayList<>(result.getRecords().size());
+        for (RuleImportBatch batch : result.getRecords()) {
+            history.add(toResponse(batch));
+        }
 
         log.info("获取导入历史完成: 数量={}", history.size());
         return history;
@@ -257,11 +440,9 @@ public class RuleImportServiceImpl implements RuleImportService {
     public ImportResultResponse getImportResult(String batchId) {
         log.info("获取导入结果: {}", batchId);
 
-        // TODO: 实现导入结果查询
-        ImportResultResponse response = new ImportResultResponse();
-        response.setBatchId(batchId);
+        ImportResultResponse response = toResponse(requireBatch(batchId));
 
-        log.info("获取导入结果完成: {}", batchId);
+        log.info("获取导入结果完成: {}, 状态={}, 进度={}%", batchId, response.getStatus(), response.getProgressPercent());
         return response;
     }
 
@@ -297,13 +478,28 @@ public class RuleImportServiceImpl implements RuleImportService {
     public boolean deleteImportBatch(String batchId, boolean deleteData) {
         log.info("删除导入批次: {}, 删除数据: {}", batchId, deleteData);
 
+        RuleImportBatch batch = requireBatch(batchId);
+        if (isActive(batch)) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "导入进行中，不能删除批次: " + batchId);
+        }
+
         try {
-            // TODO: 实现批次删除逻辑
+            if (deleteData) {
+                ruleStatisticsService.recordImportBatchDeleted(batchId);
+                int deleted = ruleImportItemMapper.deleteRulesByBatchId(batchId, getCurrentUserId());
+                log.info("删除导入批次数据: {}, 规则数={}", batchId, deleted);
+                listCountCache.invalidate(RuleServiceImpl.COUNT_NAMESPACE);
+                publishRulesChanged();
+            }
+            ruleImportItemMapper.deleteByBatchId(batchId);
+            ruleImportBatchMapper.deleteById(batchId);
+            deleteQuietly(workFile(batchId));
 
             log.info("删除导入批次成功: {}", batchId);
             return true;
 
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             log.error("删除导入批次失败: {}", batchId, e);
             return false;
         }
@@ -314,17 +510,29 @@ public class RuleImportServiceImpl implements RuleImportService {
     public ImportResultResponse rollbackImport(String batchId, String reason) {
         log.info("回滚导入数据: {}, 原因: {}", batchId, reason);
 
+        RuleImportBatch batch = requireBatch(batchId);
+
         try {
-            // TODO: 实现导入回滚逻辑
+            // 按批次清单一条语句删除，批次状态条件更新失败时整个事务回滚
+            ruleStatisticsService.recordImportBatchDeleted(batchId);
+            int deleted = ruleImportItemMapper.deleteRulesByBatchId(batchId, getCurrentUserId());
+            if (ruleImportBatchMapper.markRolledBack(batchId, reason, deleted, staleBefore()) == 0) {
+                throw new BusinessException(ErrorCode.INVALID_PARAMETER,
+                        STATUS_ROLLED_BACK.equals(batch.getStatus()) ? "批次已回滚: " + batchId : "导入进行中，不能回滚: " + batchId);
+            }
+            deleteQuietly(workFile(batchId));
+            listCountCache.invalidate(RuleServiceImpl.COUNT_NAMESPACE);
+            publishRulesChanged();
 
-            ImportResultResponse response = new ImportResultResponse();
-            response.setBatchId(batchId);
+            ImportResultResponse response = toResponse(ruleImportBatchMapper.selectById(batchId));
             response.setRollbackStatus("SUCCESS");
             response.setRollbackReason(reason);
 
-            log.info("回滚导入数据成功: {}", batchId);
+            log.info("回滚导入数据成功: {}, 删除规则数={}", batchId, deleted);
             return response;
 
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("回滚导入数据失败: {}", batchId, e);
             throw new BusinessException(ErrorCode.OPERATION_FAILED, "回滚失败: " + e.getMessage());
@@ -335,36 +543,14 @@ public class RuleImportServiceImpl implements RuleImportService {
     public List<Object> parseExcelFile(MultipartFile file, String sheetName, int startRow) {
         log.info("解析Excel文件: {}, 工作表: {}, 起始行: {}", file.getOriginalFilename(), sheetName, startRow);
 
-        try {
-            Workbook workbook = WorkbookFactory.create(file.getInputStream());
-            Sheet sheet = StringUtils.hasText(sheetName) ? workbook.getSheet(sheetName) : workbook.getSheetAt(0);
-
-            if (sheet == null) {
-                throw new BusinessException(ErrorCode.INVALID_PARAMETER, "工作表不存在: " + sheetName);
-            }
-
+        try (StagedFile staged = stage(file)) {
             List<Object> data = new ArrayList<>();
-            int lastRowNum = sheet.getLastRowNum();
-
-            for (int i = startRow; i <= lastRowNum; i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-
-                Map<String, Object> rowData = new HashMap<>();
-                int lastCellNum = row.getLastCellNum();
-
-                for (int j = 0; j < lastCellNum; j++) {
-                    Cell cell = row.getCell(j);
-                    String value = getCellValue(cell);
-                    rowData.put("column_" + j, value);
-                }
-
-                if (!rowData.isEmpty()) {
-                    data.add(rowData);
+            ruleSheetReader.read(staged.getPath(), sheetName, (rowIndex, cells) -> {
+                if (rowIndex >= startRow) {
+                    data.add(RuleImportRow.toColumns(cells));
                 }
-            }
-
-            workbook.close();
+                return true;
+            });
 
             log.info("解析Excel文件完成: 数据行数={}", data.size());
             return data;
@@ -386,19 +572,9 @@ public class RuleImportServiceImpl implements RuleImportService {
         @SuppressWarnings("unchecked")
         Map<String, Object> rowData = (Map<String, Object>) data;
 
-        // 基本字段验证
-        if (!StringUtils.hasText((String) rowData.get("column_0"))) {
-            errors.add(new ImportResultResponse.ImportError(0, "规则名称", "规则名称不能为空"));
-        }
-
-        if (!StringUtils.hasText((String) rowData.get("column_1"))) {
-            errors.add(new ImportResultResponse.ImportError(1, "规则描述", "规则描述不能为空"));
-        }
-
-        // 根据规则类型进行特定验证
         try {
             RuleType type = RuleType.valueOf(ruleType.toUpperCase());
-            validateByRuleType(rowData, type, errors);
+            errors.addAll(ruleImportRowValidator.validate(RuleImportRow.of(-1, type, rowData)));
         } catch (IllegalArgumentException e) {
             errors.add(new ImportResultResponse.ImportError(-1, "规则类型", "无效的规则类型: " + ruleType));
         }
@@ -415,20 +591,11 @@ public class RuleImportServiceImpl implements RuleImportService {
         @SuppressWarnings("unchecked")
         Map<String, Object> rowData = (Map<String, Object>) data;
 
-        Rule rule = new Rule();
-        rule.setRuleName((String) rowData.get("column_0"));
-        rule.setRuleDescription((String) rowData.get("column_1"));
-        rule.setRuleType(RuleType.valueOf(ruleType.toUpperCase()));
-        rule.setRuleContent((String) rowData.get("column_2"));
-        rule.setCreatedBy(getCurrentUserId());
-        rule.setUpdatedBy(getCurrentUserId());
-        rule.setLastUpdatedAt(LocalDateTime.now());
-
-        return rule;
+        RuleImportRow row = RuleImportRow.of(-1, RuleType.valueOf(ruleType.toUpperCase()), rowData);
+        return ruleImportRowValidator.toRule(row, null, null, getCurrentUserId(), LocalDateTime.now());
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public ImportResultResponse batchSaveRules(List<Object> rules, int batchSize) {
         log.info("批量保存规则: 数量={}, 批次大小={}", rules.size(), batchSize);
 
@@ -437,19 +604,27 @@ public class RuleImportServiceImpl implements RuleImportService {
         response.setFailedRows(0);
         response.setErrors(new ArrayList<>());
 
-        for (int i = 0; i < rules.size(); i += batchSize) {
-            int endIndex = Math.min(i + batchSize, rules.size());
-            List<Object> batch = rules.subList(i, endIndex);
+        int commitSize = Math.max(1, Math.min(batchSize, maxBatchSize));
+        for (int i = 0; i < rules.size(); i += commitSize) {
+            int endIndex = Math.min(i + commitSize, rules.size());
+            List<Rule> batch = new ArrayList<>(endIndex - i);
+            for (Object ruleObj : rules.subList(i, endIndex)) {
+                if (ruleObj instanceof Rule rule) {
+                    fillKeys(rule);
+                    batch.add(rule);
+                }
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
 
             try {
-                // 批量插入
-                for (Object ruleObj : batch) {
-                    if (ruleObj instanceof Rule) {
-                        Rule rule = (Rule) ruleObj;
-                        ruleMapper.insert(rule);
-                        response.setSuccessRows(response.getSuccessRows() + 1);
-                    }
-                }
+                // 每批多行插入，独立提交
+                transactionTemplate.executeWithoutResult(status -> {
+                    ruleMapper.insertBatch(batch);
+                    ruleStatisticsService.recordCreated(batch);
+                });
+                response.setSuccessRows(response.getSuccessRows() + batch.size());
             } catch (Exception e) {
                 response.setFailedRows(response.getFailedRows() + batch.size());
                 response.getErrors().add(new ImportResultResponse.ImportError(i, "批量保存", e.getMessage()));
@@ -457,55 +632,552 @@ public class RuleImportServiceImpl implements RuleImportService {
             }
         }
 
+        publishRulesChanged();
         log.info("批量保存规则完成: 成功={}, 失败={}", response.getSuccessRows(), response.getFailedRows());
         return response;
     }
 
     /**
-     * 处理单个批次
+     * 完整校验已落盘的文件，不写入数据
+     *
+     * @param batchId 导入批次ID，不为空时每校验一批刷新批次更新时间，避免校验耗时较长时被判定为中断
      */
-    private ImportResultResponse processBatch(List<Object> batch, String importMode, boolean skipErrors,
-                                            String batchId, int startIndex) {
+    private ImportResultResponse validateStaged(Path file, RuleType type, int batchSize, String batchId) {
         ImportResultResponse response = new ImportResultResponse();
-        response.setSuccessRows(0);
-        response.setFailedRows(0);
+        response.setValidRows(0);
+        response.setInvalidRows(0);
+        response.setErrors(new ArrayList<>());
+
+        int totalRows = scan(file, type, 1, batchSize, null, batch -> {
+            if (batchId != null) {
+                ruleImportBatchMapper.heartbeat(batchId);
+            }
+            response.setValidRows(response.getValidRows() + batch.getValidRows());
+            response.setInvalidRows(response.getInvalidRows() + batch.getFailedRows());
+            addErrors(response, batch.getErrors());
+        });
+
+        response.setTotalRows(totalRows);
+        response.setValidationStatus(response.getInvalidRows() == 0 ? "PASSED" : "FAILED");
+        return response;
+    }
+
+    /**
+     * 执行导入批次：不跳过错误时先完整校验，再从检查点开始写入，最后结束批次并保存错误明细。
+     * 服务停止导致的中断不结束批次，重启后由恢复任务续导
+     */
+    private ImportResultResponse execute(RuleImportBatch batch, Path file) {
+        String batchId = batch.getBatchId();
+        RuleType type = RuleType.valueOf(batch.getRuleType());
+        boolean skipErrors = Boolean.TRUE.equals(batch.getSkipErrors());
+
+        ImportResultResponse response = null;
+        String errorMessage = null;
+        try {
+            if (!skipErrors) {
+                // 不跳过错误时先完整校验一遍，有错误行则不写入任何数据
+                ImportResultResponse validation = validateStaged(file, type, batch.getBatchSize(), batchId);
+                if (validation.getInvalidRows() > 0) {
+                    errorMessage = "数据校验未通过，无效行数: " + validation.getInvalidRows();
+                    validation.setBatchId(batchId);
+                    validation.setSuccessRows(batch.getSuccessRows());
+                    validation.setFailedRows(validation.getInvalidRows());
+                    validation.setImportStatus(STATUS_FAILED);
+                    validation.setResultSummary(errorMessage);
+                    log.info("批量导入规则校验未通过: batchId={}, 无效行数={}", batchId, validation.getInvalidRows());
+                    response = validation;
+                } else {
+                    ruleImportBatchMapper.updateTotalRows(batchId, validation.getTotalRows());
+                }
+            } else if (batch.getTotalRows() == null) {
+                ruleImportBatchMapper.updateTotalRows(batchId, countRows(file));
+            }
+            if (response == null) {
+                response = writeStaged(file, batch, skipErrors);
+            }
+        } catch (RuntimeException e) {
+            if (stopping) {
+                throw e;
+            }
+            errorMessage = e.getMessage();
+            log.error("导入批次失败，重新上传同一文件可从检查点续导: batchId={}", batchId, e);
+            response = new ImportResultResponse();
+            response.setBatchId(batchId);
+            response.setImportStatus(STATUS_FAILED);
+            response.setResultSummary("导入中断，已提交的数据保留，重新上传同一文件可从检查点续导: " + errorMessage);
+        }
+        ruleImportBatchMapper.finish(batchId, response.getImportStatus(), response.getTotalRows(), errorMessage,
+                toJson(response.getErrors()));
+        listCountCache.invalidate(RuleServiceImpl.COUNT_NAMESPACE);
+        publishRulesChanged();
+        response.setStatus(response.getImportStatus());
+        return response;
+    }
+
+    /**
+     * 从批次检查点开始写入：每批多行插入规则和批次清单并推进检查点，三者在同一事务中提交
+     */
+    private ImportResultResponse writeStaged(Path file, RuleImportBatch batch, boolean skipErrors) {
+        String batchId = batch.getBatchId();
+        ImportResultResponse response = new ImportResultResponse();
+        response.setBatchId(batchId);
+        response.setSuccessRows(batch.getSuccessRows());
+        response.setFailedRows(batch.getFailedRows());
+        response.setSkippedRows(batch.getSuccessRows() + batch.getFailedRows());
         response.setErrors(new ArrayList<>());
 
-        for (int i = 0; i < batch.size(); i++) {
+        int totalRows = scan(file, RuleType.valueOf(batch.getRuleType()), batch.getNextRow(), batch.getBatchSize(),
+                batchId, validated -> {
+                    int success = validated.getRules().size();
+                    int failed = validated.getFailedRows();
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> {
+                            if (!validated.getRules().isEmpty()) {
+                                ruleMapper.insertBatch(validated.getRules());
+                                ruleImportItemMapper.insertBatch(validated.items(batchId));
+                                ruleStatisticsService.recordCreated(validated.getRules());
+                            }
+                            ruleImportBatchMapper.advanceCheckpoint(batchId, validated.getNextRow(),
+                                    validated.getRules().size(), validated.getFailedRows());
+                        });
+                    } catch (RuntimeException e) {
+                        if (!skipErrors || stopping) {
+                            throw e;
+                        }
+                        // 跳过错误时逐行重试，只丢弃插入失败的行
+                        log.warn("批次多行插入失败，逐行重试: batchId={}, 检查点行号={}, error={}",
+                                batchId, validated.getNextRow(), e.getMessage());
+                        RowByRowResult rowByRow = insertRowByRow(batchId, validated);
+                        success = rowByRow.inserted();
+                        failed += rowByRow.failed();
+                    }
+                    response.setSuccessRows(response.getSuccessRows() + success);
+                    response.setFailedRows(response.getFailedRows() + failed);
+                    addErrors(response, validated.getErrors());
+                });
+
+        response.setTotalRows(totalRows);
+        response.setImportStatus(response.getFailedRows() == 0 ? "SUCCESS" : "PARTIAL_SUCCESS");
+        return response;
+    }
+
+    /**
+     * 逐行插入一批规则：每行规则、清单项和成功行数在同一事务中提交，最后一行与检查点一起提交，
+     * 中断后续导不会重复计数；批次行号确定的规则编号已存在时视为此前已提交并计数，不再计入成功行数
+     *
+     * @return 本次新插入的行数和插入失败的行数
+     */
+    private RowByRowResult insertRowByRow(String batchId, ValidatedBatch batch) {
+        List<RuleImportItem> items = batch.items(batchId);
+        int last = batch.getRules().size() - 1;
+        int inserted = 0;
+        int failed = 0;
+        boolean checkpointed = false;
+        for (int i = 0; i <= last; i++) {
+            Rule rule = batch.getRules().get(i);
+            RuleImportItem item = items.get(i);
+            boolean lastRow = i == last;
+            int failedRows = batch.getFailedRows() + failed;
             try {
-                Object data = batch.get(i);
-                // TODO: 根据导入模式处理数据
-                response.setSuccessRows(response.getSuccessRows() + 1);
-            } catch (Exception e) {
-                response.setFailedRows(response.getFailedRows() + 1);
-                response.getErrors().add(new ImportResultResponse.ImportError(
-                    startIndex + i, "数据处理", e.getMessage()));
+                transactionTemplate.executeWithoutResult(status -> {
+                    ruleMapper.insertBatch(List.of(rule));
+                    ruleImportItemMapper.insertBatch(List.of(item));
+                    ruleStatisticsService.recordCreated(List.of(rule));
+                    if (lastRow) {
+                        ruleImportBatchMapper.advanceCheckpoint(batchId, batch.getNextRow(), 1, failedRows);
+                    } else {
+                        ruleImportBatchMapper.addSuccessRows(batchId, 1);
+                    }
+                });
+                inserted++;
+                checkpointed = lastRow;
+            } catch (DuplicateKeyException e) {
+                log.debug("规则已在中断前提交，跳过: batchId={}, 行号={}", batchId, item.getRowNumber());
+            } catch (RuntimeException e) {
+                failed++;
+                batch.getErrors().add(new ImportResultResponse.ImportError(item.getRowNumber(),
+                        "数据保存", e.getMessage()));
+            }
+        }
+        if (!checkpointed) {
+            ruleImportBatchMapper.advanceCheckpoint(batchId, batch.getNextRow(), 0, batch.getFailedRows() + failed);
+        }
+        return new RowByRowResult(inserted, failed);
+    }
 
-                if (!skipErrors) {
-                    throw e;
+    /**
+     * 流式读取并校验：读取线程按批收集行，各批提交到校验线程池并行校验和转换，再按文件顺序交给消费者；
+     * 在途批次数不超过校验并发度，内存占用与文件行数无关
+     *
+     * @param fromRow 从该工作表行号开始处理，之前的行只计数
+     * @param batchId 批次ID，不为空时把校验通过的行转为规则实体
+     * @return 数据总行数
+     */
+    private int scan(Path file, RuleType type, int fromRow, int batchSize, String batchId,
+                     BatchConsumer consumer) {
+        Deque<Future<ValidatedBatch>> inFlight = new ArrayDeque<>();
+        List<RuleImportRow> pending = new ArrayList<>(batchSize);
+        int[] totalRows = new int[1];
+        LocalDateTime now = LocalDateTime.now();
+        String operatorId = getCurrentUserId();
+
+        try {
+            ruleSheetReader.read(file, null, (rowIndex, cells) -> {
+                if (rowIndex < 1) {
+                    return true;
+                }
+                totalRows[0]++;
+                if (rowIndex < fromRow) {
+                    return true;
+                }
+                pending.add(RuleImportRow.of(rowIndex, type, cells));
+                if (pending.size() >= batchSize) {
+                    submit(inFlight, new ArrayList<>(pending), batchId, operatorId, now, consumer);
+                    pending.clear();
+                }
+                return true;
+            });
+            if (!pending.isEmpty()) {
+                submit(inFlight, new ArrayList<>(pending), batchId, operatorId, now, consumer);
+            }
+            while (!inFlight.isEmpty()) {
+                consumer.accept(await(inFlight.poll()));
+            }
+            return totalRows[0];
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private void submit(Deque<Future<ValidatedBatch>> inFlight, List<RuleImportRow> rows, String batchId,
+                        String operatorId, LocalDateTime now, BatchConsumer consumer) {
+        if (validationExecutor == null) {
+            consumer.accept(validateBatch(rows, batchId, operatorId, now));
+            return;
+        }
+        inFlight.add(validationExecutor.submit(() -> validateBatch(rows, batchId, operatorId, now)));
+        while (inFlight.size() >= validationParallelism) {
+            consumer.accept(await(inFlight.poll()));
+        }
+    }
+
+    private ValidatedBatch validateBatch(List<RuleImportRow> rows, String batchId, String operatorId,
+                                         LocalDateTime now) {
+        ValidatedBatch batch = new ValidatedBatch(rows.get(rows.size() - 1).getRowIndex() + 1);
+        for (RuleImportRow row : rows) {
+            List<ImportResultResponse.ImportError> errors = ruleImportRowValidator.validate(row);
+            if (!errors.isEmpty()) {
+                batch.getErrors().addAll(errors);
+                batch.failedRows++;
+            } else if (batchId != null) {
+                batch.getRules().add(ruleImportRowValidator.toRule(row, IdWorker.get32UUID(),
+                        importRuleNumber(batchId, row), operatorId, now));
+                batch.getRowNumbers().add(row.getRowNumber());
+            } else {
+                batch.validRows++;
+            }
+        }
+        return batch;
+    }
+
+    private static ValidatedBatch await(Future<ValidatedBatch> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new BusinessException(ErrorCode.OPERATION_FAILED, "数据校验失败: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.OPERATION_FAILED, "导入被中断");
+        }
+    }
+
+    /**
+     * 认领同一文件可续导的批次，没有时创建新批次
+     */
+    private RuleImportBatch openBatch(String fileName, StagedFile staged, String importMode, boolean skipErrors,
+                                      int batchSize) {
+        RuleImportBatch batch = claimResumable(staged.getHash(), skipErrors);
+        if (batch != null) {
+            batch.setSkipErrors(skipErrors);
+            log.info("续导批次: batchId={}, 检查点行号={}, 已成功={}",
+                    batch.getBatchId(), batch.getNextRow(), batch.getSuccessRows());
+            return batch;
+        }
+        batch = RuleImportBatch.builder()
+                .batchId(generateBatchId())
+                .fileName(fileName)
+                .fileHash(staged.getHash())
+                .fileSize(staged.getSize())
+                .ruleType(detectRuleType(staged.getPath()).getCode())
+                .importMode(importMode)
+                .skipErrors(skipErrors)
+                .batchSize(Math.max(1, Math.min(batchSize, maxBatchSize)))
+                .status(STATUS_PROCESSING)
+                .nextRow(1)
+                .successRows(0)
+                .failedRows(0)
+                .operatorId(getCurrentUserId())
+                .startedAt(LocalDateTime.now())
+                .build();
+        ruleImportBatchMapper.insert(batch);
+        return batch;
+    }
+
+    /**
+     * 认领同一文件可续导的批次
+     */
+    private RuleImportBatch claimResumable(String fileHash, boolean skipErrors) {
+        RuleImportBatch batch = ruleImportBatchMapper.selectResumable(fileHash, staleBefore());
+        if (batch == null || ruleImportBatchMapper.claim(batch.getBatchId(), batch.getStatus(),
+                batch.getUpdatedAt(), skipErrors) == 0) {
+            return null;
+        }
+        return batch;
+    }
+
+    /**
+     * 在后台任务线程中执行批次；正常结束后删除工作文件，异常时保留文件待恢复任务续导
+     */
+    private void launch(RuleImportBatch batch, Path workFile) {
+        String batchId = batch.getBatchId();
+        runningBatches.add(batchId);
+        try {
+            jobExecutor.execute(() -> {
+                try {
+                    ImportResultResponse response = execute(batch, workFile);
+                    deleteQuietly(workFile);
+                    log.info("后台导入任务完成: batchId={}, 状态={}, 成功={}, 失败={}", batchId,
+                            response.getImportStatus(), response.getSuccessRows(), response.getFailedRows());
+                } catch (RuntimeException e) {
+                    log.error("后台导入任务中断，稍后从检查点续导: batchId={}", batchId, e);
+                } finally {
+                    runningBatches.remove(batchId);
+                }
+            });
+        } catch (RuntimeException e) {
+            runningBatches.remove(batchId);
+            throw e;
+        }
+    }
+
+    /**
+     * 恢复中断的批次：检查点长时间未推进、且工作文件在本节点的处理中批次，认领后续导
+     */
+    private void recoverInterrupted() {
+        if (stopping) {
+            return;
+        }
+        try {
+            for (RuleImportBatch batch : ruleImportBatchMapper.selectStale(staleBefore())) {
+                Path workFile = workFile(batch.getBatchId());
+                if (runningBatches.contains(batch.getBatchId()) || !Files.exists(workFile)) {
+                    continue;
+                }
+                if (ruleImportBatchMapper.claim(batch.getBatchId(), batch.getStatus(), batch.getUpdatedAt(),
+                        Boolean.TRUE.equals(batch.getSkipErrors())) == 0) {
+                    continue;
                 }
+                log.info("恢复中断的导入批次: batchId={}, 检查点行号={}", batch.getBatchId(), batch.getNextRow());
+                launch(batch, workFile);
             }
+        } catch (RuntimeException e) {
+            log.warn("恢复中断的导入批次失败: {}", e.getMessage());
         }
+    }
 
+    private RuleImportBatch requireBatch(String batchId) {
+        RuleImportBatch batch = ruleImportBatchMapper.selectById(batchId);
+        if (batch == null) {
+            throw new BusinessException(ErrorCode.NOT_FOUND, "导入批次不存在: " + batchId);
+        }
+        return batch;
+    }
+
+    /**
+     * 处理中且检查点仍在推进的批次视为正在导入
+     */
+    private boolean isActive(RuleImportBatch batch) {
+        return STATUS_PROCESSING.equals(batch.getStatus())
+                && (runningBatches.contains(batch.getBatchId())
+                || batch.getUpdatedAt() == null || !batch.getUpdatedAt().isBefore(staleBefore()));
+    }
+
+    private LocalDateTime staleBefore() {
+        return LocalDateTime.now().minusSeconds(staleAfterSeconds);
+    }
+
+    private Path workFile(String batchId) {
+        return Paths.get(workDir, batchId + ".import");
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除导入工作文件失败: {}", file, e);
+        }
+    }
+
+    /**
+     * 批次转为结果响应；处理中的批次按已提交行数计算进度
+     */
+    private ImportResultResponse toResponse(RuleImportBatch batch) {
+        ImportResultResponse response = new ImportResultResponse();
+        response.setBatchId(batch.getBatchId());
+        response.setStatus(batch.getStatus());
+        response.setImportStatus(batch.getStatus());
+        response.setTotalRows(batch.getTotalRows());
+        response.setSuccessRows(batch.getSuccessRows());
+        response.setFailedRows(batch.getFailedRows());
+        response.setFileName(batch.getFileName());
+        response.setFileSize(batch.getFileSize());
+        response.setImportMode(batch.getImportMode());
+        response.setOperatorId(batch.getOperatorId());
+        response.setStartTime(batch.getStartedAt());
+        response.setEndTime(batch.getFinishedAt());
+        response.setResultSummary(batch.getErrorMessage());
+        response.setErrors(parseErrors(batch.getErrorDetails()));
+
+        if (batch.getFinishedAt() != null) {
+            response.setProgressPercent(100);
+            if (batch.getStartedAt() != null) {
+                response.setProcessingTimeMs(Duration.between(batch.getStartedAt(), batch.getFinishedAt()).toMillis());
+            }
+        } else if (batch.getTotalRows() != null && batch.getTotalRows() > 0) {
+            int processed = nullToZero(batch.getSuccessRows()) + nullToZero(batch.getFailedRows());
+            response.setProgressPercent(Math.min(99, (int) (processed * 100L / batch.getTotalRows())));
+        } else {
+            response.setProgressPercent(0);
+        }
+
+        if (STATUS_ROLLED_BACK.equals(batch.getStatus())) {
+            response.setRollbackStatus("SUCCESS");
+            response.setRollbackReason(batch.getRollbackReason());
+        }
         return response;
     }
 
+    private String toJson(List<ImportResultResponse.ImportError> errors) {
+        if (errors == null || errors.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(errors);
+        } catch (JsonProcessingException e) {
+            log.warn("序列化导入错误明细失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private List<ImportResultResponse.ImportError> parseErrors(String json) {
+        if (!StringUtils.hasText(json)) {
+            return new ArrayList<>();
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<List<ImportResultResponse.ImportError>>() {});
+        } catch (JsonProcessingException e) {
+            log.warn("解析导入错误明细失败: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private static int nullToZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * 统计数据行数，用于计算进度
+     */
+    private int countRows(Path file) {
+        int[] rows = new int[1];
+        ruleSheetReader.read(file, null, (rowIndex, cells) -> {
+            if (rowIndex >= 1) {
+                rows[0]++;
+            }
+            return true;
+        });
+        return rows[0];
+    }
+
+    /**
+     * 读取表头识别规则类型，不是模板表头时按单句规则处理
+     */
+    private RuleType detectRuleType(Path file) {
+        RuleType[] type = new RuleType[1];
+        ruleSheetReader.read(file, null, (rowIndex, cells) -> {
+            if (rowIndex == 0) {
+                type[0] = RuleImportRow.detectType(cells);
+            }
+            return false;
+        });
+        return type[0] != null ? type[0] : RuleType.SINGLE;
+    }
+
+    /**
+     * 上传文件落到临时文件，同时计算摘要
+     */
+    private StagedFile stage(MultipartFile file) throws IOException {
+        Path path = Files.createTempFile("rule-import-", ".tmp");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size;
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                size = Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return new StagedFile(path, HexFormat.of().formatHex(digest.digest()), size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        } catch (NoSuchAlgorithmException e) {
+            Files.deleteIfExists(path);
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void addErrors(ImportResultResponse response, List<ImportResultResponse.ImportError> errors) {
+        int room = MAX_REPORTED_ERRORS - response.getErrors().size();
+        if (room > 0) {
+            response.getErrors().addAll(errors.size() > room ? errors.subList(0, room) : errors);
+        }
+    }
+
+    /**
+     * 导入或回滚影响的规则范围不逐条记录，通知依赖方全量重新加载
+     */
+    private void publishRulesChanged() {
+        eventPublisher.publishEvent(new RuleChangedEvent(List.of(), LocalDateTime.now()));
+    }
+
+    private void fillKeys(Rule rule) {
+        if (rule.getId() == null) {
+            rule.setId(IdWorker.get32UUID());
+        }
+        if (rule.getRuleNumber() == null) {
+            rule.setRuleNumber("IMP_" + rule.getId());
+        }
+        if (rule.getCreatedAt() == null) {
+            LocalDateTime now = LocalDateTime.now();
+            rule.setCreatedAt(now);
+            rule.setUpdatedAt(now);
+            rule.setLastUpdatedAt(now);
+        }
+    }
+
+    /**
+     * 导入规则编号由批次和行号确定，续导重复插入同一行时被唯一键拦截
+     */
+    private static String importRuleNumber(String batchId, RuleImportRow row) {
+        return "IMP_" + batchId.substring(BATCH_ID_PREFIX.length()) + "_" + row.getRowNumber();
+    }
+
     /**
      * 获取模板标题
      */
     private String[] getTemplateHeaders(RuleType ruleType) {
-        switch (ruleType) {
-            case SINGLE:
-                return new String[]{"规则名称", "规则描述", "规则内容", "规则来源"};
-            case DOUBLE:
-                return new String[]{"规则名称", "规则描述", "第一条件", "第二条件", "规则来源"};
-            case FORMAT:
-                return new String[]{"规则名称", "规则描述", "格式模式", "示例", "规则来源"};
-            case ADVANCED:
-                return new String[]{"规则名称", "规则描述", "规则脚本", "参数配置", "规则来源"};
-            default:
-                return new String[]{"规则名称", "规则描述", "规则内容", "规则来源"};
-        }
+        return RuleImportRow.headers(ruleType);
     }
 
     /**
@@ -545,50 +1217,80 @@ public class RuleImportServiceImpl implements RuleImportService {
     }
 
     /**
-     * 根据规则类型验证
+     * 生成批次ID
+     */
+    private String generateBatchId() {
+        return BATCH_ID_PREFIX + System.currentTimeMillis() + "_" + ((int) (Math.random() * 1000));
+    }
+
+    /**
+     * 获取当前用户ID
      */
-    private void validateByRuleType(Map<String, Object> rowData, RuleType ruleType,
-                                  List<ImportResultResponse.ImportError> errors) {
-        // TODO: 实现具体的规则类型验证逻辑
+    private String getCurrentUserId() {
+        return "system";
     }
 
     /**
-     * 获取单元格值
+     * 按文件顺序消费校验后的批次
      */
-    private String getCellValue(Cell cell) {
-        if (cell == null) {
-            return "";
+    @FunctionalInterface
+    private interface BatchConsumer {
+        void accept(ValidatedBatch batch);
+    }
+
+    /**
+     * 校验后的批次
+     */
+    @lombok.Getter
+    private static final class ValidatedBatch {
+        /**
+         * 本批提交后的检查点
+         */
+        private final int nextRow;
+        private final List<Rule> rules = new ArrayList<>();
+        private final List<Integer> rowNumbers = new ArrayList<>();
+        private final List<ImportResultResponse.ImportError> errors = new ArrayList<>();
+        private int validRows;
+        private int failedRows;
+
+        private ValidatedBatch(int nextRow) {
+            this.nextRow = nextRow;
         }
 
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                } else {
-                    return String.valueOf((long) cell.getNumericCellValue());
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
-                return "";
+        /**
+         * 本批插入规则的批次清单项
+         */
+        private List<RuleImportItem> items(String batchId) {
+            List<RuleImportItem> items = new ArrayList<>(rules.size());
+            for (int i = 0; i < rules.size(); i++) {
+                items.add(new RuleImportItem(batchId, rowNumbers.get(i), rules.get(i).getId()));
+            }
+            return items;
         }
     }
 
     /**
-     * 生成批次ID
+     * 逐行插入的结果
+     *
+     * @param inserted 本次新插入的行数，不含此前已提交的行
+     * @param failed 插入失败的行数
      */
-    private String generateBatchId() {
-        return "BATCH_" + System.currentTimeMillis() + "_" + ((int) (Math.random() * 1000));
+    private record RowByRowResult(int inserted, int failed) {
     }
 
     /**
-     * 获取当前用户ID
+     * 落盘的上传文件，关闭时删除
      */
-    private String getCurrentUserId() {
-        return "system";
+    @lombok.Getter
+    @lombok.AllArgsConstructor
+    private static final class StagedFile implements AutoCloseable {
+        private final Path path;
+        private final String hash;
+        private final long size;
+
+        @Override
+        public void close() throws IOException {
+            Files.deleteIfExists(path);
+        }
     }
-}
\ No newline at end of file
+}
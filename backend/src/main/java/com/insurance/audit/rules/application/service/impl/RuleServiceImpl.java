@@ -2,24 +2,34 @@ package com.insurance.audit.rules.application.service.impl;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.insurance.audit.common.dto.CursorPageResponse;
+import com.insurance.audit.common.event.RuleChangedEvent;
 import com.insurance.audit.common.exception.BusinessException;
 import com.insurance.audit.common.exception.ErrorCode;
+import com.insurance.audit.common.pagination.ListCountCache;
+import com.insurance.audit.common.pagination.SeekCursor;
 import com.insurance.audit.rules.application.service.RuleService;
+import com.insurance.audit.rules.application.service.RuleStatisticsService;
 import com.insurance.audit.rules.domain.Rule;
+import com.insurance.audit.rules.infrastructure.applicability.RuleApplicabilityIndex;
 import com.insurance.audit.rules.infrastructure.mapper.RuleMapper;
 import com.insurance.audit.rules.interfaces.dto.request.CreateRuleRequest;
+import com.insurance.audit.rules.interfaces.dto.request.RuleApplicabilityQuery;
 import com.insurance.audit.rules.interfaces.dto.request.RuleQueryRequest;
 import com.insurance.audit.rules.interfaces.dto.request.UpdateRuleRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 规则业务服务实现类
@@ -33,17 +43,38 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class RuleServiceImpl implements RuleService {
 
+    /**
+     * 列表总数缓存命名空间
+     */
+    public static final String COUNT_NAMESPACE = "rule";
+
+    /**
+     * 加载适用规则时单条 IN 查询的最大ID数
+     */
+    private static final int APPLICABLE_LOAD_CHUNK_SIZE = 1000;
+
     private final RuleMapper ruleMapper;
+    private final ListCountCache listCountCache;
+    private final RuleStatisticsService ruleStatisticsService;
+    private final RuleApplicabilityIndex ruleApplicabilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 关键词搜索最多返回条数
+     */
+    @Value("${app.rule-search.max-results:200}")
+    private int maxSearchResults = 200;
 
     @Override
     public IPage<Rule> getRulePage(RuleQueryRequest queryRequest) {
         log.info("查询规则列表, 查询条件: {}", queryRequest);
 
-        // 创建分页对象
-        Page<Rule> page = new Page<>(queryRequest.getPage(), queryRequest.getSize());
+        // 创建分页对象，总数走缓存，不随每次翻页执行 COUNT
+        Page<Rule> page = new Page<>(queryRequest.getPage(), queryRequest.getSize(), false);
 
         // 执行分页查询
         IPage<Rule> resultPage = ruleMapper.selectPageWithQuery(page, queryRequest);
+        resultPage.setTotal(resolveTotal(queryRequest, resultPage.getRecords().size()));
 
         log.info("查询规则列表完成, 总记录数: {}, 当前页: {}, 每页大小: {}",
                 resultPage.getTotal(), resultPage.getCurrent(), resultPage.getSize());
@@ -51,6 +82,40 @@ public class RuleServiceImpl implements RuleService {
         return resultPage;
     }
 
+    @Override
+    public CursorPageResponse<Rule> scrollRules(RuleQueryRequest queryRequest, String cursor, boolean withTotal) {
+        log.info("游标查询规则列表, 查询条件: {}, 游标: {}", queryRequest, cursor);
+
+        int size = queryRequest.getSize();
+        // 多读一行判断是否还有下一页
+        List<Rule> rules = ruleMapper.selectSummaryAfter(queryRequest, SeekCursor.decode(cursor), size + 1);
+        boolean hasMore = rules.size() > size;
+        if (hasMore) {
+            rules = rules.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Rule last = rules.get(rules.size() - 1);
+            nextCursor = new SeekCursor(last.getLastUpdatedAt(), last.getId()).encode();
+        }
+
+        Long total = null;
+        if (withTotal) {
+            total = listCountCache.getCount(COUNT_NAMESPACE, filterKey(queryRequest),
+                    () -> ruleMapper.countWithQuery(queryRequest));
+        }
+
+        log.info("游标查询规则列表完成, 本页数量: {}, 是否还有下一页: {}", rules.size(), hasMore);
+        return CursorPageResponse.<Rule>builder()
+                .records(rules)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .size(size)
+                .total(total)
+                .build();
+    }
+
     @Override
     public Rule getRuleById(String id) {
         log.info("根据ID查询规则: {}", id);
@@ -93,6 +158,9 @@ public class RuleServiceImpl implements RuleService {
             throw new BusinessException(ErrorCode.OPERATION_FAILED, "创建规则失败");
         }
 
+        ruleStatisticsService.recordCreated(List.of(rule));
+        listCountCache.invalidate(COUNT_NAMESPACE);
+        publishRulesChanged(List.of(rule.getId()));
         log.info("创建规则成功: {}, ID: {}", rule.getRuleName(), rule.getId());
         return rule;
     }
@@ -136,6 +204,9 @@ public class RuleServiceImpl implements RuleService {
             throw new BusinessException(ErrorCode.OPERATION_FAILED, "删除规则失败");
         }
 
+        ruleStatisticsService.recordDeleted(List.of(rule));
+        listCountCache.invalidate(COUNT_NAMESPACE);
+        publishRulesChanged(List.of(id));
         log.info("删除规则成功: {}", rule.getRuleName());
         return true;
     }
@@ -149,9 +220,17 @@ public class RuleServiceImpl implements RuleService {
             throw new BusinessException(ErrorCode.INVALID_PARAMETER, "删除规则ID列表不能为空");
         }
 
-        // 执行批量删除
-        int deleteCount = ruleMapper.deleteBatchIds(ids);
+        // 先锁定待删除的规则再删除，统计扣减与实际删除的行一致
+        List<Rule> rules = ruleMapper.selectStatusForUpdate(ids);
+        if (rules.isEmpty()) {
+            log.info("批量删除规则完成, 删除数量: 0");
+            return 0;
+        }
+        int deleteCount = ruleMapper.deleteBatchIds(rules.stream().map(Rule::getId).toList());
+        ruleStatisticsService.recordDeleted(rules);
 
+        listCountCache.invalidate(COUNT_NAMESPACE);
+        publishRulesChanged(rules.stream().map(Rule::getId).toList());
         log.info("批量删除规则完成, 删除数量: {}", deleteCount);
         return deleteCount;
     }
@@ -188,7 +267,7 @@ public class RuleServiceImpl implements RuleService {
             throw new BusinessException(ErrorCode.INVALID_PARAMETER, "搜索关键词不能为空");
         }
 
-        List<Rule> rules = ruleMapper.searchByKeyword(keyword);
+        List<Rule> rules = ruleMapper.searchByKeyword(keyword.strip(), maxSearchResults);
 
         log.info("搜索规则完成, 关键词: {}, 数量: {}", keyword, rules.size());
         return rules;
@@ -245,6 +324,9 @@ public class RuleServiceImpl implements RuleService {
             throw new BusinessException(ErrorCode.OPERATION_FAILED, "复制规则失败");
         }
 
+        ruleStatisticsService.recordCreated(List.of(copyRule));
+        listCountCache.invalidate(COUNT_NAMESPACE);
+        publishRulesChanged(List.of(copyRule.getId()));
         log.info("复制规则成功: {}, 新ID: {}", copyRule.getRuleName(), copyRule.getId());
         return copyRule;
     }
@@ -253,21 +335,67 @@ public class RuleServiceImpl implements RuleService {
     public Map<String, Object> getRuleStatistics() {
         log.info("获取规则统计信息");
 
-        Map<String, Object> statistics = new HashMap<>();
-
-        // 获取统计数据
-        Long totalCount = ruleMapper.selectCount(null);
-        Map<String, Long> typeCount = ruleMapper.countByType();
-        Map<String, Long> statusCount = ruleMapper.countByStatus();
-
-        statistics.put("totalCount", totalCount);
-        statistics.put("typeCount", typeCount);
-        statistics.put("statusCount", statusCount);
+        // 读取统计汇总表，不对规则表做分组统计
+        Map<String, Object> statistics = ruleStatisticsService.getStatistics();
 
         log.info("获取规则统计信息完成: {}", statistics);
         return statistics;
     }
 
+    @Override
+    public List<Rule> getApplicableRules(RuleApplicabilityQuery query) {
+        long startTime = System.nanoTime();
+        List<String> ruleIds = ruleApplicabilityIndex.findApplicableRuleIds(query);
+        long indexMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime);
+
+        List<Rule> rules = new ArrayList<>(ruleIds.size());
+        for (int i = 0; i < ruleIds.size(); i += APPLICABLE_LOAD_CHUNK_SIZE) {
+            rules.addAll(ruleMapper.selectBatchIds(
+                    ruleIds.subList(i, Math.min(ruleIds.size(), i + APPLICABLE_LOAD_CHUNK_SIZE))));
+        }
+
+        log.info("查询适用规则完成: 条件={}, 索引内规则数={}, 适用规则数={}, 索引耗时={}us",
+                query, ruleApplicabilityIndex.size(), rules.size(), indexMicros);
+        return rules;
+    }
+
+    /**
+     * 通知规则变更，适用性索引在事务提交后重新加载这些规则
+     */
+    private void publishRulesChanged(List<String> ruleIds) {
+        eventPublisher.publishEvent(new RuleChangedEvent(ruleIds, LocalDateTime.now()));
+    }
+
+    /**
+     * 列表总数：本页未读满（含第一页为空）时可直接推算，否则取缓存的计数
+     */
+    private long resolveTotal(RuleQueryRequest queryRequest, int fetched) {
+        if (fetched < queryRequest.getSize() && (fetched > 0 || queryRequest.getPage() == 1)) {
+            return queryRequest.getOffset() + fetched;
+        }
+        return listCountCache.getCount(COUNT_NAMESPACE, filterKey(queryRequest),
+                () -> ruleMapper.countWithQuery(queryRequest));
+    }
+
+    /**
+     * 筛选条件的缓存键，不含页码、每页大小和排序
+     */
+    private static String filterKey(RuleQueryRequest query) {
+        return String.join("|",
+                String.valueOf(query.getRuleSource()),
+                String.valueOf(query.getApplicableInsurance()),
+                String.valueOf(query.getManageDepartment()),
+                String.valueOf(query.getAuditStatus()),
+                String.valueOf(query.getEffectiveStatus()),
+                String.valueOf(query.getApplicableChapter()),
+                String.valueOf(query.getBusinessArea()),
+                String.valueOf(query.getKeyword()),
+                String.valueOf(query.getStartTime()),
+                String.valueOf(query.getEndTime()),
+                String.valueOf(query.getRuleType()),
+                String.valueOf(query.getFollowed()));
+    }
+
     /**
      * 生成规则编号
      * 格式: RULE + 时间戳后8位 + 随机2位数字
@@ -0,0 +1,227 @@
+package com.insurance.audit.rules.application.service.impl;
+
+import com.insurance.audit.rules.application.service.RuleStatisticsService;
+import com.insurance.audit.rules.domain.Rule;
+import com.insurance.audit.rules.domain.RuleStatistics;
+import com.insurance.audit.rules.enums.RuleAuditStatus;
+import com.insurance.audit.rules.enums.RuleEffectiveStatus;
+import com.insurance.audit.rules.infrastructure.mapper.RuleStatisticsMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 规则统计服务实现
+ * 计数存放在 rule_statistics 汇总表中，与规则变更同事务提交，多实例部署时也保持一致；
+ * 读取统计只扫描汇总表（行数为维度组合数），不再对规则表做分组统计。
+ * 多行增量按维度排序后依次更新，相反方向的状态变更并发时加锁顺序一致，不会互相死锁
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RuleStatisticsServiceImpl implements RuleStatisticsService {
+
+    private final RuleStatisticsMapper ruleStatisticsMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.rule-statistics.reconcile-interval-seconds:600}")
+    private long reconcileIntervalSeconds = 600;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        if (reconcileIntervalSeconds <= 0) {
+            log.info("规则统计定期对账已关闭");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rule-statistics-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reconcileQuietly,
+                reconcileIntervalSeconds, reconcileIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public void recordCreated(Collection<Rule> rules) {
+        applyDeltas(rules, 1);
+    }
+
+    @Override
+    public void recordDeleted(Collection<Rule> rules) {
+        applyDeltas(rules, -1);
+    }
+
+    @Override
+    public void recordStatusChanged(Rule rule, RuleAuditStatus previousAuditStatus,
+                                    RuleEffectiveStatus previousEffectiveStatus) {
+        if (rule.getAuditStatus() == previousAuditStatus && rule.getEffectiveStatus() == previousEffectiveStatus) {
+            return;
+        }
+        RuleStatistics previous = RuleStatistics.keyOf(rule);
+        previous.setAuditStatus(previousAuditStatus != null ? previousAuditStatus.getCode() : "");
+        previous.setEffectiveStatus(previousEffectiveStatus != null ? previousEffectiveStatus.getCode() : "");
+
+        Map<RuleStatistics, Long> deltas = new TreeMap<>(RuleStatistics.KEY_ORDER);
+        deltas.put(previous, -1L);
+        deltas.merge(RuleStatistics.keyOf(rule), 1L, Long::sum);
+        writeDeltas(deltas);
+    }
+
+    @Override
+    public void recordStatusChanged(Collection<Rule> previous, Collection<Rule> current) {
+        Map<RuleStatistics, Long> deltas = new TreeMap<>(RuleStatistics.KEY_ORDER);
+        previous.forEach(rule -> deltas.merge(RuleStatistics.keyOf(rule), -1L, Long::sum));
+        current.forEach(rule -> deltas.merge(RuleStatistics.keyOf(rule), 1L, Long::sum));
+        writeDeltas(deltas);
+    }
+
+    @Override
+    public void recordImportBatchDeleted(String batchId) {
+        ruleStatisticsMapper.decrementByImportBatch(batchId);
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        List<RuleStatistics> rows = ruleStatisticsMapper.selectAll();
+
+        long totalCount = 0;
+        long pendingAuditCount = 0;
+        for (RuleStatistics row : rows) {
+            totalCount += row.getRuleCount();
+            if (RuleAuditStatus.PENDING.getCode().equals(row.getAuditStatus())) {
+                pendingAuditCount += row.getRuleCount();
+            }
+        }
+
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("totalCount", totalCount);
+        statistics.put("typeCount", sumBy(rows, RuleStatistics::getRuleType));
+        statistics.put("statusCount", sumBy(rows, RuleStatistics::getAuditStatus));
+        statistics.put("effectiveStatusCount", sumBy(rows, RuleStatistics::getEffectiveStatus));
+        statistics.put("departmentCount", sumBy(rows, RuleStatistics::getManageDepartment));
+        statistics.put("pendingAuditCount", pendingAuditCount);
+        return statistics;
+    }
+
+    @Override
+    public long countPendingAudit() {
+        return ruleStatisticsMapper.selectAll().stream()
+                .filter(row -> RuleAuditStatus.PENDING.getCode().equals(row.getAuditStatus()))
+                .mapToLong(RuleStatistics::getRuleCount)
+                .sum();
+    }
+
+    @Override
+    public int reconcile() {
+        Integer drift = transactionTemplate.execute(status -> {
+            List<RuleStatistics> actual = ruleStatisticsMapper.aggregateFromRules();
+            int changed = countDrift(ruleStatisticsMapper.selectAll(), actual);
+            if (changed > 0) {
+                ruleStatisticsMapper.deleteAll();
+                ruleStatisticsMapper.rebuildFromRules();
+            }
+            return changed;
+        });
+        int changed = drift != null ? drift : 0;
+        if (changed > 0) {
+            log.warn("规则统计对账发现偏差并已重建: 偏差项数={}", changed);
+        } else {
+            log.debug("规则统计对账完成，无偏差");
+        }
+        return changed;
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("规则统计对账失败", e);
+        }
+    }
+
+    /**
+     * 按维度合并增量后按排序顺序写入
+     */
+    private void applyDeltas(Collection<Rule> rules, long sign) {
+        if (rules == null || rules.isEmpty()) {
+            return;
+        }
+        Map<RuleStatistics, Long> deltas = new TreeMap<>(RuleStatistics.KEY_ORDER);
+        for (Rule rule : rules) {
+            deltas.merge(RuleStatistics.keyOf(rule), sign, Long::sum);
+        }
+        writeDeltas(deltas);
+    }
+
+    /**
+     * 按维度顺序写入增量，跳过相互抵消的维度
+     */
+    private void writeDeltas(Map<RuleStatistics, Long> deltas) {
+        deltas.forEach((key, delta) -> {
+            if (delta != 0) {
+                ruleStatisticsMapper.increment(key, delta);
+            }
+        });
+    }
+
+    /**
+     * 汇总表与实际分组统计不一致的维度数，计数为0的汇总行视同不存在
+     */
+    static int countDrift(List<RuleStatistics> stored, List<RuleStatistics> actual) {
+        Map<RuleStatistics, Long> expected = new TreeMap<>(RuleStatistics.KEY_ORDER);
+        actual.forEach(row -> expected.put(row, row.getRuleCount()));
+
+        int changed = 0;
+        List<RuleStatistics> seen = new ArrayList<>();
+        for (RuleStatistics row : stored) {
+            Long count = expected.get(row);
+            if (!Objects.equals(count != null ? count : 0L, row.getRuleCount())) {
+                changed++;
+            }
+            if (count != null) {
+                seen.add(row);
+            }
+        }
+        return changed + expected.size() - seen.size();
+    }
+
+    private static Map<String, Long> sumBy(List<RuleStatistics> rows, Function<RuleStatistics, String> dimension) {
+        Map<String, Long> counts = new TreeMap<>();
+        for (RuleStatistics row : rows) {
+            if (row.getRuleCount() != 0) {
+                counts.merge(dimension.apply(row), row.getRuleCount(), Long::sum);
+            }
+        }
+        return counts;
+    }
+}
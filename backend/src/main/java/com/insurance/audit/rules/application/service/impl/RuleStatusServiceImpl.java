@@ -1,10 +1,14 @@
 package com.insurance.audit.rules.application.service.impl;
 
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.insurance.audit.common.event.RuleStatusChangedEvent;
 import com.insurance.audit.common.exception.BusinessException;
 import com.insurance.audit.common.exception.ErrorCode;
 import com.insurance.audit.rules.application.service.RuleService;
+import com.insurance.audit.rules.application.service.RuleStatisticsService;
 import com.insurance.audit.rules.application.service.RuleStatusService;
 import com.insurance.audit.rules.domain.Rule;
+import com.insurance.audit.rules.domain.RuleOperationLog;
 import com.insurance.audit.rules.enums.RuleAuditStatus;
 import com.insurance.audit.rules.enums.RuleEffectiveStatus;
 import com.insurance.audit.rules.infrastructure.mapper.RuleMapper;
@@ -16,12 +20,15 @@ import com.insurance.audit.rules.interfaces.dto.response.BatchOperationResponse;
 import com.insurance.audit.rules.interfaces.dto.response.RuleResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -36,9 +43,21 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class RuleStatusServiceImpl implements RuleStatusService {
 
+    /**
+     * 批量流转时单条 IN 查询、UPDATE 和多行插入的最大行数
+     */
+    private static final int BATCH_CHUNK_SIZE = 1000;
+
+    /**
+     * 操作描述列长度
+     */
+    private static final int MAX_OPERATION_DESCRIPTION_LENGTH = 500;
+
     private final RuleService ruleService;
     private final RuleMapper ruleMapper;
     private final RuleOperationLogMapper operationLogMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RuleStatisticsService ruleStatisticsService;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -56,6 +75,7 @@ public class RuleStatusServiceImpl implements RuleStatusService {
         }
 
         // 更新状态
+        RuleAuditStatus previousAuditStatus = rule.getAuditStatus();
         rule.setAuditStatus(request.getAuditStatus());
         rule.setAuditRemark(request.getRemark());
         rule.setUpdatedBy(getCurrentUserId());
@@ -66,6 +86,7 @@ public class RuleStatusServiceImpl implements RuleStatusService {
         if (result <= 0) {
             throw new BusinessException(ErrorCode.OPERATION_FAILED, "更新审核状态失败");
         }
+        ruleStatisticsService.recordStatusChanged(rule, previousAuditStatus, rule.getEffectiveStatus());
 
         // 记录操作日志
         recordOperationLog(ruleId, "UPDATE_AUDIT_STATUS",
@@ -80,29 +101,19 @@ public class RuleStatusServiceImpl implements RuleStatusService {
     public BatchOperationResponse batchUpdateAuditStatus(List<UpdateAuditStatusRequest> requests) {
         log.info("批量更新规则审核状态, 数量: {}", requests.size());
 
-        List<String> successIds = new ArrayList<>();
-        List<String> failedIds = new ArrayList<>();
-        Map<String, String> errorMessages = new HashMap<>();
-
-        for (UpdateAuditStatusRequest request : requests) {
-            try {
-                updateAuditStatus(request.getRuleId(), request);
-                successIds.add(request.getRuleId());
-            } catch (Exception e) {
-                failedIds.add(request.getRuleId());
-                errorMessages.put(request.getRuleId(), e.getMessage());
-                log.error("批量更新审核状态失败: {}", request.getRuleId(), e);
-            }
-        }
-
-        BatchOperationResponse response = new BatchOperationResponse();
-        response.setSuccessCount(successIds.size());
-        response.setFailedCount(failedIds.size());
-        response.setSuccessIds(successIds);
-        response.setFailedIds(failedIds);
-        response.setErrorMessages(errorMessages);
-
-        log.info("批量更新审核状态完成, 成功: {}, 失败: {}", successIds.size(), failedIds.size());
+        List<StatusChange<RuleAuditStatus>> changes = requests.stream()
+                .map(request -> new StatusChange<>(request.getRuleId(), request.getAuditStatus(),
+                        "审核状态更新: " + request.getAuditStatus(), request.getRemark()))
+                .toList();
+        Map<RuleAuditStatus, List<String>> transitions = new EnumMap<>(RuleAuditStatus.class);
+        BatchOperationResponse response = applyStatusChanges(changes, "UPDATE_AUDIT_STATUS", auditStatusField(),
+                (rule, target) -> rule.getAuditStatus() != null && transitions
+                        .computeIfAbsent(rule.getAuditStatus(), status -> getAuditStatusTransitions(status.name()))
+                        .contains(target.name())
+                        ? null : "无效的审核状态流转: " + rule.getAuditStatus() + " -> " + target,
+                (rule, previousStatus) -> { });
+
+        log.info("批量更新审核状态完成, 成功: {}, 失败: {}", response.getSuccessCount(), response.getFailedCount());
         return response;
     }
 
@@ -122,6 +133,7 @@ public class RuleStatusServiceImpl implements RuleStatusService {
         }
 
         // 更新状态
+        RuleEffectiveStatus previousStatus = rule.getEffectiveStatus();
         rule.setEffectiveStatus(request.getEffectiveStatus());
         rule.setEffectiveRemark(request.getRemark());
         rule.setUpdatedBy(getCurrentUserId());
@@ -132,10 +144,12 @@ public class RuleStatusServiceImpl implements RuleStatusService {
         if (result <= 0) {
             throw new BusinessException(ErrorCode.OPERATION_FAILED, "更新有效状态失败");
         }
+        ruleStatisticsService.recordStatusChanged(rule, rule.getAuditStatus(), previousStatus);
 
         // 记录操作日志
         recordOperationLog(ruleId, "UPDATE_EFFECTIVE_STATUS",
                 "有效状态更新: " + rule.getEffectiveStatus(), request.getRemark());
+        publishEffectiveStatusChanged(ruleId, previousStatus, rule.getEffectiveStatus());
 
         log.info("更新规则有效状态成功: {}", rule.getRuleName());
         return convertToResponse(rule);
@@ -146,29 +160,20 @@ public class RuleStatusServiceImpl implements RuleStatusService {
     public BatchOperationResponse batchUpdateEffectiveStatus(List<UpdateEffectiveStatusRequest> requests) {
         log.info("批量更新规则有效状态, 数量: {}", requests.size());
 
-        List<String> successIds = new ArrayList<>();
-        List<String> failedIds = new ArrayList<>();
-        Map<String, String> errorMessages = new HashMap<>();
-
-        for (UpdateEffectiveStatusRequest request : requests) {
-            try {
-                updateEffectiveStatus(request.getRuleId(), request);
-                successIds.add(request.getRuleId());
-            } catch (Exception e) {
-                failedIds.add(request.getRuleId());
-                errorMessages.put(request.getRuleId(), e.getMessage());
-                log.error("批量更新有效状态失败: {}", request.getRuleId(), e);
-            }
-        }
-
-        BatchOperationResponse response = new BatchOperationResponse();
-        response.setSuccessCount(successIds.size());
-        response.setFailedCount(failedIds.size());
-        response.setSuccessIds(successIds);
-        response.setFailedIds(failedIds);
-        response.setErrorMessages(errorMessages);
-
-        log.info("批量更新有效状态完成, 成功: {}, 失败: {}", successIds.size(), failedIds.size());
+        List<StatusChange<RuleEffectiveStatus>> changes = requests.stream()
+                .map(request -> new StatusChange<>(request.getRuleId(), request.getEffectiveStatus(),
+                        "有效状态更新: " + request.getEffectiveStatus(), request.getRemark()))
+                .toList();
+        Map<RuleEffectiveStatus, List<String>> transitions = new EnumMap<>(RuleEffectiveStatus.class);
+        BatchOperationResponse response = applyStatusChanges(changes, "UPDATE_EFFECTIVE_STATUS", effectiveStatusField(),
+                (rule, target) -> rule.getEffectiveStatus() != null && transitions
+                        .computeIfAbsent(rule.getEffectiveStatus(), status -> getEffectiveStatusTransitions(status.name()))
+                        .contains(target.name())
+                        ? null : "无效的有效状态流转: " + rule.getEffectiveStatus() + " -> " + target,
+                (rule, previousStatus) -> publishEffectiveStatusChanged(rule.getId(), previousStatus,
+                        rule.getEffectiveStatus()));
+
+        log.info("批量更新有效状态完成, 成功: {}, 失败: {}", response.getSuccessCount(), response.getFailedCount());
         return response;
     }
 
@@ -177,51 +182,16 @@ public class RuleStatusServiceImpl implements RuleStatusService {
     public BatchOperationResponse submitToOA(SubmitOARequest request) {
         log.info("提交规则到OA审核, 数量: {}", request.getRuleIds().size());
 
-        List<String> successIds = new ArrayList<>();
-        List<String> failedIds = new ArrayList<>();
-        Map<String, String> errorMessages = new HashMap<>();
-
-        for (String ruleId : request.getRuleIds()) {
-            try {
-                // 获取规则
-                Rule rule = ruleService.getRuleById(ruleId);
-
-                // 验证规则状态是否可提交
-                if (!canSubmitToOA(rule)) {
-                    throw new BusinessException(ErrorCode.INVALID_PARAMETER,
-                            "规则当前状态不允许提交OA: " + rule.getAuditStatus());
-                }
-
-                // 更新为待审核状态
-                rule.setAuditStatus(RuleAuditStatus.PENDING);
-                rule.setAuditRemark("已提交OA审核");
-                rule.setUpdatedBy(getCurrentUserId());
-                rule.setLastUpdatedAt(LocalDateTime.now());
-
-                ruleMapper.updateById(rule);
-
-                // 记录操作日志
-                recordOperationLog(ruleId, "SUBMIT_OA",
-                        "提交OA审核, 预期审核日期: " + request.getExpectedReviewDate(),
-                        request.getSubmitReason());
-
-                successIds.add(ruleId);
-
-            } catch (Exception e) {
-                failedIds.add(ruleId);
-                errorMessages.put(ruleId, e.getMessage());
-                log.error("提交OA审核失败: {}", ruleId, e);
-            }
-        }
-
-        BatchOperationResponse response = new BatchOperationResponse();
-        response.setSuccessCount(successIds.size());
-        response.setFailedCount(failedIds.size());
-        response.setSuccessIds(successIds);
-        response.setFailedIds(failedIds);
-        response.setErrorMessages(errorMessages);
+        String description = "提交OA审核, 预期审核日期: " + request.getExpectedReviewDate();
+        List<StatusChange<RuleAuditStatus>> changes = request.getRuleIds().stream()
+                .map(ruleId -> new StatusChange<>(ruleId, RuleAuditStatus.PENDING, description,
+                        request.getSubmitReason()))
+                .toList();
+        BatchOperationResponse response = applyStatusChanges(changes, "SUBMIT_OA", auditStatusField(),
+                (rule, target) -> canSubmitToOA(rule) ? null : "规则当前状态不允许提交OA: " + rule.getAuditStatus(),
+                (rule, previousStatus) -> { });
 
-        log.info("提交OA审核完成, 成功: {}, 失败: {}", successIds.size(), failedIds.size());
+        log.info("提交OA审核完成, 成功: {}, 失败: {}", response.getSuccessCount(), response.getFailedCount());
         return response;
     }
 
@@ -310,14 +280,17 @@ public class RuleStatusServiceImpl implements RuleStatusService {
         Rule rule = ruleService.getRuleById(ruleId);
 
         // 获取上一个有效状态（简化实现，实际应从历史记录获取）
-        RuleAuditStatus previousStatus = getPreviousAuditStatus(rule.getAuditStatus());
+        RuleAuditStatus currentStatus = rule.getAuditStatus();
+        RuleAuditStatus previousStatus = getPreviousAuditStatus(currentStatus);
 
         rule.setAuditStatus(previousStatus);
         rule.setAuditRemark("状态回滚: " + reason);
         rule.setUpdatedBy(getCurrentUserId());
         rule.setLastUpdatedAt(LocalDateTime.now());
 
-        ruleMapper.updateById(rule);
+        if (ruleMapper.updateById(rule) > 0) {
+            ruleStatisticsService.recordStatusChanged(rule, currentStatus, rule.getEffectiveStatus());
+        }
 
         // 记录操作日志
         recordOperationLog(ruleId, "ROLLBACK_STATUS",
@@ -367,8 +340,11 @@ public class RuleStatusServiceImpl implements RuleStatusService {
                 rule.setUpdatedBy("system");
                 rule.setLastUpdatedAt(LocalDateTime.now());
 
-                ruleMapper.updateById(rule);
+                if (ruleMapper.updateById(rule) > 0) {
+                    ruleStatisticsService.recordStatusChanged(rule, rule.getAuditStatus(), RuleEffectiveStatus.INACTIVE);
+                }
                 recordOperationLog(ruleId, "AUTO_ADVANCE", "自动推进状态", "系统自动操作");
+                publishEffectiveStatusChanged(ruleId, RuleEffectiveStatus.INACTIVE, RuleEffectiveStatus.ACTIVE);
                 advanced = true;
             }
 
@@ -381,6 +357,20 @@ public class RuleStatusServiceImpl implements RuleStatusService {
         }
     }
 
+    /**
+     * 发布有效状态变更事件，监听方在事务提交后处理
+     */
+    private void publishEffectiveStatusChanged(String ruleId, RuleEffectiveStatus previousStatus,
+                                               RuleEffectiveStatus currentStatus) {
+        if (previousStatus == currentStatus) {
+            return;
+        }
+        eventPublisher.publishEvent(new RuleStatusChangedEvent(ruleId,
+                previousStatus != null ? previousStatus.name() : null,
+                currentStatus != null ? currentStatus.name() : null,
+                LocalDateTime.now()));
+    }
+
     /**
      * 检查规则是否可以提交OA
      */
@@ -406,16 +396,211 @@ public class RuleStatusServiceImpl implements RuleStatusService {
         }
     }
 
+    /**
+     * 成组执行批量状态流转：一次查询锁定全部规则，在内存中按状态机校验，
+     * 按 (原状态, 目标状态) 分组各执行一条带原状态条件的 UPDATE，最后多行写入操作日志；
+     * 规则不存在或流转无效的只记为失败，不影响其余规则
+     *
+     * @param changes 状态变更请求，同一规则重复出现时按首次出现处理
+     * @param operationType 操作日志类型
+     * @param field 变更的状态字段
+     * @param validator 校验流转，返回错误信息，可流转时返回null
+     * @param onUpdated 每条更新成功的规则及其原状态的回调
+     */
+    private <S extends Enum<S>> BatchOperationResponse applyStatusChanges(List<StatusChange<S>> changes,
+                                                                        String operationType,
+                                                                        StatusField<S> field,
+                                                                        BiFunction<Rule, S, String> validator,
+                                                                        BiConsumer<Rule, S> onUpdated) {
+        Map<String, StatusChange<S>> changesByRule = new LinkedHashMap<>();
+        Map<String, String> errorMessages = new LinkedHashMap<>();
+        for (StatusChange<S> change : changes) {
+            if (!StringUtils.hasText(change.ruleId()) || change.targetStatus() == null) {
+                errorMessages.put(String.valueOf(change.ruleId()), "规则ID和目标状态不能为空");
+            } else if (changesByRule.putIfAbsent(change.ruleId(), change) != null) {
+                log.warn("批量状态流转忽略重复的规则ID: {}", change.ruleId());
+            }
+        }
+
+        // 一次查询（按块）锁定全部规则，校验通过的按流转分组
+        Map<String, Rule> rules = new HashMap<>();
+        for (List<String> chunk : partition(new ArrayList<>(changesByRule.keySet()))) {
+            ruleMapper.selectStatusForUpdate(chunk).forEach(rule -> rules.put(rule.getId(), rule));
+        }
+        Map<List<S>, List<Rule>> groups = new LinkedHashMap<>();
+        for (StatusChange<S> change : changesByRule.values()) {
+            Rule rule = rules.get(change.ruleId());
+            String error = rule == null ? "规则不存在: " + change.ruleId() : validator.apply(rule, change.targetStatus());
+            if (error != null) {
+                errorMessages.put(change.ruleId(), error);
+                continue;
+            }
+            groups.computeIfAbsent(List.of(field.get(rule), change.targetStatus()), key -> new ArrayList<>()).add(rule);
+        }
+
+        String operatorId = getCurrentUserId();
+        LocalDateTime now = LocalDateTime.now();
+        List<Rule> previous = new ArrayList<>();
+        List<Rule> updated = new ArrayList<>();
+        List<RuleOperationLog> operationLogs = new ArrayList<>();
+        for (Map.Entry<List<S>, List<Rule>> group : groups.entrySet()) {
+            S fromStatus = group.getKey().get(0);
+            S toStatus = group.getKey().get(1);
+            for (List<Rule> chunk : partition(group.getValue())) {
+                List<String> ids = chunk.stream().map(Rule::getId).toList();
+                // 规则已加锁，原状态条件只在数据被绕过本服务修改时不满足，此时整批回滚
+                if (field.updateBatch(ids, fromStatus, toStatus, operatorId, now) != ids.size()) {
+                    throw new BusinessException(ErrorCode.OPERATION_FAILED, "规则状态已变化，请重试: " + fromStatus + " -> " + toStatus);
+                }
+                for (Rule rule : chunk) {
+                    previous.add(statusSnapshot(rule));
+                    field.set(rule, toStatus);
+                    rule.setUpdatedBy(operatorId);
+                    rule.setLastUpdatedAt(now);
+                    updated.add(rule);
+
+                    StatusChange<S> change = changesByRule.get(rule.getId());
+                    operationLogs.add(buildOperationLog(rule.getId(), operationType,
+                            change.description(), change.remark(), operatorId, now));
+                    onUpdated.accept(rule, fromStatus);
+                }
+            }
+        }
+        ruleStatisticsService.recordStatusChanged(previous, updated);
+        saveOperationLogs(operationLogs);
+
+        // 按请求顺序汇总每条规则的结果
+        Set<String> updatedIds = updated.stream().map(Rule::getId).collect(Collectors.toSet());
+        List<String> successIds = changesByRule.keySet().stream().filter(updatedIds::contains).toList();
+        BatchOperationResponse response = new BatchOperationResponse();
+        response.setTotalRequested(changes.size());
+        response.setSuccessCount(successIds.size());
+        response.setFailedCount(errorMessages.size());
+        response.setSuccess(errorMessages.isEmpty());
+        response.setSuccessIds(successIds);
+        response.setFailedIds(new ArrayList<>(errorMessages.keySet()));
+        response.setErrorMessages(errorMessages);
+        return response;
+    }
+
+    /**
+     * 状态变更请求
+     */
+    private record StatusChange<S>(String ruleId, S targetStatus, String description, String remark) {
+    }
+
+    /**
+     * 批量流转中变更的状态字段
+     */
+    private interface StatusField<S> {
+
+        S get(Rule rule);
+
+        void set(Rule rule, S status);
+
+        int updateBatch(List<String> ids, S fromStatus, S toStatus, String operatorId, LocalDateTime updatedAt);
+    }
+
+    private StatusField<RuleAuditStatus> auditStatusField() {
+        return new StatusField<>() {
+            @Override
+            public RuleAuditStatus get(Rule rule) {
+                return rule.getAuditStatus();
+            }
+
+            @Override
+            public void set(Rule rule, RuleAuditStatus status) {
+                rule.setAuditStatus(status);
+            }
+
+            @Override
+            public int updateBatch(List<String> ids, RuleAuditStatus fromStatus, RuleAuditStatus toStatus,
+                                   String operatorId, LocalDateTime updatedAt) {
+                return ruleMapper.updateAuditStatusBatch(ids, fromStatus, toStatus, operatorId, updatedAt);
+            }
+        };
+    }
+
+    private StatusField<RuleEffectiveStatus> effectiveStatusField() {
+        return new StatusField<>() {
+            @Override
+            public RuleEffectiveStatus get(Rule rule) {
+                return rule.getEffectiveStatus();
+            }
+
+            @Override
+            public void set(Rule rule, RuleEffectiveStatus status) {
+                rule.setEffectiveStatus(status);
+            }
+
+            @Override
+            public int updateBatch(List<String> ids, RuleEffectiveStatus fromStatus, RuleEffectiveStatus toStatus,
+                                   String operatorId, LocalDateTime updatedAt) {
+                return ruleMapper.updateEffectiveStatusBatch(ids, fromStatus, toStatus, operatorId, updatedAt);
+            }
+        };
+    }
+
+    /**
+     * 复制规则的统计维度字段，供状态变更前后计数
+     */
+    private static Rule statusSnapshot(Rule rule) {
+        Rule snapshot = new Rule();
+        snapshot.setRuleType(rule.getRuleType());
+        snapshot.setAuditStatus(rule.getAuditStatus());
+        snapshot.setEffectiveStatus(rule.getEffectiveStatus());
+        snapshot.setManageDepartment(rule.getManageDepartment());
+        return snapshot;
+    }
+
+    private static <T> List<List<T>> partition(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += BATCH_CHUNK_SIZE) {
+            chunks.add(items.subList(i, Math.min(items.size(), i + BATCH_CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
     /**
      * 记录操作日志
      */
     private void recordOperationLog(String ruleId, String operationType, String operationDescription, String remark) {
+        saveOperationLogs(List.of(buildOperationLog(ruleId, operationType, operationDescription, remark,
+                getCurrentUserId(), LocalDateTime.now())));
+    }
+
+    /**
+     * 多行写入操作日志，写入失败不影响状态变更
+     */
+    private void saveOperationLogs(List<RuleOperationLog> operationLogs) {
+        if (operationLogs.isEmpty()) {
+            return;
+        }
         try {
-            // TODO: 实现操作日志记录
-            log.info("记录操作日志: 规则ID={}, 操作类型={}, 描述={}", ruleId, operationType, operationDescription);
+            for (List<RuleOperationLog> chunk : partition(operationLogs)) {
+                operationLogMapper.insertBatch(chunk);
+            }
+            log.debug("记录操作日志: 数量={}", operationLogs.size());
         } catch (Exception e) {
-            log.error("记录操作日志失败: {}", ruleId, e);
+            log.error("记录操作日志失败: 数量={}, 首条规则ID={}", operationLogs.size(), operationLogs.get(0).getRuleId(), e);
+        }
+    }
+
+    private static RuleOperationLog buildOperationLog(String ruleId, String operationType, String operationDescription,
+                                                      String remark, String operatorId, LocalDateTime operationTime) {
+        String description = StringUtils.hasText(remark) ? operationDescription + "，备注: " + remark : operationDescription;
+        if (description.length() > MAX_OPERATION_DESCRIPTION_LENGTH) {
+            description = description.substring(0, MAX_OPERATION_DESCRIPTION_LENGTH);
         }
+        return RuleOperationLog.builder()
+                .id(IdWorker.get32UUID())
+                .ruleId(ruleId)
+                .operationType(operationType)
+                .operationDescription(description)
+                .operatorId(operatorId)
+                .operationTime(operationTime)
+                .operationResult("SUCCESS")
+                .build();
     }
 
     /**
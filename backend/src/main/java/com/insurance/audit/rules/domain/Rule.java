@@ -240,4 +240,11 @@ public class Rule extends BaseEntity {
     @TableField("remarks")
     @Schema(description = "备注", example = "特殊业务场景使用")
     private String remarks;
+
+    /**
+     * 全文检索相关度得分，仅搜索结果填充
+     */
+    @TableField(exist = false)
+    @Schema(description = "全文检索相关度得分", hidden = true)
+    private Double searchScore;
 }
\ No newline at end of file
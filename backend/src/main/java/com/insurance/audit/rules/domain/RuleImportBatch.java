@@ -0,0 +1,124 @@
+package com.insurance.audit.rules.domain;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 规则导入批次实体
+ * 导入按批提交，每批提交时在同一事务中推进检查点 nextRow，中断后可从检查点续导；
+ * 批次插入的规则ID记录在 rule_import_item 清单表中，回滚时按批次ID删除
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("rule_import_batch")
+@Schema(description = "规则导入批次实体")
+public class RuleImportBatch {
+
+    @TableId(value = "batch_id", type = IdType.INPUT)
+    @Schema(description = "批次ID", example = "BATCH_1726448000000_123")
+    private String batchId;
+
+    @TableField("file_name")
+    @Schema(description = "文件名", example = "rules.xlsx")
+    private String fileName;
+
+    @TableField("file_hash")
+    @Schema(description = "文件SHA-256摘要")
+    private String fileHash;
+
+    @TableField("file_size")
+    @Schema(description = "文件大小（字节）")
+    private Long fileSize;
+
+    @TableField("rule_type")
+    @Schema(description = "规则类型", example = "SINGLE")
+    private String ruleType;
+
+    @TableField("import_mode")
+    @Schema(description = "导入模式", example = "INSERT")
+    private String importMode;
+
+    @TableField("skip_errors")
+    @Schema(description = "是否跳过错误行")
+    private Boolean skipErrors;
+
+    @TableField("batch_size")
+    @Schema(description = "每批提交行数", example = "500")
+    private Integer batchSize;
+
+    @TableField("status")
+    @Schema(description = "状态：PROCESSING/SUCCESS/PARTIAL_SUCCESS/FAILED/ROLLED_BACK", example = "PROCESSING")
+    private String status;
+
+    @TableField("next_row")
+    @Schema(description = "检查点：下一个未提交的工作表行号（从0开始）")
+    private Integer nextRow;
+
+    @TableField("total_rows")
+    @Schema(description = "数据总行数")
+    private Integer totalRows;
+
+    @TableField("success_rows")
+    @Schema(description = "已提交的成功行数")
+    private Integer successRows;
+
+    @TableField("failed_rows")
+    @Schema(description = "已处理的失败行数")
+    private Integer failedRows;
+
+    @TableField("error_message")
+    @Schema(description = "失败原因")
+    private String errorMessage;
+
+    @TableField("error_details")
+    @Schema(description = "错误明细（JSON数组）")
+    private String errorDetails;
+
+    @TableField("rollback_reason")
+    @Schema(description = "回滚原因")
+    private String rollbackReason;
+
+    @TableField("rolled_back_rows")
+    @Schema(description = "回滚删除的规则数")
+    private Integer rolledBackRows;
+
+    @TableField("rolled_back_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    @Schema(description = "回滚时间")
+    private LocalDateTime rolledBackAt;
+
+    @TableField("operator_id")
+    @Schema(description = "操作人ID")
+    private String operatorId;
+
+    @TableField("started_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    @Schema(description = "开始时间")
+    private LocalDateTime startedAt;
+
+    @TableField("finished_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    @Schema(description = "结束时间")
+    private LocalDateTime finishedAt;
+
+    @TableField("updated_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    @Schema(description = "更新时间")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,38 @@
+package com.insurance.audit.rules.domain;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 规则导入批次清单项
+ * 记录批次中每一行插入的规则ID，与规则在同一事务中写入
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("rule_import_item")
+@Schema(description = "规则导入批次清单项")
+public class RuleImportItem {
+
+    @TableField("batch_id")
+    @Schema(description = "批次ID")
+    private String batchId;
+
+    @TableField("row_num")
+    @Schema(description = "Excel行号（从1开始）")
+    private Integer rowNumber;
+
+    @TableField("rule_id")
+    @Schema(description = "插入的规则ID")
+    private String ruleId;
+}
@@ -0,0 +1,56 @@
+package com.insurance.audit.rules.domain;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 规则操作日志
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("rule_operation_log")
+@Schema(description = "规则操作日志")
+public class RuleOperationLog {
+
+    @TableId("id")
+    @Schema(description = "主键ID")
+    private String id;
+
+    @TableField("rule_id")
+    @Schema(description = "规则ID")
+    private String ruleId;
+
+    @TableField("operation_type")
+    @Schema(description = "操作类型")
+    private String operationType;
+
+    @TableField("operation_description")
+    @Schema(description = "操作描述")
+    private String operationDescription;
+
+    @TableField("operator_id")
+    @Schema(description = "操作人ID")
+    private String operatorId;
+
+    @TableField("operation_time")
+    @Schema(description = "操作时间")
+    private LocalDateTime operationTime;
+
+    @TableField("operation_result")
+    @Schema(description = "操作结果：SUCCESS/FAILED")
+    private String operationResult;
+}
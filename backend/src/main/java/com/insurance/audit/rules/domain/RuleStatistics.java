@@ -0,0 +1,77 @@
+package com.insurance.audit.rules.domain;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Comparator;
+
+/**
+ * 规则统计汇总项
+ * 一行对应一个 (规则类型, 审核状态, 有效状态, 管理部门) 组合下的未删除规则数
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("rule_statistics")
+@Schema(description = "规则统计汇总项")
+public class RuleStatistics {
+
+    /**
+     * 统计维度的排序，多行增量更新按此顺序加锁，避免相反方向的状态变更互相死锁
+     */
+    public static final Comparator<RuleStatistics> KEY_ORDER = Comparator
+            .comparing(RuleStatistics::getRuleType)
+            .thenComparing(RuleStatistics::getAuditStatus)
+            .thenComparing(RuleStatistics::getEffectiveStatus)
+            .thenComparing(RuleStatistics::getManageDepartment);
+
+    @TableField("rule_type")
+    @Schema(description = "规则类型")
+    private String ruleType;
+
+    @TableField("audit_status")
+    @Schema(description = "审核状态")
+    private String auditStatus;
+
+    @TableField("effective_status")
+    @Schema(description = "有效状态")
+    private String effectiveStatus;
+
+    @TableField("manage_department")
+    @Schema(description = "规则管理部门，为空时为空字符串")
+    private String manageDepartment;
+
+    @TableField("rule_count")
+    @Schema(description = "未删除规则数")
+    private Long ruleCount;
+
+    /**
+     * 取规则的统计维度，计数为0
+     */
+    public static RuleStatistics keyOf(Rule rule) {
+        return RuleStatistics.builder()
+                .ruleType(rule.getRuleType() != null ? rule.getRuleType().getCode() : "")
+                .auditStatus(rule.getAuditStatus() != null ? rule.getAuditStatus().getCode() : "")
+                .effectiveStatus(rule.getEffectiveStatus() != null ? rule.getEffectiveStatus().getCode() : "")
+                .manageDepartment(rule.getManageDepartment() != null ? rule.getManageDepartment() : "")
+                .ruleCount(0L)
+                .build();
+    }
+
+    /**
+     * 维度相同（不比较计数）
+     */
+    public boolean sameKey(RuleStatistics other) {
+        return KEY_ORDER.compare(this, other) == 0;
+    }
+}
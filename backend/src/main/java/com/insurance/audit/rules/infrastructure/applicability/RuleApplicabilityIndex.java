@@ -0,0 +1,431 @@
+package com.insurance.audit.rules.infrastructure.applicability;
+
+import com.insurance.audit.common.event.RuleChangedEvent;
+import com.insurance.audit.common.event.RuleStatusChangedEvent;
+import com.insurance.audit.rules.domain.Rule;
+import com.insurance.audit.rules.infrastructure.mapper.RuleMapper;
+import com.insurance.audit.rules.interfaces.dto.request.RuleApplicabilityQuery;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * 规则适用性索引
+ * 在内存中为每条有效规则分配序号，按维度（险种、经营区域、管理部门、适用章节）为每个取值维护规则序号位图，
+ * 未设置适用范围的规则记入该维度的"不限"位图。查询时按维度求并集再逐维度求交集，
+ * 只对交集中的少量规则检查生效/失效时间，检核作业只需加载这些规则参与匹配。
+ * <p>
+ * 规则变更事件在事务提交后只登记规则ID，由后台线程合并后一次查询重新加载；
+ * 批量导入、回滚等范围未知的变更以及定期校准走全量重建
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RuleApplicabilityIndex {
+
+    /**
+     * 规则适用范围的分隔符
+     */
+    private static final Pattern VALUE_SEPARATOR = Pattern.compile("[,，;；、/|\\s]+");
+
+    /**
+     * 表示不限适用范围的取值
+     */
+    private static final Set<String> UNRESTRICTED_VALUES = Set.of("全国", "全部", "不限", "通用", "不区分", "ALL");
+
+    /**
+     * 增量重新加载时单条 IN 查询的最大ID数
+     */
+    private static final int RELOAD_CHUNK_SIZE = 1000;
+
+    private final RuleMapper ruleMapper;
+
+    @Value("${app.rule-applicability.rebuild-interval-seconds:600}")
+    private long rebuildIntervalSeconds = 600;
+
+    /**
+     * 查询持有读锁，重建和增量更新持有写锁；写操作由后台线程串行执行，首次加载时可由调用线程执行
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private State state = new State();
+
+    private volatile boolean loaded;
+
+    /**
+     * 待重新加载的规则ID
+     */
+    private final Set<String> pendingIds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean pendingRebuild = new AtomicBoolean();
+
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rule-applicability-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pendingRebuild.set(true);
+        scheduleRefresh();
+        if (rebuildIntervalSeconds > 0) {
+            scheduler.scheduleWithFixedDelay(() -> {
+                pendingRebuild.set(true);
+                refreshQuietly();
+            }, rebuildIntervalSeconds, rebuildIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 查找适用的有效规则
+     *
+     * @param query 查询条件
+     * @return 规则ID列表，按规则加入索引的序号排序
+     */
+    public List<String> findApplicableRuleIds(RuleApplicabilityQuery query) {
+        ensureLoaded();
+        LocalDateTime at = query.getAt() != null ? query.getAt() : LocalDateTime.now();
+
+        lock.readLock().lock();
+        try {
+            BitSet candidates = (BitSet) state.live.clone();
+            for (Dimension dimension : Dimension.values()) {
+                List<String> values = dimension.queryValues.apply(query);
+                if (values != null && !values.isEmpty()) {
+                    candidates.and(state.dimensions.get(dimension).matching(values));
+                }
+            }
+
+            List<String> ruleIds = new ArrayList<>(candidates.cardinality());
+            for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+                Entry entry = state.entries.get(ordinal);
+                if (entry.isValidAt(at)) {
+                    ruleIds.add(entry.ruleId);
+                }
+            }
+            return ruleIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 索引中的有效规则数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return state.live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRuleChanged(RuleChangedEvent event) {
+        if (event.isFullReload()) {
+            pendingRebuild.set(true);
+        } else {
+            pendingIds.addAll(event.getRuleIds());
+        }
+        scheduleRefresh();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRuleStatusChanged(RuleStatusChangedEvent event) {
+        pendingIds.add(event.getRuleId());
+        scheduleRefresh();
+    }
+
+    /**
+     * 尚未完成首次加载（启动时后台加载未完成或失败）时由调用线程同步加载
+     */
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    pendingRebuild.set(true);
+                    refresh();
+                }
+            }
+        }
+    }
+
+    /**
+     * 处理待执行的全量重建和增量重新加载
+     */
+    synchronized void refresh() {
+        refreshScheduled.set(false);
+        if (pendingRebuild.getAndSet(false)) {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                pendingRebuild.set(true);
+                throw e;
+            }
+        }
+        if (!pendingIds.isEmpty()) {
+            List<String> ruleIds = new ArrayList<>(pendingIds);
+            pendingIds.removeAll(ruleIds);
+            try {
+                reload(ruleIds);
+            } catch (RuntimeException e) {
+                pendingIds.addAll(ruleIds);
+                throw e;
+            }
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("规则适用性索引刷新失败", e);
+        }
+    }
+
+    /**
+     * 多个变更事件合并为一次后台刷新
+     */
+    private void scheduleRefresh() {
+        if (scheduler != null && !scheduler.isShutdown() && refreshScheduled.compareAndSet(false, true)) {
+            scheduler.execute(this::refreshQuietly);
+        }
+    }
+
+    /**
+     * 全量重建：在锁外构建新索引后原子替换
+     */
+    private void rebuild() {
+        long startTime = System.nanoTime();
+        State rebuilt = new State();
+        for (Rule rule : ruleMapper.selectApplicability()) {
+            rebuilt.put(rule);
+        }
+
+        lock.writeLock().lock();
+        try {
+            state = rebuilt;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("规则适用性索引重建完成: 有效规则数={}, 耗时={}ms",
+                rebuilt.live.cardinality(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    }
+
+    /**
+     * 增量重新加载：查询不到的规则（已删除或已失效）从索引移除
+     */
+    private void reload(List<String> ruleIds) {
+        Map<String, Rule> current = new HashMap<>();
+        for (int i = 0; i < ruleIds.size(); i += RELOAD_CHUNK_SIZE) {
+            List<String> chunk = ruleIds.subList(i, Math.min(ruleIds.size(), i + RELOAD_CHUNK_SIZE));
+            ruleMapper.selectApplicabilityByIds(chunk).forEach(rule -> current.put(rule.getId(), rule));
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (String ruleId : ruleIds) {
+                state.remove(ruleId);
+                Rule rule = current.get(ruleId);
+                if (rule != null) {
+                    state.put(rule);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("规则适用性索引增量更新: 规则数={}, 仍有效={}", ruleIds.size(), current.size());
+    }
+
+    /**
+     * 拆分规则的适用范围，未设置或包含不限取值时返回空集
+     */
+    static Set<String> parseValues(String raw) {
+        if (!StringUtils.hasText(raw)) {
+            return Set.of();
+        }
+        Set<String> values = new LinkedHashSet<>();
+        for (String value : VALUE_SEPARATOR.split(raw.strip())) {
+            if (value.isEmpty()) {
+                continue;
+            }
+            if (UNRESTRICTED_VALUES.contains(value)) {
+                return Set.of();
+            }
+            values.add(value);
+        }
+        return values;
+    }
+
+    /**
+     * 索引维度
+     */
+    private enum Dimension {
+        INSURANCE(Rule::getApplicableInsurance, RuleApplicabilityQuery::getInsurances),
+        BUSINESS_AREA(Rule::getBusinessArea, RuleApplicabilityQuery::getBusinessAreas),
+        DEPARTMENT(Rule::getManageDepartment, RuleApplicabilityQuery::getDepartments),
+        CHAPTER(Rule::getApplicableChapter, RuleApplicabilityQuery::getChapters);
+
+        private final Function<Rule, String> ruleValue;
+        private final Function<RuleApplicabilityQuery, List<String>> queryValues;
+
+        Dimension(Function<Rule, String> ruleValue, Function<RuleApplicabilityQuery, List<String>> queryValues) {
+            this.ruleValue = ruleValue;
+            this.queryValues = queryValues;
+        }
+    }
+
+    /**
+     * 索引数据，写锁内修改
+     */
+    private static final class State {
+
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final List<Entry> entries = new ArrayList<>();
+        private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+        private final BitSet live = new BitSet();
+        private final Map<Dimension, DimensionIndex> dimensions = new EnumMap<>(Dimension.class);
+
+        private State() {
+            for (Dimension dimension : Dimension.values()) {
+                dimensions.put(dimension, new DimensionIndex());
+            }
+        }
+
+        private void put(Rule rule) {
+            Integer free = freeOrdinals.pollFirst();
+            int ordinal = free != null ? free : entries.size();
+            Entry entry = new Entry(rule.getId(), rule.getEffectiveTime(), rule.getExpiryTime(), new EnumMap<>(Dimension.class));
+            for (Dimension dimension : Dimension.values()) {
+                Set<String> values = parseValues(dimension.ruleValue.apply(rule));
+                entry.values.put(dimension, values);
+                dimensions.get(dimension).add(ordinal, values);
+            }
+            if (free != null) {
+                entries.set(ordinal, entry);
+            } else {
+                entries.add(entry);
+            }
+            ordinals.put(rule.getId(), ordinal);
+            live.set(ordinal);
+        }
+
+        private void remove(String ruleId) {
+            Integer ordinal = ordinals.remove(ruleId);
+            if (ordinal == null) {
+                return;
+            }
+            Entry entry = entries.get(ordinal);
+            entry.values.forEach((dimension, values) -> dimensions.get(dimension).remove(ordinal, values));
+            entries.set(ordinal, null);
+            live.clear(ordinal);
+            freeOrdinals.addLast(ordinal);
+        }
+    }
+
+    /**
+     * 单个维度的位图：取值 -> 规则序号，以及未限定该维度的规则序号
+     */
+    private static final class DimensionIndex {
+
+        private final BitSet unrestricted = new BitSet();
+        private final Map<String, BitSet> byValue = new HashMap<>();
+
+        private void add(int ordinal, Set<String> values) {
+            if (values.isEmpty()) {
+                unrestricted.set(ordinal);
+                return;
+            }
+            values.forEach(value -> byValue.computeIfAbsent(value, key -> new BitSet()).set(ordinal));
+        }
+
+        private void remove(int ordinal, Set<String> values) {
+            if (values.isEmpty()) {
+                unrestricted.clear(ordinal);
+                return;
+            }
+            for (String value : values) {
+                BitSet bits = byValue.get(value);
+                if (bits != null) {
+                    bits.clear(ordinal);
+                    if (bits.isEmpty()) {
+                        byValue.remove(value);
+                    }
+                }
+            }
+        }
+
+        /**
+         * 适用于任一查询取值的规则
+         */
+        private BitSet matching(Collection<String> values) {
+            BitSet result = (BitSet) unrestricted.clone();
+            for (String value : values) {
+                if (value == null) {
+                    continue;
+                }
+                BitSet bits = byValue.get(value.strip());
+                if (bits != null) {
+                    result.or(bits);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 索引中的规则
+     */
+    private record Entry(String ruleId, LocalDateTime effectiveTime, LocalDateTime expiryTime,
+                         Map<Dimension, Set<String>> values) {
+
+        private boolean isValidAt(LocalDateTime at) {
+            return (effectiveTime == null || !effectiveTime.isAfter(at))
+                    && (expiryTime == null || expiryTime.isAfter(at));
+        }
+    }
+}
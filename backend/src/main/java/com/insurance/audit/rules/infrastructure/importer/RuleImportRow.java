@@ -0,0 +1,134 @@
+package com.insurance.audit.rules.infrastructure.importer;
+
+import com.insurance.audit.rules.enums.RuleType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 规则导入行
+ * 按规则类型的模板列布局把一行单元格映射为类型化字段：
+ * 第三、四列依类型分别为规则内容/第一条件/格式模式/规则脚本与（无）/第二条件/示例/参数配置，最后一列为规则来源
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuleImportRow {
+
+    private static final String[] SINGLE_HEADERS = {"规则名称", "规则描述", "规则内容", "规则来源"};
+    private static final String[] DOUBLE_HEADERS = {"规则名称", "规则描述", "第一条件", "第二条件", "规则来源"};
+    private static final String[] FORMAT_HEADERS = {"规则名称", "规则描述", "格式模式", "示例", "规则来源"};
+    private static final String[] ADVANCED_HEADERS = {"规则名称", "规则描述", "规则脚本", "参数配置", "规则来源"};
+
+    /**
+     * 工作表行号（从0开始）
+     */
+    private int rowIndex;
+
+    private RuleType ruleType;
+
+    private String ruleName;
+
+    private String ruleDescription;
+
+    /**
+     * 规则内容/第一条件/格式模式/规则脚本
+     */
+    private String primaryValue;
+
+    /**
+     * 第二条件/示例/参数配置，单句规则为null
+     */
+    private String secondaryValue;
+
+    private String ruleSource;
+
+    /**
+     * 规则类型的模板表头
+     */
+    public static String[] headers(RuleType ruleType) {
+        switch (ruleType) {
+            case DOUBLE:
+                return DOUBLE_HEADERS.clone();
+            case FORMAT:
+                return FORMAT_HEADERS.clone();
+            case ADVANCED:
+                return ADVANCED_HEADERS.clone();
+            default:
+                return SINGLE_HEADERS.clone();
+        }
+    }
+
+    /**
+     * 按表头识别规则类型，不是任何模板的表头时返回null
+     */
+    public static RuleType detectType(String[] cells) {
+        for (RuleType type : RuleType.values()) {
+            String[] headers = headers(type);
+            if (cells.length >= headers.length && Arrays.equals(Arrays.copyOf(cells, headers.length), headers)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按模板列布局映射一行
+     */
+    public static RuleImportRow of(int rowIndex, RuleType ruleType, String[] cells) {
+        boolean single = ruleType == RuleType.SINGLE;
+        return RuleImportRow.builder()
+                .rowIndex(rowIndex)
+                .ruleType(ruleType)
+                .ruleName(cell(cells, 0))
+                .ruleDescription(cell(cells, 1))
+                .primaryValue(cell(cells, 2))
+                .secondaryValue(single ? null : cell(cells, 3))
+                .ruleSource(cell(cells, single ? 3 : 4))
+                .build();
+    }
+
+    /**
+     * 从 column_N 形式的行数据映射
+     */
+    public static RuleImportRow of(int rowIndex, RuleType ruleType, Map<String, Object> rowData) {
+        String[] cells = new String[headers(ruleType).length];
+        for (int i = 0; i < cells.length; i++) {
+            Object value = rowData.get("column_" + i);
+            cells[i] = value == null ? "" : value.toString();
+        }
+        return of(rowIndex, ruleType, cells);
+    }
+
+    /**
+     * 转为 column_N 形式的行数据，供预览等沿用原数据格式的接口使用
+     */
+    public static Map<String, Object> toColumns(String[] cells) {
+        Map<String, Object> rowData = new LinkedHashMap<>();
+        for (int i = 0; i < cells.length; i++) {
+            rowData.put("column_" + i, cells[i]);
+        }
+        return rowData;
+    }
+
+    /**
+     * Excel 中显示的行号（从1开始）
+     */
+    public int getRowNumber() {
+        return rowIndex + 1;
+    }
+
+    private static String cell(String[] cells, int column) {
+        return column < cells.length && cells[column] != null ? cells[column] : "";
+    }
+}
@@ -0,0 +1,185 @@
+package com.insurance.audit.rules.infrastructure.importer;
+
+import com.insurance.audit.common.exception.BusinessException;
+import com.insurance.audit.common.exception.ErrorCode;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 规则导入表格流式读取器
+ * xlsx 通过 SAX 事件逐行读取，不构建整本工作簿对象，内存占用与行数无关；
+ * xls（最多 65536 行）仍通过用户模型读取。单元格按显示格式取值，空白行跳过
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+@Component
+public class RuleSheetReader {
+
+    /**
+     * 行处理器
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+
+        /**
+         * 处理一行
+         *
+         * @param rowIndex 工作表行号（从0开始）
+         * @param cells 单元格值，缺失的单元格为空字符串
+         * @return 是否继续读取
+         */
+        boolean handle(int rowIndex, String[] cells);
+    }
+
+    /**
+     * 读取工作表
+     *
+     * @param file 表格文件
+     * @param sheetName 工作表名称，为空时读取第一个工作表
+     * @param handler 行处理器
+     */
+    public void read(Path file, String sheetName, RowHandler handler) {
+        try {
+            if (FileMagic.valueOf(file.toFile()) == FileMagic.OOXML) {
+                readXlsx(file, sheetName, handler);
+            } else {
+                readWorkbook(file, sheetName, handler);
+            }
+        } catch (StopReading e) {
+            // 处理器要求提前结束
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.OPERATION_FAILED, "文件解析失败: " + e.getMessage());
+        }
+    }
+
+    private void readXlsx(Path file, String sheetName, RowHandler handler) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg, false);
+            XSSFReader reader = new XSSFReader(pkg);
+            StylesTable styles = reader.getStylesTable();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    if (StringUtils.hasText(sheetName) && !sheetName.equals(sheets.getSheetName())) {
+                        continue;
+                    }
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(styles, null, strings,
+                            new RowCollector(handler), new DataFormatter(), false));
+                    parser.parse(new InputSource(sheet));
+                    return;
+                }
+            }
+        } catch (SAXException | ParserConfigurationException | OpenXML4JException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        throw new BusinessException(ErrorCode.INVALID_PARAMETER, "工作表不存在: " + sheetName);
+    }
+
+    private void readWorkbook(Path file, String sheetName, RowHandler handler) throws IOException {
+        try (Workbook workbook = WorkbookFactory.create(file.toFile(), null, true)) {
+            Sheet sheet = StringUtils.hasText(sheetName) ? workbook.getSheet(sheetName) : workbook.getSheetAt(0);
+            if (sheet == null) {
+                throw new BusinessException(ErrorCode.INVALID_PARAMETER, "工作表不存在: " + sheetName);
+            }
+            DataFormatter formatter = new DataFormatter();
+            for (Row row : sheet) {
+                String[] cells = new String[Math.max(0, row.getLastCellNum())];
+                boolean blank = true;
+                for (int i = 0; i < cells.length; i++) {
+                    Cell cell = row.getCell(i);
+                    cells[i] = cell == null ? "" : formatter.formatCellValue(cell).trim();
+                    blank &= cells[i].isEmpty();
+                }
+                if (!blank && !handler.handle(row.getRowNum(), cells)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 把 SAX 单元格事件收集成行
+     */
+    private static final class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final RowHandler handler;
+        private final List<String> cells = new ArrayList<>();
+        private boolean blank;
+        private int nextColumn;
+
+        private RowCollector(RowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+            blank = true;
+            nextColumn = 0;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            // 缺失的单元格不产生事件，按单元格引用补齐列位置
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+            while (cells.size() < column) {
+                cells.add("");
+            }
+            String value = formattedValue == null ? "" : formattedValue.trim();
+            if (column < cells.size()) {
+                cells.set(column, value);
+            } else {
+                cells.add(value);
+            }
+            blank &= value.isEmpty();
+            nextColumn = column + 1;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (!blank && !handler.handle(rowNum, cells.toArray(new String[0]))) {
+                throw new StopReading();
+            }
+        }
+    }
+
+    /**
+     * 行处理器要求提前结束读取
+     */
+    private static final class StopReading extends RuntimeException {
+
+        private StopReading() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.insurance.audit.rules.infrastructure.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.insurance.audit.rules.domain.RuleImportBatch;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 规则导入批次数据访问层
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+@Mapper
+public interface RuleImportBatchMapper extends BaseMapper<RuleImportBatch> {
+
+    /**
+     * 查询同一文件可续导的批次：导入失败的批次，或长时间未推进检查点的处理中批次（所在节点已宕机）
+     *
+     * @param fileHash 文件摘要
+     * @param staleBefore 处理中批次的检查点更新时间早于该时间才视为中断
+     * @return 最近一次可续导的批次
+     */
+    @Select("SELECT * FROM rule_import_batch WHERE file_hash = #{fileHash} " +
+            "AND (status = 'FAILED' OR (status = 'PROCESSING' AND updated_at < #{staleBefore})) " +
+            "ORDER BY started_at DESC LIMIT 1")
+    RuleImportBatch selectResumable(@Param("fileHash") String fileHash,
+                                    @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * 查询同一文件正在导入的批次，用于拦截重复提交
+     *
+     * @param fileHash 文件摘要
+     * @param staleBefore 检查点更新时间不早于该时间的处理中批次视为仍在导入
+     * @return 正在导入的批次
+     */
+    @Select("SELECT * FROM rule_import_batch WHERE file_hash = #{fileHash} " +
+            "AND status = 'PROCESSING' AND updated_at >= #{staleBefore} ORDER BY started_at DESC LIMIT 1")
+    RuleImportBatch selectActive(@Param("fileHash") String fileHash,
+                                 @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * 查询中断的处理中批次，供后台恢复任务续导
+     *
+     * @param staleBefore 检查点更新时间早于该时间才视为中断
+     * @return 中断的批次
+     */
+    @Select("SELECT * FROM rule_import_batch WHERE status = 'PROCESSING' AND updated_at < #{staleBefore} " +
+            "ORDER BY started_at")
+    List<RuleImportBatch> selectStale(@Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * 认领批次续导，按读到的状态和更新时间做条件更新，并发上传同一文件时只有一个请求认领成功
+     *
+     * @return 影响行数
+     */
+    @Update("UPDATE rule_import_batch SET status = 'PROCESSING', error_message = NULL, " +
+            "skip_errors = #{skipErrors}, updated_at = NOW() " +
+            "WHERE batch_id = #{batchId} AND status = #{status} AND updated_at = #{updatedAt}")
+    int claim(@Param("batchId") String batchId,
+              @Param("status") String status,
+              @Param("updatedAt") LocalDateTime updatedAt,
+              @Param("skipErrors") boolean skipErrors);
+
+    /**
+     * 推进检查点，与该批规则的插入在同一事务中执行
+     *
+     * @param batchId 批次ID
+     * @param nextRow 下一个未提交的工作表行号
+     * @param successRows 本批成功行数
+     * @param failedRows 本批失败行数
+     * @return 影响行数
+     */
+    @Update("UPDATE rule_import_batch SET next_row = #{nextRow}, " +
+            "success_rows = success_rows + #{successRows}, failed_rows = failed_rows + #{failedRows}, " +
+            "updated_at = NOW() WHERE batch_id = #{batchId}")
+    int advanceCheckpoint(@Param("batchId") String batchId,
+                          @Param("nextRow") int nextRow,
+                          @Param("successRows") int successRows,
+                          @Param("failedRows") int failedRows);
+
+    /**
+     * 累加成功行数，逐行插入时与该行规则在同一事务中执行，检查点不变
+     *
+     * @return 影响行数
+     */
+    @Update("UPDATE rule_import_batch SET success_rows = success_rows + #{successRows}, updated_at = NOW() " +
+            "WHERE batch_id = #{batchId}")
+    int addSuccessRows(@Param("batchId") String batchId, @Param("successRows") int successRows);
+
+    /**
+     * 刷新处理中批次的更新时间，完整校验阶段检查点不推进，据此表明批次仍在导入
+     *
+     * @return 影响行数
+     */
+    @Update("UPDATE rule_import_batch SET updated_at = NOW() WHERE batch_id = #{batchId} AND status = 'PROCESSING'")
+    int heartbeat(@Param("batchId") String batchId);
+
+    /**
+     * 写入数据总行数，用于计算进度
+     *
+     * @return 影响行数
+     */
+    @Update("UPDATE rule_import_batch SET total_rows = #{totalRows}, updated_at = NOW() WHERE batch_id = #{batchId}")
+    int updateTotalRows(@Param("batchId") String batchId, @Param("totalRows") int totalRows);
+
+    /**
+     * 结束批次
+     *
+     * @param errorDetails 错误明细（JSON数组）
+     * @return 影响行数
+     */
+    @Update("UPDATE rule_import_batch SET status = #{status}, total_rows = #{totalRows}, " +
+            "error_message = #{errorMessage}, error_details = #{errorDetails}, " +
+            "finished_at = NOW(), updated_at = NOW() WHERE batch_id = #{batchId}")
+    int finish(@Param("batchId") String batchId,
+               @Param("status") String status,
+               @Param("totalRows") Integer totalRows,
+               @Param("errorMessage") String errorMessage,
+               @Param("errorDetails") String errorDetails);
+
+    /**
+     * 标记批次已回滚；已回滚的批次和仍在导入的处理中批次不更新
+     *
+     * @param batchId 批次ID
+     * @param reason 回滚原因
+     * @param rolledBackRows 回滚删除的规则数
+     * @param staleBefore 处理中批次的检查点更新时间早于该时间才视为中断，可回滚
+     * @return 影响行数
+     */
+    @Update("UPDATE rule_import_batch SET status = 'ROLLED_BACK', rollback_reason = #{reason}, " +
+            "rolled_back_rows = #{rolledBackRows}, rolled_back_at = NOW(), updated_at = NOW() " +
+            "WHERE batch_id = #{batchId} AND status <> 'ROLLED_BACK' " +
+            "AND (status <> 'PROCESSING' OR updated_at < #{staleBefore})")
+    int markRolledBack(@Param("batchId") String batchId,
+                       @Param("reason") String reason,
+                       @Param("rolledBackRows") int rolledBackRows,
+                       @Param("staleBefore") LocalDateTime staleBefore);
+}
@@ -0,0 +1,45 @@
+package com.insurance.audit.rules.infrastructure.mapper;
+
+import com.insurance.audit.rules.domain.RuleImportItem;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 规则导入批次清单数据访问层
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+@Mapper
+public interface RuleImportItemMapper {
+
+    /**
+     * 多行插入清单项
+     *
+     * @param items 清单项
+     * @return 影响行数
+     */
+    int insertBatch(@Param("items") List<RuleImportItem> items);
+
+    /**
+     * 按批次逻辑删除该批次插入的全部规则，一条语句完成
+     *
+     * @param batchId 批次ID
+     * @param operatorId 操作人ID
+     * @return 删除的规则数
+     */
+    int deleteRulesByBatchId(@Param("batchId") String batchId, @Param("operatorId") String operatorId);
+
+    /**
+     * 删除批次清单
+     *
+     * @param batchId 批次ID
+     * @return 影响行数
+     */
+    @Delete("DELETE FROM rule_import_item WHERE batch_id = #{batchId}")
+    int deleteByBatchId(@Param("batchId") String batchId);
+}
@@ -3,12 +3,17 @@ package com.insurance.audit.rules.infrastructure.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.insurance.audit.common.pagination.SeekCursor;
 import com.insurance.audit.rules.domain.Rule;
+import com.insurance.audit.rules.enums.RuleAuditStatus;
+import com.insurance.audit.rules.enums.RuleEffectiveStatus;
 import com.insurance.audit.rules.interfaces.dto.request.RuleQueryRequest;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -32,6 +37,34 @@ public interface RuleMapper extends BaseMapper<Rule> {
     IPage<Rule> selectPageWithQuery(@Param("page") Page<Rule> page,
                                   @Param("query") RuleQueryRequest queryRequest);
 
+    /**
+     * 统计筛选条件下的规则总数
+     *
+     * @param queryRequest 查询条件，忽略分页和排序
+     * @return 总数
+     */
+    long countWithQuery(@Param("query") RuleQueryRequest queryRequest);
+
+    /**
+     * 键集分页查询规则列表，按最后更新时间倒序，仅返回列表页精简列
+     *
+     * @param queryRequest 查询条件，忽略分页和排序
+     * @param cursor 上一页最后一行，为null时从第一页开始
+     * @param limit 读取条数
+     * @return 规则列表
+     */
+    List<Rule> selectSummaryAfter(@Param("query") RuleQueryRequest queryRequest,
+                                  @Param("cursor") SeekCursor cursor,
+                                  @Param("limit") int limit);
+
+    /**
+     * 多行插入规则，主键、编号和审计字段需由调用方填好
+     *
+     * @param rules 规则列表
+     * @return 插入行数
+     */
+    int insertBatch(@Param("rules") List<Rule> rules);
+
     /**
      * 根据规则类型查询规则
      *
@@ -42,16 +75,14 @@ public interface RuleMapper extends BaseMapper<Rule> {
     List<Rule> selectByRuleType(@Param("ruleType") String ruleType);
 
     /**
-     * 根据关键词搜索规则
+     * 根据关键词全文检索规则，按相关度排序
+     * 关键词可走 ngram 全文索引时使用 MATCH ... AGAINST，否则回退到 LIKE
      *
-     * @param keyword 搜索关键词
+     * @param keyword 搜索关键词，多个词以空白分隔，须全部命中
+     * @param limit 最多返回条数
      * @return 规则列表
      */
-    @Select("SELECT * FROM rule WHERE (rule_name LIKE CONCAT('%', #{keyword}, '%') " +
-            "OR rule_description LIKE CONCAT('%', #{keyword}, '%') " +
-            "OR rule_content LIKE CONCAT('%', #{keyword}, '%')) " +
-            "AND deleted = 0")
-    List<Rule> searchByKeyword(@Param("keyword") String keyword);
+    List<Rule> searchByKeyword(@Param("keyword") String keyword, @Param("limit") int limit);
 
     /**
      * 根据规则类型统计数量
@@ -132,6 +163,61 @@ public interface RuleMapper extends BaseMapper<Rule> {
     @Select("SELECT * FROM rule WHERE rule_source = #{ruleSource} AND deleted = 0")
     List<Rule> selectByRuleSource(@Param("ruleSource") String ruleSource);
 
+    /**
+     * 锁定未删除的规则并读取状态字段（名称、类型、审核状态、有效状态、管理部门、版本号）
+     *
+     * @param ids 规则ID列表
+     * @return 规则列表，仅含上述字段
+     */
+    List<Rule> selectStatusForUpdate(@Param("ids") Collection<String> ids);
+
+    /**
+     * 查询全部有效规则的适用性字段（适用范围、有效状态、生效/失效时间）
+     *
+     * @return 规则列表，仅含上述字段
+     */
+    List<Rule> selectApplicability();
+
+    /**
+     * 查询指定规则中仍有效的规则的适用性字段
+     *
+     * @param ids 规则ID列表
+     * @return 规则列表，仅含适用性字段
+     */
+    List<Rule> selectApplicabilityByIds(@Param("ids") Collection<String> ids);
+
+    /**
+     * 将处于原审核状态的规则成组更新为目标审核状态
+     *
+     * @param ids 规则ID列表
+     * @param fromStatus 原审核状态
+     * @param toStatus 目标审核状态
+     * @param operatorId 操作人ID
+     * @param updatedAt 更新时间
+     * @return 更新行数
+     */
+    int updateAuditStatusBatch(@Param("ids") Collection<String> ids,
+                               @Param("fromStatus") RuleAuditStatus fromStatus,
+                               @Param("toStatus") RuleAuditStatus toStatus,
+                               @Param("operatorId") String operatorId,
+                               @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * 将处于原有效状态的规则成组更新为目标有效状态
+     *
+     * @param ids 规则ID列表
+     * @param fromStatus 原有效状态
+     * @param toStatus 目标有效状态
+     * @param operatorId 操作人ID
+     * @param updatedAt 更新时间
+     * @return 更新行数
+     */
+    int updateEffectiveStatusBatch(@Param("ids") Collection<String> ids,
+                                   @Param("fromStatus") RuleEffectiveStatus fromStatus,
+                                   @Param("toStatus") RuleEffectiveStatus toStatus,
+                                   @Param("operatorId") String operatorId,
+                                   @Param("updatedAt") LocalDateTime updatedAt);
+
     /**
      * 查询待审核的规则数量
      *
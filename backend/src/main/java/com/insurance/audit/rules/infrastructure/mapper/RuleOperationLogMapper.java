@@ -3,6 +3,7 @@ package com.insurance.audit.rules.infrastructure.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.insurance.audit.rules.domain.RuleOperationLog;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
@@ -20,6 +21,14 @@ import java.util.List;
 @Mapper
 public interface RuleOperationLogMapper extends BaseMapper<Object> {
 
+    /**
+     * 多行插入操作日志
+     *
+     * @param logs 操作日志列表
+     * @return 插入行数
+     */
+    int insertBatch(@Param("logs") List<RuleOperationLog> logs);
+
     /**
      * 根据规则ID查询操作日志
      *
@@ -0,0 +1,87 @@
+package com.insurance.audit.rules.infrastructure.mapper;
+
+import com.insurance.audit.rules.domain.RuleStatistics;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 规则统计汇总数据访问层
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+@Mapper
+public interface RuleStatisticsMapper {
+
+    /**
+     * 按维度累加计数，维度不存在时插入；在规则变更的事务中执行，行锁持有到事务提交
+     *
+     * @param key 统计维度
+     * @param delta 增量，可为负
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO rule_statistics (rule_type, audit_status, effective_status, manage_department, rule_count) " +
+            "VALUES (#{key.ruleType}, #{key.auditStatus}, #{key.effectiveStatus}, #{key.manageDepartment}, #{delta}) " +
+            "ON DUPLICATE KEY UPDATE rule_count = rule_count + #{delta}")
+    int increment(@Param("key") RuleStatistics key, @Param("delta") long delta);
+
+    /**
+     * 按导入批次清单扣减计数，须在删除该批次规则之前、同一事务中执行；
+     * INSERT ... SELECT 对读到的规则行加锁，扣减的行数与随后删除的行数一致
+     *
+     * @param batchId 导入批次ID
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO rule_statistics (rule_type, audit_status, effective_status, manage_department, rule_count) " +
+            "SELECT d.rule_type, d.audit_status, d.effective_status, d.manage_department, d.delta FROM (" +
+            "SELECT r.rule_type, r.audit_status, r.effective_status, " +
+            "COALESCE(r.manage_department, '') AS manage_department, -COUNT(*) AS delta " +
+            "FROM rule r INNER JOIN rule_import_item i ON i.rule_id = r.id " +
+            "WHERE i.batch_id = #{batchId} AND r.is_deleted = 0 " +
+            "GROUP BY r.rule_type, r.audit_status, r.effective_status, COALESCE(r.manage_department, '')) d " +
+            "ON DUPLICATE KEY UPDATE rule_count = rule_count + d.delta")
+    int decrementByImportBatch(@Param("batchId") String batchId);
+
+    /**
+     * 查询全部统计项
+     *
+     * @return 统计项列表
+     */
+    @Select("SELECT rule_type, audit_status, effective_status, manage_department, rule_count FROM rule_statistics")
+    List<RuleStatistics> selectAll();
+
+    /**
+     * 从规则表实时分组统计，供对账使用
+     *
+     * @return 统计项列表
+     */
+    @Select("SELECT rule_type, audit_status, effective_status, COALESCE(manage_department, '') AS manage_department, " +
+            "COUNT(*) AS rule_count FROM rule WHERE is_deleted = 0 " +
+            "GROUP BY rule_type, audit_status, effective_status, COALESCE(manage_department, '')")
+    List<RuleStatistics> aggregateFromRules();
+
+    /**
+     * 清空汇总表，与 {@link #rebuildFromRules()} 在同一事务中执行
+     *
+     * @return 影响行数
+     */
+    @Delete("DELETE FROM rule_statistics")
+    int deleteAll();
+
+    /**
+     * 按规则表重建汇总表
+     *
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO rule_statistics (rule_type, audit_status, effective_status, manage_department, rule_count) " +
+            "SELECT rule_type, audit_status, effective_status, COALESCE(manage_department, ''), COUNT(*) " +
+            "FROM rule WHERE is_deleted = 0 " +
+            "GROUP BY rule_type, audit_status, effective_status, COALESCE(manage_department, '')")
+    int rebuildFromRules();
+}
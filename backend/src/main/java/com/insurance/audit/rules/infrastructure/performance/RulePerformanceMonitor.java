@@ -1,5 +1,6 @@
 package com.insurance.audit.rules.infrastructure.performance;
 
+import com.insurance.audit.rules.infrastructure.search.RuleSearchSupport;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -132,12 +133,12 @@ public class RulePerformanceMonitor {
 
         log.info("开始分析查询执行计划...");
 
-        // 常用查询的执行计划（已优化为具体列名并支持FULLTEXT）
+        // 常用查询的执行计划（已优化为具体列名并支持FULLTEXT，全文检索与executeSearchQuery使用同一索引列和布尔模式）
         String[] queries = {
             "SELECT id, rule_name, audit_status, effective_status, last_updated_at FROM rule WHERE is_deleted = 0 AND audit_status = 'APPROVED' ORDER BY last_updated_at DESC LIMIT 20",
             "SELECT id, rule_name, rule_type, manage_department, last_updated_at FROM rule WHERE is_deleted = 0 AND rule_type = 'SINGLE' AND manage_department = '技术部门' LIMIT 20",
             "SELECT audit_status, COUNT(*) FROM rule WHERE is_deleted = 0 GROUP BY audit_status",
-            "SELECT id, rule_name, rule_description, last_updated_at FROM rule WHERE is_deleted = 0 AND MATCH(rule_name, rule_description) AGAINST('保险' IN NATURAL LANGUAGE MODE) LIMIT 20"
+            "SELECT id, rule_name, rule_description, last_updated_at FROM rule WHERE is_deleted = 0 AND MATCH(rule_name, rule_description, rule_search_text) AGAINST('+\"保险\"' IN BOOLEAN MODE) LIMIT 20"
         };
 
         List<Map<String, Object>> plans = new ArrayList<>();
@@ -214,16 +215,18 @@ public class RulePerformanceMonitor {
      */
     private List<Map<String, Object>> executeSearchQuery(String keyword) {
         try {
-            // 首先尝试使用FULLTEXT索引查询
+            // 首先尝试使用FULLTEXT索引查询（ft_rule_search，ngram分词），按相关度排序
             String fulltextQuery =
-                "SELECT id, rule_name, rule_description, audit_status, effective_status, last_updated_at " +
+                "SELECT id, rule_name, rule_description, audit_status, effective_status, last_updated_at, " +
+                "  MATCH(rule_name, rule_description, rule_search_text) AGAINST(? IN BOOLEAN MODE) AS search_score " +
                 "FROM rule " +
-                "WHERE is_deleted = 0 " +
-                "  AND MATCH(rule_name, rule_description) AGAINST(? IN NATURAL LANGUAGE MODE) " +
-                "ORDER BY last_updated_at DESC " +
+                "WHERE MATCH(rule_name, rule_description, rule_search_text) AGAINST(? IN BOOLEAN MODE) " +
+                "  AND is_deleted = 0 " +
+                "ORDER BY search_score DESC " +
                 "LIMIT 20 OFFSET 0";
 
-            List<Map<String, Object>> result = jdbcTemplate.queryForList(fulltextQuery, keyword);
+            String booleanQuery = RuleSearchSupport.toBooleanQuery(keyword);
+            List<Map<String, Object>> result = jdbcTemplate.queryForList(fulltextQuery, booleanQuery, booleanQuery);
 
             log.info("使用FULLTEXT索引搜索，关键词: {}, 结果数: {}", keyword, result.size());
             return result;
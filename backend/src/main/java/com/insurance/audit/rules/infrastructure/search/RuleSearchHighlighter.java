@@ -0,0 +1,138 @@
+package com.insurance.audit.rules.infrastructure.search;
+
+import com.insurance.audit.rules.domain.Rule;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 规则搜索结果高亮
+ * 命中词以 &lt;em&gt; 标记，其余文本做 HTML 转义；长字段截取首个命中词附近的片段
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+@Component
+public class RuleSearchHighlighter {
+
+    private static final String PRE_TAG = "<em>";
+    private static final String POST_TAG = "</em>";
+    private static final String ELLIPSIS = "...";
+
+    /**
+     * 片段最大长度（字符）
+     */
+    private static final int FRAGMENT_LENGTH = 120;
+
+    /**
+     * 片段中首个命中词之前保留的字符数
+     */
+    private static final int LEADING_CONTEXT = 20;
+
+    /**
+     * 生成规则各字段的高亮片段
+     *
+     * @param rule 规则
+     * @param keyword 搜索关键词
+     * @return 字段名到片段的映射，只包含有命中的字段
+     */
+    public Map<String, String> highlight(Rule rule, String keyword) {
+        String[] terms = RuleSearchSupport.terms(keyword);
+        Map<String, String> highlights = new LinkedHashMap<>();
+        putFragment(highlights, "ruleName", rule.getRuleName(), terms);
+        putFragment(highlights, "ruleDescription", rule.getRuleDescription(), terms);
+        putFragment(highlights, "ruleContent", rule.getRuleContent(), terms);
+        return highlights;
+    }
+
+    /**
+     * 高亮一段文本
+     *
+     * @return 高亮片段，没有命中时返回null
+     */
+    public String fragment(String text, String[] terms) {
+        if (text == null || text.isEmpty() || terms.length == 0) {
+            return null;
+        }
+        List<int[]> matches = findMatches(text, terms);
+        if (matches.isEmpty()) {
+            return null;
+        }
+
+        int start = Math.max(0, matches.get(0)[0] - LEADING_CONTEXT);
+        int end = Math.min(text.length(), start + FRAGMENT_LENGTH);
+        start = Math.max(0, Math.min(start, end - FRAGMENT_LENGTH));
+        start = alignToCodePoint(text, start);
+        end = alignToCodePoint(text, end);
+
+        StringBuilder fragment = new StringBuilder();
+        if (start > 0) {
+            fragment.append(ELLIPSIS);
+        }
+        int position = start;
+        for (int[] match : matches) {
+            if (match[1] <= start) {
+                continue;
+            }
+            if (match[0] >= end) {
+                break;
+            }
+            int matchStart = Math.max(match[0], start);
+            int matchEnd = Math.min(match[1], end);
+            fragment.append(HtmlUtils.htmlEscape(text.substring(position, matchStart)))
+                    .append(PRE_TAG)
+                    .append(HtmlUtils.htmlEscape(text.substring(matchStart, matchEnd)))
+                    .append(POST_TAG);
+            position = matchEnd;
+        }
+        fragment.append(HtmlUtils.htmlEscape(text.substring(position, end)));
+        if (end < text.length()) {
+            fragment.append(ELLIPSIS);
+        }
+        return fragment.toString();
+    }
+
+    private void putFragment(Map<String, String> highlights, String field, String text, String[] terms) {
+        String fragment = fragment(text, terms);
+        if (fragment != null) {
+            highlights.put(field, fragment);
+        }
+    }
+
+    /**
+     * 查找所有词的命中区间（忽略大小写），按起点排序并合并重叠区间
+     */
+    private static List<int[]> findMatches(String text, String[] terms) {
+        List<int[]> matches = new ArrayList<>();
+        for (int i = 0; i < text.length(); i++) {
+            int longest = 0;
+            for (String term : terms) {
+                if (term.length() > longest && text.regionMatches(true, i, term, 0, term.length())) {
+                    longest = term.length();
+                }
+            }
+            if (longest == 0) {
+                continue;
+            }
+            int[] last = matches.isEmpty() ? null : matches.get(matches.size() - 1);
+            if (last != null && last[1] >= i) {
+                last[1] = Math.max(last[1], i + longest);
+            } else {
+                matches.add(new int[]{i, i + longest});
+            }
+        }
+        return matches;
+    }
+
+    private static int alignToCodePoint(String text, int index) {
+        if (index > 0 && index < text.length() && Character.isLowSurrogate(text.charAt(index))) {
+            return index - 1;
+        }
+        return index;
+    }
+}
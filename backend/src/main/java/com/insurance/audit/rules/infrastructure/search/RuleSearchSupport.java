@@ -0,0 +1,65 @@
+package com.insurance.audit.rules.infrastructure.search;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * 规则全文检索条件构造
+ * 供 RuleMapper.xml 通过 OGNL 静态方法调用：关键词按空白拆分为多个词，每个词作为短语必须出现，
+ * 对应 ft_rule_search（ngram 分词）索引的 BOOLEAN MODE 查询
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+public final class RuleSearchSupport {
+
+    /**
+     * 与 MySQL ngram_token_size 一致，短于该长度的词无法命中 ngram 索引
+     */
+    public static final int NGRAM_TOKEN_SIZE = 2;
+
+    private RuleSearchSupport() {
+    }
+
+    /**
+     * 关键词能否走全文索引：每个词都不短于 ngram 分词长度
+     */
+    public static boolean isFullTextSearchable(String keyword) {
+        String[] terms = terms(keyword);
+        if (terms.length == 0) {
+            return false;
+        }
+        for (String term : terms) {
+            if (term.codePointCount(0, term.length()) < NGRAM_TOKEN_SIZE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 构造 BOOLEAN MODE 查询串，如 {@code 等待期 保险} 转为 {@code +"等待期" +"保险"}；
+     * 词用双引号包裹，词内的运算符按字面匹配
+     */
+    public static String toBooleanQuery(String keyword) {
+        StringBuilder query = new StringBuilder();
+        for (String term : terms(keyword)) {
+            if (query.length() > 0) {
+                query.append(' ');
+            }
+            query.append("+\"").append(term).append('"');
+        }
+        return query.toString();
+    }
+
+    /**
+     * 拆分关键词，双引号按空白处理
+     */
+    public static String[] terms(String keyword) {
+        if (!StringUtils.hasText(keyword)) {
+            return new String[0];
+        }
+        String normalized = keyword.replace('"', ' ').strip();
+        return normalized.isEmpty() ? new String[0] : normalized.split("\\s+");
+    }
+}
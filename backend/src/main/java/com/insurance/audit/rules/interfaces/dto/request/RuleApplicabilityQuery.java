@@ -0,0 +1,44 @@
+package com.insurance.audit.rules.interfaces.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 规则适用性查询条件
+ * 各维度传入产品（或文档）的属性值，维度为空时不按该维度筛选；
+ * 规则在某维度未设置适用范围时视为适用于该维度的所有值
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "规则适用性查询条件")
+public class RuleApplicabilityQuery {
+
+    @Schema(description = "险种，如产品性质、产品类别", example = "政策性农险,养殖险")
+    private List<String> insurances;
+
+    @Schema(description = "经营区域", example = "西藏自治区")
+    private List<String> businessAreas;
+
+    @Schema(description = "规则管理部门", example = "产品部")
+    private List<String> departments;
+
+    @Schema(description = "文档包含的章节", example = "保险责任")
+    private List<String> chapters;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    @Schema(description = "检核时间点，按规则生效/失效时间筛选，为空时取当前时间")
+    private LocalDateTime at;
+}
@@ -43,6 +43,9 @@ public class ImportResultResponse {
     @Schema(description = "无效行数（别名）")
     private Integer invalidRows;
 
+    @Schema(description = "处理进度（百分比），异步导入时轮询", example = "42")
+    private Integer progressPercent;
+
     @Schema(description = "跳过行数")
     private Integer skippedRows;
 
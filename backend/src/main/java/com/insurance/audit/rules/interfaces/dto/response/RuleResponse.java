@@ -1,6 +1,7 @@
 package com.insurance.audit.rules.interfaces.dto.response;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.insurance.audit.rules.enums.RuleAuditStatus;
 import com.insurance.audit.rules.enums.RuleEffectiveStatus;
 import com.insurance.audit.rules.enums.RuleType;
@@ -9,6 +10,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 /**
  * 规则响应DTO
@@ -136,4 +138,12 @@ public class RuleResponse {
     // 子规则数据（根据规则类型不同而不同）
     @Schema(description = "子规则数据")
     private Object subRuleData;
+
+    @Schema(description = "全文检索相关度得分，仅搜索结果返回")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double searchScore;
+
+    @Schema(description = "全文检索高亮片段（字段名 -> 片段，命中词以<em>标记），仅搜索结果返回")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, String> highlights;
 }
\ No newline at end of file
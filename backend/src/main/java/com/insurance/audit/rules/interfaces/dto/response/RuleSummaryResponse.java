@@ -0,0 +1,61 @@
+package com.insurance.audit.rules.interfaces.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.insurance.audit.rules.enums.RuleAuditStatus;
+import com.insurance.audit.rules.enums.RuleEffectiveStatus;
+import com.insurance.audit.rules.enums.RuleSource;
+import com.insurance.audit.rules.enums.RuleType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 规则列表项响应DTO
+ * 仅包含列表页展示的列，规则描述、内容和配置需通过详情接口获取
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+@Data
+@Schema(description = "规则列表项响应")
+public class RuleSummaryResponse {
+
+    @Schema(description = "规则ID", example = "123e4567e89b12d3a456426614174000")
+    private String id;
+
+    @Schema(description = "规则编号", example = "R001")
+    private String ruleNumber;
+
+    @Schema(description = "规则名称", example = "保险金额限制规则")
+    private String ruleName;
+
+    @Schema(description = "规则类型", example = "SINGLE")
+    private RuleType ruleType;
+
+    @Schema(description = "规则来源", example = "SYSTEM")
+    private RuleSource ruleSource;
+
+    @Schema(description = "规则管理部门", example = "技术部门")
+    private String manageDepartment;
+
+    @Schema(description = "适用险种", example = "人寿保险")
+    private String applicableInsurance;
+
+    @Schema(description = "审核状态", example = "PENDING_TECH_EVALUATION")
+    private RuleAuditStatus auditStatus;
+
+    @Schema(description = "有效状态", example = "EFFECTIVE")
+    private RuleEffectiveStatus effectiveStatus;
+
+    @Schema(description = "是否关注")
+    private Boolean followed;
+
+    @Schema(description = "优先级", example = "1")
+    private Integer priority;
+
+    @Schema(description = "最后更新时间")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime lastUpdatedAt;
+}
@@ -2,15 +2,19 @@ package com.insurance.audit.rules.interfaces.web;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.insurance.audit.common.dto.ApiResponse;
+import com.insurance.audit.common.dto.CursorPageResponse;
 import com.insurance.audit.common.dto.PageResponse;
 import com.insurance.audit.rules.application.converter.RuleConverter;
 import com.insurance.audit.rules.application.service.RuleService;
 import com.insurance.audit.rules.domain.Rule;
+import com.insurance.audit.rules.infrastructure.search.RuleSearchHighlighter;
 import com.insurance.audit.rules.interfaces.dto.request.CreateRuleRequest;
+import com.insurance.audit.rules.interfaces.dto.request.RuleApplicabilityQuery;
 import com.insurance.audit.rules.interfaces.dto.request.RuleQueryRequest;
 import com.insurance.audit.rules.interfaces.dto.request.UpdateRuleRequest;
 import com.insurance.audit.rules.interfaces.dto.response.BatchOperationResponse;
 import com.insurance.audit.rules.interfaces.dto.response.RuleResponse;
+import com.insurance.audit.rules.interfaces.dto.response.RuleSummaryResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -41,6 +45,7 @@ public class RuleController {
 
     private final RuleService ruleService;
     private final RuleConverter ruleConverter;
+    private final RuleSearchHighlighter ruleSearchHighlighter;
 
     @GetMapping
     @Operation(summary = "分页查询规则列表", description = "根据条件分页查询规则列表")
@@ -57,14 +62,32 @@ public class RuleController {
             rulePage.getRecords().stream()
                 .map(ruleConverter::convertToResponse)
                 .toList(),
+            rulePage.getTotal(),
             rulePage.getCurrent(),
-            rulePage.getSize(),
-            rulePage.getTotal()
+            rulePage.getSize()
         );
 
         return ApiResponse.success(response);
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "游标查询规则列表",
+            description = "按最后更新时间倒序键集分页，只返回列表页精简列；翻页传入上一页的nextCursor，忽略页码和排序字段")
+    @PreAuthorize("hasAuthority('RULE_VIEW')")
+    public ApiResponse<CursorPageResponse<RuleSummaryResponse>> scrollRules(
+            @Parameter(description = "查询条件") @Valid RuleQueryRequest queryRequest,
+            @Parameter(description = "上一页返回的游标，为空时查询第一页")
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "是否返回总数（近似值）")
+            @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
+
+        log.info("游标查询规则列表，查询条件: {}, 游标: {}", queryRequest, cursor);
+
+        CursorPageResponse<Rule> rulePage = ruleService.scrollRules(queryRequest, cursor, withTotal);
+
+        return ApiResponse.success(rulePage.map(ruleConverter::convertToSummaryResponse));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "获取规则详情", description = "根据ID获取规则详情")
     @PreAuthorize("hasAuthority('RULE_VIEW')")
@@ -158,17 +181,37 @@ public class RuleController {
         return ApiResponse.success(response);
     }
 
+    @GetMapping("/applicable")
+    @Operation(summary = "查询适用规则",
+            description = "按险种、经营区域、管理部门、章节筛选适用且有效的规则，供检核作业只加载需要参与匹配的规则；多个取值以逗号分隔")
+    @PreAuthorize("hasAuthority('RULE_VIEW')")
+    public ApiResponse<List<RuleResponse>> getApplicableRules(
+            @Parameter(description = "适用性查询条件") RuleApplicabilityQuery query) {
+
+        log.info("查询适用规则，条件: {}", query);
+
+        List<RuleResponse> response = ruleService.getApplicableRules(query).stream()
+            .map(ruleConverter::convertToResponse)
+            .toList();
+
+        return ApiResponse.success(response);
+    }
+
     @GetMapping("/search")
-    @Operation(summary = "搜索规则", description = "根据关键词搜索规则")
+    @Operation(summary = "搜索规则", description = "根据关键词全文检索规则，按相关度排序并返回高亮片段")
     @PreAuthorize("hasAuthority('RULE_VIEW')")
     public ApiResponse<List<RuleResponse>> searchRules(
-            @Parameter(description = "搜索关键词") @RequestParam String keyword) {
+            @Parameter(description = "搜索关键词，多个词以空格分隔") @RequestParam String keyword) {
 
         log.info("搜索规则，关键词: {}", keyword);
 
         List<Rule> rules = ruleService.searchRules(keyword);
         List<RuleResponse> response = rules.stream()
-            .map(ruleConverter::convertToResponse)
+            .map(rule -> {
+                RuleResponse ruleResponse = ruleConverter.convertToResponse(rule);
+                ruleResponse.setHighlights(ruleSearchHighlighter.highlight(rule, keyword));
+                return ruleResponse;
+            })
             .toList();
 
         return ApiResponse.success(response);
@@ -87,18 +87,22 @@ public class RuleImportController {
     }
 
     @PostMapping
-    @Operation(summary = "批量导入规则", description = "从Excel文件批量导入规则数据")
+    @Operation(summary = "批量导入规则",
+            description = "从Excel文件批量导入规则数据；默认提交后台任务并立即返回批次ID，通过导入结果接口轮询进度")
     @PreAuthorize("hasAuthority('RULE_IMPORT')")
     public ApiResponse<ImportResultResponse> importRules(
             @Parameter(description = "Excel文件") @RequestParam("file") MultipartFile file,
             @Parameter(description = "导入模式") @RequestParam(defaultValue = "INSERT") String importMode,
             @Parameter(description = "是否跳过错误") @RequestParam(defaultValue = "false") boolean skipErrors,
-            @Parameter(description = "批次大小") @RequestParam(defaultValue = "500") int batchSize) {
+            @Parameter(description = "批次大小") @RequestParam(defaultValue = "500") int batchSize,
+            @Parameter(description = "是否异步导入") @RequestParam(defaultValue = "true") boolean async) {
 
-        log.info("批量导入规则，文件名: {}, 导入模式: {}, 跳过错误: {}, 批次大小: {}",
-                file.getOriginalFilename(), importMode, skipErrors, batchSize);
+        log.info("批量导入规则，文件名: {}, 导入模式: {}, 跳过错误: {}, 批次大小: {}, 异步: {}",
+                file.getOriginalFilename(), importMode, skipErrors, batchSize, async);
 
-        ImportResultResponse response = ruleImportService.importRules(file, importMode, skipErrors, batchSize);
+        ImportResultResponse response = async
+                ? ruleImportService.submitImport(file, importMode, skipErrors, batchSize)
+                : ruleImportService.importRules(file, importMode, skipErrors, batchSize);
 
         return ApiResponse.success(response);
     }
@@ -132,7 +136,7 @@ public class RuleImportController {
     }
 
     @GetMapping("/result/{batchId}")
-    @Operation(summary = "获取导入结果", description = "根据批次ID获取导入结果详情")
+    @Operation(summary = "获取导入结果", description = "根据批次ID获取导入结果详情，异步导入时用于轮询进度")
     @PreAuthorize("hasAuthority('RULE_IMPORT')")
     public ApiResponse<ImportResultResponse> getImportResult(
             @Parameter(description = "批次ID") @PathVariable String batchId) {
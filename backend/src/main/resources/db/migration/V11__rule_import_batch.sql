@@ -0,0 +1,35 @@
+-- =====================================================
+-- 保险产品智能检核系统 - 规则批量导入批次表
+-- Version: V11__rule_import_batch.sql
+-- Description: 记录规则导入批次及其提交检查点，导入按批提交，中断后可从检查点续导
+-- =====================================================
+
+-- 设置字符集和排序规则
+SET NAMES utf8mb4;
+
+-- =====================================================
+-- 1. 规则导入批次表 (rule_import_batch)
+-- =====================================================
+CREATE TABLE IF NOT EXISTS `rule_import_batch` (
+  `batch_id` varchar(64) NOT NULL COMMENT '批次ID',
+  `file_name` varchar(255) COMMENT '文件名',
+  `file_hash` char(64) NOT NULL COMMENT '文件SHA-256摘要，用于识别重复上传的同一文件',
+  `file_size` bigint COMMENT '文件大小（字节）',
+  `rule_type` varchar(20) NOT NULL COMMENT '规则类型：SINGLE/DOUBLE/FORMAT/ADVANCED',
+  `import_mode` varchar(20) NOT NULL DEFAULT 'INSERT' COMMENT '导入模式',
+  `skip_errors` tinyint(1) NOT NULL DEFAULT 0 COMMENT '是否跳过错误行',
+  `batch_size` int NOT NULL COMMENT '每批提交行数',
+  `status` varchar(20) NOT NULL COMMENT '状态：PROCESSING/SUCCESS/PARTIAL_SUCCESS/FAILED',
+  `next_row` int NOT NULL DEFAULT 1 COMMENT '检查点：下一个未提交的工作表行号（从0开始）',
+  `total_rows` int COMMENT '数据总行数，导入结束时写入',
+  `success_rows` int NOT NULL DEFAULT 0 COMMENT '已提交的成功行数',
+  `failed_rows` int NOT NULL DEFAULT 0 COMMENT '已处理的失败行数',
+  `error_message` text COMMENT '失败原因',
+  `operator_id` varchar(32) COMMENT '操作人ID',
+  `started_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '开始时间',
+  `finished_at` datetime COMMENT '结束时间',
+  `updated_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`batch_id`),
+  KEY `idx_file_hash_status` (`file_hash`, `status`),
+  KEY `idx_started_at` (`started_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='规则导入批次表';
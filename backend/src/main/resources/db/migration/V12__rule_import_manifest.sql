@@ -0,0 +1,30 @@
+-- =====================================================
+-- 保险产品智能检核系统 - 规则导入批次清单
+-- Version: V12__rule_import_manifest.sql
+-- Description: 记录每个导入批次插入的规则ID，支持按批次回滚；批次表增加错误明细和回滚信息
+-- =====================================================
+
+-- 设置字符集和排序规则
+SET NAMES utf8mb4;
+
+-- =====================================================
+-- 1. 规则导入批次清单表 (rule_import_item)
+-- 与规则在同一事务中写入，回滚时按批次ID一条语句删除
+-- =====================================================
+CREATE TABLE IF NOT EXISTS `rule_import_item` (
+  `batch_id` varchar(64) NOT NULL COMMENT '批次ID',
+  `row_num` int NOT NULL COMMENT 'Excel行号（从1开始）',
+  `rule_id` varchar(32) NOT NULL COMMENT '插入的规则ID',
+  `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`batch_id`, `row_num`),
+  KEY `idx_rule_id` (`rule_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='规则导入批次清单表';
+
+-- =====================================================
+-- 2. 规则导入批次表增加错误明细和回滚信息
+-- =====================================================
+ALTER TABLE `rule_import_batch`
+  ADD COLUMN `error_details` mediumtext COMMENT '错误明细（JSON数组，最多1000条）' AFTER `error_message`,
+  ADD COLUMN `rollback_reason` varchar(500) COMMENT '回滚原因' AFTER `error_details`,
+  ADD COLUMN `rolled_back_rows` int COMMENT '回滚删除的规则数' AFTER `rollback_reason`,
+  ADD COLUMN `rolled_back_at` datetime COMMENT '回滚时间' AFTER `rolled_back_rows`;
@@ -0,0 +1,28 @@
+-- =====================================================
+-- 保险产品智能检核系统 - 规则全文检索索引
+-- Version: V13__rule_fulltext_ngram.sql
+-- Description: 以 ngram 分词的 FULLTEXT 索引替代规则搜索中的三列 LIKE '%kw%' 全表扫描
+-- =====================================================
+
+-- 设置字符集和排序规则
+SET NAMES utf8mb4;
+
+-- =====================================================
+-- 1. 规则内容检索文本
+-- rule_content 为 JSON 列，不能建 FULLTEXT 索引；生成列取 JSON 各顶层取值的文本，
+-- 随规则的新增、修改、删除由 InnoDB 在同一事务中维护，无需应用层同步
+-- =====================================================
+ALTER TABLE `rule`
+  ADD COLUMN `rule_search_text` mediumtext
+    GENERATED ALWAYS AS (CAST(COALESCE(JSON_EXTRACT(`rule_content`, '$.*'), `rule_content`) AS CHAR)) STORED
+    COMMENT '全文检索用的规则内容文本（由rule_content生成）';
+
+-- =====================================================
+-- 2. ngram 全文索引
+-- V5 的 ft_rule_content 使用默认分词器，按空格和标点切词，对中文无效；
+-- ngram 分词按 ngram_token_size（默认2）切分，短于该长度的关键词由应用回退到 LIKE 查询
+-- =====================================================
+ALTER TABLE `rule` DROP INDEX `ft_rule_content`;
+
+ALTER TABLE `rule`
+  ADD FULLTEXT INDEX `ft_rule_search` (`rule_name`, `rule_description`, `rule_search_text`) WITH PARSER ngram;
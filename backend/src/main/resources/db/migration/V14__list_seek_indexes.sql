@@ -0,0 +1,28 @@
+-- =====================================================
+-- 保险产品智能检核系统 - 列表键集分页索引
+-- Version: V14__list_seek_indexes.sql
+-- Description: 规则和产品列表按 (时间, 主键) 倒序游标翻页使用的索引
+-- =====================================================
+
+-- 设置字符集和排序规则
+SET NAMES utf8mb4;
+
+-- =====================================================
+-- 1. 规则列表：删除状态 + 最后更新时间 + 主键
+-- 现有 idx_rule_composite_time 在 last_updated_at 之后是 created_at，
+-- 无法按 (last_updated_at, id) 有序定位游标
+-- =====================================================
+CREATE INDEX `idx_rule_seek` ON `rule` (
+    `is_deleted`,
+    `last_updated_at`,
+    `id`
+);
+
+-- =====================================================
+-- 2. 产品列表：删除状态 + 创建时间 + 主键
+-- =====================================================
+CREATE INDEX `idx_products_seek` ON `products` (
+    `is_deleted`,
+    `created_at`,
+    `id`
+);
@@ -0,0 +1,32 @@
+-- =====================================================
+-- 保险产品智能检核系统 - 规则统计汇总表
+-- Version: V15__rule_statistics.sql
+-- Description: 按 (规则类型, 审核状态, 有效状态, 管理部门) 维护未删除规则数，
+--              规则增删和状态变更时在同一事务中增量更新，后台任务定期与规则表对账
+-- =====================================================
+
+-- 设置字符集和排序规则
+SET NAMES utf8mb4;
+
+-- =====================================================
+-- 1. 规则统计汇总表 (rule_statistics)
+-- 管理部门为空时记为空字符串
+-- =====================================================
+CREATE TABLE IF NOT EXISTS `rule_statistics` (
+  `rule_type` varchar(20) NOT NULL COMMENT '规则类型',
+  `audit_status` varchar(30) NOT NULL COMMENT '审核状态',
+  `effective_status` varchar(20) NOT NULL COMMENT '有效状态',
+  `manage_department` varchar(100) NOT NULL DEFAULT '' COMMENT '规则管理部门',
+  `rule_count` bigint NOT NULL DEFAULT 0 COMMENT '未删除规则数',
+  `updated_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`rule_type`, `audit_status`, `effective_status`, `manage_department`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='规则统计汇总表';
+
+-- =====================================================
+-- 2. 按现有规则初始化
+-- =====================================================
+INSERT INTO `rule_statistics` (`rule_type`, `audit_status`, `effective_status`, `manage_department`, `rule_count`)
+SELECT `rule_type`, `audit_status`, `effective_status`, COALESCE(`manage_department`, ''), COUNT(*)
+FROM `rule`
+WHERE `is_deleted` = 0
+GROUP BY `rule_type`, `audit_status`, `effective_status`, COALESCE(`manage_department`, '');
@@ -0,0 +1,86 @@
+package com.insurance.audit.audit.llm;
+
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.service.TokenBudget;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * LLM 执行规划器测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@DisplayName("LLM 执行规划器测试")
+class LLMExecutionPlannerTest {
+
+    private final LLMExecutionPlanner planner = new LLMExecutionPlanner();
+
+    private final LLMExecutionPlanner.CostModel cost = LLMExecutionPlanner.CostModel.builder()
+            .directFixedTokens(1100)
+            .understandTokens(600)
+            .groupFixedTokens(5000)
+            .groupWindowTokens(3000)
+            .build();
+
+    @Test
+    @DisplayName("预算充足时保持首选模式并按窗口分组")
+    void plan_KeepsPreferredModeWithinBudget() {
+        LLMExecutionPlanner.Plan plan = planner.plan(LLMExecutionPlanner.CHAIN_OF_THOUGHT, false, chunks(6, 1000),
+                chunk -> true, cost, Long.MAX_VALUE, Long.MAX_VALUE, 4);
+
+        assertThat(plan.getMode()).isEqualTo(LLMExecutionPlanner.CHAIN_OF_THOUGHT);
+        assertThat(plan.isDowngraded()).isFalse();
+        assertThat(plan.getChunkGroups()).hasSize(2);
+        assertThat(plan.getEstimatedTokens()).isEqualTo(6000 + 600 + 2 * 5000);
+    }
+
+    @Test
+    @DisplayName("预算不足时降级为直推，直推仍不足时按顺序跳过文档块")
+    void plan_DowngradesAndTruncatesUnderTightBudget() {
+        List<DocumentChunk> chunks = chunks(6, 1000);
+
+        LLMExecutionPlanner.Plan downgraded = planner.plan(LLMExecutionPlanner.CHAIN_OF_THOUGHT, false, chunks,
+                chunk -> true, cost, 13000, Long.MAX_VALUE, 4);
+        assertThat(downgraded.getMode()).isEqualTo(LLMExecutionPlanner.DIRECT_PROMPT);
+        assertThat(downgraded.isDowngraded()).isTrue();
+        assertThat(downgraded.getEstimatedTokens()).isEqualTo(6 * 2100);
+
+        LLMExecutionPlanner.Plan truncated = planner.plan(LLMExecutionPlanner.CHAIN_OF_THOUGHT, false, chunks,
+                chunk -> true, cost, 5000, Long.MAX_VALUE, 4);
+        assertThat(truncated.getDirectChunks()).extracting(DocumentChunk::getId).containsExactly("chunk-0", "chunk-1");
+        assertThat(truncated.getSkippedChunks()).hasSize(4);
+        assertThat(truncated.getReason()).isEqualTo("token 预算不足");
+    }
+
+    @Test
+    @DisplayName("预留按实际用量结算，关闭后归还剩余额度")
+    void tokenBudget_ReservationSettlesOnClose() {
+        TokenBudget budget = TokenBudget.of(1000);
+
+        TokenBudget.Reservation reservation = budget.tryReserve(600);
+        assertThat(budget.tryReserve(500)).isNull();
+        reservation.consume(200);
+        assertThat(budget.remainingTokens()).isEqualTo(400);
+
+        reservation.close();
+        assertThat(budget.remainingTokens()).isEqualTo(800);
+        assertThat(budget.getReservedTokens()).isZero();
+        assertThat(budget.getConsumedTokens()).isEqualTo(200);
+        assertThat(budget.getLlmCalls()).isEqualTo(1);
+    }
+
+    private static List<DocumentChunk> chunks(int count, int length) {
+        List<DocumentChunk> chunks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            chunks.add(DocumentChunk.builder().id("chunk-" + i).text("保".repeat(length)).build());
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,79 @@
+package com.insurance.audit.audit.matchers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 格式校验器测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@DisplayName("格式校验器测试")
+class FormatValidatorsTest {
+
+    @Test
+    @DisplayName("身份证校验出生日期和校验码")
+    void isValidIdCard_ChecksBirthDateAndChecksum() {
+        assertThat(valid("11010519491231002X")).isTrue();
+        assertThat(valid("110105194912310021")).isFalse();
+        assertThat(valid("110105194902300023")).isFalse();
+        assertThat(valid("110105491231002")).isTrue();
+        assertThat(valid("010105194912310021")).isFalse();
+    }
+
+    @Test
+    @DisplayName("金额要求千分位分组和两位小数")
+    void isValidMoney_RequiresGroupingAndTwoDecimals() {
+        assertThat(FormatValidators.isValidMoney("1,000.00", 0, 8)).isTrue();
+        assertThat(FormatValidators.isValidMoney("-999", 0, 4)).isTrue();
+        assertThat(FormatValidators.isValidMoney("1000", 0, 4)).isFalse();
+        assertThat(FormatValidators.isValidMoney("1,00", 0, 4)).isFalse();
+        assertThat(FormatValidators.isValidMoney("1.5", 0, 3)).isFalse();
+    }
+
+    @Test
+    @DisplayName("邮箱与电话按原文区间校验")
+    void isValidEmailAndPhone_WorkOnRanges() {
+        String text = "联系 a.b@ex-ample.com 或 138 1234 5678，固话010-12345678";
+        int emailStart = text.indexOf("a.b");
+        assertThat(FormatValidators.isValidEmail(text, emailStart, emailStart + "a.b@ex-ample.com".length())).isTrue();
+        assertThat(FormatValidators.isValidEmail("a@b", 0, 3)).isFalse();
+
+        int mobileStart = text.indexOf("138");
+        assertThat(FormatValidators.isValidPhone(text, mobileStart, mobileStart + 13)).isTrue();
+        int landlineStart = text.indexOf("010");
+        assertThat(FormatValidators.isValidPhone(text, landlineStart, landlineStart + 12)).isTrue();
+        assertThat(FormatValidators.isValidPhone("12812345678", 0, 11)).isFalse();
+    }
+
+    @Test
+    @DisplayName("日期候选识别后按缓存的格式化器严格解析")
+    void isValidDate_UsesStrictCachedFormatter() {
+        String text = "生效日期2024-02-29，失效2023-02-29，签署2024年1月5日";
+        DateTimeFormatter iso = FormatValidators.dateFormatter("YYYY-MM-DD");
+        assertThat(FormatValidators.dateFormatter("YYYY-MM-DD")).isSameAs(iso);
+
+        int leap = text.indexOf("2024-02-29");
+        assertThat(FormatValidators.dateCandidateEnd(text, leap)).isEqualTo(leap + 10);
+        assertThat(FormatValidators.isValidDate(text, leap, leap + 10, iso)).isTrue();
+
+        int invalid = text.indexOf("2023-02-29");
+        assertThat(FormatValidators.isValidDate(text, invalid, invalid + 10, iso)).isFalse();
+
+        int chinese = text.indexOf("2024年");
+        int end = FormatValidators.dateCandidateEnd(text, chinese);
+        assertThat(text.substring(chinese, end)).isEqualTo("2024年1月5日");
+        assertThat(FormatValidators.isValidDate(text, chinese, end, FormatValidators.dateFormatter("YYYY年MM月DD日"))).isTrue();
+        assertThat(FormatValidators.isValidDate(text, chinese, end, iso)).isFalse();
+    }
+
+    private static boolean valid(String idCard) {
+        return FormatValidators.isValidIdCard(idCard, 0, idCard.length());
+    }
+}
@@ -0,0 +1,101 @@
+package com.insurance.audit.audit.retrieval;
+
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.service.RuleProvider.Rule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * BM25 倒排索引测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@DisplayName("BM25 倒排索引测试")
+class LexicalIndexTest {
+
+    @Test
+    @DisplayName("检索按 BM25 得分排序且可限定文档")
+    void search_RanksByBm25WithinDocument() {
+        LexicalIndex index = new LexicalIndex();
+        index.addDocument("doc-1", chunks(
+                "本合同的保险期间为一年。",
+                "被保险人在等待期内因疾病发生保险事故的，本公司不承担保险责任。等待期为九十日。",
+                "投保人应当如实告知。"));
+        index.addDocument("doc-2", chunks("等待期内发生的事故不予赔付。"));
+
+        List<LexicalIndex.ScoredChunk> hits = index.search(BigramAnalyzer.distinctTerms("等待期"), "doc-1", 10);
+
+        assertThat(hits).extracting(LexicalIndex.ScoredChunk::getChunkId).containsExactly("chunk-1");
+        assertThat(hits.get(0).getPosition()).isEqualTo(1);
+        assertThat(index.search(BigramAnalyzer.distinctTerms("等待期"), null, 10)).hasSize(2);
+        assertThat(index.search(BigramAnalyzer.distinctTerms("等待期"), "doc-404", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("关键词预筛选不遗漏包含关键词的文档块")
+    void select_KeywordPrefilterIsLossless() {
+        List<DocumentChunk> chunks = chunks(
+                "犹豫期为十五日。",
+                "犹豫期内解除合同的，本公司退还保险费。",
+                "犹豫，期满后解除合同的，退还现金价值。",
+                "保险期间为终身。");
+        Rule rule = Rule.builder()
+                .id("rule-1")
+                .type("KEYWORD")
+                .parameters(Map.of("matchType", "KEYWORD", "keywords", List.of("犹豫期", "现金价值")))
+                .build();
+
+        List<DocumentChunk> selected = new HybridRetriever().prepare(null, chunks).select(rule);
+
+        assertThat(selected).extracting(DocumentChunk::getId).containsExactly("chunk-0", "chunk-1", "chunk-2");
+        Rule singleChar = Rule.builder()
+                .id("rule-2")
+                .type("KEYWORD")
+                .parameters(Map.of("keywords", List.of("期")))
+                .build();
+        assertThat(new HybridRetriever().prepare(null, chunks).select(singleChar)).isSameAs(chunks);
+    }
+
+    @Test
+    @DisplayName("删除文档后写出并读回，检索结果不变")
+    void writeTo_RoundTripsAfterRemoval() throws IOException {
+        LexicalIndex index = new LexicalIndex();
+        index.addDocument("doc-1", chunks("身故保险金按基本保险金额给付。", "全残保险金。"));
+        index.addDocument("doc-2", chunks("重大疾病保险金按基本保险金额给付。"));
+        index.addDocument("doc-3", chunks("身故或全残的，合同终止。"));
+        assertThat(index.removeDocument("doc-1")).isTrue();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+        LexicalIndex loaded = LexicalIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        int[] query = BigramAnalyzer.distinctTerms("身故保险金");
+        assertThat(loaded.getDocumentIds()).containsExactly("doc-2", "doc-3");
+        assertThat(loaded.search(query, null, 10)).isEqualTo(index.search(query, null, 10));
+        BitSet matched = loaded.containingAll(BigramAnalyzer.distinctTerms("身故"), "doc-3");
+        assertThat(matched.stream().toArray()).containsExactly(0);
+        assertThat(loaded.containsDocument("doc-1")).isFalse();
+    }
+
+    private static List<DocumentChunk> chunks(String... texts) {
+        List<DocumentChunk> chunks = new ArrayList<>();
+        for (int i = 0; i < texts.length; i++) {
+            chunks.add(DocumentChunk.builder().id("chunk-" + i).text(texts[i]).build());
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,122 @@
+package com.insurance.audit.audit.retrieval;
+
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.service.RuleProvider.Rule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 章节索引测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@DisplayName("章节索引测试")
+class SectionIndexTest {
+
+    /**
+     * 0 第一章 总则(1) / 1 正文 / 2 第一节 投保范围(2) / 3 正文 / 4 第二章 保险责任(1) / 5 正文 / 6 表格行 /
+     * 7 第三章 责任免除条款(1) / 8 正文
+     */
+    private final List<DocumentChunk> chunks = List.of(
+            heading(0, "第一章　总则", 1),
+            text(1, "本保险合同由保险条款、投保单组成。"),
+            heading(2, "第一节 投保范围", 2),
+            text(3, "凡从事养殖的农户均可作为被保险人。"),
+            heading(4, "第二章 保险责任", 1),
+            text(5, "因下列原因造成保险牲畜死亡的，保险人负责赔偿。"),
+            text(6, "疾病\t口蹄疫"),
+            heading(7, "第三章：责任免除条款", null),
+            text(8, "被保险人的故意行为不属于保险责任。"));
+
+    @Test
+    @DisplayName("按标题级别建立章节树，章节区间覆盖子章节")
+    void of_BuildsChapterTree() {
+        SectionIndex index = SectionIndex.of(chunks);
+
+        assertThat(index.getChapters()).extracting(SectionIndex.Chapter::getTitle)
+                .containsExactly("第一章　总则", "第一节 投保范围", "第二章 保险责任", "第三章：责任免除条款");
+        SectionIndex.Chapter general = index.getChapters().get(0);
+        assertThat(general.getFrom()).isEqualTo(0);
+        assertThat(general.getTo()).isEqualTo(4);
+        assertThat(general.getChildren()).extracting(SectionIndex.Chapter::getNormalizedTitle).containsExactly("投保范围");
+        assertThat(index.getChapters().get(1).getPath()).containsExactly("第一章　总则", "第一节 投保范围");
+        SectionIndex.Chapter exclusions = index.getChapters().get(3);
+        assertThat(exclusions.getLevel()).isEqualTo(1);
+        assertThat(exclusions.getFrom()).isEqualTo(7);
+        assertThat(exclusions.getTo()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("按规范化标题、编号或标题包含查找章节")
+    void resolve_MatchesTitleNumberOrContainment() {
+        SectionIndex index = SectionIndex.of(chunks);
+
+        assertThat(index.resolve("保险责任")).extracting(SectionIndex.Chapter::getFrom).containsExactly(4);
+        assertThat(index.resolve("第2章")).extracting(SectionIndex.Chapter::getFrom).containsExactly(4);
+        assertThat(index.resolve("第 一 章")).extracting(SectionIndex.Chapter::getFrom).containsExactly(0);
+        assertThat(index.resolve("第二章 保险责任")).extracting(SectionIndex.Chapter::getFrom).containsExactly(4);
+        assertThat(index.resolve("责任免除")).extracting(SectionIndex.Chapter::getFrom).containsExactly(7);
+        assertThat(index.resolve("第九章")).isEmpty();
+        assertThat(SectionIndex.numberOf("第十二章 附则")).isEqualTo("第12章");
+        assertThat(SectionIndex.normalizeTitle("（一）保险金额")).isEqualTo("保险金额");
+    }
+
+    @Test
+    @DisplayName("章节都找不到或指定全文时不缩小范围")
+    void chunksOf_FallsBackToWholeDocument() {
+        SectionIndex index = SectionIndex.of(chunks);
+
+        assertThat(index.chunksOf(List.of("保险责任、第一节")).stream().toArray()).containsExactly(2, 3, 4, 5, 6);
+        assertThat(index.chunksOf(List.of("不存在的章节"))).isNull();
+        assertThat(index.chunksOf(List.of("全文"))).isNull();
+        assertThat(SectionIndex.of(List.of(text(0, "无标题文档。"))).chunksOf(List.of("保险责任"))).isNull();
+    }
+
+    @Test
+    @DisplayName("候选选择：单句规则只匹配所在章节，双句规则取两个章节的并集")
+    void select_ScopesRulesToChapters() {
+        HybridRetriever.CandidateSelector selector = new HybridRetriever().prepare(null, chunks);
+        Rule single = Rule.builder()
+                .id("rule-1")
+                .type("SINGLE")
+                .parameters(Map.of("matchChapter", "责任免除", "keywords", List.of("保险责任")))
+                .build();
+        Rule doubleRule = Rule.builder()
+                .id("rule-2")
+                .type("DOUBLE")
+                .parameters(Map.of("matchChapterA", "第一节", "matchChapterB", "第三章",
+                        "matchType", "COMBINATION"))
+                .build();
+
+        assertThat(selector.select(single)).extracting(DocumentChunk::getId).containsExactly("chunk-8");
+        assertThat(selector.select(doubleRule)).extracting(DocumentChunk::getId)
+                .containsExactly("chunk-2", "chunk-3", "chunk-7", "chunk-8");
+
+        HybridRetriever disabled = new HybridRetriever();
+        ReflectionTestUtils.setField(disabled, "enabled", false);
+        assertThat(disabled.prepare(null, chunks).select(single)).isSameAs(chunks);
+    }
+
+    private static DocumentChunk heading(int position, String text, Integer level) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("sectionType", "heading");
+        if (level != null) {
+            metadata.put(SectionIndex.HEADING_LEVEL_KEY, level);
+        }
+        return DocumentChunk.builder().id("chunk-" + position).text(text).type("heading").metadata(metadata).build();
+    }
+
+    private static DocumentChunk text(int position, String text) {
+        return DocumentChunk.builder().id("chunk-" + position).text(text).type("sentence")
+                .metadata(Map.of("sectionType", "paragraph")).build();
+    }
+}
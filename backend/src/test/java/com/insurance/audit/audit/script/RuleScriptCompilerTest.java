@@ -0,0 +1,123 @@
+package com.insurance.audit.audit.script;
+
+import com.insurance.audit.audit.matchers.Matcher.MatchResult;
+import com.insurance.audit.audit.matchers.ScriptMatcher;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.service.RuleProvider.Rule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 规则脚本编译器测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@DisplayName("规则脚本编译器测试")
+class RuleScriptCompilerTest {
+
+    private static final DocumentChunk CHUNK = DocumentChunk.builder()
+            .id("chunk-3")
+            .text("等待期为90日，保险金额不超过50,000元。")
+            .type("sentence")
+            .paragraphIndex(3)
+            .build();
+
+    @Test
+    @DisplayName("求值：文本函数、字段、运算符和三元表达式，常量子表达式编译期求值")
+    void evaluate_SupportsFunctionsFieldsAndOperators() {
+        assertThat(eval("contains(text, '等待期') && number(text) <= 180")).isEqualTo(true);
+        assertThat(eval("between(number(substring(text, 13)), 10000, 50000)")).isEqualTo(true);
+        assertThat(eval("matches(text, '等待期为\\\\d+日') and not containsAny(text, ['免赔', '除外'])")).isEqualTo(true);
+        assertThat(eval("fields.保险期间 >= 1 ? '长期' : '短期'")).isEqualTo("长期");
+        assertThat(eval("in(field('产品性质'), ['政策性', '商业性']) && chunk.index == 3 && chunks.count == 1"))
+                .isEqualTo(true);
+        assertThat(eval("fields.不存在 > 1 || length(params.keywords) == 2")).isEqualTo(true);
+        assertThat(eval("'第' + (1 + 2) + '条'")).isEqualTo("第3条");
+
+        assertThat(RuleScriptCompiler.compile("length('保险') * 2 + 1 > 4").isConstant()).isTrue();
+        assertThat(RuleScriptCompiler.compile("contains(text, '保险')").isConstant()).isFalse();
+    }
+
+    @Test
+    @DisplayName("编译错误带出错位置，未知变量、函数和错误的正则在编译期发现")
+    void compile_RejectsInvalidScripts() {
+        assertThatThrownBy(() -> RuleScriptCompiler.compile("contains(txt, '保险')"))
+                .isInstanceOf(ScriptException.class)
+                .hasMessageContaining("未知变量: txt")
+                .extracting("position").isEqualTo(9);
+        assertThatThrownBy(() -> RuleScriptCompiler.compile("exec('rm')"))
+                .hasMessageContaining("未知函数: exec");
+        assertThatThrownBy(() -> RuleScriptCompiler.compile("matches(text, '(')"))
+                .hasMessageContaining("正则表达式错误");
+        assertThatThrownBy(() -> RuleScriptCompiler.compile("contains(text)"))
+                .hasMessageContaining("参数个数应为 2");
+        assertThatThrownBy(() -> RuleScriptCompiler.compile("1 / 0 > 1"))
+                .hasMessageContaining("除数为0");
+        assertThatThrownBy(() -> RuleScriptCompiler.compile("!".repeat(100) + "true"))
+                .hasMessageContaining("嵌套过深");
+        assertThatThrownBy(() -> RuleScriptCompiler.compile("text == 'a' 'b'"))
+                .extracting("kind").isEqualTo(ScriptException.Kind.COMPILE);
+    }
+
+    @Test
+    @DisplayName("回溯失控的正则和超量分配被预算终止")
+    void evaluate_EnforcesBudgets() {
+        DocumentChunk chunk = DocumentChunk.builder().id("chunk-0").text("a".repeat(30) + "c").build();
+        RuleScript backtracking = RuleScriptCompiler.compile("matches(text, '(.*a){30}')");
+        ScriptContext context = new ScriptContext(List.of(chunk), Map.of(), Map.of(), Map.of(),
+                new ScriptBudget(100_000, 10_000, 1_000));
+        context.moveTo(chunk, 0);
+
+        assertThatThrownBy(() -> backtracking.test(context))
+                .isInstanceOf(ScriptException.class)
+                .extracting("kind").isEqualTo(ScriptException.Kind.BUDGET_EXCEEDED);
+
+        RuleScript allocating = RuleScriptCompiler.compile("length(lower(text) + upper(text)) > 0");
+        ScriptContext small = new ScriptContext(List.of(chunk), Map.of(), Map.of(), Map.of(),
+                new ScriptBudget(100_000, 10_000, 40));
+        small.moveTo(chunk, 0);
+        assertThatThrownBy(() -> allocating.test(small)).hasMessageContaining("内存分配上限");
+    }
+
+    @Test
+    @DisplayName("脚本匹配器：按规则缓存编译结果，脚本变化时重新编译，编译失败返回错误结果")
+    void scriptMatcher_CachesCompiledScriptsPerRuleVersion() {
+        ScriptMatcher matcher = new ScriptMatcher();
+        List<DocumentChunk> chunks = List.of(CHUNK, DocumentChunk.builder().id("chunk-4").text("犹豫期").build());
+        Rule v1 = rule("contains(text, '犹豫期')", null);
+        Rule v2 = rule("matchCount('R0') > 0 && contains(text, '等待期')", "{\"status\": \"warning\"}");
+        MatchResult prior = MatchResult.builder().ruleId("R0").chunkId("chunk-3").build();
+
+        assertThat(matcher.match(v1, chunks)).extracting(MatchResult::getChunkId).containsExactly("chunk-4");
+        assertThat(matcher.match(v1, chunks)).hasSize(1);
+        List<MatchResult> results = matcher.match(v2, chunks,
+                new ScriptMatcher.ScriptInput(chunks, Map.of(), Map.of("R0", List.of(prior))));
+        assertThat(results).extracting(MatchResult::getChunkId).containsExactly("chunk-3");
+        assertThat(results.get(0).getStatus()).isEqualTo("WARNING");
+        assertThat(matcher.getStats().getCompilations()).isEqualTo(2L);
+
+        List<MatchResult> broken = matcher.match(rule("contains(text,", null), chunks);
+        assertThat(broken).singleElement().extracting(MatchResult::getStatus).isEqualTo("ERROR");
+    }
+
+    private static Object eval(String source) {
+        ScriptContext context = new ScriptContext(List.of(CHUNK), Map.of("保险期间", 5, "产品性质", "政策性"),
+                Map.of("keywords", List.of("等待期", "保险金额")), Map.of(), new ScriptBudget(100_000, 1_000, 10_000));
+        context.moveTo(CHUNK, CHUNK.getParagraphIndex());
+        return RuleScriptCompiler.compile(source).evaluate(context);
+    }
+
+    private static Rule rule(String script, String config) {
+        Map<String, Object> parameters = config != null
+                ? Map.of(ScriptMatcher.SCRIPT_PARAMETER, script, ScriptMatcher.CONFIG_PARAMETER, config)
+                : Map.of(ScriptMatcher.SCRIPT_PARAMETER, script);
+        return Rule.builder().id("S1").type("ADVANCED").parameters(parameters).build();
+    }
+}
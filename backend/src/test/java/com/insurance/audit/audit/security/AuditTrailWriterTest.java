@@ -0,0 +1,126 @@
+package com.insurance.audit.audit.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 审计轨迹写入器测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@DisplayName("审计轨迹写入器测试")
+class AuditTrailWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AuditTrailWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new AuditTrailWriter();
+        ReflectionTestUtils.setField(writer, "directory", tempDir.toString());
+        ReflectionTestUtils.setField(writer, "bufferSize", 1024);
+        ReflectionTestUtils.setField(writer, "batchSize", 64);
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 10L);
+        ReflectionTestUtils.setField(writer, "offerTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(writer, "segmentMaxBytes", 64L * 1024 * 1024);
+        ReflectionTestUtils.setField(writer, "retentionDays", 0);
+    }
+
+    @Test
+    @DisplayName("多线程追加后按序列号连续落盘")
+    void append_ConcurrentProducersWrittenInSequence() throws Exception {
+        writer.start();
+
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int producerId = t;
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    writer.append("SYSTEM_EVENT", Map.of("producer", producerId, "index", i));
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        writer.stop();
+
+        List<String> lines = readAllSegments();
+        assertThat(lines).hasSize(8000);
+        for (int i = 0; i < lines.size(); i++) {
+            assertThat(lines.get(i)).startsWith("{\"seq\":" + i + ",");
+        }
+
+        AuditTrailWriter.WriterStats stats = writer.getWriterStats();
+        assertThat(stats.getWrittenEvents()).isEqualTo(8000L);
+        assertThat(stats.getPendingEvents()).isZero();
+        assertThat(stats.getDroppedEvents()).isZero();
+    }
+
+    @Test
+    @DisplayName("段文件大小按UTF-8编码字节数计算，中文内容同样按上限切换段文件")
+    void append_RotatesSegmentsByEncodedBytes() throws Exception {
+        ReflectionTestUtils.setField(writer, "segmentMaxBytes", 1000L);
+        writer.start();
+
+        for (int i = 0; i < 40; i++) {
+            writer.append("SYSTEM_EVENT", Map.of("text", "被保险人在等待期内因疾病身故的，本公司不承担保险责任".repeat(3)));
+        }
+        writer.stop();
+
+        List<String> lines = readAllSegments();
+        assertThat(lines).hasSize(40);
+        long maxLineBytes = lines.stream()
+                .mapToLong(line -> line.getBytes(StandardCharsets.UTF_8).length + 1L)
+                .max().orElseThrow();
+        try (Stream<Path> files = Files.list(tempDir)) {
+            for (Path segment : files.toList()) {
+                assertThat(Files.size(segment)).isLessThan(1000L + maxLineBytes);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("按整段文件清理过期日志")
+    void purgeSegmentsOlderThan_DeletesWholeSegments() throws Exception {
+        Files.createFile(tempDir.resolve("audit-trail-20000101.000.log"));
+        Files.createFile(tempDir.resolve("audit-trail-20000101.001.log"));
+        Path current = Files.createFile(tempDir.resolve("audit-trail-99991231.000.log"));
+
+        int deleted = writer.purgeSegmentsOlderThan(30);
+
+        assertThat(deleted).isEqualTo(2);
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files).containsExactly(current);
+        }
+    }
+
+    private List<String> readAllSegments() throws Exception {
+        List<String> lines = new ArrayList<>();
+        try (Stream<Path> files = Files.list(tempDir)) {
+            for (Path segment : files.sorted().toList()) {
+                lines.addAll(Files.readAllLines(segment));
+            }
+        }
+        return lines;
+    }
+}
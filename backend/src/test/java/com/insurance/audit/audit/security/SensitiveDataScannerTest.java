@@ -0,0 +1,119 @@
+package com.insurance.audit.audit.security;
+
+import com.insurance.audit.audit.security.SensitiveDataScanner.RedactionResult;
+import com.insurance.audit.audit.security.SensitiveDataScanner.RedactionSpan;
+import com.insurance.audit.audit.security.SensitiveDataScanner.SensitiveDataType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 敏感数据扫描器测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@DisplayName("敏感数据扫描器测试")
+class SensitiveDataScannerTest {
+
+    private SensitiveDataScanner scanner;
+
+    @BeforeEach
+    void setUp() {
+        scanner = new SensitiveDataScanner();
+    }
+
+    @Test
+    @DisplayName("单遍识别四类敏感数据")
+    void redact_AllTypes() {
+        String text = "投保人身份证440308199901011234，手机13812345678，邮箱zhang.san@example.com，卡号4111111111111111。";
+
+        RedactionResult result = scanner.redact(text);
+
+        assertThat(result.getRedactedText()).isEqualTo(
+                "投保人身份证***身份证号***，手机***电话号码***，邮箱***邮箱地址***，卡号***银行卡号***。");
+        assertThat(result.getSpans()).extracting(RedactionSpan::getType).containsExactly(
+                SensitiveDataType.ID_CARD, SensitiveDataType.PHONE,
+                SensitiveDataType.EMAIL, SensitiveDataType.BANK_CARD);
+        assertThat(result.getRedactedLength()).isEqualTo(result.getRedactedText().length());
+    }
+
+    @Test
+    @DisplayName("末位X的身份证号")
+    void redact_IdCardWithCheckCodeX() {
+        RedactionResult result = scanner.redact("证件号11010519491231002x");
+
+        assertThat(result.getRedactedText()).isEqualTo("证件号***身份证号***");
+    }
+
+    @Test
+    @DisplayName("校验位不通过的数字串不脱敏")
+    void redact_InvalidChecksumsAreKept() {
+        String text = "保单号110105194912310021，流水号4111111111111112";
+
+        RedactionResult result = scanner.redact(text);
+
+        assertThat(result.hasRedactions()).isFalse();
+        assertThat(result.getRedactedText()).isSameAs(text);
+    }
+
+    @Test
+    @DisplayName("关闭校验时按长度识别")
+    void redact_WithoutChecksumValidation() {
+        SensitiveDataScanner lenient = new SensitiveDataScanner(false);
+
+        RedactionResult result = lenient.redact("保单号110105194912310021");
+
+        assertThat(result.getRedactedText()).isEqualTo("保单号***身份证号***");
+    }
+
+    @Test
+    @DisplayName("字母数字混合串内部不识别")
+    void redact_NoMatchInsideAlphanumericToken() {
+        String text = "编号A13812345678B";
+
+        assertThat(scanner.redact(text).hasRedactions()).isFalse();
+    }
+
+    @Test
+    @DisplayName("邮箱句末标点不计入")
+    void redact_EmailTrailingDot() {
+        RedactionResult result = scanner.redact("联系service@insure.com.cn.");
+
+        assertThat(result.getRedactedText()).isEqualTo("联系***邮箱地址***.");
+    }
+
+    @Test
+    @DisplayName("写入可复用缓冲区并返回相对偏移")
+    void scan_AppendsToBuffer() {
+        StringBuilder out = new StringBuilder("前缀|");
+
+        RedactionResult result = scanner.scan("电话13812345678", out);
+
+        assertThat(out.toString()).isEqualTo("前缀|电话***电话号码***");
+        assertThat(result.getRedactedText()).isNull();
+        RedactionSpan span = result.getSpans().get(0);
+        assertThat(span.getOriginalStart()).isEqualTo(2);
+        assertThat(span.getOriginalEnd()).isEqualTo(13);
+        assertThat(span.getRedactedStart()).isEqualTo(2);
+        assertThat(span.getRedactedEnd()).isEqualTo(2 + SensitiveDataType.PHONE.getReplacement().length());
+    }
+
+    @Test
+    @DisplayName("证据偏移双向重映射")
+    void offsetMapping() {
+        String text = "电话13812345678请核实保险责任";
+        RedactionResult result = scanner.redact(text);
+        int originalOffset = text.indexOf("保险责任");
+        int redactedOffset = result.getRedactedText().indexOf("保险责任");
+
+        assertThat(result.toRedactedOffset(originalOffset)).isEqualTo(redactedOffset);
+        assertThat(result.toOriginalOffset(redactedOffset)).isEqualTo(originalOffset);
+        assertThat(result.toRedactedOffset(1)).isEqualTo(1);
+        assertThat(result.toRedactedOffset(5)).isEqualTo(2);
+        assertThat(result.toOriginalOffset(4)).isEqualTo(2);
+    }
+}
@@ -0,0 +1,151 @@
+package com.insurance.audit.audit.service;
+
+import com.insurance.audit.audit.dto.AuditJobResponse;
+import com.insurance.audit.audit.dto.AuditResultDto;
+import com.insurance.audit.audit.dto.AuditResultPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 检核作业与结果存储测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@DisplayName("检核作业与结果存储测试")
+class AuditJobStoreTest {
+
+    private static final String[] STATUSES = {"PASSED", "FAILED", "WARNING"};
+
+    private AuditJobStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new AuditJobStore();
+        store.saveJob(job("job-1", "CREATED"));
+        for (int i = 0; i < 250; i++) {
+            store.appendResult("job-1", AuditResultDto.builder()
+                    .resultId("result-" + i)
+                    .jobId("job-1")
+                    .ruleId("rule-" + (i % 5))
+                    .documentId("doc-" + (i % 2))
+                    .status(STATUSES[i % 3])
+                    .evidences(List.of(AuditResultDto.Evidence.builder().text("证据" + i).build()))
+                    .build());
+        }
+    }
+
+    @Test
+    @DisplayName("游标分页按写入顺序遍历全部结果且不重复")
+    void queryResults_CursorWalksAllResults() {
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            AuditResultPage page = store.queryResults("job-1", AuditJobStore.ResultQuery.builder()
+                    .cursor(cursor).limit(100).build());
+            page.getItems().forEach(result -> ids.add(result.getResultId()));
+            cursor = page.getNextCursor();
+            assertThat(page.getHasMore()).isEqualTo(cursor != null);
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(ids).hasSize(250).doesNotHaveDuplicates().startsWith("result-0", "result-1");
+    }
+
+    @Test
+    @DisplayName("组合过滤条件只返回同时满足的结果")
+    void queryResults_CombinedFilters() {
+        List<AuditResultDto> matched = new ArrayList<>();
+        String cursor = null;
+        do {
+            AuditResultPage page = store.queryResults("job-1", AuditJobStore.ResultQuery.builder()
+                    .status("FAILED").ruleId("rule-2").documentId("doc-1").cursor(cursor).limit(3).build());
+            matched.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // i % 3 == 1, i % 5 == 2, i % 2 == 1  =>  i % 30 == 7
+        assertThat(matched).extracting(AuditResultDto::getResultId)
+                .containsExactly("result-7", "result-37", "result-67", "result-97", "result-127",
+                        "result-157", "result-187", "result-217", "result-247");
+    }
+
+    @Test
+    @DisplayName("默认不返回证据明细，可按结果单独获取")
+    void queryResults_EvidenceOnDemand() {
+        AuditResultDto first = store.queryResults("job-1", AuditJobStore.ResultQuery.builder().limit(1).build())
+                .getItems().get(0);
+        assertThat(first.getEvidences()).isNull();
+        assertThat(first.getEvidenceCount()).isEqualTo(1);
+
+        AuditResultDto full = store.queryResults("job-1", AuditJobStore.ResultQuery.builder()
+                .limit(1).includeEvidence(true).build()).getItems().get(0);
+        assertThat(full.getEvidences()).hasSize(1);
+
+        assertThat(store.getResultEvidences("job-1", "result-0"))
+                .extracting(AuditResultDto.Evidence::getText).containsExactly("证据0");
+        assertThatThrownBy(() -> store.getResultEvidences("job-1", "result-999"))
+                .isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    @DisplayName("无效游标抛出异常")
+    void queryResults_InvalidCursor() {
+        assertThatThrownBy(() -> store.queryResults("job-1", AuditJobStore.ResultQuery.builder()
+                .cursor("not-a-cursor").build()))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("无效的分页游标");
+    }
+
+    @Test
+    @DisplayName("作业列表按创建时间倒序，状态变化后索引同步更新")
+    void listJobs_StatusIndexFollowsUpdates() {
+        store.saveJob(job("job-2", "CREATED"));
+        store.saveJob(job("job-3", "CREATED"));
+        store.updateJob("job-2", job -> job.setStatus("RUNNING"));
+
+        assertThat(store.listJobs(null, 1, 10)).extracting(AuditJobResponse::getJobId)
+                .containsExactly("job-3", "job-2", "job-1");
+        assertThat(store.listJobs("CREATED", 1, 10)).extracting(AuditJobResponse::getJobId)
+                .containsExactly("job-3", "job-1");
+        assertThat(store.listJobs("running", 1, 10)).extracting(AuditJobResponse::getJobId)
+                .containsExactly("job-2");
+        assertThat(store.listJobs(null, 2, 2)).extracting(AuditJobResponse::getJobId)
+                .containsExactly("job-1");
+        assertThat(store.countJobs("CREATED")).isEqualTo(2);
+        assertThat(store.countJobs("COMPLETED")).isZero();
+    }
+
+    @Test
+    @DisplayName("作业数超过上限时从最早的已结束作业起连同结果移除，未结束的作业保留")
+    void saveJob_EvictsOldestFinishedJobsOverLimit() {
+        ReflectionTestUtils.setField(store, "maxJobs", 3);
+        store.saveJob(job("job-2", "COMPLETED"));
+        store.saveJob(job("job-3", "RUNNING"));
+        store.saveJob(job("job-4", "COMPLETED"));
+        assertThat(store.containsJob("job-2")).isFalse();
+
+        store.updateJob("job-3", job -> job.setStatus("FAILED"));
+        store.saveJob(job("job-5", "CREATED"));
+
+        assertThat(store.listJobs(null, 1, 10)).extracting(AuditJobResponse::getJobId)
+                .containsExactly("job-5", "job-4", "job-1");
+        assertThat(store.countJobs("FAILED")).isZero();
+        assertThat(store.getResults("job-1")).hasSize(250);
+        assertThat(store.getEvictedJobCount()).isEqualTo(2);
+    }
+
+    private static AuditJobResponse job(String jobId, String status) {
+        return AuditJobResponse.builder().jobId(jobId).status(status).build();
+    }
+}
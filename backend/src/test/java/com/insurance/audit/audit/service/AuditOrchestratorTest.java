@@ -0,0 +1,135 @@
+package com.insurance.audit.audit.service;
+
+import com.insurance.audit.audit.dto.AuditResultDto;
+import com.insurance.audit.audit.matchers.KeywordMatcher;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.shard.ShardQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 检核编排器测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@DisplayName("检核编排器测试")
+class AuditOrchestratorTest {
+
+    private RuleProvider ruleProvider;
+    private DocumentProvider documentProvider;
+    private TiledMatchingExecutor matchingExecutor;
+    private SimpleMeterRegistry meterRegistry;
+    private AuditOrchestrator orchestrator;
+
+    @BeforeEach
+    void setUp() {
+        ruleProvider = mock(RuleProvider.class);
+        documentProvider = mock(DocumentProvider.class);
+
+        meterRegistry = new SimpleMeterRegistry();
+        PerformanceMonitor performanceMonitor = new PerformanceMonitor();
+        ReflectionTestUtils.setField(performanceMonitor, "meterRegistry", meterRegistry);
+
+        matchingExecutor = new TiledMatchingExecutor();
+        ReflectionTestUtils.setField(matchingExecutor, "performanceMonitor", performanceMonitor);
+        matchingExecutor.start();
+        matchingExecutor.registerMatcher("KEYWORD", new KeywordMatcher());
+
+        orchestrator = new AuditOrchestrator();
+        ReflectionTestUtils.setField(orchestrator, "jobStore", new AuditJobStore());
+        ReflectionTestUtils.setField(orchestrator, "ruleProvider", ruleProvider);
+        ReflectionTestUtils.setField(orchestrator, "documentProvider", documentProvider);
+        ReflectionTestUtils.setField(orchestrator, "matchingExecutor", matchingExecutor);
+        ReflectionTestUtils.setField(orchestrator, "evidenceAssembler", new EvidenceAssembler());
+        ReflectionTestUtils.setField(orchestrator, "performanceMonitor", performanceMonitor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        matchingExecutor.stop();
+    }
+
+    @Test
+    @DisplayName("分片中的文档按规则集逐条匹配，每条规则生成一条带文档和规则名称的检核结果")
+    void executeShard_MatchesDocumentsAgainstRuleSet() {
+        when(ruleProvider.getEffectiveRuleSet("rs-1")).thenReturn(RuleProvider.RuleSet.builder()
+                .id("rs-1")
+                .version("v3")
+                .rules(List.of(rule("R1", "等待期"), rule("R2", "免赔额")))
+                .build());
+        when(documentProvider.getDocumentContent("d1")).thenReturn(DocumentProvider.DocumentContent.builder()
+                .id("d1")
+                .chunks(List.of(DocumentChunk.builder().id("d1-0").text("等待期为90日").paragraphIndex(0).build()))
+                .build());
+        when(documentProvider.getDocumentContent("d2")).thenThrow(new RuntimeException("下载失败"));
+
+        ShardQueue.ShardResult result = orchestrator.executeShard(ShardQueue.JobShard.builder()
+                .shardId("s-1")
+                .jobId("job-1")
+                .ruleSetId("rs-1")
+                .documentIds(List.of("d1", "d2"))
+                .build());
+
+        assertThat(result.getCompletedDocuments()).isEqualTo(1);
+        assertThat(result.getFailedDocuments()).isEqualTo(1);
+        assertThat(result.getResults()).extracting(AuditResultDto::getRuleId).containsExactly("R1", "R2");
+        assertThat(result.getResults()).allSatisfy(r -> assertThat(r.getDocumentId()).isEqualTo("d1"));
+
+        AuditResultDto matched = result.getResults().get(0);
+        assertThat(matched.getRuleName()).isEqualTo("规则R1");
+        assertThat(matched.getStatus()).isNotEqualTo("NO_MATCH");
+        assertThat(matched.getEvidences()).isNotEmpty();
+        assertThat(result.getResults().get(1).getStatus()).isEqualTo("NO_MATCH");
+
+        assertThat(meterRegistry.get("audit.rule.duration").tag("ruleType", "KEYWORD").timer().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("audit.operation.duration").tag("operation", "audit_shard").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("分片带有适用规则ID时只匹配这些规则")
+    void executeShard_MatchesOnlyApplicableRules() {
+        when(ruleProvider.getEffectiveRuleSet("rs-1")).thenReturn(RuleProvider.RuleSet.builder()
+                .id("rs-1")
+                .version("v3")
+                .rules(List.of(rule("R1", "等待期"), rule("R2", "免赔额"), rule("R3", "犹豫期")))
+                .build());
+        when(documentProvider.getDocumentContent("d1")).thenReturn(DocumentProvider.DocumentContent.builder()
+                .id("d1")
+                .chunks(List.of(DocumentChunk.builder().id("d1-0").text("等待期为90日").paragraphIndex(0).build()))
+                .build());
+
+        ShardQueue.ShardResult result = orchestrator.executeShard(ShardQueue.JobShard.builder()
+                .shardId("s-1")
+                .jobId("job-1")
+                .ruleSetId("rs-1")
+                .ruleIds(List.of("R3", "R1"))
+                .documentIds(List.of("d1"))
+                .build());
+
+        assertThat(result.getResults()).extracting(AuditResultDto::getRuleId).containsExactly("R1", "R3");
+    }
+
+    private static RuleProvider.Rule rule(String id, String keyword) {
+        return RuleProvider.Rule.builder()
+                .id(id)
+                .name("规则" + id)
+                .type("KEYWORD")
+                .threshold(0.5)
+                .parameters(Map.of("matchType", "KEYWORD", "keywords", List.of(keyword)))
+                .build();
+    }
+}
@@ -0,0 +1,123 @@
+package com.insurance.audit.audit.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 作业执行上下文测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@DisplayName("作业执行上下文测试")
+class JobExecutionContextTest {
+
+    private ConcurrencyController concurrencyController;
+
+    @BeforeEach
+    void setUp() {
+        concurrencyController = new ConcurrencyController();
+    }
+
+    @AfterEach
+    void tearDown() {
+        concurrencyController.shutdown();
+    }
+
+    @Test
+    @DisplayName("取消后检查点抛出异常，未绑定上下文时检查点不生效")
+    void checkpoint_ThrowsAfterCancel() {
+        JobExecutionContext context = JobExecutionContext.create("job-1", 0);
+        JobExecutionContext.checkpoint();
+
+        try (JobExecutionContext.Scope ignored = context.activate()) {
+            JobExecutionContext.checkpoint();
+            assertThat(context.cancel("用户取消")).isTrue();
+            assertThat(context.cancel("重复取消")).isFalse();
+
+            assertThatThrownBy(JobExecutionContext::checkpoint)
+                    .isInstanceOf(JobExecutionContext.JobAbortedException.class)
+                    .hasMessageContaining("用户取消");
+        }
+        assertThat(JobExecutionContext.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("超过截止时间后检查点以超时中止，超时按剩余时间收紧")
+    void checkpoint_DeadlineExceeded() throws InterruptedException {
+        JobExecutionContext context = JobExecutionContext.create("job-2", 50);
+        try (JobExecutionContext.Scope ignored = context.activate()) {
+            assertThat(JobExecutionContext.boundTimeout(10_000)).isBetween(1L, 50L);
+
+            Thread.sleep(80);
+            assertThatThrownBy(JobExecutionContext::checkpoint)
+                    .isInstanceOfSatisfying(JobExecutionContext.JobAbortedException.class,
+                            e -> assertThat(e.isTimedOut()).isTrue());
+        }
+        assertThat(context.isCancelled()).isTrue();
+        assertThat(JobExecutionContext.boundTimeout(10_000)).isEqualTo(10_000);
+    }
+
+    @Test
+    @DisplayName("取消作业时排队中的任务立即移出队列")
+    void cancel_RemovesQueuedTask() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> busy1 = concurrencyController.submitTask(() -> release.await(5, TimeUnit.SECONDS), "busy-1");
+        CompletableFuture<Object> busy2 = concurrencyController.submitTask(() -> release.await(5, TimeUnit.SECONDS), "busy-2");
+
+        JobExecutionContext context = JobExecutionContext.create("job-3", 0);
+        AtomicBoolean executed = new AtomicBoolean(false);
+        CompletableFuture<Object> queued = concurrencyController.submitTask(() -> {
+            executed.set(true);
+            return null;
+        }, "job-3", context);
+        assertThat(concurrencyController.getExecutorStatus().getQueueSize()).isEqualTo(1);
+
+        context.cancel("用户取消");
+
+        assertThat(concurrencyController.getExecutorStatus().getQueueSize()).isZero();
+        assertThat(context.getReleasedQueueSlots()).isEqualTo(1);
+        assertThatThrownBy(() -> queued.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(JobExecutionContext.JobAbortedException.class);
+
+        release.countDown();
+        busy1.get(5, TimeUnit.SECONDS);
+        busy2.get(5, TimeUnit.SECONDS);
+        assertThat(executed).isFalse();
+        assertThat(concurrencyController.getExecutorStatus().getCancelledTasks()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("取消作业后许可在受保护的调用结束时归还且只归还一次")
+    void cancel_ReleasesPermitOnceCallFinishes() {
+        int available = concurrencyController.getExecutorStatus().getAvailableResourcePermits();
+        JobExecutionContext context = JobExecutionContext.create("job-4", 0);
+
+        ConcurrencyController.ResourcePermit permit = concurrencyController.acquireResource(context, 1000);
+        assertThat(permit).isNotNull();
+        assertThat(concurrencyController.getExecutorStatus().getAvailableResourcePermits()).isEqualTo(available - 1);
+
+        context.cancel("用户取消");
+        assertThat(concurrencyController.getExecutorStatus().getAvailableResourcePermits()).isEqualTo(available - 1);
+        assertThat(context.getReleasedPermits()).isZero();
+
+        permit.close();
+        permit.close();
+        assertThat(concurrencyController.getExecutorStatus().getAvailableResourcePermits()).isEqualTo(available);
+        assertThat(context.getReleasedPermits()).isEqualTo(1);
+        assertThatThrownBy(() -> concurrencyController.acquireResource(context, 1000))
+                .isInstanceOf(JobExecutionContext.JobAbortedException.class);
+    }
+}
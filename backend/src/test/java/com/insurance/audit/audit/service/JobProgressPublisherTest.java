@@ -0,0 +1,132 @@
+package com.insurance.audit.audit.service;
+
+import com.insurance.audit.audit.dto.AuditJobResponse;
+import com.insurance.audit.audit.dto.JobProgressEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 作业进度推送器测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("作业进度推送器测试")
+class JobProgressPublisherTest {
+
+    private static final String CALLBACK_URL = "http://localhost:9000/callback";
+
+    @Mock
+    private JobWebhookNotifier webhookNotifier;
+
+    @InjectMocks
+    private JobProgressPublisher publisher;
+
+    @Test
+    @DisplayName("同一节拍内的多次更新合并为最新快照")
+    void publish_CoalescesUpdatesWithinTick() {
+        publisher.register("job-1", CALLBACK_URL);
+        AuditJobResponse job = job("job-1", "RUNNING");
+
+        for (int progress = 1; progress <= 50; progress++) {
+            job.setProgress(progress);
+            publisher.publish(job);
+        }
+        publisher.flush();
+        publisher.flush();
+
+        ArgumentCaptor<JobProgressEvent> captor = ArgumentCaptor.forClass(JobProgressEvent.class);
+        verify(webhookNotifier, times(1)).enqueue(eq(CALLBACK_URL), captor.capture());
+        assertThat(captor.getValue().getProgress()).isEqualTo(50);
+        assertThat(captor.getValue().getSequence()).isEqualTo(50L);
+        assertThat(captor.getValue().getTerminal()).isFalse();
+    }
+
+    @Test
+    @DisplayName("终态事件立即推送且之后的更新被忽略")
+    void publish_TerminalEventFlushedImmediately() {
+        publisher.register("job-2", CALLBACK_URL);
+        AuditJobResponse job = job("job-2", "RUNNING");
+        job.setProgress(40);
+        publisher.publish(job);
+
+        job.setStatus("COMPLETED");
+        job.setProgress(100);
+        publisher.publish(job);
+
+        ArgumentCaptor<JobProgressEvent> captor = ArgumentCaptor.forClass(JobProgressEvent.class);
+        verify(webhookNotifier, times(1)).enqueue(eq(CALLBACK_URL), captor.capture());
+        assertThat(captor.getValue().getStatus()).isEqualTo("COMPLETED");
+        assertThat(captor.getValue().getTerminal()).isTrue();
+
+        publisher.publish(job);
+        publisher.flush();
+        verify(webhookNotifier, times(1)).enqueue(any(), any());
+    }
+
+    @Test
+    @DisplayName("终态事件推送前到达的进度快照不覆盖终态事件")
+    void publish_LateUpdateDoesNotReplacePendingTerminalEvent() throws InterruptedException {
+        publisher.register("job-4", CALLBACK_URL);
+        Object channel = ((Map<?, ?>) ReflectionTestUtils.getField(publisher, "channels")).get("job-4");
+        AtomicReference<?> pending = (AtomicReference<?>) ReflectionTestUtils.getField(channel, "pending");
+        AuditJobResponse running = job("job-4", "RUNNING");
+        running.setProgress(90);
+
+        Thread completing;
+        synchronized (channel) {
+            // 持有通道锁，终态事件已进入待推送但尚未推送
+            completing = new Thread(() -> publisher.publish(job("job-4", "COMPLETED")));
+            completing.start();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (pending.get() == null && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            publisher.publish(running);
+        }
+        completing.join(5000);
+        publisher.flush();
+
+        ArgumentCaptor<JobProgressEvent> captor = ArgumentCaptor.forClass(JobProgressEvent.class);
+        verify(webhookNotifier, times(1)).enqueue(eq(CALLBACK_URL), captor.capture());
+        assertThat(captor.getValue().getStatus()).isEqualTo("COMPLETED");
+        assertThat(captor.getValue().getTerminal()).isTrue();
+    }
+
+    @Test
+    @DisplayName("未登记的作业不推送")
+    void publish_UnregisteredJobIgnored() {
+        publisher.publish(job("job-3", "RUNNING"));
+        publisher.flush();
+
+        verifyNoInteractions(webhookNotifier);
+    }
+
+    private static AuditJobResponse job(String jobId, String status) {
+        return AuditJobResponse.builder()
+                .jobId(jobId)
+                .status(status)
+                .progress(0)
+                .totalTasks(10)
+                .completedTasks(0)
+                .failedTasks(0)
+                .build();
+    }
+}
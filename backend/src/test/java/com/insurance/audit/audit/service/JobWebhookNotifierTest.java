@@ -0,0 +1,100 @@
+package com.insurance.audit.audit.service;
+
+import com.insurance.audit.audit.dto.JobProgressEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 作业回调通知器测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@DisplayName("作业回调通知器测试")
+class JobWebhookNotifierTest {
+
+    private RestTemplate restTemplate;
+    private JobWebhookNotifier notifier;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = mock(RestTemplate.class);
+        notifier = new JobWebhookNotifier();
+        ReflectionTestUtils.setField(notifier, "restTemplate", restTemplate);
+        ReflectionTestUtils.setField(notifier, "batchIntervalMs", 60_000L);
+        ReflectionTestUtils.setField(notifier, "retryBackoffMs", 10L);
+        ReflectionTestUtils.setField(notifier, "allowedSchemes", "https");
+        ReflectionTestUtils.setField(notifier, "allowedHosts", "hooks.example.com, *.partner.example.org");
+        notifier.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        notifier.stop();
+    }
+
+    @Test
+    @DisplayName("回调地址只允许配置的协议和主机，子域名通配不匹配上级域名")
+    void validateCallbackUrl_EnforcesAllowlist() {
+        assertThatCode(() -> notifier.validateCallbackUrl("https://hooks.example.com/audit")).doesNotThrowAnyException();
+        assertThatCode(() -> notifier.validateCallbackUrl("https://a.partner.example.org/cb")).doesNotThrowAnyException();
+
+        for (String url : List.of("http://hooks.example.com/audit", "https://169.254.169.254/latest/meta-data",
+                "https://partner.example.org/cb", "https://hooks.example.com@10.0.0.1/cb", "file:///etc/passwd",
+                "https://hooks.example.com.evil.net/cb", "not a url")) {
+            assertThatThrownBy(() -> notifier.validateCallbackUrl(url))
+                    .as(url)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        notifier.enqueue("https://10.0.0.1/cb", JobProgressEvent.builder().jobId("job-1").build());
+        notifier.flush();
+        verifyNoInteractions(restTemplate);
+        assertThat(notifier.getDeliveryStats()).containsEntry("rejectedCallbacks", 1L);
+    }
+
+    @Test
+    @DisplayName("投递失败后在独立的重试线程池中重试")
+    void deliver_RetriesOnRetryPool() throws Exception {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(1);
+        when(restTemplate.postForEntity(anyString(), any(), eq(Void.class))).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            if (threads.size() == 1) {
+                throw new ResourceAccessException("连接超时");
+            }
+            delivered.countDown();
+            return ResponseEntity.ok().build();
+        });
+
+        notifier.enqueue("https://hooks.example.com/audit", JobProgressEvent.builder().jobId("job-1").build());
+        notifier.flush();
+
+        assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(threads).hasSize(2);
+        assertThat(threads.get(1)).startsWith("audit-webhook-retry-");
+        // 投递成功后才累加计数，等待重试线程返回
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!Long.valueOf(1L).equals(notifier.getDeliveryStats().get("deliveredBatches"))
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(notifier.getDeliveryStats()).containsEntry("deliveredBatches", 1L);
+    }
+}
@@ -0,0 +1,106 @@
+package com.insurance.audit.audit.service;
+
+import com.insurance.audit.audit.dto.AuditResultDto;
+import com.insurance.audit.audit.matchers.Matcher;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 匹配结果流式聚合器测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@DisplayName("匹配结果流式聚合器测试")
+class MatchResultAggregatorTest {
+
+    private final EvidenceAssembler assembler = new EvidenceAssembler();
+
+    @Test
+    @DisplayName("按规则折叠状态计数、最高分和证据，定位信息取自文档块")
+    void accept_FoldsResultsPerRule() {
+        DocumentChunk chunk = chunk("chunk-1", "本保险不承担战争责任", 3, 7);
+        MatchResultAggregator aggregator = new MatchResultAggregator();
+
+        aggregator.accept(result("R1", chunk, "PASSED", 0.4, evidence("保险", 1)));
+        aggregator.accept(result("R2", chunk, "WARNING", 0.6, evidence("战争", 6)));
+        aggregator.accept(result("R1", chunk, "FAILED", 0.9, evidence("不承担", 3)));
+        aggregator.accept(null);
+
+        assertThat(aggregator.getResultCount()).isEqualTo(3);
+        assertThat(aggregator.getSummaries()).extracting(MatchResultAggregator.RuleSummary::getRuleId)
+                .containsExactly("R1", "R2");
+
+        MatchResultAggregator.RuleSummary summary = aggregator.getSummary("R1");
+        assertThat(summary.getOverallStatus()).isEqualTo("FAILED");
+        assertThat(summary.getMaxScore()).isEqualTo(0.9);
+        assertThat(summary.getDocumentId()).isEqualTo("DOC-1");
+        assertThat(summary.getEvidences()).hasSize(2)
+                .allSatisfy(evidence -> {
+                    assertThat(evidence.getPageNumber()).isEqualTo(3);
+                    assertThat(evidence.getParagraphIndex()).isEqualTo(7);
+                });
+        assertThat(summary.hasMatchType("KEYWORD")).isTrue();
+    }
+
+    @Test
+    @DisplayName("流式聚合与按列表装配结果一致")
+    void assembleResults_MatchesListBasedAssembly() {
+        DocumentChunk chunk = chunk("chunk-2", "等待期为90天", 1, 0);
+        List<Matcher.MatchResult> results = List.of(
+                result("R1", chunk, "WARNING", 0.5, evidence("等待期", 0)),
+                result("R1", chunk, "PASSED", 0.7, evidence("90天", 4)));
+
+        MatchResultAggregator aggregator = new MatchResultAggregator();
+        aggregator.acceptAll(results);
+
+        AuditResultDto streamed = assembler.assembleResults("JOB-1", aggregator, Map.of()).get(0);
+        AuditResultDto listed = assembler.assembleResult("JOB-1", "R1", "1.0.0", results);
+
+        assertThat(streamed.getStatus()).isEqualTo(listed.getStatus()).isEqualTo("WARNING");
+        assertThat(streamed.getScore()).isEqualTo(listed.getScore()).isEqualTo(0.7);
+        assertThat(streamed.getRecommendation()).isEqualTo(listed.getRecommendation());
+        assertThat(streamed.getEvidences()).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(listed.getEvidences());
+        assertThat(results.get(0).getText()).isSameAs(chunk.getText());
+    }
+
+    private static DocumentChunk chunk(String id, String text, int pageNumber, int paragraphIndex) {
+        return DocumentChunk.builder()
+                .id(id)
+                .text(text)
+                .pageNumber(pageNumber)
+                .paragraphIndex(paragraphIndex)
+                .metadata(Map.of("documentId", "DOC-1"))
+                .build();
+    }
+
+    private static Matcher.MatchResult result(String ruleId, DocumentChunk chunk, String status, double score,
+                                              Matcher.Evidence evidence) {
+        return Matcher.MatchResult.builder()
+                .ruleId(ruleId)
+                .chunkId(chunk.getId())
+                .chunk(chunk)
+                .score(score)
+                .threshold(0.6)
+                .status(status)
+                .evidences(List.of(evidence))
+                .build();
+    }
+
+    private static Matcher.Evidence evidence(String text, int start) {
+        return Matcher.Evidence.builder()
+                .text(text)
+                .startPos(start)
+                .endPos(start + text.length())
+                .matchType("KEYWORD")
+                .build();
+    }
+}
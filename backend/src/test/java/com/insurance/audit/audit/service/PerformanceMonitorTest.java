@@ -0,0 +1,107 @@
+package com.insurance.audit.audit.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 性能监控服务测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("性能监控服务测试")
+class PerformanceMonitorTest {
+
+    @Mock
+    private ConcurrencyController concurrencyController;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PerformanceMonitor performanceMonitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        performanceMonitor = new PerformanceMonitor();
+        ReflectionTestUtils.setField(performanceMonitor, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(performanceMonitor, "concurrencyController", concurrencyController);
+        performanceMonitor.bindGlobalMeters();
+    }
+
+    @Test
+    @DisplayName("按操作注册计时器并计算百分位")
+    void recordRequestComplete_RegistersTimerWithPercentiles() {
+        for (int i = 1; i <= 100; i++) {
+            performanceMonitor.recordRequestStart("match");
+            performanceMonitor.recordRequestComplete("match", i * 10L, true);
+        }
+
+        Timer timer = meterRegistry.get("audit.operation.duration").tag("operation", "match").timer();
+        assertThat(timer.count()).isEqualTo(100);
+        assertThat(performanceMonitor.getP95ResponseTime("match")).isBetween(900L, 1000L);
+        assertThat(performanceMonitor.getP99ResponseTime("match")).isBetween(950L, 1050L);
+        assertThat(meterRegistry.get("audit.operation.active").tag("operation", "match").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("规则匹配阶段P99超出SLO时判定为不健康")
+    void isPerformanceHealthy_RuleMatchingP99Breach() {
+        when(concurrencyController.getExecutorStatus()).thenReturn(ConcurrencyController.ExecutorStatus.builder()
+                .queueSize(0)
+                .queueCapacity(1000)
+                .build());
+
+        for (int i = 0; i < 100; i++) {
+            performanceMonitor.recordRequestStart("audit_job");
+            performanceMonitor.recordRequestComplete("audit_job", 100L, true);
+            performanceMonitor.recordStage("rule_matching", 100L);
+        }
+        assertThat(performanceMonitor.isPerformanceHealthy()).isTrue();
+
+        for (int i = 0; i < 5; i++) {
+            performanceMonitor.recordStage("rule_matching", 8000L);
+        }
+        assertThat(performanceMonitor.isPerformanceHealthy()).isFalse();
+    }
+
+    @Test
+    @DisplayName("阶段与规则类型分别统计")
+    void recordStageAndRuleEvaluation() {
+        performanceMonitor.recordStage("rule_matching", 120L);
+        performanceMonitor.recordRuleEvaluation("KEYWORD", TimeUnit.MICROSECONDS.toNanos(300));
+
+        assertThat(meterRegistry.get("audit.stage.duration").tag("stage", "rule_matching").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("audit.rule.duration").tag("ruleType", "KEYWORD").timer().count())
+                .isEqualTo(1);
+
+        PerformanceMonitor.PerformanceReport report = performanceMonitor.getPerformanceReport();
+        assertThat(report.getStageStats()).containsKey("rule_matching");
+        assertThat(report.getRuleTypeStats().get("KEYWORD").getTotalRequests()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("重置后移除已注册的计时器")
+    void resetStats_RemovesMeters() {
+        performanceMonitor.recordRequestStart("parse");
+        performanceMonitor.recordRequestComplete("parse", 50L, true);
+
+        performanceMonitor.resetStats();
+
+        assertThat(meterRegistry.find("audit.operation.duration").timers()).isEmpty();
+        assertThat(performanceMonitor.getP95ResponseTime("parse")).isZero();
+    }
+}
@@ -0,0 +1,233 @@
+package com.insurance.audit.audit.service;
+
+import com.insurance.audit.audit.dto.AuditJobResponse;
+import com.insurance.audit.audit.dto.AuditResultDto;
+import com.insurance.audit.audit.dto.RuleDryRunReport;
+import com.insurance.audit.audit.dto.RuleDryRunRequest;
+import com.insurance.audit.audit.matchers.KeywordMatcher;
+import com.insurance.audit.audit.retrieval.DocumentChunkStore;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.service.RuleProvider.Rule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 规则试运行服务测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@DisplayName("规则试运行服务测试")
+class RuleDryRunServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DocumentChunkStore chunkStore;
+    private TiledMatchingExecutor matchingExecutor;
+    private AuditJobStore jobStore;
+    private RuleDryRunService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // 缓存只保留2个文档，其余文档从磁盘重新加载
+        chunkStore = new DocumentChunkStore(tempDir.toString(), 2);
+        chunkStore.start();
+        store("d1", "等待期为90日");
+        store("d2", "犹豫期为15日");
+        store("d3", "等待期为180日");
+        store("d4", "保险责任");
+        store("d5", "等待期内出险不赔");
+
+        matchingExecutor = new TiledMatchingExecutor();
+        matchingExecutor.start();
+        matchingExecutor.registerMatcher("KEYWORD", new KeywordMatcher());
+
+        jobStore = new AuditJobStore();
+        decide("job-old", Map.of("d1", "PASSED", "d2", "PASSED"));
+        decide("job-new", Map.of("d1", "FAILED", "d2", "WARNING", "d3", "PASSED", "d4", "PASSED"));
+
+        service = new RuleDryRunService();
+        ReflectionTestUtils.setField(service, "chunkStore", chunkStore);
+        ReflectionTestUtils.setField(service, "matchingExecutor", matchingExecutor);
+        ReflectionTestUtils.setField(service, "jobStore", jobStore);
+        ReflectionTestUtils.setField(service, "parallelism", 3);
+        ReflectionTestUtils.setField(service, "queueCapacity", 1);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+        matchingExecutor.stop();
+    }
+
+    @Test
+    @DisplayName("重放存储的文档块，按最近一次检核结果计算精确率、召回率和判定变化样例")
+    void submit_ComparesDraftWithLatestDecisions() {
+        RuleDryRunReport report = run(RuleDryRunRequest.builder()
+                .rule(rule("等待期"))
+                .documentIds(List.of("d1", "d2", "d3", "d4", "d5", "d9"))
+                .build());
+
+        assertThat(report.getCorpusDocuments()).isEqualTo(6);
+        assertThat(report.getScannedDocuments()).isEqualTo(5);
+        assertThat(report.getMissingDocuments()).isEqualTo(1);
+        assertThat(report.getFlaggedDocuments()).isEqualTo(3);
+        assertThat(report.getMatchCount()).isEqualTo(3L);
+        assertThat(report.getLabelledDocuments()).isEqualTo(4);
+        assertThat(report.getTruePositives()).isEqualTo(1);
+        assertThat(report.getFalsePositives()).isEqualTo(1);
+        assertThat(report.getFalseNegatives()).isEqualTo(1);
+        assertThat(report.getTrueNegatives()).isEqualTo(1);
+        assertThat(report.getPrecision()).isEqualTo(0.5);
+        assertThat(report.getRecall()).isEqualTo(0.5);
+        assertThat(report.getNewlyFlaggedDocuments()).containsExactly("d3");
+        assertThat(report.getClearedDocuments()).containsExactly("d2");
+        assertThat(report.getTotalChunks()).isEqualTo(5L);
+        assertThat(report.getNanosPerChunk()).isPositive();
+        assertThat(report.getTimedOut()).isFalse();
+        assertThat(chunkStore.getStats().getCacheMisses()).isPositive();
+    }
+
+    @Test
+    @DisplayName("未指定语料时重放全部已存储文档，超过文档数上限时截断")
+    void submit_DefaultsToStoredCorpusAndTruncates() {
+        RuleDryRunReport all = run(RuleDryRunRequest.builder().rule(rule("等待期")).build());
+        assertThat(all.getCorpusDocuments()).isEqualTo(5);
+        assertThat(all.getFlaggedDocuments()).isEqualTo(3);
+        assertThat(all.getTruncated()).isFalse();
+
+        RuleDryRunReport limited = run(RuleDryRunRequest.builder()
+                .rule(rule("等待期")).maxDocuments(2).build());
+        assertThat(limited.getCorpusDocuments()).isEqualTo(2);
+        assertThat(limited.getTruncated()).isTrue();
+
+        assertThatThrownBy(() -> service.submit(RuleDryRunRequest.builder().build()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("匹配超过截止时间时作业按时结束，未完成的文档计为跳过")
+    void submit_StopsWaitingAtDeadline() throws InterruptedException {
+        matchingExecutor.registerMatcher("SLOW", (rule, chunks) -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of();
+        });
+        ReflectionTestUtils.setField(service, "timeoutSeconds", 1L);
+
+        long start = System.nanoTime();
+        AuditJobResponse job = service.submit(RuleDryRunRequest.builder()
+                .rule(Rule.builder().id("R1").type("SLOW").build())
+                .build());
+        AuditJobResponse finished = await(job.getJobId());
+
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(4));
+        assertThat(finished.getStatus()).isEqualTo("COMPLETED");
+        assertThat(finished.getDryRunReport().getTimedOut()).isTrue();
+        assertThat(finished.getDryRunReport().getSkippedDocuments()).isEqualTo(5);
+        assertThat(finished.getErrorMessage()).contains("超时");
+    }
+
+    @Test
+    @DisplayName("取消试运行后作业保持取消状态，不进入检核作业存储")
+    void cancel_StopsRunAndKeepsCancelledStatus() throws InterruptedException {
+        CountDownLatch matching = new CountDownLatch(1);
+        matchingExecutor.registerMatcher("SLOW", (rule, chunks) -> {
+            matching.countDown();
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of();
+        });
+
+        AuditJobResponse job = service.submit(RuleDryRunRequest.builder()
+                .rule(Rule.builder().id("R1").type("SLOW").build())
+                .build());
+        assertThat(matching.await(5, TimeUnit.SECONDS)).isTrue();
+        AuditJobResponse cancelled = service.cancel(job.getJobId(), "草稿作废");
+        Thread.sleep(1500);
+
+        AuditJobResponse finished = service.getJob(job.getJobId());
+        assertThat(cancelled.getStatus()).isEqualTo("CANCELLED");
+        assertThat(finished.getStatus()).isEqualTo("CANCELLED");
+        assertThat(finished.getErrorMessage()).isEqualTo("草稿作废");
+        assertThat(finished.getDryRunReport()).isNull();
+        assertThat(jobStore.containsJob(job.getJobId())).isFalse();
+        assertThatThrownBy(() -> service.cancel(job.getJobId(), null))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private RuleDryRunReport run(RuleDryRunRequest request) {
+        AuditJobResponse job = service.submit(request);
+        assertThat(job.getJobId()).startsWith("dry-run-");
+        assertThat(jobStore.containsJob(job.getJobId())).isFalse();
+        try {
+            AuditJobResponse finished = await(job.getJobId());
+            assertThat(finished.getStatus()).isEqualTo("COMPLETED");
+            assertThat(finished.getProgress()).isEqualTo(100);
+            return finished.getDryRunReport();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private AuditJobResponse await(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        AuditJobResponse job = service.getJob(jobId);
+        while (!Set.of("COMPLETED", "FAILED", "CANCELLED").contains(job.getStatus()) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            job = service.getJob(jobId);
+        }
+        return job;
+    }
+
+    private void store(String documentId, String text) throws IOException {
+        chunkStore.put(documentId, List.of(DocumentChunk.builder()
+                .id(documentId + "-0")
+                .text(text)
+                .type("paragraph")
+                .paragraphIndex(0)
+                .metadata(Map.of("headingLevel", 1))
+                .build()));
+    }
+
+    private void decide(String jobId, Map<String, String> statuses) {
+        jobStore.saveJob(AuditJobResponse.builder().jobId(jobId).status("COMPLETED").build());
+        statuses.forEach((documentId, status) -> jobStore.appendResult(jobId, AuditResultDto.builder()
+                .resultId(jobId + "-" + documentId)
+                .ruleId("R1")
+                .documentId(documentId)
+                .status(status)
+                .build()));
+    }
+
+    private static Rule rule(String keyword) {
+        return Rule.builder()
+                .id("R1")
+                .type("KEYWORD")
+                .parameters(Map.of("matchType", "KEYWORD", "keywords", List.of(keyword)))
+                .build();
+    }
+}
@@ -0,0 +1,104 @@
+package com.insurance.audit.audit.service;
+
+import com.insurance.audit.audit.dto.RuleApplicabilityCriteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 规则提供者测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@DisplayName("规则提供者测试")
+class RuleProviderTest {
+
+    private RestTemplate restTemplate;
+    private RuleProvider ruleProvider;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = mock(RestTemplate.class);
+        ruleProvider = new RuleProvider();
+        ReflectionTestUtils.setField(ruleProvider, "restTemplate", restTemplate);
+        ReflectionTestUtils.setField(ruleProvider, "ruleServiceBaseUrl", "http://rules");
+        ReflectionTestUtils.setField(ruleProvider, "maxRetryAttempts", 1);
+    }
+
+    @Test
+    @DisplayName("规则类型专有字段并入匹配参数，参数中已有的同名项优先")
+    void getEffectiveRuleSet_MergesRuleTypeFieldsIntoParameters() {
+        RuleProvider.RuleResponse advanced = RuleProvider.RuleResponse.builder()
+                .id("R1")
+                .type("ADVANCED")
+                .executionScript("contains(text, \"等待期\")")
+                .advancedRuleConfig("{\"scope\":\"DOCUMENT\"}")
+                .ruleWeight(3)
+                .matchChapter(" ")
+                .build();
+        RuleProvider.RuleResponse doubleRule = RuleProvider.RuleResponse.builder()
+                .id("R2")
+                .type("DOUBLE")
+                .matchChapterA("保险责任")
+                .matchChapterB("责任免除")
+                .parameters(Map.of("matchChapterB", "第三章", "matchType", "COMBINATION"))
+                .build();
+        when(restTemplate.getForEntity(anyString(), eq(RuleProvider.RuleSetResponse.class)))
+                .thenReturn(ResponseEntity.ok(RuleProvider.RuleSetResponse.builder()
+                        .id("rs-1")
+                        .version("v1")
+                        .rules(List.of(advanced, doubleRule))
+                        .build()));
+
+        List<RuleProvider.Rule> rules = ruleProvider.getEffectiveRuleSet("rs-1").getRules();
+
+        assertThat(rules.get(0).getParameters())
+                .containsEntry("executionScript", "contains(text, \"等待期\")")
+                .containsEntry("advancedRuleConfig", "{\"scope\":\"DOCUMENT\"}")
+                .containsEntry("ruleWeight", 3)
+                .doesNotContainKey("matchChapter");
+        assertThat(rules.get(1).getParameters())
+                .containsEntry("matchChapterA", "保险责任")
+                .containsEntry("matchChapterB", "第三章")
+                .containsEntry("matchType", "COMBINATION");
+    }
+
+    @Test
+    @DisplayName("按产品属性查询适用规则ID，条件为空时不查询规则服务")
+    void getApplicableRuleIds_QueriesApplicabilityIndex() {
+        when(restTemplate.getForEntity(any(URI.class), eq(RuleProvider.ApplicableRulesResponse.class)))
+                .thenReturn(ResponseEntity.ok(new RuleProvider.ApplicableRulesResponse(200, "success", List.of(
+                        RuleProvider.RuleResponse.builder().id("R1").build(),
+                        RuleProvider.RuleResponse.builder().id("R3").build()))));
+
+        Set<String> ruleIds = ruleProvider.getApplicableRuleIds(RuleApplicabilityCriteria.builder()
+                .insurances(List.of("养殖险", " "))
+                .businessAreas(List.of("西藏自治区"))
+                .build());
+
+        assertThat(ruleIds).containsExactlyInAnyOrder("R1", "R3");
+        ArgumentCaptor<URI> uri = ArgumentCaptor.forClass(URI.class);
+        verify(restTemplate).getForEntity(uri.capture(), eq(RuleProvider.ApplicableRulesResponse.class));
+        assertThat(uri.getValue().getPath()).isEqualTo("/v1/rules/applicable");
+        assertThat(uri.getValue().getQuery()).isEqualTo("insurances=养殖险&businessAreas=西藏自治区");
+
+        assertThat(ruleProvider.getApplicableRuleIds(RuleApplicabilityCriteria.builder()
+                .chapters(List.of()).build())).isNull();
+        verifyNoMoreInteractions(restTemplate);
+    }
+}
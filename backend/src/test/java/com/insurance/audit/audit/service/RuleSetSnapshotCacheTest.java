@@ -0,0 +1,178 @@
+package com.insurance.audit.audit.service;
+
+import com.insurance.audit.common.event.RuleStatusChangedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 规则集快照缓存测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("规则集快照缓存测试")
+class RuleSetSnapshotCacheTest {
+
+    @Mock
+    private RuleProvider ruleProvider;
+
+    @InjectMocks
+    private RuleSetSnapshotCache cache;
+
+    @Test
+    @DisplayName("并发获取同一规则集只加载一次")
+    void getRuleSet_ConcurrentCallersShareSingleLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(ruleProvider.getEffectiveRuleSet("rs-1")).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return ruleSet("rs-1", "v1", "rule-1");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<RuleSetSnapshotCache.CompiledRuleSet>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> cache.getRuleSet("rs-1")));
+            }
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+
+            RuleSetSnapshotCache.CompiledRuleSet first = futures.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<RuleSetSnapshotCache.CompiledRuleSet> future : futures) {
+                assertThat(future.get(5, TimeUnit.SECONDS)).isSameAs(first);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(ruleProvider, times(1)).getEffectiveRuleSet("rs-1");
+        assertThat(cache.getRuleSet("rs-1").getVersion()).isEqualTo("v1");
+        verifyNoMoreInteractions(ruleProvider);
+    }
+
+    @Test
+    @DisplayName("后台刷新按版本号决定是否重新加载，旧版本快照仍可按版本获取")
+    void refreshAll_ReloadsOnlyWhenVersionChanges() {
+        when(ruleProvider.getEffectiveRuleSet("rs-2"))
+                .thenReturn(ruleSet("rs-2", "v1", "rule-1"))
+                .thenReturn(ruleSet("rs-2", "v2", "rule-1", "rule-2"));
+        when(ruleProvider.getRuleSetVersion("rs-2")).thenReturn("v1", "v2");
+
+        RuleSetSnapshotCache.CompiledRuleSet v1 = cache.getRuleSet("rs-2");
+        cache.refreshAll();
+        assertThat(cache.getRuleSet("rs-2")).isSameAs(v1);
+
+        cache.refreshAll();
+        RuleSetSnapshotCache.CompiledRuleSet v2 = cache.getRuleSet("rs-2");
+        assertThat(v2.getVersion()).isEqualTo("v2");
+        assertThat(v2.getRules()).hasSize(2);
+        assertThat(cache.getRuleSet("rs-2", "v1")).isSameAs(v1);
+        verify(ruleProvider, times(2)).getEffectiveRuleSet("rs-2");
+    }
+
+    @Test
+    @DisplayName("规则有效状态变更后包含该规则的快照重新加载")
+    void onRuleStatusChanged_InvalidatesAffectedRuleSets() {
+        when(ruleProvider.getEffectiveRuleSet("rs-3"))
+                .thenReturn(ruleSet("rs-3", "v1", "rule-1", "rule-2"))
+                .thenReturn(ruleSet("rs-3", "v1", "rule-1"));
+        when(ruleProvider.getEffectiveRuleSet("rs-4")).thenReturn(ruleSet("rs-4", "v1", "rule-9"));
+        cache.getRuleSet("rs-3");
+        cache.getRuleSet("rs-4");
+
+        cache.onRuleStatusChanged(new RuleStatusChangedEvent("rule-2", "ACTIVE", "INACTIVE", LocalDateTime.now()));
+
+        assertThat(cache.getRuleSet("rs-3").containsRule("rule-2")).isFalse();
+        assertThat(cache.getRuleSet("rs-4").containsRule("rule-9")).isTrue();
+        verify(ruleProvider, times(2)).getEffectiveRuleSet("rs-3");
+        verify(ruleProvider, times(1)).getEffectiveRuleSet("rs-4");
+    }
+
+    @Test
+    @DisplayName("规则服务不可用时过期快照只在宽限期内继续使用，超过宽限期加载失败且不缓存降级规则集")
+    void getRuleSet_ServesUnverifiedSnapshotOnlyWithinGracePeriod() {
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 0L);
+        ReflectionTestUtils.setField(cache, "staleGraceSeconds", 3600L);
+        when(ruleProvider.getEffectiveRuleSet("rs-6"))
+                .thenReturn(ruleSet("rs-6", "v1", "rule-1"))
+                .thenReturn(degraded("rs-6"));
+        when(ruleProvider.getRuleSetVersion("rs-6")).thenReturn("unknown");
+
+        RuleSetSnapshotCache.CompiledRuleSet v1 = cache.getRuleSet("rs-6");
+        assertThat(cache.getRuleSet("rs-6")).isSameAs(v1);
+
+        ReflectionTestUtils.setField(cache, "staleGraceSeconds", 0L);
+        assertThatThrownBy(() -> cache.getRuleSet("rs-6")).hasMessageContaining("规则服务不可用");
+        assertThat(cache.getRuleSet("rs-6", "default-1.0.0")).isNull();
+        assertThat(cache.getRuleSet("rs-6", "v1")).isSameAs(v1);
+        verify(ruleProvider, times(2)).getEffectiveRuleSet("rs-6");
+    }
+
+    @Test
+    @DisplayName("失效后重新加载得到降级规则集时宽限期内继续使用现有快照")
+    void getRuleSet_KeepsInvalidatedSnapshotWhenReloadIsDegraded() {
+        when(ruleProvider.getEffectiveRuleSet("rs-7"))
+                .thenReturn(ruleSet("rs-7", "v1", "rule-1"))
+                .thenReturn(degraded("rs-7"));
+        RuleSetSnapshotCache.CompiledRuleSet v1 = cache.getRuleSet("rs-7");
+
+        cache.invalidate("rs-7");
+
+        assertThat(cache.getRuleSet("rs-7")).isSameAs(v1);
+        assertThat(cache.getRuleSet("rs-7", "default-1.0.0")).isNull();
+    }
+
+    @Test
+    @DisplayName("编译后的规则集不可修改")
+    void compiledRuleSet_IsImmutable() {
+        when(ruleProvider.getEffectiveRuleSet("rs-5")).thenReturn(ruleSet("rs-5", "v1", "rule-1"));
+        RuleSetSnapshotCache.CompiledRuleSet snapshot = cache.getRuleSet("rs-5");
+
+        assertThatThrownBy(() -> snapshot.getRules().clear()).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> snapshot.getRules().get(0).getParameters().put("x", 1))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThat(snapshot.getRulesByType("KEYWORD")).hasSize(1);
+    }
+
+    private static RuleProvider.RuleSet degraded(String id) {
+        RuleProvider.RuleSet ruleSet = ruleSet(id, "default-1.0.0", "default-rule-001");
+        ruleSet.setDegraded(true);
+        return ruleSet;
+    }
+
+    private static RuleProvider.RuleSet ruleSet(String id, String version, String... ruleIds) {
+        List<RuleProvider.Rule> rules = new ArrayList<>();
+        for (String ruleId : ruleIds) {
+            rules.add(RuleProvider.Rule.builder()
+                    .id(ruleId)
+                    .name(ruleId)
+                    .type("KEYWORD")
+                    .threshold(0.8)
+                    .parameters(Map.of("keywords", List.of("保险")))
+                    .build());
+        }
+        return RuleProvider.RuleSet.builder().id(id).version(version).name(id).rules(rules).build();
+    }
+}
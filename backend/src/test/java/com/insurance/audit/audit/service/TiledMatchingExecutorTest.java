@@ -0,0 +1,225 @@
+package com.insurance.audit.audit.service;
+
+import com.insurance.audit.audit.dto.JobTraceTimeline;
+import com.insurance.audit.audit.matchers.Matcher;
+import com.insurance.audit.audit.matchers.ScriptMatcher;
+import com.insurance.audit.audit.service.DocumentProvider.DocumentChunk;
+import com.insurance.audit.audit.service.RuleProvider.Rule;
+import com.insurance.audit.audit.tracing.AuditTracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 分块并行匹配执行器测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@DisplayName("分块并行匹配执行器测试")
+class TiledMatchingExecutorTest {
+
+    private TiledMatchingExecutor executor;
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger peakRunning = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        executor = new TiledMatchingExecutor();
+        ReflectionTestUtils.setField(executor, "poolSize", 8);
+        ReflectionTestUtils.setField(executor, "maxParallelismPerJob", 3);
+        ReflectionTestUtils.setField(executor, "tileChunks", 4);
+        executor.start();
+        executor.registerMatcher("KEYWORD", this::echoMatch);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.stop();
+    }
+
+    @Test
+    @DisplayName("并行执行的结果顺序与串行一致")
+    void match_ResultOrderMatchesSequential() {
+        List<Rule> rules = rules(5);
+        List<DocumentChunk> chunks = chunks(50);
+
+        Map<String, List<Matcher.MatchResult>> parallel = executor.match(rules, chunks);
+        Map<String, List<Matcher.MatchResult>> sequential = executor.match(rules, chunks, 1);
+
+        assertThat(parallel.keySet()).containsExactly("R0", "R1", "R2", "R3", "R4");
+        for (Rule rule : rules) {
+            assertThat(parallel.get(rule.getId()))
+                    .extracting(Matcher.MatchResult::getChunkId)
+                    .containsExactlyElementsOf(chunkIds(chunks))
+                    .containsExactlyElementsOf(sequential.get(rule.getId()).stream()
+                            .map(Matcher.MatchResult::getChunkId).toList());
+        }
+        assertThat(executor.getStats().getSplitTiles()).isPositive();
+    }
+
+    @Test
+    @DisplayName("结果折叠进文档聚合器时按规则顺序登记摘要，计数与结果列表一致")
+    void match_FoldsResultsIntoAggregator() {
+        List<Rule> rules = new ArrayList<>(rules(3));
+        rules.add(Rule.builder().id("R-UNKNOWN").type("UNKNOWN").build());
+        List<DocumentChunk> chunks = chunks(50);
+
+        MatchResultAggregator aggregator = new MatchResultAggregator();
+        executor.match(null, rules, chunks, Map.of(), 0, aggregator);
+
+        assertThat(aggregator.getSummaries())
+                .extracting(MatchResultAggregator.RuleSummary::getRuleId)
+                .containsExactly("R0", "R1", "R2");
+        assertThat(aggregator.getSummaries())
+                .extracting(MatchResultAggregator.RuleSummary::getResultCount)
+                .containsOnly(50);
+        assertThat(aggregator.getResultCount()).isEqualTo(150);
+    }
+
+    @Test
+    @DisplayName("单个作业同时执行的瓦片数不超过并行度上限")
+    void match_RespectsPerJobParallelismCap() {
+        executor.match(rules(8), chunks(200));
+
+        assertThat(peakRunning.get()).isBetween(1, 3);
+        assertThat(executor.getStats().getExecutedTiles()).isEqualTo(8L * 50);
+    }
+
+    @Test
+    @DisplayName("作业取消后工作线程上的检查点中止剩余瓦片")
+    void match_PropagatesCancellationToWorkers() {
+        JobExecutionContext context = JobExecutionContext.create("job-tiles", 0);
+        AtomicInteger calls = new AtomicInteger();
+        executor.registerMatcher("KEYWORD", (rule, chunks) -> {
+            if (calls.incrementAndGet() == 5) {
+                context.cancel("用户取消");
+            }
+            return echoMatch(rule, chunks);
+        });
+
+        try (JobExecutionContext.Scope ignored = context.activate()) {
+            assertThatThrownBy(() -> executor.match(rules(4), chunks(200)))
+                    .isInstanceOf(JobExecutionContext.JobAbortedException.class);
+        }
+        assertThat(calls.get()).isLessThan(4 * 50);
+    }
+
+    @Test
+    @DisplayName("工作线程上的匹配器片段挂在调用方的活动片段下")
+    void match_PropagatesTraceSpanToWorkers() {
+        AuditTracer tracer = new AuditTracer();
+        tracer.startJobTrace("job-trace");
+        Set<String> workerThreads = ConcurrentHashMap.newKeySet();
+        executor.registerMatcher("KEYWORD", (rule, chunks) -> AuditTracer.inSpan("matcher.keyword", span -> {
+            workerThreads.add(Thread.currentThread().getName());
+            return echoMatch(rule, chunks);
+        }));
+
+        try (AuditTracer.TraceScope scope = tracer.activate("job-trace")) {
+            AuditTracer.inSpan("rule_matching", span -> executor.match(rules(4), chunks(40)));
+        }
+        tracer.finishJobTrace("job-trace", null);
+
+        assertThat(workerThreads).anyMatch(name -> name.startsWith("audit-matching-"));
+        List<JobTraceTimeline.SpanView> spans = tracer.getTimeline("job-trace").getSpans();
+        assertThat(spans).filteredOn(span -> "matcher.keyword".equals(span.getName()))
+                .hasSize(4 * 10)
+                .allSatisfy(span -> assertThat(span.getDepth()).isEqualTo(2));
+    }
+
+    @Test
+    @DisplayName("瓦片失败时等 fork 出的任务结束后才返回")
+    void match_JoinsForkedTasksOnFailure() {
+        AtomicInteger calls = new AtomicInteger();
+        executor.registerMatcher("KEYWORD", (rule, chunks) -> {
+            if (calls.incrementAndGet() == 3) {
+                throw new IllegalStateException("匹配失败");
+            }
+            return echoMatch(rule, chunks);
+        });
+
+        assertThatThrownBy(() -> executor.match(rules(4), chunks(200)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(running.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("脚本规则在其他规则之后执行，可读取其结果和产品字段，结果仍按规则顺序排列")
+    void match_RunsScriptRulesAfterOtherRules() {
+        ReflectionTestUtils.setField(executor, "scriptMatcher", new ScriptMatcher());
+        Rule script = Rule.builder()
+                .id("S0")
+                .type("ADVANCED")
+                .parameters(Map.of(ScriptMatcher.SCRIPT_PARAMETER,
+                        "matchedHere('R0') && contains(text, '1') && fields.产品性质 == '政策性'"))
+                .build();
+        List<Rule> rules = new ArrayList<>(List.of(script));
+        rules.addAll(rules(1));
+
+        Map<String, List<Matcher.MatchResult>> results =
+                executor.match(null, rules, chunks(12), Map.of("产品性质", "政策性"), 0);
+
+        assertThat(results.keySet()).containsExactly("S0", "R0");
+        assertThat(results.get("S0")).extracting(Matcher.MatchResult::getChunkId)
+                .containsExactly("chunk-1", "chunk-10", "chunk-11");
+        assertThat(results.get("S0")).extracting(Matcher.MatchResult::getStatus).containsOnly("FAILED");
+    }
+
+    private List<Matcher.MatchResult> echoMatch(Rule rule, List<DocumentChunk> chunks) {
+        int current = running.incrementAndGet();
+        peakRunning.accumulateAndGet(current, Math::max);
+        try {
+            JobExecutionContext.checkpoint();
+            Thread.sleep(1);
+            List<Matcher.MatchResult> results = new ArrayList<>();
+            for (DocumentChunk chunk : chunks) {
+                results.add(Matcher.MatchResult.builder()
+                        .ruleId(rule.getId())
+                        .chunkId(chunk.getId())
+                        .chunk(chunk)
+                        .score(1.0)
+                        .status("PASSED")
+                        .build());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    private static List<Rule> rules(int count) {
+        List<Rule> rules = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rules.add(Rule.builder().id("R" + i).type("KEYWORD").threshold(0.5).parameters(Map.of()).build());
+        }
+        return rules;
+    }
+
+    private static List<DocumentChunk> chunks(int count) {
+        List<DocumentChunk> chunks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            chunks.add(DocumentChunk.builder().id("chunk-" + i).text("条款" + i).build());
+        }
+        return chunks;
+    }
+
+    private static List<String> chunkIds(List<DocumentChunk> chunks) {
+        return chunks.stream().map(DocumentChunk::getId).toList();
+    }
+}
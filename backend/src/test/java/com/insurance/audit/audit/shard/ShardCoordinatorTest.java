@@ -0,0 +1,167 @@
+package com.insurance.audit.audit.shard;
+
+import com.insurance.audit.audit.dto.AuditResultDto;
+import com.insurance.audit.audit.dto.JobTraceTimeline;
+import com.insurance.audit.audit.service.JobExecutionContext;
+import com.insurance.audit.audit.shard.ShardQueue.JobShard;
+import com.insurance.audit.audit.shard.ShardQueue.ShardResult;
+import com.insurance.audit.audit.tracing.AuditTracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 分片协调器测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@DisplayName("分片协调器测试")
+class ShardCoordinatorTest {
+
+    private final InProcessShardQueue queue = new InProcessShardQueue();
+    private final List<ShardCoordinator> nodes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            ShardCoordinator node = new ShardCoordinator(queue, "node-" + i);
+            ReflectionTestUtils.setField(node, "documentsPerShard", 2);
+            ReflectionTestUtils.setField(node, "leaseMillis", 200L);
+            ReflectionTestUtils.setField(node, "heartbeatIntervalMillis", 50L);
+            ReflectionTestUtils.setField(node, "pollIntervalMillis", 20L);
+            nodes.add(node);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(ShardCoordinator::stop);
+    }
+
+    @Test
+    @DisplayName("分片由多个节点执行，结果合并且每个分片只合并一次")
+    void execute_MergesResultsFromAllNodes() {
+        startNodes();
+        ShardCoordinator owner = nodes.get(0);
+        List<String> documentIds = documents(20);
+        List<JobShard> shards = owner.split("job-shard", "ruleset-001", documentIds, 0);
+        assertThat(shards).hasSize(10);
+
+        List<ShardResult> merged = new ArrayList<>();
+        owner.execute("job-shard", shards, merged::add);
+
+        assertThat(merged).extracting(ShardResult::getShardId).doesNotHaveDuplicates().hasSize(10);
+        assertThat(merged.stream().flatMap(r -> r.getResults().stream()).map(AuditResultDto::getDocumentId))
+                .containsExactlyInAnyOrderElementsOf(documentIds);
+        assertThat(merged).allSatisfy(r -> assertThat(r.getStatus()).isEqualTo("COMPLETED"));
+        assertThat(merged.stream().map(ShardResult::getNodeId).distinct().count()).isGreaterThan(1);
+        assertThat(queue.getPendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("分片工作线程绑定作业链路，分片内的文档处理片段挂在作业链路下")
+    void execute_RecordsShardSpansInJobTrace() {
+        AuditTracer tracer = new AuditTracer();
+        nodes.forEach(node -> ReflectionTestUtils.setField(node, "auditTracer", tracer));
+        for (ShardCoordinator node : nodes) {
+            node.start();
+            node.registerProcessor(shard -> AuditTracer.inSpan("document_process", span -> process(shard)));
+        }
+        tracer.startJobTrace("job-traced");
+        ShardCoordinator owner = nodes.get(0);
+
+        owner.execute("job-traced", owner.split("job-traced", "ruleset-001", documents(6), 0), result -> { });
+        tracer.finishJobTrace("job-traced", null);
+
+        List<JobTraceTimeline.SpanView> spans = tracer.getTimeline("job-traced").getSpans();
+        assertThat(spans).filteredOn(span -> "shard_execute".equals(span.getName()))
+                .hasSize(3)
+                .allSatisfy(span -> assertThat(span.getDepth()).isEqualTo(1));
+        assertThat(spans).filteredOn(span -> "document_process".equals(span.getName()))
+                .hasSize(3)
+                .allSatisfy(span -> assertThat(span.getDepth()).isEqualTo(2));
+    }
+
+    @Test
+    @DisplayName("失联节点的分片在租约超时后被回收并重试")
+    void reclaim_RetriesShardsOfLostNode() throws InterruptedException {
+        List<JobShard> shards = nodes.get(0).split("job-lost", "ruleset-001", documents(4), 0);
+        queue.publish(shards);
+        // 模拟节点领取分片后失联，不再续租
+        JobShard lost = queue.claim("node-lost", 1000);
+        assertThat(lost.getShardId()).isEqualTo("job-lost-s0");
+
+        startNodes();
+        List<ShardResult> results = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (results.size() < 2 && System.currentTimeMillis() < deadline) {
+            results.addAll(queue.drainResults("job-lost", 100));
+        }
+
+        assertThat(results).extracting(ShardResult::getShardId)
+                .containsExactlyInAnyOrder("job-lost-s0", "job-lost-s1");
+        ShardResult reclaimed = results.stream()
+                .filter(r -> r.getShardId().equals("job-lost-s0"))
+                .findFirst().orElseThrow();
+        assertThat(reclaimed.getAttempt()).isEqualTo(2);
+        assertThat(reclaimed.getNodeId()).startsWith("node-").isNotEqualTo("node-lost");
+        assertThat(nodes.stream().mapToLong(n -> n.getStats().getReclaimedShards()).sum()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("作业超时后通知各节点并丢弃未领取的分片")
+    void execute_CancelsShardsWhenJobAborted() {
+        ShardCoordinator owner = nodes.get(0);
+        List<JobShard> shards = owner.split("job-timeout", "ruleset-001", documents(20), 0);
+
+        JobExecutionContext context = JobExecutionContext.create("job-timeout", 100);
+        try (JobExecutionContext.Scope ignored = context.activate()) {
+            assertThatThrownBy(() -> owner.execute("job-timeout", shards, result -> { }))
+                    .isInstanceOf(JobExecutionContext.JobAbortedException.class);
+        }
+
+        assertThat(queue.isCancelled("job-timeout")).isTrue();
+        assertThat(queue.getPendingCount()).isZero();
+    }
+
+    private void startNodes() {
+        for (ShardCoordinator node : nodes) {
+            node.start();
+            node.registerProcessor(this::process);
+        }
+    }
+
+    private ShardResult process(JobShard shard) {
+        List<AuditResultDto> results = new ArrayList<>();
+        for (String documentId : shard.getDocumentIds()) {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            results.add(AuditResultDto.builder().documentId(documentId).status("PASSED").build());
+        }
+        return ShardResult.builder()
+                .results(results)
+                .completedDocuments(shard.getDocumentIds().size())
+                .build();
+    }
+
+    private static List<String> documents(int count) {
+        List<String> documentIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            documentIds.add("doc-" + i);
+        }
+        return documentIds;
+    }
+}
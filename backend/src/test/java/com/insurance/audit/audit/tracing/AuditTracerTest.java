@@ -0,0 +1,148 @@
+package com.insurance.audit.audit.tracing;
+
+import com.insurance.audit.audit.dto.JobTraceTimeline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 检核作业链路追踪器测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@DisplayName("检核作业链路追踪器测试")
+class AuditTracerTest {
+
+    private AuditTracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        tracer = new AuditTracer();
+    }
+
+    @Test
+    @DisplayName("无活动链路时为空操作")
+    void inSpan_WithoutActiveTrace() {
+        String result = AuditTracer.inSpan("matcher.keyword", span -> {
+            span.setAttribute("rule.id", "R001");
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(AuditTracer.currentSpan()).isSameAs(TraceSpan.noop());
+    }
+
+    @Test
+    @DisplayName("嵌套片段形成父子关系并恢复线程上下文")
+    void nestedSpans_ParentChildAndContextRestored() {
+        tracer.startJobTrace("job-1");
+
+        try (AuditTracer.TraceScope scope = tracer.activate("job-1")) {
+            AuditTracer.inSpan("rule_matching", outer ->
+                    AuditTracer.inSpan("matcher.keyword", inner -> {
+                        assertThat(inner.getParent()).isSameAs(outer);
+                        return null;
+                    }));
+        }
+        tracer.finishJobTrace("job-1", null);
+
+        assertThat(AuditTracer.currentSpan()).isSameAs(TraceSpan.noop());
+
+        JobTraceTimeline timeline = tracer.getTimeline("job-1");
+        assertThat(timeline.getFinished()).isTrue();
+        assertThat(timeline.getSpans()).extracting(JobTraceTimeline.SpanView::getName)
+                .containsExactly("audit.job", "rule_matching", "matcher.keyword");
+        assertThat(timeline.getSpans()).extracting(JobTraceTimeline.SpanView::getDepth)
+                .containsExactly(0, 1, 2);
+    }
+
+    @Test
+    @DisplayName("异常时片段标记为失败")
+    void inSpan_RecordsError() {
+        tracer.startJobTrace("job-2");
+
+        try (AuditTracer.TraceScope scope = tracer.activate("job-2")) {
+            assertThatThrownBy(() -> AuditTracer.inSpan("parser.word", span -> {
+                throw new IllegalArgumentException("文档损坏");
+            })).isInstanceOf(IllegalArgumentException.class);
+        }
+        tracer.finishJobTrace("job-2", null);
+
+        JobTraceTimeline.SpanView parser = tracer.getTimeline("job-2").getSpans().get(1);
+        assertThat(parser.getStatus()).isEqualTo(TraceSpan.STATUS_ERROR);
+        assertThat(parser.getStatusMessage()).contains("文档损坏");
+    }
+
+    @Test
+    @DisplayName("关键路径选取最晚结束的并行分支")
+    void criticalPath_PicksSlowestBranch() throws Exception {
+        tracer.startJobTrace("job-3");
+        TraceSpan queue = tracer.startDetachedSpan("job-3", "concurrency.queue");
+        Thread.sleep(20);
+        queue.end();
+
+        try (AuditTracer.TraceScope scope = tracer.activate("job-3")) {
+            TraceSpan slow = tracer.startDetachedSpan("job-3", "matcher.llm");
+            TraceSpan fast = tracer.startDetachedSpan("job-3", "matcher.keyword");
+            Thread.sleep(10);
+            fast.end();
+            Thread.sleep(40);
+            slow.end();
+        }
+        tracer.finishJobTrace("job-3", null);
+
+        JobTraceTimeline timeline = tracer.getTimeline("job-3");
+        List<String> path = timeline.getCriticalPath().stream()
+                .map(JobTraceTimeline.CriticalPathSegment::getName)
+                .filter(name -> !name.equals("audit.job"))
+                .toList();
+        assertThat(path).containsExactly("concurrency.queue", "matcher.llm");
+
+        Map<String, Double> breakdown = timeline.getCriticalPathBreakdown();
+        assertThat(breakdown).doesNotContainKey("matcher.keyword");
+        assertThat(breakdown.get("matcher.llm")).isGreaterThanOrEqualTo(45.0);
+        double total = breakdown.values().stream().mapToDouble(Double::doubleValue).sum();
+        assertThat(total).isCloseTo(timeline.getTotalDurationMs(), within(0.01));
+    }
+
+    @Test
+    @DisplayName("未结束的片段在作业结束时被截断并标记失败")
+    void finishJobTrace_TruncatesOpenSpans() {
+        tracer.startJobTrace("job-4");
+        TraceSpan dangling = tracer.startDetachedSpan("job-4", "document_fetch");
+
+        tracer.finishJobTrace("job-4", new RuntimeException("作业失败"));
+
+        assertThat(dangling.getEndEpochNanos()).isPositive();
+        assertThat(dangling.getStatus()).isEqualTo(TraceSpan.STATUS_ERROR);
+        assertThat(tracer.getTimeline("job-4").getSpans().get(0).getStatus()).isEqualTo(TraceSpan.STATUS_ERROR);
+    }
+
+    @Test
+    @DisplayName("导出为OTLP JSON结构")
+    @SuppressWarnings("unchecked")
+    void exporter_BuildsOtlpRequest() {
+        JobTrace trace = new JobTrace("job-5", "audit.job");
+        trace.finish(null);
+        Map<String, Object> request = new OtlpFileSpanExporter().toExportRequest(trace);
+
+        List<Map<String, Object>> resourceSpans = (List<Map<String, Object>>) request.get("resourceSpans");
+        List<Map<String, Object>> scopeSpans = (List<Map<String, Object>>) resourceSpans.get(0).get("scopeSpans");
+        List<Map<String, Object>> spans = (List<Map<String, Object>>) scopeSpans.get(0).get("spans");
+        Map<String, Object> root = spans.get(0);
+
+        assertThat(root.get("traceId")).isEqualTo(trace.getTraceId());
+        assertThat((String) root.get("traceId")).hasSize(32);
+        assertThat((String) root.get("spanId")).hasSize(16);
+        assertThat(root).doesNotContainKey("parentSpanId");
+        assertThat(root.get("startTimeUnixNano")).isInstanceOf(String.class);
+        assertThat((Map<String, Object>) root.get("status")).containsEntry("code", 1);
+    }
+}
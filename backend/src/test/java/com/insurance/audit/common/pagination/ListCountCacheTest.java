@@ -0,0 +1,66 @@
+package com.insurance.audit.common.pagination;
+
+import com.insurance.audit.common.exception.BusinessException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 列表总数缓存与键集分页游标测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@DisplayName("列表总数缓存与键集分页游标测试")
+class ListCountCacheTest {
+
+    @Test
+    @DisplayName("相同筛选条件复用计数，失效后重新计数且只影响对应命名空间")
+    void getCount_CachesUntilInvalidated() {
+        ListCountCache cache = new ListCountCache();
+        AtomicInteger ruleCounts = new AtomicInteger();
+        AtomicInteger productCounts = new AtomicInteger();
+
+        assertThat(cache.getCount("rule", "EFFECTIVE", () -> 10 + ruleCounts.incrementAndGet())).isEqualTo(11);
+        assertThat(cache.getCount("rule", "EFFECTIVE", () -> 10 + ruleCounts.incrementAndGet())).isEqualTo(11);
+        assertThat(cache.getCount("rule", "OFFLINE", () -> 10 + ruleCounts.incrementAndGet())).isEqualTo(12);
+        assertThat(cache.getCount("products", "EFFECTIVE", productCounts::incrementAndGet)).isEqualTo(1);
+
+        cache.invalidate("rule");
+
+        assertThat(cache.getCount("rule", "EFFECTIVE", () -> 10 + ruleCounts.incrementAndGet())).isEqualTo(13);
+        assertThat(cache.getCount("products", "EFFECTIVE", productCounts::incrementAndGet)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("计数期间发生失效时结果不写回缓存")
+    void getCount_DiscardsCountRacingWithInvalidation() {
+        ListCountCache cache = new ListCountCache();
+        AtomicInteger counts = new AtomicInteger();
+
+        long stale = cache.getCount("rule", "", () -> {
+            cache.invalidate("rule");
+            return counts.incrementAndGet();
+        });
+
+        assertThat(stale).isEqualTo(1);
+        assertThat(cache.getCount("rule", "", counts::incrementAndGet)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("游标编码往返一致，格式错误时抛出参数异常")
+    void seekCursor_RoundTripsAndRejectsGarbage() {
+        SeekCursor cursor = new SeekCursor(LocalDateTime.of(2024, 9, 16, 10, 30, 5), "1835123456789012345");
+
+        assertThat(SeekCursor.decode(cursor.encode())).isEqualTo(cursor);
+        assertThat(SeekCursor.decode(null)).isNull();
+        assertThatThrownBy(() -> SeekCursor.decode("not-a-cursor"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("分页游标无效");
+    }
+}
@@ -3,8 +3,11 @@ package com.insurance.audit.product.application.service.impl;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.insurance.audit.common.TestDataFactory;
+import com.insurance.audit.common.dto.CursorPageResponse;
 import com.insurance.audit.common.exception.BusinessException;
 import com.insurance.audit.common.exception.ErrorCode;
+import com.insurance.audit.common.pagination.ListCountCache;
+import com.insurance.audit.common.pagination.SeekCursor;
 import com.insurance.audit.product.application.service.DocumentValidationService;
 import com.insurance.audit.product.domain.entity.Product;
 import com.insurance.audit.product.infrastructure.mapper.ProductMapper;
@@ -18,6 +21,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
@@ -41,6 +45,9 @@ class ProductServiceImplTest {
     @Mock
     private DocumentValidationService documentValidationService;
 
+    @Mock
+    private ListCountCache listCountCache;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -74,6 +81,31 @@ class ProductServiceImplTest {
         verify(productMapper).selectPageWithQuery(any(Page.class), eq(request));
     }
 
+    @Test
+    @DisplayName("游标查询产品 - 多读一行判断下一页并返回游标")
+    void scrollProducts_ReturnsNextCursor() {
+        // Given
+        ProductQueryRequest request = TestDataFactory.createDefaultProductQueryRequest();
+        request.setSize(2);
+        List<Product> products = TestDataFactory.createProductList(3);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 9, 12, 10, 0);
+        products.forEach(product -> product.setCreatedAt(createdAt));
+        SeekCursor cursor = new SeekCursor(LocalDateTime.of(2024, 9, 13, 8, 30), "product_100");
+
+        when(productMapper.selectPageAfter(eq(request), eq(cursor), eq(3))).thenReturn(products);
+
+        // When
+        CursorPageResponse<Product> result = productService.scrollProducts(request, cursor.encode(), false);
+
+        // Then
+        assertThat(result.getRecords()).hasSize(2);
+        assertThat(result.getHasMore()).isTrue();
+        assertThat(result.getTotal()).isNull();
+        assertThat(SeekCursor.decode(result.getNextCursor()))
+                .isEqualTo(new SeekCursor(createdAt, products.get(1).getId()));
+        verifyNoInteractions(listCountCache);
+    }
+
     @Test
     @DisplayName("根据ID获取产品 - 成功")
     void getProductById_Success() {
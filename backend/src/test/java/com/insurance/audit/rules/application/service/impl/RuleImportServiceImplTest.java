@@ -0,0 +1,186 @@
+package com.insurance.audit.rules.application.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.audit.common.exception.BusinessException;
+import com.insurance.audit.common.exception.ErrorCode;
+import com.insurance.audit.common.pagination.ListCountCache;
+import com.insurance.audit.rules.application.service.RuleStatisticsService;
+import com.insurance.audit.rules.domain.RuleImportBatch;
+import com.insurance.audit.rules.infrastructure.mapper.RuleImportBatchMapper;
+import com.insurance.audit.rules.infrastructure.mapper.RuleImportItemMapper;
+import com.insurance.audit.rules.interfaces.dto.response.ImportResultResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 规则导入服务实现类测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("规则导入服务实现类测试")
+class RuleImportServiceImplTest {
+
+    @Mock
+    private RuleImportBatchMapper ruleImportBatchMapper;
+
+    @Mock
+    private RuleImportItemMapper ruleImportItemMapper;
+
+    @Mock
+    private ListCountCache listCountCache;
+
+    @Mock
+    private RuleStatisticsService ruleStatisticsService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private RuleImportServiceImpl ruleImportService;
+
+    @TempDir
+    Path workDir;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ruleImportService, "workDir", workDir.toString());
+    }
+
+    @Test
+    @DisplayName("获取导入结果 - 处理中批次按已提交行数计算进度")
+    void getImportResult_ProcessingReportsProgress() {
+        // Given
+        RuleImportBatch batch = batch("BATCH_1", "PROCESSING");
+        batch.setTotalRows(200);
+        batch.setSuccessRows(40);
+        batch.setFailedRows(10);
+        when(ruleImportBatchMapper.selectById("BATCH_1")).thenReturn(batch);
+
+        // When
+        ImportResultResponse response = ruleImportService.getImportResult("BATCH_1");
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo("PROCESSING");
+        assertThat(response.getProgressPercent()).isEqualTo(25);
+        assertThat(response.getErrors()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("获取导入结果 - 已结束批次返回保存的错误明细")
+    void getImportResult_FinishedReturnsErrors() {
+        // Given
+        RuleImportBatch batch = batch("BATCH_2", "PARTIAL_SUCCESS");
+        batch.setTotalRows(3);
+        batch.setSuccessRows(2);
+        batch.setFailedRows(1);
+        batch.setFinishedAt(batch.getStartedAt().plusSeconds(5));
+        batch.setErrorDetails("[{\"rowNumber\":3,\"columnName\":\"规则名称\",\"errorType\":\"数据校验\","
+                + "\"errorMessage\":\"规则名称不能为空\"}]");
+        when(ruleImportBatchMapper.selectById("BATCH_2")).thenReturn(batch);
+
+        // When
+        ImportResultResponse response = ruleImportService.getImportResult("BATCH_2");
+
+        // Then
+        assertThat(response.getProgressPercent()).isEqualTo(100);
+        assertThat(response.getProcessingTimeMs()).isEqualTo(5000L);
+        assertThat(response.getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.getRowNumber()).isEqualTo(3));
+    }
+
+    @Test
+    @DisplayName("获取导入结果 - 批次不存在")
+    void getImportResult_NotFound() {
+        assertThatThrownBy(() -> ruleImportService.getImportResult("BATCH_404"))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code").isEqualTo(ErrorCode.NOT_FOUND.getCode());
+    }
+
+    @Test
+    @DisplayName("回滚导入数据 - 按批次删除规则并标记已回滚")
+    void rollbackImport_Success() {
+        // Given
+        RuleImportBatch batch = batch("BATCH_3", "SUCCESS");
+        RuleImportBatch rolledBack = batch("BATCH_3", "ROLLED_BACK");
+        rolledBack.setRollbackReason("导错文件");
+        rolledBack.setRolledBackRows(3);
+        when(ruleImportBatchMapper.selectById("BATCH_3")).thenReturn(batch, rolledBack);
+        when(ruleImportItemMapper.deleteRulesByBatchId(eq("BATCH_3"), anyString())).thenReturn(3);
+        when(ruleImportBatchMapper.markRolledBack(eq("BATCH_3"), eq("导错文件"), eq(3), any(LocalDateTime.class)))
+                .thenReturn(1);
+
+        // When
+        ImportResultResponse response = ruleImportService.rollbackImport("BATCH_3", "导错文件");
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo("ROLLED_BACK");
+        assertThat(response.getRollbackStatus()).isEqualTo("SUCCESS");
+        assertThat(response.getRollbackReason()).isEqualTo("导错文件");
+        verify(ruleImportItemMapper).deleteRulesByBatchId(eq("BATCH_3"), anyString());
+    }
+
+    @Test
+    @DisplayName("回滚导入数据 - 导入进行中的批次不能回滚")
+    void rollbackImport_ProcessingRejected() {
+        // Given
+        when(ruleImportBatchMapper.selectById("BATCH_4")).thenReturn(batch("BATCH_4", "PROCESSING"));
+        when(ruleImportBatchMapper.markRolledBack(eq("BATCH_4"), anyString(), anyInt(), any(LocalDateTime.class)))
+                .thenReturn(0);
+
+        // When & Then
+        assertThatThrownBy(() -> ruleImportService.rollbackImport("BATCH_4", "测试"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("导入进行中");
+    }
+
+    @Test
+    @DisplayName("删除导入批次 - 同时删除数据时清除规则列表计数缓存")
+    void deleteImportBatch_WithDataInvalidatesListCount() {
+        // Given
+        when(ruleImportBatchMapper.selectById("BATCH_5")).thenReturn(batch("BATCH_5", "SUCCESS"));
+        when(ruleImportItemMapper.deleteRulesByBatchId(eq("BATCH_5"), anyString())).thenReturn(2);
+
+        // When
+        boolean deleted = ruleImportService.deleteImportBatch("BATCH_5", true);
+
+        // Then
+        assertThat(deleted).isTrue();
+        verify(listCountCache).invalidate(RuleServiceImpl.COUNT_NAMESPACE);
+        verify(ruleImportBatchMapper).deleteById("BATCH_5");
+    }
+
+    private static RuleImportBatch batch(String batchId, String status) {
+        return RuleImportBatch.builder()
+                .batchId(batchId)
+                .fileName("rules.xlsx")
+                .ruleType("SINGLE")
+                .status(status)
+                .successRows(0)
+                .failedRows(0)
+                .startedAt(LocalDateTime.of(2024, 9, 16, 10, 0))
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+}
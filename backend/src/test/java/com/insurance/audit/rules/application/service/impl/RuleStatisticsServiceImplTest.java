@@ -0,0 +1,135 @@
+package com.insurance.audit.rules.application.service.impl;
+
+import com.insurance.audit.rules.domain.Rule;
+import com.insurance.audit.rules.domain.RuleStatistics;
+import com.insurance.audit.rules.enums.RuleAuditStatus;
+import com.insurance.audit.rules.enums.RuleEffectiveStatus;
+import com.insurance.audit.rules.enums.RuleType;
+import com.insurance.audit.rules.infrastructure.mapper.RuleStatisticsMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 规则统计服务实现类测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("规则统计服务实现类测试")
+class RuleStatisticsServiceImplTest {
+
+    @Mock
+    private RuleStatisticsMapper ruleStatisticsMapper;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private RuleStatisticsServiceImpl ruleStatisticsService;
+
+    @Test
+    @DisplayName("批量新增 - 同维度合并为一次累加")
+    void recordCreated_MergesSameKey() {
+        // When
+        ruleStatisticsService.recordCreated(List.of(
+                rule(RuleAuditStatus.DRAFT, RuleEffectiveStatus.INACTIVE),
+                rule(RuleAuditStatus.DRAFT, RuleEffectiveStatus.INACTIVE),
+                rule(RuleAuditStatus.PENDING, RuleEffectiveStatus.INACTIVE)));
+
+        // Then
+        ArgumentCaptor<RuleStatistics> keys = ArgumentCaptor.forClass(RuleStatistics.class);
+        ArgumentCaptor<Long> deltas = ArgumentCaptor.forClass(Long.class);
+        verify(ruleStatisticsMapper, times(2)).increment(keys.capture(), deltas.capture());
+        assertThat(keys.getAllValues()).extracting(RuleStatistics::getAuditStatus).containsExactly("DRAFT", "PENDING");
+        assertThat(deltas.getAllValues()).containsExactly(2L, 1L);
+    }
+
+    @Test
+    @DisplayName("状态变更 - 相反方向的变更按相同维度顺序加锁")
+    void recordStatusChanged_LocksInKeyOrder() {
+        // Given
+        Rule submitted = rule(RuleAuditStatus.PENDING, RuleEffectiveStatus.INACTIVE);
+        Rule rolledBack = rule(RuleAuditStatus.DRAFT, RuleEffectiveStatus.INACTIVE);
+
+        // When
+        ruleStatisticsService.recordStatusChanged(submitted, RuleAuditStatus.DRAFT, RuleEffectiveStatus.INACTIVE);
+        ruleStatisticsService.recordStatusChanged(rolledBack, RuleAuditStatus.PENDING, RuleEffectiveStatus.INACTIVE);
+
+        // Then
+        InOrder inOrder = inOrder(ruleStatisticsMapper);
+        inOrder.verify(ruleStatisticsMapper).increment(argThat(key -> "DRAFT".equals(key.getAuditStatus())), eq(-1L));
+        inOrder.verify(ruleStatisticsMapper).increment(argThat(key -> "PENDING".equals(key.getAuditStatus())), eq(1L));
+        inOrder.verify(ruleStatisticsMapper).increment(argThat(key -> "DRAFT".equals(key.getAuditStatus())), eq(1L));
+        inOrder.verify(ruleStatisticsMapper).increment(argThat(key -> "PENDING".equals(key.getAuditStatus())), eq(-1L));
+    }
+
+    @Test
+    @DisplayName("获取统计 - 按维度汇总并忽略计数为0的项")
+    void getStatistics_AggregatesSummaryRows() {
+        // Given
+        when(ruleStatisticsMapper.selectAll()).thenReturn(List.of(
+                row("SINGLE", "PENDING", "INACTIVE", "产品部", 3),
+                row("SINGLE", "APPROVED", "ACTIVE", "", 5),
+                row("FORMAT", "DRAFT", "INACTIVE", "产品部", 0)));
+
+        // When
+        Map<String, Object> statistics = ruleStatisticsService.getStatistics();
+
+        // Then
+        assertThat(statistics).containsEntry("totalCount", 8L).containsEntry("pendingAuditCount", 3L);
+        assertThat(statistics.get("typeCount")).isEqualTo(Map.of("SINGLE", 8L));
+        assertThat(statistics.get("statusCount")).isEqualTo(Map.of("PENDING", 3L, "APPROVED", 5L));
+        assertThat(statistics.get("departmentCount")).isEqualTo(Map.of("产品部", 3L, "", 5L));
+    }
+
+    @Test
+    @DisplayName("对账 - 统计偏差项包括计数不一致、缺失和多余的维度")
+    void countDrift_DetectsMismatchedMissingAndStaleKeys() {
+        List<RuleStatistics> stored = List.of(
+                row("SINGLE", "PENDING", "INACTIVE", "", 3),
+                row("SINGLE", "DRAFT", "INACTIVE", "", 2),
+                row("FORMAT", "DRAFT", "INACTIVE", "", 0));
+        List<RuleStatistics> actual = List.of(
+                row("SINGLE", "PENDING", "INACTIVE", "", 4),
+                row("SINGLE", "DRAFT", "INACTIVE", "", 2),
+                row("DOUBLE", "DRAFT", "INACTIVE", "", 1));
+
+        assertThat(RuleStatisticsServiceImpl.countDrift(stored, actual)).isEqualTo(2);
+        assertThat(RuleStatisticsServiceImpl.countDrift(actual, actual)).isZero();
+    }
+
+    private static Rule rule(RuleAuditStatus auditStatus, RuleEffectiveStatus effectiveStatus) {
+        Rule rule = new Rule();
+        rule.setRuleType(RuleType.SINGLE);
+        rule.setAuditStatus(auditStatus);
+        rule.setEffectiveStatus(effectiveStatus);
+        return rule;
+    }
+
+    private static RuleStatistics row(String ruleType, String auditStatus, String effectiveStatus,
+                                      String department, long count) {
+        return RuleStatistics.builder()
+                .ruleType(ruleType)
+                .auditStatus(auditStatus)
+                .effectiveStatus(effectiveStatus)
+                .manageDepartment(department)
+                .ruleCount(count)
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package com.insurance.audit.rules.application.service.impl;
+
+import com.insurance.audit.common.exception.BusinessException;
+import com.insurance.audit.rules.application.service.RuleService;
+import com.insurance.audit.rules.application.service.RuleStatisticsService;
+import com.insurance.audit.rules.domain.Rule;
+import com.insurance.audit.rules.enums.RuleAuditStatus;
+import com.insurance.audit.rules.enums.RuleEffectiveStatus;
+import com.insurance.audit.rules.enums.RuleType;
+import com.insurance.audit.rules.infrastructure.mapper.RuleMapper;
+import com.insurance.audit.rules.infrastructure.mapper.RuleOperationLogMapper;
+import com.insurance.audit.rules.interfaces.dto.request.SubmitOARequest;
+import com.insurance.audit.rules.interfaces.dto.request.UpdateAuditStatusRequest;
+import com.insurance.audit.rules.interfaces.dto.response.BatchOperationResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 规则状态管理服务实现类测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("规则状态管理服务实现类测试")
+class RuleStatusServiceImplTest {
+
+    @Mock
+    private RuleService ruleService;
+
+    @Mock
+    private RuleMapper ruleMapper;
+
+    @Mock
+    private RuleOperationLogMapper operationLogMapper;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RuleStatisticsService ruleStatisticsService;
+
+    @InjectMocks
+    private RuleStatusServiceImpl ruleStatusService;
+
+    @Test
+    @DisplayName("批量更新审核状态 - 按原状态分组更新，逐条返回结果")
+    void batchUpdateAuditStatus_GroupsByTransition() {
+        // Given
+        when(ruleMapper.selectStatusForUpdate(anyCollection())).thenReturn(List.of(
+                rule("R1", RuleAuditStatus.PENDING), rule("R2", RuleAuditStatus.PENDING),
+                rule("R3", RuleAuditStatus.DRAFT)));
+        when(ruleMapper.updateAuditStatusBatch(eq(List.of("R1", "R2")), eq(RuleAuditStatus.PENDING),
+                eq(RuleAuditStatus.APPROVED), anyString(), any())).thenReturn(2);
+
+        // When
+        BatchOperationResponse response = ruleStatusService.batchUpdateAuditStatus(List.of(
+                request("R1", RuleAuditStatus.APPROVED), request("R2", RuleAuditStatus.APPROVED),
+                request("R3", RuleAuditStatus.APPROVED), request("R404", RuleAuditStatus.APPROVED)));
+
+        // Then
+        assertThat(response.getSuccessIds()).containsExactly("R1", "R2");
+        assertThat(response.getFailedIds()).containsExactly("R3", "R404");
+        assertThat(response.getErrorMessages().get("R3")).contains("无效的审核状态流转");
+        assertThat(response.getErrorMessages().get("R404")).contains("规则不存在");
+        verify(ruleMapper, times(1)).updateAuditStatusBatch(anyCollection(), any(), any(), anyString(), any());
+        verify(operationLogMapper).insertBatch(argThat(logs -> logs.size() == 2));
+        verify(ruleStatisticsService).recordStatusChanged(
+                argThat((List<Rule> previous) -> previous.size() == 2), argThat((List<Rule> current) -> current.size() == 2));
+        verify(ruleMapper, never()).updateById(any(Rule.class));
+    }
+
+    @Test
+    @DisplayName("提交OA - 草稿和已驳回规则各一条更新语句")
+    void submitToOA_UpdatesEachSourceStatusOnce() {
+        // Given
+        when(ruleMapper.selectStatusForUpdate(anyCollection())).thenReturn(List.of(
+                rule("R1", RuleAuditStatus.DRAFT), rule("R2", RuleAuditStatus.REJECTED)));
+        when(ruleMapper.updateAuditStatusBatch(anyCollection(), any(), eq(RuleAuditStatus.PENDING), anyString(), any()))
+                .thenReturn(1);
+        SubmitOARequest request = new SubmitOARequest();
+        request.setRuleIds(List.of("R1", "R2"));
+
+        // When
+        BatchOperationResponse response = ruleStatusService.submitToOA(request);
+
+        // Then
+        assertThat(response.getSuccessCount()).isEqualTo(2);
+        verify(ruleMapper).updateAuditStatusBatch(eq(List.of("R1")), eq(RuleAuditStatus.DRAFT),
+                eq(RuleAuditStatus.PENDING), anyString(), any());
+        verify(ruleMapper).updateAuditStatusBatch(eq(List.of("R2")), eq(RuleAuditStatus.REJECTED),
+                eq(RuleAuditStatus.PENDING), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("批量更新审核状态 - 更新行数与锁定行数不符时整批失败")
+    void batchUpdateAuditStatus_FailsWhenRowsChangedUnderneath() {
+        // Given
+        when(ruleMapper.selectStatusForUpdate(anyCollection())).thenReturn(List.of(
+                rule("R1", RuleAuditStatus.PENDING), rule("R2", RuleAuditStatus.PENDING)));
+        when(ruleMapper.updateAuditStatusBatch(anyCollection(), any(), any(), anyString(), any())).thenReturn(1);
+
+        // When & Then
+        assertThatThrownBy(() -> ruleStatusService.batchUpdateAuditStatus(List.of(
+                request("R1", RuleAuditStatus.APPROVED), request("R2", RuleAuditStatus.APPROVED))))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("规则状态已变化");
+        verifyNoInteractions(operationLogMapper);
+    }
+
+    private static Rule rule(String id, RuleAuditStatus auditStatus) {
+        Rule rule = new Rule();
+        rule.setId(id);
+        rule.setRuleType(RuleType.SINGLE);
+        rule.setAuditStatus(auditStatus);
+        rule.setEffectiveStatus(RuleEffectiveStatus.INACTIVE);
+        return rule;
+    }
+
+    private static UpdateAuditStatusRequest request(String ruleId, RuleAuditStatus auditStatus) {
+        return UpdateAuditStatusRequest.builder()
+                .ruleId(ruleId)
+                .auditStatus(auditStatus)
+                .remark("批量审核")
+                .build();
+    }
+}
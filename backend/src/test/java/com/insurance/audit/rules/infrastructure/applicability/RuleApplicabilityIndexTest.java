@@ -0,0 +1,111 @@
+package com.insurance.audit.rules.infrastructure.applicability;
+
+import com.insurance.audit.common.event.RuleChangedEvent;
+import com.insurance.audit.rules.domain.Rule;
+import com.insurance.audit.rules.infrastructure.mapper.RuleMapper;
+import com.insurance.audit.rules.interfaces.dto.request.RuleApplicabilityQuery;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 规则适用性索引测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+@DisplayName("规则适用性索引测试")
+class RuleApplicabilityIndexTest {
+
+    private final RuleMapper ruleMapper = mock(RuleMapper.class);
+
+    private final RuleApplicabilityIndex index = new RuleApplicabilityIndex(ruleMapper);
+
+    @Test
+    @DisplayName("按维度求交集，未限定的维度视为适用")
+    void findApplicableRuleIds_IntersectsDimensions() {
+        when(ruleMapper.selectApplicability()).thenReturn(List.of(
+                rule("R1", "政策性农险，养殖险", "西藏自治区", null),
+                rule("R2", "政策性农险", "全国", "保险责任"),
+                rule("R3", "商业性农险", null, null),
+                rule("R4", null, "四川省", null)));
+
+        assertThat(index.findApplicableRuleIds(query(List.of("政策性农险"), List.of("西藏自治区"), null)))
+                .containsExactly("R1", "R2");
+        assertThat(index.findApplicableRuleIds(query(List.of("养殖险"), List.of("四川省"), null)))
+                .containsExactly("R4");
+        assertThat(index.findApplicableRuleIds(query(null, List.of("四川省"), List.of("保险责任"))))
+                .containsExactly("R2", "R3", "R4");
+        assertThat(index.findApplicableRuleIds(new RuleApplicabilityQuery())).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("按检核时间点过滤未生效和已失效的规则")
+    void findApplicableRuleIds_FiltersByValidity() {
+        LocalDateTime now = LocalDateTime.of(2024, 9, 16, 12, 0);
+        Rule notYetEffective = rule("R1", null, null, null);
+        notYetEffective.setEffectiveTime(now.plusDays(1));
+        Rule expired = rule("R2", null, null, null);
+        expired.setExpiryTime(now);
+        Rule valid = rule("R3", null, null, null);
+        valid.setEffectiveTime(now.minusDays(1));
+        valid.setExpiryTime(now.plusDays(1));
+        when(ruleMapper.selectApplicability()).thenReturn(List.of(notYetEffective, expired, valid));
+
+        RuleApplicabilityQuery query = new RuleApplicabilityQuery();
+        query.setAt(now);
+
+        assertThat(index.findApplicableRuleIds(query)).containsExactly("R3");
+    }
+
+    @Test
+    @DisplayName("增量更新：重新加载变更的规则，查询不到的规则移出索引并复用序号")
+    void refresh_ReloadsChangedRules() {
+        when(ruleMapper.selectApplicability()).thenReturn(List.of(
+                rule("R1", "政策性农险", null, null),
+                rule("R2", "政策性农险", null, null)));
+        RuleApplicabilityQuery agricultural = query(List.of("政策性农险"), null, null);
+        assertThat(index.findApplicableRuleIds(agricultural)).containsExactly("R1", "R2");
+
+        when(ruleMapper.selectApplicabilityByIds(anyCollection())).thenReturn(List.of(
+                rule("R3", "政策性农险", null, null)));
+        index.onRuleChanged(new RuleChangedEvent(List.of("R1", "R3"), LocalDateTime.now()));
+        index.refresh();
+
+        assertThat(index.findApplicableRuleIds(agricultural)).containsExactlyInAnyOrder("R2", "R3");
+        assertThat(index.size()).isEqualTo(2);
+        verify(ruleMapper, times(1)).selectApplicability();
+    }
+
+    @Test
+    @DisplayName("适用范围拆分：支持中英文分隔符，包含不限取值时视为不限")
+    void parseValues_SplitsAndRecognisesUnrestricted() {
+        assertThat(RuleApplicabilityIndex.parseValues("种植险、养殖险; 林木险")).containsExactly("种植险", "养殖险", "林木险");
+        assertThat(RuleApplicabilityIndex.parseValues("西藏自治区,全国")).isEmpty();
+        assertThat(RuleApplicabilityIndex.parseValues("  ")).isEmpty();
+    }
+
+    private static Rule rule(String id, String insurance, String businessArea, String chapter) {
+        Rule rule = new Rule();
+        rule.setId(id);
+        rule.setApplicableInsurance(insurance);
+        rule.setBusinessArea(businessArea);
+        rule.setApplicableChapter(chapter);
+        return rule;
+    }
+
+    private static RuleApplicabilityQuery query(List<String> insurances, List<String> areas, List<String> chapters) {
+        return RuleApplicabilityQuery.builder()
+                .insurances(insurances)
+                .businessAreas(areas)
+                .chapters(chapters)
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.insurance.audit.rules.infrastructure.importer;
+
+import com.insurance.audit.rules.enums.RuleType;
+import com.insurance.audit.rules.interfaces.dto.response.ImportResultResponse;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 规则导入流式读取与行校验测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+@DisplayName("规则导入流式读取与行校验测试")
+class RuleSheetReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("xlsx 流式读取跳过空白行并按单元格引用补齐缺失列")
+    void read_StreamsRowsAndPadsMissingCells() throws IOException {
+        Path file = tempDir.resolve("rules.xlsx");
+        try (Workbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("规则");
+            String[] headers = RuleImportRow.headers(RuleType.DOUBLE);
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < headers.length; i++) {
+                header.createCell(i).setCellValue(headers[i]);
+            }
+            Row first = sheet.createRow(1);
+            first.createCell(0).setCellValue("年龄限制");
+            first.createCell(2).setCellValue("投保年龄");
+            first.createCell(3).setCellValue(65);
+            sheet.createRow(2).createCell(1).setCellValue("  ");
+            sheet.createRow(3).createCell(0).setCellValue("第二条");
+            workbook.write(out);
+        }
+
+        List<String[]> rows = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        new RuleSheetReader().read(file, null, (rowIndex, cells) -> {
+            indexes.add(rowIndex);
+            rows.add(cells);
+            return true;
+        });
+
+        assertThat(indexes).containsExactly(0, 1, 3);
+        assertThat(RuleImportRow.detectType(rows.get(0))).isEqualTo(RuleType.DOUBLE);
+        assertThat(rows.get(1)).containsExactly("年龄限制", "", "投保年龄", "65");
+        RuleImportRow row = RuleImportRow.of(indexes.get(1), RuleType.DOUBLE, rows.get(1));
+        assertThat(row.getRowNumber()).isEqualTo(2);
+        assertThat(row.getSecondaryValue()).isEqualTo("65");
+        assertThat(row.getRuleSource()).isEmpty();
+
+        List<Integer> stopped = new ArrayList<>();
+        new RuleSheetReader().read(file, "规则", (rowIndex, cells) -> stopped.add(rowIndex) && rowIndex < 1);
+        assertThat(stopped).containsExactly(0, 1);
+    }
+
+    @Test
+    @DisplayName("格式规则校验正则与示例，高级规则校验参数配置")
+    void validate_ChecksTypeSpecificColumns() {
+        RuleImportRowValidator validator = new RuleImportRowValidator();
+        RuleImportRow format = RuleImportRow.of(4, RuleType.FORMAT,
+                new String[]{"保单号格式", "保单号为10位数字", "\\d{10}", "12345", ""});
+        RuleImportRow badPattern = RuleImportRow.of(5, RuleType.FORMAT,
+                new String[]{"保单号格式", "保单号为10位数字", "\\d{10", "", ""});
+        RuleImportRow advanced = RuleImportRow.of(6, RuleType.ADVANCED,
+                new String[]{"高级规则", "脚本校验", "return true", "[1, 2]", ""});
+
+        assertThat(validator.validate(format)).extracting(ImportResultResponse.ImportError::getErrorMessage)
+                .containsExactly("示例不符合格式模式");
+        assertThat(validator.validate(badPattern)).singleElement()
+                .satisfies(error -> assertThat(error.getRowNumber()).isEqualTo(6));
+        assertThat(validator.validate(advanced)).extracting(ImportResultResponse.ImportError::getColumnName)
+                .containsExactly("参数配置");
+
+        RuleImportRow single = RuleImportRow.of(7, RuleType.SINGLE,
+                new String[]{"等待期", "等待期不超过90天", "等待期", "监管规定"});
+        assertThat(validator.validate(single)).isEmpty();
+        assertThat(validator.toRule(single, "id-1", "IMP_1", "u1", null).getRuleContent())
+                .isEqualTo("{\"content\":\"等待期\"}");
+    }
+}
@@ -0,0 +1,61 @@
+package com.insurance.audit.rules.infrastructure.search;
+
+import com.insurance.audit.rules.domain.Rule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 规则全文检索条件与高亮测试
+ *
+ * @author System
+ * @version 1.0.0
+ * @since 2024-09-16
+ */
+@DisplayName("规则全文检索条件与高亮测试")
+class RuleSearchHighlighterTest {
+
+    private final RuleSearchHighlighter highlighter = new RuleSearchHighlighter();
+
+    @Test
+    @DisplayName("关键词拆分为必须命中的短语，短于 ngram 长度时回退")
+    void toBooleanQuery_BuildsRequiredPhrases() {
+        assertThat(RuleSearchSupport.toBooleanQuery(" 等待期  \"保险\" ")).isEqualTo("+\"等待期\" +\"保险\"");
+        assertThat(RuleSearchSupport.toBooleanQuery("a+b -c")).isEqualTo("+\"a+b\" +\"-c\"");
+        assertThat(RuleSearchSupport.isFullTextSearchable("等待期 保险")).isTrue();
+        assertThat(RuleSearchSupport.isFullTextSearchable("等待期 期")).isFalse();
+        assertThat(RuleSearchSupport.isFullTextSearchable("  ")).isFalse();
+        assertThat(RuleSearchSupport.toBooleanQuery(null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("命中词加标记、其余文本转义，只返回有命中的字段")
+    void highlight_MarksTermsAndEscapesText() {
+        Rule rule = new Rule();
+        rule.setRuleName("等待期<90天>");
+        rule.setRuleDescription("保险期间内等待期不得超过90天");
+        rule.setRuleContent("{\"content\":\"犹豫期\"}");
+
+        Map<String, String> highlights = highlighter.highlight(rule, "等待期 90");
+
+        assertThat(highlights).containsOnlyKeys("ruleName", "ruleDescription");
+        assertThat(highlights.get("ruleName")).isEqualTo("<em>等待期</em>&lt;<em>90</em>天&gt;");
+        assertThat(highlights.get("ruleDescription")).isEqualTo("保险期间内<em>等待期</em>不得超过<em>90</em>天");
+    }
+
+    @Test
+    @DisplayName("长文本截取首个命中附近的片段，重叠命中合并")
+    void fragment_TrimsAroundFirstMatch() {
+        String text = "甲".repeat(200) + "Waiting period" + "乙".repeat(200);
+
+        String fragment = highlighter.fragment(text, new String[]{"waiting", "ing period"});
+
+        assertThat(fragment).startsWith("...").endsWith("...");
+        assertThat(fragment).contains("甲".repeat(20) + "<em>Waiting period</em>乙");
+        assertThat(fragment.replace("<em>", "").replace("</em>", "").replace("...", "")).hasSize(120);
+        assertThat(highlighter.fragment(text, new String[]{"保险"})).isNull();
+    }
+}